@@ -0,0 +1,53 @@
+package org.woped.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.woped.core.controller.IEditor;
+import org.woped.qualanalysis.structure.StructuralAnalysis;
+
+/**
+ * Measures the detection of PT- and TP-handles by the structural analysis.
+ * <p>
+ * Only the parallel and the free-choice nets contain handles, the chain serves as a baseline for the overhead of the
+ * analysis itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandleDetectionBenchmark {
+
+    @Param({ SyntheticNets.CHAIN, SyntheticNets.PARALLEL, SyntheticNets.FREE_CHOICE })
+    public String shape;
+
+    @Param({ "4", "16", "64" })
+    public int size;
+
+    private IEditor editor;
+
+    @Setup
+    public void setUp() {
+        editor = SyntheticNets.createEditor(shape, size);
+    }
+
+    @Benchmark
+    public void handles(Blackhole blackhole) {
+        StructuralAnalysis analysis = new StructuralAnalysis(editor);
+        blackhole.consume(analysis.getPTHandles());
+        blackhole.consume(analysis.getTPHandles());
+    }
+}
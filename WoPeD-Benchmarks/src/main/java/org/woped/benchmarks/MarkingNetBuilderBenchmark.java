@@ -0,0 +1,53 @@
+package org.woped.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.woped.qualanalysis.soundness.builder.BuilderFactory;
+import org.woped.qualanalysis.soundness.builder.markingnet.MarkingNetAlgorithm;
+import org.woped.qualanalysis.soundness.datamodel.ILowLevelPetriNet;
+import org.woped.qualanalysis.soundness.marking.IMarkingNet;
+
+/**
+ * Measures the construction of the reachability graph of a net including t*, as done by the soundness check.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarkingNetBuilderBenchmark {
+
+    @Param({ SyntheticNets.CHAIN, SyntheticNets.PARALLEL, SyntheticNets.FREE_CHOICE })
+    public String shape;
+
+    @Param({ "16", "64", "256" })
+    public int size;
+
+    @Param({ "BOOK", "KARP_MILLER" })
+    public MarkingNetAlgorithm algorithm;
+
+    private ILowLevelPetriNet lolNet;
+
+    @Setup
+    public void setUp() {
+        lolNet = BuilderFactory.createLowLevelPetriNetWithTStarBuilder(SyntheticNets.createEditor(shape, size))
+                .getLowLevelPetriNet();
+    }
+
+    @Benchmark
+    public IMarkingNet buildMarkingNet() {
+        return BuilderFactory.createMarkingNet(lolNet, algorithm);
+    }
+}
@@ -0,0 +1,73 @@
+package org.woped.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.woped.config.metrics.WoPeDMetricsConfiguration;
+import org.woped.core.config.ConfigurationManager;
+import org.woped.core.controller.IEditor;
+import org.woped.gui.translations.Messages;
+import org.woped.metrics.exceptions.CalculateFormulaException;
+import org.woped.metrics.metricsCalculation.MetricsCalculator;
+import org.woped.metrics.metricsCalculation.MetricsUIRequestHandler;
+
+/**
+ * Measures the calculation of all metrics of the group "All metrics" by a fresh
+ * {@link MetricsCalculator}, i.e. without values buffered by earlier calculations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsCalculatorBenchmark {
+
+    @Param({ SyntheticNets.CHAIN, SyntheticNets.PARALLEL, SyntheticNets.FREE_CHOICE })
+    public String shape;
+
+    @Param({ "2", "4", "8" })
+    public int size;
+
+    private IEditor editor;
+    private final List<String> metricIds = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        WoPeDMetricsConfiguration metricsConfig = new WoPeDMetricsConfiguration();
+        metricsConfig.initConfig();
+        ConfigurationManager.setMetricsConfiguration(metricsConfig);
+
+        metricIds.clear();
+        for (String name : MetricsUIRequestHandler.getLayeredAlgoNames(
+                Messages.getString("Metrics.AlgorthimGroup.Name.AllMetrics"))) {
+            metricIds.add(MetricsUIRequestHandler.algorithmNameToID(name));
+        }
+        editor = SyntheticNets.createEditor(shape, size);
+    }
+
+    @Benchmark
+    public void calculateAll(Blackhole blackhole) {
+        MetricsCalculator calculator = new MetricsCalculator(editor);
+        for (String id : metricIds) {
+            try {
+                blackhole.consume(calculator.calculate(id));
+            } catch (CalculateFormulaException e) {
+                blackhole.consume(e);
+            }
+        }
+    }
+}
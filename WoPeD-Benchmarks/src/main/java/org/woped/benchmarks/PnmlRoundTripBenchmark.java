@@ -0,0 +1,85 @@
+package org.woped.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.woped.core.model.PetriNetModelProcessor;
+import org.woped.editor.controller.vc.EditorVC;
+import org.woped.file.PNMLExport;
+import org.woped.file.PNMLImport;
+
+/**
+ * Measures the PNML export and import of a net, separately and as a round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PnmlRoundTripBenchmark {
+
+    @Param({ SyntheticNets.CHAIN, SyntheticNets.PARALLEL, SyntheticNets.FREE_CHOICE })
+    public String shape;
+
+    @Param({ "16", "64", "256" })
+    public int size;
+
+    private EditorVC editor;
+    private byte[] pnml;
+
+    @Setup
+    public void setUp() {
+        editor = SyntheticNets.createEditor(shape, size);
+        pnml = export(editor).toByteArray();
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream exportNet() {
+        return export(editor);
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream exportNetStreaming() {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        if (!new PNMLExport(null).saveToStream(editor, os, true)) {
+            throw new IllegalStateException("export of " + editor.getName() + " failed");
+        }
+        return os;
+    }
+
+    @Benchmark
+    public PetriNetModelProcessor[] importNet() throws Exception {
+        return new PNMLImport(null).importHeadless(new ByteArrayInputStream(pnml));
+    }
+
+    @Benchmark
+    public PetriNetModelProcessor[] importNetStreaming() throws Exception {
+        return new PNMLImport(null).importHeadless(new ByteArrayInputStream(pnml), true);
+    }
+
+    @Benchmark
+    public PetriNetModelProcessor[] roundTrip() throws Exception {
+        return new PNMLImport(null).importHeadless(new ByteArrayInputStream(export(editor).toByteArray()));
+    }
+
+    private static ByteArrayOutputStream export(EditorVC editor) {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        if (!new PNMLExport(null).saveToStream(editor, os)) {
+            throw new IllegalStateException("export of " + editor.getName() + " failed");
+        }
+        return os;
+    }
+}
@@ -0,0 +1,96 @@
+package org.woped.benchmarks;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.woped.core.controller.IEditor;
+import org.woped.core.model.PetriNetModelProcessor;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+import org.woped.core.model.petrinet.TransitionModel;
+import org.woped.quantana.resourcealloc.ResourceAllocation;
+import org.woped.quantana.resourcealloc.ResourceUtilization;
+import org.woped.quantana.sim.SimDistribution;
+import org.woped.quantana.sim.SimGraph;
+import org.woped.quantana.sim.SimParameters;
+import org.woped.quantana.sim.SimReportStats;
+import org.woped.quantana.sim.SimRunner;
+
+/**
+ * Measures a single replication of the quantitative simulation with normally distributed inter-arrival and service
+ * times and without resources.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimRunnerBenchmark {
+
+    /**
+     * number of cases simulated per replication.
+     */
+    private static final double CASES = 100;
+
+    /**
+     * length of the simulated period, ten times the processing time of a transition per case.
+     */
+    private static final double PERIOD = 1000;
+
+    @Param({ SyntheticNets.CHAIN, SyntheticNets.PARALLEL, SyntheticNets.FREE_CHOICE })
+    public String shape;
+
+    @Param({ "4", "16", "64" })
+    public int size;
+
+    private SimGraph graph;
+    private ResourceUtilization resourceUtilization;
+    private SimParameters parameters;
+
+    @Setup
+    public void setUp() {
+        IEditor editor = SyntheticNets.createEditor(shape, size);
+        PetriNetModelProcessor processor = editor.getModelProcessor();
+
+        ArrayList<TransitionModel> tasks = new ArrayList<>();
+        for (AbstractPetriNetElementModel element : processor.getElementContainer()
+                .getElementsByType(AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE).values()) {
+            tasks.add((TransitionModel) element);
+        }
+
+        graph = new SimGraph(editor);
+        resourceUtilization = new ResourceUtilization(new ResourceAllocation(new ArrayList<String>(),
+                new ArrayList<String>(), tasks.iterator(), processor));
+
+        parameters = new SimParameters(CASES, PERIOD);
+        parameters.setRuns(1);
+        parameters.setStop(SimRunner.STOP_BOTH);
+        // despite its name, this distribution is a normal distribution with the parameter as standard deviation
+        parameters.setDistCases(SimDistribution.EXPOTENTIONAL);
+        parameters.setCParam(PERIOD / CASES / 4);
+        parameters.setDistServ(SimDistribution.EXPOTENTIONAL);
+        parameters.setSParam(0.25);
+        parameters.setQueue(SimRunner.Q_FIFO);
+        parameters.setResUse(SimRunner.RES_NOT_USED);
+    }
+
+    @Benchmark
+    public SimReportStats replication() {
+        SimRunner runner = new SimRunner(graph, resourceUtilization, parameters);
+        runner.run();
+        // the runner interrupts its thread when it is done
+        Thread.interrupted();
+        return runner.getRepStats();
+    }
+}
@@ -0,0 +1,59 @@
+package org.woped.benchmarks;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.woped.qualanalysis.soundness.algorithms.generic.scc.StronglyConnectedComponentTestGenIterative;
+import org.woped.qualanalysis.soundness.algorithms.generic.scc.StronglyConnectedComponentTestGenTarjan;
+import org.woped.qualanalysis.soundness.builder.BuilderFactory;
+import org.woped.qualanalysis.soundness.builder.markingnet.MarkingNetAlgorithm;
+import org.woped.qualanalysis.soundness.marking.IMarking;
+import org.woped.qualanalysis.soundness.marking.IMarkingNet;
+
+/**
+ * Measures the search for strongly connected components in the reachability graph of a net including t*, which
+ * consists of a single component.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xss16m")
+public class StronglyConnectedComponentBenchmark {
+
+    @Param({ SyntheticNets.CHAIN, SyntheticNets.PARALLEL, SyntheticNets.FREE_CHOICE })
+    public String shape;
+
+    @Param({ "16", "64", "256" })
+    public int size;
+
+    private IMarkingNet markingNet;
+
+    @Setup
+    public void setUp() {
+        markingNet = BuilderFactory.createMarkingNet(BuilderFactory.createLowLevelPetriNetWithTStarBuilder(
+                SyntheticNets.createEditor(shape, size)).getLowLevelPetriNet(), MarkingNetAlgorithm.BOOK);
+    }
+
+    @Benchmark
+    public Set<Set<IMarking>> tarjan() {
+        return new StronglyConnectedComponentTestGenTarjan<IMarking>(markingNet).getStronglyConnectedComponents();
+    }
+
+    @Benchmark
+    public Set<Set<IMarking>> iterative() {
+        return new StronglyConnectedComponentTestGenIterative<IMarking>(markingNet).getStronglyConnectedComponents();
+    }
+}
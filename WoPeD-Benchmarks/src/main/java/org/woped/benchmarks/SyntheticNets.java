@@ -0,0 +1,159 @@
+package org.woped.benchmarks;
+
+import org.woped.core.model.ArcModel;
+import org.woped.core.model.CreationMap;
+import org.woped.core.model.PetriNetModelProcessor;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+import org.woped.editor.controller.vc.EditorVC;
+
+/**
+ * Generates workflow nets of arbitrary size for the benchmarks.
+ * <p>
+ * All nets start with the marked source place {@code p0} and end in a single sink place. Every transition has a
+ * processing time of one time unit so the nets can be simulated as well. Three shapes are available:
+ * <ul>
+ * <li>{@link #CHAIN}: a sequence of {@code size} transitions</li>
+ * <li>{@link #PARALLEL}: a sequence of {@code size} blocks, each an AND-split into {@value #FAN_OUT} parallel
+ * branches followed by an AND-join</li>
+ * <li>{@link #FREE_CHOICE}: a sequence of {@code size} free choices between two transitions with equal
+ * probabilities</li>
+ * </ul>
+ * The blocks are placed in sequence, so the number of reachable markings grows linearly with the size while the
+ * state space of a single block stays small.
+ */
+public final class SyntheticNets {
+
+    public static final String CHAIN = "chain";
+    public static final String PARALLEL = "parallel";
+    public static final String FREE_CHOICE = "freechoice";
+
+    /**
+     * number of parallel branches of a block of a {@link #PARALLEL} net.
+     */
+    public static final int FAN_OUT = 4;
+
+    /**
+     * distance between two neighbouring nodes of the layout.
+     */
+    private static final int GRID = 80;
+
+    private final PetriNetModelProcessor processor = new PetriNetModelProcessor();
+    private final CreationMap placeMap = CreationMap.createMap();
+    private final CreationMap transitionMap = CreationMap.createMap();
+    private int places = 0;
+    private int transitions = 0;
+    /**
+     * layout column of the last place of the main line, the nodes of a block are placed to its right.
+     */
+    private int column = 0;
+
+    private SyntheticNets() {
+        placeMap.setType(AbstractPetriNetElementModel.PLACE_TYPE);
+        transitionMap.setType(AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE);
+        transitionMap.setTransitionTime(1);
+    }
+
+    /**
+     * Creates a net of the given shape.
+     *
+     * @param shape one of {@link #CHAIN}, {@link #PARALLEL} or {@link #FREE_CHOICE}
+     * @param size  the number of transitions or blocks in sequence, at least 1
+     * @return the model processor containing the net
+     */
+    public static PetriNetModelProcessor create(String shape, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be at least 1: " + size);
+        }
+
+        SyntheticNets net = new SyntheticNets();
+        String last = net.place(1, 0, 0);
+        for (int i = 0; i < size; i++) {
+            switch (shape) {
+            case CHAIN:
+                last = net.sequence(last, 0);
+                net.column += 2;
+                break;
+            case PARALLEL:
+                last = net.parallel(last);
+                break;
+            case FREE_CHOICE:
+                last = net.choice(last);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown shape: " + shape);
+            }
+        }
+        return net.processor;
+    }
+
+    /**
+     * Creates an editor containing a net of the given shape.
+     * <p>
+     * The editor has a graph but is not shown, so it can be used for exports as well as for all analyses.
+     *
+     * @param shape one of {@link #CHAIN}, {@link #PARALLEL} or {@link #FREE_CHOICE}
+     * @param size  the number of transitions or blocks in sequence, at least 1
+     * @return the editor
+     */
+    public static EditorVC createEditor(String shape, int size) {
+        EditorVC editor = new EditorVC();
+        editor.setModelProcessor(create(shape, size));
+        return editor;
+    }
+
+    private String sequence(String in, int row) {
+        String t = transition(column + 1, row);
+        String out = place(0, column + 2, row);
+        processor.createArc(in, t);
+        processor.createArc(t, out);
+        return out;
+    }
+
+    private String parallel(String in) {
+        String split = transition(column + 1, 0);
+        String join = transition(column + 5, 0);
+        processor.createArc(in, split);
+        for (int i = 0; i < FAN_OUT; i++) {
+            String branchIn = place(0, column + 2, i);
+            processor.createArc(split, branchIn);
+            column++;
+            processor.createArc(sequence(branchIn, i), join);
+            column--;
+        }
+        String out = place(0, column + 6, 0);
+        processor.createArc(join, out);
+        column += 6;
+        return out;
+    }
+
+    private String choice(String in) {
+        String out = place(0, column + 2, 0);
+        for (int i = 0; i < 2; i++) {
+            String t = transition(column + 1, i);
+            ArcModel arc = processor.createArc(in, t);
+            arc.setProbability(0.5);
+            processor.createArc(t, out);
+        }
+        column += 2;
+        return out;
+    }
+
+    private String place(int tokens, int x, int y) {
+        String id = "p" + places++;
+        placeMap.setId(id);
+        placeMap.setName(id);
+        placeMap.setTokens(tokens);
+        placeMap.setPosition(x * GRID, y * GRID);
+        processor.createElement(placeMap);
+        return id;
+    }
+
+    private String transition(int x, int y) {
+        String id = "t" + ++transitions;
+        transitionMap.setId(id);
+        transitionMap.setName(id);
+        transitionMap.setPosition(x * GRID, y * GRID);
+        processor.createElement(transitionMap);
+        return id;
+    }
+}
@@ -0,0 +1,280 @@
+package org.woped.core.controller;
+
+import java.awt.geom.Point2D;
+
+import org.jgraph.graph.DefaultGraphCell;
+import org.jgraph.graph.GraphCell;
+import org.woped.core.gui.ITokenGameController;
+import org.woped.core.model.CreationMap;
+import org.woped.core.model.PetriNetModelProcessor;
+import org.woped.core.model.petrinet.SubProcessModel;
+
+/**
+ * An editor without any user interface, which only holds a net.
+ * <p>
+ * The analyses and metrics expect an {@link IEditor}, but only use the model processor of it. This editor has no
+ * graph, no mediator, no listeners and is not registered anywhere, so it can be created on any thread and simply be
+ * dropped after use. All methods of the user interface do nothing.
+ */
+public class HeadlessEditor implements IEditor {
+
+    private PetriNetModelProcessor modelProcessor;
+    private String pathname = null;
+
+    /**
+     * @param modelProcessor the net of the editor
+     */
+    public HeadlessEditor(PetriNetModelProcessor modelProcessor) {
+        this.modelProcessor = modelProcessor;
+    }
+
+    @Override
+    public PetriNetModelProcessor getModelProcessor() {
+        return modelProcessor;
+    }
+
+    @Override
+    public void setModelProcessor(PetriNetModelProcessor modelProcessor) {
+        this.modelProcessor = modelProcessor;
+    }
+
+    @Override
+    public String getId() {
+        return modelProcessor.getId();
+    }
+
+    @Override
+    public String getName() {
+        return modelProcessor.getName();
+    }
+
+    @Override
+    public void setName(String name) {
+        modelProcessor.setName(name);
+    }
+
+    @Override
+    public String getPathname() {
+        return pathname;
+    }
+
+    @Override
+    public void setPathname(String absolutePath) {
+        this.pathname = absolutePath;
+    }
+
+    @Override
+    public int getViewControllerType() {
+        return TYPE;
+    }
+
+    @Override
+    public boolean isSubprocessEditor() {
+        return false;
+    }
+
+    @Override
+    public boolean isSaved() {
+        return true;
+    }
+
+    @Override
+    public AbstractGraph getGraph() {
+        return null;
+    }
+
+    @Override
+    public AbstractApplicationMediator getMediator() {
+        return null;
+    }
+
+    @Override
+    public ITokenGameController getTokenGameController() {
+        return null;
+    }
+
+    @Override
+    public GraphCell create(CreationMap map, boolean doNotEdit) {
+        return null;
+    }
+
+    @Override
+    public GraphCell[] createAll(CreationMap[] maps) {
+        return new GraphCell[0];
+    }
+
+    @Override
+    public Point2D getLastMousePosition() {
+        return null;
+    }
+
+    @Override
+    public int getCreateElementType() {
+        return -1;
+    }
+
+    @Override
+    public boolean isDrawingMode() {
+        return false;
+    }
+
+    @Override
+    public boolean isReachabilityEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isUnderstandabilityColoringEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isRotateSelected() {
+        return false;
+    }
+
+    @Override
+    public boolean isShowingTStar() {
+        return false;
+    }
+
+    @Override
+    public boolean isClipboardEmpty() {
+        return true;
+    }
+
+    @Override
+    public boolean isTokenGameEnabled() {
+        return false;
+    }
+
+    /* ########## USER INTERFACE, NOTHING TO DO ########### */
+
+    @Override
+    public void addViewListener(IViewListener listener) {
+    }
+
+    @Override
+    public void removeViewListener(IViewListener listenner) {
+    }
+
+    @Override
+    public void fireViewEvent(AbstractViewEvent viewevent) {
+    }
+
+    @Override
+    public void openTokenGameSubProcess(SubProcessModel subProcess) {
+    }
+
+    @Override
+    public void setLastMousePosition(Point2D position) {
+    }
+
+    @Override
+    public void addPointToSelectedArc() {
+    }
+
+    @Override
+    public void removeSelectedPoint() {
+    }
+
+    @Override
+    public void setDrawingMode(boolean flag) {
+    }
+
+    @Override
+    public void setReachabilityEnabled(boolean flag) {
+    }
+
+    @Override
+    public void setUnderstandabilityColoringEnabled(boolean active) {
+    }
+
+    @Override
+    public void toggleTokenGame() {
+    }
+
+    @Override
+    public void setCreateElementType(int createElementType) {
+    }
+
+    @Override
+    public void deleteCells(Object[] toDelete) {
+    }
+
+    @Override
+    public void deleteCell(DefaultGraphCell toDelete) {
+    }
+
+    @Override
+    public void updateNet() {
+    }
+
+    @Override
+    public void setSaved(boolean savedFlag) {
+    }
+
+    @Override
+    public void closeEditor() {
+    }
+
+    @Override
+    public void hideAnalysisBar() {
+    }
+
+    @Override
+    public void hideP2TBar() {
+    }
+
+    @Override
+    public void hideMetricsBar() {
+    }
+
+    @Override
+    public void setReadOnly(boolean readonly) {
+    }
+
+    @Override
+    public void rotateLayout() {
+    }
+
+    @Override
+    public void rotateTransLeft(Object cell) {
+    }
+
+    @Override
+    public void rotateTransRight(Object cell) {
+    }
+
+    @Override
+    public void setRotateSelected(boolean active) {
+    }
+
+    @Override
+    public void setTStarEnabled(boolean tStarEnabled) {
+    }
+
+    @Override
+    public void checkMainSplitPaneDivider() {
+    }
+
+    @Override
+    public void setDrawMode(int type, boolean b) {
+    }
+
+    @Override
+    public void repaint() {
+    }
+
+    @Override
+    public void terminateTokenGameSession() {
+    }
+
+    @Override
+    public void disableTokenGame() {
+    }
+
+    @Override
+    public void enableTokenGame() {
+    }
+}
@@ -0,0 +1,40 @@
+package org.woped.core.model;
+
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+
+/**
+ * This interface is used for receiving structural changes of a {@link ModelElementContainer}.
+ * <p>
+ * The listener is only notified about changes that actually modified the container, e.g. adding an element whose id
+ * already exists does not fire an event.
+ */
+public interface IModelElementContainerListener {
+
+    /**
+     * Invoked after an element has been added to the container.
+     *
+     * @param element the added element
+     */
+    void elementAdded(AbstractPetriNetElementModel element);
+
+    /**
+     * Invoked after an element has been removed from the container.
+     *
+     * @param element the removed element
+     */
+    void elementRemoved(AbstractPetriNetElementModel element);
+
+    /**
+     * Invoked after an arc has been added to the container.
+     *
+     * @param arc the added arc
+     */
+    void arcAdded(ArcModel arc);
+
+    /**
+     * Invoked after an arc has been removed from the container.
+     *
+     * @param arc the removed arc
+     */
+    void arcRemoved(ArcModel arc);
+}
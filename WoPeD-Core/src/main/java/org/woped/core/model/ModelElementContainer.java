@@ -25,6 +25,7 @@ package org.woped.core.model;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -85,6 +86,15 @@ public class ModelElementContainer implements Serializable {
     private ParaphrasingModel paraphrasingModel = new ParaphrasingModel();
     private Map<String, Map<String, Object>> idMap = null;
     private Map<String, ArcModel> arcs = null;
+    // ! Adjacency indexes over arcs, keyed by the id of the target (incoming)
+    // ! or source (outgoing) element. They are derived from arcs, so they are
+    // ! not serialized and rebuilt on first use after deserialization
+    private transient Map<String, Map<String, ArcModel>> incomingArcs = null;
+    private transient Map<String, Map<String, ArcModel>> outgoingArcs = null;
+    // ! Listeners are bound to the editing session and are not serialized
+    private transient List<IModelElementContainerListener> listeners = null;
+    // ! Maintains the structural hash once it has been requested, rebuilt on first use after deserialization
+    private transient StructuralHashTracker structuralHash = null;
 
     /**
      * Creates an new instance of an {@code ModelElementContainer}
@@ -102,6 +112,25 @@ public class ModelElementContainer implements Serializable {
         this.editorLayoutInfo = editorLayoutInfo;
     }
 
+    /**
+     * Registers a listener that is notified about added and removed elements and arcs.
+     *
+     * @param listener the listener to add
+     */
+    public void addModelElementContainerListener(IModelElementContainerListener listener) {
+        if (listeners == null) listeners = new ArrayList<>();
+        if (!listeners.contains(listener)) listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener previously registered with {@link #addModelElementContainerListener}.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeModelElementContainerListener(IModelElementContainerListener listener) {
+        if (listeners != null) listeners.remove(listener);
+    }
+
     public AbstractPetriNetElementModel getOwningElement() {
         return owningElement;
     }
@@ -148,6 +177,14 @@ public class ModelElementContainer implements Serializable {
             element.addOwningContainer(this);
 
             LoggerManager.debug(Constants.CORE_LOGGER, String.format("Element: %s added", element.getId()));
+
+            if (structuralHash != null) structuralHash.elementAdded(element);
+
+            if (listeners != null) {
+                for (IModelElementContainerListener listener : new ArrayList<>(listeners)) {
+                    listener.elementAdded(element);
+                }
+            }
         } else {
 
             // an element with the id of the new element already exists
@@ -188,7 +225,16 @@ public class ModelElementContainer implements Serializable {
         // Add reference
         getIdMap().get(arc.getSourceId()).put(arc.getId(), arc);
         arcs.put(arc.getId(), arc);
+        indexArc(arc);
         LoggerManager.debug(Constants.CORE_LOGGER, "Reference: " + arc.getId() + " (" + arc.getSourceId() + " -> " + arc.getTargetId() + ") added.");
+
+        if (structuralHash != null) structuralHash.arcAdded(arc);
+
+        if (listeners != null) {
+            for (IModelElementContainerListener listener : new ArrayList<>(listeners)) {
+                listener.arcAdded(arc);
+            }
+        }
     }
 
     /**
@@ -233,6 +279,14 @@ public class ModelElementContainer implements Serializable {
         if (element != null) element.removeOwningContainer(this);
         getIdMap().remove(id);
         LoggerManager.debug(Constants.CORE_LOGGER, "Element (ID:" + id + ") removed.");
+
+        if (element != null && structuralHash != null) structuralHash.elementRemoved(element);
+
+        if (element != null && listeners != null) {
+            for (IModelElementContainerListener listener : new ArrayList<>(listeners)) {
+                listener.elementRemoved(element);
+            }
+        }
     }
 
     /**
@@ -256,7 +310,7 @@ public class ModelElementContainer implements Serializable {
      */
     protected void removeOutgoingArcsFromElement(Object elementId) {
 
-        for (String arcId : getOutgoingArcs(elementId).keySet()) {
+        for (String arcId : new ArrayList<>(getOutgoingArcs(elementId).keySet())) {
             removeArc(arcId);
         }
     }
@@ -269,7 +323,7 @@ public class ModelElementContainer implements Serializable {
      */
     protected void removeIncomingArcsFromElement(Object elementId) {
 
-        for (String arcId : getIncomingArcs(elementId).keySet()) {
+        for (String arcId : new ArrayList<>(getIncomingArcs(elementId).keySet())) {
             removeArc(arcId);
         }
     }
@@ -299,12 +353,70 @@ public class ModelElementContainer implements Serializable {
         if (arc != null) {
             LoggerManager.debug(Constants.CORE_LOGGER, "Reference (ID:" + arc.getId() + ") deleted");
             // remove in arc Map
-            arcs.remove(arc.getId());
+            boolean removed = arcs.remove(arc.getId()) != null;
             // remove Target Entry, (in Source Element's reference Map)
             getIdMap().get(arc.getSourceId()).remove(arc.getId());
+            unindexArc(arc);
+
+            if (removed && structuralHash != null) structuralHash.arcRemoved(arc);
+
+            if (removed && listeners != null) {
+                for (IModelElementContainerListener listener : new ArrayList<>(listeners)) {
+                    listener.arcRemoved(arc);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all elements and arcs from the container.
+     * <p>
+     * The listeners are notified after the container has been emptied, first about all removed arcs and then about
+     * all removed elements, just as if every element had been removed by {@link #removeElement(Object)}.
+     */
+    public void clear() {
+        List<ArcModel> removedArcs = null;
+        List<AbstractPetriNetElementModel> removedElements = null;
+        if (listeners != null) {
+            removedArcs = new ArrayList<>(arcs.values());
+            removedElements = new ArrayList<>();
+            for (Map<String, Object> references : idMap.values()) {
+                removedElements.add((AbstractPetriNetElementModel) references.get(SELF_ID));
+            }
+        }
+
+        arcs.clear();
+        idMap.clear();
+        incomingArcs = null;
+        outgoingArcs = null;
+        structuralHash = null;
+
+        if (listeners != null) {
+            for (IModelElementContainerListener listener : new ArrayList<>(listeners)) {
+                for (ArcModel arc : removedArcs) {
+                    listener.arcRemoved(arc);
+                }
+                for (AbstractPetriNetElementModel element : removedElements) {
+                    listener.elementRemoved(element);
+                }
+            }
         }
     }
 
+    /**
+     * Returns the hash of the logical structure of the net in this container.
+     * <p>
+     * The hash is calculated once and then maintained while elements and arcs are added or removed. Changed token
+     * counts and arc weights are taken into account without hashing the whole net again.
+     *
+     * @return the structural hash of the net
+     * @see StructuralHash
+     */
+    public StructuralHash getStructuralHash() {
+        if (structuralHash == null) structuralHash = new StructuralHashTracker(this);
+        return structuralHash.getHash();
+    }
+
     public void removeAllSourceElements(Object targetId) {
         Iterator<String> transIter = getSourceElements(targetId).keySet().iterator();
         while (transIter.hasNext()) {
@@ -313,7 +425,9 @@ public class ModelElementContainer implements Serializable {
     }
 
     public void removeAllTargetElements(Object sourceId) {
-        Iterator<String> transIter = getTargetElements(sourceId).keySet().iterator();
+        Map<String, AbstractPetriNetElementModel> targets = getTargetElements(sourceId);
+        if (targets == null) return;
+        Iterator<String> transIter = targets.keySet().iterator();
         while (transIter.hasNext()) {
             removeElement(transIter.next());
         }
@@ -340,20 +454,13 @@ public class ModelElementContainer implements Serializable {
      */
     public Map<String, AbstractPetriNetElementModel> getTargetElements(Object sourceId) {
 
-        Map<String, Object> sourceMap = getIdMap().get(sourceId);
-        Map<String, AbstractPetriNetElementModel> targetMap = new HashMap<>();
-
-        if (sourceMap == null) {
+        if (!containsElement(sourceId)) {
             return null;
         }
 
-        for (String key : sourceMap.keySet()) {
-
-            Object value = sourceMap.get(key);
-
-            if (!(value instanceof ArcModel)) continue;
-
-            AbstractPetriNetElementModel target = (AbstractPetriNetElementModel) ((DefaultPort) ((ArcModel) value).getTarget()).getParent();
+        Map<String, AbstractPetriNetElementModel> targetMap = new HashMap<>();
+        for (ArcModel arc : getOutgoingArcIndex(sourceId).values()) {
+            AbstractPetriNetElementModel target = (AbstractPetriNetElementModel) ((DefaultPort) arc.getTarget()).getParent();
             targetMap.put(target.getId(), target);
         }
 
@@ -365,18 +472,15 @@ public class ModelElementContainer implements Serializable {
      * This element is source of all that arcs.
      *
      * @param elementId the id of the {@code AbstractPetriNetElement} to get the outgoing arcs from.
-     * @return A map containing all outgoing arcs. The map may be empty if no such arcs exist.
+     * @return A read-only view of all outgoing arcs. The map may be empty if no such arcs exist.
      */
     public Map<String, Object> getOutgoingArcs(Object elementId) {
 
-        if (null == getIdMap().get(elementId)) {
-            return new HashMap<>();
+        if (!containsElement(elementId)) {
+            return Collections.emptyMap();
         }
 
-        Map<String, Object> arcOut = new HashMap<>(getIdMap().get(elementId));
-        arcOut.remove(SELF_ID);
-
-        return arcOut;
+        return Collections.<String, Object>unmodifiableMap(getOutgoingArcIndex(elementId));
     }
 
     /**
@@ -384,19 +488,72 @@ public class ModelElementContainer implements Serializable {
      * This element is the target of that arcs
      *
      * @param elementId The id of the {@code AbstractPetriNetElement} to get the incoming arcs from.
-     * @return A map containing all incoming arcs. The map may be empty if no such arcs exist.
+     * @return A read-only view of all incoming arcs. The map may be empty if no such arcs exist.
      */
     public Map<String, ArcModel> getIncomingArcs(Object elementId) {
 
-        Map<String, ArcModel> result = new HashMap<>();
+        return Collections.unmodifiableMap(getIncomingArcIndex(elementId));
+    }
+
+    /**
+     * Gets the incoming arcs of an element from the adjacency index, building the index if necessary.
+     *
+     * @param elementId the id of the target element
+     * @return the indexed arcs, never null. Must not be modified by the caller.
+     */
+    private Map<String, ArcModel> getIncomingArcIndex(Object elementId) {
+        if (incomingArcs == null) rebuildArcIndexes();
+        Map<String, ArcModel> result = incomingArcs.get(elementId);
+        return result != null ? result : Collections.<String, ArcModel>emptyMap();
+    }
+
+    /**
+     * Gets the outgoing arcs of an element from the adjacency index, building the index if necessary.
+     *
+     * @param elementId the id of the source element
+     * @return the indexed arcs, never null. Must not be modified by the caller.
+     */
+    private Map<String, ArcModel> getOutgoingArcIndex(Object elementId) {
+        if (outgoingArcs == null) rebuildArcIndexes();
+        Map<String, ArcModel> result = outgoingArcs.get(elementId);
+        return result != null ? result : Collections.<String, ArcModel>emptyMap();
+    }
 
+    private void rebuildArcIndexes() {
+        incomingArcs = new HashMap<>();
+        outgoingArcs = new HashMap<>();
         for (ArcModel arc : arcs.values()) {
-            if (arc.getTargetId().equals(elementId)) {
-                result.put(arc.getId(), arc);
-            }
+            indexArc(arc);
         }
+    }
 
-        return result;
+    /**
+     * Adds the arc to the adjacency indexes. The indexes use the source and target ids of the arc at the time it is
+     * added, just like the reference maps of the id map.
+     *
+     * @param arc the arc to add
+     */
+    private void indexArc(ArcModel arc) {
+        if (incomingArcs == null) {
+            // built lazily from the arc map, which already contains the arc
+            return;
+        }
+        incomingArcs.computeIfAbsent(arc.getTargetId(), k -> new HashMap<>()).put(arc.getId(), arc);
+        outgoingArcs.computeIfAbsent(arc.getSourceId(), k -> new HashMap<>()).put(arc.getId(), arc);
+    }
+
+    private void unindexArc(ArcModel arc) {
+        if (incomingArcs == null) return;
+        removeFromIndex(incomingArcs, arc.getTargetId(), arc.getId());
+        removeFromIndex(outgoingArcs, arc.getSourceId(), arc.getId());
+    }
+
+    private static void removeFromIndex(Map<String, Map<String, ArcModel>> index, String elementId, String arcId) {
+        Map<String, ArcModel> elementArcs = index.get(elementId);
+        if (elementArcs != null) {
+            elementArcs.remove(arcId);
+            if (elementArcs.isEmpty()) index.remove(elementId);
+        }
     }
 
     /**
@@ -429,7 +586,7 @@ public class ModelElementContainer implements Serializable {
         Map<String, AbstractPetriNetElementModel> result = new HashMap<>();
         AbstractPetriNetElementModel source;
 
-        for (ArcModel arc : getIncomingArcs(targetId).values()) {
+        for (ArcModel arc : getIncomingArcIndex(targetId).values()) {
             source = getElementById(arc.getSourceId());
             result.put(source.getId(), source);
         }
@@ -492,8 +649,8 @@ public class ModelElementContainer implements Serializable {
      */
     public ArcModel findArc(String sourceId, String targetId) {
 
-        for (ArcModel arc : arcs.values()) {
-            if (arc.getSourceId().equals(sourceId) && arc.getTargetId().equals(targetId))
+        for (ArcModel arc : getOutgoingArcIndex(sourceId).values()) {
+            if (arc.getTargetId().equals(targetId))
                 return arc;
         }
 
@@ -452,6 +452,9 @@ public class PetriNetModelProcessor implements Serializable {
      * For example, an arc form p1 to t1 is listed as "*p1t1"
      * <p>
      * This is an example of an whole fingerprint: <code>2p10p20#2*t1p2*p2t1</code>
+     * <p>
+     * The fingerprint is stored with saved simulations. To find out whether the net has changed use
+     * {@link #getStructuralHash()}, which is maintained while the net is edited.
      *
      * @return a string representing the logical structure of the petrinet
      */
@@ -467,7 +470,7 @@ public class PetriNetModelProcessor implements Serializable {
         // Add place details
         for ( AbstractPetriNetElementModel place : places ) {
             PlaceModel p = (PlaceModel) place;
-            sb.append(String.format("%s%d", p.getId(), p.getTokenCount()));
+            sb.append(p.getId()).append(p.getTokenCount());
         }
 
         // Add part delimiter
@@ -481,13 +484,29 @@ public class PetriNetModelProcessor implements Serializable {
 
         // Add arc details
         for ( ArcModel arc : arcs ) {
-            String weight = arc.getInscriptionValue() == 1 ? "" : String.valueOf(arc.getInscriptionValue());
-            sb.append(String.format("*%s%s%s", weight, arc.getSourceId(), arc.getTargetId()));
+            sb.append('*');
+            if ( arc.getInscriptionValue() != 1 ) {
+                sb.append(arc.getInscriptionValue());
+            }
+            sb.append(arc.getSourceId()).append(arc.getTargetId());
         }
 
         return sb.toString();
     }
 
+    /**
+     * Gets the 128 bit hash of the logical structure of the petrinet.
+     * <p>
+     * Other than the fingerprint, the hash is not recalculated for every call but maintained by the element container
+     * while the net is edited.
+     *
+     * @return the structural hash of the petrinet
+     * @see ModelElementContainer#getStructuralHash()
+     */
+    public StructuralHash getStructuralHash() {
+        return getElementContainer().getStructuralHash();
+    }
+
     /**
      * Checks if a fingerprint is logically equal with the fingerprint of the current net.
      * <p>
@@ -0,0 +1,188 @@
+package org.woped.core.model;
+
+import java.io.Serializable;
+
+/**
+ * A 128 bit hash of the logical structure of a petri net.
+ * <p>
+ * The hash covers the places with their tokens, the transitions, operators and subprocesses with their types and the
+ * arcs with their source, target and weight. Layout, names and other annotations are not part of the hash, neither
+ * are the arc ids, because they may change when a net is saved and loaded again.
+ * <p>
+ * The hash is the sum of the hashes of the single elements. It does not depend on the order of the elements and can
+ * be updated by adding or subtracting the hash of a single element, which is how {@link ModelElementContainer}
+ * maintains it. Unlike {@link PetriNetModelProcessor#getLogicalFingerprint()} the hash does not depend on the JVM,
+ * so it may be used as a key for results stored on disk.
+ */
+public final class StructuralHash implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // ! The hash of an empty net
+    public static final StructuralHash EMPTY = new StructuralHash(0, 0);
+
+    private static final char PLACE_TAG = 'P';
+    private static final char TRANSITION_TAG = 'T';
+    private static final char ARC_TAG = 'A';
+
+    private final long high;
+    private final long low;
+
+    public StructuralHash(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    /**
+     * Parses a hash created by {@link #toString()}.
+     *
+     * @param hash the hash as 32 hexadecimal digits
+     * @return the parsed hash
+     * @throws IllegalArgumentException if the string is not a valid hash
+     */
+    public static StructuralHash fromString(String hash) {
+        if ( hash == null || hash.length() != 32 ) {
+            throw new IllegalArgumentException("A structural hash consists of 32 hexadecimal digits");
+        }
+        try {
+            return new StructuralHash(Long.parseUnsignedLong(hash.substring(0, 16), 16),
+                    Long.parseUnsignedLong(hash.substring(16), 16));
+        } catch ( NumberFormatException e ) {
+            throw new IllegalArgumentException("A structural hash consists of 32 hexadecimal digits", e);
+        }
+    }
+
+    /**
+     * @return the hash as 32 hexadecimal digits
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(32);
+        appendHex(sb, high);
+        appendHex(sb, low);
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if ( this == o ) return true;
+        if ( !(o instanceof StructuralHash) ) return false;
+        StructuralHash other = (StructuralHash) o;
+        return high == other.high && low == other.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (low ^ (low >>> 32));
+    }
+
+    /**
+     * Calculates the share of a place in the hash.
+     *
+     * @param id     the id of the place
+     * @param tokens the initial tokens of the place
+     * @return the share of the place
+     */
+    static StructuralHash ofPlace(String id, int tokens) {
+        Hasher hasher = new Hasher(PLACE_TAG);
+        hasher.add(id);
+        hasher.add(tokens);
+        return hasher.finish();
+    }
+
+    /**
+     * Calculates the share of a transition, operator or subprocess in the hash.
+     *
+     * @param id           the id of the transition
+     * @param type         the element type of the transition
+     * @param operatorType the operator type, or {@code 0} if the transition is no operator
+     * @return the share of the transition
+     */
+    static StructuralHash ofTransition(String id, int type, int operatorType) {
+        Hasher hasher = new Hasher(TRANSITION_TAG);
+        hasher.add(id);
+        hasher.add(type);
+        hasher.add(operatorType);
+        return hasher.finish();
+    }
+
+    /**
+     * Calculates the share of an arc in the hash.
+     *
+     * @param sourceId the id of the source element
+     * @param targetId the id of the target element
+     * @param weight   the weight of the arc
+     * @return the share of the arc
+     */
+    static StructuralHash ofArc(String sourceId, String targetId, int weight) {
+        Hasher hasher = new Hasher(ARC_TAG);
+        hasher.add(sourceId);
+        hasher.add(targetId);
+        hasher.add(weight);
+        return hasher.finish();
+    }
+
+    StructuralHash plus(StructuralHash other) {
+        return new StructuralHash(high + other.high, low + other.low);
+    }
+
+    StructuralHash minus(StructuralHash other) {
+        return new StructuralHash(high - other.high, low - other.low);
+    }
+
+    private static void appendHex(StringBuilder sb, long value) {
+        for ( int shift = 60; shift >= 0; shift -= 4 ) {
+            sb.append(Character.forDigit((int) (value >>> shift) & 0xF, 16));
+        }
+    }
+
+    /*
+     * Hashes a sequence of chars and ints into two independent lanes
+     */
+    private static final class Hasher {
+        private long h1 = 0x9E3779B97F4A7C15L;
+        private long h2 = 0xC2B2AE3D27D4EB4FL;
+
+        Hasher(char tag) {
+            add(tag);
+        }
+
+        void add(String value) {
+            for ( int i = 0; i < value.length(); i++ ) {
+                add(value.charAt(i));
+            }
+            // terminates the string, so "ab" + "c" differs from "a" + "bc"
+            add((char) 0xFFFF);
+        }
+
+        void add(int value) {
+            add((char) (value >>> 16));
+            add((char) value);
+        }
+
+        private void add(char c) {
+            h1 = (h1 ^ c) * 0x100000001B3L;
+            h2 = Long.rotateLeft(h2 ^ c, 31) * 0x9E3779B97F4A7C15L;
+        }
+
+        StructuralHash finish() {
+            long a = mix(h1);
+            long b = mix(h2 ^ a);
+            return new StructuralHash(a, b);
+        }
+
+        private static long mix(long h) {
+            h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+            h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+            return h ^ (h >>> 33);
+        }
+    }
+}
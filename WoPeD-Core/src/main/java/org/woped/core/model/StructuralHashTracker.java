@@ -0,0 +1,127 @@
+package org.woped.core.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+import org.woped.core.model.petrinet.OperatorTransitionModel;
+import org.woped.core.model.petrinet.PlaceModel;
+
+/**
+ * Maintains the {@link StructuralHash} of a {@link ModelElementContainer}.
+ * <p>
+ * The container reports every element and arc it adds or removes, so the hash is updated by the share of that single
+ * element. Token counts and arc weights are changed without the container knowing, therefore the tracker remembers
+ * the values it has hashed and only compares them when the hash is requested.
+ */
+class StructuralHashTracker {
+
+    private StructuralHash hash = StructuralHash.EMPTY;
+    // ! Places with their hashed token count, by element id
+    private final Map<String, Share> places = new HashMap<>();
+    // ! Transitions, operators and subprocesses, by element id
+    private final Map<String, StructuralHash> transitions = new HashMap<>();
+    // ! Arcs with their hashed weight, by arc id
+    private final Map<String, Share> arcs = new HashMap<>();
+
+    /**
+     * @param container the container whose elements and arcs are hashed initially
+     */
+    StructuralHashTracker(ModelElementContainer container) {
+        for ( Map<String, Object> references : container.getIdMap().values() ) {
+            elementAdded((AbstractPetriNetElementModel) references.get(ModelElementContainer.SELF_ID));
+        }
+        for ( ArcModel arc : container.getArcMap().values() ) {
+            arcAdded(arc);
+        }
+    }
+
+    void elementAdded(AbstractPetriNetElementModel element) {
+        switch ( element.getType() ) {
+        case AbstractPetriNetElementModel.PLACE_TYPE:
+            PlaceModel place = (PlaceModel) element;
+            Share share = new Share(place, place.getTokenCount(), StructuralHash.ofPlace(place.getId(),
+                    place.getTokenCount()));
+            add(places.put(place.getId(), share), share);
+            break;
+        case AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE:
+        case AbstractPetriNetElementModel.TRANS_OPERATOR_TYPE:
+        case AbstractPetriNetElementModel.SUBP_TYPE:
+            int operatorType = element instanceof OperatorTransitionModel
+                    ? ((OperatorTransitionModel) element).getOperatorType() : 0;
+            StructuralHash transition = StructuralHash.ofTransition(element.getId(), element.getType(), operatorType);
+            StructuralHash previous = transitions.put(element.getId(), transition);
+            if ( previous != null ) hash = hash.minus(previous);
+            hash = hash.plus(transition);
+            break;
+        default:
+            // annotations are not part of the structure
+            break;
+        }
+    }
+
+    void elementRemoved(AbstractPetriNetElementModel element) {
+        Share place = places.remove(element.getId());
+        if ( place != null ) hash = hash.minus(place.hash);
+        StructuralHash transition = transitions.remove(element.getId());
+        if ( transition != null ) hash = hash.minus(transition);
+    }
+
+    void arcAdded(ArcModel arc) {
+        Share share = new Share(arc, arc.getInscriptionValue(), StructuralHash.ofArc(arc.getSourceId(), arc.getTargetId(),
+                arc.getInscriptionValue()));
+        add(arcs.put(arc.getId(), share), share);
+    }
+
+    void arcRemoved(ArcModel arc) {
+        Share share = arcs.remove(arc.getId());
+        if ( share != null ) hash = hash.minus(share.hash);
+    }
+
+    /**
+     * @return the hash of the container, including changed token counts and arc weights
+     */
+    StructuralHash getHash() {
+        for ( Map.Entry<String, Share> entry : places.entrySet() ) {
+            Share share = entry.getValue();
+            PlaceModel place = (PlaceModel) share.model;
+            if ( place.getTokenCount() != share.value ) {
+                Share changed = new Share(place, place.getTokenCount(), StructuralHash.ofPlace(place.getId(),
+                        place.getTokenCount()));
+                hash = hash.minus(share.hash).plus(changed.hash);
+                entry.setValue(changed);
+            }
+        }
+        for ( Map.Entry<String, Share> entry : arcs.entrySet() ) {
+            Share share = entry.getValue();
+            ArcModel arc = (ArcModel) share.model;
+            if ( arc.getInscriptionValue() != share.value ) {
+                Share changed = new Share(arc, arc.getInscriptionValue(), StructuralHash.ofArc(arc.getSourceId(),
+                        arc.getTargetId(), arc.getInscriptionValue()));
+                hash = hash.minus(share.hash).plus(changed.hash);
+                entry.setValue(changed);
+            }
+        }
+        return hash;
+    }
+
+    private void add(Share previous, Share share) {
+        if ( previous != null ) hash = hash.minus(previous.hash);
+        hash = hash.plus(share.hash);
+    }
+
+    /*
+     * The share of a place or arc in the hash, with the mutable value it has been calculated from
+     */
+    private static final class Share {
+        private final Object model;
+        private final int value;
+        private final StructuralHash hash;
+
+        Share(Object model, int value, StructuralHash hash) {
+            this.model = model;
+            this.value = value;
+            this.hash = hash;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.woped.core.utilities;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Shared fork join pools for the parallel algorithms.
+ * <p>
+ * Creating a pool per call starts and stops its threads every time, so the pools are kept for the lifetime of the
+ * application instead. The common pool is used if it has the requested parallelism, otherwise one pool of daemon
+ * threads is kept per parallelism.
+ */
+public final class WorkerPools {
+
+    private static final ConcurrentMap<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<Integer, ForkJoinPool>();
+
+    private WorkerPools() {
+    }
+
+    /**
+     * @param parallelism the amount of worker threads
+     * @return a shared pool with the given parallelism, which must not be shut down
+     */
+    public static ForkJoinPool getForkJoinPool(int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism has to be at least one");
+        if (parallelism == ForkJoinPool.getCommonPoolParallelism()) {
+            return ForkJoinPool.commonPool();
+        }
+        return POOLS.computeIfAbsent(parallelism, p -> new ForkJoinPool(p, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            // the pools are never shut down, so they must not keep the application alive
+            thread.setDaemon(true);
+            thread.setName("woped-worker-" + p + "-" + thread.getPoolIndex());
+            return thread;
+        }, null, false));
+    }
+}
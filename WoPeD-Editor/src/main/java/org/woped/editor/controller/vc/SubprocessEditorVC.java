@@ -68,8 +68,7 @@ public class SubprocessEditorVC extends EditorVC {
 		if (container.getElementById(sourceModel.getId()) == null) {
 			CreationMap sourceCreationMap = sourceModel.getCreationMap();
 			if (((EditorVC) parentEditor).isCopyFlag() == false) {
-			container.getArcMap().clear();
-			container.getIdMap().clear();
+			container.clear();
 			}
 			sourceCreationMap.setPosition(10, 160);
 			sourceCreationMap.setReadOnly(true);
@@ -42,11 +42,26 @@ import org.woped.pnml.NetType.Page;
 import org.woped.pnml.TextType.Phrase;
 
 import javax.swing.*;
+import javax.xml.stream.XMLStreamException;
 import java.awt.geom.Point2D;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.text.DateFormat;
 import java.util.*;
 
@@ -57,7 +72,10 @@ import java.util.*;
  *         Created on: 13.01.2005 Last Change on: 13.01.2005
  */
 public class PNMLExport {
-    private static final String comment = "\nPLEASE DO NOT EDIT THIS FILE\nCreated with Workflow PetriNet Designer Version 3.2.0 (woped.org)\n";
+    static final String comment = "\nPLEASE DO NOT EDIT THIS FILE\nCreated with Workflow PetriNet Designer Version 3.2.0 (woped.org)\n";
+
+    // Size of the buffer the streaming export encodes the document into before it is written to the channel
+    private static final int BUFFER_SIZE = 64 * 1024;
 
     private PnmlDocument pnmlDoc = null;
     private IStatusBar[] statusBars = null;
@@ -65,10 +83,10 @@ public class PNMLExport {
     /**
      * Creates a new instance of an exporter.
      *
-     * @param mediator
+     * @param mediator the mediator providing the status bars, may be null to export without progress reports
      */
     public PNMLExport(AbstractApplicationMediator mediator) {
-        IViewController[] iVC = mediator.findViewController(IStatusBar.TYPE);
+        IViewController[] iVC = mediator != null ? mediator.findViewController(IStatusBar.TYPE) : new IViewController[0];
         statusBars = new IStatusBar[iVC.length];
         for (int i = 0; i < iVC.length; i++) {
 
@@ -84,22 +102,29 @@ public class PNMLExport {
      * @param fileName the filename
      */
     public boolean saveToFile(EditorVC editor, String fileName) {
+        return saveToFile(editor, fileName, false);
+    }
+
+    /**
+     * Saves a PetriNet Object to *.pnml File, see {@link #saveToFile(EditorVC, String)}.
+     *
+     * @param editor    the editor
+     * @param fileName  the filename
+     * @param streaming whether the net is written by a {@link PNMLStreamWriter} instead of being copied into XMLBeans
+     *                  first
+     */
+    public boolean saveToFile(EditorVC editor, String fileName, boolean streaming) {
         LoggerManager.debug(Constants.FILE_LOGGER, "##### START PNML EXPORT #####");
         long begin = System.currentTimeMillis();
         try {
+            if (streaming) {
+                saveToFileStreaming(editor, Paths.get(fileName));
+                return true;
+            }
             createJavaBeansInstances(editor);
-            XmlOptions opt = new XmlOptions();
-            opt.setUseDefaultNamespace();
-            opt.setSavePrettyPrint();
-            opt.setSavePrettyPrintIndent(2);
-            HashMap<String, String> map = new HashMap<String, String>();
-            map.put("", "pnml.woped.org");
-            //map.put("", "http://docs.oasis-open.org/wsbpel/2.0/process/executable");
-            opt.setSaveImplicitNamespaces(map);
-
-            pnmlDoc.save(new File(fileName), opt);
+            pnmlDoc.save(new File(fileName), createSaveOptions());
             return true;
-        } catch (IOException e) {
+        } catch (IOException | XMLStreamException e) {
             LoggerManager.error(Constants.FILE_LOGGER, "Could not save file. " + e.getMessage());
             return false;
         } finally {
@@ -114,22 +139,32 @@ public class PNMLExport {
      * @param os     the output stream to write
      */
     public boolean saveToStream(EditorVC editor, ByteArrayOutputStream os) {
+        return saveToStream(editor, os, false);
+    }
+
+    /**
+     * Saves a PetriNet Object to a stream, see {@link #saveToStream(EditorVC, ByteArrayOutputStream)}.
+     * <p>
+     * The stream is not closed.
+     *
+     * @param editor    the editor
+     * @param os        the output stream to write
+     * @param streaming whether the net is written by a {@link PNMLStreamWriter} instead of being copied into XMLBeans
+     *                  first
+     */
+    public boolean saveToStream(EditorVC editor, OutputStream os, boolean streaming) {
         LoggerManager.debug(Constants.FILE_LOGGER, "##### START PNML EXPORT #####");
         long begin = System.currentTimeMillis();
         try {
+            if (streaming) {
+                saveToChannel(editor, Channels.newChannel(os));
+                return true;
+            }
             createJavaBeansInstances(editor);
-            XmlOptions opt = new XmlOptions();
-            opt.setUseDefaultNamespace();
-            opt.setSavePrettyPrint();
-            opt.setSavePrettyPrintIndent(2);
-            Map<String, String> map = new HashMap<String, String>();
-            map.put("", "pnml.woped.org");
-            opt.setSaveImplicitNamespaces(map);
-
-            pnmlDoc.save(os, opt);
+            pnmlDoc.save(os, createSaveOptions());
 
             return true;
-        } catch (IOException e) {
+        } catch (IOException | XMLStreamException e) {
             LoggerManager.error(Constants.FILE_LOGGER, "Could not write to the Stream. " + e.getMessage());
             return false;
         } finally {
@@ -137,14 +172,61 @@ public class PNMLExport {
         }
     }
 
+    /*
+     * The net is written while it is walked, so it is saved to a temporary file first. A failure or a cancelled
+     * dialog in the middle of the walk must not leave a partly written file behind.
+     */
+    private void saveToFileStreaming(EditorVC editor, Path file) throws IOException, XMLStreamException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                saveToChannel(editor, channel);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
 
-    private void createJavaBeansInstances(EditorVC editor) {
-        ModelElementContainer elementContainer = editor.getModelProcessor().getElementContainer();
-        PetriNetModelProcessor petrinetModel = editor.getModelProcessor();
-        pnmlDoc = PnmlDocument.Factory.newInstance();
-        PnmlType iPnml = pnmlDoc.addNewPnml();
+    /*
+     * Writes the net through a buffer straight to the channel, which is left open
+     */
+    private void saveToChannel(EditorVC editor, WritableByteChannel channel) throws IOException, XMLStreamException {
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        Writer out = Channels.newWriter(channel, encoder, BUFFER_SIZE);
+        PNMLStreamWriter writer = new PNMLStreamWriter(this, out);
+        writer.write(editor);
+        writer.close();
+        out.flush();
+    }
 
-        // Initialisieren der Statusbar
+    /**
+     * @return the options the document is saved with; namespaces are omitted and the document is indented by 2
+     */
+    static XmlOptions createSaveOptions() {
+        XmlOptions opt = new XmlOptions();
+        opt.setUseDefaultNamespace();
+        opt.setSavePrettyPrint();
+        opt.setSavePrettyPrintIndent(2);
+        Map<String, String> map = new HashMap<String, String>();
+        map.put("", "pnml.woped.org");
+        opt.setSaveImplicitNamespaces(map);
+        return opt;
+    }
+
+    /**
+     * Starts the progress of the status bars, one step per resource, role, organizational unit, resource mapping,
+     * element and arc of the net.
+     */
+    void startProgress(PetriNetModelProcessor petrinetModel) {
+        ModelElementContainer elementContainer = petrinetModel.getElementContainer();
         int resources = petrinetModel.getResources().size();
         int roles = petrinetModel.getRoles().size();
         int orgaUnits = petrinetModel.getOrganizationUnits().size();
@@ -155,6 +237,56 @@ public class PNMLExport {
 
         for (int i = 0; i < statusBars.length; i++)
             statusBars[i].startProgress("Save to File", resources + roles + resourcesMapping + orgaUnits + rootElements + arcs);
+    }
+
+    void nextStep() {
+        for (IStatusBar statusBar : statusBars) statusBar.nextStep();
+    }
+
+    /**
+     * Checks if a simulation still fits the net. If the net has been changed since the simulation has been recorded,
+     * the user is asked whether the simulation should be kept anyway.
+     *
+     * @return <code>true</code> if the simulation should be saved
+     */
+    boolean keepSimulation(PetriNetModelProcessor petrinetModel, SimulationModel currSimulation) {
+        // check if current fingerprint of the net equals the imported one
+        // if not ask the user if he want's to keep the simulation
+        //
+        // this check is performed as well on:
+        // - fileixport
+        // - loading a simulation
+        // when you change it here please do at those locations as well
+        int answer = 0;
+        if (!petrinetModel.isLogicalFingerprintEqual(currSimulation.getFingerprint())) {
+            Object[] options = {Messages.getString("Tokengame.ChangedNetDialog.ButtonKeep"), Messages.getString("Tokengame.ChangedNetDialog.ButtonDelete")};
+            // get the localized message text
+            String message = Messages.getString("Tokengame.ChangedNetDialog.Export.Message");
+            // fill the message text dynamically with the simulationname and simulationdate
+            message = message.replaceAll("##SIMULATIONNAME##", currSimulation.getName());
+            message = message.replaceAll("##SIMULATIONDATE##", DateFormat.getDateInstance().format(currSimulation.getSavedDate()));
+            answer = JOptionPane.showOptionDialog(null, message, Messages.getString("Tokengame.ChangedNetDialog.Title"), JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE, null, options, options[0]);
+            // if the user didn't choose one of the buttons but closed the OptionDialog don't drop the simulation
+            if (answer == -1) {
+                answer = 0;
+            }
+        }
+        if (answer == 0) {
+            return true;
+        }
+        LoggerManager.debug(Constants.FILE_LOGGER, "   ... Simulation (ID:" + currSimulation.getId() + ") dropped by user");
+        return false;
+    }
+
+
+    private void createJavaBeansInstances(EditorVC editor) {
+        ModelElementContainer elementContainer = editor.getModelProcessor().getElementContainer();
+        PetriNetModelProcessor petrinetModel = editor.getModelProcessor();
+        pnmlDoc = PnmlDocument.Factory.newInstance();
+        PnmlType iPnml = pnmlDoc.addNewPnml();
+
+        // Initialisieren der Statusbar
+        startProgress(petrinetModel);
 
         // ------------------------------
         // pnmlDoc.documentProperties();
@@ -201,11 +333,13 @@ public class PNMLExport {
             }
 
             // scale
-            iNetToolSpec.setScale((int) (editor.getGraph().getScale() * 100));
+            iNetToolSpec.setScale(editor.getGraph() != null ? (int) (editor.getGraph().getScale() * 100) : 100);
 
             // graphics
             GraphicsSimpleType iGraphicsNet = iNetToolSpec.addNewBounds();
-            EditorLayoutInfo layoutInfo = editor.getEditorPanel().getSavedLayoutInfo();
+            // editors without a window, e.g. created by a batch run, have no layout to save
+            EditorLayoutInfo layoutInfo = editor.getEditorPanel() != null
+                    ? editor.getEditorPanel().getSavedLayoutInfo() : new EditorLayoutInfo();
             if (layoutInfo.getSavedSize() != null) {
                 DimensionType dim = iGraphicsNet.addNewDimension();
                 dim.setX(new BigDecimal(layoutInfo.getSavedSize().getWidth()));
@@ -226,7 +360,7 @@ public class PNMLExport {
             iNetToolSpec.setTreeHeightOverview(layoutInfo.getTreeHeightOverview());
             iNetToolSpec.setTreePanelVisible(layoutInfo.getTreePanelVisible());
             //verticalLayout
-            iNetToolSpec.setVerticalLayout(editor.isRotateSelected());
+            iNetToolSpec.setVerticalLayout(editor.getEditorPanel() != null && editor.isRotateSelected());
             // resources
             ResourcesType iNetResources = iNetToolSpec.addNewResources();
             // Rescources
@@ -237,8 +371,7 @@ public class PNMLExport {
                 rModelTemp = iter.next();
                 iResourceType = iNetResources.addNewResource();
                 iResourceType.setName(rModelTemp.getName());
-                for (int i = 0; i < statusBars.length; i++)
-                    statusBars[i].nextStep();
+                nextStep();
             }
             // Roles
 
@@ -255,8 +388,7 @@ public class PNMLExport {
                         newSuper.setName(superMe.getName());
                     }
                 }
-                for (int i = 0; i < statusBars.length; i++)
-                    statusBars[i].nextStep();
+                nextStep();
             }
             // Orga Units
             OrganizationUnitType iOrganizationUnitType;
@@ -272,8 +404,7 @@ public class PNMLExport {
                         newSuper.setName(superMe.getName());
                     }
                 }
-                for (int i = 0; i < statusBars.length; i++)
-                    statusBars[i].nextStep();
+                nextStep();
             }
             // ResourceMap
             ResourceMappingType iNetResourceMap;
@@ -288,8 +419,7 @@ public class PNMLExport {
                     iNetResourceMap.setResourceClass(tempResourceClass);
                     iNetResourceMap.setResourceID(iterator.next().toString());
                 }
-                for (int i = 0; i < statusBars.length; i++)
-                    statusBars[i].nextStep();
+                nextStep();
             }
 
             // Simulations
@@ -299,30 +429,8 @@ public class PNMLExport {
             OccuredtransitionType iOccuredTransition;
             for (Iterator<SimulationModel> iter = petrinetModel.getSimulations().iterator(); iter.hasNext(); ) {
                 SimulationModel currSimulation = iter.next();
-
-                // check if current fingerprint of the net equals the imported one
-                // if not ask the user if he want's to keep the simulation
-                //
-                // this check is performed as well on:
-                // - fileixport
-                // - loading a simulation
-                // when you change it here please do at those locations as well
-                int answer = 0;
                 Date simulationCreationDate = currSimulation.getSavedDate();
-                if (!petrinetModel.isLogicalFingerprintEqual(currSimulation.getFingerprint())) {
-                    Object[] options = {Messages.getString("Tokengame.ChangedNetDialog.ButtonKeep"), Messages.getString("Tokengame.ChangedNetDialog.ButtonDelete")};
-                    // get the localized message text
-                    String message = Messages.getString("Tokengame.ChangedNetDialog.Export.Message");
-                    // fill the message text dynamically with the simulationname and simulationdate
-                    message = message.replaceAll("##SIMULATIONNAME##", currSimulation.getName());
-                    message = message.replaceAll("##SIMULATIONDATE##", DateFormat.getDateInstance().format(currSimulation.getSavedDate()));
-                    answer = JOptionPane.showOptionDialog(null, message, Messages.getString("Tokengame.ChangedNetDialog.Title"), JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE, null, options, options[0]);
-                    // if the user didn't choose one of the buttons but closed the OptionDialog don't drop the simulation
-                    if (answer == -1) {
-                        answer = 0;
-                    }
-                }
-                if (answer == 0) {
+                if (keepSimulation(petrinetModel, currSimulation)) {
                     iSimulation = iNetSimulations.addNewSimulation();
                     iSimulation.setId(currSimulation.getId());
                     iSimulation.setSimulationname(currSimulation.getName());
@@ -336,8 +444,6 @@ public class PNMLExport {
                     }
                     iSimulation.setNetFingerprint(currSimulation.getFingerprint());
                     LoggerManager.debug(Constants.FILE_LOGGER, "   ... Simulation (ID:" + currSimulation.getId() + ") set");
-                } else {
-                    LoggerManager.debug(Constants.FILE_LOGGER, "   ... Simulation (ID:" + currSimulation.getId() + ") dropped by user");
                 }
             }
 
@@ -447,7 +553,7 @@ public class PNMLExport {
                 }
                 LoggerManager.debug(Constants.FILE_LOGGER, "   ... InnerTransitions set.");
             }
-            for (IStatusBar statusBar : statusBars) statusBar.nextStep();
+            nextStep();
         }
 
         /* ##### ARCS ##### */
@@ -492,7 +598,7 @@ public class PNMLExport {
                 initArc(netBean.addNewArc(), arc, null);
             }
 
-            for (IStatusBar statusBar : statusBars) statusBar.nextStep();
+            nextStep();
         }
         // A transition can be a very complex construct consisting
         // of a lot more than just one primitive petri-net transition (e.g.
@@ -544,7 +650,7 @@ public class PNMLExport {
      * @param innerArc   the inner arc to get the outer arc for.
      * @return the corresponding outer arc or {@code null}, if no such arc exists.
      */
-    private ArcModel getOuterArc(ModelElementContainer container, String operatorId, ArcModel innerArc) {
+    ArcModel getOuterArc(ModelElementContainer container, String operatorId, ArcModel innerArc) {
         ArcModel outerArc = null;
 
         if (container.containsElement(innerArc.getSourceId())) {
@@ -37,6 +37,7 @@ import java.util.Vector;
 
 import javax.swing.JOptionPane;
 
+import org.apache.xmlbeans.XmlObject;
 import org.apache.xmlbeans.XmlOptions;
 import org.woped.core.config.ConfigurationManager;
 import org.woped.core.controller.AbstractApplicationMediator;
@@ -71,6 +72,7 @@ import org.woped.pnml.ArcType;
 import org.woped.pnml.DimensionType;
 import org.woped.pnml.GraphicsSimpleType;
 import org.woped.pnml.NetType;
+import org.woped.pnml.NetToolspecificType;
 import org.woped.pnml.NetType.Page;
 import org.woped.pnml.NodeType;
 import org.woped.pnml.OccuredtransitionType;
@@ -139,13 +141,7 @@ public class PNMLImport {
     public PNMLImport(AbstractApplicationMediator am) {
         opt.setUseDefaultNamespace();
         mediator = am;
-        Map<String, String> map = new HashMap<String, String>();
-        map.put("", "pnml.woped.org");
-        // Interpret pnml documents according to foreign standardized pnml
-        // schema as our own
-        map.put("http://www.pnml.org/version-2009/grammar/pnml", "pnml.woped.org");
-
-        opt.setLoadSubstituteNamespaces(map);
+        opt.setLoadSubstituteNamespaces(getSubstituteNamespaces());
         if (true) {
             opt.setCompileNoUpaRule();
             opt.setCompileNoPvrRule();
@@ -153,6 +149,18 @@ public class PNMLImport {
         }
     }
 
+    /**
+     * @return the namespaces of PNML documents which are read as if they were in our own namespace
+     */
+    static Map<String, String> getSubstituteNamespaces() {
+        Map<String, String> map = new HashMap<String, String>();
+        map.put("", "pnml.woped.org");
+        // Interpret pnml documents according to foreign standardized pnml
+        // schema as our own
+        map.put("http://www.pnml.org/version-2009/grammar/pnml", "pnml.woped.org");
+        return map;
+    }
+
     public boolean run(String absolutePath) {
         return run(absolutePath, true);
     }
@@ -189,13 +197,34 @@ public class PNMLImport {
      * @return
      */
     public boolean run(InputStream is, String editorName, boolean showUI) {
+        return run(is, editorName, showUI, false);
+    }
+
+    /**
+     * Imports all nets of a PNML document into new editors.
+     * <p>
+     * By default the document is parsed into XMLBeans before the nets are built from the beans. If
+     * <code>streaming</code> is set, the document is read by a {@link PNMLStreamReader} instead, which builds the
+     * nets in a single pass without keeping the document in memory. Both ways result in the same nets.
+     *
+     * @param is         the stream to read the document from
+     * @param editorName the name of the editors, or <code>null</code> to keep the names of the nets
+     * @param showUI     whether the editors are shown
+     * @param streaming  whether the document is read by a {@link PNMLStreamReader}
+     * @return <code>true</code> if the document has been imported
+     */
+    public boolean run(InputStream is, String editorName, boolean showUI, boolean streaming) {
         LoggerManager.debug(Constants.FILE_LOGGER, "##### START PNML Version (1.3.2) IMPORT #####");
 
         long begin = System.currentTimeMillis();
         try {
-            pnmlDoc = PnmlDocument.Factory.parse(is, opt);
-            if (editorName != null) createEditorFromBeans(editorName, showUI);
-            else createEditorFromBeans(showUI);
+            if (streaming) {
+                importNets(new PNMLStreamReader(this, is), editorName, showUI);
+            } else {
+                pnmlDoc = PnmlDocument.Factory.parse(is, opt);
+                if (editorName != null) createEditorFromBeans(editorName, showUI);
+                else createEditorFromBeans(showUI);
+            }
             if (!warnings.isEmpty()) {
                 StringBuilder warningStrings = new StringBuilder();
                 warningStrings.append("Imported a not valid PNML:\n");
@@ -260,6 +289,58 @@ public class PNMLImport {
 
     }
 
+    /**
+     * Imports all nets of a PNML document without any user interface.
+     * <p>
+     * The nets are read straight into new model processors, no editor is created. Nothing is registered anywhere, so
+     * several documents can be imported from several threads and the nets simply be dropped after use. Wrap a net in
+     * a {@link org.woped.core.controller.HeadlessEditor} to analyse it. Tool specific layout, resource and simulation
+     * information is skipped.
+     *
+     * @param is the stream to read the document from
+     * @return one model processor per net of the document
+     * @throws Exception if the document can not be parsed or contains an invalid net
+     */
+    public PetriNetModelProcessor[] importHeadless(InputStream is) throws Exception {
+        return importHeadless(is, false);
+    }
+
+    /**
+     * Imports all nets of a PNML document without any user interface, see {@link #importHeadless(InputStream)}.
+     *
+     * @param is        the stream to read the document from
+     * @param streaming whether the document is read by a {@link PNMLStreamReader} instead of being parsed into
+     *                  XMLBeans first
+     * @return one model processor per net of the document
+     * @throws Exception if the document can not be parsed or contains an invalid net
+     */
+    public PetriNetModelProcessor[] importHeadless(InputStream is, boolean streaming) throws Exception {
+        if (streaming) {
+            PNMLStreamReader reader = new PNMLStreamReader(this, is);
+            Vector<PetriNetModelProcessor> nets = new Vector<>();
+            while (reader.nextNet()) {
+                PetriNetModelProcessor current = new PetriNetModelProcessor();
+                reader.readNet(current, null);
+                nets.add(current);
+            }
+            return nets.toArray(new PetriNetModelProcessor[0]);
+        }
+
+        PnmlType pnml = PnmlDocument.Factory.parse(is, opt).getPnml();
+        PetriNetModelProcessor[] nets = new PetriNetModelProcessor[pnml.getNetArray().length];
+
+        for (int i = 0; i < pnml.getNetArray().length; i++) {
+            NetType currentNet = pnml.getNetArray(i);
+            nets[i] = new PetriNetModelProcessor();
+            nets[i].setId(currentNet.getId());
+            if (currentNet.isSetName()) {
+                nets[i].setName(currentNet.getName().getText());
+            }
+            importNet(currentNet, nets[i].getElementContainer());
+        }
+        return nets;
+    }
+
     private void createEditorFromBeans(String editorName, boolean showUI) throws Exception {
         importNets(pnmlDoc.getPnml(), editorName, showUI);
     }
@@ -280,23 +361,13 @@ public class PNMLImport {
     private void importNets(PnmlType pnml, String editorName, boolean showUI) throws Exception {
         editor = new IEditor[pnml.getNetArray().length];
         NetType currentNet;
-        Dimension dim;
-        Point location;
         PetriNetModelProcessor currentPetrinet;
         SimulationType[] simulations;
 
         for (int i = 0; i < pnml.getNetArray().length; i++) {
             simulations = null;
-            boolean savedFlag = true;
             currentNet = pnml.getNetArray(i);
-            editor[i] = mediator.createEditor(true, showUI);
-
-            if (showUI) {
-                if (editor[i].getGraph().getUndoManager() != null) {
-
-                    ((WoPeDUndoManager) editor[i].getGraph().getUndoManager()).setEnabled(false);
-                }
-            }
+            editor[i] = createEditor(showUI);
             currentPetrinet = (editor[i].getModelProcessor());
             // attr. id
             currentPetrinet.setId(currentNet.getId());
@@ -309,193 +380,266 @@ public class PNMLImport {
             if (showUI) if (ConfigurationManager.getConfiguration().isImportToolspecific()) {
                 // toolspecific
                 for (int j = 0; j < currentNet.getToolspecificArray().length; j++) {
-                    if (currentNet.getToolspecificArray(j).getTool().equals("WoPeD")) {
-                        if (currentNet.getToolspecificArray(j).isSetBounds()) {
-                            dim = new Dimension(currentNet.getToolspecificArray(j).getBounds().getDimension().getX().intValue(), currentNet.getToolspecificArray(j).getBounds().getDimension().getY().intValue());
-                            location = new Point(currentNet.getToolspecificArray(j).getBounds().getPosition().getX().intValue(), currentNet.getToolspecificArray(j).getBounds().getPosition().getY().intValue());
-                            if (editor[i] instanceof EditorVC) {
-                                // Pass read layout information on to the
-                                // editor
-                                EditorLayoutInfo layout = new EditorLayoutInfo();
-                                layout.setSavedSize(dim);
-                                layout.setSavedLocation(location);
-
-                                // try to import the type of Layout (false
-                                // if vertical)
-                                editor[i].setRotateSelected(currentNet.getToolspecificArray(j).getVerticalLayout());
-
-                                // for importing a vertical net to change
-                                // the rotate-button
-                                if (currentNet.getToolspecificArray(j).getVerticalLayout() == true) {
-                                    // EditorVC.setRotateSelected(true);
-                                    VisualController.getInstance().propertyChange(new PropertyChangeEvent(this, "Import", null, null));
-
-                                    // Update the UI representation
-                                    // EditorVC.getGraph().updateUI();
-                                }
+                    SimulationType[] toolspecificSimulations = importNetToolspecific(currentNet.getToolspecificArray(j), editor[i], currentPetrinet);
+                    if (toolspecificSimulations != null) {
+                        simulations = toolspecificSimulations;
+                    }
+                }
 
-                                if (currentNet.getToolspecificArray(j).isSetScale()) {
-                                    // try to import the saved scale
-                                    editor[i].getGraph().setScale(currentNet.getToolspecificArray(j).getScale() / 100.0);
-                                }
+            }
 
-                                // Only if also the remaining information is
-                                // available,
-                                // try to import the width of the tree view
-                                // and the height of the overview panel
-                                if (currentNet.getToolspecificArray(j).isSetTreeWidth()) {
-                                    GraphicsSimpleType bounds = currentNet.getToolspecificArray(j).getBounds();
-                                    DimensionType dimension = bounds.getDimension();
-                                    int x = (int) (dimension.getX()).doubleValue();
-                                    x = x - currentNet.getToolspecificArray(j).getTreeWidth();
-                                    layout.setTreeViewWidthRight(x);
-                                } else if (currentNet.getToolspecificArray(j).isSetTreeWidthRight()) {
-                                    layout.setTreeViewWidthRight(currentNet.getToolspecificArray(j).getTreeWidthRight());
-                                } else {
-                                    layout.setTreeViewWidthRight(currentNet.getToolspecificArray(j).getBounds().getDimension().getX().intValue() - 100);
-                                }
+            // Import the net into the current ModelElementContainer
+            importNet(currentNet, editor[i].getModelProcessor().getElementContainer());
 
-                                if (currentNet.getToolspecificArray(j).isSetOverviewPanelVisible()) {
-                                    layout.setOverviewPanelVisible(currentNet.getToolspecificArray(j).getOverviewPanelVisible());
-                                } else {
-                                    layout.setOverviewPanelVisible(true);
-                                }
+            // Import textual descriptions
+            // if(currentNet.isSetText() == true){
+            // importTextualDescription(currentPetrinet, currentNet, editor[i]);
+            // }
 
-                                if (currentNet.getToolspecificArray(j).isSetTreeHeightOverview()) {
-                                    if (currentNet.getToolspecificArray(j).getTreeHeightOverview() < 1) {
-                                        layout.setTreeHeightOverview(100);
-                                    } else {
-                                        layout.setTreeHeightOverview(currentNet.getToolspecificArray(j).getTreeHeightOverview());
-                                    }
-                                } else {
-                                    layout.setTreeHeightOverview(100);
-                                }
+            finishNet(editor[i], editorName, showUI, simulations);
+        }
+    }
 
-                                if (currentNet.getToolspecificArray(j).isSetTreePanelVisible()) {
+    private void importNets(PNMLStreamReader reader, String editorName, boolean showUI) throws Exception {
+        Vector<IEditor> editors = new Vector<>();
+        while (reader.nextNet()) {
+            IEditor currentEditor = createEditor(showUI);
+            editors.add(currentEditor);
+
+            // The tool specific information follows the elements of the net,
+            // so it is collected while reading the net and imported afterwards
+            Vector<NetToolspecificType> toolspecifics = null;
+            if (showUI && ConfigurationManager.getConfiguration().isImportToolspecific()) {
+                toolspecifics = new Vector<>();
+            }
+            reader.readNet(currentEditor.getModelProcessor(), toolspecifics);
+
+            SimulationType[] simulations = null;
+            if (toolspecifics != null) {
+                for (NetToolspecificType toolspecific : toolspecifics) {
+                    SimulationType[] toolspecificSimulations = importNetToolspecific(toolspecific, currentEditor, currentEditor.getModelProcessor());
+                    if (toolspecificSimulations != null) {
+                        simulations = toolspecificSimulations;
+                    }
+                }
+            }
+            finishNet(currentEditor, editorName, showUI, simulations);
+        }
+        editor = editors.toArray(new IEditor[0]);
+    }
 
-                                    layout.setTreePanelVisible(currentNet.getToolspecificArray(j).getTreePanelVisible());
+    private IEditor createEditor(boolean showUI) {
+        IEditor currentEditor = mediator.createEditor(true, showUI);
+        if (showUI) {
+            if (currentEditor.getGraph().getUndoManager() != null) {
 
-                                } else {
-                                    layout.setTreePanelVisible(true);
-                                }
+                ((WoPeDUndoManager) currentEditor.getGraph().getUndoManager()).setEnabled(false);
+            }
+        }
+        return currentEditor;
+    }
 
-                                ((EditorVC) editor[i]).getEditorPanel().setSavedLayoutInfo(layout);
-                            }
-                        }
-                        if (currentNet.getToolspecificArray(j).isSetResources()) {
-                            // ResourceMapType resourceMap =
-                            // currentNet.getToolspecificArray(j).getResources().getResourceMap();
-                            ResourceMappingType[] resourceMaps = currentNet.getToolspecificArray(j).getResources().getResourceMappingArray();
-
-                            RoleType[] roles = currentNet.getToolspecificArray(j).getResources().getRoleArray();
-                            ResourceClassModel roleModelTemp;
-                            for (int k = 0; k < roles.length; k++) {
-                                roleModelTemp = new ResourceClassModel(roles[k].getName(), ResourceClassModel.TYPE_ROLE);
-                                currentPetrinet.addRole(roleModelTemp);
-                                SuperModelType[] supermodels = roles[k].getSuperModelArray();
-                                ResourceClassModel superModelTemp;
-                                for (int l = 0; l < supermodels.length; l++) {
-                                    superModelTemp = new ResourceClassModel(supermodels[l].getName(), ResourceClassModel.TYPE_ROLE);
-                                    roleModelTemp.addSuperModel(superModelTemp);
-                                }
-                            }
+    /**
+     * Imports the simulations of an imported net and builds its graph.
+     *
+     * @param currentEditor the editor of the net
+     * @param editorName    the name of the editor, or <code>null</code> to keep the name of the net
+     * @param showUI        whether the editor is shown
+     * @param simulations   the simulations of the net, may be <code>null</code>
+     */
+    private void finishNet(IEditor currentEditor, String editorName, boolean showUI, SimulationType[] simulations) throws Exception {
+        boolean savedFlag = true;
 
-                            OrganizationUnitType[] units = currentNet.getToolspecificArray(j).getResources().getOrganizationUnitArray();
-                            ResourceClassModel orgUnitTemp;
-                            for (int l = 0; l < units.length; l++) {
-                                orgUnitTemp = new ResourceClassModel(units[l].getName(), ResourceClassModel.TYPE_ORGUNIT);
-                                currentPetrinet.addOrgUnit(orgUnitTemp);
-
-                                SuperModelType[] supermodels = units[l].getSuperModelArray();
-                                ResourceClassModel superModelTemp;
-                                for (int m = 0; m < supermodels.length; m++) {
-                                    superModelTemp = new ResourceClassModel(supermodels[m].getName(), ResourceClassModel.TYPE_ORGUNIT);
-                                    orgUnitTemp.addSuperModel(superModelTemp);
-                                }
-                            }
+        // Import the simulations if any exist
+        if (simulations != null) {
+            savedFlag = importSimulations(simulations, currentEditor.getModelProcessor());
+        }
 
-                            ResourceType[] resources = currentNet.getToolspecificArray(j).getResources().getResourceArray();
-                            ResourceModel resourceModelTemp;
-                            for (int m = 0; m < resources.length; m++) {
-                                resourceModelTemp = new ResourceModel(resources[m].getName());
-                                currentPetrinet.addResource(resourceModelTemp);
-                            }
+        // Now build the graph from the ModelElementContainer
+        if (showUI) {
+            currentEditor.getGraph().drawNet(currentEditor.getModelProcessor());
+            currentEditor.updateNet();
 
-                            for (int n = 0; n < resourceMaps.length; n++) {
-                                currentPetrinet.addResourceMapping(resourceMaps[n].getResourceClass(), resourceMaps[n].getResourceID());
-                            }
-                        }
-                        if (currentNet.getToolspecificArray(j).isSetSimulations()) {
-                            // only save the simulationsarray to local
-                            // variable
-                            // here - the import itself
-                            // has to be done after import of the
-                            // transitions
-                            // because the simulation
-                            // references transitions (which otherwise
-                            // result in
-                            // 'null')
-                            // see "importSimulations([...])" below
-                            simulations = currentNet.getToolspecificArray(j).getSimulations().getSimulationArray();
-                        }
+            currentEditor.getGraph().clearSelection();
+            if (currentEditor.getGraph().getUndoManager() != null) {
+                ((WoPeDUndoManager) currentEditor.getGraph().getUndoManager()).setEnabled(true);
+            }
+            currentEditor.updateNet();
+            if (editorName != null) {
+                currentEditor.setName(editorName);
+                currentEditor.setSaved(false);
+            } else currentEditor.setSaved(savedFlag);
+        }
+    }
 
-                        if (currentNet.getToolspecificArray(j).isSetPartnerLinks()) {
-                            TPartnerLinks plist = currentNet.getToolspecificArray(j).getPartnerLinks();
-                            for (int x = 0; x < plist.sizeOfPartnerLinkArray(); x++) {
-                                TPartnerLink link = plist.getPartnerLinkArray(x);
-                                if (link.isSetMyRole() && link.isSetPartnerRole()) {
-                                    currentPetrinet.getElementContainer().addPartnerLink(link.getName(), link.getPartnerLinkType().getNamespaceURI(), link.getPartnerLinkType().getLocalPart(), link.getPartnerRole(), link.getMyRole(), link.getWSDL());
-                                } else if (link.isSetMyRole()) {
-                                    currentPetrinet.getElementContainer().addPartnerLinkWithoutPartnerRole(link.getName(), link.getPartnerLinkType().getNamespaceURI(), link.getPartnerLinkType().getLocalPart(), link.getMyRole(), link.getWSDL());
-                                } else if (link.isSetPartnerRole()) {
-                                    currentPetrinet.getElementContainer().addPartnerLinkWithoutMyRole(link.getName(), link.getPartnerLinkType().getNamespaceURI(), link.getPartnerLinkType().getLocalPart(), link.getPartnerRole(), link.getWSDL());
-                                }
-                            }
-                        }
+    /**
+     * Imports a tool specific element of a net. Elements of other tools are kept as they are.
+     *
+     * @param toolspecific    the tool specific element
+     * @param currentEditor   the editor of the net
+     * @param currentPetrinet the net
+     * @return the simulations of the net, which have to be imported after the net itself, or <code>null</code> if the
+     * element contains no simulations
+     */
+    private SimulationType[] importNetToolspecific(NetToolspecificType toolspecific, IEditor currentEditor, PetriNetModelProcessor currentPetrinet) {
+        Dimension dim;
+        Point location;
+        SimulationType[] simulations = null;
+        if (!toolspecific.getTool().equals("WoPeD")) {
+            currentPetrinet.addUnknownToolSpecs(toolspecific);
+            return null;
+        }
+        if (toolspecific.isSetBounds()) {
+            dim = new Dimension(toolspecific.getBounds().getDimension().getX().intValue(), toolspecific.getBounds().getDimension().getY().intValue());
+            location = new Point(toolspecific.getBounds().getPosition().getX().intValue(), toolspecific.getBounds().getPosition().getY().intValue());
+            if (currentEditor instanceof EditorVC) {
+                // Pass read layout information on to the
+                // editor
+                EditorLayoutInfo layout = new EditorLayoutInfo();
+                layout.setSavedSize(dim);
+                layout.setSavedLocation(location);
+
+                // try to import the type of Layout (false
+                // if vertical)
+                currentEditor.setRotateSelected(toolspecific.getVerticalLayout());
+
+                // for importing a vertical net to change
+                // the rotate-button
+                if (toolspecific.getVerticalLayout() == true) {
+                    // EditorVC.setRotateSelected(true);
+                    VisualController.getInstance().propertyChange(new PropertyChangeEvent(this, "Import", null, null));
+
+                    // Update the UI representation
+                    // EditorVC.getGraph().updateUI();
+                }
 
-                        if (currentNet.getToolspecificArray(j).isSetVariables()) {
-                            TVariables vlist = currentNet.getToolspecificArray(j).getVariables();
-                            for (int x = 0; x < vlist.sizeOfVariableArray(); x++) {
-                                TVariable var = vlist.getVariableArray(x);
-                                currentPetrinet.getElementContainer().addVariable(var.getName(), var.getType().getLocalPart());
-                            }
-                        }
+                if (toolspecific.isSetScale()) {
+                    // try to import the saved scale
+                    currentEditor.getGraph().setScale(toolspecific.getScale() / 100.0);
+                }
+
+                // Only if also the remaining information is
+                // available,
+                // try to import the width of the tree view
+                // and the height of the overview panel
+                if (toolspecific.isSetTreeWidth()) {
+                    GraphicsSimpleType bounds = toolspecific.getBounds();
+                    DimensionType dimension = bounds.getDimension();
+                    int x = (int) (dimension.getX()).doubleValue();
+                    x = x - toolspecific.getTreeWidth();
+                    layout.setTreeViewWidthRight(x);
+                } else if (toolspecific.isSetTreeWidthRight()) {
+                    layout.setTreeViewWidthRight(toolspecific.getTreeWidthRight());
+                } else {
+                    layout.setTreeViewWidthRight(toolspecific.getBounds().getDimension().getX().intValue() - 100);
+                }
+
+                if (toolspecific.isSetOverviewPanelVisible()) {
+                    layout.setOverviewPanelVisible(toolspecific.getOverviewPanelVisible());
+                } else {
+                    layout.setOverviewPanelVisible(true);
+                }
+
+                if (toolspecific.isSetTreeHeightOverview()) {
+                    if (toolspecific.getTreeHeightOverview() < 1) {
+                        layout.setTreeHeightOverview(100);
                     } else {
-                        currentPetrinet.addUnknownToolSpecs(currentNet.getToolspecificArray(j));
+                        layout.setTreeHeightOverview(toolspecific.getTreeHeightOverview());
                     }
+                } else {
+                    layout.setTreeHeightOverview(100);
                 }
 
-            }
+                if (toolspecific.isSetTreePanelVisible()) {
 
-            // Import the net into the current ModelElementContainer
-            importNet(currentNet, editor[i].getModelProcessor().getElementContainer());
+                    layout.setTreePanelVisible(toolspecific.getTreePanelVisible());
 
-            // Import textual descriptions
-            // if(currentNet.isSetText() == true){
-            // importTextualDescription(currentPetrinet, currentNet, editor[i]);
-            // }
+                } else {
+                    layout.setTreePanelVisible(true);
+                }
+
+                ((EditorVC) currentEditor).getEditorPanel().setSavedLayoutInfo(layout);
+            }
+        }
+        if (toolspecific.isSetResources()) {
+            // ResourceMapType resourceMap =
+            // toolspecific.getResources().getResourceMap();
+            ResourceMappingType[] resourceMaps = toolspecific.getResources().getResourceMappingArray();
+
+            RoleType[] roles = toolspecific.getResources().getRoleArray();
+            ResourceClassModel roleModelTemp;
+            for (int k = 0; k < roles.length; k++) {
+                roleModelTemp = new ResourceClassModel(roles[k].getName(), ResourceClassModel.TYPE_ROLE);
+                currentPetrinet.addRole(roleModelTemp);
+                SuperModelType[] supermodels = roles[k].getSuperModelArray();
+                ResourceClassModel superModelTemp;
+                for (int l = 0; l < supermodels.length; l++) {
+                    superModelTemp = new ResourceClassModel(supermodels[l].getName(), ResourceClassModel.TYPE_ROLE);
+                    roleModelTemp.addSuperModel(superModelTemp);
+                }
+            }
 
-            // Import the simulations if any exist
-            if (simulations != null) {
-                savedFlag = importSimulations(simulations, currentPetrinet);
+            OrganizationUnitType[] units = toolspecific.getResources().getOrganizationUnitArray();
+            ResourceClassModel orgUnitTemp;
+            for (int l = 0; l < units.length; l++) {
+                orgUnitTemp = new ResourceClassModel(units[l].getName(), ResourceClassModel.TYPE_ORGUNIT);
+                currentPetrinet.addOrgUnit(orgUnitTemp);
+
+                SuperModelType[] supermodels = units[l].getSuperModelArray();
+                ResourceClassModel superModelTemp;
+                for (int m = 0; m < supermodels.length; m++) {
+                    superModelTemp = new ResourceClassModel(supermodels[m].getName(), ResourceClassModel.TYPE_ORGUNIT);
+                    orgUnitTemp.addSuperModel(superModelTemp);
+                }
             }
 
-            // Now build the graph from the ModelElementContainer
-            if (showUI) {
-                editor[i].getGraph().drawNet(editor[i].getModelProcessor());
-                editor[i].updateNet();
+            ResourceType[] resources = toolspecific.getResources().getResourceArray();
+            ResourceModel resourceModelTemp;
+            for (int m = 0; m < resources.length; m++) {
+                resourceModelTemp = new ResourceModel(resources[m].getName());
+                currentPetrinet.addResource(resourceModelTemp);
+            }
 
-                editor[i].getGraph().clearSelection();
-                if (editor[i].getGraph().getUndoManager() != null) {
-                    ((WoPeDUndoManager) editor[i].getGraph().getUndoManager()).setEnabled(true);
+            for (int n = 0; n < resourceMaps.length; n++) {
+                currentPetrinet.addResourceMapping(resourceMaps[n].getResourceClass(), resourceMaps[n].getResourceID());
+            }
+        }
+        if (toolspecific.isSetSimulations()) {
+            // only save the simulationsarray to local
+            // variable
+            // here - the import itself
+            // has to be done after import of the
+            // transitions
+            // because the simulation
+            // references transitions (which otherwise
+            // result in
+            // 'null')
+            // see "importSimulations([...])" below
+            simulations = toolspecific.getSimulations().getSimulationArray();
+        }
+
+        if (toolspecific.isSetPartnerLinks()) {
+            TPartnerLinks plist = toolspecific.getPartnerLinks();
+            for (int x = 0; x < plist.sizeOfPartnerLinkArray(); x++) {
+                TPartnerLink link = plist.getPartnerLinkArray(x);
+                if (link.isSetMyRole() && link.isSetPartnerRole()) {
+                    currentPetrinet.getElementContainer().addPartnerLink(link.getName(), link.getPartnerLinkType().getNamespaceURI(), link.getPartnerLinkType().getLocalPart(), link.getPartnerRole(), link.getMyRole(), link.getWSDL());
+                } else if (link.isSetMyRole()) {
+                    currentPetrinet.getElementContainer().addPartnerLinkWithoutPartnerRole(link.getName(), link.getPartnerLinkType().getNamespaceURI(), link.getPartnerLinkType().getLocalPart(), link.getMyRole(), link.getWSDL());
+                } else if (link.isSetPartnerRole()) {
+                    currentPetrinet.getElementContainer().addPartnerLinkWithoutMyRole(link.getName(), link.getPartnerLinkType().getNamespaceURI(), link.getPartnerLinkType().getLocalPart(), link.getPartnerRole(), link.getWSDL());
                 }
-                editor[i].updateNet();
-                if (editorName != null) {
-                    editor[i].setName(editorName);
-                    editor[i].setSaved(false);
-                } else editor[i].setSaved(savedFlag);
             }
         }
+
+        if (toolspecific.isSetVariables()) {
+            TVariables vlist = toolspecific.getVariables();
+            for (int x = 0; x < vlist.sizeOfVariableArray(); x++) {
+                TVariable var = vlist.getVariableArray(x);
+                currentPetrinet.getElementContainer().addVariable(var.getName(), var.getType().getLocalPart());
+            }
+        }
+        return simulations;
     }
 
     /**
@@ -679,34 +823,22 @@ public class PNMLImport {
                                     map.setResourcePosition(transitions[i].getToolspecificArray(j).getTransitionResource().getGraphics().getPosition().getX().intValue(), transitions[i].getToolspecificArray(j).getTransitionResource().getGraphics().getPosition().getY().intValue());
                                 }
                                 if (transitions[i].getToolspecificArray(j).isSetEmpty()) {
-                                    TEmpty empty = transitions[i].getToolspecificArray(j).getEmpty();
-                                    Empty bpel = new Empty(empty.getName());
-                                    map.setBpeldata(bpel);
+                                    map.setBpeldata(createBpelData(transitions[i].getToolspecificArray(j).getEmpty()));
                                 }
                                 if (transitions[i].getToolspecificArray(j).isSetAssign()) {
-                                    TAssign assign = transitions[i].getToolspecificArray(j).getAssign();
-                                    Assign bpel = new Assign(assign.getName(), assign.getCopyArray(0).getFrom().getVariable(), assign.getCopyArray(0).getTo().getVariable());
-                                    map.setBpeldata(bpel);
+                                    map.setBpeldata(createBpelData(transitions[i].getToolspecificArray(j).getAssign()));
                                 }
                                 if (transitions[i].getToolspecificArray(j).isSetInvoke()) {
-                                    TInvoke invoke = transitions[i].getToolspecificArray(j).getInvoke();
-                                    Invoke bpel = new Invoke(invoke.getName(), invoke.getPartnerLink(), invoke.getOperation(), "", invoke.getInputVariable(), invoke.getOutputVariable());
-                                    map.setBpeldata(bpel);
+                                    map.setBpeldata(createBpelData(transitions[i].getToolspecificArray(j).getInvoke()));
                                 }
                                 if (transitions[i].getToolspecificArray(j).isSetReceive()) {
-                                    TReceive receive = transitions[i].getToolspecificArray(j).getReceive();
-                                    Receive bpel = new Receive(receive.getName(), receive.getPartnerLink(), receive.getOperation(), receive.getVariable());
-                                    map.setBpeldata(bpel);
+                                    map.setBpeldata(createBpelData(transitions[i].getToolspecificArray(j).getReceive()));
                                 }
                                 if (transitions[i].getToolspecificArray(j).isSetReply()) {
-                                    TReply reply = transitions[i].getToolspecificArray(j).getReply();
-                                    Reply bpel = new Reply(reply.getName(), reply.getPartnerLink(), reply.getOperation(), reply.getVariable());
-                                    map.setBpeldata(bpel);
+                                    map.setBpeldata(createBpelData(transitions[i].getToolspecificArray(j).getReply()));
                                 }
                                 if (transitions[i].getToolspecificArray(j).isSetWait()) {
-                                    TWait wait = transitions[i].getToolspecificArray(j).getWait();
-                                    Wait bpel = new Wait(wait.getName(), wait.getTyp(), wait.getYear(), wait.getMonth(), wait.getDay(), wait.getHour(), wait.getMinute(), wait.getSecond());
-                                    map.setBpeldata(bpel);
+                                    map.setBpeldata(createBpelData(transitions[i].getToolspecificArray(j).getWait()));
                                 }
                             } else {
 
@@ -762,47 +894,7 @@ public class PNMLImport {
                                         // This might contain layout information
                                         // for the sub-process editor
                                         for (int j = 0; j < subProcessNet.getToolspecificArray().length; ++j)
-                                            if (subProcessNet.getToolspecificArray(j).getTool().equals("WoPeD")) {
-                                                if (subProcessNet.getToolspecificArray(j).isSetBounds()) {
-                                                    Dimension dim = new Dimension(subProcessNet.getToolspecificArray(j).getBounds().getDimension().getX().intValue(), subProcessNet.getToolspecificArray(j).getBounds().getDimension().getY().intValue());
-                                                    Point location = new Point(subProcessNet.getToolspecificArray(j).getBounds().getPosition().getX().intValue(), subProcessNet.getToolspecificArray(j).getBounds().getPosition().getY().intValue());
-                                                    EditorLayoutInfo layout = new EditorLayoutInfo();
-
-                                                    layout.setSavedSize(dim);
-                                                    layout.setSavedLocation(location);
-                                                    // Only if also the
-                                                    // remaining information is
-                                                    // available,
-                                                    // try to import the width
-                                                    // of the tree view
-                                                    if (subProcessNet.getToolspecificArray(j).isSetTreeWidth()) {
-                                                        layout.setTreeViewWidthRight(subProcessNet.getToolspecificArray(j).getBounds().getDimension().getX().intValue() - subProcessNet.getToolspecificArray(j).getTreeWidth());
-                                                    }
-
-                                                    if (subProcessNet.getToolspecificArray(j).isSetTreeWidthRight()) {
-                                                        layout.setTreeViewWidthRight(subProcessNet.getToolspecificArray(j).getTreeWidthRight());
-                                                    }
-
-                                                    if (subProcessNet.getToolspecificArray(j).isSetOverviewPanelVisible()) {
-                                                        layout.setOverviewPanelVisible(subProcessNet.getToolspecificArray(j).getOverviewPanelVisible());
-                                                    } else {
-                                                        layout.setOverviewPanelVisible(true);
-                                                    }
-
-                                                    if (subProcessNet.getToolspecificArray(j).isSetTreeHeightOverview()) {
-                                                        layout.setTreeHeightOverview(subProcessNet.getToolspecificArray(j).getTreeHeightOverview());
-
-                                                    }
-
-                                                    if (subProcessNet.getToolspecificArray(j).isSetTreePanelVisible()) {
-                                                        layout.setTreePanelVisible(subProcessNet.getToolspecificArray(j).getTreePanelVisible());
-                                                    } else {
-                                                        layout.setTreePanelVisible(true);
-                                                    }
-
-                                                    container.setEditorLayoutInfo(layout);
-                                                }
-                                            }
+                                            importSubprocessLayout(subProcessNet.getToolspecificArray(j), container);
                                     }
                                 }
                             }
@@ -815,6 +907,92 @@ public class PNMLImport {
         }
     }
 
+    /**
+     * Creates the BPEL data of a transition from its BPEL activity.
+     *
+     * @param activity the activity, one of {@link TEmpty}, {@link TAssign}, {@link TInvoke}, {@link TReceive},
+     *                 {@link TReply} or {@link TWait}
+     * @return the BPEL data or <code>null</code> if the activity is not supported
+     */
+    static Object createBpelData(XmlObject activity) {
+        if (activity instanceof TEmpty) {
+            TEmpty empty = (TEmpty) activity;
+            return new Empty(empty.getName());
+        }
+        if (activity instanceof TAssign) {
+            TAssign assign = (TAssign) activity;
+            return new Assign(assign.getName(), assign.getCopyArray(0).getFrom().getVariable(), assign.getCopyArray(0).getTo().getVariable());
+        }
+        if (activity instanceof TInvoke) {
+            TInvoke invoke = (TInvoke) activity;
+            return new Invoke(invoke.getName(), invoke.getPartnerLink(), invoke.getOperation(), "", invoke.getInputVariable(), invoke.getOutputVariable());
+        }
+        if (activity instanceof TReceive) {
+            TReceive receive = (TReceive) activity;
+            return new Receive(receive.getName(), receive.getPartnerLink(), receive.getOperation(), receive.getVariable());
+        }
+        if (activity instanceof TReply) {
+            TReply reply = (TReply) activity;
+            return new Reply(reply.getName(), reply.getPartnerLink(), reply.getOperation(), reply.getVariable());
+        }
+        if (activity instanceof TWait) {
+            TWait wait = (TWait) activity;
+            return new Wait(wait.getName(), wait.getTyp(), wait.getYear(), wait.getMonth(), wait.getDay(), wait.getHour(), wait.getMinute(), wait.getSecond());
+        }
+        return null;
+    }
+
+    /**
+     * Imports the layout of the editor of a sub-process from a tool specific element of the sub-process net.
+     *
+     * @param toolspecific the tool specific element
+     * @param container    the container of the sub-process
+     */
+    void importSubprocessLayout(NetToolspecificType toolspecific, ModelElementContainer container) {
+        if (!toolspecific.getTool().equals("WoPeD")) {
+            return;
+        }
+        if (toolspecific.isSetBounds()) {
+            Dimension dim = new Dimension(toolspecific.getBounds().getDimension().getX().intValue(), toolspecific.getBounds().getDimension().getY().intValue());
+            Point location = new Point(toolspecific.getBounds().getPosition().getX().intValue(), toolspecific.getBounds().getPosition().getY().intValue());
+            EditorLayoutInfo layout = new EditorLayoutInfo();
+
+            layout.setSavedSize(dim);
+            layout.setSavedLocation(location);
+            // Only if also the
+            // remaining information is
+            // available,
+            // try to import the width
+            // of the tree view
+            if (toolspecific.isSetTreeWidth()) {
+                layout.setTreeViewWidthRight(toolspecific.getBounds().getDimension().getX().intValue() - toolspecific.getTreeWidth());
+            }
+
+            if (toolspecific.isSetTreeWidthRight()) {
+                layout.setTreeViewWidthRight(toolspecific.getTreeWidthRight());
+            }
+
+            if (toolspecific.isSetOverviewPanelVisible()) {
+                layout.setOverviewPanelVisible(toolspecific.getOverviewPanelVisible());
+            } else {
+                layout.setOverviewPanelVisible(true);
+            }
+
+            if (toolspecific.isSetTreeHeightOverview()) {
+                layout.setTreeHeightOverview(toolspecific.getTreeHeightOverview());
+
+            }
+
+            if (toolspecific.isSetTreePanelVisible()) {
+                layout.setTreePanelVisible(toolspecific.getTreePanelVisible());
+            } else {
+                layout.setTreePanelVisible(true);
+            }
+
+            container.setEditorLayoutInfo(layout);
+        }
+    }
+
     /**
      * Imports the arc beans into the given ModelElementContainer.
      * <p>
@@ -849,7 +1027,7 @@ public class PNMLImport {
         try {
 
             // Create the arc instance
-            ArcModel arc = createArc(arcBean, processor, importToolSpecificAttributes);
+            ArcModel arc = createArc(arcBean.getId(), arcBean.getSource(), arcBean.getTarget(), processor, importToolSpecificAttributes);
 
             if (arc == null) {
                 return;
@@ -870,31 +1048,33 @@ public class PNMLImport {
      * If the parameter importToolSpecificAttributes is set to true, the method tries to generate the WoPeD specific
      * operator transitions. Otherwise the arc is going to be imported with simple transitions only.
      *
-     * @param arcBean                      the arc bean containing the attributes of the imported arc.
+     * @param arcId                        the id of the imported arc.
+     * @param sourceId                     the id of the source of the imported arc.
+     * @param targetId                     the id of the target of the imported arc.
      * @param processor                    the processor used to create the arc
      * @param importToolSpecificAttributes flag to determine, if the tool specific attributes should be imported.
      * @return the created arc, or {@code null} if the arc could not be created.
      */
-    private ArcModel createArc(ArcType arcBean, PetriNetModelProcessor processor, boolean importToolSpecificAttributes) {
+    ArcModel createArc(String arcId, String sourceId, String targetId, PetriNetModelProcessor processor, boolean importToolSpecificAttributes) {
 
         ArcModel createdArc;
         ModelElementContainer container = processor.getElementContainer();
         AbstractPetriNetElementModel source;
         AbstractPetriNetElementModel target;
 
-        source = container.getElementById(arcBean.getSource());
-        target = container.getElementById(arcBean.getTarget());
+        source = container.getElementById(sourceId);
+        target = container.getElementById(targetId);
 
         if (!importToolSpecificAttributes) {
 
             // verify that source and target exists
             if (source == null || target == null) {
-                warnings.add("- INVALID ARC (" + arcBean.getId() + "): Couldn't resolve source and/or target.");
+                warnings.add("- INVALID ARC (" + arcId + "): Couldn't resolve source and/or target.");
                 return null;
             }
 
             // create arc with an simple transition
-            createdArc = processor.createArc(arcBean.getId(), arcBean.getSource(), arcBean.getTarget(), new Point2D[0], true);
+            createdArc = processor.createArc(arcId, sourceId, targetId, new Point2D[0], true);
 
         } else {
 
@@ -904,52 +1084,52 @@ public class PNMLImport {
             if (target != null && source != null) {
 
                 // create the arc with an simple transition
-                createdArc = processor.createArc(arcBean.getId(), arcBean.getSource(), arcBean.getTarget(), new Point2D[0], true);
+                createdArc = processor.createArc(arcId, sourceId, targetId, new Point2D[0], true);
             }
 
             // source is an possible operator
             else if (source == null && target != null) {
 
                 // extract operator id
-                operatorId = getParentId(arcBean.getSource());
+                operatorId = getParentId(sourceId);
 
                 // verify operator
                 if (!isValidOperator(container, operatorId)) {
-                    warnings.add("- INVALID ARC (" + arcBean.getId() + "): Source is not a valid operator.");
+                    warnings.add("- INVALID ARC (" + arcId + "): Source is not a valid operator.");
                     return null;
                 }
 
                 // create arc
-                createdArc = processor.createArc(arcBean.getId(), operatorId, arcBean.getTarget(), new Point2D[0], true);
+                createdArc = processor.createArc(arcId, operatorId, targetId, new Point2D[0], true);
             }
 
             // target is an possible operator
             else if (target == null && source != null) {
 
                 // extract operator Id
-                operatorId = getParentId(arcBean.getTarget());
+                operatorId = getParentId(targetId);
 
                 // verify operator
                 if (!isValidOperator(container, operatorId)) {
-                    warnings.add("- INVALID ARC (" + arcBean.getId() + "): Target is not a valid operator" + ".");
+                    warnings.add("- INVALID ARC (" + arcId + "): Target is not a valid operator" + ".");
                     return null;
                 }
 
                 // create arc
-                createdArc = processor.createArc(arcBean.getId(), arcBean.getSource(), operatorId, new Point2D[0], true);
+                createdArc = processor.createArc(arcId, sourceId, operatorId, new Point2D[0], true);
             }
 
             // Arc is maybe an auto generated inner arc of an operator and could be ignored
             else {
-                String sourceId = getParentId(arcBean.getSource());
-                String targetId = getParentId(arcBean.getTarget());
+                String sourceParentId = getParentId(sourceId);
+                String targetParentId = getParentId(targetId);
 
-                if (!isValidOperator(container, sourceId) || !isValidOperator(container, targetId)) {
-                    warnings.add("- INVALID ARC (" + arcBean.getId() + "): Source and/or target could not be resolved.");
+                if (!isValidOperator(container, sourceParentId) || !isValidOperator(container, targetParentId)) {
+                    warnings.add("- INVALID ARC (" + arcId + "): Source and/or target could not be resolved.");
                     return null;
                 }
 
-                LoggerManager.debug(Constants.FILE_LOGGER, " ... Arc skipped: (ID:" + arcBean.getId() + ") " + arcBean.getSource() + " -> " + arcBean.getTarget() + " ");
+                LoggerManager.debug(Constants.FILE_LOGGER, " ... Arc skipped: (ID:" + arcId + ") " + sourceId + " -> " + targetId + " ");
                 return null;
             }
         }
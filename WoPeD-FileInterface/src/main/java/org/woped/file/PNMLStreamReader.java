@@ -0,0 +1,888 @@
+package org.woped.file;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.awt.geom.Point2D;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.xmlbeans.SchemaType;
+import org.apache.xmlbeans.XmlBeans;
+import org.apache.xmlbeans.XmlException;
+import org.apache.xmlbeans.XmlObject;
+import org.apache.xmlbeans.XmlOptions;
+import org.woped.core.config.ConfigurationManager;
+import org.woped.core.model.ArcModel;
+import org.woped.core.model.CreationMap;
+import org.woped.core.model.IntPair;
+import org.woped.core.model.ModelElementContainer;
+import org.woped.core.model.ModelElementFactory;
+import org.woped.core.model.PetriNetModelProcessor;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+import org.woped.core.model.petrinet.OperatorTransitionModel;
+import org.woped.core.model.petrinet.SubProcessModel;
+import org.woped.core.utilities.LoggerManager;
+import org.woped.pnml.ArcToolspecificType;
+import org.woped.pnml.NetToolspecificType;
+import org.woped.pnml.PlaceToolspecificType;
+import org.woped.pnml.TAssign;
+import org.woped.pnml.TEmpty;
+import org.woped.pnml.TInvoke;
+import org.woped.pnml.TReceive;
+import org.woped.pnml.TReply;
+import org.woped.pnml.TWait;
+import org.woped.pnml.TransitionToolspecificType;
+
+/**
+ * Reads the nets of a PNML document in a single pass with a StAX {@link XMLStreamReader}.
+ * <p>
+ * Unlike the XMLBeans based import of {@link PNMLImport}, the document is not kept in memory. Each place and
+ * transition is read into a small {@link Node} and created as soon as its end tag has been reached. The arcs of a net
+ * are kept until the end of the net, because their source and target have to exist. Only the tool specific
+ * information of the net and of other tools as well as BPEL activities are still parsed by XMLBeans, one element at a
+ * time, as they are rare and have to be kept as beans.
+ * <p>
+ * The values are applied in the same order and with the same warnings as by {@link PNMLImport}, so both imports
+ * result in the same nets. As defined by the schema, the pages of a net are expected after its places and transitions.
+ */
+class PNMLStreamReader {
+
+    private static final String WOPED = "WoPeD";
+    private static final String PNML_NAMESPACE = "pnml.woped.org";
+
+    // ! Names of the BPEL activities, in the order they are imported by PNMLImport
+    private static final String[] ACTIVITIES = {"empty", "assign", "invoke", "receive", "reply", "wait"};
+    private static final SchemaType[] ACTIVITY_TYPES = {TEmpty.type, TAssign.type, TInvoke.type, TReceive.type,
+            TReply.type, TWait.type};
+
+    private final PNMLImport importer;
+    private final XMLStreamReader reader;
+    private final XmlOptions fragmentOptions = new XmlOptions();
+    private final Map<String, String> substituteNamespaces = PNMLImport.getSubstituteNamespaces();
+    private final boolean importToolspecific = ConfigurationManager.getConfiguration().isImportToolspecific();
+    private boolean started = false;
+    private boolean finished = false;
+
+    /**
+     * @param importer the import which receives the warnings and creates the arcs
+     * @param is       the stream to read the document from
+     * @throws XMLStreamException if the stream can not be read
+     */
+    PNMLStreamReader(PNMLImport importer, InputStream is) throws XMLStreamException {
+        this.importer = importer;
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        this.reader = factory.createXMLStreamReader(is);
+        fragmentOptions.setLoadSubstituteNamespaces(substituteNamespaces);
+        // The element a bean is parsed from becomes the bean itself instead of its only child
+        fragmentOptions.setLoadReplaceDocumentElement(null);
+    }
+
+    /**
+     * Moves to the next net of the document.
+     *
+     * @return <code>true</code> if there is another net, which may then be read by {@link #readNet}
+     * @throws XMLStreamException if the document is not a valid PNML document
+     */
+    boolean nextNet() throws XMLStreamException {
+        if (!started) {
+            started = true;
+            while (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                if (reader.getEventType() == XMLStreamConstants.END_DOCUMENT) {
+                    throw new XMLStreamException("The document is empty");
+                }
+            }
+            if (!"pnml".equals(localName())) {
+                throw new XMLStreamException("The document is not a PNML document", reader.getLocation());
+            }
+        }
+        while (!finished && nextChild()) {
+            if ("net".equals(localName())) {
+                return true;
+            }
+            skip();
+        }
+        finished = true;
+        return false;
+    }
+
+    /**
+     * @return the id of the net the reader has been moved to by {@link #nextNet()}
+     */
+    String getNetId() {
+        return reader.getAttributeValue(null, "id");
+    }
+
+    /**
+     * Reads the net the reader has been moved to by {@link #nextNet()}.
+     *
+     * @param petrinet      the model processor to read the net into
+     * @param toolspecifics receives the tool specific elements of the net, or <code>null</code> to skip them
+     * @throws XMLStreamException if the document can not be read
+     * @throws XmlException       if a tool specific element can not be parsed
+     */
+    void readNet(PetriNetModelProcessor petrinet, List<NetToolspecificType> toolspecifics)
+            throws XMLStreamException, XmlException {
+        petrinet.setId(getNetId());
+        NetScope net = new NetScope(petrinet.getElementContainer());
+        net.petrinet = petrinet;
+        net.toolspecifics = toolspecifics;
+        readNet(net);
+    }
+
+    private void readNet(NetScope net) throws XMLStreamException, XmlException {
+        boolean named = false;
+        while (nextChild()) {
+            String name = localName();
+            if ("place".equals(name)) {
+                net.places++;
+                importPlace(net, readNode());
+            } else if ("transition".equals(name)) {
+                net.transitions++;
+                importTransition(net, readNode());
+            } else if ("arc".equals(name)) {
+                net.arcs.add(readArc());
+            } else if ("page".equals(name)) {
+                readPage(net);
+            } else if ("text".equals(name) && net.phrases == null) {
+                net.phrases = readPhrases();
+            } else if ("name".equals(name) && !named && net.petrinet != null) {
+                named = true;
+                net.petrinet.setName(readChildText("text"));
+            } else if ("toolspecific".equals(name) && net.toolspecifics != null) {
+                net.toolspecifics.add((NetToolspecificType) parseFragment(NetToolspecificType.type));
+            } else if ("toolspecific".equals(name) && net.subprocess && WOPED.equals(reader.getAttributeValue(null, "tool"))) {
+                importer.importSubprocessLayout((NetToolspecificType) parseFragment(NetToolspecificType.type), net.container);
+            } else {
+                skip();
+            }
+        }
+
+        // A net consisting of a single page only has been imported from that page, see readPage()
+        if (net.places == 0 && net.transitions == 0 && net.pages == 1) {
+            return;
+        }
+        // important... import arcs in the end because it is required, that all other elements are already present.
+        PetriNetModelProcessor processor = new PetriNetModelProcessor();
+        processor.setElementContainer(net.container);
+        for (Arc arc : net.arcs) {
+            importArc(processor, arc);
+        }
+        importTextualDescription(net);
+    }
+
+    /*
+     * A page either contains the net of a sub-process or, if it is the only content of its net, the net itself
+     */
+    private void readPage(NetScope net) throws XMLStreamException, XmlException {
+        net.pages++;
+        String id = reader.getAttributeValue(null, "id");
+        SubProcessModel subprocess = id != null ? net.subprocesses.get(id) : null;
+        if (subprocess != null) {
+            int nets = 0;
+            while (nextChild()) {
+                if ("net".equals(localName())) {
+                    // Only one sub-process net per page may be defined for now
+                    if (++nets == 1) {
+                        NetScope subprocessNet = new NetScope(subprocess.getSimpleTransContainer());
+                        subprocessNet.subprocess = true;
+                        readNet(subprocessNet);
+                        continue;
+                    }
+                    if (nets == 2) {
+                        importer.warnings.add("- SKIP SUBPROCESS NET: Only one sub-process net may be defined per sub-process.");
+                    }
+                }
+                skip();
+            }
+        } else if (net.places == 0 && net.transitions == 0 && net.pages == 1) {
+            readNet(new NetScope(net.container));
+        } else {
+            skip();
+        }
+    }
+
+    private void importPlace(NetScope net, Node place) {
+        CreationMap map = CreationMap.createMap();
+        map.setEditOnCreation(false);
+        map.setType(AbstractPetriNetElementModel.PLACE_TYPE);
+        try {
+            importNameAndLayout(place, map);
+            boolean create = true;
+            try {
+                if (place.marked) {
+                    // Remove all flavors of whitespace before converting to an integer
+                    int tokens = Integer.parseInt(place.marking.replaceAll("\\s", ""));
+                    if (tokens > 0) {
+                        map.setTokens(tokens);
+                    }
+                }
+                if (importToolspecific) {
+                    for (Object toolspecific : place.toolspecifics) {
+                        if (toolspecific instanceof Toolspecific) {
+                            switch (((Toolspecific) toolspecific).getOperatorType()) {
+                                case OperatorTransitionModel.XORJOIN_XORSPLIT_TYPE:
+                                case OperatorTransitionModel.ANDJOIN_XORSPLIT_TYPE:
+                                case OperatorTransitionModel.XORJOIN_ANDSPLIT_TYPE:
+                                    // The place is part of the inner workings of an operator
+                                    create = false;
+                                    break;
+                                default:
+                            }
+                        } else {
+                            map.addUnknownToolSpec(toolspecific);
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                importer.warnings.add("- PLACE LOST INFORMATION (" + place.id + ") Exception while importing lesser important information.\n");
+            }
+            if (create) {
+                net.container.addElement(ModelElementFactory.createModelElement(map));
+                LoggerManager.debug(Constants.FILE_LOGGER, " ... Place (ID:" + place.id + ") imported");
+            }
+        } catch (Exception e) {
+            importer.warnings.add("- SKIP PLACE: Exception while importing important information.\n");
+        }
+    }
+
+    private void importTransition(NetScope net, Node transition) {
+        CreationMap map = CreationMap.createMap();
+        map.setEditOnCreation(false);
+        map.setType(AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE);
+        try {
+            importNameAndLayout(transition, map);
+            try {
+                if (importToolspecific) {
+                    for (Object toolspecific : transition.toolspecifics) {
+                        if (toolspecific instanceof Toolspecific) {
+                            ((Toolspecific) toolspecific).applyTo(map);
+                        } else {
+                            map.addUnknownToolSpec(toolspecific);
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                importer.warnings.add("- TRANSITION LOST INFORMATION (" + transition.id + "): Exception while importing lesser important information.");
+            }
+
+            // Inner transitions of an operator carry the id of their operator,
+            // only the first of them creates the operator
+            if (!net.container.containsElement(map.getId())) {
+                AbstractPetriNetElementModel element = net.getProcessor().createElement(map);
+                net.container.addElement(element);
+                LoggerManager.debug(Constants.FILE_LOGGER, " ... Transition (ID:" + map.getId() + ") imported ");
+                if (element.getType() == AbstractPetriNetElementModel.SUBP_TYPE) {
+                    // The net of the sub-process follows in a page with the same id
+                    net.subprocesses.put(element.getId(), (SubProcessModel) element);
+                }
+            }
+        } catch (Exception e) {
+            importer.warnings.add("- SKIP TRANSITION: Exception while importing important information.");
+        }
+    }
+
+    private void importNameAndLayout(Node node, CreationMap target) {
+        target.setId(node.id);
+        if (node.graphics) {
+            target.setPosition(decimal(node.position[0]).intValue(), decimal(node.position[1]).intValue());
+            if (node.dimension != null) {
+                target.setSize(new IntPair(new Dimension(decimal(node.dimension[0]).intValue(), decimal(node.dimension[1]).intValue())));
+            }
+        }
+        if (node.named) {
+            target.setName(node.name);
+        } else {
+            // Elements that don't have a name will have their id used instead
+            target.setName(node.id);
+        }
+        if (node.named && node.nameOffset != null) {
+            target.setNamePosition(decimal(node.nameOffset[0]).intValue(), decimal(node.nameOffset[1]).intValue());
+        }
+    }
+
+    /*
+     * Mirrors PNMLImport.importArc() and setArcAttributes()
+     */
+    private void importArc(PetriNetModelProcessor processor, Arc data) {
+        try {
+            ArcModel arc = importer.createArc(data.id, data.source, data.target, processor, importToolspecific);
+            if (arc == null) {
+                return;
+            }
+            if (data.positions != null) {
+                for (int j = 0; j < data.positions.size(); j++) {
+                    String[] position = data.positions.get(j);
+                    arc.addPoint(new Point2D.Double(decimal(position[0]).doubleValue(), decimal(position[1]).doubleValue()), j + 1);
+                }
+            }
+            if (!data.inscribed) {
+                throw new IllegalArgumentException("Arc without inscription");
+            }
+            arc.setInscriptionValue(data.inscription == null ? 0 : parseInt(data.inscription));
+            if (data.labelOffset != null) {
+                arc.setWeightLablePosition(new Point2D.Double(decimal(data.labelOffset[0]).doubleValue(), decimal(data.labelOffset[1]).doubleValue()));
+            }
+            if (importToolspecific) {
+                for (Object toolspecific : data.toolspecifics) {
+                    if (toolspecific instanceof Toolspecific) {
+                        ((Toolspecific) toolspecific).applyTo(arc);
+                    } else {
+                        arc.addUnknownToolSpecs(toolspecific);
+                    }
+                }
+            }
+            LoggerManager.debug(Constants.FILE_LOGGER, " ... Arc created: (ID:" + arc.getId() + ") " + arc.getSourceId() + " -> " + arc.getTargetId() + " ");
+        } catch (Exception e) {
+            importer.warnings.add("- SKIP ARC: Exception while importing important information. ");
+        }
+    }
+
+    private void importTextualDescription(NetScope net) {
+        if (net.phrases == null) {
+            return;
+        }
+        try {
+            for (String[] phrase : net.phrases) {
+                String ids = phrase[0].trim();
+                String description = phrase[1].trim();
+                net.container.getParaphrasingModel().addElement(ids, description);
+                LoggerManager.debug(Constants.FILE_LOGGER, " ... Description (ID:" + ids + ") imported");
+            }
+        } catch (Exception e) {
+            importer.warnings.add("- SKIP DESCRIPTION: Exception while importing textual description.\n");
+        }
+    }
+
+    private Node readNode() throws XMLStreamException, XmlException {
+        Node node = new Node(reader.getAttributeValue(null, "id"));
+        boolean placeNode = "place".equals(localName());
+        while (nextChild()) {
+            String name = localName();
+            if ("name".equals(name) && !node.named) {
+                node.named = true;
+                readNodeName(node);
+            } else if ("graphics".equals(name) && !node.graphics) {
+                node.graphics = true;
+                while (nextChild()) {
+                    if ("position".equals(localName()) && node.position == null) {
+                        node.position = readCoordinates();
+                    } else if ("dimension".equals(localName()) && node.dimension == null) {
+                        node.dimension = readCoordinates();
+                    } else {
+                        skip();
+                    }
+                }
+            } else if ("initialMarking".equals(name) && placeNode && !node.marked) {
+                node.marked = true;
+                node.marking = readChildText("text");
+            } else if ("toolspecific".equals(name) && importToolspecific) {
+                node.toolspecifics.add(readToolspecific(placeNode ? PlaceToolspecificType.type : TransitionToolspecificType.type));
+            } else {
+                skip();
+            }
+        }
+        return node;
+    }
+
+    private void readNodeName(Node node) throws XMLStreamException {
+        boolean hasText = false;
+        boolean hasGraphics = false;
+        while (nextChild()) {
+            if ("text".equals(localName()) && !hasText) {
+                hasText = true;
+                node.name = readText();
+            } else if ("graphics".equals(localName()) && !hasGraphics) {
+                hasGraphics = true;
+                node.nameOffset = readOffset();
+            } else {
+                skip();
+            }
+        }
+    }
+
+    private Arc readArc() throws XMLStreamException, XmlException {
+        Arc arc = new Arc(reader.getAttributeValue(null, "id"), reader.getAttributeValue(null, "source"), reader.getAttributeValue(null, "target"));
+        while (nextChild()) {
+            String name = localName();
+            if ("inscription".equals(name) && !arc.inscribed) {
+                arc.inscribed = true;
+                boolean hasText = false;
+                boolean hasGraphics = false;
+                while (nextChild()) {
+                    if ("text".equals(localName()) && !hasText) {
+                        hasText = true;
+                        arc.inscription = readText();
+                    } else if ("graphics".equals(localName()) && !hasGraphics) {
+                        hasGraphics = true;
+                        arc.labelOffset = readOffset();
+                    } else {
+                        skip();
+                    }
+                }
+            } else if ("graphics".equals(name) && arc.positions == null) {
+                arc.positions = new ArrayList<>();
+                while (nextChild()) {
+                    if ("position".equals(localName())) {
+                        arc.positions.add(readCoordinates());
+                    } else {
+                        skip();
+                    }
+                }
+            } else if ("toolspecific".equals(name) && importToolspecific) {
+                String tool = reader.getAttributeValue(null, "tool");
+                if (WOPED.equals(tool)) {
+                    arc.toolspecifics.add(readWoPeDToolspecific());
+                } else {
+                    // Unlike for nodes, a missing tool marks the information of another tool
+                    arc.toolspecifics.add(parseFragment(ArcToolspecificType.type));
+                }
+            } else {
+                skip();
+            }
+        }
+        return arc;
+    }
+
+    private Object readToolspecific(SchemaType type) throws XMLStreamException, XmlException {
+        String tool = reader.getAttributeValue(null, "tool");
+        if (tool == null) {
+            skip();
+            return new Toolspecific(false);
+        }
+        if (WOPED.equals(tool)) {
+            return readWoPeDToolspecific();
+        }
+        return parseFragment(type);
+    }
+
+    private Toolspecific readWoPeDToolspecific() throws XMLStreamException, XmlException {
+        Toolspecific toolspecific = new Toolspecific(true);
+        while (nextChild()) {
+            String name = localName();
+            if ("operator".equals(name) && !toolspecific.operator) {
+                toolspecific.operator = true;
+                toolspecific.operatorId = reader.getAttributeValue(null, "id");
+                toolspecific.operatorType = reader.getAttributeValue(null, "type");
+                skip();
+            } else if ("subprocess".equals(name)) {
+                toolspecific.subprocess = true;
+                skip();
+            } else if ("trigger".equals(name) && !toolspecific.trigger) {
+                toolspecific.trigger = true;
+                toolspecific.triggerType = reader.getAttributeValue(null, "type");
+                toolspecific.triggerPosition = readGraphicsPosition();
+            } else if ("transitionResource".equals(name) && !toolspecific.resource) {
+                toolspecific.resource = true;
+                toolspecific.resourceOrgUnit = reader.getAttributeValue(null, "organizationalUnitName");
+                toolspecific.resourceRole = reader.getAttributeValue(null, "roleName");
+                toolspecific.resourcePosition = readGraphicsPosition();
+            } else if ("time".equals(name) && toolspecific.time == null) {
+                toolspecific.time = readText();
+            } else if ("timeUnit".equals(name) && toolspecific.timeUnit == null) {
+                toolspecific.timeUnit = readText();
+            } else if ("orientation".equals(name) && toolspecific.orientation == null) {
+                toolspecific.orientation = readText();
+            } else if ("route".equals(name) && toolspecific.route == null) {
+                toolspecific.route = readText();
+            } else if ("probability".equals(name) && toolspecific.probability == null) {
+                toolspecific.probability = readText();
+            } else if ("displayProbabilityOn".equals(name) && toolspecific.displayProbabilityOn == null) {
+                toolspecific.displayProbabilityOn = readText();
+            } else if ("displayProbabilityPosition".equals(name) && !toolspecific.displayProbabilityPositioned) {
+                toolspecific.displayProbabilityPositioned = true;
+                toolspecific.displayProbabilityPosition = readCoordinates();
+            } else {
+                int activity = indexOf(ACTIVITIES, name);
+                if (activity >= 0 && toolspecific.activities[activity] == null) {
+                    toolspecific.activities[activity] = parseFragment(ACTIVITY_TYPES[activity]);
+                } else {
+                    skip();
+                }
+            }
+        }
+        return toolspecific;
+    }
+
+    /*
+     * Reads the position of an element like <trigger><graphics><position x="" y=""/></graphics></trigger>
+     */
+    private String[] readGraphicsPosition() throws XMLStreamException {
+        String[] position = null;
+        boolean hasGraphics = false;
+        while (nextChild()) {
+            if ("graphics".equals(localName()) && !hasGraphics) {
+                hasGraphics = true;
+                while (nextChild()) {
+                    if ("position".equals(localName()) && position == null) {
+                        position = readCoordinates();
+                    } else {
+                        skip();
+                    }
+                }
+            } else {
+                skip();
+            }
+        }
+        return position;
+    }
+
+    /*
+     * Reads the first offset of a <graphics> element of a label
+     */
+    private String[] readOffset() throws XMLStreamException {
+        String[] offset = null;
+        while (nextChild()) {
+            if ("offset".equals(localName()) && offset == null) {
+                offset = readCoordinates();
+            } else {
+                skip();
+            }
+        }
+        return offset;
+    }
+
+    private String[] readCoordinates() throws XMLStreamException {
+        String[] coordinates = {reader.getAttributeValue(null, "x"), reader.getAttributeValue(null, "y")};
+        skip();
+        return coordinates;
+    }
+
+    private List<String[]> readPhrases() throws XMLStreamException {
+        List<String[]> phrases = new ArrayList<>();
+        while (nextChild()) {
+            if ("phrase".equals(localName())) {
+                String ids = reader.getAttributeValue(null, "ids");
+                phrases.add(new String[]{ids, readText()});
+            } else {
+                skip();
+            }
+        }
+        return phrases;
+    }
+
+    /*
+     * Returns the text of the first child with the given name, or null if there is no such child
+     */
+    private String readChildText(String child) throws XMLStreamException {
+        String text = null;
+        boolean found = false;
+        while (nextChild()) {
+            if (child.equals(localName()) && !found) {
+                found = true;
+                text = readText();
+            } else {
+                skip();
+            }
+        }
+        return text;
+    }
+
+    /*
+     * Returns the text of the current element, including the text of its children, and moves to its end tag
+     */
+    private String readText() throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    text.append(reader.getText());
+                    break;
+                default:
+            }
+        }
+        return text.toString();
+    }
+
+    /*
+     * Parses the current element into a bean and moves to its end tag
+     */
+    private XmlObject parseFragment(SchemaType type) throws XmlException {
+        return XmlBeans.getContextTypeLoader().parse(reader, type, fragmentOptions);
+    }
+
+    /*
+     * Moves to the next child of the current element. Returns false if the end tag of the current element has been
+     * reached instead.
+     */
+    private boolean nextChild() throws XMLStreamException {
+        while (true) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    return true;
+                case XMLStreamConstants.END_ELEMENT:
+                case XMLStreamConstants.END_DOCUMENT:
+                    return false;
+                default:
+            }
+        }
+    }
+
+    /*
+     * Moves to the end tag of the current element
+     */
+    private void skip() throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                case XMLStreamConstants.END_DOCUMENT:
+                    throw new XMLStreamException("Unexpected end of document", reader.getLocation());
+                default:
+            }
+        }
+    }
+
+    /*
+     * Returns the local name of the current element, or null if the element belongs to another namespace than PNML
+     */
+    private String localName() {
+        String namespace = reader.getNamespaceURI();
+        if (namespace == null || PNML_NAMESPACE.equals(namespace) || substituteNamespaces.containsKey(namespace)) {
+            return reader.getLocalName();
+        }
+        return null;
+    }
+
+    private static int indexOf(String[] names, String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static BigDecimal decimal(String value) {
+        return new BigDecimal(value.trim());
+    }
+
+    private static int parseInt(String value) {
+        return Integer.parseInt(value.trim());
+    }
+
+    /*
+     * Missing attributes of type int are read as 0 by XMLBeans
+     */
+    private static int parseIntAttribute(String value) {
+        return value == null ? 0 : parseInt(value);
+    }
+
+    private static boolean parseBoolean(String value) {
+        String trimmed = value.trim();
+        if ("true".equals(trimmed) || "1".equals(trimmed)) {
+            return true;
+        }
+        if ("false".equals(trimmed) || "0".equals(trimmed)) {
+            return false;
+        }
+        throw new IllegalArgumentException("Invalid boolean " + value);
+    }
+
+    private static double parseDouble(String value) {
+        String trimmed = value.trim();
+        if ("INF".equals(trimmed)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if ("-INF".equals(trimmed)) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return Double.parseDouble(trimmed);
+    }
+
+    /*
+     * The state of a net or page while it is read
+     */
+    private static final class NetScope {
+        private final ModelElementContainer container;
+        // ! The model processor of a net of the document, which receives the name of the net
+        private PetriNetModelProcessor petrinet = null;
+        // ! Receives the tool specific elements of a net of the document
+        private List<NetToolspecificType> toolspecifics = null;
+        // ! Whether this is the net of a sub-process, whose tool specific elements contain the layout of its editor
+        private boolean subprocess = false;
+        private PetriNetModelProcessor processor = null;
+        private int places = 0;
+        private int transitions = 0;
+        private int pages = 0;
+        private final List<Arc> arcs = new ArrayList<>();
+        private final Map<String, SubProcessModel> subprocesses = new HashMap<>();
+        private List<String[]> phrases = null;
+
+        NetScope(ModelElementContainer container) {
+            this.container = container;
+        }
+
+        /*
+         * The model processor can correctly create resources and triggers for transitions
+         */
+        PetriNetModelProcessor getProcessor() {
+            if (processor == null) {
+                processor = new PetriNetModelProcessor();
+                processor.setElementContainer(container);
+            }
+            return processor;
+        }
+    }
+
+    /*
+     * A place or transition as it has been read. Values are kept as text and converted when they are imported, so
+     * invalid values result in the same warnings as in PNMLImport.
+     */
+    private static final class Node {
+        private final String id;
+        private boolean named = false;
+        private String name = null;
+        private String[] nameOffset = null;
+        private boolean graphics = false;
+        private String[] position = null;
+        private String[] dimension = null;
+        private boolean marked = false;
+        private String marking = null;
+        // ! Either Toolspecific or the bean of another tool
+        private final List<Object> toolspecifics = new ArrayList<>();
+
+        Node(String id) {
+            this.id = id;
+        }
+    }
+
+    /*
+     * An arc as it has been read, see Node
+     */
+    private static final class Arc {
+        private final String id;
+        private final String source;
+        private final String target;
+        private boolean inscribed = false;
+        private String inscription = null;
+        private String[] labelOffset = null;
+        private List<String[]> positions = null;
+        // ! Either Toolspecific or the bean of another tool
+        private final List<Object> toolspecifics = new ArrayList<>();
+
+        Arc(String id, String source, String target) {
+            this.id = id;
+            this.source = source;
+            this.target = target;
+        }
+    }
+
+    /*
+     * A tool specific element of WoPeD as it has been read, see Node
+     */
+    private static final class Toolspecific {
+        // ! false if the tool is missing, which PNMLImport does not accept for places and transitions
+        private final boolean valid;
+        private boolean operator = false;
+        private String operatorId = null;
+        private String operatorType = null;
+        private boolean subprocess = false;
+        private boolean trigger = false;
+        private String triggerType = null;
+        private String[] triggerPosition = null;
+        private boolean resource = false;
+        private String resourceOrgUnit = null;
+        private String resourceRole = null;
+        private String[] resourcePosition = null;
+        private String time = null;
+        private String timeUnit = null;
+        private String orientation = null;
+        private final XmlObject[] activities = new XmlObject[ACTIVITIES.length];
+        private String route = null;
+        private String probability = null;
+        private String displayProbabilityOn = null;
+        private boolean displayProbabilityPositioned = false;
+        private String[] displayProbabilityPosition = null;
+
+        Toolspecific(boolean valid) {
+            this.valid = valid;
+        }
+
+        int getOperatorType() {
+            checkValid();
+            if (!operator) {
+                throw new IllegalArgumentException("Tool specific element of a place without operator");
+            }
+            return parseIntAttribute(operatorType);
+        }
+
+        void applyTo(CreationMap map) {
+            checkValid();
+            if (time != null) {
+                map.setTransitionTime(parseInt(time));
+            }
+            if (timeUnit != null) {
+                map.setTransitionTimeUnit(parseInt(timeUnit));
+            }
+            if (orientation != null) {
+                map.setOperatorPosition(parseInt(orientation));
+            }
+            if (operator) {
+                map.setOperatorType(parseIntAttribute(operatorType));
+                map.setType(AbstractPetriNetElementModel.TRANS_OPERATOR_TYPE);
+                map.setId(operatorId);
+            } else if (subprocess) {
+                map.setType(AbstractPetriNetElementModel.SUBP_TYPE);
+            }
+            if (trigger) {
+                map.setTriggerType(parseIntAttribute(triggerType));
+                map.setTriggerPosition(decimal(triggerPosition[0]).intValue(), decimal(triggerPosition[1]).intValue());
+            }
+            if (resource) {
+                map.setResourceOrgUnit(resourceOrgUnit);
+                map.setResourceRole(resourceRole);
+                map.setResourcePosition(decimal(resourcePosition[0]).intValue(), decimal(resourcePosition[1]).intValue());
+            }
+            for (XmlObject activity : activities) {
+                if (activity != null) {
+                    map.setBpeldata(PNMLImport.createBpelData(activity));
+                }
+            }
+        }
+
+        void applyTo(ArcModel arc) {
+            if (route != null && parseBoolean(route)) {
+                arc.setRoute(true);
+            }
+            if (probability != null) {
+                arc.setProbability(parseDouble(probability));
+            }
+            if (displayProbabilityOn != null) {
+                arc.displayProbability(parseBoolean(displayProbabilityOn));
+            }
+            if (displayProbabilityPositioned) {
+                arc.setProbabilityLabelPosition(new Point(decimal(displayProbabilityPosition[0]).intValue(), decimal(displayProbabilityPosition[1]).intValue()));
+            }
+        }
+
+        private void checkValid() {
+            if (!valid) {
+                throw new IllegalArgumentException("Tool specific element without tool");
+            }
+        }
+    }
+}
@@ -0,0 +1,750 @@
+package org.woped.file;
+
+import java.awt.geom.Point2D;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.Vector;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.xmlbeans.XmlDateTime;
+import org.apache.xmlbeans.XmlObject;
+import org.apache.xmlbeans.XmlOptions;
+import org.apache.xmlbeans.impl.util.XsTypeConverter;
+import org.woped.core.config.ConfigurationManager;
+import org.woped.core.model.ArcModel;
+import org.woped.core.model.ModelElementContainer;
+import org.woped.core.model.PetriNetModelProcessor;
+import org.woped.core.model.bpel.Partnerlink;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+import org.woped.core.model.petrinet.EditorLayoutInfo;
+import org.woped.core.model.petrinet.NameModel;
+import org.woped.core.model.petrinet.OperatorTransitionModel;
+import org.woped.core.model.petrinet.PlaceModel;
+import org.woped.core.model.petrinet.ResourceClassModel;
+import org.woped.core.model.petrinet.ResourceModel;
+import org.woped.core.model.petrinet.SimulationModel;
+import org.woped.core.model.petrinet.SubProcessModel;
+import org.woped.core.model.petrinet.TransitionModel;
+import org.woped.core.model.petrinet.TransitionResourceModel;
+import org.woped.core.model.petrinet.TriggerModel;
+import org.woped.core.utilities.LoggerManager;
+import org.woped.editor.controller.bpel.Assign;
+import org.woped.editor.controller.bpel.Invoke;
+import org.woped.editor.controller.bpel.Receive;
+import org.woped.editor.controller.bpel.Reply;
+import org.woped.editor.controller.bpel.Wait;
+import org.woped.editor.controller.vc.EditorVC;
+import org.woped.pnml.TAssign;
+import org.woped.pnml.TCopy;
+import org.woped.pnml.TInvoke;
+import org.woped.pnml.TPartnerLink;
+import org.woped.pnml.TPartnerLinks;
+import org.woped.pnml.TReceive;
+import org.woped.pnml.TReply;
+import org.woped.pnml.TVariable;
+import org.woped.pnml.TVariables;
+import org.woped.pnml.TWait;
+import org.woped.pnml.ToolspecificType;
+
+/**
+ * Writes a net as PNML document in a single pass with a StAX {@link XMLStreamWriter}.
+ * <p>
+ * Unlike the XMLBeans based export of {@link PNMLExport}, the net is not copied into a bean tree first. The elements
+ * are written straight from the {@link ModelElementContainer} in the order required by the schema, so the places, the
+ * transitions and the pages of the sub-processes are each collected by a walk over the elements of the container.
+ * Only the tool specific information of other tools, BPEL activities and partner links, which may use further
+ * namespaces, are still saved by XMLBeans, one element at a time.
+ * <p>
+ * The document is formatted like the one saved by XMLBeans with {@link PNMLExport#createSaveOptions()} and escaped
+ * by a {@link XmlBeansStyleStreamWriter}, so both exports result in the same bytes. They only differ for characters
+ * which are not allowed in XML, see {@link XmlBeansStyleStreamWriter}.
+ */
+class PNMLStreamWriter {
+
+    private static final String WOPED = "WoPeD";
+    private static final String VERSION = "1.0";
+    private static final String PNML_NAMESPACE = "pnml.woped.org";
+    private static final String XSI_NAMESPACE = "http://www.w3.org/2001/XMLSchema-instance";
+
+    // XMLBeans saves text with more entities than this as CDATA section, if the text is long enough
+    private static final int CDATA_ENTITY_COUNT_THRESHOLD = 5;
+    private static final int CDATA_LENGTH_THRESHOLD = 32;
+    private static final int INDENT = 2;
+
+    private final PNMLExport exporter;
+    private final XmlBeansStyleStreamWriter writer;
+    private final String lineSeparator = System.getProperty("line.separator");
+    private final boolean exportToolspecific = ConfigurationManager.getConfiguration().isExportToolspecific();
+    private int depth = 0;
+
+    /**
+     * @param exporter the export which reports the progress and decides about changed simulations
+     * @param out      the writer to write the document to, which is not closed
+     */
+    PNMLStreamWriter(PNMLExport exporter, Writer out) {
+        this.exporter = exporter;
+        this.writer = new XmlBeansStyleStreamWriter(out);
+    }
+
+    /**
+     * Writes the net of an editor as PNML document.
+     *
+     * @param editor the editor whose net is written
+     * @throws XMLStreamException if the document can not be written
+     */
+    void write(EditorVC editor) throws XMLStreamException {
+        PetriNetModelProcessor petrinetModel = editor.getModelProcessor();
+        exporter.startProgress(petrinetModel);
+
+        writer.writeStartDocument("UTF-8", "1.0");
+        writer.writeCharacters(lineSeparator);
+        writer.writeComment(PNMLExport.comment.trim());
+        startElement("pnml");
+        ModelElementContainer container = petrinetModel.getElementContainer();
+        if (petrinetModel.getName() == null && !exportToolspecific && isEmpty(container)) {
+            emptyElement("net");
+            attribute("type", petrinetModel.getType());
+            attribute("id", petrinetModel.getId());
+        } else {
+            startElement("net");
+            attribute("type", petrinetModel.getType());
+            attribute("id", petrinetModel.getId());
+            if (petrinetModel.getName() != null) {
+                startElement("name");
+                textElement("text", petrinetModel.getName());
+                endElement();
+            }
+            writeNet(container, editor);
+            endElement();
+        }
+        endElement();
+        writer.writeEndDocument();
+        writer.flush();
+    }
+
+    /**
+     * Closes the writer, but not the underlying output.
+     *
+     * @throws XMLStreamException if the writer can not be closed
+     */
+    void close() throws XMLStreamException {
+        writer.close();
+    }
+
+    /*
+     * Writes the content of a net. The tool specific information of the root net is written if the editor is given,
+     * the one of a sub-process otherwise.
+     */
+    private void writeNet(ModelElementContainer container, EditorVC editor) throws XMLStreamException {
+        /* ##### PLACES ##### */
+        for (AbstractPetriNetElementModel element : container.getRootElements()) {
+            if (element.getType() == AbstractPetriNetElementModel.PLACE_TYPE) {
+                writePlace((PlaceModel) element, null);
+            } else if (element.getType() == AbstractPetriNetElementModel.TRANS_OPERATOR_TYPE) {
+                OperatorTransitionModel operator = (OperatorTransitionModel) element;
+                if (operator.getCenterPlace() != null) {
+                    writePlace(operator.getCenterPlace(), operator);
+                }
+            }
+        }
+
+        /* ##### TRANSITIONS ##### */
+        for (AbstractPetriNetElementModel element : container.getRootElements()) {
+            if (element.getType() == AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE
+                    || element.getType() == AbstractPetriNetElementModel.SUBP_TYPE) {
+                writeTransition((TransitionModel) element, null);
+            } else if (element.getType() == AbstractPetriNetElementModel.TRANS_OPERATOR_TYPE) {
+                // The inner transitions are written instead of the operator, at the location of the operator
+                OperatorTransitionModel operator = (OperatorTransitionModel) element;
+                ModelElementContainer innerContainer = operator.getSimpleTransContainer();
+                for (AbstractPetriNetElementModel inner : innerContainer.getElementsByType(AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE).values()) {
+                    if (inner != null && innerContainer.getElementById(inner.getId()).getType() == AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE) {
+                        writeTransition((TransitionModel) innerContainer.getElementById(inner.getId()), operator);
+                    }
+                }
+            }
+            exporter.nextStep();
+        }
+
+        /* ##### ARCS ##### */
+        writeArcs(container);
+
+        /* ##### TOOLSPECIFIC ##### */
+        if (editor != null) {
+            if (exportToolspecific) {
+                writeNetToolspecific(editor);
+            }
+        } else if (container.getEditorLayoutInfo() != null) {
+            writeSubprocessToolspecific(container.getEditorLayoutInfo());
+        }
+
+        /* ##### PAGES ##### */
+        for (AbstractPetriNetElementModel element : container.getRootElements()) {
+            if (element.getType() == AbstractPetriNetElementModel.SUBP_TYPE) {
+                // The page is associated with the sub-process by its id
+                ModelElementContainer subProcessContainer = ((SubProcessModel) element).getSimpleTransContainer();
+                startElement("page");
+                attribute("id", element.getId());
+                if (subProcessContainer.getEditorLayoutInfo() == null && isEmpty(subProcessContainer)) {
+                    emptyElement("net");
+                } else {
+                    startElement("net");
+                    writeNet(subProcessContainer, null);
+                    endElement();
+                }
+                endElement();
+            }
+        }
+
+        /* ##### Textual description ##### */
+        int tableSize = container.getParaphrasingModel().getTableSize();
+        if (tableSize > 0) {
+            startElement("text");
+            for (int i = 0; i < tableSize; i++) {
+                String[] row = container.getParaphrasingModel().getElementByRow(i);
+                textElement("phrase", row[1].trim(), "ids", row[0].trim());
+            }
+            endElement();
+        }
+    }
+
+    /*
+     * Elements without content are written as empty element, so the content of a net has to be known in advance
+     */
+    private static boolean isEmpty(ModelElementContainer container) {
+        return container.getRootElements().isEmpty() && container.getParaphrasingModel().getTableSize() == 0;
+    }
+
+    private void writePlace(PlaceModel place, OperatorTransitionModel operator) throws XMLStreamException {
+        startElement("place");
+        attribute("id", place.getId());
+        writeNodeName(place.getNameModel());
+        writeNodeGraphics(place);
+        if (place.getTokenCount() > 0) {
+            startElement("initialMarking");
+            textElement("text", String.valueOf(place.getTokenCount()));
+            endElement();
+        }
+        if (exportToolspecific) {
+            writeUnknownToolspecifics(place.getUnknownToolSpecs());
+        }
+        if (operator != null) {
+            // The center place is part of the inner workings of the operator, so it is always marked
+            startElement("toolspecific");
+            attribute("tool", WOPED);
+            attribute("version", VERSION);
+            writeOperator(operator.getId(), operator.getOperatorType());
+            endElement();
+        }
+        endElement();
+        LoggerManager.debug(Constants.FILE_LOGGER, "   ... Place (ID:" + place.getId() + ") set");
+    }
+
+    /*
+     * The name, layout and tool specific information of an inner transition are taken from its operator
+     */
+    private void writeTransition(TransitionModel transition, OperatorTransitionModel operator) throws XMLStreamException {
+        TransitionModel takenModel = operator == null ? transition : operator;
+        startElement("transition");
+        attribute("id", transition.getId());
+        writeNodeName(takenModel.getNameModel());
+        writeNodeGraphics(takenModel);
+        if (exportToolspecific) {
+            writeUnknownToolspecifics(takenModel.getUnknownToolSpecs());
+            writeTransitionToolspecific(takenModel);
+        }
+        endElement();
+        LoggerManager.debug(Constants.FILE_LOGGER, "   ... Transition (ID:" + transition.getId() + ") set");
+    }
+
+    private void writeTransitionToolspecific(TransitionModel transition) throws XMLStreamException {
+        startElement("toolspecific");
+        attribute("tool", WOPED);
+        attribute("version", VERSION);
+        if (transition.getToolSpecific().getTrigger() != null) {
+            TriggerModel trigger = transition.getToolSpecific().getTrigger();
+            startElement("trigger");
+            attribute("id", trigger.getId());
+            attribute("type", String.valueOf(trigger.getTriggertype()));
+            writeSimpleGraphics("graphics", trigger.getX(), trigger.getY(), trigger.getWidth(), trigger.getHeight());
+            endElement();
+        }
+        if (transition.getToolSpecific().getOperatorId() != null) {
+            writeOperator(transition.getToolSpecific().getOperatorId(), transition.getToolSpecific().getOperatorType());
+        }
+        if (transition.getToolSpecific().isSubprocess()) {
+            textElement("subprocess", "true");
+        }
+        if (transition.getToolSpecific().getTransResource() != null) {
+            TransitionResourceModel resource = transition.getToolSpecific().getTransResource();
+            startElement("transitionResource");
+            attribute("organizationalUnitName", resource.getTransOrgUnitName());
+            attribute("roleName", resource.getTransRoleName());
+            writeSimpleGraphics("graphics", resource.getX(), resource.getY(), resource.getWidth(), resource.getHeight());
+            endElement();
+        }
+        textElement("time", String.valueOf(transition.getToolSpecific().getTime()));
+        textElement("timeUnit", String.valueOf(transition.getToolSpecific().getTimeUnit()));
+        textElement("orientation", String.valueOf(transition.getToolSpecific().getOperatorPosition().ordinal()));
+        writeActivity(transition);
+        endElement();
+    }
+
+    /*
+     * Copies the BPEL activity of a transition into a bean, as done by PNMLExport
+     */
+    private void writeActivity(TransitionModel transition) throws XMLStreamException {
+        Object data = transition.getBpelData();
+        if (data instanceof Assign) {
+            TAssign assign = TAssign.Factory.newInstance();
+            assign.setName(transition.getId());
+            TCopy copy = assign.addNewCopy();
+            org.oasisOpen.docs.wsbpel.x20.process.executable.TCopy activityCopy = ((Assign) data).getActivity().getCopyArray(0);
+            if (activityCopy.getFrom() != null) {
+                copy.addNewFrom().setVariable(activityCopy.getFrom().getVariable());
+            }
+            if (activityCopy.getTo() != null) {
+                copy.addNewTo().setVariable(activityCopy.getTo().getVariable());
+            }
+            writeFragment("assign", assign);
+        } else if (data instanceof Invoke) {
+            TInvoke invoke = TInvoke.Factory.newInstance();
+            invoke.set(((Invoke) data).getActivity());
+            writeFragment("invoke", invoke);
+        } else if (data instanceof Receive) {
+            TReceive receive = TReceive.Factory.newInstance();
+            receive.set(((Receive) data).getActivity());
+            writeFragment("receive", receive);
+        } else if (data instanceof Reply) {
+            TReply reply = TReply.Factory.newInstance();
+            reply.set(((Reply) data).getActivity());
+            writeFragment("reply", reply);
+        } else if (data instanceof Wait) {
+            Wait w = (Wait) data;
+            TWait wait = TWait.Factory.newInstance();
+            wait.setName(w.getName());
+            wait.setYear(w.getYear());
+            wait.setMonth(w.getMonth());
+            wait.setDay(w.getDay());
+            wait.setHour(w.getHour());
+            wait.setMinute(w.getMinute());
+            wait.setSecond(w.getSecond());
+            wait.setTyp(w.getWaitConditionType());
+            writeFragment("wait", wait);
+        }
+    }
+
+    private void writeOperator(String id, int type) throws XMLStreamException {
+        emptyElement("operator");
+        attribute("id", id);
+        attribute("type", String.valueOf(type));
+    }
+
+    private void writeNodeName(NameModel name) throws XMLStreamException {
+        startElement("name");
+        textElement("text", name.getNameValue());
+        writeOffset(BigDecimal.valueOf(name.getX()), BigDecimal.valueOf(name.getY()));
+        endElement();
+    }
+
+    private void writeNodeGraphics(AbstractPetriNetElementModel element) throws XMLStreamException {
+        startElement("graphics");
+        writeCoordinates("position", BigDecimal.valueOf(element.getX()), BigDecimal.valueOf(element.getY()));
+        writeCoordinates("dimension", BigDecimal.valueOf(element.getWidth()), BigDecimal.valueOf(element.getHeight()));
+        endElement();
+    }
+
+    private void writeSimpleGraphics(String name, int x, int y, int width, int height) throws XMLStreamException {
+        startElement(name);
+        writeCoordinates("position", BigDecimal.valueOf(x), BigDecimal.valueOf(y));
+        writeCoordinates("dimension", BigDecimal.valueOf(width), BigDecimal.valueOf(height));
+        endElement();
+    }
+
+    private void writeOffset(BigDecimal x, BigDecimal y) throws XMLStreamException {
+        startElement("graphics");
+        writeCoordinates("offset", x, y);
+        endElement();
+    }
+
+    private void writeCoordinates(String name, BigDecimal x, BigDecimal y) throws XMLStreamException {
+        emptyElement(name);
+        attribute("x", XsTypeConverter.printDecimal(x));
+        attribute("y", XsTypeConverter.printDecimal(y));
+    }
+
+    /*
+     * Writes the arcs in the same order as PNMLExport.exportArcs: The arcs which are not connected to an operator
+     * first, then the inner arcs of each connected operator.
+     */
+    private void writeArcs(ModelElementContainer container) throws XMLStreamException {
+        Set<AbstractPetriNetElementModel> connectedTransitions = new HashSet<>();
+        for (ArcModel arc : container.getArcMap().values()) {
+            AbstractPetriNetElementModel source = container.getElementById(arc.getSourceId());
+            AbstractPetriNetElementModel target = container.getElementById(arc.getTargetId());
+            if (target.getType() == AbstractPetriNetElementModel.TRANS_OPERATOR_TYPE) {
+                connectedTransitions.add(target);
+            } else if (source.getType() == AbstractPetriNetElementModel.TRANS_OPERATOR_TYPE) {
+                connectedTransitions.add(source);
+            } else {
+                writeArc(arc, null);
+            }
+            exporter.nextStep();
+        }
+        for (AbstractPetriNetElementModel operator : connectedTransitions) {
+            for (ArcModel innerArc : ((OperatorTransitionModel) operator).getSimpleTransContainer().getArcMap().values()) {
+                ArcModel outerArc = exporter.getOuterArc(container, operator.getId(), innerArc);
+                writeArc((outerArc != null) ? outerArc : innerArc, innerArc);
+            }
+        }
+    }
+
+    private void writeArc(ArcModel outerArc, ArcModel innerArc) throws XMLStreamException {
+        ArcModel useArc = innerArc == null ? outerArc : innerArc;
+        startElement("arc");
+        attribute("id", outerArc.getId());
+        attribute("source", useArc.getSourceId());
+        attribute("target", useArc.getTargetId());
+
+        // inscription
+        startElement("inscription");
+        textElement("text", String.valueOf(outerArc.getInscriptionValue()));
+        Point2D weightLabelPosition = outerArc.getWeightLabelPosition();
+        writeOffset(BigDecimal.valueOf(weightLabelPosition.getX()), BigDecimal.valueOf(weightLabelPosition.getY()));
+        endElement();
+
+        // graphics, the way points between source and target
+        Point2D[] points = outerArc.getPoints();
+        if (points.length > 2) {
+            startElement("graphics");
+            for (int i = 1; i < points.length - 1; i++) {
+                writeCoordinates("position", BigDecimal.valueOf((int) points[i].getX()), BigDecimal.valueOf((int) points[i].getY()));
+            }
+            endElement();
+        } else {
+            emptyElement("graphics");
+        }
+
+        if (exportToolspecific) {
+            startElement("toolspecific");
+            attribute("tool", WOPED);
+            attribute("version", VERSION);
+            if (outerArc.isRoute()) {
+                textElement("route", "true");
+            }
+            textElement("probability", XsTypeConverter.printDouble(outerArc.getProbability()));
+            textElement("displayProbabilityOn", String.valueOf(outerArc.displayProbability()));
+            Point2D probabilityPosition = outerArc.getProbabilityLabelPosition();
+            writeCoordinates("displayProbabilityPosition", BigDecimal.valueOf(probabilityPosition.getX()), BigDecimal.valueOf(probabilityPosition.getY()));
+            endElement();
+            writeUnknownToolspecifics(outerArc.getUnknownToolSpecs());
+        }
+        endElement();
+        LoggerManager.debug(Constants.FILE_LOGGER, "   ... Arc (ID:" + useArc.getId() + "( " + useArc.getSourceId() + " -> " + useArc.getTargetId() + ") set");
+    }
+
+    private void writeNetToolspecific(EditorVC editor) throws XMLStreamException {
+        PetriNetModelProcessor petrinetModel = editor.getModelProcessor();
+        ModelElementContainer container = petrinetModel.getElementContainer();
+        startElement("toolspecific");
+        attribute("tool", WOPED);
+        attribute("version", VERSION);
+
+        // editors without a window, e.g. created by a batch run, have no layout to save
+        EditorLayoutInfo layoutInfo = editor.getEditorPanel() != null
+                ? editor.getEditorPanel().getSavedLayoutInfo() : new EditorLayoutInfo();
+        writeBounds(layoutInfo);
+        textElement("scale", String.valueOf(editor.getGraph() != null ? (int) (editor.getGraph().getScale() * 100) : 100));
+        // Store the width of the tree view and the height of the overview
+        textElement("treeWidthRight", String.valueOf(layoutInfo.getTreeViewWidthRight() != 0
+                ? layoutInfo.getTreeViewWidthRight() : layoutInfo.getTreeViewWidth()));
+        textElement("overviewPanelVisible", String.valueOf(layoutInfo.getOverviewPanelVisible()));
+        textElement("treeHeightOverview", String.valueOf(layoutInfo.getTreeHeightOverview()));
+        textElement("treePanelVisible", String.valueOf(layoutInfo.getTreePanelVisible()));
+        textElement("verticalLayout", String.valueOf(editor.getEditorPanel() != null && editor.isRotateSelected()));
+
+        writeResources(petrinetModel);
+        writeSimulations(petrinetModel);
+
+        Iterator<Partnerlink> partnerlinks = container.getPartnerlinkList().getPartnerlinkList().iterator();
+        if (partnerlinks.hasNext()) {
+            TPartnerLinks iPLs = TPartnerLinks.Factory.newInstance();
+            while (partnerlinks.hasNext()) {
+                Partnerlink link = partnerlinks.next();
+                TPartnerLink iPL = iPLs.addNewPartnerLink();
+                iPL.setName(link.getName());
+                iPL.setPartnerLinkType(link.getPartnerlinkTypeByQName());
+                iPL.setPartnerRole(link.getPartnerlinkRole());
+                iPL.setMyRole(link.getMyRole());
+                iPL.setWSDL(link.getWsdlUrl());
+            }
+            writeFragment("partnerLinks", iPLs);
+        } else {
+            emptyElement("partnerLinks");
+        }
+
+        org.oasisOpen.docs.wsbpel.x20.process.executable.TVariables variables = container.getTVariablesList();
+        if (variables.sizeOfVariableArray() > 0) {
+            TVariables iVs = TVariables.Factory.newInstance();
+            for (int i = 0; i < variables.sizeOfVariableArray(); i++) {
+                TVariable iVar = iVs.addNewVariable();
+                iVar.setName(variables.getVariableArray(i).getName());
+                iVar.setType(variables.getVariableArray(i).getType());
+            }
+            writeFragment("variables", iVs);
+        } else {
+            emptyElement("variables");
+        }
+        endElement();
+
+        writeUnknownToolspecifics(petrinetModel.getUnknownToolSpecs());
+    }
+
+    private void writeSubprocessToolspecific(EditorLayoutInfo layoutInfo) throws XMLStreamException {
+        startElement("toolspecific");
+        attribute("tool", WOPED);
+        attribute("version", VERSION);
+        writeBounds(layoutInfo);
+        textElement("treeWidthRight", String.valueOf(layoutInfo.getTreeViewWidthRight()));
+        textElement("overviewPanelVisible", String.valueOf(layoutInfo.getOverviewPanelVisible()));
+        textElement("treeHeightOverview", String.valueOf(layoutInfo.getTreeHeightOverview()));
+        textElement("treePanelVisible", String.valueOf(layoutInfo.getTreePanelVisible()));
+        endElement();
+    }
+
+    private void writeBounds(EditorLayoutInfo layoutInfo) throws XMLStreamException {
+        if (layoutInfo.getSavedSize() == null && layoutInfo.getSavedLocation() == null) {
+            emptyElement("bounds");
+            return;
+        }
+        startElement("bounds");
+        if (layoutInfo.getSavedLocation() != null) {
+            writeCoordinates("position", new BigDecimal(layoutInfo.getSavedLocation().getX()), new BigDecimal(layoutInfo.getSavedLocation().getY()));
+        }
+        if (layoutInfo.getSavedSize() != null) {
+            writeCoordinates("dimension", new BigDecimal(layoutInfo.getSavedSize().getWidth()), new BigDecimal(layoutInfo.getSavedSize().getHeight()));
+        }
+        endElement();
+    }
+
+    private void writeResources(PetriNetModelProcessor petrinetModel) throws XMLStreamException {
+        boolean empty = petrinetModel.getResources().isEmpty() && petrinetModel.getRoles().isEmpty()
+                && petrinetModel.getOrganizationUnits().isEmpty() && !hasResourceMapping(petrinetModel);
+        if (empty) {
+            emptyElement("resources");
+        } else {
+            startElement("resources");
+        }
+        for (ResourceModel resource : petrinetModel.getResources()) {
+            emptyElement("resource");
+            attribute("Name", resource.getName());
+            exporter.nextStep();
+        }
+        // Roles and organizational units share a choice, so their order is kept
+        writeResourceClasses("role", petrinetModel.getRoles());
+        writeResourceClasses("organizationUnit", petrinetModel.getOrganizationUnits());
+        for (String resourceClass : petrinetModel.getResourceMapping().keySet()) {
+            for (String resourceId : petrinetModel.getResourceMapping().get(resourceClass)) {
+                emptyElement("resourceMapping");
+                attribute("resourceClass", resourceClass);
+                attribute("resourceID", resourceId);
+            }
+            exporter.nextStep();
+        }
+        if (!empty) {
+            endElement();
+        }
+    }
+
+    private static boolean hasResourceMapping(PetriNetModelProcessor petrinetModel) {
+        for (Vector<String> values : petrinetModel.getResourceMapping().values()) {
+            if (!values.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeResourceClasses(String name, Vector<ResourceClassModel> resourceClasses) throws XMLStreamException {
+        for (ResourceClassModel resourceClass : resourceClasses) {
+            Iterator<ResourceClassModel> superModels = resourceClass.getSuperModels();
+            if (superModels != null && superModels.hasNext()) {
+                startElement(name);
+                attribute("Name", resourceClass.getName());
+                while (superModels.hasNext()) {
+                    emptyElement("SuperModel");
+                    attribute("Name", superModels.next().getName());
+                }
+                endElement();
+            } else {
+                emptyElement(name);
+                attribute("Name", resourceClass.getName());
+            }
+            exporter.nextStep();
+        }
+    }
+
+    private void writeSimulations(PetriNetModelProcessor petrinetModel) throws XMLStreamException {
+        boolean started = false;
+        for (SimulationModel simulation : petrinetModel.getSimulations()) {
+            if (!exporter.keepSimulation(petrinetModel, simulation)) {
+                continue;
+            }
+            if (!started) {
+                started = true;
+                startElement("simulations");
+            }
+            startElement("simulation");
+            attribute("id", simulation.getId());
+            textElement("simulationname", simulation.getName());
+            Calendar cal = Calendar.getInstance();
+            cal.setTime(simulation.getSavedDate());
+            // The lexical form of the date depends on the fields set in the calendar, so it is left to XMLBeans
+            XmlDateTime date = XmlDateTime.Factory.newInstance();
+            date.setCalendarValue(cal);
+            textElement("simulationdate", date.getStringValue());
+            if (simulation.getOccuredTransitions().isEmpty()) {
+                emptyElement("transitionsequence");
+            } else {
+                startElement("transitionsequence");
+                for (TransitionModel transition : simulation.getOccuredTransitions()) {
+                    emptyElement("occuredtransition");
+                    attribute("transitionID", transition.getId());
+                }
+                endElement();
+            }
+            textElement("netFingerprint", simulation.getFingerprint());
+            endElement();
+            LoggerManager.debug(Constants.FILE_LOGGER, "   ... Simulation (ID:" + simulation.getId() + ") set");
+        }
+        if (started) {
+            endElement();
+        } else {
+            emptyElement("simulations");
+        }
+    }
+
+    /*
+     * The tool specific information of other tools is kept as beans by the import. Anything else results in an empty
+     * element, like in PNMLExport.
+     */
+    private void writeUnknownToolspecifics(Vector<?> toolspecifics) throws XMLStreamException {
+        for (Object toolspecific : toolspecifics) {
+            if (toolspecific instanceof ToolspecificType) {
+                writeFragment("toolspecific", (XmlObject) toolspecific);
+            } else {
+                emptyElement("toolspecific");
+            }
+        }
+    }
+
+    /*
+     * Saves the content of a bean as element at the current position
+     */
+    private void writeFragment(String name, XmlObject bean) throws XMLStreamException {
+        XmlOptions opt = PNMLExport.createSaveOptions();
+        opt.setSavePrettyPrintOffset(depth * INDENT);
+        opt.setSaveSyntheticDocumentElement(new QName(PNML_NAMESPACE, name));
+        writer.writeCharacters(lineSeparator);
+        writer.writeRaw(bean.xmlText(opt));
+    }
+
+    private void startElement(String name) throws XMLStreamException {
+        newLine();
+        writer.writeStartElement(name);
+        depth++;
+    }
+
+    private void endElement() throws XMLStreamException {
+        depth--;
+        newLine();
+        writer.writeEndElement();
+    }
+
+    /*
+     * Attributes may only follow startElement or emptyElement
+     */
+    private void emptyElement(String name) throws XMLStreamException {
+        newLine();
+        writer.writeEmptyElement(name);
+    }
+
+    private void attribute(String name, String value) throws XMLStreamException {
+        // XMLBeans saves a missing value as empty attribute
+        writer.writeAttribute(name, value != null ? value : "");
+    }
+
+    /*
+     * Writes an element with text content and the given pairs of attribute names and values
+     */
+    private void textElement(String name, String value, String... attributes) throws XMLStreamException {
+        newLine();
+        if (value == null) {
+            writer.writeEmptyElement(name);
+            writeAttributes(attributes);
+            writer.writeAttribute("xsi", XSI_NAMESPACE, "nil", "true");
+            writer.writeNamespace("xsi", XSI_NAMESPACE);
+        } else if (value.isEmpty()) {
+            writer.writeEmptyElement(name);
+            writeAttributes(attributes);
+        } else {
+            writer.writeStartElement(name);
+            writeAttributes(attributes);
+            writeText(value);
+            writer.writeEndElement();
+        }
+    }
+
+    private void writeAttributes(String[] attributes) throws XMLStreamException {
+        for (int i = 0; i < attributes.length; i += 2) {
+            attribute(attributes[i], attributes[i + 1]);
+        }
+    }
+
+    private void newLine() throws XMLStreamException {
+        StringBuilder line = new StringBuilder(lineSeparator);
+        for (int i = 0; i < depth * INDENT; i++) {
+            line.append(' ');
+        }
+        writer.writeCharacters(line.toString());
+    }
+
+    /*
+     * XMLBeans trims text when pretty printing and saves text with many entities as CDATA section
+     */
+    private void writeText(String value) throws XMLStreamException {
+        int begin = 0;
+        int end = value.length();
+        while (begin < end && isWhiteSpace(value.charAt(begin))) {
+            begin++;
+        }
+        while (end > begin && isWhiteSpace(value.charAt(end - 1))) {
+            end--;
+        }
+        String text = value.substring(begin, end);
+
+        int entities = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '<' || text.charAt(i) == '&') {
+                entities++;
+            }
+        }
+        if (text.length() > CDATA_LENGTH_THRESHOLD && entities > CDATA_ENTITY_COUNT_THRESHOLD) {
+            writer.writeCData(text);
+        } else {
+            // white space only text still ends the start tag
+            writer.writeCharacters(text);
+        }
+    }
+
+    private static boolean isWhiteSpace(char ch) {
+        return ch == ' ' || ch == '\t' || ch == '\n' || ch == '\r';
+    }
+}
@@ -0,0 +1,395 @@
+package org.woped.file;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * An {@link XMLStreamWriter} which escapes text and attribute values like XMLBeans does when saving a document.
+ * <p>
+ * The writers of the JDK always escape <code>&gt;</code> in attribute values and replace or keep other characters
+ * differently than XMLBeans, so a document written by them never has exactly the same bytes as one saved by
+ * XMLBeans. This writer does no formatting on its own, line breaks and indentation are written as characters.
+ * <p>
+ * Characters which are not allowed in XML are replaced by <code>?</code>. XMLBeans does the same for text, but keeps
+ * most of them in attribute values, which results in a document that can't be read again.
+ */
+class XmlBeansStyleStreamWriter implements XMLStreamWriter {
+
+    private final Writer out;
+    // ! Names of the elements which have been started, but not ended yet
+    private final Deque<String> elements = new ArrayDeque<String>();
+    private final Map<String, String> prefixes = new HashMap<String, String>();
+    private NamespaceContext namespaceContext = null;
+    // ! The start tag is open as long as attributes may be added
+    private boolean startTagOpen = false;
+    private boolean emptyElement = false;
+
+    /**
+     * @param out the writer to write the document to
+     */
+    XmlBeansStyleStreamWriter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void writeStartElement(String localName) throws XMLStreamException {
+        openStartTag(localName, false);
+    }
+
+    @Override
+    public void writeStartElement(String namespaceURI, String localName) throws XMLStreamException {
+        openStartTag(qualifyNamespace(namespaceURI, localName), false);
+    }
+
+    @Override
+    public void writeStartElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+        openStartTag(qualify(prefix, localName), false);
+    }
+
+    @Override
+    public void writeEmptyElement(String namespaceURI, String localName) throws XMLStreamException {
+        openStartTag(qualifyNamespace(namespaceURI, localName), true);
+    }
+
+    @Override
+    public void writeEmptyElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+        openStartTag(qualify(prefix, localName), true);
+    }
+
+    @Override
+    public void writeEmptyElement(String localName) throws XMLStreamException {
+        openStartTag(localName, true);
+    }
+
+    @Override
+    public void writeEndElement() throws XMLStreamException {
+        if (elements.isEmpty()) throw new XMLStreamException("No element to end");
+        closeStartTag();
+        write("</" + elements.pop() + ">");
+    }
+
+    @Override
+    public void writeEndDocument() throws XMLStreamException {
+        while (!elements.isEmpty()) {
+            writeEndElement();
+        }
+        closeStartTag();
+    }
+
+    @Override
+    public void close() throws XMLStreamException {
+        // the underlying writer is owned by the caller
+        flush();
+    }
+
+    @Override
+    public void flush() throws XMLStreamException {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new XMLStreamException(e);
+        }
+    }
+
+    @Override
+    public void writeAttribute(String localName, String value) throws XMLStreamException {
+        if (!startTagOpen) throw new XMLStreamException("Attribute " + localName + " outside of a start tag");
+        write(" " + localName + "=\"" + escapeAttribute(value) + "\"");
+    }
+
+    @Override
+    public void writeAttribute(String prefix, String namespaceURI, String localName, String value)
+            throws XMLStreamException {
+        writeAttribute(qualify(prefix, localName), value);
+    }
+
+    @Override
+    public void writeAttribute(String namespaceURI, String localName, String value) throws XMLStreamException {
+        writeAttribute(qualifyNamespace(namespaceURI, localName), value);
+    }
+
+    @Override
+    public void writeNamespace(String prefix, String namespaceURI) throws XMLStreamException {
+        if (prefix == null || prefix.isEmpty() || XMLConstants.XMLNS_ATTRIBUTE.equals(prefix)) {
+            writeDefaultNamespace(namespaceURI);
+        } else {
+            writeAttribute(XMLConstants.XMLNS_ATTRIBUTE + ":" + prefix, namespaceURI);
+        }
+    }
+
+    @Override
+    public void writeDefaultNamespace(String namespaceURI) throws XMLStreamException {
+        writeAttribute(XMLConstants.XMLNS_ATTRIBUTE, namespaceURI);
+    }
+
+    @Override
+    public void writeComment(String data) throws XMLStreamException {
+        closeStartTag();
+        write("<!--" + data + "-->");
+    }
+
+    @Override
+    public void writeProcessingInstruction(String target) throws XMLStreamException {
+        closeStartTag();
+        write("<?" + target + "?>");
+    }
+
+    @Override
+    public void writeProcessingInstruction(String target, String data) throws XMLStreamException {
+        closeStartTag();
+        write("<?" + target + " " + data + "?>");
+    }
+
+    /**
+     * Writes a CDATA section. A <code>]]&gt;</code> in the data ends the section and starts a new one, like XMLBeans
+     * does.
+     */
+    @Override
+    public void writeCData(String data) throws XMLStreamException {
+        closeStartTag();
+        StringBuilder cdata = new StringBuilder(data.length() + 12).append("<![CDATA[");
+        for (int i = 0; i < data.length(); i++) {
+            char ch = data.charAt(i);
+            if (ch == '>' && i >= 2 && data.charAt(i - 1) == ']' && data.charAt(i - 2) == ']') {
+                cdata.append("]]>><![CDATA[");
+            } else {
+                cdata.append(isTextChar(ch) ? ch : '?');
+            }
+        }
+        write(cdata.append("]]>").toString());
+    }
+
+    @Override
+    public void writeDTD(String dtd) throws XMLStreamException {
+        closeStartTag();
+        write(dtd);
+    }
+
+    @Override
+    public void writeEntityRef(String name) throws XMLStreamException {
+        closeStartTag();
+        write("&" + name + ";");
+    }
+
+    @Override
+    public void writeStartDocument() throws XMLStreamException {
+        write("<?xml version=\"1.0\"?>");
+    }
+
+    @Override
+    public void writeStartDocument(String version) throws XMLStreamException {
+        write("<?xml version=\"" + version + "\"?>");
+    }
+
+    @Override
+    public void writeStartDocument(String encoding, String version) throws XMLStreamException {
+        write("<?xml version=\"" + version + "\" encoding=\"" + encoding + "\"?>");
+    }
+
+    @Override
+    public void writeCharacters(String text) throws XMLStreamException {
+        closeStartTag();
+        write(escapeText(text));
+    }
+
+    @Override
+    public void writeCharacters(char[] text, int start, int len) throws XMLStreamException {
+        writeCharacters(new String(text, start, len));
+    }
+
+    /**
+     * Writes markup which is already escaped, e.g. an element saved by XMLBeans. Characters which are not allowed in
+     * XML are replaced by <code>?</code>, as XMLBeans keeps them in attribute values.
+     *
+     * @param xml the markup
+     * @throws XMLStreamException if the markup can not be written
+     */
+    void writeRaw(String xml) throws XMLStreamException {
+        closeStartTag();
+        write(replaceInvalidChars(xml));
+    }
+
+    @Override
+    public String getPrefix(String uri) throws XMLStreamException {
+        String prefix = prefixes.get(uri);
+        if (prefix == null && namespaceContext != null) {
+            prefix = namespaceContext.getPrefix(uri);
+        }
+        return prefix;
+    }
+
+    @Override
+    public void setPrefix(String prefix, String uri) throws XMLStreamException {
+        prefixes.put(uri, prefix);
+    }
+
+    @Override
+    public void setDefaultNamespace(String uri) throws XMLStreamException {
+        prefixes.put(uri, XMLConstants.DEFAULT_NS_PREFIX);
+    }
+
+    @Override
+    public void setNamespaceContext(NamespaceContext context) throws XMLStreamException {
+        this.namespaceContext = context;
+    }
+
+    @Override
+    public NamespaceContext getNamespaceContext() {
+        return new NamespaceContext() {
+            @Override
+            public String getNamespaceURI(String prefix) {
+                for (Map.Entry<String, String> entry : prefixes.entrySet()) {
+                    if (entry.getValue().equals(prefix)) return entry.getKey();
+                }
+                return namespaceContext != null ? namespaceContext.getNamespaceURI(prefix) : XMLConstants.NULL_NS_URI;
+            }
+
+            @Override
+            public String getPrefix(String namespaceURI) {
+                try {
+                    return XmlBeansStyleStreamWriter.this.getPrefix(namespaceURI);
+                } catch (XMLStreamException e) {
+                    return null;
+                }
+            }
+
+            @Override
+            public Iterator<String> getPrefixes(String namespaceURI) {
+                String prefix = getPrefix(namespaceURI);
+                return prefix != null ? Collections.singleton(prefix).iterator() : Collections.<String>emptyIterator();
+            }
+        };
+    }
+
+    @Override
+    public Object getProperty(String name) throws IllegalArgumentException {
+        throw new IllegalArgumentException("Property " + name + " is not supported");
+    }
+
+    /**
+     * Escapes text like XMLBeans: <code>&lt;</code> and <code>&amp;</code> are replaced by entities,
+     * <code>&gt;</code> only at the end of <code>]]&gt;</code>. Characters which are not allowed in XML, including all
+     * surrogates, are replaced by <code>?</code>.
+     *
+     * @param text the text to escape
+     * @return the escaped text
+     */
+    static String escapeText(String text) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            String replacement;
+            if (ch == '<') {
+                replacement = "&lt;";
+            } else if (ch == '&') {
+                replacement = "&amp;";
+            } else if (ch == '>' && i >= 2 && text.charAt(i - 1) == ']' && text.charAt(i - 2) == ']') {
+                replacement = "&gt;";
+            } else if (!isTextChar(ch)) {
+                replacement = "?";
+            } else {
+                if (escaped != null) escaped.append(ch);
+                continue;
+            }
+            if (escaped == null) escaped = new StringBuilder(text.length() + 16).append(text, 0, i);
+            escaped.append(replacement);
+        }
+        return escaped != null ? escaped.toString() : text;
+    }
+
+    /**
+     * Escapes an attribute value like XMLBeans: <code>&lt;</code>, <code>&amp;</code> and <code>&quot;</code> are
+     * replaced by entities, <code>&gt;</code> and white space are kept. Surrogate pairs are kept as well, any other
+     * character which is not allowed in XML is replaced by <code>?</code>.
+     *
+     * @param value the attribute value to escape
+     * @return the escaped value
+     */
+    static String escapeAttribute(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 16);
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch == '<') {
+                escaped.append("&lt;");
+            } else if (ch == '&') {
+                escaped.append("&amp;");
+            } else if (ch == '"') {
+                escaped.append("&quot;");
+            } else {
+                escaped.append(ch);
+            }
+        }
+        return replaceInvalidChars(escaped.toString());
+    }
+
+    /*
+     * Replaces the characters which are not allowed in XML by '?', but keeps surrogate pairs
+     */
+    private static String replaceInvalidChars(String text) {
+        char[] chars = null;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (Character.isHighSurrogate(ch) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                i++;
+            } else if (!isTextChar(ch)) {
+                if (chars == null) chars = text.toCharArray();
+                chars[i] = '?';
+            }
+        }
+        return chars != null ? new String(chars) : text;
+    }
+
+    /*
+     * Characters allowed in XML, except for the supplementary ones which need a surrogate pair
+     */
+    private static boolean isTextChar(char ch) {
+        return (ch >= 0x20 && ch <= 0xD7FF) || (ch >= 0xE000 && ch <= 0xFFFD) || ch == 0x9 || ch == 0xA || ch == 0xD;
+    }
+
+    private static String qualify(String prefix, String localName) {
+        return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+    }
+
+    private String qualifyNamespace(String namespaceURI, String localName) throws XMLStreamException {
+        if (namespaceURI == null || namespaceURI.isEmpty()) return localName;
+        String prefix = getPrefix(namespaceURI);
+        if (prefix == null) throw new XMLStreamException("No prefix bound to namespace " + namespaceURI);
+        return qualify(prefix, localName);
+    }
+
+    private void openStartTag(String name, boolean empty) throws XMLStreamException {
+        closeStartTag();
+        write("<" + name);
+        startTagOpen = true;
+        emptyElement = empty;
+        if (!empty) {
+            elements.push(name);
+        }
+    }
+
+    private void closeStartTag() throws XMLStreamException {
+        if (startTagOpen) {
+            startTagOpen = false;
+            write(emptyElement ? "/>" : ">");
+        }
+    }
+
+    private void write(String s) throws XMLStreamException {
+        try {
+            out.write(s);
+        } catch (IOException e) {
+            throw new XMLStreamException(e);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package org.woped.file.controller.vep;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Result of the batch analysis of a single PNML file.
+ * <p>
+ * Values that were not calculated, e.g. because the file could not be parsed or the soundness check was disabled,
+ * are {@code null} or {@code -1}.
+ */
+public class BatchAnalysisResult {
+
+    /**
+     * Outcome of the analysis of one file.
+     */
+    public enum Status {
+        /**
+         * All requested analyses have been performed.
+         */
+        OK,
+        /**
+         * The file could not be read or one of the analyses failed.
+         */
+        ERROR,
+        /**
+         * The analysis did not finish within the configured time limit and has been abandoned.
+         */
+        TIMEOUT
+    }
+
+    private final String file;
+    private Status status = Status.OK;
+    private String error = null;
+
+    private int netCount = -1;
+    private int places = -1;
+    private int transitions = -1;
+    private int arcs = -1;
+    private Boolean workflowNet = null;
+    private Boolean sound = null;
+    private final Map<String, String> metrics = new LinkedHashMap<>();
+
+    private long parseMillis = -1;
+    private long metricsMillis = -1;
+    private long soundnessMillis = -1;
+    private long totalMillis = -1;
+
+    /**
+     * @param file the name of the analysed file
+     */
+    public BatchAnalysisResult(String file) {
+        this.file = file;
+    }
+
+    /**
+     * Creates the result of a file that could not be analysed.
+     *
+     * @param file        the name of the analysed file
+     * @param status      the reason the analysis was aborted
+     * @param error       a short description of the problem
+     * @param totalMillis the time spent on the file
+     * @return the failed result
+     */
+    static BatchAnalysisResult failed(String file, Status status, String error, long totalMillis) {
+        BatchAnalysisResult result = new BatchAnalysisResult(file);
+        result.status = status;
+        result.error = error;
+        result.totalMillis = totalMillis;
+        return result;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    void setError(String error) {
+        this.status = Status.ERROR;
+        this.error = error;
+    }
+
+    public int getNetCount() {
+        return netCount;
+    }
+
+    void setNetCount(int netCount) {
+        this.netCount = netCount;
+    }
+
+    public int getPlaces() {
+        return places;
+    }
+
+    public int getTransitions() {
+        return transitions;
+    }
+
+    public int getArcs() {
+        return arcs;
+    }
+
+    void setStatistics(int places, int transitions, int arcs) {
+        this.places = places;
+        this.transitions = transitions;
+        this.arcs = arcs;
+    }
+
+    public Boolean getWorkflowNet() {
+        return workflowNet;
+    }
+
+    void setWorkflowNet(Boolean workflowNet) {
+        this.workflowNet = workflowNet;
+    }
+
+    public Boolean getSound() {
+        return sound;
+    }
+
+    void setSound(Boolean sound) {
+        this.sound = sound;
+    }
+
+    /**
+     * @return the calculated metrics by name, in the order they were requested
+     */
+    public Map<String, String> getMetrics() {
+        return metrics;
+    }
+
+    public long getParseMillis() {
+        return parseMillis;
+    }
+
+    void setParseMillis(long parseMillis) {
+        this.parseMillis = parseMillis;
+    }
+
+    public long getMetricsMillis() {
+        return metricsMillis;
+    }
+
+    void setMetricsMillis(long metricsMillis) {
+        this.metricsMillis = metricsMillis;
+    }
+
+    public long getSoundnessMillis() {
+        return soundnessMillis;
+    }
+
+    void setSoundnessMillis(long soundnessMillis) {
+        this.soundnessMillis = soundnessMillis;
+    }
+
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    void setTotalMillis(long totalMillis) {
+        this.totalMillis = totalMillis;
+    }
+}
@@ -0,0 +1,423 @@
+package org.woped.file.controller.vep;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.woped.config.metrics.WoPeDMetricsConfiguration;
+import org.woped.core.config.ConfigurationManager;
+import org.woped.core.config.IMetricsConfiguration;
+import org.woped.core.controller.HeadlessEditor;
+import org.woped.core.controller.IEditor;
+import org.woped.core.model.PetriNetModelProcessor;
+import org.woped.file.PNMLImport;
+import org.woped.gui.translations.Messages;
+import org.woped.metrics.metricsCalculation.MetricsUIRequestHandler;
+import org.woped.metrics.metricsCalculation.StringPair;
+import org.woped.qualanalysis.cache.AnalysisResultCache;
+import org.woped.qualanalysis.service.IQualanalysisService;
+import org.woped.qualanalysis.service.QualAnalysisServiceFactory;
+
+/**
+ * Analyses a large number of PNML files without any user interface.
+ * <p>
+ * The files are streamed straight into model processors (see {@link PNMLImport#importHeadless(InputStream, boolean)})
+ * and analysed on a bounded pool of worker threads. For every file the net statistics, the configured metrics and the
+ * soundness are calculated and handed to a {@link BatchResultWriter} as soon as the file is done, together with the
+ * time spent on each step. Only the first net of a file is analysed.
+ * <p>
+ * A file that can not be parsed or analysed produces an error result. A file that exceeds the time limit is
+ * abandoned and reported as timeout. Its analysis is interrupted, which stops the state space exploration. Until an
+ * abandoned worker has returned it is replaced by an additional one, so a hanging model does not reduce the
+ * throughput of the remaining run. At most {@code parallelism} additional workers are started, so many hanging models
+ * can not exhaust the memory.
+ */
+public class BatchAnalysisRunner {
+
+    private static final long POLL_MILLIS = 100;
+
+    private final int parallelism;
+    private List<String> metricNames = Collections.emptyList();
+    private boolean soundnessCheck = true;
+    private long timeoutMillis = 0;
+    private final AtomicInteger processed = new AtomicInteger();
+    // ! Guards the pool size and the workers added for abandoned analyses
+    private final Object poolLock = new Object();
+    private ThreadPoolExecutor pool;
+    private int extraWorkers = 0;
+
+    /**
+     * @param parallelism the number of files analysed at the same time
+     */
+    public BatchAnalysisRunner(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @param metricNames the names of the metrics to calculate, e.g. the layered names of the group "All metrics",
+     *                    missing names are skipped
+     */
+    public void setMetricNames(List<String> metricNames) {
+        this.metricNames = new ArrayList<>();
+        for (String metric : metricNames) {
+            if (metric != null) this.metricNames.add(metric);
+        }
+    }
+
+    public List<String> getMetricNames() {
+        return Collections.unmodifiableList(metricNames);
+    }
+
+    /**
+     * @param soundnessCheck true if the workflow net property and the soundness should be checked
+     */
+    public void setSoundnessCheck(boolean soundnessCheck) {
+        this.soundnessCheck = soundnessCheck;
+    }
+
+    /**
+     * @param timeout the maximum time spent on a single file, 0 for no limit
+     * @param unit    the unit of the timeout
+     */
+    public void setTimeout(long timeout, TimeUnit unit) {
+        this.timeoutMillis = unit.toMillis(timeout);
+    }
+
+    /**
+     * @return the number of files finished by the current or last run
+     */
+    public int getProcessedCount() {
+        return processed.get();
+    }
+
+    /**
+     * Analyses the given files and writes one result per file in the order the analyses finish.
+     *
+     * @param files  the files to analyse
+     * @param writer the target of the results
+     * @throws IOException          if a result can not be written
+     * @throws InterruptedException if the calling thread is interrupted while waiting for results
+     */
+    public void run(List<File> files, BatchResultWriter writer) throws IOException, InterruptedException {
+        processed.set(0);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), new WorkerThreadFactory());
+        synchronized (poolLock) {
+            this.pool = pool;
+            extraWorkers = 0;
+        }
+        CompletionService<BatchAnalysisResult> completion = new ExecutorCompletionService<>(pool);
+        Map<Future<BatchAnalysisResult>, AnalysisTask> running = new LinkedHashMap<>();
+        Iterator<File> pending = files.iterator();
+
+        try {
+            while (pending.hasNext() || !running.isEmpty()) {
+                // keep the queue short, so the timeout of a file starts close to its submission
+                while (pending.hasNext() && running.size() < 2 * parallelism) {
+                    AnalysisTask task = new AnalysisTask(pending.next(), pool);
+                    running.put(completion.submit(task), task);
+                }
+
+                Future<BatchAnalysisResult> done = completion.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                AnalysisTask task = done != null ? running.remove(done) : null;
+                if (task != null) {
+                    writer.write(getResult(done, task));
+                    processed.incrementAndGet();
+                }
+
+                if (timeoutMillis > 0) {
+                    abandonTimedOut(running, writer);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Reports and cancels all analyses exceeding the timeout. Not every step of an analysis reacts to interrupts, so
+     * every abandoned worker is compensated by an additional one until it returns, up to {@code parallelism}
+     * additional workers.
+     */
+    private void abandonTimedOut(Map<Future<BatchAnalysisResult>, AnalysisTask> running, BatchResultWriter writer)
+            throws IOException {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<Future<BatchAnalysisResult>, AnalysisTask>> iter = running.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry<Future<BatchAnalysisResult>, AnalysisTask> entry = iter.next();
+            long start = entry.getValue().startNanos;
+            if (start == 0 || TimeUnit.NANOSECONDS.toMillis(now - start) <= timeoutMillis) {
+                continue;
+            }
+            if (entry.getKey().cancel(true)) {
+                entry.getValue().abandon();
+                writer.write(BatchAnalysisResult.failed(entry.getValue().file.getName(),
+                        BatchAnalysisResult.Status.TIMEOUT, "exceeded " + timeoutMillis + " ms",
+                        TimeUnit.NANOSECONDS.toMillis(now - start)));
+                processed.incrementAndGet();
+                iter.remove();
+            }
+        }
+    }
+
+    private BatchAnalysisResult getResult(Future<BatchAnalysisResult> future, AnalysisTask task)
+            throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            // the task catches its own exceptions, only errors like StackOverflowError end up here
+            return BatchAnalysisResult.failed(task.file.getName(), BatchAnalysisResult.Status.ERROR,
+                    String.valueOf(e.getCause()), millisSince(task.startNanos));
+        }
+    }
+
+    /**
+     * Analyses a single file.
+     *
+     * @param file the file to analyse
+     * @return the result of the analysis, never null
+     */
+    public BatchAnalysisResult analyse(File file) {
+        BatchAnalysisResult result = new BatchAnalysisResult(file.getName());
+        long begin = System.nanoTime();
+
+        try {
+            long step = System.nanoTime();
+            PetriNetModelProcessor[] nets;
+            try (InputStream is = new FileInputStream(file)) {
+                nets = new PNMLImport(null).importHeadless(is, true);
+            }
+            result.setParseMillis(millisSince(step));
+            result.setNetCount(nets.length);
+            if (nets.length == 0) {
+                result.setError("no net");
+                return result;
+            }
+            IEditor editor = new HeadlessEditor(nets[0]);
+
+            IQualanalysisService qualanService = QualAnalysisServiceFactory.createNewQualAnalysisService(editor);
+            result.setStatistics(qualanService.getPlaces().size(), qualanService.getTransitions().size(),
+                    qualanService.getNumArcs());
+
+            if (!metricNames.isEmpty()) {
+                step = System.nanoTime();
+                IMetricsConfiguration metricsConfig = ConfigurationManager.getMetricsConfiguration();
+                MetricsUIRequestHandler metrics = new MetricsUIRequestHandler(editor);
+                for (String metric : metricNames) {
+                    StringPair value = metrics.calculateSingle(metricsConfig, metric);
+                    result.getMetrics().put(metric, value != null ? value.getValue() : null);
+                }
+                result.setMetricsMillis(millisSince(step));
+            }
+
+            if (soundnessCheck) {
+                step = System.nanoTime();
+                boolean workflowNet = qualanService.isWorkflowNet();
+                result.setWorkflowNet(workflowNet);
+                result.setSound(workflowNet && qualanService.isSound());
+                result.setSoundnessMillis(millisSince(step));
+            }
+        } catch (Exception e) {
+            // StAX parse errors span several lines, but each result is reported on a single line
+            result.setError((e.getClass().getSimpleName() + ": " + e.getMessage()).replaceAll("\\s*\\R\\s*", " "));
+        } finally {
+            result.setTotalMillis(millisSince(begin));
+        }
+        return result;
+    }
+
+    private static long millisSince(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Command line entry point.
+     * <p>
+     * Usage: {@code BatchAnalysisRunner [-threads n] [-format csv|json] [-timeout seconds] [-metrics]
+     * [-cache directory] [-out file] file|directory...}
+     * <p>
+     * With {@code -cache} the analysis results are stored in the given directory and reused for unchanged nets in
+     * later runs.
+     *
+     * @param args the command line arguments
+     * @throws Exception if the results can not be written
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        BatchResultWriter.Format format = BatchResultWriter.Format.CSV;
+        long timeout = 0;
+        boolean withMetrics = false;
+        File outFile = null;
+        List<File> files = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "-format":
+                    format = "json".equalsIgnoreCase(args[++i]) ? BatchResultWriter.Format.JSON_LINES
+                            : BatchResultWriter.Format.CSV;
+                    break;
+                case "-timeout":
+                    timeout = Long.parseLong(args[++i]);
+                    break;
+                case "-metrics":
+                    withMetrics = true;
+                    break;
+                case "-out":
+                    outFile = new File(args[++i]);
+                    break;
+                case "-cache":
+                    AnalysisResultCache.getInstance().setDiskStore(new File(args[++i]));
+                    break;
+                default:
+                    collectFiles(new File(args[i]), files);
+            }
+        }
+        if (files.isEmpty()) {
+            System.err.println("Usage: BatchAnalysisRunner [-threads n] [-format csv|json] [-timeout seconds] "
+                    + "[-metrics] [-cache directory] [-out file] file|directory...");
+            System.exit(1);
+        }
+
+        BatchAnalysisRunner runner = new BatchAnalysisRunner(threads);
+        runner.setTimeout(timeout, TimeUnit.SECONDS);
+        if (withMetrics) {
+            WoPeDMetricsConfiguration metricsConfig = new WoPeDMetricsConfiguration();
+            metricsConfig.initConfig();
+            ConfigurationManager.setMetricsConfiguration(metricsConfig);
+            runner.setMetricNames(MetricsUIRequestHandler.getLayeredAlgoNames(
+                    Messages.getString("Metrics.AlgorthimGroup.Name.AllMetrics")));
+        }
+
+        Writer out = outFile != null ? Files.newBufferedWriter(outFile.toPath(), StandardCharsets.UTF_8)
+                : new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+        try (BatchResultWriter writer = new BatchResultWriter(out, format, runner.getMetricNames())) {
+            runner.run(files, writer);
+        }
+        // abandoned analyses may still be running
+        System.exit(0);
+    }
+
+    /**
+     * Adds the file or, for a directory, all PNML files below it.
+     */
+    static void collectFiles(File file, List<File> files) {
+        if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children == null) return;
+            Arrays.sort(children);
+            for (File child : children) {
+                if (child.isDirectory() || child.getName().endsWith(".pnml")) {
+                    collectFiles(child, files);
+                }
+            }
+        } else if (file.isFile()) {
+            files.add(file);
+        }
+    }
+
+    /**
+     * @return the number of workers currently added for abandoned analyses
+     */
+    int getExtraWorkers() {
+        synchronized (poolLock) {
+            return extraWorkers;
+        }
+    }
+
+    private class AnalysisTask implements Callable<BatchAnalysisResult> {
+
+        private final File file;
+        // the pool of the run the task belongs to
+        private final ThreadPoolExecutor taskPool;
+        private volatile long startNanos = 0;
+        // guarded by poolLock
+        private boolean finished = false;
+        private boolean compensated = false;
+
+        AnalysisTask(File file, ThreadPoolExecutor taskPool) {
+            this.file = file;
+            this.taskPool = taskPool;
+        }
+
+        @Override
+        public BatchAnalysisResult call() {
+            startNanos = System.nanoTime();
+            try {
+                return analyse(file);
+            } finally {
+                release();
+            }
+        }
+
+        /**
+         * Adds a worker for the abandoned analysis, unless it has already returned or the limit is reached.
+         */
+        void abandon() {
+            synchronized (poolLock) {
+                if (finished || taskPool != pool || extraWorkers >= parallelism) return;
+                compensated = true;
+                extraWorkers++;
+                pool.setMaximumPoolSize(parallelism + extraWorkers);
+                pool.setCorePoolSize(parallelism + extraWorkers);
+            }
+        }
+
+        /**
+         * Removes the worker added for the analysis once it has returned.
+         */
+        private void release() {
+            synchronized (poolLock) {
+                finished = true;
+                // the workers of an earlier run are not counted any more
+                if (!compensated || taskPool != pool) return;
+                compensated = false;
+                extraWorkers--;
+                pool.setCorePoolSize(parallelism + extraWorkers);
+                pool.setMaximumPoolSize(parallelism + extraWorkers);
+            }
+        }
+    }
+
+    /**
+     * Creates daemon workers, so abandoned analyses do not keep the virtual machine alive.
+     */
+    private static class WorkerThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "batch-analysis-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package org.woped.file.controller.vep;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Streams the results of a batch analysis as CSV, as JSON lines or in the format of the mass metrics calculation.
+ * <p>
+ * Every result is written and flushed as soon as it is available, so a long run can be followed and an aborted run
+ * still leaves all finished results behind. The writer may be shared by several threads.
+ */
+public class BatchResultWriter implements Closeable {
+
+    /**
+     * Output format of the results.
+     */
+    public enum Format {
+        /**
+         * One header line followed by one comma separated line per file.
+         */
+        CSV,
+        /**
+         * One JSON object per line and file.
+         */
+        JSON_LINES,
+        /**
+         * The format of the mass metrics calculation: one header line followed by one line per file, which only
+         * contains the file name and the values of the metrics. Lines end with CR LF.
+         */
+        METRICS_CSV
+    }
+
+    private static final String[] COLUMNS = { "file", "status", "nets", "places", "transitions", "arcs",
+            "workflowNet", "sound", "parseMillis", "metricsMillis", "soundnessMillis", "totalMillis" };
+
+    private final Writer out;
+    private final Format format;
+    private final List<String> metricNames;
+    private final Gson gson = new GsonBuilder().serializeNulls().create();
+    private boolean headerWritten = false;
+
+    /**
+     * @param out         the target of the results
+     * @param format      the output format
+     * @param metricNames the names of the calculated metrics, used as CSV columns
+     */
+    public BatchResultWriter(Writer out, Format format, List<String> metricNames) {
+        this.out = out;
+        this.format = format;
+        this.metricNames = new ArrayList<>(metricNames);
+    }
+
+    /**
+     * Writes a single result.
+     *
+     * @param result the result to write
+     * @throws IOException if the result can not be written
+     */
+    public synchronized void write(BatchAnalysisResult result) throws IOException {
+        if (format == Format.CSV || format == Format.METRICS_CSV) {
+            writeCsv(result);
+        } else {
+            out.write(gson.toJson(toMap(result)));
+            out.write("\n");
+        }
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (format != Format.JSON_LINES && !headerWritten) {
+            writeCsvHeader();
+        }
+        out.close();
+    }
+
+    private void writeCsv(BatchAnalysisResult result) throws IOException {
+        if (!headerWritten) {
+            writeCsvHeader();
+        }
+
+        StringBuilder line = new StringBuilder();
+        if (format == Format.METRICS_CSV) {
+            appendCsv(line, result.getFile());
+        } else {
+            for (Object value : toMap(result).values()) {
+                if (!(value instanceof Map)) {
+                    appendCsv(line, value);
+                }
+            }
+        }
+        for (String metric : metricNames) {
+            appendCsv(line, result.getMetrics().get(metric));
+        }
+        if (format == Format.CSV) {
+            appendCsv(line, result.getError());
+        }
+        writeLine(line);
+    }
+
+    private void writeCsvHeader() throws IOException {
+        StringBuilder line = new StringBuilder();
+        if (format == Format.METRICS_CSV) {
+            appendCsv(line, "File name");
+        } else {
+            for (String column : COLUMNS) {
+                appendCsv(line, column);
+            }
+        }
+        for (String metric : metricNames) {
+            appendCsv(line, metric);
+        }
+        if (format == Format.CSV) {
+            appendCsv(line, "error");
+        }
+        writeLine(line);
+        headerWritten = true;
+    }
+
+    /**
+     * Replaces the trailing separator of a CSV line by the line end of the format and writes the line.
+     */
+    private void writeLine(StringBuilder line) throws IOException {
+        line.setLength(line.length() - 1);
+        line.append(format == Format.METRICS_CSV ? "\r\n" : "\n");
+        out.write(line.toString());
+    }
+
+    /**
+     * @return the values of the result in the order of {@link #COLUMNS}, followed by the metrics and the error
+     */
+    private Map<String, Object> toMap(BatchAnalysisResult result) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put(COLUMNS[0], result.getFile());
+        values.put(COLUMNS[1], result.getStatus().name());
+        values.put(COLUMNS[2], orNull(result.getNetCount()));
+        values.put(COLUMNS[3], orNull(result.getPlaces()));
+        values.put(COLUMNS[4], orNull(result.getTransitions()));
+        values.put(COLUMNS[5], orNull(result.getArcs()));
+        values.put(COLUMNS[6], result.getWorkflowNet());
+        values.put(COLUMNS[7], result.getSound());
+        values.put(COLUMNS[8], orNull(result.getParseMillis()));
+        values.put(COLUMNS[9], orNull(result.getMetricsMillis()));
+        values.put(COLUMNS[10], orNull(result.getSoundnessMillis()));
+        values.put(COLUMNS[11], orNull(result.getTotalMillis()));
+        if (format == Format.JSON_LINES) {
+            values.put("metrics", result.getMetrics());
+            values.put("error", result.getError());
+        }
+        return values;
+    }
+
+    private static Object orNull(long value) {
+        return value < 0 ? null : value;
+    }
+
+    /**
+     * Appends a value and a separator, quoting the value if necessary.
+     */
+    private static void appendCsv(StringBuilder line, Object value) {
+        if (value != null) {
+            String text = value.toString();
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                line.append('"').append(text.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(text);
+            }
+        }
+        line.append(',');
+    }
+}
@@ -155,7 +155,7 @@ public class FileEventProcessor extends AbstractEventProcessor {
                 MassMetricsCalculator mass = new MassMetricsCalculator();
                 mass.prepareMetrics(folder.listFiles());
                 new MassMetricsStatus(mass).start();
-                mass.calculateMetrics(saveTo, (ApplicationMediator) getMediator());
+                mass.calculateMetrics(saveTo);
                 break;
             case AbstractViewEvent.ANALYSIS_METRICSBUILDER:
                 new MetricsBuilder(editor, "");
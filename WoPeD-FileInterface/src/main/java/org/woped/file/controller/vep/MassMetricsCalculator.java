@@ -2,20 +2,12 @@ package org.woped.file.controller.vep;
 
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.woped.core.config.ConfigurationManager;
-import org.woped.core.config.IMetricsConfiguration;
-import org.woped.core.controller.IEditor;
-import org.woped.core.controller.IStatusBar;
-import org.woped.core.controller.IViewController;
-import org.woped.editor.controller.ApplicationMediator;
-import org.woped.file.PNMLImport;
+import org.woped.gui.translations.Messages;
 import org.woped.metrics.metricsCalculation.MetricsUIRequestHandler;
-import org.woped.metrics.metricsCalculation.StringPair;
 
 public class MassMetricsCalculator {
 
@@ -23,19 +15,19 @@ public class MassMetricsCalculator {
 	 * Used for mass calculation of WoPeD metrics. Contained in this project due
 	 * to the need to open and load files
 	 * 
-	 * Mass calculation logic (Increasing performance >90%) has been added
-	 * directly to the IEditor and loader classes
+	 * The files are analysed in parallel by a headless
+	 * {@link BatchAnalysisRunner}, no editors are opened
 	 */
 
 	private List<File> filesToCheck;
-	private int index = 0;
+	private BatchAnalysisRunner runner = null;
 
 	public int getMetricsCount() {
 		return filesToCheck.size();
 	}
 
 	public int getStatus() {
-		return index;
+		return runner != null ? runner.getProcessedCount() : 0;
 	}
 
 	/**
@@ -56,16 +48,20 @@ public class MassMetricsCalculator {
 	}
 
 	/**
-	 * Runs the actual calculation, using a path to save the file and the
-	 * mediator required to open files
+	 * Runs the actual calculation, using a path to save the file
 	 * 
 	 * @param saveFile
-	 * @param medi
 	 */
-	public void calculateMetrics(File saveFile, ApplicationMediator medi) {
+	public void calculateMetrics(File saveFile) {
 		if (filesToCheck == null || filesToCheck.size() < 1)
 			return;
-		new MetricsCalculation(saveFile, medi).start();
+		runner = new BatchAnalysisRunner(Runtime.getRuntime()
+				.availableProcessors());
+		runner.setSoundnessCheck(false);
+		runner.setMetricNames(MetricsUIRequestHandler
+				.getLayeredAlgoNames(Messages
+				.getString("Metrics.AlgorthimGroup.Name.AllMetrics")));
+		new MetricsCalculation(saveFile).start();
 	}
 
 	public void prepareMetrics(List<File> files) {
@@ -80,69 +76,22 @@ public class MassMetricsCalculator {
 	private class MetricsCalculation extends Thread {
 
 		private File saveFile;
-		private ApplicationMediator medi;
 
-		public MetricsCalculation(File saveFile, ApplicationMediator medi) {
+		public MetricsCalculation(File saveFile) {
 			this.saveFile = saveFile;
-			this.medi = medi;
 		}
 
 		/**
-		 * Performs the task of opening the nets, calculating the metrics and
+		 * Performs the task of loading the nets, calculating the metrics and
 		 * storing the results
 		 */
 		@Override
 		public void run() {
-			index = 0;
-			BufferedWriter write = null;
-			IViewController[] iVC = medi.findViewController(IStatusBar.TYPE);
-			IStatusBar[] iSB = new IStatusBar[iVC.length];
-			for (int i = 0; i < iSB.length; i++) {
-				iSB[i] = (IStatusBar) iVC[i];
-			}
-
-			PNMLImport pr = new PNMLImport(medi);
-			// OLDPNMLImport2 oldpr = new OLDPNMLImport2(medi);
-			IEditor edit = null;
-			IMetricsConfiguration metricsConfig = ConfigurationManager
-					.getMetricsConfiguration();
-			try {
-				// Write top line with variable and algorithm names
-				write = new BufferedWriter(new FileWriter(saveFile));
-				List<String> metricsList = MetricsUIRequestHandler
-						.getLayeredAlgoNames("ALL_METRICS");
-				write.write("File name");
-				for (String s : metricsList)
-					write.write("," + s);
-				write.write("\r\n");
-
-				// Loop over all selected files to analyze them
-				for (File f : filesToCheck) {
-					write.write(f.getName());
-					if (pr.run(new FileInputStream(f), "", false))
-						edit = pr.getEditor()[0];
-					/*
-					 * else if(oldpr.run(new FileInputStream(f),false)) edit =
-					 * oldpr.getEditor()[0];
-					 */
-					else
-						continue;
-					MetricsUIRequestHandler ui = new MetricsUIRequestHandler(
-							edit);
-					for (String metric : metricsList) {
-						StringPair result;
-						if (metric != null)
-							result = ui.calculateSingle(metricsConfig, metric);
-						else
-							result = new StringPair("", "");
-						write.write("," + result.getValue());
-					}
-					write.write("\r\n");
-					edit.closeEditor();
-					index++;
-				}
-
-				write.close();
+			try (BatchResultWriter write = new BatchResultWriter(
+					new BufferedWriter(new FileWriter(saveFile)),
+					BatchResultWriter.Format.METRICS_CSV,
+					runner.getMetricNames())) {
+				runner.run(filesToCheck, write);
 			} catch (Exception e) {
 				e.printStackTrace();
 			}
@@ -15,6 +15,7 @@ import org.woped.core.config.IMetricsConfiguration;
 import org.woped.core.controller.IEditor;
 import org.woped.core.model.ArcModel;
 import org.woped.core.model.ModelElementContainer;
+import org.woped.core.model.StructuralHash;
 import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
 import org.woped.metrics.exceptions.CalculateFormulaException;
 import org.woped.metrics.exceptions.FormulaVariableNotFoundException;
@@ -23,11 +24,13 @@ import org.woped.metrics.exceptions.NaNException;
 import org.woped.metrics.formulaEnhancement.EnhancementException;
 import org.woped.metrics.formulaEnhancement.FormulaEnhancementList;
 import org.woped.metrics.jbpt.RPSTHandler;
+import org.woped.qualanalysis.cache.AnalysisResultCache;
 import org.woped.qualanalysis.coverabilitygraph.gui.CoverabilityGraph;
 import org.woped.qualanalysis.coverabilitygraph.model.ReachabilityGraphModelUsingMarkingNet;
 import org.woped.qualanalysis.service.IQualanalysisService;
 import org.woped.qualanalysis.service.QualAnalysisServiceFactory;
 import org.woped.qualanalysis.soundness.algorithms.AlgorithmFactory;
+import org.woped.qualanalysis.soundness.builder.BuilderFactory;
 import org.woped.qualanalysis.soundness.datamodel.PlaceNode;
 import org.woped.qualanalysis.soundness.marking.IMarking;
 import org.woped.qualanalysis.soundness.marking.IMarkingNet;
@@ -281,8 +284,7 @@ public class MetricsCalculator {
 	@SuppressWarnings("unused")
 	private double calculateTM(){
 		double max = 0;
-		ReachabilityGraphModelUsingMarkingNet reach = new ReachabilityGraphModelUsingMarkingNet(editor);
-		IMarkingNet net = reach.getMarkingNet();
+		IMarkingNet net = BuilderFactory.getCachedMarkingNet(editor, false);
 		Set<IMarking> markings = net.getMarkings();
 		for (IMarking mark : markings) {
 			for(PlaceNode place: mark.getPlaces()){
@@ -502,7 +504,7 @@ public class MetricsCalculator {
 		}
 		else if (metricsConfig.hasAlgorithmMethod(token)){
 			currentDynamicCall.add(token);
-			result = Double.parseDouble(getClass().getDeclaredMethod(metricsConfig.getAlgorithmMethod(token), new Class[0]).invoke(this, new Object[0]).toString());
+			result = calculateMethod(metricsConfig.getAlgorithmMethod(token));
 			variableValueBuffer.put(token, result);
 			currentDynamicCall.remove(token);
 			return result;
@@ -523,7 +525,7 @@ public class MetricsCalculator {
 		}
 		else if(metricsConfig.hasVariableMethod(token)){
 			currentDynamicCall.add(token);
-			result = Double.parseDouble(getClass().getDeclaredMethod(metricsConfig.getVariableMethod(token), new Class[0]).invoke(this,new Object[0]).toString());
+			result = calculateMethod(metricsConfig.getVariableMethod(token));
 			variableValueBuffer.put(token, result);
 			currentDynamicCall.remove(token);
 			return result;
@@ -543,6 +545,30 @@ public class MetricsCalculator {
 
 	}
 	
+	/**
+	 * Invokes one of the generically called calculation methods.
+	 * Without algorithm highlighting the values are kept in the analysis result cache,
+	 * so they are not calculated again for a net with the same structure.
+	 *
+	 * @param methodName	Name of the calculation method
+	 * @return				The calculated value
+	 * @throws Exception	Exception thrown by the reflective call
+	 */
+	private double calculateMethod(String methodName) throws Exception {
+		if(algorithmHighlighting)
+			return Double.parseDouble(getClass().getDeclaredMethod(methodName, new Class[0]).invoke(this, new Object[0]).toString());
+
+		AnalysisResultCache cache = AnalysisResultCache.getInstance();
+		StructuralHash hash = mec.getStructuralHash();
+		String name = AnalysisResultCache.getName("metrics." + methodName, editor);
+		Double value = cache.get(hash, name, Double.class);
+		if(value == null){
+			value = Double.parseDouble(getClass().getDeclaredMethod(methodName, new Class[0]).invoke(this, new Object[0]).toString());
+			cache.put(hash, name, value);
+		}
+		return value;
+	}
+
 	/**
 	 * Checks whether a variable has already been calculated
 	 *
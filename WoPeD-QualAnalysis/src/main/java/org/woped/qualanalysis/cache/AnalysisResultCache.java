@@ -0,0 +1,260 @@
+package org.woped.qualanalysis.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.woped.core.controller.IEditor;
+import org.woped.core.model.StructuralHash;
+import org.woped.core.utilities.LoggerManager;
+import org.woped.qualanalysis.Constants;
+
+/**
+ * Caches analysis results by the {@link StructuralHash} of the analysed net.
+ * <p>
+ * Results are kept in memory and the least recently used ones are dropped once their estimated size exceeds the
+ * capacity. The size of a result is the number of values it consists of, e.g. the number of ids in a list or the
+ * number of markings and arcs of a marking net, so a few large marking nets cannot fill the memory.
+ * <p>
+ * If a disk store is set, like with the {@code -cache} option of the batch analysis runner, serializable results are
+ * also written to one file per result and read again when they are not in memory, so an unchanged net is not
+ * analysed again in the next run. Results that cannot be serialized, like marking nets, are only kept in memory.
+ * <p>
+ * The cache only helps, it never fails: results that cannot be written or read are logged and calculated again.
+ */
+public class AnalysisResultCache {
+
+    // ! The estimated size of all results kept in memory, e.g. a marking net of 100000 markings and arcs
+    public static final long DEFAULT_CAPACITY = 1000000;
+    // ! Has to be increased whenever an analysis or the format of a cached result changes, so results stored on disk
+    // ! by an older version are not read
+    public static final int VERSION = 1;
+
+    private static final String FILE_SUFFIX = ".result";
+    // ! Appended to the name of results of sub process editors, which are analysed with a token on the source place
+    private static final String SUBPROCESS_SUFFIX = "@subprocess";
+
+    private static final AnalysisResultCache INSTANCE = new AnalysisResultCache(DEFAULT_CAPACITY);
+
+    private final long capacity;
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    private long weight = 0;
+    private File diskStore = null;
+    private int hits = 0;
+    private int misses = 0;
+
+    /**
+     * @param capacity the estimated size of all results kept in memory
+     */
+    public AnalysisResultCache(long capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity has to be at least one");
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return the cache shared by the analyses of all editors
+     */
+    public static AnalysisResultCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Gets the name of a result of the analysis of the net in the editor. Sub process editors analyse their net with a
+     * token on the source place, so their results are cached apart from those of the same net in other editors.
+     *
+     * @param name   the name of the result
+     * @param editor the editor containing the analysed net
+     * @return the name to cache the result with
+     */
+    public static String getName(String name, IEditor editor) {
+        return editor.isSubprocessEditor() ? name + SUBPROCESS_SUFFIX : name;
+    }
+
+    /**
+     * @param directory the directory to store the results in, or {@code null} to keep them in memory only
+     */
+    public synchronized void setDiskStore(File directory) {
+        this.diskStore = directory;
+    }
+
+    public synchronized File getDiskStore() {
+        return diskStore;
+    }
+
+    /**
+     * Gets a result from memory or, if it is not in memory, from the disk store.
+     *
+     * @param hash the structural hash of the net
+     * @param name the name of the result, including everything besides the net the result depends on
+     * @param type the expected type of the result
+     * @param <T>  the type of the result
+     * @return the result or {@code null} if no result of the expected type is cached
+     */
+    public synchronized <T> T get(StructuralHash hash, String name, Class<T> type) {
+        String key = getKey(hash, name);
+        Entry entry = entries.get(key);
+        Object value = entry == null ? null : entry.value;
+        if (value == null && diskStore != null) {
+            value = read(key);
+            if (value != null) add(key, value, estimateSize(value));
+        }
+        if (!type.isInstance(value)) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return type.cast(value);
+    }
+
+    /**
+     * Caches a result. Serializable results are also written to the disk store if it is set. The size of the result
+     * is estimated from the number of values of collections, any other result counts as a single value.
+     *
+     * @param hash  the structural hash of the net
+     * @param name  the name of the result, including everything besides the net the result depends on
+     * @param value the result
+     */
+    public void put(StructuralHash hash, String name, Object value) {
+        put(hash, name, value, estimateSize(value));
+    }
+
+    /**
+     * Caches a result of a known size. Serializable results are also written to the disk store if it is set. Results
+     * larger than the capacity are not kept in memory.
+     *
+     * @param hash  the structural hash of the net
+     * @param name  the name of the result, including everything besides the net the result depends on
+     * @param value the result
+     * @param size  the estimated size of the result
+     */
+    public synchronized void put(StructuralHash hash, String name, Object value, long size) {
+        if (value == null) return;
+        String key = getKey(hash, name);
+        add(key, value, Math.max(1, size));
+        if (diskStore != null && value instanceof Serializable) {
+            write(key, value);
+        }
+    }
+
+    /**
+     * Drops all results from memory. The disk store is left untouched.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * @return the number of results in memory
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the estimated size of the results in memory
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    public synchronized int getHits() {
+        return hits;
+    }
+
+    public synchronized int getMisses() {
+        return misses;
+    }
+
+    private static String getKey(StructuralHash hash, String name) {
+        return hash + "/" + VERSION + "/" + name;
+    }
+
+    /*
+     * Adds the entry and drops the least recently used entries until the capacity is kept
+     */
+    private void add(String key, Object value, long size) {
+        Entry old = entries.remove(key);
+        if (old != null) weight -= old.size;
+        if (size > capacity) return;
+        entries.put(key, new Entry(value, size));
+        weight += size;
+        Iterator<Entry> it = entries.values().iterator();
+        while (weight > capacity) {
+            weight -= it.next().size;
+            it.remove();
+        }
+    }
+
+    private static long estimateSize(Object value) {
+        if (!(value instanceof Collection)) return 1;
+        long size = 0;
+        for (Object element : (Collection<?>) value) {
+            size += estimateSize(element);
+        }
+        return size;
+    }
+
+    /*
+     * The file name is derived from the hash of the key. The key itself is stored in the file to tell collisions apart.
+     */
+    private File getFile(String key) {
+        String name = key.substring(0, key.indexOf('/'));
+        String keyHash = Integer.toHexString(key.hashCode());
+        return new File(diskStore, name + "-" + keyHash + FILE_SUFFIX);
+    }
+
+    private Object read(String key) {
+        File file = getFile(key);
+        if (!file.isFile()) return null;
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (!key.equals(in.readUTF())) return null;
+            return in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            LoggerManager.warn(Constants.QUALANALYSIS_LOGGER, "Cached analysis result " + file + " could not be read: "
+                    + e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(String key, Object value) {
+        File file = getFile(key);
+        Path temp = null;
+        try {
+            Files.createDirectories(diskStore.toPath());
+            temp = Files.createTempFile(diskStore.toPath(), "result", ".tmp");
+            try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeUTF(key);
+                out.writeObject(value);
+            }
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LoggerManager.warn(Constants.QUALANALYSIS_LOGGER, "Analysis result could not be cached in " + file + ": "
+                    + e.getMessage());
+            if (temp != null) temp.toFile().delete();
+        }
+    }
+
+    private static class Entry {
+        private final Object value;
+        private final long size;
+
+        private Entry(Object value, long size) {
+            this.value = value;
+            this.size = size;
+        }
+    }
+}
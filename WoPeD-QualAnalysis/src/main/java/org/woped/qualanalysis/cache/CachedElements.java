@@ -0,0 +1,157 @@
+package org.woped.qualanalysis.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.woped.core.controller.IEditor;
+import org.woped.core.model.ModelElementContainer;
+import org.woped.core.model.StructuralHash;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+
+/**
+ * Stores analysis results consisting of elements of the net in the {@link AnalysisResultCache}.
+ * <p>
+ * The elements are cached by their ids, so a result can be restored for another net with the same structural hash,
+ * e.g. after the net has been reopened. If an id cannot be found in the container, the cached result is ignored.
+ */
+public class CachedElements {
+
+    private final AnalysisResultCache cache;
+    private final ModelElementContainer container;
+    private final StructuralHash hash;
+    private final IEditor editor;
+
+    /**
+     * @param cache     the cache to use
+     * @param container the container the elements are restored from
+     */
+    public CachedElements(AnalysisResultCache cache, ModelElementContainer container) {
+        this(cache, container, null);
+    }
+
+    /**
+     * @param cache  the cache to use
+     * @param editor the editor whose net has been analysed, see {@link AnalysisResultCache#getName(String, IEditor)}
+     */
+    public CachedElements(AnalysisResultCache cache, IEditor editor) {
+        this(cache, editor.getModelProcessor().getElementContainer(), editor);
+    }
+
+    private CachedElements(AnalysisResultCache cache, ModelElementContainer container, IEditor editor) {
+        this.cache = cache;
+        this.container = container;
+        this.hash = container.getStructuralHash();
+        this.editor = editor;
+    }
+
+    /**
+     * @return the structural hash of the net at the time this object has been created
+     */
+    public StructuralHash getHash() {
+        return hash;
+    }
+
+    /**
+     * @param name the name of the result
+     * @return the cached elements or {@code null} if no result is cached
+     */
+    public Set<AbstractPetriNetElementModel> getSet(String name) {
+        @SuppressWarnings("unchecked")
+        ArrayList<String> ids = cache.get(hash, getName(name), ArrayList.class);
+        if (ids == null) return null;
+        return toElements(ids);
+    }
+
+    /**
+     * @param name     the name of the result
+     * @param elements the elements to cache
+     */
+    public void putSet(String name, Set<AbstractPetriNetElementModel> elements) {
+        ArrayList<String> ids = toIds(elements);
+        if (ids != null) cache.put(hash, getName(name), ids);
+    }
+
+    /**
+     * @param name the name of the result
+     * @return the cached sets of elements or {@code null} if no result is cached
+     */
+    public Set<Set<AbstractPetriNetElementModel>> getSetOfSets(String name) {
+        List<ArrayList<String>> groups = getGroups(name);
+        if (groups == null) return null;
+        Set<Set<AbstractPetriNetElementModel>> result = new HashSet<Set<AbstractPetriNetElementModel>>();
+        for (ArrayList<String> ids : groups) {
+            Set<AbstractPetriNetElementModel> elements = toElements(ids);
+            if (elements == null) return null;
+            result.add(elements);
+        }
+        return result;
+    }
+
+    /**
+     * @param name the name of the result
+     * @return the cached lists of elements or {@code null} if no result is cached
+     */
+    public Set<List<AbstractPetriNetElementModel>> getSetOfLists(String name) {
+        List<ArrayList<String>> groups = getGroups(name);
+        if (groups == null) return null;
+        Set<List<AbstractPetriNetElementModel>> result = new HashSet<List<AbstractPetriNetElementModel>>();
+        for (ArrayList<String> ids : groups) {
+            Set<AbstractPetriNetElementModel> elements = toElements(ids);
+            if (elements == null) return null;
+            List<AbstractPetriNetElementModel> list = new ArrayList<AbstractPetriNetElementModel>();
+            for (String id : ids) {
+                list.add(container.getElementById(id));
+            }
+            result.add(list);
+        }
+        return result;
+    }
+
+    /**
+     * @param name   the name of the result
+     * @param groups the sets or lists of elements to cache
+     */
+    public void putGroups(String name, Set<? extends Collection<AbstractPetriNetElementModel>> groups) {
+        ArrayList<ArrayList<String>> result = new ArrayList<ArrayList<String>>();
+        for (Collection<AbstractPetriNetElementModel> group : groups) {
+            ArrayList<String> ids = toIds(group);
+            if (ids == null) return;
+            result.add(ids);
+        }
+        cache.put(hash, getName(name), result);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ArrayList<String>> getGroups(String name) {
+        return cache.get(hash, getName(name), ArrayList.class);
+    }
+
+    private String getName(String name) {
+        return editor == null ? name : AnalysisResultCache.getName(name, editor);
+    }
+
+    /*
+     * Returns null if an element is not part of the container, as it could not be restored
+     */
+    private ArrayList<String> toIds(Collection<AbstractPetriNetElementModel> elements) {
+        ArrayList<String> ids = new ArrayList<String>(elements.size());
+        for (AbstractPetriNetElementModel element : elements) {
+            if (element == null || container.getElementById(element.getId()) != element) return null;
+            ids.add(element.getId());
+        }
+        return ids;
+    }
+
+    private Set<AbstractPetriNetElementModel> toElements(List<String> ids) {
+        Set<AbstractPetriNetElementModel> elements = new HashSet<AbstractPetriNetElementModel>();
+        for (String id : ids) {
+            AbstractPetriNetElementModel element = container.getElementById(id);
+            if (element == null) return null;
+            elements.add(element);
+        }
+        return elements;
+    }
+}
@@ -1,6 +1,7 @@
 package org.woped.qualanalysis.coverabilitygraph.gui;
 
 import org.woped.core.controller.IEditor;
+import org.woped.core.model.StructuralHash;
 
 /**
  * Provides functionality to validate the related editor.
@@ -8,11 +9,11 @@ import org.woped.core.controller.IEditor;
 public class EditorValidator {
 
     private final IEditor editor;
-    private String lastFingerprint;
+    private StructuralHash lastHash;
 
     public EditorValidator(IEditor editor){
         this.editor = editor;
-        lastFingerprint = getLogicalFingerprint();
+        lastHash = getStructuralHash();
     }
 
     /**
@@ -21,17 +22,17 @@ public class EditorValidator {
      * @return true if the petriNet has changed, otherwise false
      */
     public boolean hasChanged(){
-        return !lastFingerprint.equals(getLogicalFingerprint());
+        return !lastHash.equals(getStructuralHash());
     }
 
     /**
      * Accepts the changes in the petri net and set the current state of the net valid.
      */
     public void acceptChanges(){
-        this.lastFingerprint = getLogicalFingerprint();
+        this.lastHash = getStructuralHash();
     }
 
-    private String getLogicalFingerprint() {
-        return editor.getModelProcessor().getLogicalFingerprint();
+    private StructuralHash getStructuralHash() {
+        return editor.getModelProcessor().getStructuralHash();
     }
 }
@@ -11,8 +11,6 @@ import org.jgraph.graph.GraphConstants;
 import org.woped.core.controller.IEditor;
 import org.woped.qualanalysis.coverabilitygraph.gui.views.CoverabilityGraphViewFactory;
 import org.woped.qualanalysis.soundness.builder.BuilderFactory;
-import org.woped.qualanalysis.soundness.builder.lowlevelpetrinet.AbstractLowLevelPetriNetBuilder;
-import org.woped.qualanalysis.soundness.datamodel.LowLevelPetriNet;
 import org.woped.qualanalysis.soundness.marking.Arc;
 import org.woped.qualanalysis.soundness.marking.IMarking;
 import org.woped.qualanalysis.soundness.marking.IMarkingNet;
@@ -53,9 +51,7 @@ public class ReachabilityGraphModelUsingMarkingNet extends AbstractReachabilityG
     }
 
     private void computeReachabilityGraph() {
-        AbstractLowLevelPetriNetBuilder builder = BuilderFactory.createLowLevelPetriNetWithoutTStarBuilder(getEditor());
-        LowLevelPetriNet lowLevelPetriNet = builder.getLowLevelPetriNet();
-        markingNet = BuilderFactory.createMarkingNet(lowLevelPetriNet);
+        markingNet = BuilderFactory.getCachedMarkingNet(getEditor(), false);
         transformMarkingNet2ReachabilityJGraph();
     }
 
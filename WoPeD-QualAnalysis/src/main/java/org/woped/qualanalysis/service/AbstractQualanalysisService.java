@@ -1,14 +1,24 @@
 package org.woped.qualanalysis.service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import org.woped.core.controller.IEditor;
 import org.woped.core.model.ArcModel;
 import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
 import org.woped.core.model.petrinet.PlaceModel;
+import org.woped.qualanalysis.cache.AnalysisResultCache;
+import org.woped.qualanalysis.cache.CachedElements;
 import org.woped.qualanalysis.service.interfaces.INetStatistics;
 import org.woped.qualanalysis.service.interfaces.ISComponent;
 import org.woped.qualanalysis.service.interfaces.ISoundnessCheck;
@@ -20,12 +30,27 @@ import org.woped.qualanalysis.structure.components.ClusterElement;
 
 /**
  * abstract class for qualanalysis services contains all needed variables and getters
+ * <p>
+ * Every result is calculated on first use and declares the parts of the net it depends on, so a subclass following
+ * the changes of the net only discards the results affected by a change, see {@link #invalidate}.
+ * <p>
+ * The results of the S-component, handle and soundness analysis are also kept in the {@link AnalysisResultCache}, so
+ * they are not calculated again for a net with the same structural hash.
  * 
  * @author Patrick Spies, Patrick Kirchgaessner, Joern Liebau, Enrico Moeller, Sebastian Fuss
  * 
  */
 public abstract class AbstractQualanalysisService implements IQualanalysisService {
 
+    // names of the results in the analysis result cache
+    private static final String PT_HANDLES = "qualanalysis.ptHandles";
+    private static final String TP_HANDLES = "qualanalysis.tpHandles";
+    private static final String S_COMPONENTS = "qualanalysis.sComponents";
+    private static final String NOT_S_COVERED = "qualanalysis.notSCovered";
+    private static final String UNBOUNDED_PLACES = "qualanalysis.unboundedPlaces";
+    private static final String DEAD_TRANSITIONS = "qualanalysis.deadTransitions";
+    private static final String NON_LIVE_TRANSITIONS = "qualanalysis.nonLiveTransitions";
+
     protected IEditor editor = null;
     private StructuralAnalysis sA = null;
     protected ISComponent sComponent = null;
@@ -34,33 +59,67 @@ public abstract class AbstractQualanalysisService implements IQualanalysisServic
     private INetStatistics netStatistics = null;
     private IWellStructuredness wellStructuredness = null;
 
-    private Set<AbstractPetriNetElementModel> places = null;
-    private Set<AbstractPetriNetElementModel> transitions = null;
-    private Set<AbstractPetriNetElementModel> operators = null;
-    private Set<AbstractPetriNetElementModel> subprocesses = null;
-    private int numArcs = 0;
-    private Set<Set<AbstractPetriNetElementModel>> freeChoiceViolations = null;
-    private Set<AbstractPetriNetElementModel> wronglyUsedOperators = null;
-
-    private Set<AbstractPetriNetElementModel> notConnectedNodes = null;
-    private Set<AbstractPetriNetElementModel> notStronglyConnectedNodes = null;
-    private Set<Set<AbstractPetriNetElementModel>> stronglyConnectedComponents = null;
-    private Set<Set<AbstractPetriNetElementModel>> connectedComponents = null;
-    private Set<AbstractPetriNetElementModel> sourcePlaces = null;
-    private Set<AbstractPetriNetElementModel> sinkPlaces = null;
-    private Set<AbstractPetriNetElementModel> sourceTransitions = null;
-    private Set<AbstractPetriNetElementModel> sinkTransitions = null;
-    private Set<Set<AbstractPetriNetElementModel>> pTHandles = null;
-    private Set<Set<AbstractPetriNetElementModel>> tPHandles = null;
-    private HashSet<Set<ClusterElement>> m_handleClusters = null;
-    private Set<List<AbstractPetriNetElementModel>> sComponents = null;
-    private Set<AbstractPetriNetElementModel> notSCovered = null;
-    private Set<AbstractPetriNetElementModel> wronglyMarkedPlaces = null;
-    private Set<AbstractPetriNetElementModel> unboundedPlaces = null;
-    private Set<AbstractPetriNetElementModel> deadTransitions = null;
-    private Set<AbstractPetriNetElementModel> nonLiveTransitions = null;
-    private Set<ArcModel> arcWeightViolations;
-
+    // ! All results of the service, registered by result(), must be declared before them
+    private final List<Result<?>> results = new ArrayList<Result<?>>();
+
+    protected final Result<Set<AbstractPetriNetElementModel>> places = result(() -> netStatistics.getPlaces(),
+            Dependency.ELEMENTS);
+    protected final Result<Set<AbstractPetriNetElementModel>> transitions = result(
+            () -> netStatistics.getTransitions(), Dependency.ELEMENTS);
+    protected final Result<Set<AbstractPetriNetElementModel>> operators = result(() -> netStatistics.getOperators(),
+            Dependency.ELEMENTS);
+    protected final Result<Set<AbstractPetriNetElementModel>> subprocesses = result(
+            () -> netStatistics.getSubprocesses(), Dependency.ELEMENTS);
+    protected final Result<Integer> numArcs = result(() -> netStatistics.getNumArcs(), Dependency.ARCS);
+    // ! The free choice violation of every place causing one, the violations are the values of this map
+    protected final Result<Map<AbstractPetriNetElementModel, Set<AbstractPetriNetElementModel>>> freeChoiceGroups = result(
+            this::calcFreeChoiceGroups, Dependency.ELEMENTS, Dependency.ARCS);
+    protected final Result<Set<Set<AbstractPetriNetElementModel>>> freeChoiceViolations = result(
+            () -> new HashSet<Set<AbstractPetriNetElementModel>>(freeChoiceGroups.get().values()), Dependency.ELEMENTS,
+            Dependency.ARCS);
+    protected final Result<Set<AbstractPetriNetElementModel>> wronglyUsedOperators = result(
+            () -> sA.getMisusedOperators(), Dependency.ELEMENTS, Dependency.ARCS);
+
+    protected final Result<Set<AbstractPetriNetElementModel>> sourcePlaces = result(
+            () -> workflowCheck.getSourcePlaces(), Dependency.ELEMENTS, Dependency.ARCS);
+    protected final Result<Set<AbstractPetriNetElementModel>> sinkPlaces = result(() -> workflowCheck.getSinkPlaces(),
+            Dependency.ELEMENTS, Dependency.ARCS);
+    protected final Result<Set<AbstractPetriNetElementModel>> sourceTransitions = result(
+            () -> workflowCheck.getSourceTransitions(), Dependency.ELEMENTS, Dependency.ARCS);
+    protected final Result<Set<AbstractPetriNetElementModel>> sinkTransitions = result(
+            () -> workflowCheck.getSinkTransitions(), Dependency.ELEMENTS, Dependency.ARCS);
+    protected final Result<Set<Set<AbstractPetriNetElementModel>>> connectedComponents = result(
+            () -> workflowCheck.getConnectedComponents(), Dependency.ELEMENTS, Dependency.ARCS);
+    protected final Result<Set<AbstractPetriNetElementModel>> notConnectedNodes = result(this::calcNotConnectedNodes,
+            Dependency.ELEMENTS, Dependency.ARCS);
+    protected final Result<Set<AbstractPetriNetElementModel>> notStronglyConnectedNodes = result(
+            () -> workflowCheck.getNotStronglyConnectedNodes(), Dependency.ELEMENTS, Dependency.ARCS);
+    protected final Result<Set<Set<AbstractPetriNetElementModel>>> stronglyConnectedComponents = result(
+            () -> workflowCheck.getStronglyConnectedComponents(), Dependency.ELEMENTS, Dependency.ARCS);
+    protected final Result<Set<ArcModel>> arcWeightViolations = result(() -> workflowCheck.getArcWeightViolations(),
+            Dependency.ARCS, Dependency.ARC_WEIGHTS);
+
+    protected final Result<Set<Set<AbstractPetriNetElementModel>>> pTHandles = result(
+            () -> cachedGroups(PT_HANDLES, () -> wellStructuredness.getPTHandles()), Dependency.ELEMENTS,
+            Dependency.ARCS);
+    protected final Result<Set<Set<AbstractPetriNetElementModel>>> tPHandles = result(
+            () -> cachedGroups(TP_HANDLES, () -> wellStructuredness.getTPHandles()), Dependency.ELEMENTS,
+            Dependency.ARCS);
+    protected final Result<HashSet<Set<ClusterElement>>> m_handleClusters = result(
+            () -> wellStructuredness.getM_handleClusters(), Dependency.ELEMENTS, Dependency.ARCS);
+    protected final Result<Set<List<AbstractPetriNetElementModel>>> sComponents = result(this::calcSComponents,
+            Dependency.ELEMENTS, Dependency.ARCS);
+    protected final Result<Set<AbstractPetriNetElementModel>> notSCovered = result(
+            () -> cachedSet(NOT_S_COVERED, () -> sComponent.getNotSCovered()), Dependency.ELEMENTS, Dependency.ARCS);
+
+    protected final Result<Set<AbstractPetriNetElementModel>> wronglyMarkedPlaces = result(
+            this::calcWronglyMarkedPlaces, Dependency.ELEMENTS, Dependency.ARCS, Dependency.MARKING);
+    protected final Result<Set<AbstractPetriNetElementModel>> unboundedPlaces = result(
+            () -> cachedSet(UNBOUNDED_PLACES, () -> soundnessCheck.getUnboundedPlaces()), Dependency.values());
+    protected final Result<Set<AbstractPetriNetElementModel>> deadTransitions = result(
+            () -> cachedSet(DEAD_TRANSITIONS, () -> soundnessCheck.getDeadTransitions()), Dependency.values());
+    protected final Result<Set<AbstractPetriNetElementModel>> nonLiveTransitions = result(
+            () -> cachedSet(NON_LIVE_TRANSITIONS, () -> soundnessCheck.getNonLiveTransitions()), Dependency.values());
 
     public AbstractQualanalysisService(IEditor editor) {
         this.editor = editor;
@@ -70,181 +129,217 @@ public abstract class AbstractQualanalysisService implements IQualanalysisServic
         wellStructuredness = sA;
     }
 
-    public Set<AbstractPetriNetElementModel> getPlaces() {
-        if (places == null) {
-            places = netStatistics.getPlaces();
+    /**
+     * The parts of the net a result is calculated from.
+     */
+    protected enum Dependency {
+        /** the places, transitions, operators and subprocesses of the net */
+        ELEMENTS,
+        /** the arcs of the net */
+        ARCS,
+        /** the weights of the arcs */
+        ARC_WEIGHTS,
+        /** the initial marking */
+        MARKING
+    }
+
+    /**
+     * A result of the service, which is calculated on first use and kept until a part of the net it depends on
+     * changes.
+     * 
+     * @param <T> the type of the result
+     */
+    protected static final class Result<T> {
+
+        private final Supplier<T> calculation;
+        private final Set<Dependency> dependencies;
+        private T value = null;
+
+        private Result(Supplier<T> calculation, Dependency... dependencies) {
+            this.calculation = calculation;
+            this.dependencies = EnumSet.copyOf(Arrays.asList(dependencies));
+        }
+
+        /**
+         * @return the result, calculated if necessary
+         */
+        public T get() {
+            if (value == null) {
+                value = calculation.get();
+            }
+            return value;
+        }
+
+        /**
+         * @return the result if it has already been calculated, null otherwise
+         */
+        public T peek() {
+            return value;
+        }
+
+        /**
+         * Replaces the result by a value maintained by the caller.
+         * 
+         * @param value the new result
+         */
+        public void set(T value) {
+            this.value = value;
+        }
+
+        /**
+         * Discards the result, it is calculated again on next use.
+         */
+        public void reset() {
+            value = null;
+        }
+
+        private boolean dependsOn(Set<Dependency> changed) {
+            return !Collections.disjoint(dependencies, changed);
         }
-        return places;
     }
 
-    public Set<AbstractPetriNetElementModel> getTransitions() {
-        if (transitions == null) {
-            transitions = netStatistics.getTransitions();
+    /**
+     * Registers a result of the service.
+     * 
+     * @param <T> the type of the result
+     * @param calculation calculates the result
+     * @param dependencies the parts of the net the result is calculated from
+     * @return the result
+     */
+    private <T> Result<T> result(Supplier<T> calculation, Dependency... dependencies) {
+        Result<T> result = new Result<T>(calculation, dependencies);
+        results.add(result);
+        return result;
+    }
+
+    /**
+     * discards all results depending on the given parts of the net, except the results which the caller has already
+     * updated itself.
+     * 
+     * @param changed the parts of the net that changed
+     * @param updated the results already updated to the changed net
+     */
+    protected void invalidate(Set<Dependency> changed, Collection<Result<?>> updated) {
+        if (changed.contains(Dependency.ELEMENTS) || changed.contains(Dependency.ARCS)
+                || changed.contains(Dependency.ARC_WEIGHTS)) {
+            sA = new StructuralAnalysis(editor);
+            workflowCheck = new WorkflowCheckImplement(editor);
+            netStatistics = sA;
+            wellStructuredness = sA;
+        }
+        for (Result<?> result : results) {
+            if (result.dependsOn(changed) && !updated.contains(result)) {
+                result.reset();
+            }
         }
-        return transitions;
+    }
+
+    /**
+     * @return the structural analysis of the current net
+     */
+    protected StructuralAnalysis getStructuralAnalysis() {
+        return sA;
+    }
+
+    public Set<AbstractPetriNetElementModel> getPlaces() {
+        return places.get();
+    }
+
+    public Set<AbstractPetriNetElementModel> getTransitions() {
+        return transitions.get();
     }
 
     public Set<AbstractPetriNetElementModel> getOperators() {
-        if (operators == null) {
-            operators = netStatistics.getOperators();
-        }
-        return operators;
+        return operators.get();
     }
 
     public Set<AbstractPetriNetElementModel> getSubprocesses() {
-        if (subprocesses == null) {
-            subprocesses = netStatistics.getSubprocesses();
-        }
-        return subprocesses;
+        return subprocesses.get();
     }
 
     public int getNumArcs() {
-        if (numArcs == 0) {
-            numArcs = netStatistics.getNumArcs();
-        }
-        return numArcs;
+        return numArcs.get();
     }
 
     public Set<Set<AbstractPetriNetElementModel>> getFreeChoiceViolations() {
-        if (freeChoiceViolations == null) {
-            freeChoiceViolations = sA.getFreeChoiceViolations();
-        }
-        return freeChoiceViolations;
+        return freeChoiceViolations.get();
     }
 
     public Set<AbstractPetriNetElementModel> getWronglyUsedOperators() {
-        if (wronglyUsedOperators == null) {
-            wronglyUsedOperators = sA.getMisusedOperators();
-        }
-        return wronglyUsedOperators;
+        return wronglyUsedOperators.get();
     }
 
     public Set<AbstractPetriNetElementModel> getSourcePlaces() {
-        if (sourcePlaces == null) {
-            sourcePlaces = workflowCheck.getSourcePlaces();
-        }
-        return sourcePlaces;
+        return sourcePlaces.get();
     }
 
     public Set<AbstractPetriNetElementModel> getSinkPlaces() {
-        if (sinkPlaces == null) {
-            sinkPlaces = workflowCheck.getSinkPlaces();
-        }
-        return sinkPlaces;
+        return sinkPlaces.get();
     }
 
     public Set<AbstractPetriNetElementModel> getSourceTransitions() {
-        if (sourceTransitions == null) {
-            sourceTransitions = workflowCheck.getSourceTransitions();
-        }
-        return sourceTransitions;
+        return sourceTransitions.get();
     }
 
     public Set<AbstractPetriNetElementModel> getSinkTransitions() {
-        if (sinkTransitions == null) {
-            sinkTransitions = workflowCheck.getSinkTransitions();
-        }
-        return sinkTransitions;
+        return sinkTransitions.get();
     }
 
     public Set<AbstractPetriNetElementModel> getNotConnectedNodes() {
-        if (notConnectedNodes == null) {
-            notConnectedNodes = workflowCheck.getNotConnectedNodes();
-        }
-        return notConnectedNodes;
+        return notConnectedNodes.get();
     }
 
     public Set<Set<AbstractPetriNetElementModel>> getConnectedComponents() {
-        if (connectedComponents == null) {
-            connectedComponents = workflowCheck.getConnectedComponents();
-        }
-        return connectedComponents;
+        return connectedComponents.get();
     }
 
     public Set<AbstractPetriNetElementModel> getNotStronglyConnectedNodes() {
-        if (notStronglyConnectedNodes == null) {
-            notStronglyConnectedNodes = workflowCheck.getNotStronglyConnectedNodes();
-        }
-        return notStronglyConnectedNodes;
+        return notStronglyConnectedNodes.get();
     }
 
     @Override
     public Set<ArcModel> getArcWeightViolations() {
-        if(arcWeightViolations == null){
-            arcWeightViolations = workflowCheck.getArcWeightViolations();
-        }
-
-        return arcWeightViolations;
+        return arcWeightViolations.get();
     }
 
     public Set<Set<AbstractPetriNetElementModel>> getStronglyConnectedComponents() {
-        if (stronglyConnectedComponents == null) {
-            stronglyConnectedComponents = workflowCheck.getStronglyConnectedComponents();
-        }
-        return stronglyConnectedComponents;
+        return stronglyConnectedComponents.get();
     }
 
     public Set<Set<AbstractPetriNetElementModel>> getPTHandles() {
-        if (pTHandles == null) {
-            pTHandles = wellStructuredness.getPTHandles();
-        }
-        return pTHandles;
+        return pTHandles.get();
     }
 
     public Set<Set<AbstractPetriNetElementModel>> getTPHandles() {
-        if (tPHandles == null) {
-            tPHandles = wellStructuredness.getTPHandles();
-        }
-        return tPHandles;
+        return tPHandles.get();
     }
 
     public HashSet<Set<ClusterElement>> getM_handleClusters() {
-        if (m_handleClusters == null) {
-            m_handleClusters = wellStructuredness.getM_handleClusters();
-        }
-        return m_handleClusters;
+        return m_handleClusters.get();
     }
 
     public Set<List<AbstractPetriNetElementModel>> getSComponents() {
-        if (sComponents == null) {
-            sComponents = sComponent.getSComponents();
-        }
-        return sComponents;
+        return sComponents.get();
     }
 
     public Set<AbstractPetriNetElementModel> getNotSCovered() {
-        if (notSCovered == null) {
-            notSCovered = sComponent.getNotSCovered();
-        }
-        return notSCovered;
+        return notSCovered.get();
     }
 
     public Set<AbstractPetriNetElementModel> getWronglyMarkedPlaces() {
-        if (wronglyMarkedPlaces == null) {
-            wronglyMarkedPlaces = calcWronglyMarkedPlaces();
-        }
-        return wronglyMarkedPlaces;
+        return wronglyMarkedPlaces.get();
     }
 
     public Set<AbstractPetriNetElementModel> getUnboundedPlaces() {
-        if (unboundedPlaces == null) {
-            unboundedPlaces = soundnessCheck.getUnboundedPlaces();
-        }
-        return unboundedPlaces;
+        return unboundedPlaces.get();
     }
 
     public Set<AbstractPetriNetElementModel> getDeadTransitions() {
-        if (deadTransitions == null) {
-            deadTransitions = soundnessCheck.getDeadTransitions();
-        }
-        return deadTransitions;
+        return deadTransitions.get();
     }
 
     public Set<AbstractPetriNetElementModel> getNonLiveTransitions() {
-        if (nonLiveTransitions == null) {
-            nonLiveTransitions = soundnessCheck.getNonLiveTransitions();
-        }
-        return nonLiveTransitions;
+        return nonLiveTransitions.get();
     }
 
     /**
@@ -284,17 +379,11 @@ public abstract class AbstractQualanalysisService implements IQualanalysisServic
      * @return a set of AbstractElementModels (= places) which have wrong token count
      */
     private Set<AbstractPetriNetElementModel> calcWronglyMarkedPlaces() {
-        if (sourcePlaces == null) {
-            sourcePlaces = workflowCheck.getSourcePlaces();
-        }
-        if (places == null) {
-            places = netStatistics.getPlaces();
-        }
         Set<AbstractPetriNetElementModel> wronglyMarkedPlaces = new HashSet<AbstractPetriNetElementModel>();
-        Set<AbstractPetriNetElementModel> placesNotSource = new HashSet<AbstractPetriNetElementModel>(this.places);
-        placesNotSource.removeAll(this.sourcePlaces);
+        Set<AbstractPetriNetElementModel> placesNotSource = new HashSet<AbstractPetriNetElementModel>(getPlaces());
+        placesNotSource.removeAll(getSourcePlaces());
         // check if source place has one token
-        for (AbstractPetriNetElementModel place : this.sourcePlaces) {
+        for (AbstractPetriNetElementModel place : getSourcePlaces()) {
             if (((PlaceModel) place).getTokenCount() != 1) {
                 wronglyMarkedPlaces.add(place);
             }
@@ -308,6 +397,69 @@ public abstract class AbstractQualanalysisService implements IQualanalysisServic
         return wronglyMarkedPlaces;
     }
 
+    /**
+     * @return the free choice violation of every place causing one
+     */
+    private Map<AbstractPetriNetElementModel, Set<AbstractPetriNetElementModel>> calcFreeChoiceGroups() {
+        Map<AbstractPetriNetElementModel, Set<AbstractPetriNetElementModel>> groups = new HashMap<AbstractPetriNetElementModel, Set<AbstractPetriNetElementModel>>();
+        for (AbstractPetriNetElementModel place : getPlaces()) {
+            Set<AbstractPetriNetElementModel> group = sA.getFreeChoiceViolation(place);
+            if (group != null) {
+                groups.put(place, group);
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * @return all nodes of the net if it consists of more than one connected component, an empty set otherwise
+     */
+    private Set<AbstractPetriNetElementModel> calcNotConnectedNodes() {
+        if (getConnectedComponents().size() > 1) {
+            return new HashSet<AbstractPetriNetElementModel>(editor.getModelProcessor().getElementContainer()
+                    .getRootElements());
+        }
+        return new HashSet<AbstractPetriNetElementModel>();
+    }
+
+    private Set<List<AbstractPetriNetElementModel>> calcSComponents() {
+        CachedElements cached = getCachedElements();
+        Set<List<AbstractPetriNetElementModel>> sComponents = cached.getSetOfLists(S_COMPONENTS);
+        if (sComponents == null) {
+            sComponents = sComponent.getSComponents();
+            cached.putGroups(S_COMPONENTS, sComponents);
+        }
+        return sComponents;
+    }
+
+    private Set<Set<AbstractPetriNetElementModel>> cachedGroups(String name,
+            Supplier<Set<Set<AbstractPetriNetElementModel>>> calculation) {
+        CachedElements cached = getCachedElements();
+        Set<Set<AbstractPetriNetElementModel>> groups = cached.getSetOfSets(name);
+        if (groups == null) {
+            groups = calculation.get();
+            cached.putGroups(name, groups);
+        }
+        return groups;
+    }
+
+    private Set<AbstractPetriNetElementModel> cachedSet(String name, Supplier<Set<AbstractPetriNetElementModel>> calculation) {
+        CachedElements cached = getCachedElements();
+        Set<AbstractPetriNetElementModel> set = cached.getSet(name);
+        if (set == null) {
+            set = calculation.get();
+            cached.putSet(name, set);
+        }
+        return set;
+    }
+
+    /**
+     * @return access to the cached results for the current structure of the net
+     */
+    private CachedElements getCachedElements() {
+        return new CachedElements(AnalysisResultCache.getInstance(), editor);
+    }
+
     /**
      * 
      * @param <T> generic type.
@@ -0,0 +1,445 @@
+package org.woped.qualanalysis.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.woped.core.controller.IEditor;
+import org.woped.core.model.ArcModel;
+import org.woped.core.model.IModelElementContainerListener;
+import org.woped.core.model.ModelElementContainer;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+import org.woped.core.model.petrinet.PlaceModel;
+import org.woped.core.model.petrinet.SubProcessModel;
+import org.woped.qualanalysis.soundness.SComponentImplement;
+import org.woped.qualanalysis.soundness.SoundnessCheckImplement;
+import org.woped.qualanalysis.structure.NetAlgorithms;
+
+/**
+ * qualanalysis service that stays attached to the net of an editor and keeps its results across refreshes.
+ * <p>
+ * The service listens to the element container of the editor. Adding or removing a place, a transition or a
+ * subprocess updates the element statistics, the sources and sinks, the connected components and the free choice
+ * violations in place from the changed node and its neighbours, adding or removing an arc between them does the same
+ * for the arcs. All other results are only discarded if they depend on the changed part of the net. Changes involving
+ * an operator discard all structural results, as they also change the inner nodes of the operator. Changes inside the
+ * net of a subprocess are treated like a change of the arcs of the subprocess. Annotations like names, groups,
+ * triggers and resources as well as the temporary transition t* inserted by the analysis itself do not affect any
+ * result.
+ * <p>
+ * Token counts and arc weights are changed without container events. They are compared by {@link #revalidate()},
+ * a changed initial marking only discards the results based on the reachability graph.
+ */
+public class IncrementalQualanalysisService extends AbstractQualanalysisService implements
+        IModelElementContainerListener {
+
+    private static final String T_STAR_ID = "t*";
+
+    private ModelElementContainer container;
+    private long markingFingerprint;
+    private long arcWeightFingerprint;
+    // ! Listens to the nets of the subprocesses, keyed by the container of the subprocess net
+    private final Map<ModelElementContainer, SubprocessListener> subprocessListeners = new HashMap<ModelElementContainer, SubprocessListener>();
+
+    /**
+     * @param editor the editor the service is referring to
+     */
+    public IncrementalQualanalysisService(IEditor editor) {
+        super(editor);
+        sComponent = new SComponentImplement(editor);
+        soundnessCheck = new SoundnessCheckImplement(editor);
+        attach(editor.getModelProcessor().getElementContainer());
+    }
+
+    /**
+     * discards the results invalidated by changes of token counts or arc weights since the last call.
+     * <p>
+     * If the editor has switched to another element container in the meantime, the service follows it and discards
+     * all results.
+     */
+    public void revalidate() {
+        ModelElementContainer current = editor.getModelProcessor().getElementContainer();
+        if ( current != container ) {
+            detach();
+            attach(current);
+            invalidate(EnumSet.allOf(Dependency.class), Collections.<Result<?>> emptySet());
+            return;
+        }
+
+        long marking = calcMarkingFingerprint();
+        long arcWeights = calcArcWeightFingerprint();
+
+        if ( arcWeights != arcWeightFingerprint ) {
+            invalidate(EnumSet.of(Dependency.ARC_WEIGHTS), Collections.<Result<?>> emptySet());
+        }
+        if ( marking != markingFingerprint ) {
+            invalidate(EnumSet.of(Dependency.MARKING), Collections.<Result<?>> emptySet());
+        }
+        markingFingerprint = marking;
+        arcWeightFingerprint = arcWeights;
+    }
+
+    @Override
+    public void cleanup() {
+        detach();
+    }
+
+    @Override
+    public void elementAdded(AbstractPetriNetElementModel element) {
+        if ( !isNetElement(element) ) return;
+
+        if ( element.getType() == AbstractPetriNetElementModel.PLACE_TYPE ) {
+            markingFingerprint += mix(element.getId().hashCode(), ((PlaceModel) element).getTokenCount());
+        }
+        if ( element.getType() == AbstractPetriNetElementModel.SUBP_TYPE ) {
+            addSubprocessListener((SubProcessModel) element);
+        }
+        if ( !isSimpleNode(element) ) {
+            invalidate(EnumSet.of(Dependency.ELEMENTS), Collections.<Result<?>> emptySet());
+            return;
+        }
+
+        // a new node has no arcs, it is a source and a sink and a connected component of its own
+        List<Result<?>> updated = new ArrayList<Result<?>>(Arrays.<Result<?>> asList(places, transitions, operators,
+                subprocesses, numArcs, freeChoiceGroups, freeChoiceViolations, wronglyUsedOperators));
+        addToKind(element, places, transitions, subprocesses);
+        addToKind(element, sourcePlaces, sourceTransitions, null);
+        addToKind(element, sinkPlaces, sinkTransitions, null);
+        updated.addAll(Arrays.<Result<?>> asList(sourcePlaces, sourceTransitions, sinkPlaces, sinkTransitions));
+        if ( connectedComponents.peek() != null ) {
+            connectedComponents.peek().add(new HashSet<AbstractPetriNetElementModel>(Collections.singleton(element)));
+        }
+        updated.add(connectedComponents);
+        invalidate(EnumSet.of(Dependency.ELEMENTS), updated);
+    }
+
+    @Override
+    public void elementRemoved(AbstractPetriNetElementModel element) {
+        if ( !isNetElement(element) ) return;
+
+        if ( element.getType() == AbstractPetriNetElementModel.PLACE_TYPE ) {
+            markingFingerprint -= mix(element.getId().hashCode(), ((PlaceModel) element).getTokenCount());
+        }
+        if ( element.getType() == AbstractPetriNetElementModel.SUBP_TYPE ) {
+            removeSubprocessListener((SubProcessModel) element);
+        }
+        // the container removes the arcs of an element before the element, otherwise the arcs are left dangling
+        if ( !isSimpleNode(element) || !container.getIncomingArcs(element.getId()).isEmpty()
+                || !container.getOutgoingArcs(element.getId()).isEmpty() ) {
+            invalidate(EnumSet.of(Dependency.ELEMENTS, Dependency.ARCS), Collections.<Result<?>> emptySet());
+            return;
+        }
+
+        List<Result<?>> updated = new ArrayList<Result<?>>(Arrays.<Result<?>> asList(places, transitions, operators,
+                subprocesses, numArcs, wronglyUsedOperators, sourcePlaces, sourceTransitions, sinkPlaces,
+                sinkTransitions));
+        for ( Result<Set<AbstractPetriNetElementModel>> result : Arrays.asList(places, transitions, subprocesses,
+                sourcePlaces, sourceTransitions, sinkPlaces, sinkTransitions) ) {
+            if ( result.peek() != null ) result.peek().remove(element);
+        }
+        // a node without arcs never takes part in a free choice violation
+        if ( freeChoiceGroups.peek() == null || freeChoiceGroups.peek().remove(element) == null ) {
+            updated.add(freeChoiceGroups);
+            updated.add(freeChoiceViolations);
+        }
+        if ( connectedComponents.peek() == null || connectedComponents.peek().remove(Collections.singleton(element)) ) {
+            updated.add(connectedComponents);
+        }
+        invalidate(EnumSet.of(Dependency.ELEMENTS), updated);
+    }
+
+    @Override
+    public void arcAdded(ArcModel arc) {
+        if ( !isNetArc(arc) ) return;
+
+        arcWeightFingerprint += mix(arc.getId().hashCode(), arc.getInscriptionValue());
+        AbstractPetriNetElementModel source = container.getElementById(arc.getSourceId());
+        AbstractPetriNetElementModel target = container.getElementById(arc.getTargetId());
+        if ( !isSimpleNode(source) || !isSimpleNode(target) ) {
+            invalidate(EnumSet.of(Dependency.ELEMENTS, Dependency.ARCS), Collections.<Result<?>> emptySet());
+            return;
+        }
+
+        List<Result<?>> updated = new ArrayList<Result<?>>(Arrays.<Result<?>> asList(places, transitions, operators,
+                subprocesses, wronglyUsedOperators, sourcePlaces, sourceTransitions, sinkPlaces, sinkTransitions,
+                numArcs, freeChoiceGroups, freeChoiceViolations));
+        removeFromKind(target, sourcePlaces, sourceTransitions);
+        removeFromKind(source, sinkPlaces, sinkTransitions);
+        if ( numArcs.peek() != null ) numArcs.set(numArcs.peek() + 1);
+        updateFreeChoiceViolations(source, target);
+        if ( mergeConnectedComponents(source, target) ) {
+            updated.add(connectedComponents);
+        }
+        invalidate(EnumSet.of(Dependency.ARCS), updated);
+    }
+
+    @Override
+    public void arcRemoved(ArcModel arc) {
+        if ( !isNetArc(arc) ) return;
+
+        arcWeightFingerprint -= mix(arc.getId().hashCode(), arc.getInscriptionValue());
+        AbstractPetriNetElementModel source = container.getElementById(arc.getSourceId());
+        AbstractPetriNetElementModel target = container.getElementById(arc.getTargetId());
+        if ( !isSimpleNode(source) || !isSimpleNode(target) ) {
+            invalidate(EnumSet.of(Dependency.ELEMENTS, Dependency.ARCS), Collections.<Result<?>> emptySet());
+            return;
+        }
+
+        // the connected component may fall apart, it is calculated again
+        List<Result<?>> updated = new ArrayList<Result<?>>(Arrays.<Result<?>> asList(places, transitions, operators,
+                subprocesses, wronglyUsedOperators, sourcePlaces, sourceTransitions, sinkPlaces, sinkTransitions,
+                numArcs, freeChoiceGroups, freeChoiceViolations));
+        if ( !hasNetArcs(container.getIncomingArcs(target.getId()).values(), true) ) {
+            addToKind(target, sourcePlaces, sourceTransitions, null);
+        }
+        if ( !hasNetArcs(container.getOutgoingArcs(source.getId()).values(), false) ) {
+            addToKind(source, sinkPlaces, sinkTransitions, null);
+        }
+        if ( numArcs.peek() != null ) numArcs.set(numArcs.peek() - 1);
+        updateFreeChoiceViolations(source, target);
+        invalidate(EnumSet.of(Dependency.ARCS), updated);
+    }
+
+    @Override
+    protected void invalidate(Set<Dependency> changed, Collection<Result<?>> updated) {
+        super.invalidate(changed, updated);
+        if ( changed.contains(Dependency.ELEMENTS) || changed.contains(Dependency.ARCS) ) {
+            sComponent = new SComponentImplement(editor);
+        }
+        soundnessCheck = new SoundnessCheckImplement(editor);
+    }
+
+    /**
+     * starts listening to the given container and to the nets of its subprocesses.
+     */
+    private void attach(ModelElementContainer container) {
+        this.container = container;
+        container.addModelElementContainerListener(this);
+        for ( AbstractPetriNetElementModel element : container.getRootElements() ) {
+            if ( element.getType() == AbstractPetriNetElementModel.SUBP_TYPE ) {
+                addSubprocessListener((SubProcessModel) element);
+            }
+        }
+        markingFingerprint = calcMarkingFingerprint();
+        arcWeightFingerprint = calcArcWeightFingerprint();
+    }
+
+    private void detach() {
+        container.removeModelElementContainerListener(this);
+        for ( Map.Entry<ModelElementContainer, SubprocessListener> entry : subprocessListeners.entrySet() ) {
+            entry.getKey().removeModelElementContainerListener(entry.getValue());
+        }
+        subprocessListeners.clear();
+    }
+
+    private void addSubprocessListener(SubProcessModel subprocess) {
+        ModelElementContainer subprocessContainer = subprocess.getSimpleTransContainer();
+        if ( subprocessContainer == null || subprocessListeners.containsKey(subprocessContainer) ) return;
+
+        SubprocessListener listener = new SubprocessListener();
+        subprocessContainer.addModelElementContainerListener(listener);
+        subprocessListeners.put(subprocessContainer, listener);
+    }
+
+    private void removeSubprocessListener(SubProcessModel subprocess) {
+        SubprocessListener listener = subprocessListeners.remove(subprocess.getSimpleTransContainer());
+        if ( listener != null ) subprocess.getSimpleTransContainer().removeModelElementContainerListener(listener);
+    }
+
+    /**
+     * Adds a node to the result matching its kind, subprocesses are transitions as well.
+     */
+    private static void addToKind(AbstractPetriNetElementModel node, Result<Set<AbstractPetriNetElementModel>> placeResult,
+            Result<Set<AbstractPetriNetElementModel>> transitionResult,
+            Result<Set<AbstractPetriNetElementModel>> subprocessResult) {
+        if ( node.getType() == AbstractPetriNetElementModel.PLACE_TYPE ) {
+            if ( placeResult.peek() != null ) placeResult.peek().add(node);
+            return;
+        }
+        if ( transitionResult.peek() != null ) transitionResult.peek().add(node);
+        if ( subprocessResult != null && subprocessResult.peek() != null
+                && node.getType() == AbstractPetriNetElementModel.SUBP_TYPE ) {
+            subprocessResult.peek().add(node);
+        }
+    }
+
+    private static void removeFromKind(AbstractPetriNetElementModel node,
+            Result<Set<AbstractPetriNetElementModel>> placeResult,
+            Result<Set<AbstractPetriNetElementModel>> transitionResult) {
+        Result<Set<AbstractPetriNetElementModel>> result = node.getType() == AbstractPetriNetElementModel.PLACE_TYPE
+                ? placeResult : transitionResult;
+        if ( result.peek() != null ) result.peek().remove(node);
+    }
+
+    /**
+     * An arc from a place changes the violation of that place. As the violation of a place compares the predecessors
+     * of its successors, an arc to a transition also changes the violations of all places preceding the transition.
+     * Arcs from a transition to a place are no part of any violation.
+     */
+    private void updateFreeChoiceViolations(AbstractPetriNetElementModel source, AbstractPetriNetElementModel target) {
+        Map<AbstractPetriNetElementModel, Set<AbstractPetriNetElementModel>> groups = freeChoiceGroups.peek();
+        if ( groups == null || source.getType() != AbstractPetriNetElementModel.PLACE_TYPE ) return;
+
+        Set<AbstractPetriNetElementModel> affected = NetAlgorithms.getDirectlyConnectedNodes(target,
+                NetAlgorithms.connectionTypeINBOUND);
+        affected.add(source);
+        for ( AbstractPetriNetElementModel place : affected ) {
+            if ( place.getType() != AbstractPetriNetElementModel.PLACE_TYPE ) continue;
+
+            Set<AbstractPetriNetElementModel> group = getStructuralAnalysis().getFreeChoiceViolation(place);
+            if ( group != null ) {
+                groups.put(place, group);
+            } else {
+                groups.remove(place);
+            }
+        }
+        Set<Set<AbstractPetriNetElementModel>> violations = freeChoiceViolations.peek();
+        if ( violations != null ) {
+            violations.clear();
+            violations.addAll(groups.values());
+        }
+    }
+
+    /**
+     * @return true if the connected components are up to date after the merge, false if they have to be calculated
+     *         again
+     */
+    private boolean mergeConnectedComponents(AbstractPetriNetElementModel source, AbstractPetriNetElementModel target) {
+        Set<Set<AbstractPetriNetElementModel>> components = connectedComponents.peek();
+        if ( components == null ) return true;
+
+        Set<AbstractPetriNetElementModel> sourceComponent = null;
+        Set<AbstractPetriNetElementModel> targetComponent = null;
+        for ( Set<AbstractPetriNetElementModel> component : components ) {
+            if ( component.contains(source) ) sourceComponent = component;
+            if ( component.contains(target) ) targetComponent = component;
+        }
+        if ( sourceComponent == null || targetComponent == null ) return false;
+
+        if ( sourceComponent != targetComponent ) {
+            // the components are elements of a hash set, so they are replaced instead of changed
+            components.remove(sourceComponent);
+            components.remove(targetComponent);
+            Set<AbstractPetriNetElementModel> merged = new HashSet<AbstractPetriNetElementModel>(sourceComponent);
+            merged.addAll(targetComponent);
+            components.add(merged);
+        }
+        return true;
+    }
+
+    /**
+     * @param arcs the incoming or outgoing arcs of a node
+     * @param incoming true if the arcs are incoming arcs
+     * @return true if any of the arcs is an arc of the analysed net
+     */
+    private static boolean hasNetArcs(Collection<?> arcs, boolean incoming) {
+        for ( Object arc : arcs ) {
+            ArcModel netArc = (ArcModel) arc;
+            if ( !T_STAR_ID.equals(incoming ? netArc.getSourceId() : netArc.getTargetId()) ) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param element the element to check
+     * @return true if the element is a node of the analysed net
+     */
+    private boolean isNetElement(AbstractPetriNetElementModel element) {
+        if ( T_STAR_ID.equals(element.getId()) ) return false;
+
+        switch ( element.getType() ) {
+        case AbstractPetriNetElementModel.PLACE_TYPE:
+        case AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE:
+        case AbstractPetriNetElementModel.TRANS_OPERATOR_TYPE:
+        case AbstractPetriNetElementModel.SUBP_TYPE:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * @param node the node to check
+     * @return true if the node is a node of the analysed net without inner nodes, i.e. no operator
+     */
+    private boolean isSimpleNode(AbstractPetriNetElementModel node) {
+        return node != null && isNetElement(node) && node.getType() != AbstractPetriNetElementModel.TRANS_OPERATOR_TYPE;
+    }
+
+    /**
+     * @param arc the arc to check
+     * @return true if the arc connects two nodes of the analysed net
+     */
+    private boolean isNetArc(ArcModel arc) {
+        return !T_STAR_ID.equals(arc.getSourceId()) && !T_STAR_ID.equals(arc.getTargetId());
+    }
+
+    /**
+     * @return an order independent hash of the token counts of all places
+     */
+    private long calcMarkingFingerprint() {
+        long fingerprint = 0;
+        for ( AbstractPetriNetElementModel element : container.getRootElements() ) {
+            if ( element.getType() == AbstractPetriNetElementModel.PLACE_TYPE ) {
+                fingerprint += mix(element.getId().hashCode(), ((PlaceModel) element).getTokenCount());
+            }
+        }
+        return fingerprint;
+    }
+
+    /**
+     * @return an order independent hash of the weights of all arcs
+     */
+    private long calcArcWeightFingerprint() {
+        long fingerprint = 0;
+        for ( ArcModel arc : container.getArcMap().values() ) {
+            fingerprint += mix(arc.getId().hashCode(), arc.getInscriptionValue());
+        }
+        return fingerprint;
+    }
+
+    private static long mix(int key, int value) {
+        long h = ((long) key << 32) ^ (value & 0xFFFFFFFFL);
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * Listens to the net of a subprocess. A subprocess stands for its net, so a change of the net is treated like a
+     * change of the arcs of the subprocess.
+     */
+    private class SubprocessListener implements IModelElementContainerListener {
+
+        @Override
+        public void elementAdded(AbstractPetriNetElementModel element) {
+            if ( isNetElement(element) ) subprocessChanged();
+        }
+
+        @Override
+        public void elementRemoved(AbstractPetriNetElementModel element) {
+            if ( isNetElement(element) ) subprocessChanged();
+        }
+
+        @Override
+        public void arcAdded(ArcModel arc) {
+            if ( isNetArc(arc) ) subprocessChanged();
+        }
+
+        @Override
+        public void arcRemoved(ArcModel arc) {
+            if ( isNetArc(arc) ) subprocessChanged();
+        }
+
+        private void subprocessChanged() {
+            invalidate(EnumSet.of(Dependency.ARCS), Collections.<Result<?>> emptySet());
+        }
+    }
+}
@@ -18,4 +18,13 @@ public class QualAnalysisServiceFactory {
     public static IQualanalysisService createNewQualAnalysisService(IEditor editor) {
         return new QualanalysisServiceImplement(editor);
     }
+
+    /**
+     * 
+     * @param editor creates service for the provided editor.
+     * @return QualanalysisServiceObject that keeps its results until the net of the editor changes
+     */
+    public static IncrementalQualanalysisService createIncrementalQualAnalysisService(IEditor editor) {
+        return new IncrementalQualanalysisService(editor);
+    }
 }
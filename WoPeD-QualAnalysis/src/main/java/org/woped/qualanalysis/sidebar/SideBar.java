@@ -9,7 +9,7 @@ import org.woped.core.controller.AbstractApplicationMediator;
 import org.woped.core.controller.IEditor;
 import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
 import org.woped.gui.translations.Messages;
-import org.woped.qualanalysis.service.IQualanalysisService;
+import org.woped.qualanalysis.service.IncrementalQualanalysisService;
 import org.woped.qualanalysis.service.QualAnalysisServiceFactory;
 import org.woped.qualanalysis.sidebar.assistant.StartPage;
 import org.woped.qualanalysis.sidebar.components.PermanentTabbedPane;
@@ -25,7 +25,7 @@ import org.woped.qualanalysis.sidebar.expert.ExpertPage;
 @SuppressWarnings("serial")
 public class SideBar extends PermanentTabbedPane {
 
-	private IQualanalysisService qualanService = null;
+	private IncrementalQualanalysisService qualanService = null;
 
 	private IEditor editor = null;
 
@@ -113,9 +113,11 @@ public class SideBar extends PermanentTabbedPane {
 	 */
 	@Override
 	public void refresh() {
-		cleanUp();
+		// the service follows the changes of the net, so only outdated results
+		// are calculated again
+		editor.getModelProcessor().removeHighlighting();
 		editor.updateNet();
-		qualanService = getQualanalysisService();
+		getQualanalysisService().revalidate();
 		beginnerContainer.removeAll();
 		expertContainer.removeAll();
 		addComponents();
@@ -148,13 +150,12 @@ public class SideBar extends PermanentTabbedPane {
 	 * @return reference to current or if null a new Instance of Qualanalysis
 	 * Service
 	 */
-	public IQualanalysisService getQualanalysisService() {
-		if (qualanService != null) {
-			return qualanService;
-		} else {
-			return QualAnalysisServiceFactory
-					.createNewQualAnalysisService(editor);
+	public IncrementalQualanalysisService getQualanalysisService() {
+		if (qualanService == null) {
+			qualanService = QualAnalysisServiceFactory
+					.createIncrementalQualAnalysisService(editor);
 		}
+		return qualanService;
 	}
 
 	public JPanel getBeginnerContainer() {
@@ -0,0 +1,225 @@
+package org.woped.qualanalysis.simulation;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.woped.core.model.ArcModel;
+import org.woped.core.model.ModelElementContainer;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+import org.woped.core.model.petrinet.OperatorTransitionModel;
+import org.woped.core.model.petrinet.PlaceModel;
+import org.woped.core.model.petrinet.TransitionModel;
+
+/**
+ * Keeps track of the transitions that are enabled in the token game.
+ * <p>
+ * The incoming arcs of the transitions are read once when the tracker is created. For every transition it counts the
+ * incoming arcs whose place holds enough tokens. When tokens have been moved, only the transitions in the postset of
+ * the changed places are checked again. Operators that keep tokens in a center place are checked on every update, as
+ * their center place is not part of the net.
+ * <p>
+ * The tracker has to be created again when the structure of the net changes.
+ */
+public class EnabledTransitions {
+
+    private final TransitionModel[] transitions;
+    private final Map<String, Integer> transitionIndexes = new HashMap<>();
+    private final PlaceModel[] places;
+    private final Map<String, Integer> placeIndexes = new HashMap<>();
+
+    // ! Token count of each place when it has been checked the last time
+    private final int[] tokens;
+    // ! Transitions in the postset of each place and the weights of the arcs leading to them
+    private final int[][] postsetTransitions;
+    private final int[][] postsetWeights;
+    // ! Number of incoming arcs of each transition and the number of those whose place holds enough tokens
+    private final int[] inputArcs;
+    private final int[] activeInputArcs;
+    private final int[] centerPlaceOperators;
+
+    private final BitSet changedPlaces = new BitSet();
+    private final BitSet enabled = new BitSet();
+
+    /**
+     * @param container   the container holding the arcs of the net
+     * @param transitions the transitions of the token game, in the order they are offered to the user
+     */
+    public EnabledTransitions(ModelElementContainer container, Collection<AbstractPetriNetElementModel> transitions) {
+        this.transitions = new TransitionModel[transitions.size()];
+        inputArcs = new int[this.transitions.length];
+        activeInputArcs = new int[this.transitions.length];
+
+        List<PlaceModel> placeList = new ArrayList<>();
+        List<List<int[]>> postsets = new ArrayList<>();
+        List<Integer> operators = new ArrayList<>();
+        int t = 0;
+        for ( AbstractPetriNetElementModel element : transitions ) {
+            TransitionModel transition = (TransitionModel) element;
+            this.transitions[t] = transition;
+            transitionIndexes.put(transition.getId(), t);
+            if ( transition.getType() == AbstractPetriNetElementModel.TRANS_OPERATOR_TYPE && ((OperatorTransitionModel) transition).getCenterPlace() != null ) {
+                operators.add(t);
+            }
+
+            for ( ArcModel arc : container.getIncomingArcs(transition.getId()).values() ) {
+                inputArcs[t]++;
+                AbstractPetriNetElementModel source = container.getElementById(arc.getSourceId());
+                if ( !(source instanceof PlaceModel) ) {
+                    // can never be satisfied
+                    continue;
+                }
+                Integer p = placeIndexes.get(source.getId());
+                if ( p == null ) {
+                    p = placeList.size();
+                    placeIndexes.put(source.getId(), p);
+                    placeList.add((PlaceModel) source);
+                    postsets.add(new ArrayList<int[]>());
+                }
+                postsets.get(p).add(new int[] { t, arc.getInscriptionValue() });
+            }
+            t++;
+        }
+
+        places = placeList.toArray(new PlaceModel[0]);
+        tokens = new int[places.length];
+        postsetTransitions = new int[places.length][];
+        postsetWeights = new int[places.length][];
+        for ( int p = 0; p < places.length; p++ ) {
+            List<int[]> postset = postsets.get(p);
+            postsetTransitions[p] = new int[postset.size()];
+            postsetWeights[p] = new int[postset.size()];
+            for ( int i = 0; i < postset.size(); i++ ) {
+                postsetTransitions[p][i] = postset.get(i)[0];
+                postsetWeights[p][i] = postset.get(i)[1];
+            }
+        }
+        centerPlaceOperators = new int[operators.size()];
+        for ( int i = 0; i < centerPlaceOperators.length; i++ ) {
+            centerPlaceOperators[i] = operators.get(i);
+        }
+
+        reset();
+    }
+
+    /**
+     * Remembers that the token count of the place has changed. Places without outgoing arcs are ignored.
+     *
+     * @param place the place whose tokens have been moved
+     */
+    public void placeChanged(PlaceModel place) {
+        Integer p = placeIndexes.get(place.getId());
+        if ( p != null ) {
+            changedPlaces.set(p);
+        }
+    }
+
+    /**
+     * Checks the transitions in the postset of the places that have changed since the last update.
+     */
+    public void update() {
+        for ( int p = changedPlaces.nextSetBit(0); p >= 0; p = changedPlaces.nextSetBit(p + 1) ) {
+            int before = tokens[p];
+            int after = places[p].getVirtualTokenCount();
+            tokens[p] = after;
+            for ( int i = 0; i < postsetTransitions[p].length; i++ ) {
+                int weight = postsetWeights[p][i];
+                if ( (before >= weight) != (after >= weight) ) {
+                    int t = postsetTransitions[p][i];
+                    activeInputArcs[t] += after >= weight ? 1 : -1;
+                    enabled.set(t, check(t));
+                }
+            }
+        }
+        changedPlaces.clear();
+
+        for ( int t : centerPlaceOperators ) {
+            enabled.set(t, check(t));
+        }
+    }
+
+    /**
+     * Checks all transitions again, e.g. after the tokens of all places have been reset.
+     */
+    public void reset() {
+        changedPlaces.clear();
+        for ( int t = 0; t < transitions.length; t++ ) {
+            activeInputArcs[t] = 0;
+        }
+        for ( int p = 0; p < places.length; p++ ) {
+            tokens[p] = places[p].getVirtualTokenCount();
+            for ( int i = 0; i < postsetTransitions[p].length; i++ ) {
+                if ( tokens[p] >= postsetWeights[p][i] ) {
+                    activeInputArcs[postsetTransitions[p][i]]++;
+                }
+            }
+        }
+        for ( int t = 0; t < transitions.length; t++ ) {
+            enabled.set(t, check(t));
+        }
+    }
+
+    /**
+     * @return the enabled transitions in the order they have been passed to the tracker
+     */
+    public List<TransitionModel> getEnabled() {
+        List<TransitionModel> result = new ArrayList<>(enabled.cardinality());
+        for ( int t = enabled.nextSetBit(0); t >= 0; t = enabled.nextSetBit(t + 1) ) {
+            result.add(transitions[t]);
+        }
+        return result;
+    }
+
+    /**
+     * Same as {@link TransitionModel#isActivated()}, without reading the arcs of the transition again.
+     *
+     * @param transition the transition to check
+     * @return true if all incoming arcs of the transition are satisfied
+     */
+    public boolean isActivated(TransitionModel transition) {
+        Integer t = transitionIndexes.get(transition.getId());
+        if ( t == null ) {
+            return transition.isActivated();
+        }
+        return activeInputArcs[t] == inputArcs[t];
+    }
+
+    /**
+     * Same as {@link TransitionModel#getNumIncomingActivePlaces()} {@code > 0}, without reading the arcs of the
+     * transition again.
+     *
+     * @param transition the transition to check
+     * @return true if at least one incoming arc of the transition is satisfied
+     */
+    public boolean hasActiveInput(TransitionModel transition) {
+        Integer t = transitionIndexes.get(transition.getId());
+        if ( t == null ) {
+            return transition.getNumIncomingActivePlaces() > 0;
+        }
+        return activeInputArcs[t] > 0;
+    }
+
+    /*
+     * Applies the firing rule of the token game to the transition
+     */
+    private boolean check(int t) {
+        TransitionModel transition = transitions[t];
+        if ( transition.getType() == AbstractPetriNetElementModel.TRANS_OPERATOR_TYPE ) {
+            OperatorTransitionModel operator = (OperatorTransitionModel) transition;
+            switch ( operator.getOperatorType() ) {
+                case OperatorTransitionModel.XOR_JOIN_TYPE:
+                case OperatorTransitionModel.XORJOIN_ANDSPLIT_TYPE:
+                    return activeInputArcs[t] > 0;
+                case OperatorTransitionModel.XORJOIN_XORSPLIT_TYPE:
+                    PlaceModel centerPlace = operator.getCenterPlace();
+                    return activeInputArcs[t] > 0 || (centerPlace != null && centerPlace.getVirtualTokenCount() > 0);
+                default:
+                    break;
+            }
+        }
+        return activeInputArcs[t] == inputArcs[t];
+    }
+}
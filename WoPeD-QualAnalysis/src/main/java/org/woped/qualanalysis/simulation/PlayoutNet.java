@@ -0,0 +1,167 @@
+package org.woped.qualanalysis.simulation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.woped.core.controller.HeadlessEditor;
+import org.woped.core.controller.IEditor;
+import org.woped.core.model.ModelElementContainer;
+import org.woped.core.model.PetriNetModelProcessor;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+import org.woped.core.model.petrinet.SubProcessModel;
+import org.woped.qualanalysis.soundness.builder.BuilderFactory;
+import org.woped.qualanalysis.soundness.datamodel.AbstractNode;
+import org.woped.qualanalysis.soundness.datamodel.CompiledPetriNet;
+import org.woped.qualanalysis.soundness.datamodel.LowLevelPetriNet;
+import org.woped.qualanalysis.soundness.datamodel.PlaceNode;
+import org.woped.qualanalysis.soundness.datamodel.TransitionNode;
+
+/**
+ * The net a {@link TokenGamePlayout} plays for an editor, in which sub processes are stepped into like in the token
+ * game.
+ * <p>
+ * The nets of the sub processes are added to the low level petri net of the editor. Firing a sub process moves the
+ * tokens of the parent net at once and puts a token on the source place of the net of the sub process. While the sub
+ * process runs, the rest of its parent net is blocked: every level of the net has a lock place, which all its
+ * transitions need, and which the sub process takes until a silent return transition fires from the sink place of the
+ * sub process. The return transitions are not part of the traces.
+ */
+class PlayoutNet {
+
+    // ! Separates the id of a sub process from the ids of the nodes of its net
+    static final String SEPARATOR = "/";
+
+    private final LowLevelPetriNet net;
+    private final Set<TransitionNode> returns = new HashSet<>();
+    // ! The sub process transition whose net contains the transition
+    private final Map<TransitionNode, TransitionNode> parents = new HashMap<>();
+
+    private CompiledPetriNet compiled;
+    private boolean[] silent;
+    private int[] parentIndexes;
+
+    /**
+     * @param editor the editor containing the net
+     */
+    PlayoutNet(IEditor editor) {
+        net = BuilderFactory.createLowLevelPetriNetWithoutTStarBuilder(editor).getLowLevelPetriNet();
+        List<TransitionNode> transitions = new ArrayList<>(net.getTransitions());
+        if ( hasSubProcess(transitions, editor.getModelProcessor().getElementContainer()) ) {
+            PlaceNode lock = addPlace(new PlaceNode(1, 1, SEPARATOR + "lock", "lock", SEPARATOR + "lock"));
+            addLevel(transitions, editor.getModelProcessor().getElementContainer(), lock);
+        }
+        compile();
+    }
+
+    /**
+     * @return the compiled net
+     */
+    CompiledPetriNet getNet() {
+        return compiled;
+    }
+
+    /**
+     * @return true for the transitions that return from a sub process, null if the net has no sub processes
+     */
+    boolean[] getSilent() {
+        return silent;
+    }
+
+    /**
+     * @return the index of the sub process transition whose net contains the transition, -1 for the transitions of the
+     * editor. Null if the net has no sub processes.
+     */
+    int[] getParents() {
+        return parentIndexes;
+    }
+
+    /*
+     * Locks the transitions of one level of the net and adds the nets of its sub processes
+     */
+    private void addLevel(List<TransitionNode> transitions, ModelElementContainer container, PlaceNode lock) {
+        for ( TransitionNode transition : transitions ) {
+            AbstractPetriNetElementModel element = container.getElementById(transition.getOriginId());
+            lock.addSuccessorNode(transition, 1);
+            if ( element instanceof SubProcessModel ) {
+                addSubProcess(transition, (SubProcessModel) element, lock);
+            } else {
+                transition.addSuccessorNode(lock, 1);
+            }
+        }
+    }
+
+    private void addSubProcess(TransitionNode subProcess, SubProcessModel model, PlaceNode parentLock) {
+        ModelElementContainer container = model.getSimpleTransContainer();
+        PetriNetModelProcessor processor = new PetriNetModelProcessor(model.getId());
+        processor.setElementContainer(container);
+        LowLevelPetriNet subNet = BuilderFactory.createLowLevelPetriNetWithoutTStarBuilder(new HeadlessEditor(processor)).getLowLevelPetriNet();
+
+        String prefix = subProcess.getId() + SEPARATOR;
+        PlaceNode lock = addPlace(new PlaceNode(0, 0, prefix + "lock", "lock", prefix + "lock"));
+        subProcess.addSuccessorNode(lock, 1);
+
+        Map<PlaceNode, PlaceNode> places = new HashMap<>();
+        for ( PlaceNode place : subNet.getPlaces() ) {
+            PlaceNode copy = addPlace(new PlaceNode(0, 0, prefix + place.getId(), place.getName(), place.getOriginId()));
+            places.put(place, copy);
+            boolean source = place.getPredecessorNodes().isEmpty() && !place.getSuccessorNodes().isEmpty();
+            if ( source || place.getTokenCount() > 0 ) {
+                subProcess.addSuccessorNode(copy, Math.max(1, place.getTokenCount()));
+            }
+            if ( place.getSuccessorNodes().isEmpty() && !place.getPredecessorNodes().isEmpty() ) {
+                TransitionNode back = new TransitionNode(prefix + SEPARATOR + "return" + SEPARATOR + place.getId(), place.getName(), subProcess.getOriginId(),
+                        AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE);
+                net.addNode(back);
+                copy.addSuccessorNode(back, 1);
+                lock.addSuccessorNode(back, 1);
+                back.addSuccessorNode(parentLock, 1);
+                returns.add(back);
+            }
+        }
+
+        List<TransitionNode> transitions = new ArrayList<>();
+        for ( TransitionNode transition : subNet.getTransitions() ) {
+            TransitionNode copy = new TransitionNode(prefix + transition.getId(), transition.getName(), transition.getOriginId(), transition.getOperatorType());
+            net.addNode(copy);
+            for ( AbstractNode place : transition.getPredecessorNodes() ) {
+                places.get(place).addSuccessorNode(copy, transition.getWeightFrom(place));
+            }
+            for ( AbstractNode place : transition.getSuccessorNodes() ) {
+                copy.addSuccessorNode(places.get(place), transition.getWeightTo(place));
+            }
+            parents.put(copy, subProcess);
+            transitions.add(copy);
+        }
+        addLevel(transitions, container, lock);
+    }
+
+    private PlaceNode addPlace(PlaceNode place) {
+        net.addNode(place);
+        return place;
+    }
+
+    private void compile() {
+        compiled = net.compile();
+        if ( returns.isEmpty() && parents.isEmpty() ) return;
+
+        TransitionNode[] transitions = compiled.getTransitions();
+        silent = new boolean[transitions.length];
+        parentIndexes = new int[transitions.length];
+        for ( int t = 0; t < transitions.length; t++ ) {
+            silent[t] = returns.contains(transitions[t]);
+            TransitionNode parent = parents.get(transitions[t]);
+            parentIndexes[t] = parent == null ? -1 : compiled.indexOf(parent);
+        }
+    }
+
+    private static boolean hasSubProcess(List<TransitionNode> transitions, ModelElementContainer container) {
+        for ( TransitionNode transition : transitions ) {
+            if ( container.getElementById(transition.getOriginId()) instanceof SubProcessModel ) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,17 @@
+package org.woped.qualanalysis.simulation;
+
+import java.io.IOException;
+
+/**
+ * Receives the traces generated by a {@link TokenGamePlayout}.
+ * <p>
+ * The playout hands over one trace at a time, so implementations do not have to be thread safe.
+ */
+public interface PlayoutSink {
+
+    /**
+     * @param trace the finished trace
+     * @throws IOException if the trace could not be stored. The playout stops and rethrows the exception.
+     */
+    void accept(PlayoutTrace trace) throws IOException;
+}
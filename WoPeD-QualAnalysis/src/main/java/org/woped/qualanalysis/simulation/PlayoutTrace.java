@@ -0,0 +1,195 @@
+package org.woped.qualanalysis.simulation;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Vector;
+
+import org.woped.core.model.ArcModel;
+import org.woped.core.model.CreationMap;
+import org.woped.core.model.ModelElementContainer;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+import org.woped.core.model.petrinet.OperatorTransitionModel;
+import org.woped.core.model.petrinet.PlaceModel;
+import org.woped.core.model.petrinet.SimulationModel;
+import org.woped.core.model.petrinet.SubProcessModel;
+import org.woped.core.model.petrinet.TransitionModel;
+import org.woped.qualanalysis.soundness.datamodel.AbstractNode;
+import org.woped.qualanalysis.soundness.datamodel.TransitionNode;
+
+/**
+ * A firing sequence generated by a {@link TokenGamePlayout}.
+ */
+public class PlayoutTrace {
+
+    private final long index;
+    private final TransitionNode[] transitions;
+    private final int[] firings;
+    private final boolean complete;
+    private final int[] parents;
+
+    /**
+     * @param index       the number of the trace within its playout
+     * @param transitions the transitions of the compiled net
+     * @param firings     the indexes of the fired transitions
+     * @param complete    true if no transition is enabled after the last firing
+     */
+    public PlayoutTrace(long index, TransitionNode[] transitions, int[] firings, boolean complete) {
+        this(index, transitions, firings, complete, null);
+    }
+
+    /**
+     * @param index       the number of the trace within its playout
+     * @param transitions the transitions of the compiled net
+     * @param firings     the indexes of the fired transitions
+     * @param complete    true if no transition is enabled after the last firing
+     * @param parents     the index of the sub process transition whose net contains the transition, -1 for the
+     *                    transitions of the net itself, or null if the net has no sub processes
+     */
+    PlayoutTrace(long index, TransitionNode[] transitions, int[] firings, boolean complete, int[] parents) {
+        this.index = index;
+        this.transitions = transitions;
+        this.firings = firings;
+        this.complete = complete;
+        this.parents = parents;
+    }
+
+    /**
+     * @return the number of the trace within its playout
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the number of fired transitions
+     */
+    public int size() {
+        return firings.length;
+    }
+
+    /**
+     * @param position the position within the trace
+     * @return the transition fired at the position
+     */
+    public TransitionNode getTransition(int position) {
+        return transitions[firings[position]];
+    }
+
+    /**
+     * @return the indexes of the fired transitions in the compiled net. Do not manipulate the returned array!
+     */
+    public int[] getFirings() {
+        return firings;
+    }
+
+    /**
+     * @return true if the trace ends in a dead marking, false if it has been cut at the maximum length
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * The label of a fired transition is its name. Inner transitions of operators carry the name of the operator.
+     *
+     * @return the labels of the fired transitions
+     */
+    public List<String> getLabels() {
+        List<String> labels = new ArrayList<>(firings.length);
+        for ( int i = 0; i < firings.length; i++ ) {
+            labels.add(getLabel(getTransition(i)));
+        }
+        return labels;
+    }
+
+    /**
+     * Creates a simulation like the ones saved from the history of the token game, which can be replayed by the token
+     * game. Like a click on an arc in the token game, an inner transition of an XOR operator becomes a virtual
+     * transition with the id of the arc it fires; inner transitions of other operators become their operator. Inner
+     * transitions that are part of the click on an arc, e.g. the AND join of an AND join XOR split, are left out. A sub
+     * process is followed by the transitions of its net, as if the token game had stepped into it.
+     *
+     * @param container the container of the net the playout has been created for
+     * @param id        the id of the simulation
+     * @param name      the name of the simulation
+     * @return the simulation
+     */
+    public SimulationModel toSimulationModel(ModelElementContainer container, String id, String name) {
+        Vector<TransitionModel> history = new Vector<TransitionModel>();
+        for ( int i = 0; i < firings.length; i++ ) {
+            TransitionModel item = getHistoryItem(getContainer(container, firings[i]), getTransition(i));
+            if ( item != null ) {
+                history.add(item);
+            }
+        }
+        return new SimulationModel(id, name, history, null, new Date());
+    }
+
+    /*
+     * Gets the container of the net the transition belongs to
+     */
+    private ModelElementContainer getContainer(ModelElementContainer container, int transition) {
+        if ( parents == null || parents[transition] < 0 ) return container;
+        int parent = parents[transition];
+        SubProcessModel subProcess = (SubProcessModel) getContainer(container, parent).getElementById(transitions[parent].getOriginId());
+        return subProcess.getSimpleTransContainer();
+    }
+
+    private static TransitionModel getHistoryItem(ModelElementContainer container, TransitionNode transition) {
+        AbstractPetriNetElementModel element = container.getElementById(transition.getOriginId());
+        if ( !(element instanceof TransitionModel) ) return null;
+        if ( !(element instanceof OperatorTransitionModel) ) return (TransitionModel) element;
+
+        OperatorTransitionModel operator = (OperatorTransitionModel) element;
+        int type = operator.getOperatorType();
+        boolean xorSplit = type == OperatorTransitionModel.XOR_SPLIT_TYPE || type == OperatorTransitionModel.XORJOIN_XORSPLIT_TYPE
+                || type == OperatorTransitionModel.ANDJOIN_XORSPLIT_TYPE;
+        boolean xorJoin = type == OperatorTransitionModel.XOR_JOIN_TYPE || type == OperatorTransitionModel.XORJOIN_XORSPLIT_TYPE
+                || type == OperatorTransitionModel.XORJOIN_ANDSPLIT_TYPE;
+        if ( !xorSplit && !xorJoin ) return operator;
+
+        // the token game shows the outgoing arcs of a XOR split as soon as its input is there
+        if ( xorSplit ) {
+            for ( AbstractNode node : transition.getSuccessorNodes() ) {
+                AbstractPetriNetElementModel place = container.getElementById(node.getOriginId());
+                if ( place instanceof PlaceModel ) {
+                    return createArcTransition(container.findArc(operator.getId(), place.getId()),
+                            operator.getNameValue() + " -> (" + place.getNameValue() + ")");
+                }
+            }
+        }
+        if ( xorJoin ) {
+            for ( AbstractNode node : transition.getPredecessorNodes() ) {
+                AbstractPetriNetElementModel place = container.getElementById(node.getOriginId());
+                if ( place instanceof PlaceModel ) {
+                    return createArcTransition(container.findArc(place.getId(), operator.getId()),
+                            "(" + place.getNameValue() + ")-> " + operator.getNameValue());
+                }
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Creates a virtual transition like the ones the token game offers for the arcs of XOR operators
+     */
+    private static TransitionModel createArcTransition(ArcModel arc, String name) {
+        if ( arc == null ) return null;
+        CreationMap map = CreationMap.createMap();
+        map.setId(arc.getId());
+        TransitionModel transition = new TransitionModel(map);
+        transition.setNameValue(name);
+        return transition;
+    }
+
+    static String getLabel(TransitionNode transition) {
+        String name = transition.getName();
+        return name == null || name.isEmpty() ? transition.getOriginId() : name;
+    }
+
+    @Override
+    public String toString() {
+        return index + " " + getLabels();
+    }
+}
@@ -0,0 +1,66 @@
+package org.woped.qualanalysis.simulation;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the traces of a playout to a text file, one trace per line with the labels of the fired transitions
+ * separated by tabs. Tabs and line breaks within labels are replaced by blanks. Files whose name ends with
+ * {@code .gz} are compressed.
+ */
+public class PlayoutTraceWriter implements PlayoutSink, Closeable {
+
+    private final Writer writer;
+    private long traceCount = 0;
+
+    /**
+     * @param file the file to create or overwrite
+     * @throws IOException if the file could not be opened
+     */
+    public PlayoutTraceWriter(Path file) throws IOException {
+        OutputStream out = Files.newOutputStream(file);
+        if ( file.getFileName().toString().endsWith(".gz") ) {
+            out = new GZIPOutputStream(out, 1 << 16);
+        }
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    /**
+     * @param writer the writer receiving the traces, closed together with this writer
+     */
+    public PlayoutTraceWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void accept(PlayoutTrace trace) throws IOException {
+        for ( int i = 0; i < trace.size(); i++ ) {
+            if ( i > 0 ) {
+                writer.write('\t');
+            }
+            writer.write(PlayoutTrace.getLabel(trace.getTransition(i)).replace('\t', ' ').replace('\r', ' ').replace('\n', ' '));
+        }
+        writer.write('\n');
+        traceCount++;
+    }
+
+    /**
+     * @return the number of traces written so far
+     */
+    public long getTraceCount() {
+        return traceCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -26,8 +26,10 @@ import java.awt.Color;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.beans.PropertyChangeSupport;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Vector;
@@ -53,6 +55,7 @@ import org.woped.qualanalysis.coverabilitygraph.gui.CoverabilityGraphFrameContro
 import org.woped.qualanalysis.service.IQualanalysisService;
 import org.woped.qualanalysis.service.QualAnalysisServiceFactory;
 import org.woped.qualanalysis.soundness.builder.BuilderFactory;
+import org.woped.qualanalysis.soundness.builder.currentmarking.CurrentMarkingIndex;
 import org.woped.qualanalysis.soundness.marking.IMarking;
 
 /**
@@ -78,6 +81,12 @@ public class TokenGameController implements ITokenGameController {
     private PetriNetModelProcessor petrinet = null;
     private AbstractGraph graph = null;
     private Map<String, AbstractPetriNetElementModel> allTransitions = null;
+    private EnabledTransitions enabledTransitions = null;
+    // ! Maps the places of the reachability graph to the places of the net
+    // ! Created when a reachability graph of the net is shown
+    private CurrentMarkingIndex markingIndex = null;
+    // ! Arcs activated by the last check of the net
+    private List<ArcModel> activeArcs = new ArrayList<ArcModel>();
     // ! Stores a set containing all sink places of the simulated net
     // ! Used to manage return handling for sub-processes
     // ! (Visual token game only!)
@@ -142,10 +151,7 @@ public class TokenGameController implements ITokenGameController {
             RemoteControl = ParentControl.getRemoteControlReference();
             RemoteControl.changeTokenGameReference(this, false);
 
-            // Storing Transition Reference (simple and operator)
-            allTransitions = getPetriNet().getElementContainer().getElementsByType(AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE);
-            allTransitions.putAll(getPetriNet().getElementContainer().getElementsByType(AbstractPetriNetElementModel.TRANS_OPERATOR_TYPE));
-            allTransitions.putAll(getPetriNet().getElementContainer().getElementsByType(AbstractPetriNetElementModel.SUBP_TYPE));
+            indexTransitions();
             // Find and show active Transitions/Arcs
             checkNet();
         } else {
@@ -162,10 +168,7 @@ public class TokenGameController implements ITokenGameController {
                 RemoteControl = new TokenGameSession(this, petrinet);
             }
 
-            // Storing Transition Reference (simple and operator)
-            allTransitions = getPetriNet().getElementContainer().getElementsByType(AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE);
-            allTransitions.putAll(getPetriNet().getElementContainer().getElementsByType(AbstractPetriNetElementModel.TRANS_OPERATOR_TYPE));
-            allTransitions.putAll(getPetriNet().getElementContainer().getElementsByType(AbstractPetriNetElementModel.SUBP_TYPE));
+            indexTransitions();
 
             // Find and show active Transitions/Arcs
             checkNet();
@@ -174,6 +177,17 @@ public class TokenGameController implements ITokenGameController {
 
     }
 
+    /*
+     * Stores the transitions (simple, operator and subprocess) and the arcs leading to them
+     */
+    private void indexTransitions() {
+        allTransitions = getPetriNet().getElementContainer().getElementsByType(AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE);
+        allTransitions.putAll(getPetriNet().getElementContainer().getElementsByType(AbstractPetriNetElementModel.TRANS_OPERATOR_TYPE));
+        allTransitions.putAll(getPetriNet().getElementContainer().getElementsByType(AbstractPetriNetElementModel.SUBP_TYPE));
+        enabledTransitions = new EnabledTransitions(getPetriNet().getElementContainer(), allTransitions.values());
+        markingIndex = null;
+    }
+
     /**
      * Stops the TokenGame. Disables the visual TokenGame if set.
      */
@@ -264,11 +278,11 @@ public class TokenGameController implements ITokenGameController {
 
         long begin = System.currentTimeMillis();
         LoggerManager.debug(Constants.QUALANALYSIS_LOGGER, "TokenGame: CHECK NET");
-        Iterator<String> transIter = allTransitions.keySet().iterator();
-        resetArcStatus();
-        // Iterate over all Transitions
-        while ( transIter.hasNext() ) {
-            checkTransition((TransitionModel) allTransitions.get(transIter.next()), newState);
+        deactivateArcs();
+        // Only the transitions adjacent to places whose tokens have been moved are checked again
+        enabledTransitions.update();
+        for ( TransitionModel transition : enabledTransitions.getEnabled() ) {
+            checkTransition(transition, newState);
         }
 
         newState.hasHistory = (RemoteControl.getNumHistoryItems() > 0);
@@ -282,7 +296,7 @@ public class TokenGameController implements ITokenGameController {
         RemoteControl.fillChoiceBox(); // Fills the Choicebox with the active Transitions that have been encountered through checkTransition()
         // Check if there is a transition to choose in SlimChoiceBox
         LoggerManager.debug(Constants.QUALANALYSIS_LOGGER, "           ... DONE (" + (System.currentTimeMillis() - begin) + " ms)");
-        setMarkingInRG((BuilderFactory.createCurrentMarking(BuilderFactory.createLowLevelPetriNetWithoutTStarBuilder(thisEditor).getLowLevelPetriNet(), true)));
+        setCurrentMarkingInRG();
     }
 
     private void deHighlightRG() {
@@ -291,9 +305,13 @@ public class TokenGameController implements ITokenGameController {
         cgfc.removeHighlightingFromGraph(thisEditor);
     }
 
-    private void setMarkingInRG(IMarking mark) {
+    private void setCurrentMarkingInRG() {
         CoverabilityGraphFrameController cgfc = getCoverabilityGraphController();
         if(!cgfc.containsGraphForNet(thisEditor)) return;
+        if ( markingIndex == null ) {
+            markingIndex = BuilderFactory.createCurrentMarkingIndex(thisEditor);
+        }
+        IMarking mark = markingIndex.getMarking(true);
         cgfc.highlightMarking(thisEditor, mark);
     }
 
@@ -309,14 +327,9 @@ public class TokenGameController implements ITokenGameController {
      * Will check transitions if they have to be activated or not
      */
     private void checkTransition(TransitionModel transition, TokenGameStats tokenGameStats) {
-        Map<String, ArcModel> incomingArcs = getPetriNet().getElementContainer().getIncomingArcs(transition.getId());
-
-        Map<String, Object> outgoingArcs = getPetriNet().getElementContainer().getOutgoingArcs(transition.getId());
-        // temporary variables
-
         if ( transition.getType() == AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE || transition.getType() == AbstractPetriNetElementModel.SUBP_TYPE ) {
 
-            if ( transition.isActivated() ) {
+            if ( enabledTransitions.isActivated(transition) ) {
                 // This will add all currently active postSet Transitions to the TokenGameBarVC-Autochoice-List
 
                 RemoteControl.addFollowingItem(transition);
@@ -329,16 +342,16 @@ public class TokenGameController implements ITokenGameController {
         } else if ( transition.getType() == AbstractPetriNetElementModel.TRANS_OPERATOR_TYPE ) {
             OperatorTransitionModel operator = (OperatorTransitionModel) transition;
             if ( operator.getOperatorType() == OperatorTransitionModel.AND_JOIN_TYPE || operator.getOperatorType() == OperatorTransitionModel.AND_SPLIT_TYPE || operator.getOperatorType() == OperatorTransitionModel.AND_SPLITJOIN_TYPE ) {
-                if ( transition.isActivated() ) {
+                if ( enabledTransitions.isActivated(transition) ) {
                     // This will add the AND-X-Transition to the OccurenceList
                     RemoteControl.addFollowingItem(transition);
                     tokenGameStats.numActiveTransitions++;
                 }
 
             } else if ( (operator.getOperatorType() == OperatorTransitionModel.XOR_SPLIT_TYPE) || (operator.getOperatorType() == OperatorTransitionModel.ANDJOIN_XORSPLIT_TYPE) ) {
-                if ( transition.isActivated() ) {
+                if ( enabledTransitions.isActivated(transition) ) {
                     String XorName, ID;
-                    Iterator<String> outArcs = outgoingArcs.keySet().iterator();
+                    Iterator<String> outArcs = getPetriNet().getElementContainer().getOutgoingArcs(transition.getId()).keySet().iterator();
                     TransitionModel virtualTransition; // needed to build virtual Transitions.
                     AbstractPetriNetElementModel helpPlace;
 
@@ -364,9 +377,9 @@ public class TokenGameController implements ITokenGameController {
                     setOutgoingArcsActive(transition.getId(), true);
                 }
             } else if ( (operator.getOperatorType() == OperatorTransitionModel.XOR_JOIN_TYPE) || (operator.getOperatorType() == OperatorTransitionModel.XORJOIN_ANDSPLIT_TYPE) ) {
-                if ( transition.getNumIncomingActivePlaces() > 0 ) {
+                if ( enabledTransitions.hasActiveInput(transition) ) {
                     String XorName, ID;
-                    Iterator<String> inArcs = incomingArcs.keySet().iterator();
+                    Iterator<String> inArcs = getPetriNet().getElementContainer().getIncomingArcs(transition.getId()).keySet().iterator();
                     TransitionModel virtualTransition; // needed to build virtual Transitions.
                     AbstractPetriNetElementModel helpPlace;
                     // ArcModel activeArc;
@@ -400,7 +413,7 @@ public class TokenGameController implements ITokenGameController {
                 if ( (operator.getCenterPlace() != null) && (operator.getCenterPlace().getVirtualTokenCount() > 0) ) {
 
                     String XorName, ID;
-                    Iterator<String> outArcs = outgoingArcs.keySet().iterator();
+                    Iterator<String> outArcs = getPetriNet().getElementContainer().getOutgoingArcs(transition.getId()).keySet().iterator();
                     TransitionModel virtualTransition; // needed to build virtual Transitions.
                     AbstractPetriNetElementModel helpPlace;
 
@@ -431,9 +444,9 @@ public class TokenGameController implements ITokenGameController {
                 // There must at least be one token at the input side for
                 // the transition to be
                 // activated
-                if ( transition.getNumIncomingActivePlaces() > 0 ) {
+                if ( enabledTransitions.hasActiveInput(transition) ) {
                     String XorName, ID;
-                    Iterator<String> inArcs = incomingArcs.keySet().iterator();
+                    Iterator<String> inArcs = getPetriNet().getElementContainer().getIncomingArcs(transition.getId()).keySet().iterator();
                     TransitionModel virtualTransition; // needed to build virtual Transitions.
                     AbstractPetriNetElementModel helpPlace;
                     // ArcModel activeArc;
@@ -815,6 +828,7 @@ public class TokenGameController implements ITokenGameController {
             PlaceModel place = (PlaceModel) getPetriNet().getElementContainer().getElementById(arc.getSourceId());
             if ( place.getVirtualTokenCount() >= arc.getInscriptionValue() ) {
                 arc.setActivated(true);
+                activeArcs.add(arc);
             }
         } else {
             arc.setActivated(false);
@@ -827,7 +841,11 @@ public class TokenGameController implements ITokenGameController {
     private void setOutgoingArcsActive(Object transitionId, boolean active) {
         Iterator<String> outgoingIter = getPetriNet().getElementContainer().getOutgoingArcs(transitionId).keySet().iterator();
         while ( outgoingIter.hasNext() ) {
-            getPetriNet().getElementContainer().getArcById(outgoingIter.next()).setActivated(active);
+            ArcModel arc = getPetriNet().getElementContainer().getArcById(outgoingIter.next());
+            arc.setActivated(active);
+            if ( active ) {
+                activeArcs.add(arc);
+            }
         }
     }
 
@@ -855,6 +873,7 @@ public class TokenGameController implements ITokenGameController {
             PlaceModel place = (PlaceModel) getPetriNet().getElementContainer().getElementById(arc.getSourceId());
             if ( place != null ) {
                 place.removeVirtualTokens(arc.getInscriptionValue());
+                placeChanged(place);
             }
         } catch (ClassCastException cce) {
             LoggerManager.warn(Constants.QUALANALYSIS_LOGGER, "TokenGame: Cannot send token. Source is not a place. Ignore arc: " + arc.getId());
@@ -885,6 +904,7 @@ public class TokenGameController implements ITokenGameController {
             PlaceModel place = (PlaceModel) getPetriNet().getElementContainer().getElementById(arc.getTargetId());
             if ( place != null ) {
                 place.addVirtualTokens(arc.getInscriptionValue());
+                placeChanged(place);
             }
         } catch (ClassCastException cce) {
             LoggerManager.warn(Constants.QUALANALYSIS_LOGGER, "TokenGame: Cannot receive token. Target is not a place. Ignore arc: " + arc.getId());
@@ -917,6 +937,7 @@ public class TokenGameController implements ITokenGameController {
             PlaceModel place = (PlaceModel) getPetriNet().getElementContainer().getElementById(arc.getTargetId());
             if ( place != null ) {
                 place.removeVirtualTokens(arc.getInscriptionValue());
+                placeChanged(place);
                 // TODO: when ARC WEIGTH implemented send tokens weigth times
             }
         } catch (ClassCastException cce) {
@@ -950,12 +971,22 @@ public class TokenGameController implements ITokenGameController {
             PlaceModel place = (PlaceModel) getPetriNet().getElementContainer().getElementById(arc.getSourceId());
             if ( place != null ) {
                 place.addVirtualTokens(arc.getInscriptionValue());
+                placeChanged(place);
             }
         } catch (ClassCastException cce) {
             LoggerManager.warn(Constants.QUALANALYSIS_LOGGER, "TokenGame: Cannot receive token. Target is not a place. Ignore arc: " + arc.getId());
         }
     }
 
+    /*
+     * Tells the tracker of the enabled transitions about moved tokens
+     */
+    private void placeChanged(PlaceModel place) {
+        if ( enabledTransitions != null ) {
+            enabledTransitions.placeChanged(place);
+        }
+    }
+
     /*
      * Disables all Transitions. Set each transition inactive and not firing. Used on stop.
      */
@@ -985,6 +1016,17 @@ public class TokenGameController implements ITokenGameController {
         while ( arcIter.hasNext() ) {
             getPetriNet().getElementContainer().getArcById(arcIter.next()).setActivated(false);
         }
+        activeArcs.clear();
+    }
+
+    /*
+     * Inactivate the arcs activated by the last check of the net.
+     */
+    private void deactivateArcs() {
+        for ( ArcModel arc : activeArcs ) {
+            arc.setActivated(false);
+        }
+        activeArcs.clear();
     }
 
     /*
@@ -1079,6 +1121,7 @@ public class TokenGameController implements ITokenGameController {
         resetTransitionStatus();
         resetArcStatus();
         resetVirtualTokensInElementContainer(getPetriNet().getElementContainer());
+        enabledTransitions.reset();
         checkNet();
     }
 
@@ -0,0 +1,667 @@
+package org.woped.qualanalysis.simulation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.woped.core.controller.IEditor;
+import org.woped.core.utilities.LoggerManager;
+import org.woped.qualanalysis.Constants;
+import org.woped.qualanalysis.soundness.datamodel.CompiledPetriNet;
+import org.woped.qualanalysis.soundness.datamodel.TransitionNode;
+
+/**
+ * Plays the token game without any user interface to generate firing sequences, e.g. as test data for conformance
+ * checking.
+ * <p>
+ * The playout fires the transitions of the compiled low level petri net, so operators behave like in the token game:
+ * every inner transition of an operator is one step, as is every click on an operator or arc in the token game. Sub
+ * processes are stepped into: the transitions of the net of a sub process follow the sub process in the trace, and the
+ * rest of the net waits until the sub process has finished. A trace ends when no transition is enabled any more or
+ * when it reaches the maximum length.
+ * <ul>
+ * <li>{@link Strategy#RANDOM} picks one of the enabled transitions with equal probability.</li>
+ * <li>{@link Strategy#WEIGHTED} picks the enabled transitions in proportion to their weights.</li>
+ * <li>{@link Strategy#EXHAUSTIVE} enumerates every firing sequence that ends in a dead marking within the maximum
+ * length. Sequences reaching the maximum length are dropped.</li>
+ * </ul>
+ * The traces are generated by several worker threads. Every random trace uses its own stream seeded from the seed of
+ * the playout and the index of the trace, so the same traces are generated regardless of the number of threads. The
+ * sink receives one trace at a time, random traces in the order they are finished, exhaustive ones in the order of
+ * the indexes of their transitions, so the trace count always keeps the same first sequences.
+ */
+public class TokenGamePlayout {
+
+    public enum Strategy {
+        RANDOM, WEIGHTED, EXHAUSTIVE
+    }
+
+    public static final int DEFAULT_MAX_LENGTH = 1000;
+    public static final long DEFAULT_TRACE_COUNT = 1000;
+
+    // ! Traces buffered by an iterator before the workers wait for the reader
+    private static final int ITERATOR_CAPACITY = 1024;
+    // ! Sequences explored by the workers of an exhaustive playout per thread
+    private static final int PREFIXES_PER_THREAD = 8;
+
+    private final CompiledPetriNet net;
+    // ! Transitions whose pre set contains the place, the entries of place p are located
+    // ! between postOffsets[p] and postOffsets[p + 1]
+    private final int[] postOffsets;
+    private final int[] postTransitions;
+    // ! Transitions left out of the traces and the sub process transition of each transition, null without sub processes
+    private final boolean[] silent;
+    private final int[] parents;
+
+    private Strategy strategy = Strategy.RANDOM;
+    private long traceCount = DEFAULT_TRACE_COUNT;
+    private int maxLength = DEFAULT_MAX_LENGTH;
+    private long seed = 0;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private final Map<String, Double> weights = new HashMap<>();
+
+    /**
+     * @param net the net to play
+     */
+    public TokenGamePlayout(CompiledPetriNet net) {
+        this(net, null, null);
+    }
+
+    private TokenGamePlayout(CompiledPetriNet net, boolean[] silent, int[] parents) {
+        this.net = net;
+        this.silent = silent;
+        this.parents = parents;
+
+        int[] prePlaces = net.getPrePlaces();
+        postOffsets = new int[net.getPlaceCount() + 1];
+        for ( int p : prePlaces ) {
+            postOffsets[p + 1]++;
+        }
+        for ( int p = 0; p < net.getPlaceCount(); p++ ) {
+            postOffsets[p + 1] += postOffsets[p];
+        }
+        postTransitions = new int[prePlaces.length];
+        int[] fill = Arrays.copyOf(postOffsets, net.getPlaceCount());
+        for ( int t = 0; t < net.getTransitionCount(); t++ ) {
+            for ( int i = net.getPreOffset(t); i < net.getPreEnd(t); i++ ) {
+                postTransitions[fill[prePlaces[i]]++] = t;
+            }
+        }
+    }
+
+    /**
+     * Creates a playout of the net shown in the editor. The playout starts from the initial marking of the net, not
+     * from the marking of a running token game.
+     *
+     * @param editor the editor containing the net
+     * @return the playout
+     */
+    public static TokenGamePlayout createPlayout(IEditor editor) {
+        PlayoutNet playoutNet = new PlayoutNet(editor);
+        return new TokenGamePlayout(playoutNet.getNet(), playoutNet.getSilent(), playoutNet.getParents());
+    }
+
+    public CompiledPetriNet getNet() {
+        return net;
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(Strategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public long getTraceCount() {
+        return traceCount;
+    }
+
+    /**
+     * @param traceCount the number of traces of a random playout, the maximum number of traces of an exhaustive one
+     */
+    public void setTraceCount(long traceCount) {
+        if ( traceCount < 0 ) throw new IllegalArgumentException("Trace count must not be negative");
+        this.traceCount = traceCount;
+    }
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * @param maxLength the maximum number of transitions fired per trace, including the returns from sub processes
+     */
+    public void setMaxLength(int maxLength) {
+        if ( maxLength < 1 ) throw new IllegalArgumentException("Maximum length has to be at least one");
+        this.maxLength = maxLength;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @param parallelism the number of worker threads
+     */
+    public void setParallelism(int parallelism) {
+        if ( parallelism < 1 ) throw new IllegalArgumentException("Parallelism has to be at least one");
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets the weight used by the {@link Strategy#WEIGHTED} strategy. Transitions without a weight have the weight 1.
+     * A transition with the weight 0 is never fired.
+     *
+     * @param transitionId the id of a transition of the low level net, or the id of an operator to weight all its inner
+     *                     transitions
+     * @param weight       the weight
+     */
+    public void setWeight(String transitionId, double weight) {
+        if ( weight < 0 || Double.isNaN(weight) ) throw new IllegalArgumentException("Weight must not be negative");
+        weights.put(transitionId, weight);
+    }
+
+    /**
+     * Generates the traces and hands them to the sink.
+     *
+     * @param sink the sink receiving the traces
+     * @return the number of generated traces
+     * @throws IOException          if the sink failed
+     * @throws InterruptedException if the calling thread has been interrupted
+     */
+    public long run(PlayoutSink sink) throws IOException, InterruptedException {
+        long begin = System.currentTimeMillis();
+        final Output output = new Output(sink);
+        List<Callable<Void>> workers = new ArrayList<>();
+
+        if ( strategy == Strategy.EXHAUSTIVE ) {
+            final List<int[]> prefixes = createPrefixes();
+            final AtomicInteger nextPrefix = new AtomicInteger();
+            for ( int i = 0; i < parallelism; i++ ) {
+                workers.add(new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        Walker walker = new Walker();
+                        int prefix;
+                        while ( !output.isStopped() && (prefix = nextPrefix.getAndIncrement()) < prefixes.size() ) {
+                            List<int[]> traces = new ArrayList<>();
+                            explore(walker, prefixes.get(prefix), traces, output);
+                            output.emitInOrder(prefix, traces);
+                        }
+                        return null;
+                    }
+                });
+            }
+        } else {
+            final double[] transitionWeights = createWeights();
+            final AtomicLong nextIndex = new AtomicLong();
+            for ( int i = 0; i < parallelism; i++ ) {
+                workers.add(new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        Walker walker = new Walker();
+                        long index;
+                        while ( !output.isStopped() && (index = nextIndex.getAndIncrement()) < traceCount ) {
+                            play(walker, index, transitionWeights, output);
+                        }
+                        return null;
+                    }
+                });
+            }
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "TokenGamePlayout-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        try {
+            for ( Future<Void> result : pool.invokeAll(workers) ) {
+                result.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if ( cause instanceof IOException ) throw (IOException) cause;
+            if ( cause instanceof RuntimeException ) throw (RuntimeException) cause;
+            if ( cause instanceof Error ) throw (Error) cause;
+            throw new IllegalStateException(cause);
+        } finally {
+            output.stop();
+            pool.shutdownNow();
+        }
+
+        LoggerManager.debug(Constants.QUALANALYSIS_LOGGER, "TokenGame: PLAYOUT of " + output.getCount() + " traces DONE (" + (System.currentTimeMillis() - begin) + " ms)");
+        return output.getCount();
+    }
+
+    /**
+     * Generates the traces into a file.
+     *
+     * @param file the file to create or overwrite, see {@link PlayoutTraceWriter}
+     * @return the number of generated traces
+     * @throws IOException          if the file could not be written
+     * @throws InterruptedException if the calling thread has been interrupted
+     */
+    public long writeTo(Path file) throws IOException, InterruptedException {
+        try (PlayoutTraceWriter writer = new PlayoutTraceWriter(file)) {
+            return run(writer);
+        }
+    }
+
+    /**
+     * Generates the traces in the background while they are read. The workers wait when the reader falls behind.
+     *
+     * @return the iterator over the traces, which has to be closed if it is not read to the end
+     */
+    public TraceIterator iterator() {
+        final TraceIterator iterator = new TraceIterator();
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    TokenGamePlayout.this.run(iterator);
+                } catch (Exception e) {
+                    iterator.failure = e;
+                } finally {
+                    iterator.finish();
+                }
+            }
+        }, "TokenGamePlayout");
+        producer.setDaemon(true);
+        iterator.producer = producer;
+        producer.start();
+        return iterator;
+    }
+
+    /*
+     * Plays one random trace
+     */
+    private void play(Walker walker, long index, double[] transitionWeights, Output output) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed + index * 0x9E3779B97F4A7C15L);
+        walker.reset();
+        while ( walker.enabledCount > 0 && walker.length < maxLength ) {
+            int transition;
+            if ( transitionWeights == null ) {
+                transition = walker.enabled[random.nextInt(walker.enabledCount)];
+            } else {
+                transition = pickWeighted(walker, transitionWeights, random);
+                if ( transition < 0 ) break;
+            }
+            walker.fire(transition);
+        }
+        output.emit(index, Arrays.copyOf(walker.trace, walker.length), walker.enabledCount == 0);
+    }
+
+    private int pickWeighted(Walker walker, double[] transitionWeights, SplittableRandom random) {
+        double total = 0;
+        for ( int i = 0; i < walker.enabledCount; i++ ) {
+            total += transitionWeights[walker.enabled[i]];
+        }
+        if ( total <= 0 ) return -1;
+
+        double r = random.nextDouble() * total;
+        int last = -1;
+        for ( int i = 0; i < walker.enabledCount; i++ ) {
+            int transition = walker.enabled[i];
+            if ( transitionWeights[transition] <= 0 ) continue;
+            last = transition;
+            r -= transitionWeights[transition];
+            if ( r < 0 ) return transition;
+        }
+        // rounding errors
+        return last;
+    }
+
+    /*
+     * Enumerates the firing sequences starting with the prefix depth first, at most as many as the trace count, as
+     * the following ones would never be emitted
+     */
+    private void explore(Walker walker, int[] prefix, List<int[]> traces, Output output) {
+        walker.reset();
+        for ( int transition : prefix ) {
+            walker.fire(transition);
+        }
+        if ( walker.enabledCount == 0 ) {
+            traces.add(Arrays.copyOf(walker.trace, walker.length));
+            return;
+        }
+
+        int base = prefix.length;
+        int[][] choices = new int[maxLength + 1][];
+        int[] next = new int[maxLength + 1];
+        int depth = base;
+        choices[depth] = walker.getEnabled();
+        while ( !output.isStopped() && traces.size() < traceCount ) {
+            if ( next[depth] < choices[depth].length ) {
+                walker.fire(choices[depth][next[depth]++]);
+                if ( walker.enabledCount == 0 ) {
+                    traces.add(Arrays.copyOf(walker.trace, walker.length));
+                    walker.undo();
+                } else if ( walker.length == maxLength ) {
+                    walker.undo();
+                } else {
+                    depth++;
+                    choices[depth] = walker.getEnabled();
+                    next[depth] = 0;
+                }
+            } else {
+                if ( depth == base ) break;
+                walker.undo();
+                depth--;
+            }
+        }
+    }
+
+    /*
+     * Splits the firing sequences into prefixes that can be explored independently. The prefixes are sorted, so
+     * exploring them one after the other enumerates the sequences in the same order as a single depth first search.
+     */
+    private List<int[]> createPrefixes() {
+        List<int[]> prefixes = new ArrayList<>();
+        Deque<int[]> open = new ArrayDeque<>();
+        open.add(new int[0]);
+        Walker walker = new Walker();
+        int target = parallelism * PREFIXES_PER_THREAD;
+        while ( !open.isEmpty() && prefixes.size() + open.size() < target ) {
+            int[] prefix = open.poll();
+            walker.reset();
+            for ( int transition : prefix ) {
+                walker.fire(transition);
+            }
+            if ( walker.enabledCount == 0 || prefix.length + 1 >= maxLength ) {
+                prefixes.add(prefix);
+                continue;
+            }
+            for ( int transition : walker.getEnabled() ) {
+                int[] child = Arrays.copyOf(prefix, prefix.length + 1);
+                child[prefix.length] = transition;
+                open.add(child);
+            }
+        }
+        prefixes.addAll(open);
+        Collections.sort(prefixes, new Comparator<int[]>() {
+            @Override
+            public int compare(int[] a, int[] b) {
+                for ( int i = 0; i < a.length && i < b.length; i++ ) {
+                    if ( a[i] != b[i] ) return Integer.compare(a[i], b[i]);
+                }
+                return Integer.compare(a.length, b.length);
+            }
+        });
+        return prefixes;
+    }
+
+    private double[] createWeights() {
+        if ( strategy != Strategy.WEIGHTED ) return null;
+
+        TransitionNode[] transitions = net.getTransitions();
+        double[] result = new double[transitions.length];
+        for ( int t = 0; t < transitions.length; t++ ) {
+            Double weight = weights.get(transitions[t].getId());
+            if ( weight == null ) weight = weights.get(transitions[t].getOriginId());
+            result[t] = weight == null ? 1 : weight;
+        }
+        return result;
+    }
+
+    /**
+     * Hands the traces of the workers to the sink one at a time.
+     */
+    private class Output {
+        private final PlayoutSink sink;
+        private long count = 0;
+        private volatile boolean stopped = false;
+        // ! Traces of exhaustively explored prefixes waiting for the traces of the prefixes before them
+        private final Map<Integer, List<int[]>> pending = new HashMap<>();
+        private int nextPrefix = 0;
+
+        Output(PlayoutSink sink) {
+            this.sink = sink;
+        }
+
+        /**
+         * @param index the index of the trace or -1 to number the traces in the order they are finished
+         */
+        synchronized void emit(long index, int[] firings, boolean complete) throws IOException {
+            if ( stopped ) return;
+            if ( count >= traceCount ) {
+                stopped = true;
+                return;
+            }
+            sink.accept(new PlayoutTrace(index < 0 ? count : index, net.getTransitions(), withoutSilent(firings), complete, parents));
+            count++;
+            if ( count >= traceCount ) stopped = true;
+        }
+
+        /**
+         * Emits the traces of the prefixes in the order of the prefixes.
+         *
+         * @param prefix the index of the explored prefix
+         * @param traces the complete traces found for the prefix
+         */
+        synchronized void emitInOrder(int prefix, List<int[]> traces) throws IOException {
+            pending.put(prefix, traces);
+            List<int[]> next;
+            while ( (next = pending.remove(nextPrefix)) != null ) {
+                nextPrefix++;
+                for ( int[] firings : next ) {
+                    emit(-1, firings, true);
+                }
+            }
+        }
+
+        private int[] withoutSilent(int[] firings) {
+            if ( silent == null ) return firings;
+            int length = 0;
+            int[] result = new int[firings.length];
+            for ( int transition : firings ) {
+                if ( !silent[transition] ) result[length++] = transition;
+            }
+            return length == firings.length ? firings : Arrays.copyOf(result, length);
+        }
+
+        boolean isStopped() {
+            return stopped;
+        }
+
+        void stop() {
+            stopped = true;
+        }
+
+        synchronized long getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * The marking and the enabled transitions of one trace. After a firing only the transitions in the post set of the
+     * changed places are checked again.
+     */
+    private class Walker {
+        final int[] tokens = new int[net.getPlaceCount()];
+        // ! The enabled transitions and the position of each transition in this list, -1 if it is not enabled
+        final int[] enabled = new int[net.getTransitionCount()];
+        final int[] positions = new int[net.getTransitionCount()];
+        int enabledCount;
+        final int[] trace = new int[maxLength];
+        int length;
+
+        void reset() {
+            System.arraycopy(net.getInitialTokens(), 0, tokens, 0, tokens.length);
+            Arrays.fill(positions, -1);
+            enabledCount = 0;
+            length = 0;
+            for ( int t = 0; t < enabled.length; t++ ) {
+                if ( net.isEnabled(t, tokens, 0) ) add(t);
+            }
+        }
+
+        void fire(int transition) {
+            apply(transition, 1);
+            trace[length++] = transition;
+        }
+
+        void undo() {
+            apply(trace[--length], -1);
+        }
+
+        int[] getEnabled() {
+            int[] result = Arrays.copyOf(enabled, enabledCount);
+            // explore in the order of the transitions
+            Arrays.sort(result);
+            return result;
+        }
+
+        private void apply(int transition, int direction) {
+            int[] deltaPlaces = net.getDeltaPlaces();
+            int[] deltaValues = net.getDeltaValues();
+            for ( int i = net.getDeltaOffset(transition); i < net.getDeltaEnd(transition); i++ ) {
+                int p = deltaPlaces[i];
+                if ( tokens[p] != CompiledPetriNet.OMEGA ) tokens[p] += direction * deltaValues[i];
+            }
+            for ( int i = net.getDeltaOffset(transition); i < net.getDeltaEnd(transition); i++ ) {
+                int p = deltaPlaces[i];
+                for ( int j = postOffsets[p]; j < postOffsets[p + 1]; j++ ) {
+                    int t = postTransitions[j];
+                    boolean isEnabled = net.isEnabled(t, tokens, 0);
+                    if ( isEnabled && positions[t] < 0 ) {
+                        add(t);
+                    } else if ( !isEnabled && positions[t] >= 0 ) {
+                        remove(t);
+                    }
+                }
+            }
+        }
+
+        private void add(int t) {
+            positions[t] = enabledCount;
+            enabled[enabledCount++] = t;
+        }
+
+        private void remove(int t) {
+            int position = positions[t];
+            int last = enabled[--enabledCount];
+            enabled[position] = last;
+            positions[last] = position;
+            positions[t] = -1;
+        }
+    }
+
+    /**
+     * Reads the traces of a playout running in the background.
+     */
+    public static class TraceIterator implements Iterator<PlayoutTrace>, PlayoutSink, Closeable {
+        private static final PlayoutTrace END = new PlayoutTrace(-1, new TransitionNode[0], new int[0], true);
+
+        private final BlockingQueue<PlayoutTrace> queue = new ArrayBlockingQueue<>(ITERATOR_CAPACITY);
+        private volatile Exception failure;
+        private volatile boolean closed = false;
+        private Thread producer;
+        private PlayoutTrace next;
+
+        TraceIterator() {
+        }
+
+        @Override
+        public void accept(PlayoutTrace trace) throws IOException {
+            try {
+                while ( !closed ) {
+                    if ( queue.offer(trace, 100, TimeUnit.MILLISECONDS) ) return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("Trace iterator has been closed");
+        }
+
+        void finish() {
+            try {
+                while ( !closed && !queue.offer(END, 100, TimeUnit.MILLISECONDS) ) {
+                    // wait for the reader
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if ( next == null ) {
+                if ( closed ) return false;
+                try {
+                    next = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the next trace", e);
+                }
+            }
+            if ( next == END ) {
+                if ( failure != null && !closed ) throw new IllegalStateException("Playout failed", failure);
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public PlayoutTrace next() {
+            if ( !hasNext() ) throw new NoSuchElementException();
+            PlayoutTrace trace = next;
+            next = null;
+            return trace;
+        }
+
+        /**
+         * Stops the playout.
+         */
+        @Override
+        public void close() {
+            closed = true;
+            next = null;
+            queue.clear();
+            if ( producer != null ) {
+                try {
+                    producer.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -40,8 +40,7 @@ public class SoundnessCheckImplement implements ISoundnessCheck {
 	 */
 	private IMarkingNet getMarkingNetWithoutTStar() {
 		if (markingNetWithoutTStar == null) {
-			markingNetWithoutTStar = BuilderFactory.createMarkingNet(BuilderFactory
-					.createLowLevelPetriNetWithoutTStarBuilder(editor).getLowLevelPetriNet());
+			markingNetWithoutTStar = BuilderFactory.getCachedMarkingNet(editor, false);
 		}
 		return this.markingNetWithoutTStar;
 	}
@@ -52,8 +51,7 @@ public class SoundnessCheckImplement implements ISoundnessCheck {
 	 */
 	private IMarkingNet getMarkingNetWithTStar() {
 		if (markingNetWithTStar == null) {
-			markingNetWithTStar = BuilderFactory.createMarkingNet(BuilderFactory
-					.createLowLevelPetriNetWithTStarBuilder(editor).getLowLevelPetriNet());
+			markingNetWithTStar = BuilderFactory.getCachedMarkingNet(editor, true);
 		}
 		return this.markingNetWithTStar;
 	}
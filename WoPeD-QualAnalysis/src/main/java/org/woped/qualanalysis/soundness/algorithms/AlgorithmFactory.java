@@ -1,13 +1,13 @@
 package org.woped.qualanalysis.soundness.algorithms;
 
 import org.woped.qualanalysis.soundness.algorithms.basedonlowlevelpetrinet.scomponent.ISComponentTest;
-import org.woped.qualanalysis.soundness.algorithms.basedonlowlevelpetrinet.scomponent.SComponentTest;
+import org.woped.qualanalysis.soundness.algorithms.basedonlowlevelpetrinet.scomponent.MemoizedSComponentTest;
 import org.woped.qualanalysis.soundness.algorithms.basedonlowlevelpetrinet.sourcesink.ISourceSinkTest;
 import org.woped.qualanalysis.soundness.algorithms.basedonlowlevelpetrinet.sourcesink.SourceSinkTest;
 import org.woped.qualanalysis.soundness.algorithms.basedonmarkingnet.deadtransition.DeadTransitionTest;
 import org.woped.qualanalysis.soundness.algorithms.basedonmarkingnet.deadtransition.IDeadTransitionTest;
 import org.woped.qualanalysis.soundness.algorithms.basedonmarkingnet.nonliveTransitions.INonLiveTranstionTest;
-import org.woped.qualanalysis.soundness.algorithms.basedonmarkingnet.nonliveTransitions.NonLiveTransitionTest;
+import org.woped.qualanalysis.soundness.algorithms.basedonmarkingnet.nonliveTransitions.NonLiveTransitionTestCondensation;
 import org.woped.qualanalysis.soundness.algorithms.basedonmarkingnet.unboundplaces.IUnboundedPlacesTest;
 import org.woped.qualanalysis.soundness.algorithms.basedonmarkingnet.unboundplaces.UnboundPlacesTest;
 import org.woped.qualanalysis.soundness.algorithms.generic.INode;
@@ -15,7 +15,7 @@ import org.woped.qualanalysis.soundness.algorithms.generic.INodeNet;
 import org.woped.qualanalysis.soundness.algorithms.generic.cc.ConnectedComponentTestGen;
 import org.woped.qualanalysis.soundness.algorithms.generic.cc.IConnectedComponentTestGen;
 import org.woped.qualanalysis.soundness.algorithms.generic.scc.IStronglyConnectedComponentTestGen;
-import org.woped.qualanalysis.soundness.algorithms.generic.scc.StronglyConnectedComponentTestGenTarjan;
+import org.woped.qualanalysis.soundness.algorithms.generic.scc.StronglyConnectedComponentTestGenIterative;
 import org.woped.qualanalysis.soundness.datamodel.LowLevelPetriNet;
 import org.woped.qualanalysis.soundness.marking.IMarkingNet;
 
@@ -43,7 +43,7 @@ public class AlgorithmFactory {
      * @return
      */
     public static INonLiveTranstionTest createNonLiveTranstionTest(IMarkingNet markingNet) {
-        return new NonLiveTransitionTest(markingNet);
+        return new NonLiveTransitionTestCondensation(markingNet);
     }
 
     /**
@@ -61,7 +61,7 @@ public class AlgorithmFactory {
      * @return
      */
     public static ISComponentTest createSComponentTest(LowLevelPetriNet lolNet) {
-        return new SComponentTest(lolNet);
+        return new MemoizedSComponentTest(lolNet);
     }
 
     /**
@@ -80,7 +80,7 @@ public class AlgorithmFactory {
      * @return test algorithm.
      */
     public static <K extends INode<K>> IStronglyConnectedComponentTestGen<K> createSccTest(INodeNet<K> net) {
-        return new StronglyConnectedComponentTestGenTarjan<K>(net);
+        return new StronglyConnectedComponentTestGenIterative<K>(net);
 
     }
 
@@ -0,0 +1,258 @@
+package org.woped.qualanalysis.soundness.algorithms.basedonlowlevelpetrinet.scomponent;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.woped.qualanalysis.soundness.algorithms.basedonlowlevelpetrinet.AbstractLowLevelPetriNetTest;
+import org.woped.qualanalysis.soundness.datamodel.AbstractNode;
+import org.woped.qualanalysis.soundness.datamodel.LowLevelPetriNet;
+import org.woped.qualanalysis.soundness.datamodel.PlaceNode;
+import org.woped.qualanalysis.soundness.datamodel.TransitionNode;
+
+/**
+ * Searches the s-components of a low level petri net on bitsets.
+ * <p>
+ * The search is the one of {@link SComponentTest}: starting at a place, a component contains all transitions connected
+ * to its places and exactly one successor place of each of its transitions. Whenever a transition has more than one
+ * successor place, the search branches. A component is valid if each of its transitions has exactly one predecessor
+ * and one successor place inside the component.
+ * <p>
+ * Components only grow during the search, so a branch is dropped as soon as one of its transitions has two
+ * predecessor or two successor places inside the component. The closed components at the branch points are remembered
+ * across all start places, so a component reached again is not searched a second time. Both keep the number of
+ * searched branches close to the number of s-components instead of growing with every choice in the net. The
+ * components and not covered places are the same as the ones of {@link SComponentTest}.
+ *
+ * @see ISComponentTest
+ */
+public class MemoizedSComponentTest extends AbstractLowLevelPetriNetTest implements ISComponentTest {
+
+    private Set<Set<AbstractNode>> sComponents;
+    private HashSet<PlaceNode> uncoveredPlaces;
+
+    // ! All places come first, followed by the transitions
+    private AbstractNode[] nodes;
+    private int placeCount;
+    private int[][] predecessors;
+    private int[][] successors;
+    // ! Closed components at a branch point that have already been searched
+    private Set<BitSet> searched;
+
+    /**
+     * @param lolNetWithTStar LowLevelPetriNet (with t*) the algorithm is based on
+     */
+    public MemoizedSComponentTest(LowLevelPetriNet lolNetWithTStar) {
+        super(lolNetWithTStar);
+        reCalculate();
+    }
+
+    @Override
+    public Set<PlaceNode> getNotSCovered() {
+        return uncoveredPlaces;
+    }
+
+    @Override
+    public Set<Set<AbstractNode>> getSComponents() {
+        return sComponents;
+    }
+
+    public void reCalculate() {
+        sComponents = new HashSet<Set<AbstractNode>>();
+        uncoveredPlaces = new HashSet<PlaceNode>();
+        searched = new HashSet<BitSet>();
+        index();
+        searchCoverable();
+        searched = null;
+    }
+
+    private void index() {
+        Set<PlaceNode> places = lolNet.getPlaces();
+        Set<TransitionNode> transitions = lolNet.getTransitions();
+        placeCount = places.size();
+        nodes = new AbstractNode[placeCount + transitions.size()];
+
+        Map<AbstractNode, Integer> indices = new HashMap<AbstractNode, Integer>();
+        int i = 0;
+        for (PlaceNode place : places) {
+            indices.put(place, i);
+            nodes[i++] = place;
+        }
+        for (TransitionNode transition : transitions) {
+            indices.put(transition, i);
+            nodes[i++] = transition;
+        }
+
+        predecessors = new int[nodes.length][];
+        successors = new int[nodes.length][];
+        for (i = 0; i < nodes.length; i++) {
+            predecessors[i] = toIndices(nodes[i].getPredecessorNodes(), indices);
+            successors[i] = toIndices(nodes[i].getSuccessorNodes(), indices);
+        }
+    }
+
+    private static int[] toIndices(Set<AbstractNode> neighbours, Map<AbstractNode, Integer> indices) {
+        int[] result = new int[neighbours.size()];
+        int i = 0;
+        for (AbstractNode neighbour : neighbours) {
+            result[i++] = indices.get(neighbour);
+        }
+        return result;
+    }
+
+    private void searchCoverable() {
+        // the start places are taken in the same order as in SComponentTest
+        uncoveredPlaces.addAll(lolNet.getPlaces());
+        @SuppressWarnings("unchecked")
+        HashSet<PlaceNode> unvisitedPlaces = (HashSet<PlaceNode>) uncoveredPlaces.clone();
+
+        while (!unvisitedPlaces.isEmpty()) {
+            PlaceNode place = unvisitedPlaces.iterator().next();
+            unvisitedPlaces.remove(place);
+
+            for (Set<AbstractNode> component : searchComponents(place)) {
+                sComponents.add(component);
+                unvisitedPlaces.removeAll(component);
+            }
+        }
+
+        for (Set<AbstractNode> component : sComponents) {
+            uncoveredPlaces.removeAll(component);
+        }
+    }
+
+    /**
+     * Searches all s-components containing the start place that have not been found from a previous start place.
+     */
+    private Set<Set<AbstractNode>> searchComponents(PlaceNode start) {
+        Set<Set<AbstractNode>> result = new HashSet<Set<AbstractNode>>();
+        Deque<Component> branches = new ArrayDeque<Component>();
+
+        Component initial = new Component();
+        for (int i = 0; i < placeCount; i++) {
+            if (nodes[i] == start) {
+                initial.add(i);
+            }
+        }
+        branches.push(initial);
+
+        while (!branches.isEmpty()) {
+            Component component = branches.pop();
+            if (!component.close()) continue;
+
+            int transition = component.findUnresolvedTransition();
+            if (transition == -1) {
+                if (component.isValid()) result.add(component.toNodes());
+                continue;
+            }
+            if (!searched.add((BitSet) component.nodes.clone())) continue;
+
+            for (int place : successors[transition]) {
+                Component branch = component.copy();
+                branch.add(place);
+                branches.push(branch);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A component under construction together with the number of predecessor and successor places of each transition
+     * inside the component.
+     */
+    private final class Component {
+        private BitSet nodes = new BitSet(MemoizedSComponentTest.this.nodes.length);
+        private int[] predecessorCount = new int[MemoizedSComponentTest.this.nodes.length];
+        private int[] successorCount = new int[MemoizedSComponentTest.this.nodes.length];
+        // ! Nodes added since the last call of close()
+        private Deque<Integer> unchecked = new ArrayDeque<Integer>();
+        private boolean dead = false;
+
+        Component copy() {
+            Component copy = new Component();
+            copy.nodes = (BitSet) nodes.clone();
+            copy.predecessorCount = predecessorCount.clone();
+            copy.successorCount = successorCount.clone();
+            return copy;
+        }
+
+        void add(int node) {
+            if (nodes.get(node)) return;
+            nodes.set(node);
+            unchecked.add(node);
+
+            if (node < placeCount) {
+                for (int transition : predecessors[node]) {
+                    if (nodes.get(transition) && ++successorCount[transition] > 1) dead = true;
+                }
+                for (int transition : successors[node]) {
+                    if (nodes.get(transition) && ++predecessorCount[transition] > 1) dead = true;
+                }
+            } else {
+                predecessorCount[node] = count(predecessors[node]);
+                successorCount[node] = count(successors[node]);
+                if (predecessorCount[node] > 1 || successorCount[node] > 1) dead = true;
+            }
+        }
+
+        /**
+         * Adds all transitions connected to the places of the component and the successor place of all transitions
+         * without a choice.
+         *
+         * @return false if the component can not become an s-component any more
+         */
+        boolean close() {
+            while (!dead && !unchecked.isEmpty()) {
+                int node = unchecked.poll();
+                if (node < placeCount) {
+                    for (int transition : predecessors[node]) {
+                        add(transition);
+                    }
+                    for (int transition : successors[node]) {
+                        add(transition);
+                    }
+                } else if (successors[node].length == 1) {
+                    add(successors[node][0]);
+                }
+            }
+            return !dead;
+        }
+
+        /**
+         * @return a transition of the component without a successor place inside the component, -1 if there is none
+         */
+        int findUnresolvedTransition() {
+            for (int i = nodes.nextSetBit(placeCount); i >= 0; i = nodes.nextSetBit(i + 1)) {
+                if (successorCount[i] == 0) return i;
+            }
+            return -1;
+        }
+
+        boolean isValid() {
+            for (int i = nodes.nextSetBit(placeCount); i >= 0; i = nodes.nextSetBit(i + 1)) {
+                if (predecessorCount[i] != 1 || successorCount[i] != 1) return false;
+            }
+            return true;
+        }
+
+        Set<AbstractNode> toNodes() {
+            Set<AbstractNode> result = new HashSet<AbstractNode>();
+            for (int i = nodes.nextSetBit(0); i >= 0; i = nodes.nextSetBit(i + 1)) {
+                result.add(MemoizedSComponentTest.this.nodes[i]);
+            }
+            return result;
+        }
+
+        private int count(int[] neighbours) {
+            int result = 0;
+            for (int neighbour : neighbours) {
+                if (nodes.get(neighbour)) result++;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package org.woped.qualanalysis.soundness.algorithms.basedonmarkingnet.nonliveTransitions;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.woped.qualanalysis.soundness.algorithms.basedonmarkingnet.AbstractMarkingNetTest;
+import org.woped.qualanalysis.soundness.algorithms.generic.scc.IndexedStronglyConnectedComponents;
+import org.woped.qualanalysis.soundness.datamodel.TransitionNode;
+import org.woped.qualanalysis.soundness.marking.Arc;
+import org.woped.qualanalysis.soundness.marking.IMarking;
+import org.woped.qualanalysis.soundness.marking.IMarkingNet;
+import org.woped.qualanalysis.soundness.marking.MarkingNet;
+import org.woped.qualanalysis.soundness.marking.MarkingStore;
+
+/**
+ * Indicates all non live transitions using the condensation of the marking graph.
+ * <p>
+ * Every marking reaches at least one terminal strongly connected component and can not leave it again. A transition
+ * is therefore live if and only if it labels an arc inside every terminal component. The components are computed
+ * once, so the test runs in O(markings + arcs + transitions * components).
+ *
+ * @see INonLiveTranstionTest
+ */
+public class NonLiveTransitionTestCondensation extends AbstractMarkingNetTest implements INonLiveTranstionTest {
+
+    private int nodeCount;
+    private int[] offsets;
+    private int[] targets;
+    private int[] triggers;
+
+    /**
+     * @param markingNet MarkingNet the algorithm is based on
+     */
+    public NonLiveTransitionTestCondensation(IMarkingNet markingNet) {
+        super(markingNet);
+    }
+
+    /**
+     * @see INonLiveTranstionTest#getNonLiveTransitions()
+     */
+    @Override
+    public Set<TransitionNode> getNonLiveTransitions() {
+        TransitionNode[] transitions = mNet.getTransitions();
+        Set<TransitionNode> nonLiveTransitions = new HashSet<TransitionNode>();
+
+        createGraph();
+        if ( nodeCount == 0 ) return nonLiveTransitions;
+
+        IndexedStronglyConnectedComponents scc = new IndexedStronglyConnectedComponents(nodeCount, offsets, targets);
+        int[] componentOffsets = scc.getComponentOffsets();
+        int[] nodes = scc.getNodesByComponent(componentOffsets);
+
+        BitSet live = new BitSet(transitions.length);
+        live.set(0, transitions.length);
+        BitSet occurring = new BitSet(transitions.length);
+
+        for ( int c = 0; c < scc.getComponentCount() && !live.isEmpty(); c++ ) {
+            if ( !scc.isTerminal(c) ) continue;
+
+            occurring.clear();
+            for ( int i = componentOffsets[c]; i < componentOffsets[c + 1]; i++ ) {
+                int node = nodes[i];
+                for ( int e = offsets[node]; e < offsets[node + 1]; e++ ) {
+                    if ( triggers[e] >= 0 ) occurring.set(triggers[e]);
+                }
+            }
+            live.and(occurring);
+        }
+
+        for ( int t = live.nextClearBit(0); t < transitions.length; t = live.nextClearBit(t + 1) ) {
+            nonLiveTransitions.add(transitions[t]);
+        }
+        return nonLiveTransitions;
+    }
+
+    /**
+     * Creates the index based representation of the marking graph. The edges of a {@link MarkingNet} are used
+     * directly, other nets are converted.
+     */
+    private void createGraph() {
+        if ( mNet instanceof MarkingNet ) {
+            MarkingNet markingNet = (MarkingNet) mNet;
+            MarkingStore store = markingNet.getStore();
+
+            if ( !store.hasForeignSuccessors() && store.getTransitions() == markingNet.getTransitions() ) {
+                nodeCount = store.size();
+                offsets = new int[nodeCount + 1];
+                for ( int m = 0; m < nodeCount; m++ ) {
+                    offsets[m] = store.getFirstEdge(m);
+                }
+                offsets[nodeCount] = nodeCount == 0 ? 0 : store.getEndEdge(nodeCount - 1);
+                targets = store.getEdgeTargets();
+                triggers = store.getEdgeTriggers();
+                return;
+            }
+        }
+
+        Map<TransitionNode, Integer> transitionIndexes = new HashMap<>();
+        TransitionNode[] transitions = mNet.getTransitions();
+        for ( int t = 0; t < transitions.length; t++ ) {
+            transitionIndexes.put(transitions[t], t);
+        }
+
+        // arcs may lead to markings that are not part of the marking set, so these are numbered on demand
+        Map<IMarking, Integer> markingIndexes = new HashMap<>();
+        IMarking[] markings = new IMarking[mNet.getMarkings().size()];
+        for ( IMarking marking : mNet.getMarkings() ) {
+            markingIndexes.put(marking, markingIndexes.size());
+            markings[markingIndexes.size() - 1] = marking;
+        }
+
+        int edgeCount = 0;
+        offsets = new int[markings.length + 1];
+        targets = new int[16];
+        triggers = new int[16];
+        for ( int m = 0; m < markings.length; m++ ) {
+            offsets[m] = edgeCount;
+            if ( markings[m] == null ) continue;
+
+            for ( Arc arc : markings[m].getSuccessors() ) {
+                Integer target = markingIndexes.get(arc.getTarget());
+                if ( target == null ) {
+                    target = markingIndexes.size();
+                    markingIndexes.put(arc.getTarget(), target);
+                    if ( target >= markings.length ) {
+                        markings = Arrays.copyOf(markings, markings.length * 2 + 1);
+                        offsets = Arrays.copyOf(offsets, markings.length + 1);
+                    }
+                    markings[target] = arc.getTarget();
+                }
+                if ( edgeCount == targets.length ) {
+                    targets = Arrays.copyOf(targets, edgeCount * 2);
+                    triggers = Arrays.copyOf(triggers, edgeCount * 2);
+                }
+                Integer trigger = transitionIndexes.get(arc.getTrigger());
+                targets[edgeCount] = target;
+                triggers[edgeCount] = trigger == null ? -1 : trigger;
+                edgeCount++;
+            }
+        }
+        nodeCount = markingIndexes.size();
+        offsets = Arrays.copyOf(offsets, nodeCount + 1);
+        offsets[nodeCount] = edgeCount;
+    }
+}
@@ -0,0 +1,171 @@
+package org.woped.qualanalysis.soundness.algorithms.generic.scc;
+
+import java.util.Arrays;
+
+/**
+ * Computes the strongly connected components of a graph whose nodes are numbered from {@code 0} to {@code n - 1}.
+ * <p>
+ * The edges are passed in compressed sparse row form: the targets of the edges of node {@code v} are located in
+ * {@code targets} between {@code offsets[v]} and {@code offsets[v + 1]}.
+ * <p>
+ * The components are computed with an iterative version of the tarjan algorithm, so the depth of the graph is not
+ * limited by the call stack. Components are numbered in the order they are completed, which is a reverse topological
+ * order of the condensation: every edge between two components leads from a higher to a lower component number.
+ */
+public class IndexedStronglyConnectedComponents {
+
+    private final int nodeCount;
+    private final int[] offsets;
+    private final int[] targets;
+
+    private final int[] components;
+    private int componentCount = 0;
+    private boolean[] terminal;
+
+    /**
+     * Computes the strongly connected components.
+     *
+     * @param nodeCount the amount of nodes
+     * @param offsets   the start of the edges of each node in {@code targets}, {@code nodeCount + 1} entries
+     * @param targets   the target nodes of all edges
+     */
+    public IndexedStronglyConnectedComponents(int nodeCount, int[] offsets, int[] targets) {
+        this.nodeCount = nodeCount;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.components = new int[nodeCount];
+        compute();
+    }
+
+    /**
+     * @return the amount of strongly connected components
+     */
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    /**
+     * @param node the node
+     * @return the number of the component containing the node
+     */
+    public int getComponent(int node) {
+        return components[node];
+    }
+
+    /**
+     * @return the component number of each node. Do not manipulate the returned array!
+     */
+    public int[] getComponents() {
+        return components;
+    }
+
+    /**
+     * Checks if no edge leaves the provided component. Every node of the graph can reach at least one terminal
+     * component.
+     *
+     * @param component the number of the component
+     * @return true if the component is terminal
+     */
+    public boolean isTerminal(int component) {
+        if ( terminal == null ) {
+            boolean[] result = new boolean[componentCount];
+            Arrays.fill(result, true);
+            for ( int v = 0; v < nodeCount; v++ ) {
+                for ( int e = offsets[v]; e < offsets[v + 1]; e++ ) {
+                    if ( components[targets[e]] != components[v] ) {
+                        result[components[v]] = false;
+                        break;
+                    }
+                }
+            }
+            terminal = result;
+        }
+        return terminal[component];
+    }
+
+    /**
+     * Groups the nodes by their component.
+     *
+     * @return an array of {@code getComponentCount() + 1} offsets into {@link #getNodesByComponent(int[])}
+     */
+    public int[] getComponentOffsets() {
+        int[] result = new int[componentCount + 1];
+        for ( int v = 0; v < nodeCount; v++ ) {
+            result[components[v] + 1]++;
+        }
+        for ( int c = 0; c < componentCount; c++ ) {
+            result[c + 1] += result[c];
+        }
+        return result;
+    }
+
+    /**
+     * @param componentOffsets the offsets returned by {@link #getComponentOffsets()}
+     * @return all nodes, ordered by their component
+     */
+    public int[] getNodesByComponent(int[] componentOffsets) {
+        int[] position = componentOffsets.clone();
+        int[] result = new int[nodeCount];
+        for ( int v = 0; v < nodeCount; v++ ) {
+            result[position[components[v]]++] = v;
+        }
+        return result;
+    }
+
+    private void compute() {
+        int[] index = new int[nodeCount];
+        int[] lowLink = new int[nodeCount];
+        int[] nextEdge = new int[nodeCount];
+        boolean[] onStack = new boolean[nodeCount];
+        int[] stack = new int[nodeCount];
+        int[] callStack = new int[nodeCount];
+        int stackSize = 0;
+        int counter = 0;
+
+        Arrays.fill(index, -1);
+
+        for ( int root = 0; root < nodeCount; root++ ) {
+            if ( index[root] >= 0 ) continue;
+
+            int depth = 0;
+            callStack[depth++] = root;
+            index[root] = lowLink[root] = counter++;
+            nextEdge[root] = offsets[root];
+            stack[stackSize++] = root;
+            onStack[root] = true;
+
+            while ( depth > 0 ) {
+                int v = callStack[depth - 1];
+
+                if ( nextEdge[v] < offsets[v + 1] ) {
+                    int w = targets[nextEdge[v]++];
+                    if ( index[w] < 0 ) {
+                        callStack[depth++] = w;
+                        index[w] = lowLink[w] = counter++;
+                        nextEdge[w] = offsets[w];
+                        stack[stackSize++] = w;
+                        onStack[w] = true;
+                    } else if ( onStack[w] && index[w] < lowLink[v] ) {
+                        lowLink[v] = index[w];
+                    }
+                    continue;
+                }
+
+                depth--;
+                if ( lowLink[v] == index[v] ) {
+                    int w;
+                    do {
+                        w = stack[--stackSize];
+                        onStack[w] = false;
+                        components[w] = componentCount;
+                    } while ( w != v );
+                    componentCount++;
+                }
+                if ( depth > 0 ) {
+                    int parent = callStack[depth - 1];
+                    if ( lowLink[v] < lowLink[parent] ) lowLink[parent] = lowLink[v];
+                }
+            }
+        }
+    }
+}
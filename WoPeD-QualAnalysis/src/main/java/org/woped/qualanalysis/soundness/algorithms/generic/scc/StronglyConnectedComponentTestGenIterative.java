@@ -0,0 +1,99 @@
+package org.woped.qualanalysis.soundness.algorithms.generic.scc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.woped.qualanalysis.soundness.algorithms.generic.INode;
+import org.woped.qualanalysis.soundness.algorithms.generic.INodeNet;
+
+/**
+ * indicates strongly connected components in a generic net. uses an iterative version of the tarjan algorithm.
+ * <p>
+ * The nodes are numbered once, afterwards the components are computed on int arrays by
+ * {@link IndexedStronglyConnectedComponents}. Neither the size nor the depth of the net is limited by the call stack.
+ *
+ * @see IStronglyConnectedComponentTestGen
+ */
+public class StronglyConnectedComponentTestGenIterative<K extends INode<K>> implements
+        IStronglyConnectedComponentTestGen<K> {
+
+    private INodeNet<K> nodeNet;
+
+    private List<K> nodes;
+    private IndexedStronglyConnectedComponents components;
+
+    /**
+     * @param nodeNet net the algorithm is based on
+     */
+    public StronglyConnectedComponentTestGenIterative(INodeNet<K> nodeNet) {
+        this.nodeNet = nodeNet;
+    }
+
+    /**
+     * @see IStronglyConnectedComponentTestGen#getStronglyConnectedComponents()
+     * @return a set of strongly connected components.
+     */
+    @Override
+    public Set<Set<K>> getStronglyConnectedComponents() {
+        init();
+
+        List<Set<K>> result = new ArrayList<Set<K>>(components.getComponentCount());
+        for ( int c = 0; c < components.getComponentCount(); c++ ) {
+            result.add(new HashSet<K>());
+        }
+        for ( int v = 0; v < nodes.size(); v++ ) {
+            result.get(components.getComponent(v)).add(nodes.get(v));
+        }
+        return new HashSet<Set<K>>(result);
+    }
+
+    @Override
+    public boolean isStronglyConnected() {
+        init();
+        return components.getComponentCount() <= 1;
+    }
+
+    /**
+     * numbers the nodes of the net and computes the components.
+     */
+    private void init() {
+        Map<K, Integer> ids = new HashMap<K, Integer>();
+        nodes = new ArrayList<K>();
+        for ( K node : nodeNet.getAllContainedNodes() ) {
+            if ( !ids.containsKey(node) ) {
+                ids.put(node, nodes.size());
+                nodes.add(node);
+            }
+        }
+
+        int[] offsets = new int[nodes.size() + 1];
+        int[] targets = new int[nodes.size()];
+        int edgeCount = 0;
+
+        // successors outside of the net are numbered on demand, so the list may grow while it is processed
+        for ( int v = 0; v < nodes.size(); v++ ) {
+            if ( v + 1 >= offsets.length ) offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            offsets[v] = edgeCount;
+
+            for ( K successor : nodes.get(v).getSuccessorNodes() ) {
+                Integer target = ids.get(successor);
+                if ( target == null ) {
+                    target = nodes.size();
+                    ids.put(successor, target);
+                    nodes.add(successor);
+                }
+                if ( edgeCount == targets.length ) targets = Arrays.copyOf(targets, edgeCount * 2 + 1);
+                targets[edgeCount++] = target;
+            }
+        }
+        offsets = Arrays.copyOf(offsets, nodes.size() + 1);
+        offsets[nodes.size()] = edgeCount;
+
+        components = new IndexedStronglyConnectedComponents(nodes.size(), offsets, targets);
+    }
+}
@@ -1,11 +1,17 @@
 package org.woped.qualanalysis.soundness.builder;
 
 import org.woped.core.controller.IEditor;
+import org.woped.core.model.StructuralHash;
+import org.woped.qualanalysis.cache.AnalysisResultCache;
 import org.woped.qualanalysis.soundness.builder.currentmarking.CurrentMarking;
+import org.woped.qualanalysis.soundness.builder.currentmarking.CurrentMarkingIndex;
 import org.woped.qualanalysis.soundness.builder.lowlevelpetrinet.AbstractLowLevelPetriNetBuilder;
 import org.woped.qualanalysis.soundness.builder.lowlevelpetrinet.LowLevelPetriNetWithTStarBuilder;
 import org.woped.qualanalysis.soundness.builder.lowlevelpetrinet.LowLevelPetriNetWithoutTStarBuilder;
+import org.woped.qualanalysis.soundness.builder.markingnet.KarpMillerMarkingNetBuilder;
+import org.woped.qualanalysis.soundness.builder.markingnet.MarkingNetAlgorithm;
 import org.woped.qualanalysis.soundness.builder.markingnet.MarkingNetBuilderBook;
+import org.woped.qualanalysis.soundness.builder.markingnet.ParallelMarkingNetBuilder;
 import org.woped.qualanalysis.soundness.datamodel.ILowLevelPetriNet;
 import org.woped.qualanalysis.soundness.marking.IMarking;
 import org.woped.qualanalysis.soundness.marking.IMarkingNet;
@@ -18,6 +24,10 @@ import org.woped.qualanalysis.soundness.marking.IMarkingNet;
  */
 public class BuilderFactory {
 
+    // names of the marking nets in the analysis result cache
+    private static final String MARKING_NET_WITH_T_STAR = "soundness.markingNetWithTStar";
+    private static final String MARKING_NET_WITHOUT_T_STAR = "soundness.markingNetWithoutTStar";
+
 	/**
 	 * 
 	 * @param editor source object
@@ -37,12 +47,71 @@ public class BuilderFactory {
     }
 
     /**
+     * Creates the marking net using the default algorithm {@link MarkingNetAlgorithm#KARP_MILLER}.
      * 
      * @param lolNet LowLevelPetriNet to calculate MarkingNet from
      * @return
      */
     public static IMarkingNet createMarkingNet(ILowLevelPetriNet lolNet) {
-        return new MarkingNetBuilderBook(lolNet).getMarkingNet();
+        return createMarkingNet(lolNet, MarkingNetAlgorithm.KARP_MILLER);
+    }
+
+    /**
+     * 
+     * @param lolNet LowLevelPetriNet to calculate MarkingNet from
+     * @param algorithm the algorithm used to build the marking net
+     * @return
+     */
+    public static IMarkingNet createMarkingNet(ILowLevelPetriNet lolNet, MarkingNetAlgorithm algorithm) {
+        switch (algorithm) {
+            case BOOK:
+                return new MarkingNetBuilderBook(lolNet).getMarkingNet();
+            case PARALLEL:
+                return new ParallelMarkingNetBuilder(lolNet).getMarkingNet();
+            default:
+                return new KarpMillerMarkingNetBuilder(lolNet).getMarkingNet();
+        }
+    }
+
+    /**
+     * Gets the marking net of the net in the editor from the {@link AnalysisResultCache}. The marking net is only
+     * calculated if there is none for the structural hash of the net. The nodes of the marking net refer to the
+     * elements of the net by their origin id, so the marking net may have been calculated for another editor. The
+     * marking net is kept in memory with the number of its markings and arcs as its size.
+     *
+     * @param editor source object
+     * @param withTStar true if the marking net has to be based on the LowLevelPetriNet with t*
+     * @return
+     */
+    public static IMarkingNet getCachedMarkingNet(IEditor editor, boolean withTStar) {
+        StructuralHash hash = editor.getModelProcessor().getStructuralHash();
+        String name = AnalysisResultCache.getName(withTStar ? MARKING_NET_WITH_T_STAR : MARKING_NET_WITHOUT_T_STAR, editor);
+        IMarkingNet markingNet = AnalysisResultCache.getInstance().get(hash, name, IMarkingNet.class);
+        if (markingNet == null) {
+            AbstractLowLevelPetriNetBuilder builder = withTStar ? createLowLevelPetriNetWithTStarBuilder(editor)
+                    : createLowLevelPetriNetWithoutTStarBuilder(editor);
+            markingNet = createMarkingNet(builder.getLowLevelPetriNet());
+            AnalysisResultCache.getInstance().put(hash, name, markingNet, getSize(markingNet));
+        }
+        return markingNet;
+    }
+
+    private static long getSize(IMarkingNet markingNet) {
+        long size = 0;
+        for (IMarking marking : markingNet.getMarkings()) {
+            size += 1 + marking.getSuccessors().size();
+        }
+        return size;
+    }
+
+    /**
+     * 
+     * @param lolNet LowLevelPetriNet to calculate MarkingNet from
+     * @param parallelism the amount of threads exploring the state space
+     * @return
+     */
+    public static IMarkingNet createParallelMarkingNet(ILowLevelPetriNet lolNet, int parallelism) {
+        return new ParallelMarkingNetBuilder(lolNet, parallelism).getMarkingNet();
     }
     
     /**
@@ -55,4 +124,16 @@ public class BuilderFactory {
         return new CurrentMarking(lolNet, useVirtualTokens).getMarking();
     }
 
+    /**
+     * Creates an index that calculates the current marking of the net in the editor without building the low level
+     * petri net again. The index has to be created again when the structure of the net changes.
+     *
+     * @param editor source object
+     * @return
+     */
+    public static CurrentMarkingIndex createCurrentMarkingIndex(IEditor editor) {
+        LowLevelPetriNetWithoutTStarBuilder builder = new LowLevelPetriNetWithoutTStarBuilder(editor);
+        return new CurrentMarkingIndex(builder.getLowLevelPetriNet(), builder.getPlaceModels());
+    }
+
 }
@@ -0,0 +1,71 @@
+package org.woped.qualanalysis.soundness.builder.currentmarking;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.woped.core.model.petrinet.PlaceModel;
+import org.woped.qualanalysis.soundness.datamodel.ILowLevelPetriNet;
+import org.woped.qualanalysis.soundness.datamodel.PlaceNode;
+import org.woped.qualanalysis.soundness.marking.IMarking;
+import org.woped.qualanalysis.soundness.marking.Marking;
+
+/**
+ * Calculates the current marking of a net from the places of the editor, without building the low level petri net
+ * again for every marking.
+ * <p>
+ * The places of the low level petri net are mapped once to the places of the editor holding their tokens, including
+ * the center places of operators. Every marking then only reads the token counts of these places.
+ */
+public class CurrentMarkingIndex {
+
+    private final PlaceNode[] places;
+    private final PlaceModel[] placeModels;
+    private final Map<String, Integer> placeIndexes;
+
+    /**
+     * @param lolNet      the low level petri net the markings belong to
+     * @param placeModels the places of the editor holding the tokens, by the ids of the places of the low level petri
+     *                    net
+     * @throws IllegalArgumentException if a place of the low level petri net has no place of the editor
+     */
+    public CurrentMarkingIndex(ILowLevelPetriNet lolNet, Map<String, PlaceModel> placeModels) {
+        places = lolNet.getPlaces().toArray(new PlaceNode[0]);
+        this.placeModels = new PlaceModel[places.length];
+        placeIndexes = new HashMap<>();
+        for (int i = 0; i < places.length; i++) {
+            this.placeModels[i] = placeModels.get(places[i].getId());
+            if (this.placeModels[i] == null) {
+                throw new IllegalArgumentException("No place holds the tokens of " + places[i].getId());
+            }
+            placeIndexes.put(places[i].getId(), i);
+        }
+    }
+
+    /**
+     * @param useVirtualTokens true if the virtual token counts of the token game are used
+     * @return the current marking of the net
+     */
+    public IMarking getMarking(boolean useVirtualTokens) {
+        int[] tokens = new int[places.length];
+        for (int i = 0; i < places.length; i++) {
+            tokens[i] = useVirtualTokens ? placeModels[i].getVirtualTokenCount() : placeModels[i].getTokenCount();
+        }
+        return new Marking(tokens, places, new boolean[places.length]);
+    }
+
+    /**
+     * @param placeId the id of the place
+     * @return the position of the place in the markings or -1 if the net does not contain the place
+     */
+    public int getPlaceIndex(String placeId) {
+        Integer index = placeIndexes.get(placeId);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @return the number of places of the markings
+     */
+    public int getPlaceCount() {
+        return places.length;
+    }
+}
@@ -1,6 +1,9 @@
 package org.woped.qualanalysis.soundness.builder.lowlevelpetrinet;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 
 import org.woped.core.controller.IEditor;
@@ -9,11 +12,11 @@ import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
 import org.woped.core.model.petrinet.OperatorTransitionModel;
 import org.woped.core.model.petrinet.PlaceModel;
 import org.woped.core.model.petrinet.TransitionModel;
-import org.woped.qualanalysis.soundness.datamodel.AbstractNode;
 import org.woped.qualanalysis.soundness.datamodel.LowLevelPetriNet;
 import org.woped.qualanalysis.soundness.datamodel.PlaceNode;
 import org.woped.qualanalysis.soundness.datamodel.TransitionNode;
-import org.woped.qualanalysis.structure.NetAlgorithms;
+import org.woped.qualanalysis.structure.INetGraph;
+import org.woped.qualanalysis.structure.LowLevelNetGraph;
 import org.woped.qualanalysis.structure.StructuralAnalysis;
 
 /**
@@ -39,10 +42,20 @@ public abstract class AbstractLowLevelPetriNetBuilderUsingSA extends AbstractLow
      * Creates an lowlevelPetriNet from the provided editor using the Structural Analysis implementation. have to call from each specification!
      */
     protected void createLowLevelPetriNet() {
+        createLowLevelPetriNet(new LowLevelNetGraph(), sa.getTransitions());
+    }
+
+    /**
+     * Creates an lowlevelPetriNet from the places of the structural analysis and the given transitions.
+     *
+     * @param net         the arcs between the places and transitions
+     * @param transitions the transitions to add
+     */
+    protected void createLowLevelPetriNet(INetGraph net, Collection<AbstractPetriNetElementModel> transitions) {
 
         lowLevelPetriNet = new LowLevelPetriNet();
         addPlaces();
-        addTransitions();
+        addTransitions(net, transitions);
 
         // if editor is subprocess-editor, ensure that source place contains a token
         if ( isSubprocess ) {
@@ -50,6 +63,40 @@ public abstract class AbstractLowLevelPetriNetBuilderUsingSA extends AbstractLow
         }
     }
 
+    /**
+     * Maps the places of the low level petri net to the places of the editor holding their tokens. The center place
+     * of an operator is mapped to the center place of the operator the token game moves the tokens of, all other
+     * places to the place of the editor with the same id.
+     *
+     * @return the places of the editor by the ids of the places of the low level petri net
+     */
+    public Map<String, PlaceModel> getPlaceModels() {
+        Map<String, PlaceModel> placesById = new HashMap<String, PlaceModel>();
+        for ( AbstractPetriNetElementModel place : sa.getPlaces() ) {
+            placesById.put(place.getId(), (PlaceModel) place);
+        }
+        Map<String, OperatorTransitionModel> operatorsById = new HashMap<String, OperatorTransitionModel>();
+        for ( AbstractPetriNetElementModel operator : sa.getOperators() ) {
+            operatorsById.put(operator.getId(), (OperatorTransitionModel) operator);
+        }
+
+        Map<String, PlaceModel> placeModels = new HashMap<String, PlaceModel>();
+        for ( PlaceNode place : lowLevelPetriNet.getPlaces() ) {
+            PlaceModel placeModel = null;
+            if ( place.getId().startsWith(OperatorTransitionModel.OPERATOR_SEPERATOR_PLACE) ) {
+                OperatorTransitionModel operator = operatorsById.get(place.getOriginId());
+                if ( operator != null ) placeModel = operator.getCenterPlace();
+            }
+            if ( placeModel == null ) placeModel = placesById.get(place.getId());
+            if ( placeModel == null ) {
+                AbstractPetriNetElementModel element = editor.getModelProcessor().getElementContainer().getElementById(place.getId());
+                if ( element instanceof PlaceModel ) placeModel = (PlaceModel) element;
+            }
+            if ( placeModel != null ) placeModels.put(place.getId(), placeModel);
+        }
+        return placeModels;
+    }
+
     private void addPlaces() {
         // loop over all places
         Iterator<AbstractPetriNetElementModel> iterPlace = sa.getPlaces().iterator();
@@ -59,12 +106,12 @@ public abstract class AbstractLowLevelPetriNetBuilderUsingSA extends AbstractLow
         }
     }
 
-    private void addTransitions() {
+    private void addTransitions(INetGraph net, Collection<AbstractPetriNetElementModel> transitions) {
         // loops over all transitions and set predecessors and successors
-        Iterator<AbstractPetriNetElementModel> iterTransition = sa.getTransitions().iterator();
+        Iterator<AbstractPetriNetElementModel> iterTransition = transitions.iterator();
         while ( iterTransition.hasNext() ) {
             OperatorTransitionModel opTrans = null;
-            ModelElementContainer mec = null;
+            ModelElementContainer mec;
             TransitionModel transitionModel = (TransitionModel) iterTransition.next();
 
             Iterator<ModelElementContainer> ownerIterator = transitionModel.getOwningContainersIterator();
@@ -87,17 +134,17 @@ public abstract class AbstractLowLevelPetriNetBuilderUsingSA extends AbstractLow
             }
 
             // add predecessor of current transition node
-            Set<AbstractPetriNetElementModel> predecessors = NetAlgorithms.getDirectlyConnectedNodes(transitionModel, NetAlgorithms.connectionTypeINBOUND);
+            Set<AbstractPetriNetElementModel> predecessors = net.getPredecessors(transitionModel);
             for ( AbstractPetriNetElementModel predecessor : predecessors ) {
                 PlaceNode place = lowLevelPetriNet.getPlaceNode(new PlaceNode(((PlaceModel) predecessor).getTokenCount(), ((PlaceModel) predecessor).getVirtualTokenCount(), predecessor.getId(), predecessor.getNameValue(), extractOriginId(predecessor.getId())));
-                place.addSuccessorNode(transition, getWeight(mec, place, transition));
+                place.addSuccessorNode(transition, net.getArcWeight(predecessor, transitionModel));
             }
 
             // add successor of current transition node
-            Set<AbstractPetriNetElementModel> successors = NetAlgorithms.getDirectlyConnectedNodes(transitionModel, NetAlgorithms.connectionTypeOUTBOUND);
+            Set<AbstractPetriNetElementModel> successors = net.getSuccessors(transitionModel);
             for ( AbstractPetriNetElementModel successor : successors ) {
                 PlaceNode place = lowLevelPetriNet.getPlaceNode(new PlaceNode(((PlaceModel) successor).getTokenCount(), ((PlaceModel) successor).getVirtualTokenCount(), successor.getId(), successor.getNameValue(), extractOriginId(successor.getId())));
-                transition.addSuccessorNode(place, getWeight(mec, transition, place));
+                transition.addSuccessorNode(place, net.getArcWeight(transitionModel, successor));
             }
 
         }
@@ -117,11 +164,6 @@ public abstract class AbstractLowLevelPetriNetBuilderUsingSA extends AbstractLow
         }
     }
 
-    private Integer getWeight(ModelElementContainer mec, AbstractNode source, AbstractNode target) {
-
-        return mec.findArc(source.getId(), target.getId()).getInscriptionValue();
-    }
-
     /**
      * @param id the full id of the element.
      * @return the origin id of the element.
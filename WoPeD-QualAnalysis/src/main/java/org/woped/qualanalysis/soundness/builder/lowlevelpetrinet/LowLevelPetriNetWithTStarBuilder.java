@@ -1,7 +1,11 @@
 package org.woped.qualanalysis.soundness.builder.lowlevelpetrinet;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import org.woped.core.controller.IEditor;
 import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+import org.woped.qualanalysis.structure.ShortCircuitedNet;
 
 /**
  * creates an lowLevel petri net with tStar.
@@ -13,17 +17,17 @@ import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
 public class LowLevelPetriNetWithTStarBuilder extends AbstractLowLevelPetriNetBuilderUsingSA {
 
     /**
-     * adds tStar element to the provided source object, creates low level petri net, removes the created tStar element.
+     * creates the low level petri net of the provided source object short-circuited by tStar. The source object is
+     * not modified.
      * 
      * @param editor source object.
      */
     public LowLevelPetriNetWithTStarBuilder(IEditor editor) {
         super(editor);
-        AbstractPetriNetElementModel tStar;
-        tStar = sa.addTStar();
-        createLowLevelPetriNet();
-        sa.removeTStar(tStar);
-
+        ShortCircuitedNet net = sa.getShortCircuitedNet();
+        Set<AbstractPetriNetElementModel> transitions = new HashSet<AbstractPetriNetElementModel>(sa.getTransitions());
+        transitions.add(net.getTStar());
+        createLowLevelPetriNet(net, transitions);
     }
 
 }
@@ -1,8 +1,13 @@
 package org.woped.qualanalysis.soundness.builder.markingnet;
 
+import java.util.concurrent.CancellationException;
+
 import org.woped.qualanalysis.soundness.datamodel.ILowLevelPetriNet;
+import org.woped.qualanalysis.soundness.datamodel.PlaceNode;
+import org.woped.qualanalysis.soundness.marking.IMarking;
 import org.woped.qualanalysis.soundness.marking.IMarkingNet;
 import org.woped.qualanalysis.soundness.marking.MarkingNet;
+import org.woped.qualanalysis.soundness.marking.MarkingStore;
 
 /**
  * abstract builder for marking net.
@@ -12,16 +17,29 @@ import org.woped.qualanalysis.soundness.marking.MarkingNet;
  */
 public abstract class AbstractMarkingNetBuilder {
     protected ILowLevelPetriNet lolNet;
-    protected IMarkingNet mNet;
+    protected MarkingNet mNet;
 
     /**
      * 
      * @param lolNet source low level petri net.
      */
     public AbstractMarkingNetBuilder(ILowLevelPetriNet lolNet) {
+        this(lolNet, true);
+    }
+
+    /**
+     * Allows subclasses to initialize their own fields before the marking net is created. If {@code build} is false,
+     * the subclass has to call {@link #createMarkingNet()} itself.
+     *
+     * @param lolNet source low level petri net.
+     * @param build  true if the marking net should be created immediately
+     */
+    protected AbstractMarkingNetBuilder(ILowLevelPetriNet lolNet, boolean build) {
         this.lolNet = lolNet;
         initMarkingNet();
-        createMarkingNet();
+        if ( build ) {
+            createMarkingNet();
+        }
     }
 
     /**
@@ -43,4 +61,31 @@ public abstract class AbstractMarkingNetBuilder {
      * create marking net.
      */
     public abstract void createMarkingNet();
+
+    /**
+     * Stops the exploration of the state space if the thread has been interrupted, e.g. because the analysis has
+     * been abandoned. The interrupt status is kept.
+     *
+     * @throws CancellationException if the thread has been interrupted
+     */
+    protected static void checkInterrupted() {
+        if ( Thread.currentThread().isInterrupted() ) {
+            throw new CancellationException("Creation of the marking net has been interrupted");
+        }
+    }
+
+    /**
+     * @return the index of the initial marking in the store of the marking net
+     */
+    protected int getInitialMarkingIndex() {
+        MarkingStore store = mNet.getStore();
+        IMarking marking = mNet.getInitialMarking();
+        PlaceNode[] places = store.getPlaces();
+
+        int[] vector = new int[places.length];
+        for ( int p = 0; p < places.length; p++ ) {
+            vector[p] = marking.isPlaceUnbound(places[p]) ? MarkingStore.OMEGA : marking.getTokens(places[p]);
+        }
+        return store.find(vector);
+    }
 }
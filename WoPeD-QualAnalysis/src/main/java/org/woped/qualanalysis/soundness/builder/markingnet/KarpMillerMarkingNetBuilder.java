@@ -0,0 +1,128 @@
+package org.woped.qualanalysis.soundness.builder.markingnet;
+
+import org.woped.qualanalysis.soundness.datamodel.ILowLevelPetriNet;
+import org.woped.qualanalysis.soundness.marking.MarkingStore;
+
+/**
+ * Creates the coverability graph of a net using the Karp-Miller construction.
+ * <p>
+ * The graph is explored depth first. The path from the initial marking to the marking currently processed is kept as a
+ * stack of marking indexes, so the ancestors of a new marking are available without walking predecessor references.
+ * A new marking is accelerated against every ancestor it covers: each place with more tokens than in the covered
+ * ancestor becomes unbound. Since unbound places may make further ancestors comparable, the acceleration is repeated
+ * until no place changes any more.
+ * <p>
+ * Unbound places are represented by {@link MarkingStore#OMEGA} inside the token vectors, so all comparisons are plain
+ * loops over {@code int} arrays. Markings that have been seen before are not explored again; their arcs are folded
+ * onto the existing marking.
+ *
+ * @see AbstractMarkingNetBuilder
+ */
+public class KarpMillerMarkingNetBuilder extends AbstractMarkingNetBuilder {
+
+    /**
+     * @param lolNet source low level petri net.
+     */
+    public KarpMillerMarkingNetBuilder(ILowLevelPetriNet lolNet) {
+        super(lolNet);
+    }
+
+    /**
+     * creates marking net.
+     */
+    @Override
+    public void createMarkingNet() {
+        MarkingStore store = mNet.getStore();
+        int placeCount = store.getPlaceCount();
+        int transitionCount = mNet.getTransitions().length;
+        int[] newMarking = new int[placeCount];
+
+        // the current path, each entry holds a marking and the next transition to try in that marking
+        int[] pathMarkings = new int[16];
+        int[] pathTransitions = new int[16];
+        int depth = 0;
+
+        pathMarkings[0] = getInitialMarkingIndex();
+        pathTransitions[0] = 0;
+        depth++;
+
+        while (depth > 0) {
+            checkInterrupted();
+            int current = pathMarkings[depth - 1];
+            int t = pathTransitions[depth - 1];
+
+            while (t < transitionCount && !mNet.isActivated(current, t)) {
+                t++;
+            }
+            if (t == transitionCount) {
+                depth--;
+                continue;
+            }
+            pathTransitions[depth - 1] = t + 1;
+
+            mNet.fire(current, t, newMarking);
+            accelerate(store, pathMarkings, depth, newMarking);
+
+            int successor = store.find(newMarking);
+            if (successor < 0) {
+                successor = store.add(newMarking);
+                store.setPredecessor(successor, current);
+
+                if (depth == pathMarkings.length) {
+                    pathMarkings = grow(pathMarkings);
+                    pathTransitions = grow(pathTransitions);
+                }
+                pathMarkings[depth] = successor;
+                pathTransitions[depth] = 0;
+                depth++;
+            }
+            store.addEdge(current, successor, t);
+        }
+    }
+
+    /**
+     * Sets every place of the vector to {@link MarkingStore#OMEGA} that exceeds the token count of a covered ancestor.
+     *
+     * @param store     the store containing the ancestors
+     * @param ancestors the stack of ancestor markings
+     * @param depth     the amount of valid entries of the stack
+     * @param vector    the vector to accelerate
+     */
+    private static void accelerate(MarkingStore store, int[] ancestors, int depth, int[] vector) {
+        int[] arena = store.getTokenArena();
+        int placeCount = vector.length;
+        boolean changed = true;
+
+        while (changed) {
+            changed = false;
+            for (int i = depth - 1; i >= 0; i--) {
+                int offset = ancestors[i] * placeCount;
+                if (!lessOrEqual(arena, offset, vector)) continue;
+
+                for (int p = 0; p < placeCount; p++) {
+                    if (vector[p] != MarkingStore.OMEGA && vector[p] > arena[offset + p]) {
+                        vector[p] = MarkingStore.OMEGA;
+                        changed = true;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if the vector stored at the offset is less or equal than the provided vector. As the unbound sentinel is
+     * the largest int value, unbound places need no special treatment.
+     */
+    private static boolean lessOrEqual(int[] arena, int offset, int[] vector) {
+        for (int p = 0; p < vector.length; p++) {
+            if (arena[offset + p] > vector[p]) return false;
+        }
+        return true;
+    }
+
+    private static int[] grow(int[] array) {
+        int[] result = new int[array.length * 2];
+        System.arraycopy(array, 0, result, 0, array.length);
+        return result;
+    }
+}
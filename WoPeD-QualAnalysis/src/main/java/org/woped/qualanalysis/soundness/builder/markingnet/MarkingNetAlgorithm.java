@@ -0,0 +1,25 @@
+package org.woped.qualanalysis.soundness.builder.markingnet;
+
+/**
+ * Defines the algorithms available to build a marking net.
+ */
+public enum MarkingNetAlgorithm {
+
+    /**
+     * Breadth first construction as described in "Business Process and Workflow Management", see
+     * {@link MarkingNetBuilderBook}.
+     */
+    BOOK,
+
+    /**
+     * Depth first Karp-Miller construction with acceleration against all ancestors on the current path, see
+     * {@link KarpMillerMarkingNetBuilder}.
+     */
+    KARP_MILLER,
+
+    /**
+     * Breadth first construction distributed over one worker thread per available processor, see
+     * {@link ParallelMarkingNetBuilder}.
+     */
+    PARALLEL
+}
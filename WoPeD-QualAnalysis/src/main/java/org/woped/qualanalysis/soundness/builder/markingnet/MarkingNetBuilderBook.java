@@ -1,13 +1,9 @@
 package org.woped.qualanalysis.soundness.builder.markingnet;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import org.woped.qualanalysis.soundness.datamodel.ILowLevelPetriNet;
 import org.woped.qualanalysis.soundness.datamodel.PlaceNode;
-import org.woped.qualanalysis.soundness.datamodel.TransitionNode;
-import org.woped.qualanalysis.soundness.marking.Arc;
 import org.woped.qualanalysis.soundness.marking.IMarking;
+import org.woped.qualanalysis.soundness.marking.MarkingStore;
 
 /**
  * creates marking net based on algorithm page 121 "Business Process and WorkflowManagement" author Cornelia Richter von Hagen, Wolfried Stucky.
@@ -38,60 +34,67 @@ public class MarkingNetBuilderBook extends AbstractMarkingNetBuilder {
      * @param marking the marking to start calculating succeeding markings with
      */
     private void calculateSucceedingMarkings(IMarking marking) {
-        // We use a map here to be able to find markings instances. Unfortunately, Set<> does not
-        // allow us to access a matching object within the set, but this is exactly what we want
-        // to do here, because a marking has additional properties that do not count into equality.
-        Map<IMarking, IMarking> markingsToCheck = new HashMap<>();
-        Map<IMarking, IMarking> markings = new HashMap<>();
-        TransitionNode[] transitions;
-        IMarking currentMarking;
-        IMarking newMarking;
-        IMarking compareMarking;
-        IMarking equalMarking = null;
+        // The markings are interned in the store of the marking net, so the store is both the set of known markings
+        // and the work queue: every marking with an index above the processed ones still has to be checked.
+        MarkingStore store = mNet.getStore();
+        int placeCount = store.getPlaceCount();
+        int transitionCount = mNet.getTransitions().length;
+        int[] newMarking = new int[placeCount];
+        int compareMarking;
+        int equalMarking;
 
-        markingsToCheck.put(marking, marking);
+        int currentMarking = store.find(toVector(marking, store));
 
-        while (!markingsToCheck.isEmpty()) {
-            currentMarking = markingsToCheck.keySet().iterator().next();
-            markingsToCheck.remove(currentMarking);
-            markings.put(currentMarking, currentMarking);
+        while (currentMarking < store.size()) {
+            checkInterrupted();
 
-            transitions = mNet.getActivatedTransitions(currentMarking);
+            for (int t = 0; t < transitionCount; t++) {
+                if (!mNet.isActivated(currentMarking, t)) continue;
 
-            for (int i = 0; i < transitions.length; i++) {
-                newMarking = mNet.calculateSucceedingMarking(currentMarking, transitions[i]);
+                mNet.fire(currentMarking, t, newMarking);
                 compareMarking = currentMarking;
-                while (compareMarking != null && !compareMarking.lessOrEqual(newMarking)) {
-                    compareMarking = compareMarking.getPredecessor();
+                while (compareMarking >= 0 && !lessOrEqual(store, compareMarking, newMarking)) {
+                    compareMarking = store.getPredecessor(compareMarking);
                 }
-                if (compareMarking != null) {
+                if (compareMarking >= 0) {
 
-                    for (PlaceNode place : newMarking.getPlaces()) {
+                    for (int p = 0; p < placeCount; p++) {
 
-                        if (newMarking.getTokens(place) > compareMarking.getTokens(place)) {
-                            newMarking.setPlaceUnbound(place, true);
+                        if (newMarking[p] > store.getToken(compareMarking, p)) {
+                            newMarking[p] = MarkingStore.OMEGA;
                         }
                     }
                 }
 
-                // Check if this marking exists either in the check queue or has been added
-                // to the marking graph already. In this case, use the existing object and
-                // discard the new one.
-                equalMarking = markingsToCheck.get(newMarking);
-                if (equalMarking == null) {
-                    equalMarking = markings.get(newMarking);
-                }
+                // Check if this marking has been added to the marking graph already. In this case, use the
+                // existing marking and discard the new one.
+                equalMarking = store.find(newMarking);
 
-                if (equalMarking == null) {
-                    currentMarking.addSuccessor(new Arc(newMarking, transitions[i]));
-                    newMarking.setPredecessor(currentMarking);
-                    markingsToCheck.put(newMarking, newMarking);
-                } else {
-                    currentMarking.addSuccessor(new Arc(equalMarking, transitions[i]));
+                if (equalMarking < 0) {
+                    equalMarking = store.add(newMarking);
+                    store.setPredecessor(equalMarking, currentMarking);
                 }
-
+                store.addEdge(currentMarking, equalMarking, t);
             }
+            currentMarking++;
+        }
+    }
+
+    private static boolean lessOrEqual(MarkingStore store, int marking, int[] vector) {
+        int[] arena = store.getTokenArena();
+        int offset = marking * vector.length;
+        for (int p = 0; p < vector.length; p++) {
+            if (arena[offset + p] > vector[p]) return false;
+        }
+        return true;
+    }
+
+    private static int[] toVector(IMarking marking, MarkingStore store) {
+        int[] vector = new int[store.getPlaceCount()];
+        PlaceNode[] places = store.getPlaces();
+        for (int p = 0; p < places.length; p++) {
+            vector[p] = marking.isPlaceUnbound(places[p]) ? MarkingStore.OMEGA : marking.getTokens(places[p]);
         }
-        mNet.getMarkings().addAll(markings.values());
+        return vector;
     }
 }
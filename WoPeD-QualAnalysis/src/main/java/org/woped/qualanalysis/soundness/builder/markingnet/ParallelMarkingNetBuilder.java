@@ -0,0 +1,254 @@
+package org.woped.qualanalysis.soundness.builder.markingnet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.woped.core.utilities.WorkerPools;
+import org.woped.qualanalysis.soundness.datamodel.CompiledPetriNet;
+import org.woped.qualanalysis.soundness.datamodel.ILowLevelPetriNet;
+import org.woped.qualanalysis.soundness.marking.MarkingStore;
+
+/**
+ * Creates the marking net by exploring the state space on a shared {@link ForkJoinPool}.
+ * <p>
+ * Every newly discovered marking is processed by its own task. Tasks are forked onto the deque of the worker that
+ * discovered the marking, idle workers steal from the deques of the others. The visited markings are kept in a
+ * {@link ConcurrentHashMap}, so exactly one task wins the race for each marking and explores it.
+ * <p>
+ * Like {@link MarkingNetBuilderBook} a new marking is accelerated against the chain of markings that led to its
+ * discovery, so unbound nets produce a finite coverability graph. As the chain depends on the scheduling, the shape of
+ * the graph of an unbounded net may differ between runs. For bounded nets the result is always the reachability
+ * graph.
+ * <p>
+ * After the exploration the markings are copied into the marking net in breadth first order of the graph, following
+ * the arcs in the order of the transitions. The marking ids and predecessors are therefore independent of the thread
+ * count.
+ *
+ * @see AbstractMarkingNetBuilder
+ */
+public class ParallelMarkingNetBuilder extends AbstractMarkingNetBuilder {
+
+    private final int parallelism;
+
+    /**
+     * Creates a builder using one thread per available processor.
+     *
+     * @param lolNet source low level petri net.
+     */
+    public ParallelMarkingNetBuilder(ILowLevelPetriNet lolNet) {
+        this(lolNet, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param lolNet      source low level petri net.
+     * @param parallelism the amount of worker threads
+     */
+    public ParallelMarkingNetBuilder(ILowLevelPetriNet lolNet, int parallelism) {
+        super(lolNet, false);
+        if ( parallelism < 1 ) throw new IllegalArgumentException("Parallelism has to be at least one");
+
+        this.parallelism = parallelism;
+        createMarkingNet();
+    }
+
+    /**
+     * creates marking net. If the calling thread is interrupted while waiting, the remaining tasks are skipped.
+     *
+     * @throws CancellationException if the calling thread has been interrupted
+     */
+    @Override
+    public void createMarkingNet() {
+        MarkingStore store = mNet.getStore();
+        int[] initialTokens = new int[store.getPlaceCount()];
+        store.copyTokens(getInitialMarkingIndex(), initialTokens);
+
+        Node initial = new Node(initialTokens, null);
+        ConcurrentHashMap<Node, Node> visited = new ConcurrentHashMap<>();
+        visited.put(initial, initial);
+
+        AtomicBoolean cancelled = new AtomicBoolean();
+        ForkJoinTask<Void> exploration = WorkerPools.getForkJoinPool(parallelism)
+                .submit(new ExploreTask(null, mNet.getCompiledNet(), visited, cancelled, initial));
+        try {
+            exploration.get();
+        } catch ( InterruptedException e ) {
+            cancelled.set(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Creation of the marking net has been interrupted");
+        } catch ( ExecutionException e ) {
+            if ( e.getCause() instanceof RuntimeException ) throw (RuntimeException) e.getCause();
+            if ( e.getCause() instanceof Error ) throw (Error) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+
+        copyToStore(store, initial);
+    }
+
+    /**
+     * Renumbers the explored markings in breadth first order and adds them with their arcs to the store.
+     */
+    private static void copyToStore(MarkingStore store, Node initial) {
+        List<Node> order = new ArrayList<>();
+        List<Node> parents = new ArrayList<>();
+        initial.id = 0;
+        order.add(initial);
+        parents.add(null);
+
+        for ( int i = 0; i < order.size(); i++ ) {
+            Node node = order.get(i);
+            for ( int e = 0; e < node.edgeCount; e++ ) {
+                Node target = node.targets[e];
+                if ( target.id < 0 ) {
+                    target.id = order.size();
+                    order.add(target);
+                    parents.add(node);
+                }
+            }
+        }
+
+        // the initial marking is already part of the store
+        for ( int i = 1; i < order.size(); i++ ) {
+            int index = store.add(order.get(i).tokens);
+            store.setPredecessor(index, parents.get(i).id);
+        }
+        for ( Node node : order ) {
+            for ( int e = 0; e < node.edgeCount; e++ ) {
+                store.addEdge(node.id, node.targets[e].id, node.triggers[e]);
+            }
+        }
+    }
+
+    /**
+     * Sets every place of the vector to {@link MarkingStore#OMEGA} that exceeds the token count of a covered marking
+     * of the discovery chain.
+     */
+    private static void accelerate(Node chain, int[] vector) {
+        boolean changed = true;
+
+        while ( changed ) {
+            changed = false;
+            for ( Node ancestor = chain; ancestor != null; ancestor = ancestor.predecessor ) {
+                if ( !lessOrEqual(ancestor.tokens, vector) ) continue;
+
+                for ( int p = 0; p < vector.length; p++ ) {
+                    if ( vector[p] != MarkingStore.OMEGA && vector[p] > ancestor.tokens[p] ) {
+                        vector[p] = MarkingStore.OMEGA;
+                        changed = true;
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean lessOrEqual(int[] tokens, int[] vector) {
+        for ( int p = 0; p < vector.length; p++ ) {
+            if ( tokens[p] > vector[p] ) return false;
+        }
+        return true;
+    }
+
+    /**
+     * A marking discovered during the exploration. The arcs are only written by the task exploring the marking.
+     */
+    private static final class Node {
+        private final int[] tokens;
+        private final int hash;
+        private final Node predecessor;
+
+        private int[] triggers = new int[4];
+        private Node[] targets = new Node[4];
+        private int edgeCount = 0;
+        private int id = -1;
+
+        private Node(int[] tokens, Node predecessor) {
+            this.tokens = tokens;
+            this.hash = Arrays.hashCode(tokens);
+            this.predecessor = predecessor;
+        }
+
+        private void addEdge(int trigger, Node target) {
+            if ( edgeCount == targets.length ) {
+                triggers = Arrays.copyOf(triggers, edgeCount * 2);
+                targets = Arrays.copyOf(targets, edgeCount * 2);
+            }
+            triggers[edgeCount] = trigger;
+            targets[edgeCount] = target;
+            edgeCount++;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if ( this == obj ) return true;
+            if ( !(obj instanceof Node) ) return false;
+
+            Node other = (Node) obj;
+            return hash == other.hash && Arrays.equals(tokens, other.tokens);
+        }
+    }
+
+    /**
+     * Fires all activated transitions of one marking and forks a new task for each marking seen for the first time.
+     */
+    private static final class ExploreTask extends CountedCompleter<Void> {
+        private static final long serialVersionUID = 1L;
+
+        private final CompiledPetriNet net;
+        private final ConcurrentHashMap<Node, Node> visited;
+        // set when the builder has been interrupted, the remaining tasks complete without exploring
+        private final AtomicBoolean cancelled;
+        private final Node node;
+
+        private ExploreTask(CountedCompleter<?> parent, CompiledPetriNet net, ConcurrentHashMap<Node, Node> visited,
+                            AtomicBoolean cancelled, Node node) {
+            super(parent);
+            this.net = net;
+            this.visited = visited;
+            this.cancelled = cancelled;
+            this.node = node;
+        }
+
+        @Override
+        public void compute() {
+            if ( cancelled.get() ) {
+                tryComplete();
+                return;
+            }
+            int transitionCount = net.getTransitionCount();
+            int[] next = null;
+
+            for ( int t = 0; t < transitionCount; t++ ) {
+                if ( !net.isEnabled(t, node.tokens, 0) ) continue;
+
+                // the buffer is only replaced once it has become part of a new marking
+                if ( next == null ) next = new int[node.tokens.length];
+                net.fire(t, node.tokens, 0, next);
+                accelerate(node, next);
+
+                Node candidate = new Node(next, node);
+                Node existing = visited.putIfAbsent(candidate, candidate);
+                if ( existing == null ) {
+                    node.addEdge(t, candidate);
+                    next = null;
+                    addToPendingCount(1);
+                    new ExploreTask(this, net, visited, cancelled, candidate).fork();
+                } else {
+                    node.addEdge(t, existing);
+                }
+            }
+            tryComplete();
+        }
+    }
+}
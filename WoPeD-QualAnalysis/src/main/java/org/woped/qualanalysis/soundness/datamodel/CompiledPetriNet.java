@@ -0,0 +1,267 @@
+package org.woped.qualanalysis.soundness.datamodel;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Array based representation of a {@link ILowLevelPetriNet} used for state space exploration.
+ * <p>
+ * Places and transitions are addressed by dense indexes. For each transition the pre set is stored as list of place
+ * indexes with the weight of the connecting arc, the effect of firing the transition as sparse delta vector. All lists
+ * are packed into flat arrays, the entries of transition {@code t} are located between {@code offsets[t]} and
+ * {@code offsets[t + 1]}.
+ * <p>
+ * Token vectors may contain the sentinel {@link #OMEGA} for unbound places. Unbound places enable every transition
+ * and are not changed by firing.
+ */
+public class CompiledPetriNet {
+
+    /**
+     * Token count representing an unbound place.
+     */
+    public static final int OMEGA = Integer.MAX_VALUE;
+
+    private final PlaceNode[] places;
+    private final TransitionNode[] transitions;
+    private final Map<PlaceNode, Integer> placeIndexes = new HashMap<>();
+    private final Map<TransitionNode, Integer> transitionIndexes = new HashMap<>();
+
+    private final int[] preOffsets;
+    private final int[] prePlaces;
+    private final int[] preWeights;
+
+    private final int[] deltaOffsets;
+    private final int[] deltaPlaces;
+    private final int[] deltaValues;
+
+    private final int[] initialTokens;
+
+    /**
+     * Compiles the arcs between the provided places and transitions. Arcs to nodes not contained in the arrays are
+     * ignored.
+     *
+     * @param places      the places, their order defines the order of the token vectors
+     * @param transitions the transitions, their order defines the transition indexes
+     */
+    public CompiledPetriNet(PlaceNode[] places, TransitionNode[] transitions) {
+        this.places = places;
+        this.transitions = transitions;
+        for (int p = 0; p < places.length; p++) {
+            placeIndexes.put(places[p], p);
+        }
+        for (int t = 0; t < transitions.length; t++) {
+            transitionIndexes.put(transitions[t], t);
+        }
+
+        int preCapacity = 0;
+        int deltaCapacity = 0;
+        for (TransitionNode transition : transitions) {
+            preCapacity += transition.getPredecessorNodes().size();
+            deltaCapacity += transition.getPredecessorNodes().size() + transition.getSuccessorNodes().size();
+        }
+
+        int[] delta = new int[places.length];
+        int[] touched = new int[places.length];
+        preOffsets = new int[transitions.length + 1];
+        deltaOffsets = new int[transitions.length + 1];
+        int[] prePlaces = new int[preCapacity];
+        int[] preWeights = new int[preCapacity];
+        int[] deltaPlaces = new int[deltaCapacity];
+        int[] deltaValues = new int[deltaCapacity];
+
+        for (int t = 0; t < transitions.length; t++) {
+            TransitionNode transition = transitions[t];
+            int preCount = preOffsets[t];
+            int touchedCount = 0;
+
+            for (AbstractNode node : transition.getPredecessorNodes()) {
+                Integer p = placeIndexes.get(node);
+                if (p == null) continue;
+
+                int weight = transition.getWeightFrom(node);
+                prePlaces[preCount] = p;
+                preWeights[preCount] = weight;
+                preCount++;
+                touched[touchedCount++] = p;
+                delta[p] -= weight;
+            }
+
+            for (AbstractNode node : transition.getSuccessorNodes()) {
+                Integer p = placeIndexes.get(node);
+                if (p == null) continue;
+
+                if (delta[p] == 0) touched[touchedCount++] = p;
+                delta[p] += transition.getWeightTo(node);
+            }
+            preOffsets[t + 1] = preCount;
+
+            // self loops cancel out and do not need to be part of the delta vector
+            int deltaCount = deltaOffsets[t];
+            for (int i = 0; i < touchedCount; i++) {
+                int p = touched[i];
+                if (delta[p] != 0) {
+                    deltaPlaces[deltaCount] = p;
+                    deltaValues[deltaCount] = delta[p];
+                    deltaCount++;
+                }
+                delta[p] = 0;
+            }
+            deltaOffsets[t + 1] = deltaCount;
+        }
+
+        this.prePlaces = Arrays.copyOf(prePlaces, preOffsets[transitions.length]);
+        this.preWeights = Arrays.copyOf(preWeights, preOffsets[transitions.length]);
+        this.deltaPlaces = Arrays.copyOf(deltaPlaces, deltaOffsets[transitions.length]);
+        this.deltaValues = Arrays.copyOf(deltaValues, deltaOffsets[transitions.length]);
+
+        this.initialTokens = new int[places.length];
+        for (int p = 0; p < places.length; p++) {
+            initialTokens[p] = places[p].getTokenCount();
+        }
+    }
+
+    /**
+     * @return the places. Do not manipulate the returned array!
+     */
+    public PlaceNode[] getPlaces() {
+        return places;
+    }
+
+    /**
+     * @return the transitions. Do not manipulate the returned array!
+     */
+    public TransitionNode[] getTransitions() {
+        return transitions;
+    }
+
+    /**
+     * @return the amount of places
+     */
+    public int getPlaceCount() {
+        return places.length;
+    }
+
+    /**
+     * @return the amount of transitions
+     */
+    public int getTransitionCount() {
+        return transitions.length;
+    }
+
+    /**
+     * @param place the place to search
+     * @return the index of the place or -1 if the place is not part of the net
+     */
+    public int indexOf(PlaceNode place) {
+        Integer index = placeIndexes.get(place);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @param transition the transition to search
+     * @return the index of the transition or -1 if the transition is not part of the net
+     */
+    public int indexOf(TransitionNode transition) {
+        Integer index = transitionIndexes.get(transition);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @return a new token vector containing the initial marking of the net
+     */
+    public int[] getInitialTokens() {
+        return initialTokens.clone();
+    }
+
+    /**
+     * Checks if a transition is enabled.
+     *
+     * @param transition the index of the transition
+     * @param tokens     array containing the token vector
+     * @param offset     the position of the token vector in the array
+     * @return true if every place of the pre set carries enough tokens
+     */
+    public boolean isEnabled(int transition, int[] tokens, int offset) {
+        for (int i = preOffsets[transition]; i < preOffsets[transition + 1]; i++) {
+            if (tokens[offset + prePlaces[i]] < preWeights[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Fires a transition. The caller has to ensure that the transition is enabled.
+     *
+     * @param transition the index of the transition
+     * @param tokens     array containing the token vector before firing
+     * @param offset     the position of the token vector in the array
+     * @param target     buffer receiving the token vector after firing
+     */
+    public void fire(int transition, int[] tokens, int offset, int[] target) {
+        System.arraycopy(tokens, offset, target, 0, places.length);
+        for (int i = deltaOffsets[transition]; i < deltaOffsets[transition + 1]; i++) {
+            int p = deltaPlaces[i];
+            if (target[p] != OMEGA) target[p] += deltaValues[i];
+        }
+    }
+
+    /**
+     * @param transition the index of the transition
+     * @return the index of the first pre set entry in {@link #getPrePlaces()}
+     */
+    public int getPreOffset(int transition) {
+        return preOffsets[transition];
+    }
+
+    /**
+     * @param transition the index of the transition
+     * @return the index after the last pre set entry in {@link #getPrePlaces()}
+     */
+    public int getPreEnd(int transition) {
+        return preOffsets[transition + 1];
+    }
+
+    /**
+     * @return the places of the pre sets of all transitions. Do not manipulate the returned array!
+     */
+    public int[] getPrePlaces() {
+        return prePlaces;
+    }
+
+    /**
+     * @return the arc weights of the pre sets of all transitions. Do not manipulate the returned array!
+     */
+    public int[] getPreWeights() {
+        return preWeights;
+    }
+
+    /**
+     * @param transition the index of the transition
+     * @return the index of the first delta entry in {@link #getDeltaPlaces()}
+     */
+    public int getDeltaOffset(int transition) {
+        return deltaOffsets[transition];
+    }
+
+    /**
+     * @param transition the index of the transition
+     * @return the index after the last delta entry in {@link #getDeltaPlaces()}
+     */
+    public int getDeltaEnd(int transition) {
+        return deltaOffsets[transition + 1];
+    }
+
+    /**
+     * @return the places changed by firing the transitions. Do not manipulate the returned array!
+     */
+    public int[] getDeltaPlaces() {
+        return deltaPlaces;
+    }
+
+    /**
+     * @return the token changes caused by firing the transitions. Do not manipulate the returned array!
+     */
+    public int[] getDeltaValues() {
+        return deltaValues;
+    }
+}
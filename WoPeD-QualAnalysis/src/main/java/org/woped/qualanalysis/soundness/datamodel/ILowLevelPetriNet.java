@@ -61,4 +61,19 @@ public interface ILowLevelPetriNet extends INodeNet<AbstractNode> {
      * @return the transitionNodes
      */
     Set<TransitionNode> getTransitions();
+
+    /**
+     * Creates an array based representation of this net which is used to explore its state space.
+     * <p>
+     * The places of the compiled net are ordered like {@link #getPlaces()}, the transitions like
+     * {@link #getTransitions()}.
+     *
+     * @return the compiled net
+     */
+    default CompiledPetriNet compile() {
+        SortedSet<PlaceNode> places = getPlaces();
+        Set<TransitionNode> transitions = getTransitions();
+        return new CompiledPetriNet(places.toArray(new PlaceNode[places.size()]),
+                transitions.toArray(new TransitionNode[transitions.size()]));
+    }
 }
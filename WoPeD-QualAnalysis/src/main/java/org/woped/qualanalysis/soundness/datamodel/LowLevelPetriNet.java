@@ -1,19 +1,36 @@
 package org.woped.qualanalysis.soundness.datamodel;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
+import org.woped.core.utilities.ShortLexStringComparator;
+
 /**
  * This class is the reference implementation of the {@code ILowLevelPetriNet} interface.
  */
 public class LowLevelPetriNet implements ILowLevelPetriNet {
 
+    private static final Comparator<TransitionNode> TRANSITION_ORDER = new Comparator<TransitionNode>() {
+        private final ShortLexStringComparator comparator = new ShortLexStringComparator();
+
+        @Override
+        public int compare(TransitionNode o1, TransitionNode o2) {
+            return comparator.compare(o1.getId(), o2.getId());
+        }
+    };
+
     private Map<String, PlaceNode> places = new HashMap<>();
     private Map<String, TransitionNode> transitions = new HashMap<>();
+    // ! the transitions in short lex order, created on first use and cleared when a transition is added
+    private Set<TransitionNode> sortedTransitions;
 
     @Override
     public boolean addNode(AbstractNode node) {
@@ -74,18 +91,27 @@ public class LowLevelPetriNet implements ILowLevelPetriNet {
             // add the provided node to map
             node2return = node;
             transitions.put(node.getId(), node);
+            sortedTransitions = null;
         }
 
         return node2return;
     }
 
+    /**
+     * Gets the set of transitions. The iteration order is the short lex order of their ids.
+     * <p>
+     * The returned set is an unmodifiable view which is shared by all callers until a transition is added.
+     *
+     * @return the transitions of the net
+     */
     @Override
     public Set<TransitionNode> getTransitions() {
-        Set<TransitionNode> transitions = new HashSet<TransitionNode>();
-        for ( String key : this.transitions.keySet() ) {
-            transitions.add(this.transitions.get(key));
+        if ( sortedTransitions == null ) {
+            TransitionNode[] sorted = transitions.values().toArray(new TransitionNode[transitions.size()]);
+            Arrays.sort(sorted, TRANSITION_ORDER);
+            sortedTransitions = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(sorted)));
         }
-        return transitions;
+        return sortedTransitions;
     }
 
     @Override
@@ -62,6 +62,13 @@ public class TransitionNode extends AbstractNode {
         }
     }
 
+    /**
+     * @return the type of the operator containing the transition or {@link OperatorTransitionModel#TRANS_SIMPLE_TYPE}
+     */
+    public int getOperatorType() {
+        return opType;
+    }
+
     @Override
     public String toString() {
         String nodeName = "";
@@ -1,41 +1,32 @@
 package org.woped.qualanalysis.soundness.marking;
 
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
-import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
-import java.util.TreeSet;
 
 import org.woped.core.utilities.ShortLexStringComparator;
 import org.woped.qualanalysis.soundness.algorithms.generic.INode;
 import org.woped.qualanalysis.soundness.datamodel.PlaceNode;
-import org.woped.qualanalysis.soundness.datamodel.PlaceNodeComparator;
 import org.woped.qualanalysis.soundness.datamodel.TransitionNode;
 
 /**
+ * A marking of a marking net.
+ * <p>
+ * The marking is a thin view onto one slot of a {@link MarkingStore}. Markings created by the public constructor or by
+ * {@link #copy()} own a private store and can be modified freely.
+ *
  * @author Patrick Spies, Patrick Kirchgaessner, Joern Liebau, Enrico Moeller, Sebastian Fuss
  * @see IMarking
  */
 public class Marking implements IMarking {
     public static final String UNBOUND_SIGN = "\u03c9"; // small greek omega
-    private static int markingCounter = 0;
+
+    private static final TransitionNode[] NO_TRANSITIONS = new TransitionNode[0];
 
     // declaration
-    private final Map<PlaceNode, Integer> placeToIndexMap = new HashMap<>();
-    private final PlaceNode[] places;
-    private final int[] tokens;
-    private final boolean[] placeUnlimited;
-    private final Set<Arc> successors = new HashSet<>();
-    private IMarking predecessor;
-    private boolean isInitial = false;
-    private int markingID;
-    // Cache the hash code unless something changes in our marking. -1 means the hash code
-    // needs to be updated.
-    private int cachedHashCode = -1;
+    private final MarkingStore store;
+    private final int index;
 
     /**
      * @param tokens         an array with the number of tokens for each place in the same order as places
@@ -43,38 +34,46 @@ public class Marking implements IMarking {
      * @param placeUnlimited an array with true where the places are unlimited in the same order as places
      */
     public Marking(int[] tokens, PlaceNode[] places, boolean[] placeUnlimited) {
-        this.places = places;
-        this.tokens = tokens.clone();
-        this.placeUnlimited = placeUnlimited.clone();
+        int[] vector = new int[tokens.length];
         for (int i = 0; i < tokens.length; i++) {
-            placeToIndexMap.put(places[i], i);
+            vector[i] = placeUnlimited[i] ? MarkingStore.OMEGA : tokens[i];
         }
-        markingID = markingCounter;
-        markingCounter++;
+        this.store = new MarkingStore(places, NO_TRANSITIONS, 1);
+        this.index = store.append(vector);
+    }
+
+    /**
+     * Creates a view onto a stored marking.
+     *
+     * @param store the store containing the marking
+     * @param index the index of the marking in the store
+     */
+    Marking(MarkingStore store, int index) {
+        this.store = store;
+        this.index = index;
     }
 
     public String getID() {
-        return "" + markingID;
+        return "" + index;
     }
 
-    @Override
-    public int hashCode() {
-        if (cachedHashCode != -1) {
-            return cachedHashCode;
-        }
-        final int prime = 31;
-        int result = 1;
+    /**
+     * @return the store containing this marking
+     */
+    public MarkingStore getStore() {
+        return store;
+    }
 
-        for (int i = 0; i < tokens.length; i++) {
-            if (placeUnlimited[i]) {
-                result = prime * result + prime;
-            } else {
-                result = prime * result + tokens[i];
-            }
+    /**
+     * @return the index of this marking in its store
+     */
+    public int getIndex() {
+        return index;
+    }
 
-        }
-        cachedHashCode = result;
-        return result;
+    @Override
+    public int hashCode() {
+        return store.hashOf(index);
     }
 
     @Override
@@ -89,20 +88,10 @@ public class Marking implements IMarking {
             return false;
         }
         Marking other = (Marking) obj;
-
-        if (!Arrays.equals(placeUnlimited, other.placeUnlimited)) {
-            return false;
-        }
-
-        for (int i = 0; i < tokens.length; i++) {
-            // We only need to check one of the two unlimited arrays, the other one must be the same
-            // due to the Arrays.equals() check above.
-            if (!placeUnlimited[i]
-                    && tokens[i] != other.tokens[i]) {
-                return false;
-            }
+        if (store == other.store && index == other.index) {
+            return true;
         }
-        return true;
+        return store.vectorEquals(index, other.store, other.index);
     }
 
     /**
@@ -111,7 +100,14 @@ public class Marking implements IMarking {
      */
     @Override
     public boolean addSuccessor(Arc successor) {
-        return successors.add(successor);
+        IMarking target = successor.getTarget();
+        int trigger = store.indexOf(successor.getTrigger());
+        if (target instanceof Marking && ((Marking) target).store == store && trigger >= 0) {
+            store.addEdge(index, ((Marking) target).index, trigger);
+        } else {
+            store.addForeignSuccessor(index, successor);
+        }
+        return true;
     }
 
     /**
@@ -119,8 +115,9 @@ public class Marking implements IMarking {
      */
     public TreeMap<String, Integer> getMarking() {
         TreeMap<String, Integer> marking = new TreeMap<>(new ShortLexStringComparator());
+        PlaceNode[] places = store.getPlaces();
         for (int i = 0; i < places.length; i++) {
-            marking.put(places[i].getId(), tokens[i]);
+            marking.put(places[i].getId(), tokenCount(i));
         }
         return marking;
     }
@@ -129,25 +126,20 @@ public class Marking implements IMarking {
      * @param position position of the place being unlimited
      */
     public void setPlaceUnlimited(Integer position) {
-        this.placeUnlimited[position] = true;
-        // Reset token count for the new unlimited place to ensure we generate
-        // the same hash for equivalent representations.
-        this.tokens[position] = 0;
-        // We need to recalculate the hash if we do this.
-        cachedHashCode = -1;
+        store.setToken(index, position, MarkingStore.OMEGA);
     }
 
     @Override
     public boolean isPlaceUnbound(String placeId) {
         int pos = getIndexOfPlaceNode(placeId);
-        return pos != -1 && placeUnlimited[pos];
+        return pos != -1 && store.getToken(index, pos) == MarkingStore.OMEGA;
     }
 
     private int getIndexOfPlaceNode(String placeId) {
-
-        for (PlaceNode place : places) {
-            if (place.getId().equals(placeId)) {
-                return getIndexByPlace(place);
+        PlaceNode[] places = store.getPlaces();
+        for (int i = 0; i < places.length; i++) {
+            if (places[i].getId().equals(placeId)) {
+                return i;
             }
         }
 
@@ -159,7 +151,11 @@ public class Marking implements IMarking {
      */
     @Override
     public IMarking getPredecessor() {
-        return predecessor;
+        int predecessor = store.getPredecessor(index);
+        if (predecessor >= 0) {
+            return store.view(predecessor);
+        }
+        return store.getForeignPredecessor(index);
     }
 
     /**
@@ -167,23 +163,39 @@ public class Marking implements IMarking {
      */
     @Override
     public void setPredecessor(IMarking predecessor) {
-        this.predecessor = predecessor;
+        if (predecessor instanceof Marking && ((Marking) predecessor).store == store) {
+            store.setPredecessor(index, ((Marking) predecessor).index);
+        } else {
+            store.setForeignPredecessor(index, predecessor);
+        }
     }
 
     /**
+     * The returned set is a snapshot, use {@link #addSuccessor(Arc)} to add new arcs.
+     *
      * @return the arcs that point to the successors (Set<Arc>)
      */
     @Override
     public Set<Arc> getSuccessors() {
-        return this.successors;
+        Set<Arc> successors = new HashSet<>(store.getForeignSuccessors(index));
+        int[] targets = store.getEdgeTargets();
+        int[] triggers = store.getEdgeTriggers();
+        TransitionNode[] transitions = store.getTransitions();
+        for (int e = store.getFirstEdge(index); e < store.getEndEdge(index); e++) {
+            successors.add(new Arc(store.view(targets[e]), transitions[triggers[e]]));
+        }
+        return successors;
     }
 
     /**
-     * @return the tokens
-     * Do not manipulate the returned array!
+     * @return the tokens (unbound places are reported with zero tokens)
      */
     public int[] getTokens() {
-        return this.tokens;
+        int[] tokens = new int[store.getPlaceCount()];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = tokenCount(i);
+        }
+        return tokens;
     }
 
     /**
@@ -201,39 +213,37 @@ public class Marking implements IMarking {
     /**
      * Gets the set of places of the marking sorted by their id in short lex order.
      *
-     * @return the set of places
+     * @return the set of places (read only)
      */
     @Override
     public SortedSet<PlaceNode> getPlaces() {
-        TreeSet<PlaceNode> sortedPlaces = new TreeSet<>(new PlaceNodeComparator());
-        sortedPlaces.addAll(Arrays.asList(this.places));
-
-        return sortedPlaces;
+        return store.getSortedPlaces();
     }
 
     /**
      * Gets the amount of tokens stored in the provided place
      *
      * @param place the place to get the tokens for
-     * @return the amount of tokens stored in the provided place
+     * @return the amount of tokens stored in the provided place (zero if the place is unbound)
      */
     @Override
     public int getTokens(PlaceNode place) {
-
-        int index = getIndexByPlace(place);
-        return tokens[index];
+        return tokenCount(placeIndex(place));
     }
 
     /**
      * Sets the amount of tokens of the given place to the provided value.
+     * <p>
+     * Unbound places stay unbound.
      *
      * @param place  the place to set the tokens
      * @param amount the new amount of tokens
      */
     @Override
     public void setTokens(PlaceNode place, int amount) {
-        int idx = getIndexByPlace(place);
-        tokens[idx] = amount;
+        int idx = placeIndex(place);
+        if (store.getToken(index, idx) == MarkingStore.OMEGA) return;
+        store.setToken(index, idx, amount);
     }
 
     /**
@@ -244,9 +254,9 @@ public class Marking implements IMarking {
      */
     @Override
     public boolean isPlaceUnbound(PlaceNode place) {
-        int idx = getIndexByPlace(place);
+        int idx = placeIndex(place);
 
-        return placeUnlimited[idx];
+        return store.getToken(index, idx) == MarkingStore.OMEGA;
     }
 
     /**
@@ -257,8 +267,12 @@ public class Marking implements IMarking {
      */
     @Override
     public void setPlaceUnbound(PlaceNode place, boolean unbound) {
-        int idx = getIndexByPlace(place);
-        placeUnlimited[idx] = unbound;
+        int idx = placeIndex(place);
+        if (unbound) {
+            store.setToken(index, idx, MarkingStore.OMEGA);
+        } else if (store.getToken(index, idx) == MarkingStore.OMEGA) {
+            store.setToken(index, idx, 0);
+        }
     }
 
     /**
@@ -270,18 +284,21 @@ public class Marking implements IMarking {
      */
     @Override
     public IMarking copy() {
-        int size = tokens.length;
-        int[] ctokens = new int[size];
-        boolean[] cplaceUnlimited = new boolean[size];
-        PlaceNode[] cplaces = new PlaceNode[size];
-
-        for (int i = 0; i < size; i++) {
-            cplaces[i] = this.places[i];
-            ctokens[i] = this.tokens[i];
-            cplaceUnlimited[i] = placeUnlimited[i];
-        }
+        int[] vector = new int[store.getPlaceCount()];
+        store.copyTokens(index, vector);
+        return detached(store.getPlaces(), vector);
+    }
 
-        return new Marking(ctokens, cplaces, cplaceUnlimited);
+    /**
+     * Creates a marking which is not part of a marking net.
+     *
+     * @param places the places of the marking
+     * @param tokens the token vector, {@link MarkingStore#OMEGA} marks unbound places. The vector is copied.
+     * @return the new marking
+     */
+    static Marking detached(PlaceNode[] places, int[] tokens) {
+        MarkingStore detachedStore = new MarkingStore(places, NO_TRANSITIONS, 1);
+        return new Marking(detachedStore, detachedStore.append(tokens));
     }
 
     /**
@@ -293,6 +310,11 @@ public class Marking implements IMarking {
     @Override
     public boolean lessOrEqual(IMarking other) {
 
+        if (other instanceof Marking && ((Marking) other).store.getPlaces() == store.getPlaces()) {
+            Marking otherMarking = (Marking) other;
+            return store.vectorLessOrEqual(index, otherMarking.store, otherMarking.index);
+        }
+
         SortedSet<PlaceNode> places = this.getPlaces();
         SortedSet<PlaceNode> otherPlaces = other.getPlaces();
         if (places.size() != otherPlaces.size()) return false;
@@ -329,19 +351,14 @@ public class Marking implements IMarking {
      * @return
      */
     public int getIndexByPlace(PlaceNode place) {
-        Integer index = placeToIndexMap.get(place);
-        if (index == null) {
-            return -1;
-        } else {
-            return index;
-        }
+        return store.indexOf(place);
     }
 
     /**
      * @return the isInitial
      */
     public boolean isInitial() {
-        return isInitial;
+        return store.isInitial(index);
     }
 
     /**
@@ -349,7 +366,7 @@ public class Marking implements IMarking {
      */
     @Override
     public void setInitial(boolean isInitial) {
-        this.isInitial = isInitial;
+        store.setInitial(index, isInitial);
     }
 
     /**
@@ -361,7 +378,7 @@ public class Marking implements IMarking {
      */
     @Override
     public boolean isTransitionReachable(TransitionNode tn, Set<IMarking> markings) {
-        for (Arc arc : successors) {
+        for (Arc arc : getSuccessors()) {
             if (arc.getTrigger().equals(tn)) {
                 return true;
             }
@@ -399,7 +416,7 @@ public class Marking implements IMarking {
      */
     public Set<IMarking> getPredecessorNodes() {
         Set<IMarking> set = new HashSet<>();
-        set.add(predecessor);
+        set.add(getPredecessor());
         return set;
     }
 
@@ -421,18 +438,17 @@ public class Marking implements IMarking {
         StringBuilder result = new StringBuilder();
         result.append("(");
 
-        SortedMap<String, Integer> placeIds = getSortedIdIndexMap();
-        for (String id : placeIds.keySet()) {
-
-            int pos = placeIds.get(id);
-            if (tokens[pos] == 0 && !placeUnlimited[pos]) continue;
+        PlaceNode[] places = store.getPlaces();
+        for (int pos : store.getShortLexOrder()) {
+            int tokens = store.getToken(index, pos);
+            if (tokens == 0) continue;
 
             if (result.length() == 1) result.append(" ");
 
-            if (placeUnlimited[pos]) {
+            if (tokens == MarkingStore.OMEGA) {
                 result.append(UNBOUND_SIGN);
-            } else if (tokens[pos] > 1) {
-                result.append(tokens[pos]);
+            } else if (tokens > 1) {
+                result.append(tokens);
             }
 
             result.append(places[pos].getId()).append(" ");
@@ -458,16 +474,15 @@ public class Marking implements IMarking {
     public String asTokenVectorString() {
         StringBuilder result = new StringBuilder();
         result.append("(");
-        SortedMap<String, Integer> idIndexMap = getSortedIdIndexMap();
-        for (String id : idIndexMap.keySet()) {
-            int pos = idIndexMap.get(id);
+        for (int pos : store.getShortLexOrder()) {
+            int tokens = store.getToken(index, pos);
 
             if (result.length() == 1) result.append(" ");
 
-            if (placeUnlimited[pos]) {
+            if (tokens == MarkingStore.OMEGA) {
                 result.append(Marking.UNBOUND_SIGN);
             } else {
-                result.append(tokens[pos]);
+                result.append(tokens);
             }
 
             result.append(" ");
@@ -477,11 +492,14 @@ public class Marking implements IMarking {
         return result.toString();
     }
 
-    private SortedMap<String, Integer> getSortedIdIndexMap() {
-        SortedMap<String, Integer> placeIds = new TreeMap<>(new ShortLexStringComparator());
-        for (int i = 0; i < places.length; i++) {
-            placeIds.put(places[i].getId(), i);
-        }
-        return placeIds;
+    private int placeIndex(PlaceNode place) {
+        int idx = getIndexByPlace(place);
+        if (idx < 0) throw new IllegalArgumentException("The place " + place.getId() + " is not part of the marking");
+        return idx;
+    }
+
+    private int tokenCount(int place) {
+        int tokens = store.getToken(index, place);
+        return tokens == MarkingStore.OMEGA ? 0 : tokens;
     }
 }
@@ -1,12 +1,10 @@
 package org.woped.qualanalysis.soundness.marking;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 
-import org.woped.qualanalysis.soundness.builder.BuilderFactory;
-import org.woped.qualanalysis.soundness.datamodel.AbstractNode;
+import org.woped.qualanalysis.soundness.datamodel.CompiledPetriNet;
 import org.woped.qualanalysis.soundness.datamodel.ILowLevelPetriNet;
 import org.woped.qualanalysis.soundness.datamodel.PlaceNode;
 import org.woped.qualanalysis.soundness.datamodel.TransitionNode;
@@ -30,25 +28,49 @@ public class MarkingNet implements IMarkingNet {
     private final TransitionNode[] transitions;
 
     /**
-     * set of all markings.
+     * storage of all markings and the arcs between them.
      */
-    private final Set<IMarking> markings = new HashSet<>();
+    private final MarkingStore store;
 
     /**
      * initial marking.
      */
     private Marking initialMarking;
 
+    /**
+     * the source low level petri net.
+     */
+    private final ILowLevelPetriNet lolNet;
+
+    /**
+     * array representation of the source net, created on first use.
+     */
+    private CompiledPetriNet compiledNet;
+
+    /**
+     * scratch buffer for token vectors of markings that are not part of the store.
+     */
+    private int[] buffer;
+
     /**
      * @param lolNet the LowLevelPetriNet on that this marking net is built
      */
     public MarkingNet(ILowLevelPetriNet lolNet) {
 
-        this.places = lolNet.getPlaces().toArray(new PlaceNode[lolNet.getPlaces().size()]);
-        this.transitions = lolNet.getTransitions().toArray(new TransitionNode[lolNet.getTransitions().size()]);
-        initialMarking = (Marking) BuilderFactory.createCurrentMarking(lolNet, false);
+        this.lolNet = lolNet;
+
+        Set<PlaceNode> sourcePlaces = lolNet.getPlaces();
+        Set<TransitionNode> sourceTransitions = lolNet.getTransitions();
+        this.places = sourcePlaces.toArray(new PlaceNode[sourcePlaces.size()]);
+        this.transitions = sourceTransitions.toArray(new TransitionNode[sourceTransitions.size()]);
+        this.store = new MarkingStore(places, transitions);
+
+        int[] initialTokens = new int[places.length];
+        for ( int i = 0; i < places.length; i++ ) {
+            initialTokens[i] = places[i].getTokenCount();
+        }
+        initialMarking = store.view(store.add(initialTokens));
         initialMarking.setInitial(true);
-        markings.add(initialMarking);
     }
 
     /**
@@ -56,39 +78,85 @@ public class MarkingNet implements IMarkingNet {
      * @return an array of transitions which are activated
      */
     public TransitionNode[] getActivatedTransitions(IMarking marking) {
+        CompiledPetriNet net = getCompiledNet();
+        int[] tokens;
+        int offset;
+
+        if ( marking instanceof Marking && ((Marking) marking).getStore().getPlaces() == places ) {
+            Marking storedMarking = (Marking) marking;
+            tokens = storedMarking.getStore().getTokenArena();
+            offset = storedMarking.getIndex() * places.length;
+        } else {
+            tokens = toVector(marking);
+            offset = 0;
+        }
 
-        List<TransitionNode> activatedTransitions = new ArrayList<>();
-
-        for ( TransitionNode transition : transitions ) {
-
-            if ( transitionIsActivated(marking, transition) ) {
-                activatedTransitions.add(transition);
+        TransitionNode[] activated = new TransitionNode[transitions.length];
+        int count = 0;
+        for ( int t = 0; t < transitions.length; t++ ) {
+            if ( net.isEnabled(t, tokens, offset) ) {
+                activated[count++] = transitions[t];
             }
         }
-
-        return activatedTransitions.toArray(new TransitionNode[activatedTransitions.size()]);
+        return Arrays.copyOf(activated, count);
     }
 
-    private boolean transitionIsActivated(IMarking marking, TransitionNode transition) {
-
-        boolean activated = true;
+    /**
+     * Checks if a transition is activated in a stored marking.
+     *
+     * @param marking    the index of the marking in the store
+     * @param transition the index of the transition in {@link #getTransitions()}
+     * @return true if the transition is activated
+     */
+    public boolean isActivated(int marking, int transition) {
+        return getCompiledNet().isEnabled(transition, store.getTokenArena(), marking * places.length);
+    }
 
-        for ( AbstractNode preNode : transition.getPredecessorNodes() ) {
-            if(!(preNode instanceof PlaceNode)) continue;
-            PlaceNode place = (PlaceNode) preNode;
+    /**
+     * Calculates the token vector after firing a transition in a stored marking. Unbound places stay unbound.
+     *
+     * @param marking    the index of the marking in the store
+     * @param transition the index of the transition in {@link #getTransitions()}
+     * @param target     buffer for the resulting token vector
+     */
+    public void fire(int marking, int transition, int[] target) {
+        getCompiledNet().fire(transition, store.getTokenArena(), marking * places.length, target);
+    }
 
-            Integer weight = preNode.getWeightTo(transition);
-            int tokenCount = marking.getTokens(place);
+    /**
+     * Gets the array representation of the source net. The places and transitions are ordered like
+     * {@link #getPlaces()} and {@link #getTransitions()}.
+     * <p>
+     * The net is compiled on first use, so arcs may still be changed after this marking net was created.
+     *
+     * @return the compiled source net
+     */
+    public CompiledPetriNet getCompiledNet() {
+        if ( compiledNet == null ) {
+            CompiledPetriNet net = lolNet.compile();
+            if ( !Arrays.equals(net.getPlaces(), places) || !Arrays.equals(net.getTransitions(), transitions) ) {
+                // the source net does not guarantee a stable node order, so the arrays of this net are compiled
+                net = new CompiledPetriNet(places, transitions);
+            }
+            compiledNet = net;
+        }
+        return compiledNet;
+    }
 
-            boolean notEnoughTokens = tokenCount < weight;
-            boolean placeNotUnlimited = !marking.isPlaceUnbound(place);
+    private int[] toVector(IMarking marking) {
+        if ( buffer == null ) buffer = new int[places.length];
 
-            if ( notEnoughTokens && placeNotUnlimited ) {
-                activated = false;
-                break;
-            }
+        for ( int i = 0; i < places.length; i++ ) {
+            buffer[i] = marking.isPlaceUnbound(places[i]) ? MarkingStore.OMEGA : marking.getTokens(places[i]);
         }
-        return activated;
+        return buffer;
+    }
+
+    /**
+     * @return the storage of the markings of this net
+     */
+    public MarkingStore getStore() {
+        return store;
     }
 
     /**
@@ -102,7 +170,7 @@ public class MarkingNet implements IMarkingNet {
      * @return the set of markings
      */
     public Set<IMarking> getMarkings() {
-        return this.markings;
+        return store.asSet();
     }
 
     /**
@@ -160,34 +228,23 @@ public class MarkingNet implements IMarkingNet {
      * @return the marking after the transition has fired
      */
     public IMarking calculateSucceedingMarking(IMarking parentMarking, TransitionNode transition) {
-        IMarking resultingMarking = parentMarking.copy();
-
-        for(AbstractNode node: transition.getPredecessorNodes()) {
-            if(!(node instanceof PlaceNode)) continue;
-
-            PlaceNode place = (PlaceNode) node;
-
-            int tokens = resultingMarking.getTokens(place);
-            int weight = transition.getWeightFrom(place);
-            resultingMarking.setTokens(place, tokens - weight);
-        }
-
-        for(AbstractNode node: transition.getSuccessorNodes()){
-            if(!(node instanceof PlaceNode)) continue;
-
-            PlaceNode place = (PlaceNode) node;
-            int tokens = resultingMarking.getTokens(place);
-            int weight = transition.getWeightTo(place);
-
-            resultingMarking.setTokens(place, tokens + weight);
+        CompiledPetriNet net = getCompiledNet();
+        int t = net.indexOf(transition);
+        if ( t < 0 ) {
+            // transition of another net, only its arcs to the places of this net are considered
+            net = new CompiledPetriNet(places, new TransitionNode[]{transition});
+            t = 0;
         }
 
-        return resultingMarking;
+        int[] tokens = toVector(parentMarking);
+        int[] result = new int[places.length];
+        net.fire(t, tokens, 0, result);
+        return Marking.detached(places, result);
     }
 
     @Override
     public Set<IMarking> getAllContainedNodes() {
-        return new HashSet<>(markings);
+        return new HashSet<>(store.asSet());
     }
 
 }
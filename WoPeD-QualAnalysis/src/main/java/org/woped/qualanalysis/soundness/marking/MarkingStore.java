@@ -0,0 +1,672 @@
+package org.woped.qualanalysis.soundness.marking;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.woped.qualanalysis.soundness.datamodel.CompiledPetriNet;
+import org.woped.qualanalysis.soundness.datamodel.PlaceNode;
+import org.woped.qualanalysis.soundness.datamodel.PlaceNodeComparator;
+import org.woped.qualanalysis.soundness.datamodel.TransitionNode;
+
+/**
+ * Compact storage for the markings of a marking net.
+ * <p>
+ * All token vectors are packed into one {@code int[]} arena, {@code placeCount} entries per marking. Unbound places
+ * are represented by the sentinel {@link #OMEGA}. Markings are interned through a primitive open addressing hash
+ * table, so each distinct token vector is stored once. The successor relation is kept as a CSR style edge list
+ * (offsets, target markings and triggering transitions).
+ * <p>
+ * Markings are addressed by their dense index. {@link Marking} objects are only thin views onto a store slot and may
+ * be created and discarded at will.
+ */
+public class MarkingStore {
+
+    /**
+     * Token count representing an unbound place. It is larger than every real token count, so comparing two vectors
+     * with {@code <=} yields the coverability order directly.
+     */
+    public static final int OMEGA = CompiledPetriNet.OMEGA;
+
+    private static final int NO_PREDECESSOR = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final PlaceNode[] places;
+    private final TransitionNode[] transitions;
+    private final int placeCount;
+
+    // token arena and per marking data
+    private int[] tokens;
+    private int[] hashes;
+    private int[] predecessors;
+    private final BitSet initial = new BitSet();
+    private int size = 0;
+    private int capacity;
+
+    // open addressing intern table, stores marking index + 1, 0 marks an empty slot
+    private int[] table;
+    private int internedCount = 0;
+
+    // successor edges, compacted into CSR form on demand
+    private int[] csrOffsets = new int[1];
+    private int[] csrTargets = new int[0];
+    private int[] csrTriggers = new int[0];
+    private int csrNodeCount = 0;
+    private int[] pendingSources = new int[INITIAL_CAPACITY];
+    private int[] pendingTargets = new int[INITIAL_CAPACITY];
+    private int[] pendingTriggers = new int[INITIAL_CAPACITY];
+    private int pendingCount = 0;
+
+    // arcs and predecessors which cannot be expressed by indices of this store
+    private Map<Integer, Set<Arc>> foreignSuccessors;
+    private Map<Integer, IMarking> foreignPredecessors;
+
+    // lazily created lookup structures
+    private Map<PlaceNode, Integer> placeIndexes;
+    private Map<TransitionNode, Integer> transitionIndexes;
+    private SortedSet<PlaceNode> sortedPlaces;
+    private int[] shortLexOrder;
+
+    /**
+     * @param places      the places of the net, the order of this array defines the order of the token vectors
+     * @param transitions the transitions of the net, used to resolve the triggers of the stored successor edges
+     */
+    public MarkingStore(PlaceNode[] places, TransitionNode[] transitions) {
+        this(places, transitions, INITIAL_CAPACITY);
+    }
+
+    MarkingStore(PlaceNode[] places, TransitionNode[] transitions, int initialCapacity) {
+        this.places = places;
+        this.transitions = transitions;
+        this.placeCount = places.length;
+        this.capacity = Math.max(1, initialCapacity);
+        this.tokens = new int[capacity * placeCount];
+        this.hashes = new int[capacity];
+        this.predecessors = new int[capacity];
+        this.table = new int[tableSizeFor(capacity)];
+    }
+
+    /**
+     * @return the amount of markings contained in this store
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the amount of places of each token vector
+     */
+    public int getPlaceCount() {
+        return placeCount;
+    }
+
+    /**
+     * @return the places of the token vectors. Do not manipulate the returned array!
+     */
+    public PlaceNode[] getPlaces() {
+        return places;
+    }
+
+    /**
+     * @return the transitions that may trigger stored edges. Do not manipulate the returned array!
+     */
+    public TransitionNode[] getTransitions() {
+        return transitions;
+    }
+
+    /**
+     * Gives direct access to the token arena. The vector of marking {@code m} starts at {@code m * getPlaceCount()}.
+     * <p>
+     * The array is replaced when the store grows, so it must not be cached across calls to {@link #add(int[])}.
+     * Do not manipulate the returned array!
+     *
+     * @return the token arena
+     */
+    public int[] getTokenArena() {
+        return tokens;
+    }
+
+    /**
+     * Gets the token count of a place in a stored marking.
+     *
+     * @param marking the index of the marking
+     * @param place   the index of the place
+     * @return the token count or {@link #OMEGA} if the place is unbound
+     */
+    public int getToken(int marking, int place) {
+        return tokens[marking * placeCount + place];
+    }
+
+    /**
+     * Copies the token vector of the given marking into the provided buffer.
+     *
+     * @param marking the index of the marking
+     * @param target  buffer with at least {@code getPlaceCount()} entries
+     */
+    public void copyTokens(int marking, int[] target) {
+        System.arraycopy(tokens, marking * placeCount, target, 0, placeCount);
+    }
+
+    /**
+     * Changes the token count of a place in a stored marking. If the marking is interned it is rehashed.
+     *
+     * @param marking the index of the marking
+     * @param place   the index of the place
+     * @param value   the new token count or {@link #OMEGA}
+     */
+    public void setToken(int marking, int place, int value) {
+        int offset = marking * placeCount + place;
+        if (tokens[offset] == value) return;
+
+        boolean interned = unlink(marking);
+        tokens[offset] = value;
+        hashes[marking] = hash(tokens, marking * placeCount);
+        if (interned) link(marking);
+    }
+
+    /**
+     * Searches the index of a marking with the provided token vector.
+     *
+     * @param vector the token vector to search
+     * @return the index of the marking or -1 if no such marking exists
+     */
+    public int find(int[] vector) {
+        int hash = hash(vector, 0);
+        int mask = table.length - 1;
+        for (int pos = mix(hash) & mask; table[pos] != 0; pos = (pos + 1) & mask) {
+            int candidate = table[pos] - 1;
+            if (hashes[candidate] == hash && vectorEquals(candidate, vector)) {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds a new marking with the provided token vector and interns it. The caller has to ensure that no marking with
+     * the same vector exists (see {@link #find(int[])}).
+     *
+     * @param vector the token vector of the new marking, the vector is copied
+     * @return the index of the new marking
+     */
+    public int add(int[] vector) {
+        int index = append(vector);
+        link(index);
+        return index;
+    }
+
+    /**
+     * Returns the index of the marking with the provided token vector and adds it if it does not exist yet.
+     *
+     * @param vector the token vector
+     * @return the index of the existing or new marking
+     */
+    public int intern(int[] vector) {
+        int index = find(vector);
+        return index >= 0 ? index : add(vector);
+    }
+
+    /**
+     * Adds a new marking without interning it. Used for detached markings that are modified freely.
+     *
+     * @param vector the token vector of the new marking, the vector is copied
+     * @return the index of the new marking
+     */
+    int append(int[] vector) {
+        ensureCapacity(size + 1);
+        int index = size++;
+        System.arraycopy(vector, 0, tokens, index * placeCount, placeCount);
+        hashes[index] = hash(vector, 0);
+        predecessors[index] = NO_PREDECESSOR;
+        return index;
+    }
+
+    /**
+     * @param marking the index of the marking
+     * @return the index of the predecessor or -1 if the marking has no predecessor in this store
+     */
+    public int getPredecessor(int marking) {
+        return predecessors[marking];
+    }
+
+    /**
+     * @param marking     the index of the marking
+     * @param predecessor the index of the predecessor or -1 to remove the predecessor
+     */
+    public void setPredecessor(int marking, int predecessor) {
+        predecessors[marking] = predecessor;
+        if (foreignPredecessors != null) foreignPredecessors.remove(marking);
+    }
+
+    /**
+     * Adds a successor edge.
+     *
+     * @param source  the index of the source marking
+     * @param target  the index of the target marking
+     * @param trigger the index of the transition in {@link #getTransitions()}
+     */
+    public void addEdge(int source, int target, int trigger) {
+        if (pendingCount == pendingSources.length) {
+            int newLength = pendingSources.length * 2;
+            pendingSources = Arrays.copyOf(pendingSources, newLength);
+            pendingTargets = Arrays.copyOf(pendingTargets, newLength);
+            pendingTriggers = Arrays.copyOf(pendingTriggers, newLength);
+        }
+        pendingSources[pendingCount] = source;
+        pendingTargets[pendingCount] = target;
+        pendingTriggers[pendingCount] = trigger;
+        pendingCount++;
+    }
+
+    /**
+     * @param marking the index of the marking
+     * @return the index of the first outgoing edge of the marking in {@link #getEdgeTargets()}
+     */
+    public int getFirstEdge(int marking) {
+        compact();
+        return csrOffsets[marking];
+    }
+
+    /**
+     * @param marking the index of the marking
+     * @return the index after the last outgoing edge of the marking in {@link #getEdgeTargets()}
+     */
+    public int getEndEdge(int marking) {
+        compact();
+        return csrOffsets[marking + 1];
+    }
+
+    /**
+     * @return the target markings of all edges, ordered by their source marking. Do not manipulate the returned array!
+     */
+    public int[] getEdgeTargets() {
+        compact();
+        return csrTargets;
+    }
+
+    /**
+     * @return the triggering transitions of all edges, ordered by their source marking. Do not manipulate the returned
+     * array!
+     */
+    public int[] getEdgeTriggers() {
+        compact();
+        return csrTriggers;
+    }
+
+    /**
+     * @return the amount of stored edges
+     */
+    public int getEdgeCount() {
+        return csrTargets.length + pendingCount;
+    }
+
+    /**
+     * @return true if some arcs lead to markings of other stores or are triggered by unknown transitions. These arcs
+     * are not part of the index based edges.
+     */
+    public boolean hasForeignSuccessors() {
+        return foreignSuccessors != null && !foreignSuccessors.isEmpty();
+    }
+
+    /**
+     * @param marking the index of the marking
+     * @return true if the marking is an initial marking
+     */
+    public boolean isInitial(int marking) {
+        return initial.get(marking);
+    }
+
+    /**
+     * @param marking   the index of the marking
+     * @param isInitial the new state
+     */
+    public void setInitial(int marking, boolean isInitial) {
+        initial.set(marking, isInitial);
+    }
+
+    /**
+     * Gets a view onto a stored marking.
+     *
+     * @param marking the index of the marking
+     * @return the view
+     */
+    public Marking view(int marking) {
+        return new Marking(this, marking);
+    }
+
+    /**
+     * @return a read only set of views onto all stored markings
+     */
+    public Set<IMarking> asSet() {
+        return new AbstractSet<IMarking>() {
+            @Override
+            public Iterator<IMarking> iterator() {
+                return new Iterator<IMarking>() {
+                    private int next = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < size;
+                    }
+
+                    @Override
+                    public IMarking next() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        return view(next++);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                if (!(o instanceof Marking)) return false;
+                Marking marking = (Marking) o;
+                if (marking.getStore() == MarkingStore.this) return true;
+                if (marking.getStore().placeCount != placeCount) return false;
+                int[] vector = new int[placeCount];
+                marking.getStore().copyTokens(marking.getIndex(), vector);
+                return find(vector) >= 0;
+            }
+        };
+    }
+
+    /**
+     * Gets the index of the provided place in the token vectors.
+     *
+     * @param place the place to search
+     * @return the index or -1 if the place is not part of this store
+     */
+    public int indexOf(PlaceNode place) {
+        if (placeIndexes == null) {
+            Map<PlaceNode, Integer> indexes = new HashMap<>();
+            for (int i = 0; i < places.length; i++) {
+                indexes.put(places[i], i);
+            }
+            placeIndexes = indexes;
+        }
+        Integer index = placeIndexes.get(place);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Gets the index of the provided transition in {@link #getTransitions()}.
+     *
+     * @param transition the transition to search
+     * @return the index or -1 if the transition is not part of this store
+     */
+    public int indexOf(TransitionNode transition) {
+        if (transitionIndexes == null) {
+            Map<TransitionNode, Integer> indexes = new HashMap<>();
+            for (int i = 0; i < transitions.length; i++) {
+                indexes.put(transitions[i], i);
+            }
+            transitionIndexes = indexes;
+        }
+        Integer index = transitionIndexes.get(transition);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @return the places sorted by their id in short lex order
+     */
+    SortedSet<PlaceNode> getSortedPlaces() {
+        if (sortedPlaces == null) {
+            TreeSet<PlaceNode> sorted = new TreeSet<>(new PlaceNodeComparator());
+            sorted.addAll(Arrays.asList(places));
+            sortedPlaces = Collections.unmodifiableSortedSet(sorted);
+        }
+        return sortedPlaces;
+    }
+
+    /**
+     * @return the place indexes in the short lex order of the place ids
+     */
+    int[] getShortLexOrder() {
+        if (shortLexOrder == null) {
+            Map<PlaceNode, Integer> indexes = new HashMap<>();
+            for (int i = 0; i < places.length; i++) {
+                indexes.put(places[i], i);
+            }
+            SortedSet<PlaceNode> sorted = getSortedPlaces();
+            int[] order = new int[sorted.size()];
+            int i = 0;
+            for (PlaceNode place : sorted) {
+                order[i++] = indexes.get(place);
+            }
+            shortLexOrder = order;
+        }
+        return shortLexOrder;
+    }
+
+    /**
+     * Adds an arc that cannot be represented as index based edge of this store.
+     */
+    void addForeignSuccessor(int marking, Arc arc) {
+        if (foreignSuccessors == null) foreignSuccessors = new HashMap<>();
+        foreignSuccessors.computeIfAbsent(marking, k -> new HashSet<>()).add(arc);
+    }
+
+    /**
+     * @return the arcs that are not represented as index based edges of this store
+     */
+    Set<Arc> getForeignSuccessors(int marking) {
+        if (foreignSuccessors == null) return Collections.emptySet();
+        Set<Arc> arcs = foreignSuccessors.get(marking);
+        return arcs == null ? Collections.<Arc>emptySet() : arcs;
+    }
+
+    void setForeignPredecessor(int marking, IMarking predecessor) {
+        predecessors[marking] = NO_PREDECESSOR;
+        if (foreignPredecessors == null) foreignPredecessors = new HashMap<>();
+        foreignPredecessors.put(marking, predecessor);
+    }
+
+    IMarking getForeignPredecessor(int marking) {
+        return foreignPredecessors == null ? null : foreignPredecessors.get(marking);
+    }
+
+    /**
+     * @param marking the index of the marking
+     * @return the hash code of the token vector
+     */
+    int hashOf(int marking) {
+        return hashes[marking];
+    }
+
+    /**
+     * Checks if the token vector of a marking of this store equals the vector of a marking of the other store.
+     */
+    boolean vectorEquals(int marking, MarkingStore other, int otherMarking) {
+        if (placeCount != other.placeCount) return false;
+        if (hashes[marking] != other.hashes[otherMarking]) return false;
+        int offset = marking * placeCount;
+        int otherOffset = otherMarking * placeCount;
+        for (int i = 0; i < placeCount; i++) {
+            if (tokens[offset + i] != other.tokens[otherOffset + i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if every place of a marking of this store carries at most as many tokens as in the marking of the other
+     * store. Both stores have to share the same place order.
+     */
+    boolean vectorLessOrEqual(int marking, MarkingStore other, int otherMarking) {
+        int offset = marking * placeCount;
+        int otherOffset = otherMarking * placeCount;
+        int[] otherTokens = other.tokens;
+        for (int i = 0; i < placeCount; i++) {
+            if (tokens[offset + i] > otherTokens[otherOffset + i]) return false;
+        }
+        return true;
+    }
+
+    private boolean vectorEquals(int marking, int[] vector) {
+        int offset = marking * placeCount;
+        for (int i = 0; i < placeCount; i++) {
+            if (tokens[offset + i] != vector[i]) return false;
+        }
+        return true;
+    }
+
+    private int hash(int[] vector, int offset) {
+        int result = 1;
+        for (int i = 0; i < placeCount; i++) {
+            result = 31 * result + vector[offset + i];
+        }
+        return result;
+    }
+
+    private static int mix(int hash) {
+        // murmur3 finalizer, spreads the polynomial hash over the whole table
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    private static int tableSizeFor(int entries) {
+        int size = Integer.highestOneBit(Math.max(2, entries) * 2 - 1) * 2;
+        return Math.max(size, 4);
+    }
+
+    private void link(int marking) {
+        if ((internedCount + 1) * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        int mask = table.length - 1;
+        int hash = hashes[marking];
+        int pos = mix(hash) & mask;
+        while (table[pos] != 0) {
+            int candidate = table[pos] - 1;
+            if (hashes[candidate] == hash && vectorEquals(candidate, tokens, marking)) {
+                // an equal marking is already interned, the marking stays detached from the table
+                return;
+            }
+            pos = (pos + 1) & mask;
+        }
+        table[pos] = marking + 1;
+        internedCount++;
+    }
+
+    private boolean vectorEquals(int marking, int[] arena, int otherMarking) {
+        int offset = marking * placeCount;
+        int otherOffset = otherMarking * placeCount;
+        for (int i = 0; i < placeCount; i++) {
+            if (tokens[offset + i] != arena[otherOffset + i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Removes the marking from the intern table using backward shift deletion.
+     *
+     * @return true if the marking has been interned
+     */
+    private boolean unlink(int marking) {
+        int mask = table.length - 1;
+        int pos = mix(hashes[marking]) & mask;
+        while (table[pos] != 0 && table[pos] != marking + 1) {
+            pos = (pos + 1) & mask;
+        }
+        if (table[pos] == 0) return false;
+
+        table[pos] = 0;
+        internedCount--;
+        int hole = pos;
+        for (int next = (hole + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+            int home = mix(hashes[table[next] - 1]) & mask;
+            boolean movable = hole <= next ? (home <= hole || home > next) : (home <= hole && home > next);
+            if (movable) {
+                table[hole] = table[next];
+                table[next] = 0;
+                hole = next;
+            }
+        }
+        return true;
+    }
+
+    private void rehash(int newLength) {
+        int[] oldTable = table;
+        table = new int[newLength];
+        int mask = newLength - 1;
+        for (int entry : oldTable) {
+            if (entry == 0) continue;
+            int pos = mix(hashes[entry - 1]) & mask;
+            while (table[pos] != 0) {
+                pos = (pos + 1) & mask;
+            }
+            table[pos] = entry;
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= capacity) return;
+        int newCapacity = Math.max(required, capacity + (capacity >> 1) + 1);
+        tokens = Arrays.copyOf(tokens, newCapacity * placeCount);
+        hashes = Arrays.copyOf(hashes, newCapacity);
+        predecessors = Arrays.copyOf(predecessors, newCapacity);
+        capacity = newCapacity;
+    }
+
+    /**
+     * Merges the pending edges into the CSR arrays. Edges keep their insertion order per source marking.
+     */
+    private void compact() {
+        if (pendingCount == 0 && csrNodeCount == size) return;
+
+        int[] offsets = new int[size + 1];
+        for (int m = 0; m < csrNodeCount; m++) {
+            offsets[m + 1] = csrOffsets[m + 1] - csrOffsets[m];
+        }
+        for (int e = 0; e < pendingCount; e++) {
+            offsets[pendingSources[e] + 1]++;
+        }
+        for (int m = 0; m < size; m++) {
+            offsets[m + 1] += offsets[m];
+        }
+
+        int edgeCount = offsets[size];
+        int[] targets = new int[edgeCount];
+        int[] triggers = new int[edgeCount];
+        int[] fill = Arrays.copyOf(offsets, size);
+        for (int m = 0; m < csrNodeCount; m++) {
+            int length = csrOffsets[m + 1] - csrOffsets[m];
+            System.arraycopy(csrTargets, csrOffsets[m], targets, fill[m], length);
+            System.arraycopy(csrTriggers, csrOffsets[m], triggers, fill[m], length);
+            fill[m] += length;
+        }
+        for (int e = 0; e < pendingCount; e++) {
+            int pos = fill[pendingSources[e]]++;
+            targets[pos] = pendingTargets[e];
+            triggers[pos] = pendingTriggers[e];
+        }
+
+        csrOffsets = offsets;
+        csrTargets = targets;
+        csrTriggers = triggers;
+        csrNodeCount = size;
+        pendingCount = 0;
+        if (pendingSources.length > INITIAL_CAPACITY) {
+            pendingSources = new int[INITIAL_CAPACITY];
+            pendingTargets = new int[INITIAL_CAPACITY];
+            pendingTriggers = new int[INITIAL_CAPACITY];
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.woped.qualanalysis.structure;
+
+import java.util.Set;
+
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+
+/**
+ * A read-only view of the arcs between the nodes of a petri net.
+ * <p>
+ * Implementations must not modify the underlying net. The returned sets belong to the caller.
+ */
+public interface INetGraph {
+
+    /**
+     * @param node a node of the net
+     * @return the nodes with an arc to the given node, may be empty
+     */
+    Set<AbstractPetriNetElementModel> getPredecessors(AbstractPetriNetElementModel node);
+
+    /**
+     * @param node a node of the net
+     * @return the nodes with an arc from the given node, may be empty
+     */
+    Set<AbstractPetriNetElementModel> getSuccessors(AbstractPetriNetElementModel node);
+
+    /**
+     * @param source the source of the arc
+     * @param target the target of the arc
+     * @return the weight of the arc from the source to the target or 0 if there is no such arc
+     */
+    int getArcWeight(AbstractPetriNetElementModel source, AbstractPetriNetElementModel target);
+}
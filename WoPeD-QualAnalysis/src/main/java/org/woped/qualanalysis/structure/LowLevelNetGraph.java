@@ -0,0 +1,43 @@
+package org.woped.qualanalysis.structure;
+
+import java.util.Iterator;
+import java.util.Set;
+
+import org.woped.core.model.ArcModel;
+import org.woped.core.model.ModelElementContainer;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+
+/**
+ * The arcs of the low level petri net, where operators are replaced by their inner transitions.
+ * <p>
+ * The arcs are looked up in all owning containers of a node, see {@link NetAlgorithms#getDirectlyConnectedNodes}.
+ */
+public class LowLevelNetGraph implements INetGraph {
+
+    @Override
+    public Set<AbstractPetriNetElementModel> getPredecessors(AbstractPetriNetElementModel node) {
+        return NetAlgorithms.getDirectlyConnectedNodes(node, NetAlgorithms.connectionTypeINBOUND);
+    }
+
+    @Override
+    public Set<AbstractPetriNetElementModel> getSuccessors(AbstractPetriNetElementModel node) {
+        return NetAlgorithms.getDirectlyConnectedNodes(node, NetAlgorithms.connectionTypeOUTBOUND);
+    }
+
+    @Override
+    public int getArcWeight(AbstractPetriNetElementModel source, AbstractPetriNetElementModel target) {
+        ArcModel arc = findArc(target, source, target);
+        if (arc == null) arc = findArc(source, source, target);
+        return arc != null ? arc.getInscriptionValue() : 0;
+    }
+
+    private static ArcModel findArc(AbstractPetriNetElementModel owner, AbstractPetriNetElementModel source,
+            AbstractPetriNetElementModel target) {
+        Iterator<ModelElementContainer> containers = owner.getOwningContainersIterator();
+        while (containers.hasNext()) {
+            ArcModel arc = containers.next().findArc(source.getId(), target.getId());
+            if (arc != null) return arc;
+        }
+        return null;
+    }
+}
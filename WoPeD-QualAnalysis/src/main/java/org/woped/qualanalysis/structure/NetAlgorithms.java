@@ -32,6 +32,8 @@ public class NetAlgorithms {
     // ! to that element. For each element in a row,
     // ! the shortest route to the element described by the row
     // ! can be reconstructed by following the m_predecessor back-references
+    // ! Deprecated: this needs O(n^2) memory, use NetConnectivity instead
+    @Deprecated
     public static RouteInfo[][] getAllConnections(Collection<AbstractPetriNetElementModel> netElements,
             boolean ignoreArcDirection) {
         int nNumNetElements = netElements.size();
@@ -123,6 +125,8 @@ public class NetAlgorithms {
     // ! @param centralNode specifies the node all nodes need to be connected to
     // ! @param connectionGraph specifies the RouteInfo array
     // ! @param unconnectedNodes set that receives the unconnected nodes
+    // ! Deprecated: use NetConnectivity#getUnconnectedNodes instead
+    @Deprecated
     public static void getUnconnectedNodes(AbstractPetriNetElementModel centralNode, RouteInfo[][] connectionGraph,
             Set<AbstractPetriNetElementModel> unconnectedNodes) {
         int nNumElements = connectionGraph.length;
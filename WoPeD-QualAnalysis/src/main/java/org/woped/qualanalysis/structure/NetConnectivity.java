@@ -0,0 +1,255 @@
+package org.woped.qualanalysis.structure;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+
+/**
+ * Answers connectivity questions about a fixed set of net elements.
+ * <p>
+ * The arcs between the elements are looked up once in an {@link INetGraph} and stored in index based adjacency arrays. Whether all elements are (strongly) connected to a central element is decided by one
+ * traversal from that element along the arcs and one against them, so the checks take O(V+E) time instead of the
+ * all-pairs search of {@link NetAlgorithms#getAllConnections}.
+ * <p>
+ * Shortest distances are only calculated on request. A breadth first search is done per requested source element and
+ * cached.
+ * <p>
+ * The service is a snapshot of the net at construction time.
+ */
+public class NetConnectivity {
+
+    private final AbstractPetriNetElementModel[] elements;
+    private final Map<AbstractPetriNetElementModel, Integer> indices = new HashMap<AbstractPetriNetElementModel, Integer>();
+    // ! Successors of every element
+    private final int[][] outbound;
+    // ! Predecessors of every element, following the arcs backwards
+    private final int[][] reverseOutbound;
+    // ! Successors and predecessors of every element, ignoring the direction of the arcs
+    private final int[][] undirected;
+    private final int[][] reverseUndirected;
+    // ! Cached results of shortest path searches, keyed by source index
+    private final Map<Integer, int[]> directedPredecessors = new HashMap<Integer, int[]>();
+    private final Map<Integer, int[]> undirectedPredecessors = new HashMap<Integer, int[]>();
+
+    /**
+     * Creates the service for the arcs of the low level petri net.
+     *
+     * @param netElements the elements to take into account. Arcs to other elements are ignored.
+     */
+    public NetConnectivity(Collection<AbstractPetriNetElementModel> netElements) {
+        this(netElements, new LowLevelNetGraph());
+    }
+
+    /**
+     * @param netElements the elements to take into account. Arcs to other elements are ignored.
+     * @param graph       the arcs between the elements
+     */
+    public NetConnectivity(Collection<AbstractPetriNetElementModel> netElements, INetGraph graph) {
+        elements = new LinkedHashSet<AbstractPetriNetElementModel>(netElements).toArray(new AbstractPetriNetElementModel[0]);
+        for (int i = 0; i < elements.length; i++) {
+            indices.put(elements[i], i);
+        }
+
+        outbound = new int[elements.length][];
+        undirected = new int[elements.length][];
+        for (int i = 0; i < elements.length; i++) {
+            Set<AbstractPetriNetElementModel> successors = graph.getSuccessors(elements[i]);
+            Set<AbstractPetriNetElementModel> neighbours = graph.getPredecessors(elements[i]);
+            neighbours.addAll(successors);
+            outbound[i] = toIndices(successors);
+            undirected[i] = toIndices(neighbours);
+        }
+        reverseOutbound = reverse(outbound);
+        reverseUndirected = reverse(undirected);
+    }
+
+    /**
+     * Gets all elements that are not connected to the central element, ignoring the direction of the arcs.
+     *
+     * @param centralNode the element all elements need to be connected to
+     * @return the elements without a connection to or from the central element. The set is empty if the central
+     * element is unknown.
+     */
+    public Set<AbstractPetriNetElementModel> getUnconnectedNodes(AbstractPetriNetElementModel centralNode) {
+        return getUnreachable(centralNode, undirected, reverseUndirected);
+    }
+
+    /**
+     * Gets all elements that are not strongly connected to the central element.
+     *
+     * @param centralNode the element all elements need to be strongly connected to
+     * @return the elements that can not be reached from or can not reach the central element. The set is empty if the
+     * central element is unknown.
+     */
+    public Set<AbstractPetriNetElementModel> getNotStronglyConnectedNodes(AbstractPetriNetElementModel centralNode) {
+        return getUnreachable(centralNode, outbound, reverseOutbound);
+    }
+
+    /**
+     * @param centralNode an element of the net
+     * @return true if every element is connected to the central element, ignoring the direction of the arcs
+     */
+    public boolean isConnected(AbstractPetriNetElementModel centralNode) {
+        return indices.containsKey(centralNode) && getUnconnectedNodes(centralNode).isEmpty();
+    }
+
+    /**
+     * @param centralNode an element of the net
+     * @return true if every element is strongly connected to the central element
+     */
+    public boolean isStronglyConnected(AbstractPetriNetElementModel centralNode) {
+        return indices.containsKey(centralNode) && getNotStronglyConnectedNodes(centralNode).isEmpty();
+    }
+
+    /**
+     * Gets the number of arcs on a shortest route between two elements. Arc weights are ignored.
+     *
+     * @param source             the start of the route
+     * @param target             the end of the route
+     * @param ignoreArcDirection true if arcs may be used in both directions
+     * @return the number of arcs or -1 if there is no route
+     */
+    public int getDistance(AbstractPetriNetElementModel source, AbstractPetriNetElementModel target,
+            boolean ignoreArcDirection) {
+        List<AbstractPetriNetElementModel> route = getShortestRoute(source, target, ignoreArcDirection);
+        return route.size() - 1;
+    }
+
+    /**
+     * Gets a shortest route between two elements. Arc weights are ignored.
+     *
+     * @param source             the start of the route
+     * @param target             the end of the route
+     * @param ignoreArcDirection true if arcs may be used in both directions
+     * @return the elements of the route starting with the source and ending with the target or an empty list if
+     * there is no route
+     */
+    public List<AbstractPetriNetElementModel> getShortestRoute(AbstractPetriNetElementModel source,
+            AbstractPetriNetElementModel target, boolean ignoreArcDirection) {
+        Integer from = indices.get(source);
+        Integer to = indices.get(target);
+        if (from == null || to == null) {
+            return Collections.emptyList();
+        }
+
+        Map<Integer, int[]> cache = ignoreArcDirection ? undirectedPredecessors : directedPredecessors;
+        int[] predecessors = cache.get(from);
+        if (predecessors == null) {
+            predecessors = searchPredecessors(from, ignoreArcDirection ? undirected : outbound);
+            cache.put(from, predecessors);
+        }
+
+        if (predecessors[to] == -1) {
+            return Collections.emptyList();
+        }
+        LinkedList<AbstractPetriNetElementModel> route = new LinkedList<AbstractPetriNetElementModel>();
+        for (int node = to; node != from; node = predecessors[node]) {
+            route.addFirst(elements[node]);
+        }
+        route.addFirst(elements[from]);
+        return route;
+    }
+
+    private Set<AbstractPetriNetElementModel> getUnreachable(AbstractPetriNetElementModel centralNode,
+            int[][] forward, int[][] backward) {
+        Set<AbstractPetriNetElementModel> result = new HashSet<AbstractPetriNetElementModel>();
+        Integer start = indices.get(centralNode);
+        if (start == null) {
+            return result;
+        }
+
+        boolean[] reachable = reach(start, forward);
+        boolean[] reaching = reach(start, backward);
+        for (int i = 0; i < elements.length; i++) {
+            if (!reachable[i] || !reaching[i]) {
+                result.add(elements[i]);
+            }
+        }
+        return result;
+    }
+
+    private static boolean[] reach(int start, int[][] adjacency) {
+        boolean[] visited = new boolean[adjacency.length];
+        int[] queue = new int[adjacency.length];
+        int head = 0;
+        int tail = 0;
+        visited[start] = true;
+        queue[tail++] = start;
+
+        while (head < tail) {
+            for (int next : adjacency[queue[head++]]) {
+                if (!visited[next]) {
+                    visited[next] = true;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * Breadth first search recording the predecessor of every visited element, -1 for unvisited elements.
+     */
+    private static int[] searchPredecessors(int start, int[][] adjacency) {
+        int[] predecessors = new int[adjacency.length];
+        Arrays.fill(predecessors, -1);
+        int[] queue = new int[adjacency.length];
+        int head = 0;
+        int tail = 0;
+        predecessors[start] = start;
+        queue[tail++] = start;
+
+        while (head < tail) {
+            int node = queue[head++];
+            for (int next : adjacency[node]) {
+                if (predecessors[next] == -1) {
+                    predecessors[next] = node;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return predecessors;
+    }
+
+    private int[] toIndices(Set<AbstractPetriNetElementModel> nodes) {
+        int[] result = new int[nodes.size()];
+        int count = 0;
+        for (AbstractPetriNetElementModel node : nodes) {
+            Integer index = indices.get(node);
+            if (index != null) {
+                result[count++] = index;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static int[][] reverse(int[][] adjacency) {
+        int[] degree = new int[adjacency.length];
+        for (int[] targets : adjacency) {
+            for (int target : targets) {
+                degree[target]++;
+            }
+        }
+
+        int[][] result = new int[adjacency.length][];
+        for (int i = 0; i < adjacency.length; i++) {
+            result[i] = new int[degree[i]];
+        }
+        Arrays.fill(degree, 0);
+        for (int source = 0; source < adjacency.length; source++) {
+            for (int target : adjacency[source]) {
+                result[target][degree[target]++] = source;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,91 @@
+package org.woped.qualanalysis.structure;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.woped.core.model.CreationMap;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+import org.woped.core.model.petrinet.TransitionModel;
+
+/**
+ * A workflow net short-circuited by the transition t*, which leads from the sink place back to the source place.
+ * <p>
+ * t* only exists in this view. It is not added to any container and the arcs of the underlying net are not touched,
+ * so analyses on the short-circuited net neither fire model events nor interfere with editing or with each other.
+ * <p>
+ * If the net has no unique source or sink place, t* is part of the view but not connected.
+ */
+public class ShortCircuitedNet implements INetGraph {
+
+    public static final String TSTAR_ID = "t*";
+
+    private final INetGraph net;
+    private final TransitionModel tStar;
+    private final AbstractPetriNetElementModel source;
+    private final AbstractPetriNetElementModel sink;
+
+    /**
+     * @param net    the net to short-circuit
+     * @param source the source place of the net or null if it is not unique
+     * @param sink   the sink place of the net or null if it is not unique
+     */
+    public ShortCircuitedNet(INetGraph net, AbstractPetriNetElementModel source, AbstractPetriNetElementModel sink) {
+        this.net = net;
+        boolean connected = source != null && sink != null;
+        this.source = connected ? source : null;
+        this.sink = connected ? sink : null;
+
+        CreationMap map = CreationMap.createMap();
+        map.setType(AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE);
+        map.setId(TSTAR_ID);
+        map.setName(TSTAR_ID);
+        map.setEditOnCreation(false);
+        tStar = new TransitionModel(map);
+    }
+
+    /**
+     * @return the virtual transition t*
+     */
+    public TransitionModel getTStar() {
+        return tStar;
+    }
+
+    /**
+     * @return true if t* connects the sink place to the source place
+     */
+    public boolean isShortCircuited() {
+        return source != null;
+    }
+
+    @Override
+    public Set<AbstractPetriNetElementModel> getPredecessors(AbstractPetriNetElementModel node) {
+        if (node == tStar) return singleton(sink);
+
+        Set<AbstractPetriNetElementModel> result = net.getPredecessors(node);
+        if (node == source) result.add(tStar);
+        return result;
+    }
+
+    @Override
+    public Set<AbstractPetriNetElementModel> getSuccessors(AbstractPetriNetElementModel node) {
+        if (node == tStar) return singleton(source);
+
+        Set<AbstractPetriNetElementModel> result = net.getSuccessors(node);
+        if (node == sink) result.add(tStar);
+        return result;
+    }
+
+    @Override
+    public int getArcWeight(AbstractPetriNetElementModel from, AbstractPetriNetElementModel to) {
+        if (from == tStar || to == tStar) {
+            return isShortCircuited() && ((from == tStar && to == source) || (from == sink && to == tStar)) ? 1 : 0;
+        }
+        return net.getArcWeight(from, to);
+    }
+
+    private static Set<AbstractPetriNetElementModel> singleton(AbstractPetriNetElementModel node) {
+        Set<AbstractPetriNetElementModel> result = new HashSet<AbstractPetriNetElementModel>();
+        if (node != null) result.add(node);
+        return result;
+    }
+}
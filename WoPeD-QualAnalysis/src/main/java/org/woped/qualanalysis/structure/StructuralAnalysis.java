@@ -1,10 +1,12 @@
 package org.woped.qualanalysis.structure;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -23,8 +25,8 @@ import org.woped.qualanalysis.service.interfaces.IWorkflowCheck;
 import org.woped.qualanalysis.structure.components.ArcConfiguration;
 import org.woped.qualanalysis.structure.components.ClusterElement;
 import org.woped.qualanalysis.structure.components.FlowNode;
+import org.woped.qualanalysis.structure.components.HandleDetector;
 import org.woped.qualanalysis.structure.components.LowLevelNet;
-import org.woped.qualanalysis.structure.components.RouteInfo;
 
 public class StructuralAnalysis implements IWorkflowCheck, INetStatistics, IWellStructuredness {
 
@@ -102,6 +104,10 @@ public class StructuralAnalysis implements IWorkflowCheck, INetStatistics, IWell
     private IEditor m_currentEditor;
     // ! Reference to the low level net
     private LowLevelNet m_lolNet = null;
+    // ! The low level petri net and the editor view short-circuited by t*,
+    // ! created on first use
+    private ShortCircuitedNet m_shortCircuitedNet = null;
+    private ShortCircuitedNet m_shortCircuitedTopLevelNet = null;
 
     // ! Construct static analysis object from
     // ! a petri-net editor
@@ -182,6 +188,36 @@ public class StructuralAnalysis implements IWorkflowCheck, INetStatistics, IWell
         return m_misusedOperators;
     }
 
+    // ! Return the low level petri net short-circuited by the
+    // ! virtual transition t*, leading from the unique sink place
+    // ! to the unique source place. The net itself is not modified.
+    // ! @return the short-circuited net
+    public ShortCircuitedNet getShortCircuitedNet() {
+        if (m_shortCircuitedNet == null) {
+            m_shortCircuitedNet = createShortCircuitedNet(new LowLevelNetGraph());
+        }
+        return m_shortCircuitedNet;
+    }
+
+    // ! Return the net as shown in the editor short-circuited by t*
+    private ShortCircuitedNet getShortCircuitedTopLevelNet() {
+        if (m_shortCircuitedTopLevelNet == null) {
+            m_shortCircuitedTopLevelNet = createShortCircuitedNet(
+                    new TopLevelNetGraph(m_currentEditor.getModelProcessor().getElementContainer()));
+        }
+        return m_shortCircuitedTopLevelNet;
+    }
+
+    private ShortCircuitedNet createShortCircuitedNet(INetGraph net) {
+        calculateBasicNetInfo();
+        // For t* to be connected, we will need
+        // a unique source and a unique sink
+        boolean unique = (m_sourcePlaces.size() == 1) && (m_sinkPlaces.size() == 1);
+        AbstractPetriNetElementModel source = unique ? m_sourcePlaces.iterator().next() : null;
+        AbstractPetriNetElementModel sink = unique ? m_sinkPlaces.iterator().next() : null;
+        return new ShortCircuitedNet(net, source, sink);
+    }
+
     // ! Return all nodes of the current net that
     // ! are not connected
     public Set<AbstractPetriNetElementModel> getNotConnectedNodes() {
@@ -399,33 +435,28 @@ public class StructuralAnalysis implements IWorkflowCheck, INetStatistics, IWell
             return;
         }
 
-        // Add temporary transition t*, connecting sink to source
-        AbstractPetriNetElementModel ttemp = addTStar();
-        if (ttemp != null) {
-            netElements.add(ttemp);
-        }
-
-        // First check for connectedness:
-        // Return connection map presuming that all arcs may be
-        // used in both directions
-        RouteInfo[][] connectionGraph = NetAlgorithms.getAllConnections(netElements, true);
-        if (connectionGraph != null) {
-            NetAlgorithms.getUnconnectedNodes(ttemp, connectionGraph, m_notConnectedNodes);
-        }
+        // Add the virtual transition t*, connecting sink to source
+        ShortCircuitedNet shortCircuitedNet = getShortCircuitedNet();
+        AbstractPetriNetElementModel ttemp = shortCircuitedNet.getTStar();
+        netElements.add(ttemp);
 
-        // Now get the graph for strong connectedness
-        // This will also give us all shortest distances
-        // according to Moore's algorithm (no arc weights)
-        RouteInfo[][] strongConnectionGraph = NetAlgorithms.getAllConnections(netElements, false);
-        if (strongConnectionGraph != null) {
-            NetAlgorithms.getUnconnectedNodes(ttemp, strongConnectionGraph, m_notStronglyConnectedNodes);
-        }
-
-        if (ttemp != null) {
-            removeTStar(ttemp);
+        // Check for connectedness and strong connectedness
+        // with one traversal from and one to t* each
+        try {
+            NetConnectivity connectivity = new NetConnectivity(netElements, shortCircuitedNet);
+            Set<AbstractPetriNetElementModel> notConnected = connectivity.getUnconnectedNodes(ttemp);
+            Set<AbstractPetriNetElementModel> notStronglyConnected = connectivity.getNotStronglyConnectedNodes(ttemp);
+            m_notConnectedNodes.addAll(notConnected);
+            m_notStronglyConnectedNodes.addAll(notStronglyConnected);
+        } catch (Exception e) {
+            // Can't calculate if non petri-net element has been
+            // passed as input, leave both sets empty as before
         }
     }
 
+    // ! Adds the transition t* to the net in the editor
+    // ! Deprecated: this modifies the edited net, use getShortCircuitedNet() instead
+    @Deprecated
     public AbstractPetriNetElementModel addTStar() {
         if (!m_bBasicNetInfoAvailable) {
             calculateBasicNetInfo();
@@ -466,6 +497,8 @@ public class StructuralAnalysis implements IWorkflowCheck, INetStatistics, IWell
         return ttemp;
     }
 
+    // ! Deprecated: use getShortCircuitedNet() instead of adding t* to the net
+    @Deprecated
     public void removeTStar(AbstractPetriNetElementModel tstar) {
         // Remove the element from the graph
         if (tstar != null) {
@@ -503,32 +536,8 @@ public class StructuralAnalysis implements IWorkflowCheck, INetStatistics, IWell
         // Look for forward-branched places (conflicts)
         // and their follow-up transitions
         while (i.hasNext()) {
-            // Determine the arc configuration of the current place
-            AbstractPetriNetElementModel currentPlace = i.next();
-
-            // Have a closer look at the follow-up transitions
-            // Collect all affected nodes a priori just in case
-            HashSet<AbstractPetriNetElementModel> violationGroup = new HashSet<AbstractPetriNetElementModel>();
-            boolean violation = false;
-            Set<AbstractPetriNetElementModel> compareSet = null;
-            Set<AbstractPetriNetElementModel> successors = NetAlgorithms.getDirectlyConnectedNodes(currentPlace,
-                    swapArcDirection ? NetAlgorithms.connectionTypeINBOUND : NetAlgorithms.connectionTypeOUTBOUND);
-            for (Iterator<AbstractPetriNetElementModel> s = successors.iterator(); s.hasNext();) {
-                AbstractPetriNetElementModel successor = s.next();
-                Set<AbstractPetriNetElementModel> predecessors = NetAlgorithms.getDirectlyConnectedNodes(successor,
-                        swapArcDirection ? NetAlgorithms.connectionTypeOUTBOUND : NetAlgorithms.connectionTypeINBOUND);
-                if (compareSet == null) {
-                    compareSet = predecessors;
-                } else {
-                    // All predecessors of all successors of our
-                    // original place must be the same
-                    violation = violation || (!compareSet.equals(predecessors));
-                }
-                // Add the element and all its predecessors
-                violationGroup.addAll(predecessors);
-                violationGroup.add(successor);
-            }
-            if (violation) {
+            Set<AbstractPetriNetElementModel> violationGroup = getNonFreeChoiceGroup(i.next(), swapArcDirection);
+            if (violationGroup != null) {
                 // We have a violation, store the group in the list
                 result.add(violationGroup);
             }
@@ -536,6 +545,42 @@ public class StructuralAnalysis implements IWorkflowCheck, INetStatistics, IWell
         return result;
     }
 
+    // ! Determine the free choice violation caused by a single place
+    // ! The violation only depends on the successors of the place and on their predecessors,
+    // ! so it can be determined again after a local change of the net
+    // ! @param place specifies the place which is to be examined
+    // ! @return Returns the place, its follow-up transitions and their predecessors if the
+    // ! follow-up transitions have different predecessors, null otherwise
+    public Set<AbstractPetriNetElementModel> getFreeChoiceViolation(AbstractPetriNetElementModel place) {
+        return getNonFreeChoiceGroup(place, false);
+    }
+
+    private Set<AbstractPetriNetElementModel> getNonFreeChoiceGroup(AbstractPetriNetElementModel currentPlace, boolean swapArcDirection) {
+        // Have a closer look at the follow-up transitions
+        // Collect all affected nodes a priori just in case
+        HashSet<AbstractPetriNetElementModel> violationGroup = new HashSet<AbstractPetriNetElementModel>();
+        boolean violation = false;
+        Set<AbstractPetriNetElementModel> compareSet = null;
+        Set<AbstractPetriNetElementModel> successors = NetAlgorithms.getDirectlyConnectedNodes(currentPlace,
+                swapArcDirection ? NetAlgorithms.connectionTypeINBOUND : NetAlgorithms.connectionTypeOUTBOUND);
+        for (Iterator<AbstractPetriNetElementModel> s = successors.iterator(); s.hasNext();) {
+            AbstractPetriNetElementModel successor = s.next();
+            Set<AbstractPetriNetElementModel> predecessors = NetAlgorithms.getDirectlyConnectedNodes(successor,
+                    swapArcDirection ? NetAlgorithms.connectionTypeOUTBOUND : NetAlgorithms.connectionTypeINBOUND);
+            if (compareSet == null) {
+                compareSet = predecessors;
+            } else {
+                // All predecessors of all successors of our
+                // original place must be the same
+                violation = violation || (!compareSet.equals(predecessors));
+            }
+            // Add the element and all its predecessors
+            violationGroup.addAll(predecessors);
+            violationGroup.add(successor);
+        }
+        return violation ? violationGroup : null;
+    }
+
     // ! Detect PT handles using modified max flow / min cut
     // ! algorithm
     void calculatePTHandles() {
@@ -546,17 +591,18 @@ public class StructuralAnalysis implements IWorkflowCheck, INetStatistics, IWell
 
         calculateBasicNetInfo();
 
-        // Add the temporary transition 't*'
+        // Add the virtual transition 't*'
         // and consider it as another transition
         // This is necessary to detect
         // handles in the short-circuited net
-        AbstractPetriNetElementModel tStar = addTStar();
+        ShortCircuitedNet shortCircuitedNet = getShortCircuitedNet();
         HashSet<AbstractPetriNetElementModel> transitionsWithTStar = new HashSet<AbstractPetriNetElementModel>(m_transitions);
-        transitionsWithTStar.add(tStar);
+        transitionsWithTStar.add(shortCircuitedNet.getTStar());
 
         // Detect all PT handles in the short-circuited net
-        LowLevelNet myNet = CreateFlowNet(m_places, transitionsWithTStar);
-        Set<Set<ClusterElement>> handleRun = getHandlePairs("PT", myNet, m_places, transitionsWithTStar, false);
+        LowLevelNet myNet = CreateFlowNet(shortCircuitedNet, m_places, transitionsWithTStar);
+        Set<Set<ClusterElement>> handleRun = getHandlePairs("PT", myNet, new HandleDetector(myNet), shortCircuitedNet,
+                m_places, transitionsWithTStar);
 
         for (Iterator<Set<ClusterElement>> i = handleRun.iterator(); i.hasNext();) {
             Set<ClusterElement> currentSource = i.next();
@@ -566,12 +612,6 @@ public class StructuralAnalysis implements IWorkflowCheck, INetStatistics, IWell
             }
             m_PTHandles.add(current);
         }
-
-        // Remove temporary transition from the net
-        if (tStar != null) {
-            removeTStar(tStar);
-        }
-
     }
 
     // ! Detect TP handles using modified max flow / min cut
@@ -584,17 +624,18 @@ public class StructuralAnalysis implements IWorkflowCheck, INetStatistics, IWell
 
         calculateBasicNetInfo();
 
-        // Add the temporary transition 't*'
+        // Add the virtual transition 't*'
         // and consider it as another transition
         // This is necessary to detect
         // handles in the short-circuited net
-        AbstractPetriNetElementModel tStar = addTStar();
+        ShortCircuitedNet shortCircuitedNet = getShortCircuitedNet();
         HashSet<AbstractPetriNetElementModel> transitionsWithTStar = new HashSet<AbstractPetriNetElementModel>(m_transitions);
-        transitionsWithTStar.add(tStar);
+        transitionsWithTStar.add(shortCircuitedNet.getTStar());
 
         // Detect all PT handles in the short-circuited net
-        LowLevelNet myNet = CreateFlowNet(m_places, transitionsWithTStar);
-        Set<Set<ClusterElement>> handleRun = getHandlePairs("TP", myNet, transitionsWithTStar, m_places, false);
+        LowLevelNet myNet = CreateFlowNet(shortCircuitedNet, m_places, transitionsWithTStar);
+        Set<Set<ClusterElement>> handleRun = getHandlePairs("TP", myNet, new HandleDetector(myNet), shortCircuitedNet,
+                transitionsWithTStar, m_places);
 
         for (Iterator<Set<ClusterElement>> i = handleRun.iterator(); i.hasNext();) {
             Set<ClusterElement> currentSource = i.next();
@@ -604,12 +645,6 @@ public class StructuralAnalysis implements IWorkflowCheck, INetStatistics, IWell
             }
             m_TPHandles.add(current);
         }
-
-        // Remove temporary transition from the net
-        if (tStar != null) {
-            removeTStar(tStar);
-        }
-
     }
 
     // ! Adds a node to the low level net and duplicates it
@@ -625,9 +660,8 @@ public class StructuralAnalysis implements IWorkflowCheck, INetStatistics, IWell
     // ! flow nodes in the low level net. This method adds all
     // ! outgoing arcs to the second flow node and links
     // ! it with its successors, respectively.
-    private void AddOutgoingArcs(LowLevelNet lolnet, AbstractPetriNetElementModel i) {
-        Set<AbstractPetriNetElementModel> successors = NetAlgorithms.getDirectlyConnectedNodes(i,
-                NetAlgorithms.connectionTypeOUTBOUND);
+    private void AddOutgoingArcs(LowLevelNet lolnet, INetGraph net, AbstractPetriNetElementModel i) {
+        Set<AbstractPetriNetElementModel> successors = net.getSuccessors(i);
         FlowNode source = lolnet.getNodeForElement(i, false);
         for (Iterator<AbstractPetriNetElementModel> s = successors.iterator(); s.hasNext();) {
             AbstractPetriNetElementModel t = s.next();
@@ -639,10 +673,12 @@ public class StructuralAnalysis implements IWorkflowCheck, INetStatistics, IWell
 
     // ! Create the low level net used for the max-flow/min-cut algorithm
     // ! from given sets of places and transitions
+    // ! @param net Specifies the arcs between the nodes
     // ! @param places Specifies the set of places to be used
     // ! @param transitions Specifies the set of transitions to be used
     // ! @return LowLevelNet structure
-    private LowLevelNet CreateFlowNet(Set<AbstractPetriNetElementModel> places, Set<AbstractPetriNetElementModel> transitions) {
+    private LowLevelNet CreateFlowNet(INetGraph net, Set<AbstractPetriNetElementModel> places,
+            Set<AbstractPetriNetElementModel> transitions) {
         m_lolNet = new LowLevelNet();
         for (Iterator<AbstractPetriNetElementModel> i = places.iterator(); i.hasNext();) {
             ExpandAndAddNode(m_lolNet, i.next());
@@ -652,42 +688,30 @@ public class StructuralAnalysis implements IWorkflowCheck, INetStatistics, IWell
         }
 
         for (Iterator<AbstractPetriNetElementModel> i = places.iterator(); i.hasNext();) {
-            AddOutgoingArcs(m_lolNet, i.next());
+            AddOutgoingArcs(m_lolNet, net, i.next());
         }
         for (Iterator<AbstractPetriNetElementModel> i = transitions.iterator(); i.hasNext();) {
-            AddOutgoingArcs(m_lolNet, i.next());
+            AddOutgoingArcs(m_lolNet, net, i.next());
         }
         return m_lolNet;
     }
 
-    private void AddAalstNetOutgoingArcs(LowLevelNet lolnet, AbstractPetriNetElementModel i) {
-        Map<String, AbstractPetriNetElementModel> successors = this.m_currentEditor.getModelProcessor().getElementContainer()
-                .getTargetElements(i.getId());
-        FlowNode source = lolnet.getNodeForElement(i, false);
-        for (Iterator<Map.Entry<String, AbstractPetriNetElementModel>> s = successors.entrySet().iterator(); s.hasNext();) {
-            AbstractPetriNetElementModel t = s.next().getValue();
-            FlowNode target = lolnet.getNodeForElement(t, true);
-
-            lolnet.addArc(source, target);
-        }
-    }
-
     // ! Create the low level net used for the max-flow/min-cut algorithm
-    // ! from given sets of places and transitions for the case
+    // ! from all nodes of the editor for the case
     // ! where we want to analyze a van der Aalst net
-    // ! @param places Specifies the set of places to be used
-    // ! @param transitions Specifies the set of transitions to be used
+    // ! @param net Specifies the net as shown in the editor short-circuited by t*
     // ! @return LowLevelNet structure
-    private LowLevelNet CreateAalstFlowNet() {
+    private LowLevelNet CreateAalstFlowNet(ShortCircuitedNet net) {
         m_lolNet = new LowLevelNet();
 
-        List<AbstractPetriNetElementModel> rootElements = m_currentEditor.getModelProcessor().getElementContainer()
-                .getRootElements();
+        List<AbstractPetriNetElementModel> rootElements = new ArrayList<AbstractPetriNetElementModel>(
+                m_currentEditor.getModelProcessor().getElementContainer().getRootElements());
+        rootElements.add(net.getTStar());
         for (Iterator<AbstractPetriNetElementModel> i = rootElements.iterator(); i.hasNext();) {
             ExpandAndAddNode(m_lolNet, i.next());
         }
         for (Iterator<AbstractPetriNetElementModel> i = rootElements.iterator(); i.hasNext();) {
-            AddAalstNetOutgoingArcs(m_lolNet, i.next());
+            AddOutgoingArcs(m_lolNet, net, i.next());
         }
 
         return m_lolNet;
@@ -699,119 +723,122 @@ public class StructuralAnalysis implements IWorkflowCheck, INetStatistics, IWell
     // ! First nodes will be filtered for nodes with more than one successor
     // ! Second nodes will be filtered for nodes with more than one
     // ! predecessor
+    // ! The remaining pairs are checked for a flow of at least 2 by
+    // ! the handle detector, which spreads them across several threads
     // ! @param n Specifies the (pre-built) low-level net to be used
+    // ! @param detector Specifies the handle detector built from the low-level net
+    // ! @param net Specifies the net the low-level net has been built from,
+    // ! either the low-level petri net or the van der Aalst net
     // ! @param firstNodeType Specifies a set of first nodes
     // ! @param secondNodeType Specifies a set of second nodes
-    // ! @param useVanderAalstModel True if handles should be detected based on operators rather than
-    // ! a low-level net
-    private Set<Set<ClusterElement>> getHandlePairs(String handleType, LowLevelNet n,
-            Set<AbstractPetriNetElementModel> firstNodeType, Set<AbstractPetriNetElementModel> secondNodeType,
-            boolean useVanDerAalstModel) {
+    private Set<Set<ClusterElement>> getHandlePairs(String handleType, LowLevelNet n, HandleDetector detector,
+            INetGraph net, Set<AbstractPetriNetElementModel> firstNodeType,
+            Set<AbstractPetriNetElementModel> secondNodeType) {
 
-        ArcConfiguration arcConfig = new ArcConfiguration();
-
-        Set<Set<ClusterElement>> result = new HashSet<Set<ClusterElement>>();
-
-        Iterator<AbstractPetriNetElementModel> i = firstNodeType.iterator();
         long time1 = System.nanoTime();
-        while (i.hasNext()) {
-            AbstractPetriNetElementModel firstNode = i.next();
-            if (useVanDerAalstModel) {
-                Map<String, AbstractPetriNetElementModel> elementMapRef = m_currentEditor.getModelProcessor()
-                        .getElementContainer().getSourceElements(firstNode.getId());
-                arcConfig.m_numIncoming = (elementMapRef != null) ? elementMapRef.size() : 0;
-                elementMapRef = m_currentEditor.getModelProcessor().getElementContainer().getTargetElements(
-                        firstNode.getId());
-                arcConfig.m_numOutgoing = (elementMapRef != null) ? elementMapRef.size() : 0;
-            } else {
-                NetAlgorithms.getArcConfiguration(firstNode, arcConfig);
-            }
-            if (arcConfig.m_numOutgoing > 1) {
-                Iterator<AbstractPetriNetElementModel> j = secondNodeType.iterator();
-                while (j.hasNext()) {
-                    AbstractPetriNetElementModel secondNode = j.next();
-                    if (useVanDerAalstModel) {
-                        Map<String, AbstractPetriNetElementModel> elementMapRef = m_currentEditor.getModelProcessor()
-                                .getElementContainer().getSourceElements(secondNode.getId());
-                        arcConfig.m_numIncoming = (elementMapRef != null) ? elementMapRef.size() : 0;
-                        elementMapRef = m_currentEditor.getModelProcessor().getElementContainer().getTargetElements(
-                                secondNode.getId());
-                        arcConfig.m_numOutgoing = (elementMapRef != null) ? elementMapRef.size() : 0;
-                    } else {
-                        NetAlgorithms.getArcConfiguration(secondNode, arcConfig);
-                    }
 
-                    if (arcConfig.m_numIncoming > 1) {
-                        FlowNode source = n.getNodeForElement(firstNode, false);
-                        FlowNode sink = n.getNodeForElement(secondNode, true);
-                        // Depending on the mode of operation,
-                        // a corresponding flow node might not exist
-                        // (e.g. inner places and transition when analyzing van der Aalst nets)
-                        // Just ignore those cases
-                        if ((source != null) && (sink != null)) {
-                            int flow = n.getMaxFlow(source, sink);
-                            // flow = 2; //dummy Zeile zum Testen
-                            if (flow > 1) {
-                                // Handle gefunden
-                                Set<ClusterElement> handlePair = new HashSet<ClusterElement>();
-
-                                handlePair.add(new ClusterElement(firstNode, true));
-                                handlePair.add(new ClusterElement(secondNode, false));
-                                result.add(handlePair);
-                            }
-                        }
-                    }
+        List<AbstractPetriNetElementModel> firstNodes = new ArrayList<AbstractPetriNetElementModel>();
+        int[] sources = getHandleCandidates(n, detector, net, firstNodeType, false, firstNodes);
+        List<AbstractPetriNetElementModel> secondNodes = new ArrayList<AbstractPetriNetElementModel>();
+        int[] sinks = getHandleCandidates(n, detector, net, secondNodeType, true, secondNodes);
+
+        Set<Set<ClusterElement>> result = new HashSet<Set<ClusterElement>>();
+        if (sources.length > 0 && sinks.length > 0) {
+            BitSet[] handles = detector.findHandles(sources, sinks);
+            for (int i = 0; i < handles.length; i++) {
+                for (int j = handles[i].nextSetBit(0); j >= 0; j = handles[i].nextSetBit(j + 1)) {
+                    // Handle gefunden
+                    Set<ClusterElement> handlePair = new HashSet<ClusterElement>();
+
+                    handlePair.add(new ClusterElement(firstNodes.get(i), true));
+                    handlePair.add(new ClusterElement(secondNodes.get(j), false));
+                    result.add(handlePair);
                 }
             }
         }
+
         long time2 = System.nanoTime();
         time2 = (time2 - time1) / 1000;
         LoggerManager.debug(Constants.QUALANALYSIS_LOGGER, handleType + " Handle Pairs calculated. (" + time2 + " ms)");
         return result;
     }
 
-    private void detectHandles(LowLevelNet n, boolean useVanDerAalstNet) {
+    // ! Collect the flow nodes of all candidates for one side of a handle
+    // ! @param n Specifies the (pre-built) low-level net to be used
+    // ! @param detector Specifies the handle detector built from the low-level net
+    // ! @param net Specifies the net the low-level net has been built from
+    // ! @param nodes Specifies the set of nodes to filter
+    // ! @param second True to collect second partners, which need more than one predecessor,
+    // ! false to collect first partners, which need more than one successor
+    // ! @param candidates Receives the petri net node of every returned flow node
+    // ! @return indices of the flow nodes in the handle detector
+    private int[] getHandleCandidates(LowLevelNet n, HandleDetector detector, INetGraph net,
+            Set<AbstractPetriNetElementModel> nodes, boolean second, List<AbstractPetriNetElementModel> candidates) {
+        int[] result = new int[nodes.size()];
+        int count = 0;
+
+        for (AbstractPetriNetElementModel node : nodes) {
+            Set<AbstractPetriNetElementModel> neighbours = second ? net.getPredecessors(node) : net.getSuccessors(node);
+            if (neighbours.size() <= 1) {
+                continue;
+            }
+
+            // Depending on the mode of operation,
+            // a corresponding flow node might not exist
+            // (e.g. inner places and transition when analyzing van der Aalst nets)
+            // Just ignore those cases
+            int index = detector.indexOf(n.getNodeForElement(node, second));
+            if (index >= 0) {
+                result[count++] = index;
+                candidates.add(node);
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private void detectHandles(LowLevelNet n, INetGraph net, boolean useVanDerAalstNet) {
 
         m_handles.clear();
         Set<Set<ClusterElement>> handleRun = null;
+        HandleDetector detector = new HandleDetector(n);
 
         if (useVanDerAalstNet) {
             // When using van der Aalst nets we are looking
             // for handles consisting of specific operator types
 
             // Detect all PXORJOIN handles
-            handleRun = getHandlePairs("PXORJOIN", n, m_places, m_xorjoins, true);
+            handleRun = getHandlePairs("PXORJOIN", n, detector, net, m_places, m_xorjoins);
             m_handles.addAll(handleRun);
             // Detect all XORSPLITP handles
-            handleRun = getHandlePairs("XORSPLITP", n, m_xorsplits, m_places, true);
+            handleRun = getHandlePairs("XORSPLITP", n, detector, net, m_xorsplits, m_places);
             m_handles.addAll(handleRun);
             // Detect all XORSPLITJOIN handles
-            handleRun = getHandlePairs("XORSPLITJOIN", n, m_xorsplits, m_xorjoins, true);
+            handleRun = getHandlePairs("XORSPLITJOIN", n, detector, net, m_xorsplits, m_xorjoins);
             m_handles.addAll(handleRun);
             // Detect all ANDSPLITJOIN handles
-            handleRun = getHandlePairs("ANDSPLITJOIN", n, m_andsplits, m_andjoins, true);
+            handleRun = getHandlePairs("ANDSPLITJOIN", n, detector, net, m_andsplits, m_andjoins);
             m_handles.addAll(handleRun);
             // Detect all ANDSPLITT handles
-            handleRun = getHandlePairs("ANDSPLITT", n, m_andsplits, m_transitions, true);
+            handleRun = getHandlePairs("ANDSPLITT", n, detector, net, m_andsplits, m_transitions);
             m_handles.addAll(handleRun);
             // Detect all TANDJOIN handles
-            handleRun = getHandlePairs("TANDJOIN", n, m_transitions, m_andjoins, true);
+            handleRun = getHandlePairs("TANDJOIN", n, detector, net, m_transitions, m_andjoins);
             m_handles.addAll(handleRun);
             // Detect all TT handles
-            handleRun = getHandlePairs("TT", n, m_transitions, m_transitions, true);
+            handleRun = getHandlePairs("TT", n, detector, net, m_transitions, m_transitions);
             m_handles.addAll(handleRun);
             // Detect all PP handles
-            handleRun = getHandlePairs("PP", n, m_places, m_places, true);
+            handleRun = getHandlePairs("PP", n, detector, net, m_places, m_places);
             m_handles.addAll(handleRun);
 
         } else {
             // Detect handles within the low-level petri-net
 
             // Detect all PP handles
-            handleRun = getHandlePairs("PP", n, m_places, m_places, false);
+            handleRun = getHandlePairs("PP", n, detector, net, m_places, m_places);
             m_handles.addAll(handleRun);
             // Detect all TT handles
-            handleRun = getHandlePairs("TT", n, m_transitions, m_transitions, false);
+            handleRun = getHandlePairs("TT", n, detector, net, m_transitions, m_transitions);
             m_handles.addAll(handleRun);
         }
 
@@ -885,21 +912,17 @@ public class StructuralAnalysis implements IWorkflowCheck, INetStatistics, IWell
             useVanDerAalstNet = true;
         }
 
-        // Add the temporary transition 't*'
+        // Use the virtual transition 't*'
         // and consider it as another transition
         // This is necessary to detect
         // handles in the short-circuited net
-        AbstractPetriNetElementModel tStar = addTStar();
+        ShortCircuitedNet shortCircuitedNet = useVanDerAalstNet ? getShortCircuitedTopLevelNet() : getShortCircuitedNet();
         HashSet<AbstractPetriNetElementModel> transitionsWithTStar = new HashSet<AbstractPetriNetElementModel>(m_transitions);
-        transitionsWithTStar.add(tStar);
-
-        LowLevelNet myNet = useVanDerAalstNet ? CreateAalstFlowNet() : CreateFlowNet(m_places, transitionsWithTStar);
-        detectHandles(myNet, useVanDerAalstNet);
+        transitionsWithTStar.add(shortCircuitedNet.getTStar());
 
-        // Remove temporary transition from the net
-        if (tStar != null) {
-            removeTStar(tStar);
-        }
+        LowLevelNet myNet = useVanDerAalstNet ? CreateAalstFlowNet(shortCircuitedNet)
+                : CreateFlowNet(shortCircuitedNet, m_places, transitionsWithTStar);
+        detectHandles(myNet, shortCircuitedNet, useVanDerAalstNet);
     }
 
     /**
@@ -0,0 +1,46 @@
+package org.woped.qualanalysis.structure;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.woped.core.model.ArcModel;
+import org.woped.core.model.ModelElementContainer;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+
+/**
+ * The arcs of a single container as they are shown in the editor, i.e. operators are nodes of their own.
+ */
+public class TopLevelNetGraph implements INetGraph {
+
+    private final ModelElementContainer container;
+
+    /**
+     * @param container the container holding the nodes and arcs
+     */
+    public TopLevelNetGraph(ModelElementContainer container) {
+        this.container = container;
+    }
+
+    @Override
+    public Set<AbstractPetriNetElementModel> getPredecessors(AbstractPetriNetElementModel node) {
+        return toSet(container.getSourceElements(node.getId()));
+    }
+
+    @Override
+    public Set<AbstractPetriNetElementModel> getSuccessors(AbstractPetriNetElementModel node) {
+        return toSet(container.getTargetElements(node.getId()));
+    }
+
+    @Override
+    public int getArcWeight(AbstractPetriNetElementModel source, AbstractPetriNetElementModel target) {
+        ArcModel arc = container.findArc(source.getId(), target.getId());
+        return arc != null ? arc.getInscriptionValue() : 0;
+    }
+
+    private static Set<AbstractPetriNetElementModel> toSet(Map<String, AbstractPetriNetElementModel> elements) {
+        Set<AbstractPetriNetElementModel> result = new HashSet<AbstractPetriNetElementModel>();
+        if (elements != null) result.addAll(elements.values());
+        return result;
+    }
+}
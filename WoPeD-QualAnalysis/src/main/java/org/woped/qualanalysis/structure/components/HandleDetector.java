@@ -0,0 +1,275 @@
+package org.woped.qualanalysis.structure.components;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.woped.core.utilities.WorkerPools;
+
+/**
+ * Detects handles on an array based residual graph of a {@link LowLevelNet}.
+ * <p>
+ * Every arc of a low level net has the capacity 1 and every petri net node is split into a first and a second flow
+ * node, so a flow of 2 from the second node of x to the first node of y means there are two node disjoint paths from
+ * x to y, i.e. a handle. The detector therefore only looks for two augmenting paths per pair and stops as soon as they
+ * are found. Sinks that are not reachable from a source are pruned by a single breadth first search per source before
+ * any augmenting path is searched.
+ * <p>
+ * The arcs are stored in compressed adjacency arrays, each arc followed by its reverse arc in the residual graph. The
+ * graph itself is never modified, every worker owns a copy of the residual capacities and restores the arcs it
+ * augmented after each pair. The sources are distributed across a shared {@link ForkJoinPool}.
+ * <p>
+ * The detector is a snapshot of the low level net at construction time.
+ */
+public class HandleDetector {
+
+    // ! Number of sources handled by a single task without forking
+    private static final int SOURCES_PER_TASK = 4;
+
+    private final int parallelism;
+    private final Map<FlowNode, Integer> m_indices = new IdentityHashMap<FlowNode, Integer>();
+    // ! Residual arcs of node i are edgeTarget[edgeStart[i]] .. edgeTarget[edgeStart[i + 1] - 1]
+    private final int[] edgeStart;
+    private final int[] edgeTarget;
+    // ! Index of the reverse arc in the residual graph
+    private final int[] edgeReverse;
+    // ! Residual capacity before any flow has been added
+    private final int[] edgeCapacity;
+
+    /**
+     * Creates a detector using one thread per available processor.
+     *
+     * @param net the low level net to detect handles in
+     */
+    public HandleDetector(LowLevelNet net) {
+        this(net, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param net         the low level net to detect handles in
+     * @param parallelism the amount of worker threads
+     */
+    public HandleDetector(LowLevelNet net, int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism has to be at least one");
+        this.parallelism = parallelism;
+
+        List<FlowNode> nodes = net.getNodes();
+        for (FlowNode node : nodes) {
+            m_indices.put(node, m_indices.size());
+        }
+
+        // every arc contributes a forward arc to its source and a reverse arc to its target
+        int nodeCount = m_indices.size();
+        edgeStart = new int[nodeCount + 1];
+        for (FlowNode node : nodes) {
+            for (Iterator<FlowArc> i = node.getOutgoingArcs(); i.hasNext();) {
+                FlowArc arc = i.next();
+                edgeStart[indexOf(arc.getSource()) + 1]++;
+                edgeStart[indexOf(arc.getTarget()) + 1]++;
+            }
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            edgeStart[i + 1] += edgeStart[i];
+        }
+
+        int edgeCount = edgeStart[nodeCount];
+        edgeTarget = new int[edgeCount];
+        edgeReverse = new int[edgeCount];
+        edgeCapacity = new int[edgeCount];
+        int[] fill = Arrays.copyOf(edgeStart, nodeCount);
+        for (FlowNode node : nodes) {
+            for (Iterator<FlowArc> i = node.getOutgoingArcs(); i.hasNext();) {
+                FlowArc arc = i.next();
+                int source = indexOf(arc.getSource());
+                int target = indexOf(arc.getTarget());
+                int forward = fill[source]++;
+                int backward = fill[target]++;
+                edgeTarget[forward] = target;
+                edgeTarget[backward] = source;
+                edgeReverse[forward] = backward;
+                edgeReverse[backward] = forward;
+                edgeCapacity[forward] = arc.getCapacity();
+            }
+        }
+    }
+
+    /**
+     * @param node a flow node of the low level net
+     * @return the index of the node in the residual graph or -1 if the node is not part of the net
+     */
+    public int indexOf(FlowNode node) {
+        Integer index = node != null ? m_indices.get(node) : null;
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Calculates the maximum flow from the source to the sink, but stops as soon as the limit is reached.
+     *
+     * @param source index of the source node
+     * @param sink   index of the sink node
+     * @param limit  the flow at which to stop searching for further augmenting paths
+     * @return the maximum flow or {@code limit}, whatever is smaller
+     */
+    public int getMaxFlow(int source, int sink, int limit) {
+        if (source == sink) throw new IllegalArgumentException("Source and sink have to be different nodes");
+        return new Workspace().maxFlow(source, sink, limit);
+    }
+
+    /**
+     * Finds all pairs of a source and a sink that form a handle, which means their maximum flow is at least 2.
+     *
+     * @param sources indices of the source nodes
+     * @param sinks   indices of the sink nodes
+     * @return for every source the set of indices into {@code sinks} forming a handle with it
+     */
+    public BitSet[] findHandles(int[] sources, int[] sinks) {
+        BitSet[] result = new BitSet[sources.length];
+        HandleTask task = new HandleTask(sources, sinks, result, 0, sources.length);
+
+        if (parallelism == 1 || sources.length <= SOURCES_PER_TASK) {
+            task.compute();
+            return result;
+        }
+
+        WorkerPools.getForkJoinPool(parallelism).invoke(task);
+        return result;
+    }
+
+    /**
+     * Checks the sources of a range against all sinks, splitting the range while it is too large.
+     */
+    private final class HandleTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] sources;
+        private final int[] sinks;
+        private final BitSet[] result;
+        private final int from;
+        private final int to;
+
+        HandleTask(int[] sources, int[] sinks, BitSet[] result, int from, int to) {
+            this.sources = sources;
+            this.sinks = sinks;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SOURCES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new HandleTask(sources, sinks, result, from, middle),
+                        new HandleTask(sources, sinks, result, middle, to));
+                return;
+            }
+
+            Workspace workspace = new Workspace();
+            for (int i = from; i < to; i++) {
+                BitSet handles = new BitSet(sinks.length);
+                workspace.markReachable(sources[i]);
+                for (int j = 0; j < sinks.length; j++) {
+                    if (workspace.isReachable(sinks[j]) && workspace.maxFlow(sources[i], sinks[j], 2) > 1) {
+                        handles.set(j);
+                    }
+                }
+                result[i] = handles;
+            }
+        }
+    }
+
+    /**
+     * The residual capacities and search buffers of a single worker.
+     */
+    private final class Workspace {
+        private final int[] residual = edgeCapacity.clone();
+        private final int[] mark = new int[edgeStart.length - 1];
+        private final int[] parentEdge = new int[edgeStart.length - 1];
+        private final int[] queue = new int[edgeStart.length - 1];
+        private final int[] reached = new int[edgeStart.length - 1];
+        private int reachedStamp = 0;
+        private int visitedCount = 0;
+        private int[] augmented = new int[16];
+        private int augmentedCount = 0;
+        private int stamp = 0;
+
+        /**
+         * Remembers the nodes reachable from the source. An augmenting path search on the unused residual graph
+         * visits exactly these nodes.
+         */
+        void markReachable(int source) {
+            search(source, -1);
+            reachedStamp++;
+            for (int i = 0; i < visitedCount; i++) {
+                reached[queue[i]] = reachedStamp;
+            }
+        }
+
+        boolean isReachable(int node) {
+            return reached[node] == reachedStamp;
+        }
+
+        int maxFlow(int source, int sink, int limit) {
+            int flow = 0;
+            while (flow < limit) {
+                if (search(source, sink) != mark[sink]) break;
+                for (int node = sink; node != source; node = edgeTarget[edgeReverse[parentEdge[node]]]) {
+                    augment(parentEdge[node]);
+                }
+                flow++;
+            }
+            restore();
+            return flow;
+        }
+
+        /**
+         * Breadth first search on the residual graph that stops once the sink has been reached.
+         *
+         * @return the stamp that marks all visited nodes
+         */
+        int search(int source, int sink) {
+            stamp++;
+            mark[source] = stamp;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = source;
+
+            while (head < tail) {
+                int node = queue[head++];
+                for (int e = edgeStart[node]; e < edgeStart[node + 1]; e++) {
+                    int target = edgeTarget[e];
+                    if (residual[e] > 0 && mark[target] != stamp) {
+                        mark[target] = stamp;
+                        parentEdge[target] = e;
+                        if (target == sink) return stamp;
+                        queue[tail++] = target;
+                    }
+                }
+            }
+            visitedCount = tail;
+            return stamp;
+        }
+
+        private void augment(int edge) {
+            residual[edge]--;
+            residual[edgeReverse[edge]]++;
+            if (augmentedCount == augmented.length) {
+                augmented = Arrays.copyOf(augmented, augmentedCount * 2);
+            }
+            augmented[augmentedCount++] = edge;
+        }
+
+        private void restore() {
+            for (int i = 0; i < augmentedCount; i++) {
+                residual[augmented[i]]++;
+                residual[edgeReverse[augmented[i]]]--;
+            }
+            augmentedCount = 0;
+        }
+    }
+}
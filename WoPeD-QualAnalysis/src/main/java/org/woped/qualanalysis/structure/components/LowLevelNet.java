@@ -1,7 +1,10 @@
 package org.woped.qualanalysis.structure.components;
 
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 
 import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
 import org.woped.core.utilities.LoggerManager;
@@ -9,6 +12,9 @@ import org.woped.qualanalysis.Constants;
 
 public class LowLevelNet {
     private LinkedList<FlowNode> m_netNodes;
+    // ! First and second flow node of each petri net node, used by getNodeForElement()
+    private Map<AbstractPetriNetElementModel, FlowNode> m_firstNodes;
+    private Map<AbstractPetriNetElementModel, FlowNode> m_secondNodes;
 
     private Iterator<FlowNode> getM_netNodesIter() {
         return m_netNodes.iterator();
@@ -16,10 +22,20 @@ public class LowLevelNet {
 
     public LowLevelNet() {
         m_netNodes = new LinkedList<FlowNode>();
+        m_firstNodes = new HashMap<AbstractPetriNetElementModel, FlowNode>();
+        m_secondNodes = new HashMap<AbstractPetriNetElementModel, FlowNode>();
     }
 
     public void addNode(FlowNode n) {
         m_netNodes.add(n);
+        if (n.getPetriNetNode() != null) {
+            (n.isFirst() ? m_firstNodes : m_secondNodes).put(n.getPetriNetNode(), n);
+        }
+    }
+
+    // ! @return all flow nodes of the net in the order they have been added
+    List<FlowNode> getNodes() {
+        return m_netNodes;
     }
 
     public void addArc(FlowNode n1, FlowNode n2) {
@@ -31,20 +47,7 @@ public class LowLevelNet {
 
     public FlowNode getNodeForElement(AbstractPetriNetElementModel petrinetElement, boolean first) {
         // get matching FlowNode element
-
-        FlowNode returnValue = null;
-        Iterator<FlowNode> i = m_netNodes.iterator();
-
-        while (i.hasNext()) {
-            FlowNode currentFlowNode = i.next();
-
-            if (currentFlowNode.getPetriNetNode() != null) {
-                if (currentFlowNode.getPetriNetNode().equals(petrinetElement) && (currentFlowNode.isFirst() == first)) {
-                    returnValue = currentFlowNode;
-                }
-            }
-        }
-        return returnValue;
+        return (first ? m_firstNodes : m_secondNodes).get(petrinetElement);
     }
 
     public void dumpList(LinkedList<FlowNode> list, String pref) {
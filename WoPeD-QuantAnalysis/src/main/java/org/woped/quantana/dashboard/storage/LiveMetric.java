@@ -0,0 +1,83 @@
+package org.woped.quantana.dashboard.storage;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.gson.Gson;
+
+/**
+ * A snapshot of a running simulation that is pushed to the dashboard.
+ * <p>
+ * Progress snapshots are taken while a run is simulated, run snapshots when
+ * a run has finished.
+ */
+public class LiveMetric {
+	public static final String TYPE_PROGRESS = "progress";
+	public static final String TYPE_RUN = "run";
+
+	private static final Gson GSON = new Gson();
+
+	private final String type;
+	private final int run;
+	private final double clock;
+	private final int finishedCases;
+	private final double throughput;
+	// queue length and cases in service by server name
+	private final Map<String, Integer> queueLengths = new LinkedHashMap<String, Integer>();
+	private final Map<String, Integer> inService = new LinkedHashMap<String, Integer>();
+	// share of the simulated time a resource was busy, by resource name
+	private final Map<String, Double> utilization = new LinkedHashMap<String, Double>();
+
+	public LiveMetric(String type, int run, double clock, int finishedCases, double throughput) {
+		this.type = type;
+		this.run = run;
+		this.clock = clock;
+		this.finishedCases = finishedCases;
+		this.throughput = throughput;
+	}
+
+	public void addServer(String name, int queueLength, int cases) {
+		queueLengths.put(name, queueLength);
+		inService.put(name, cases);
+	}
+
+	public void addResource(String name, double utilizationRatio) {
+		utilization.put(name, utilizationRatio);
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public int getRun() {
+		return run;
+	}
+
+	public double getClock() {
+		return clock;
+	}
+
+	public int getFinishedCases() {
+		return finishedCases;
+	}
+
+	public double getThroughput() {
+		return throughput;
+	}
+
+	public Map<String, Integer> getQueueLengths() {
+		return queueLengths;
+	}
+
+	public Map<String, Integer> getInService() {
+		return inService;
+	}
+
+	public Map<String, Double> getUtilization() {
+		return utilization;
+	}
+
+	public String toJson() {
+		return GSON.toJson(this);
+	}
+}
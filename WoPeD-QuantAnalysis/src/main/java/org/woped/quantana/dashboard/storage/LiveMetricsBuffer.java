@@ -0,0 +1,127 @@
+package org.woped.quantana.dashboard.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded ring buffer of the latest live metrics of the simulation.
+ * <p>
+ * Simulations publish without locks and without ever waiting: every metric
+ * gets the next sequence number and overwrites the oldest one once the
+ * buffer is full. Readers do not remove anything; each keeps its own cursor,
+ * the sequence number of the next metric it wants to read, so any number of
+ * dashboard connections can follow the same metrics. A reader that falls
+ * more than the capacity behind continues with the oldest metric still
+ * available. Readers that do not want to poll register a listener, which
+ * is told about every metric right after it has been published.
+ */
+public class LiveMetricsBuffer {
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	private final AtomicReferenceArray<Entry> slots;
+	private final int mask;
+	private final AtomicLong next = new AtomicLong();
+	private final List<Runnable> listeners = new CopyOnWriteArrayList<Runnable>();
+
+	public LiveMetricsBuffer() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param capacity the number of metrics kept, rounded up to a power of two
+	 */
+	public LiveMetricsBuffer(int capacity) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("Capacity has to be at least one");
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity)
+			size <<= 1;
+		slots = new AtomicReferenceArray<Entry>(size);
+		mask = size - 1;
+	}
+
+	/**
+	 * @return the sequence number of the metric
+	 */
+	public long publish(LiveMetric metric) {
+		long sequence = next.getAndIncrement();
+		slots.set((int) (sequence & mask), new Entry(sequence, metric));
+		for (Runnable listener : listeners) {
+			listener.run();
+		}
+		return sequence;
+	}
+
+	/**
+	 * @param listener run on the publishing thread after every metric, so it
+	 *        must neither block nor take long
+	 */
+	public void addListener(Runnable listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(Runnable listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * @return the sequence number the next published metric will get
+	 */
+	public long getNextSequence() {
+		return next.get();
+	}
+
+	public int getCapacity() {
+		return slots.length();
+	}
+
+	/**
+	 * Reads the published metrics starting at the cursor.
+	 *
+	 * @param cursor the sequence number of the first metric to read
+	 * @param max the maximum number of metrics to read
+	 * @return the metrics in the order of their sequence numbers, starting at
+	 *         the cursor or at the oldest metric still available
+	 */
+	public List<Entry> read(long cursor, int max) {
+		List<Entry> result = new ArrayList<Entry>();
+		long head = next.get();
+		cursor = Math.max(cursor, Math.max(0, head - slots.length()));
+		while (cursor < head && result.size() < max) {
+			Entry entry = slots.get((int) (cursor & mask));
+			if (entry == null || entry.sequence < cursor) {
+				// claimed, but not stored yet
+				break;
+			}
+			if (entry.sequence > cursor) {
+				// overwritten while reading
+				cursor = Math.max(cursor + 1, next.get() - slots.length());
+				continue;
+			}
+			result.add(entry);
+			cursor++;
+		}
+		return result;
+	}
+
+	public static class Entry {
+		private final long sequence;
+		private final LiveMetric metric;
+
+		Entry(long sequence, LiveMetric metric) {
+			this.sequence = sequence;
+			this.metric = metric;
+		}
+
+		public long getSequence() {
+			return sequence;
+		}
+
+		public LiveMetric getMetric() {
+			return metric;
+		}
+	}
+}
@@ -1,15 +1,25 @@
 package org.woped.quantana.dashboard.storage;
 
+import org.woped.quantana.resourcealloc.Resource;
 import org.woped.quantana.resourcealloc.ResourceUtilization;
 import org.woped.quantana.sim.SimCase;
 import org.woped.quantana.sim.SimGraph;
 import org.woped.quantana.sim.SimParameters;
 import org.woped.quantana.sim.SimRunStats;
 import org.woped.quantana.sim.SimRunner;
+import org.woped.quantana.sim.SimServer;
 
 public class SimRunnerDB extends SimRunner {
 
+	// events between two looks at the clock
+	private static final int EVENTS_PER_CHECK = 1024;
+	// nanoseconds between two progress metrics
+	private static final long PROGRESS_INTERVAL = 250000000L;
+
 	private StorageEngine storageengine = null;
+	private LiveMetricsBuffer liveMetrics = null;
+	private int eventsSinceCheck = 0;
+	private long lastProgress = System.nanoTime();
 	
 	public SimRunnerDB(SimGraph graph, ResourceUtilization resUtil,
 			SimParameters sp, StorageEngine se) {
@@ -28,6 +38,7 @@ public class SimRunnerDB extends SimRunner {
 		
 		
 		this.storageengine = se;
+		this.liveMetrics = se.getLiveMetrics();
 		
 		
 		//createServerForBirth();	
@@ -39,11 +50,28 @@ public class SimRunnerDB extends SimRunner {
 		super.finishCase(c);
 	}
 
+	/**
+	 * Publishes the progress of the run every 250 milliseconds.
+	 */
+	@Override
+	protected void eventInvoked() {
+		if (++eventsSinceCheck < EVENTS_PER_CHECK)
+			return;
+		eventsSinceCheck = 0;
+		long now = System.nanoTime();
+		if (now - lastProgress >= PROGRESS_INTERVAL) {
+			lastProgress = now;
+			double throughput = (getRunClock() > 0) ? getFinished() / getRunClock() * params.getPeriod() : 0;
+			liveMetrics.publish(createMetric(LiveMetric.TYPE_PROGRESS, throughput));
+		}
+	}
+
 	@Override
 	protected SimRunStats finishRun() {
 		
 		SimRunStats srs = super.finishRun();
 		
+		liveMetrics.publish(createMetric(LiveMetric.TYPE_RUN, srs.getThroughPut()));
 		if(storageengine!= null){
 			storageengine.add(srs);
 		}
@@ -51,6 +79,16 @@ public class SimRunnerDB extends SimRunner {
 		return srs;
 	}
 
+	private LiveMetric createMetric(String type, double throughput) {
+		double clock = getRunClock();
+		LiveMetric metric = new LiveMetric(type, getRunNumber() + 1, clock, getFinished(), throughput);
+		for (SimServer s : serverList.values())
+			metric.addServer(s.getName(), s.getQueue().size(), s.getParallels());
+		for (Resource r : resAlloc.getResources().values())
+			metric.addResource(r.getName(), (clock > 0) ? r.getBusyTime() / clock : 0);
+		return metric;
+	}
+
 	@Override
 	protected void generateReport() {
 		
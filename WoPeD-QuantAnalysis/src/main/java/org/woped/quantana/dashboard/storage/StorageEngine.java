@@ -77,11 +77,20 @@ public class StorageEngine {
   final Lock dbLock = new ReentrantLock();
 
   private int clockTick = 0;
+
+  private final LiveMetricsBuffer liveMetrics = new LiveMetricsBuffer();
   
   private int maxEntries = ConfigurationManager.getConfiguration().getBusinessDashboardMaxValues();
   
   WoPeDDashboardConfiguration wdc = null;
   
+  /**
+   * @return the metrics of the running simulation, pushed to the dashboard
+   */
+  public LiveMetricsBuffer getLiveMetrics(){
+	  return liveMetrics;
+  }
+  
   public static synchronized StorageEngine getInstance(){
 
 	  if (uniqInstance == null) {
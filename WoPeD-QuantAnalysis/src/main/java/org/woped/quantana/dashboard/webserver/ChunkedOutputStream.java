@@ -0,0 +1,73 @@
+package org.woped.quantana.dashboard.webserver;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes content with the chunked transfer encoding of HTTP/1.1, so the
+ * content can be sent before its length is known.
+ */
+public class ChunkedOutputStream extends FilterOutputStream {
+	public static final int CHUNK_SIZE = 8192;
+
+	private final byte[] chunk = new byte[CHUNK_SIZE];
+	private int count = 0;
+	private boolean finished = false;
+
+	public ChunkedOutputStream(OutputStream out) {
+		super(out);
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		if (count == chunk.length) {
+			writeChunk();
+		}
+		chunk[count++] = (byte) b;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		while (len > 0) {
+			if (count == chunk.length) {
+				writeChunk();
+			}
+			int length = Math.min(len, chunk.length - count);
+			System.arraycopy(b, off, chunk, count, length);
+			count += length;
+			off += length;
+			len -= length;
+		}
+	}
+
+	/**
+	 * Writes the pending content and the last chunk. The underlying stream is
+	 * flushed but stays open.
+	 */
+	public void finish() throws IOException {
+		if (finished) {
+			return;
+		}
+		finished = true;
+		writeChunk();
+		out.write("0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		finish();
+	}
+
+	private void writeChunk() throws IOException {
+		if (count == 0) {
+			return;
+		}
+		out.write((Integer.toHexString(count) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+		out.write(chunk, 0, count);
+		out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+		count = 0;
+	}
+}
@@ -5,6 +5,8 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 
 public class DefaultFileReader implements ThinServerFileReader {
@@ -36,6 +38,11 @@ public class DefaultFileReader implements ThinServerFileReader {
 		return "application/x-unknown";
 	}
 
+	@Override
+	public Path getFilePath(String filename) {
+		return Paths.get("." + filename);
+	}
+
 	
 
 }
@@ -21,6 +21,9 @@ public class Request implements Cloneable{
 	private String path = "";
 	private String[] pathElements = new String[0];
 	private int contentLength = 0;
+	private String httpVersion = "HTTP/1.0";
+	private String connection = "";
+	private long lastEventId = -1;
 	private HashMap<String, String> requestParameter = new HashMap<String, String>();
         private HashMap<String, HttpCookie> cookies = new HashMap<String, HttpCookie>();
         private SessionData sessionData = null;
@@ -28,7 +31,7 @@ public class Request implements Cloneable{
         
         // >> Clone
         public Request clone(){
-            Request request = new Request(null);
+            Request request = new Request((Socket) null);
             request.setRequestType(getRequestType());
             request.setPath(this.getPath());
             request.setPathElements(this.getPathElements());
@@ -51,20 +54,7 @@ public class Request implements Cloneable{
 		try {
 			InputStreamReader isr = new InputStreamReader(
 					socket.getInputStream());
-			BufferedReader brInput = new BufferedReader(isr);
-			String line = brInput.readLine();
-			while (line != null && !line.equals("")) {
-				parseLine(line); 
-				line = brInput.readLine();
-			}
-			// Parse Content
-			StringBuilder requestContent = new StringBuilder();
-			for (int i = 0; i < contentLength; i++) {
-				requestContent.append((char) brInput.read());
-			}
-			parseRequestParameterFromString(requestContent.toString());
-
-			// line=brInput.readLine();
+			read(new BufferedReader(isr));
 		} catch (IOException e) {
 			// TODO Auto-generated catch block
 			e.printStackTrace();
@@ -72,6 +62,32 @@ public class Request implements Cloneable{
 
 	}
 
+	/**
+	 * Reads the next request of a connection. The reader is left at the start
+	 * of the following request, so it can be used for all requests of a
+	 * keep-alive connection.
+	 *
+	 * @throws IOException if reading fails, for example because the
+	 *             connection has been idle for too long
+	 */
+	public Request(BufferedReader brInput) throws IOException {
+		read(brInput);
+	}
+
+	private void read(BufferedReader brInput) throws IOException {
+		String line = brInput.readLine();
+		while (line != null && !line.equals("")) {
+			parseLine(line); 
+			line = brInput.readLine();
+		}
+		// Parse Content
+		StringBuilder requestContent = new StringBuilder();
+		for (int i = 0; i < contentLength; i++) {
+			requestContent.append((char) brInput.read());
+		}
+		parseRequestParameterFromString(requestContent.toString());
+	}
+
 	private void parseLine(String line) {
 		String lineLower = line.toLowerCase();
 		if (lineLower.startsWith("get ")) {
@@ -90,6 +106,14 @@ public class Request implements Cloneable{
 			// DELETE /action/2 HTTP/1.1
 			requestType = REQUEST_TYPE_DELETE;
 			parseURLPath(line);
+		} else if (lineLower.startsWith("last-event-id:")) {
+			try {
+				lastEventId = Long.parseLong(line.substring(("last-event-id:").length()).trim());
+			} catch (NumberFormatException e) {
+				lastEventId = -1;
+			}
+		} else if (lineLower.startsWith("connection:")) {
+			connection = lineLower.substring(("connection:").length()).trim();
 		} else if (lineLower.startsWith("content-length: ")) {
 			contentLength = Integer.parseInt((line
 					.substring(("content-length:").length())).trim());
@@ -112,6 +136,9 @@ public class Request implements Cloneable{
 
 	private void parseURLPath(String line) {
 		String[] lineElements = line.split(" ");
+		if (lineElements.length > 2) {
+			httpVersion = lineElements[2].toUpperCase();
+		}
 		if (lineElements.length < 2) {
 			path = "/";
 		} else {
@@ -212,6 +239,40 @@ public class Request implements Cloneable{
 	public String getPath() {
 		return path;
 	}
+
+	/**
+	 * @return true if a request line has been read, false if the connection
+	 *         was closed before
+	 */
+	public boolean isValid() {
+		return requestType.length() > 0;
+	}
+
+	/**
+	 * @return the id of the last server-sent event the client has received
+	 *         before reconnecting, -1 if there is none
+	 */
+	public long getLastEventId() {
+		return lastEventId;
+	}
+
+	/**
+	 * @return true if the client understands chunked responses
+	 */
+	public boolean isHttp11() {
+		return httpVersion.equals("HTTP/1.1");
+	}
+
+	/**
+	 * @return true if the client wants to send further requests on the same
+	 *         connection, which is the default since HTTP/1.1
+	 */
+	public boolean isKeepAlive() {
+		if (connection.equals("close")) {
+			return false;
+		}
+		return isHttp11() || connection.equals("keep-alive");
+	}
 	public String[] getPathElements() {
 		return pathElements;
 	}
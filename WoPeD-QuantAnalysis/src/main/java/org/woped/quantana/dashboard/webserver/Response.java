@@ -2,8 +2,12 @@ package org.woped.quantana.dashboard.webserver;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.HttpCookie;
 import java.net.Socket;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
@@ -79,7 +83,61 @@ public class Response {
 		return response;
 	}
 	
+	/**
+	 * Writes the response to a connection that stays open after the response,
+	 * so the end of the content is given by its length or, for text content
+	 * sent in chunks, by the last chunk.
+	 *
+	 * @param keepAlive true if the connection stays open for further requests
+	 * @param chunked true to send text content in chunks instead of encoding
+	 *            it at once to get its length
+	 */
+	public void write(OutputStream out, boolean keepAlive, boolean chunked) throws IOException {
+		boolean hasContent = getStatus() == STATUS_OK;
+		if (binContent.length > 0 || !chunked) {
+			byte[] body = new byte[0];
+			if (hasContent) {
+				body = (binContent.length > 0) ? binContent : getContent().getBytes(StandardCharsets.UTF_8);
+			}
+			writeHeader(out, body.length, keepAlive);
+			out.write(body);
+		} else {
+			out.write(getHeader("Transfer-Encoding: chunked\r\n" + getConnectionHeader(keepAlive)).getBytes(StandardCharsets.US_ASCII));
+			ChunkedOutputStream chunks = new ChunkedOutputStream(out);
+			Writer writer = new OutputStreamWriter(chunks, StandardCharsets.UTF_8);
+			if (hasContent) {
+				writer.write(getContent());
+			}
+			writer.flush();
+			chunks.finish();
+		}
+	}
+
+	/**
+	 * Writes the header of a response whose content is written separately.
+	 */
+	public void writeHeader(OutputStream out, long contentLength, boolean keepAlive) throws IOException {
+		out.write(getHeader("Content-Length: " + contentLength + "\r\n" + getConnectionHeader(keepAlive)).getBytes(StandardCharsets.US_ASCII));
+	}
+
+	/**
+	 * Writes the header of a stream of server-sent events, which ends when
+	 * the connection is closed.
+	 */
+	public void writeEventStreamHeader(OutputStream out) throws IOException {
+		setContentType("text/event-stream");
+		out.write(getHeader("Cache-Control: no-cache\r\n" + getConnectionHeader(false)).getBytes(StandardCharsets.US_ASCII));
+	}
+
+	private static String getConnectionHeader(boolean keepAlive) {
+		return "Connection: " + (keepAlive ? "keep-alive" : "close") + "\r\n";
+	}
+
 	private String getHeader(){
+		return getHeader("");
+	}
+
+	private String getHeader(String transferHeaders){
 		SimpleDateFormat sdf = new SimpleDateFormat("EEE, d MMM yyyy HH:mm:ss z");
 		Calendar cal = Calendar.getInstance();
 		
@@ -91,6 +149,7 @@ public class Response {
 		response += "\r\n";
 		response += "Content-Type: "+ contentType +"; charset=utf-8";
 		response += "\r\n";
+		response += transferHeaders;
 		for(String cookieName:getAllCookieNames()){
                     response += createSetCookieString(getCookie(cookieName));
                     response += "\r\n";
@@ -1,16 +1,24 @@
 package org.woped.quantana.dashboard.webserver;
 
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Objects of a browser session. Requests of the same session may be handled
+ * at the same time, so the objects are kept in a concurrent map.
+ */
 public class SessionData {
-    private HashMap<String,Object> content;
+    private ConcurrentHashMap<String,Object> content;
     public SessionData(){
-        content = new HashMap<String,Object>();
+        content = new ConcurrentHashMap<String,Object>();
     }
     public Object getObject(String name){
        return content.get(name);
     }
     public void addObject(String name, Object value){
-        content.put(name, value);
+        if(value == null){
+            content.remove(name);
+        }else{
+            content.put(name, value);
+        }
     }
 }
@@ -0,0 +1,130 @@
+package org.woped.quantana.dashboard.webserver;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the static files of the web server open, so they are sent to the
+ * clients with {@link FileChannel#transferTo} without being copied into the
+ * memory of the server. A file is opened again when its size or modification
+ * time has changed. Every file handed out has to be released after sending
+ * it; the old version of a changed file is closed once the last transfer
+ * still reading it has released it.
+ */
+public class StaticFileCache {
+
+	private final ConcurrentHashMap<String, CachedFile> files = new ConcurrentHashMap<String, CachedFile>();
+
+	/**
+	 * @return the open file, which the caller has to {@link CachedFile#release()},
+	 *         or null if there is no such file
+	 */
+	public CachedFile get(String fileName) throws IOException {
+		Path path = Paths.get(fileName);
+		if (!Files.isRegularFile(path)) {
+			CachedFile removed = files.remove(fileName);
+			if (removed != null) {
+				removed.release();
+			}
+			return null;
+		}
+		long size = Files.size(path);
+		long lastModified = Files.getLastModifiedTime(path).toMillis();
+
+		CachedFile cached = files.get(fileName);
+		if (cached != null && cached.size == size && cached.lastModified == lastModified && cached.acquire()) {
+			return cached;
+		}
+		CachedFile opened = new CachedFile(FileChannel.open(path, StandardOpenOption.READ), size, lastModified);
+		opened.acquire();
+		CachedFile replaced = files.put(fileName, opened);
+		if (replaced != null) {
+			// closed once the transfers still reading the old version have finished
+			replaced.release();
+		}
+		return opened;
+	}
+
+	/**
+	 * Closes all files.
+	 */
+	public void clear() {
+		for (String fileName : files.keySet()) {
+			CachedFile removed = files.remove(fileName);
+			if (removed != null) {
+				removed.release();
+			}
+		}
+	}
+
+	public static class CachedFile {
+		private final FileChannel channel;
+		private final long size;
+		private final long lastModified;
+		// the cache and every transfer reading the file hold a reference
+		private final AtomicInteger references = new AtomicInteger(1);
+
+		CachedFile(FileChannel channel, long size, long lastModified) {
+			this.channel = channel;
+			this.size = size;
+			this.lastModified = lastModified;
+		}
+
+		public long getSize() {
+			return size;
+		}
+
+		/**
+		 * Sends the whole file. Transfers of the same file may run at the same
+		 * time, as they do not change the position of the file channel.
+		 */
+		public void transferTo(WritableByteChannel target) throws IOException {
+			long position = 0;
+			while (position < size) {
+				long sent = channel.transferTo(position, size - position, target);
+				if (sent <= 0) {
+					throw new IOException("File has been shortened while sending it");
+				}
+				position += sent;
+			}
+		}
+
+		/**
+		 * @return false if the file has already been closed
+		 */
+		private boolean acquire() {
+			int count;
+			do {
+				count = references.get();
+				if (count == 0) {
+					return false;
+				}
+			} while (!references.compareAndSet(count, count + 1));
+			return true;
+		}
+
+		/**
+		 * Gives back the file got from {@link StaticFileCache#get}.
+		 */
+		public void release() {
+			if (references.decrementAndGet() == 0) {
+				close();
+			}
+		}
+
+		private void close() {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				// nothing left to release
+			}
+		}
+	}
+}
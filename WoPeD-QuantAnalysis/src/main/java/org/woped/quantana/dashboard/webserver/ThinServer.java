@@ -1,22 +1,39 @@
 package org.woped.quantana.dashboard.webserver;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
 import java.net.HttpCookie;
-import java.net.ServerSocket;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.SecureRandom;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.PropertyResourceBundle;
 import java.util.Random;
-import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 import org.woped.core.utilities.LoggerManager;
+import org.woped.quantana.dashboard.storage.LiveMetricsBuffer;
 import org.woped.quantana.dashboard.storage.StorageEngine;
 
 
@@ -32,13 +49,40 @@ public class ThinServer {
 	StorageEngine storageengine = null;
 	
 	//Thinserver 
+	// number of requests answered at the same time
+	public static final int WORKER_THREADS = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+	// milliseconds an idle keep-alive connection stays open
+	public static final int KEEP_ALIVE_TIMEOUT = 15000;
+	// milliseconds between two looks for idle connections that have timed out
+	private static final int IDLE_CHECK_INTERVAL = 1000;
+	// path of the server-sent events with the live metrics of the simulation
+	public static final String METRICS_PATH = "/events/metrics";
+	// milliseconds a client waits before it reconnects to the metrics
+	public static final int METRICS_RETRY = 1000;
+	// milliseconds between two heartbeats of an idle metrics stream
+	public static final int METRICS_HEARTBEAT = 15000;
+
 	private int port;
-	private boolean shutdown = false;
-	private List<ThinServerAction> actions = new ArrayList<ThinServerAction>();
-	private ServerSocket serverSocket = null;
+	private volatile boolean shutdown = false;
+	private List<ThinServerAction> actions = new CopyOnWriteArrayList<ThinServerAction>();
+	private ServerSocketChannel serverSocket = null;
+	private ExecutorService workers = null;
+	// connections waiting for their next request without holding a worker
+	private volatile Selector idleConnections = null;
+	private final ConcurrentLinkedQueue<Connection> becomingIdle = new ConcurrentLinkedQueue<Connection>();
+	private final StaticFileCache fileCache = new StaticFileCache();
 	//private String publicFolderPath = ".";
 	private ThinServerFileReader fileReader = null;
-	protected static ResourceBundle rb = PropertyResourceBundle.getBundle("org.woped.gui.translations.Messages");
+	private volatile LiveMetricsBuffer liveMetrics = null;
+	// threads of the clients of the metrics, woken whenever a metric is published
+	private final Set<Thread> metricsStreams = ConcurrentHashMap.newKeySet();
+	private final AtomicInteger metricsStreamCount = new AtomicInteger();
+	private final Runnable metricsPublished = new Runnable() {
+		@Override
+		public void run() {
+			wakeMetricsStreams();
+		}
+	};
 	
 	
 	public static ThinServer createServer(){
@@ -54,109 +98,440 @@ public class ThinServer {
 	}
 	
 	/**
-	 * Returns an Image object that can then be painted on the screen. 
-	 *
-	 * @param  url  an absolute URL giving the base location of the image
-	 * @return      the image at the specified URL
-	 * @see         Image
-	 * @exception 	(@throws is a synonym added in Javadoc 1.2)
+	 * Accepts connections on the calling thread until the server is shut
+	 * down. A connection only gets one of the pooled worker threads while a
+	 * request of it is being answered. In between, and until its first
+	 * request arrives, it waits on a selector, so idle keep-alive connections
+	 * neither hold a worker nor keep other clients waiting. Clients of the
+	 * metrics get a thread of their own.
 	 */
 	public void start(){
+		LoggerManager.info(Constants.DASHBOARDWEBSRV_LOGGER, "Webserver is getting started");
+		ServerSocketChannel acceptor = getServerSocketChannel();
+		if(acceptor == null){
+			return;
+		}
 		try {
-			LoggerManager.info(Constants.DASHBOARDWEBSRV_LOGGER, "Webserver is getting started");
-			//ServerSocket serverSocket = new ServerSocket(port);
-			while(true){
-				if(shutdown){
-					LoggerManager.info(Constants.DASHBOARDWEBSRV_LOGGER, "Webserver is shutting down");
-					break;
+			idleConnections = Selector.open();
+		} catch (IOException e) {
+			LoggerManager.error(Constants.DASHBOARDWEBSRV_LOGGER, "Exception in Thinserver.start()" +e.toString());
+			return;
+		}
+		workers = Executors.newFixedThreadPool(WORKER_THREADS, new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "ThinServer-worker-" + count.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		Thread idleWatcher = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				watchIdleConnections();
+			}
+		}, "ThinServer-idle");
+		idleWatcher.setDaemon(true);
+		idleWatcher.start();
+		try {
+			while(!shutdown){
+				SocketChannel channel = acceptor.accept();
+				idle(new Connection(channel));
+			}
+		} catch (IOException e) {
+			if(!shutdown){
+				LoggerManager.error(Constants.DASHBOARDWEBSRV_LOGGER, "Exception in Thinserver.start()" +e.toString());
+				e.printStackTrace();
+				sendShutdownRequest();
+			}
+		} finally {
+			LoggerManager.info(Constants.DASHBOARDWEBSRV_LOGGER, "Webserver is shutting down");
+			// running requests are answered, idle connections are closed by the watcher
+			shutdown = true;
+			idleConnections.wakeup();
+			workers.shutdown();
+			fileCache.clear();
+		}
+	}
+
+	/**
+	 * Lets the connection wait for its next request without a worker.
+	 */
+	private void idle(Connection connection) throws IOException{
+		if(shutdown){
+			close(connection.channel);
+			return;
+		}
+		connection.channel.configureBlocking(false);
+		connection.idleSince = System.currentTimeMillis();
+		becomingIdle.add(connection);
+		// registering blocks while the selector is selecting
+		idleConnections.wakeup();
+	}
+
+	/**
+	 * Hands idle connections to the workers as soon as their next request
+	 * arrives and closes those that stay idle for longer than
+	 * {@link #KEEP_ALIVE_TIMEOUT}. Runs on its own thread until the server is
+	 * shut down.
+	 */
+	private void watchIdleConnections(){
+		List<Connection> ready = new ArrayList<Connection>();
+		try {
+			while(!shutdown){
+				idleConnections.select(IDLE_CHECK_INTERVAL);
+				Connection connection;
+				while((connection = becomingIdle.poll()) != null){
+					connection.channel.register(idleConnections, SelectionKey.OP_READ, connection);
 				}
-				//LoggerManager.info(Constants.DASHBOARDWEBSRV_LOGGER, "bind socket");
-				
-				Socket socket = getServerSocket().accept();
-				Request request = new Request(socket);
-				Response response = new Response(socket);
-                                
-                                // >> SessionCookie
-                                determineSession(request, response);
-                                // << SessionCookie
-                               
-                
-                if(request.getPath().startsWith("/shutdownserver")){
-                	this.shutDown();
-                }
-                                
-				// >> File Handling
-				if(request.getPath().startsWith("/public/")){
-					LoggerManager.debug(Constants.DASHBOARDWEBSRV_LOGGER, "request for a file");
-					
-					request.getPath().replace("../", "");
-					request.getPath().replace("/..", "");
-					
-					byte[] content = getFileReader().getFileContent(request.getPath());
-					if(content.length == 0){
-						LoggerManager.error(Constants.DASHBOARDWEBSRV_LOGGER, "responing STATUS_NOT_FOUND");
-						response.setStatus(Response.STATUS_NOT_FOUND);
-					}else{
-						response.setBinContent(content);
-						response.setContentType(getFileReader().getContentType(request.getPath()));	
+				for(SelectionKey key:idleConnections.selectedKeys()){
+					key.cancel();
+					ready.add((Connection) key.attachment());
+				}
+				idleConnections.selectedKeys().clear();
+				long now = System.currentTimeMillis();
+				for(SelectionKey key:idleConnections.keys()){
+					if(key.isValid() && now - ((Connection) key.attachment()).idleSince >= KEEP_ALIVE_TIMEOUT){
+						key.cancel();
+						close((SocketChannel) key.channel());
+					}
+				}
+				if(ready.isEmpty()){
+					continue;
+				}
+				// deregisters the cancelled keys, as only then the channels may block again
+				idleConnections.selectNow();
+				for(Connection readable:ready){
+					try {
+						readable.channel.configureBlocking(true);
+						workers.execute(readable);
+					} catch (IOException e) {
+						close(readable.channel);
 					}
-				}else{
-				// << File Handling
-					for(ThinServerAction action:actions){
-                                            if(request.getRequestProcessState().stopProcessing()){
-                                                break;
-                                            }
-                                            if(action.mapActionPath(request)){
-                                                action.doAction(request, response);
-                                            }
+				}
+				ready.clear();
+			}
+		} catch (IOException e) {
+			LoggerManager.error(Constants.DASHBOARDWEBSRV_LOGGER, "Exception in Thinserver.watchIdleConnections()" +e.toString());
+		} finally {
+			for(SelectionKey key:idleConnections.keys()){
+				close((SocketChannel) key.channel());
+			}
+			for(Connection connection:ready){
+				close(connection.channel);
+			}
+			Connection connection;
+			while((connection = becomingIdle.poll()) != null){
+				close(connection.channel);
+			}
+			try {
+				idleConnections.close();
+			} catch (IOException e) {
+				LoggerManager.debug(Constants.DASHBOARDWEBSRV_LOGGER, "closing selector failed: " + e.toString());
+			}
+		}
+	}
+
+	/**
+	 * Answers the requests of one connection that have arrived, then lets it
+	 * wait for the next ones without the worker.
+	 */
+	private class Connection implements Runnable {
+		private final SocketChannel channel;
+		private BufferedReader in = null;
+		private OutputStream out = null;
+		// milliseconds since the epoch the connection has been idle
+		private volatile long idleSince;
+
+		Connection(SocketChannel channel){
+			this.channel = channel;
+		}
+
+		@Override
+		public void run() {
+			// true once the connection belongs to a metrics stream or waits for its next request
+			boolean detached = false;
+			try {
+				if(in == null){
+					Socket socket = channel.socket();
+					// bounds the wait for the rest of a request that has started to arrive
+					socket.setSoTimeout(KEEP_ALIVE_TIMEOUT);
+					in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+					out = new BufferedOutputStream(socket.getOutputStream());
+				}
+				while(!shutdown){
+					Request request = new Request(in);
+					if(!request.isValid()){
+						// closed by the client
+						break;
+					}
+					if(request.getPath().startsWith(METRICS_PATH)){
+						detached = openMetricsStream(request, out, channel);
+						break;
+					}
+					boolean keepAlive = handle(request, request.isKeepAlive(), out, channel);
+					out.flush();
+					if(!keepAlive){
+						break;
+					}
+					if(!in.ready()){
+						// nothing pipelined, the selector tells when the next request arrives
+						idle(this);
+						detached = true;
+						break;
 					}
 				}
-				if(response.getBinContent().length > 0){
-					LoggerManager.debug(Constants.DASHBOARDWEBSRV_LOGGER, "request for binary content");
-					
-					OutputStream outputstream = socket.getOutputStream();
-					outputstream.write(response.getBinResponse());
-					outputstream.flush();
-					outputstream.close();
-				}else{
-					//LoggerManager.debug(Constants.DASHBOARDWEBSRV_LOGGER, "any other request");
-					
-					PrintWriter writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream()));
-					writer.println(response.getResponse());
-					writer.println("\r\n");
-					writer.flush();
-					writer.close();
+			} catch (SocketTimeoutException e) {
+				// request not completed in time
+			} catch (IOException e) {
+				LoggerManager.debug(Constants.DASHBOARDWEBSRV_LOGGER, "connection closed: " + e.toString());
+			} finally {
+				if(!detached){
+					close(channel);
 				}
 			}
+		}
+	}
+
+	private static void close(SocketChannel channel){
+		try {
+			channel.close();
 		} catch (IOException e) {
-			// TODO Auto-generated catch block
-			LoggerManager.error(Constants.DASHBOARDWEBSRV_LOGGER, "Exception in Thinserver.start()" +e.toString());
-			e.printStackTrace();
-			sendShutdownRequest();
+			LoggerManager.debug(Constants.DASHBOARDWEBSRV_LOGGER, "closing connection failed: " + e.toString());
 		}
 	}
+
+	/**
+	 * @return true if the connection stays open for further requests
+	 */
+	private boolean handle(Request request, boolean keepAlive, OutputStream out, SocketChannel channel) throws IOException{
+		Response response = new Response(null);
+
+		// >> SessionCookie
+		determineSession(request, response);
+		// << SessionCookie
+
+		if(request.getPath().startsWith("/shutdownserver")){
+			this.shutDown();
+		}
+
+		// >> File Handling
+		if(request.getPath().startsWith("/public/")){
+			LoggerManager.debug(Constants.DASHBOARDWEBSRV_LOGGER, "request for a file");
+			sendFile(request, response, keepAlive, out, channel);
+			return keepAlive;
+		}
+		// << File Handling
+
+		for(ThinServerAction action:actions){
+			if(request.getRequestProcessState().stopProcessing()){
+				break;
+			}
+			if(action.mapActionPath(request)){
+				action.doAction(request, response);
+			}
+		}
+		response.write(out, keepAlive, request.isHttp11());
+		return keepAlive;
+	}
+
+	/**
+	 * Hands the connection over to a thread of its own, which sends the live
+	 * metrics of the simulation, so that the client does not hold a worker
+	 * for as long as it is connected.
+	 *
+	 * @return true if the thread has taken over the connection
+	 */
+	private boolean openMetricsStream(Request request, OutputStream out, SocketChannel channel) throws IOException{
+		Response response = new Response(null);
+		determineSession(request, response);
+		if(getLiveMetrics() == null){
+			notFound(response, false, out);
+			out.flush();
+			return false;
+		}
+		Thread thread = new Thread(new MetricsStream(request.getLastEventId() + 1, response, out, channel),
+				"ThinServer-metrics-" + metricsStreamCount.incrementAndGet());
+		thread.setDaemon(true);
+		thread.start();
+		return true;
+	}
+
+	private void wakeMetricsStreams(){
+		for(Thread stream:metricsStreams){
+			LockSupport.unpark(stream);
+		}
+	}
+
+	/**
+	 * Sends the live metrics of the simulation as server-sent events until
+	 * the client goes away or the server is shut down. A new client first
+	 * gets the metrics still kept in the buffer, a reconnecting client the
+	 * ones after the last event it has received. Between two metrics the
+	 * thread sleeps until the buffer tells it about the next one.
+	 */
+	private class MetricsStream implements Runnable {
+		private final Response response;
+		private final OutputStream out;
+		private final SocketChannel channel;
+		private long cursor;
+
+		MetricsStream(long cursor, Response response, OutputStream out, SocketChannel channel){
+			this.cursor = cursor;
+			this.response = response;
+			this.out = out;
+			this.channel = channel;
+		}
+
+		@Override
+		public void run() {
+			// registered before the first read, so that no metric published in between is missed
+			metricsStreams.add(Thread.currentThread());
+			try {
+				response.writeEventStreamHeader(out);
+				out.write(("retry: " + METRICS_RETRY + "\n\n").getBytes(StandardCharsets.UTF_8));
+				out.flush();
+				stream();
+			} catch (IOException e) {
+				LoggerManager.debug(Constants.DASHBOARDWEBSRV_LOGGER, "metrics stream closed: " + e.toString());
+			} finally {
+				metricsStreams.remove(Thread.currentThread());
+				close(channel);
+			}
+		}
+
+		private void stream() throws IOException{
+			LiveMetricsBuffer buffer = getLiveMetrics();
+			long lastWrite = System.currentTimeMillis();
+			while(!shutdown && !Thread.currentThread().isInterrupted()){
+				LiveMetricsBuffer current = getLiveMetrics();
+				if(current == null){
+					return;
+				}
+				if(current != buffer || cursor > current.getNextSequence()){
+					// the client knows the metrics of an earlier buffer, e.g. of a previous start of WoPeD
+					buffer = current;
+					cursor = 0;
+				}
+				List<LiveMetricsBuffer.Entry> entries = buffer.read(cursor, 64);
+				if(entries.isEmpty()){
+					long idle = System.currentTimeMillis() - lastWrite;
+					if(idle >= METRICS_HEARTBEAT){
+						// detects clients that have gone away
+						out.write(": heartbeat\n\n".getBytes(StandardCharsets.UTF_8));
+						out.flush();
+						lastWrite = System.currentTimeMillis();
+					}else{
+						LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(METRICS_HEARTBEAT - idle));
+					}
+					continue;
+				}
+				StringBuilder events = new StringBuilder();
+				for(LiveMetricsBuffer.Entry entry:entries){
+					events.append("id: ").append(entry.getSequence()).append('\n');
+					events.append("event: ").append(entry.getMetric().getType()).append('\n');
+					events.append("data: ").append(entry.getMetric().toJson()).append("\n\n");
+					cursor = entry.getSequence() + 1;
+				}
+				out.write(events.toString().getBytes(StandardCharsets.UTF_8));
+				out.flush();
+				lastWrite = System.currentTimeMillis();
+			}
+		}
+	}
+
+	private void sendFile(Request request, Response response, boolean keepAlive, OutputStream out, SocketChannel channel) throws IOException{
+		String path = request.getPath();
+		int query = path.indexOf('?');
+		if(query != -1){
+			path = path.substring(0, query);
+		}
+		if(path.contains("..")){
+			notFound(response, keepAlive, out);
+			return;
+		}
+
+		ThinServerFileReader reader = getFileReader();
+		Path filePath = reader.getFilePath(path);
+		if(filePath != null){
+			StaticFileCache.CachedFile file = fileCache.get(filePath.toString());
+			if(file == null){
+				notFound(response, keepAlive, out);
+				return;
+			}
+			try {
+				response.setContentType(reader.getContentType(path));
+				response.writeHeader(out, file.getSize(), keepAlive);
+				out.flush();
+				file.transferTo(channel);
+			} finally {
+				file.release();
+			}
+		}else{
+			byte[] content = reader.getFileContent(path);
+			if(content.length == 0){
+				notFound(response, keepAlive, out);
+				return;
+			}
+			response.setBinContent(content);
+			response.setContentType(reader.getContentType(path));
+			response.write(out, keepAlive, false);
+		}
+	}
+
+	private void notFound(Response response, boolean keepAlive, OutputStream out) throws IOException{
+		LoggerManager.error(Constants.DASHBOARDWEBSRV_LOGGER, "responing STATUS_NOT_FOUND");
+		response.setStatus(Response.STATUS_NOT_FOUND);
+		response.write(out, keepAlive, false);
+	}
+
 	static Boolean bAlreadyRunning = false;
-	private ServerSocket getServerSocket(){
+	private synchronized ServerSocketChannel getServerSocketChannel(){
 		
 		
 		//LoggerManager.debug(Constants.DASHBOARDWEBSRV_LOGGER, "webserver is already running: " + bAlreadyRunning);
 		bAlreadyRunning = true;
 		if(serverSocket == null){
 			try {
-				serverSocket = new ServerSocket(port);
+				serverSocket = ServerSocketChannel.open();
+				serverSocket.bind(new InetSocketAddress(port));
 			} catch (IOException e) {
 				LoggerManager.error(Constants.DASHBOARDWEBSRV_LOGGER, "Exception in Thinserver.getServerSocket()" +e.toString());
+				serverSocket = null;
 			}
 		}
 		return serverSocket;
 	}
+
+	/**
+	 * @return the port the server is listening on, which is chosen by the
+	 *         system if the server was created for port 0
+	 */
+	public int getPort(){
+		ServerSocketChannel acceptor = getServerSocketChannel();
+		if(acceptor != null){
+			return acceptor.socket().getLocalPort();
+		}
+		return port;
+	}
+
 	public void shutDown(){
 		
 		LoggerManager.info(Constants.DASHBOARDWEBSRV_LOGGER, "webserver is shuting down ");
 		
 		shutdown = true;
+		wakeMetricsStreams();
+		Selector selector = idleConnections;
+		if(selector != null){
+			selector.wakeup();
+		}
 		try {
-			getServerSocket().close();
+			ServerSocketChannel acceptor = getServerSocketChannel();
+			if(acceptor != null){
+				acceptor.close();
+			}
 		} catch (IOException e) {
 			// TODO Auto-generated catch block
 			LoggerManager.error(Constants.DASHBOARDWEBSRV_LOGGER, "shut down failed: " +e.toString());
@@ -197,7 +572,7 @@ public class ThinServer {
 		this.publicFolderPath = publicFolderPath;
 	}
 	*/
-	public ThinServerFileReader getFileReader(){
+	public synchronized ThinServerFileReader getFileReader(){
 		LoggerManager.debug(Constants.DASHBOARDWEBSRV_LOGGER, "get file reader");
 		
 		if(fileReader == null){
@@ -206,13 +581,14 @@ public class ThinServer {
 		}
 		return fileReader;
 	}
-	public void setFileReader(ThinServerFileReader fileReader){
+	public synchronized void setFileReader(ThinServerFileReader fileReader){
 		LoggerManager.debug(Constants.DASHBOARDWEBSRV_LOGGER, "set file reader");
 		
 		this.fileReader = fileReader;
 	}
         
-        private HashMap<String,SessionData> sessions = new HashMap<String,SessionData>();
+        private ConcurrentHashMap<String,SessionData> sessions = new ConcurrentHashMap<String,SessionData>();
+        private final Random random = new SecureRandom();
         public void determineSession(Request request, Response response){
             HttpCookie cookie = request.getCookie("pts_sessionid");
             SessionData session = null;
@@ -221,12 +597,11 @@ public class ThinServer {
             }
             if(cookie == null || session == null){
                 // >> Create new Session
+                session = new SessionData();
                 String sessionId = createRandomString();
-                while(sessions.get(sessionId) != null){
+                while(sessions.putIfAbsent(sessionId, session) != null){
                     sessionId = createRandomString();
                 }
-                session = new SessionData();
-                sessions.put(sessionId, session);
                 cookie = new HttpCookie("pts_sessionid",sessionId);
                 response.setCookie(cookie);
             }
@@ -236,7 +611,6 @@ public class ThinServer {
         private String createRandomString(){
             char[] chars = "abcdefghijklmnopqrstuvwxyz".toCharArray();
             StringBuilder sb = new StringBuilder();
-            Random random = new Random();
             for (int i = 0; i < 20; i++) {
                 char c = chars[random.nextInt(chars.length)];
                 sb.append(c);
@@ -247,6 +621,28 @@ public class ThinServer {
         public void setStorageEngine(StorageEngine se){
         	LoggerManager.debug(Constants.DASHBOARDWEBSRV_LOGGER, "Storage Engine will be set");
         	this.storageengine = se;
+        	if(se != null){
+        		setLiveMetrics(se.getLiveMetrics());
+        	}
+        }
+
+        public LiveMetricsBuffer getLiveMetrics(){
+        	return liveMetrics;
+        }
+
+        /**
+         * @param liveMetrics the metrics sent to the clients of {@link #METRICS_PATH}
+         */
+        public void setLiveMetrics(LiveMetricsBuffer liveMetrics){
+        	LiveMetricsBuffer previous = this.liveMetrics;
+        	if(previous != null){
+        		previous.removeListener(metricsPublished);
+        	}
+        	if(liveMetrics != null){
+        		liveMetrics.addListener(metricsPublished);
+        	}
+        	this.liveMetrics = liveMetrics;
+        	wakeMetricsStreams();
         }
         
         private void sendShutdownRequest(){
@@ -1,8 +1,20 @@
 package org.woped.quantana.dashboard.webserver;
 
+import java.nio.file.Path;
 
 
 public interface ThinServerFileReader {
 	public byte[] 	getFileContent(String filename);
 	public String 	getContentType(String filename);
+
+	/**
+	 * Readers whose files lie in the file system return their path, so the
+	 * server sends them straight from the file without copying them into
+	 * memory.
+	 *
+	 * @return the path of the file or null to send {@link #getFileContent}
+	 */
+	public default Path getFilePath(String filename) {
+		return null;
+	}
 }
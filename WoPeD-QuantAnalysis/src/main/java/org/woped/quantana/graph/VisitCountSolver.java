@@ -0,0 +1,283 @@
+package org.woped.quantana.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * Calculates the expected number of visits of every node of a workflow net.
+ * <p>
+ * The net is read as an absorbing Markov chain: a case entering the start
+ * place moves along the arcs with their probabilities until it reaches the
+ * sink place. The expected visits v of the nodes are the solution of
+ * (I - Q) v = lambda e, where Q holds the arc probabilities and e is the
+ * start place. Instead of unfolding the net until the remaining probability
+ * falls below a threshold, the system is solved on the sparse predecessor
+ * lists of the nodes, so loops are counted exactly up to the given tolerance.
+ * <p>
+ * The nodes are split into their strongly connected components, which are
+ * solved in topological order. A node outside of any loop is calculated once
+ * from its predecessors. A loop is solved by Gauss-Seidel iteration of its
+ * own nodes until the estimated error falls below the tolerance. Loops that
+ * cases can not leave are found before, as their visits would not converge.
+ * <p>
+ * Every successor of an AND-split is visited as often as the split. An
+ * AND-join fires once per token on each of its input arcs, so it is visited
+ * as often as the mean of the flows on its input arcs, which are equal in a
+ * sound net.
+ */
+public class VisitCountSolver {
+	public static final double TOLERANCE = 1e-12;
+	public static final int MAX_ITERATIONS = 1000000;
+
+	private final Node[] nodes;
+	// strongly connected components reachable from the start place in
+	// topological order, the nodes of a component in depth first order
+	private final int[][] components;
+	private final int start;
+	// sources and weights of the arcs leading to every node
+	private final int[][] sources;
+	private final double[][] weights;
+	// targets of the arcs with a positive weight leaving every node
+	private final int[][] targets;
+	private int iterations = 0;
+
+	public VisitCountSolver(WorkflowNetGraph graph) {
+		this(graph.getNodeArray(), graph.getStartPlace());
+	}
+
+	/**
+	 * @param nodes the nodes of the net, connected by their successor arcs
+	 * @param startPlace the node all cases start at
+	 */
+	public VisitCountSolver(Node[] nodes, Node startPlace) {
+		this.nodes = nodes;
+		HashMap<String, Integer> indices = new HashMap<String, Integer>();
+		for (int i = 0; i < nodes.length; i++)
+			indices.put(nodes[i].getId(), i);
+
+		Integer s = indices.get(startPlace.getId());
+		if (s == null)
+			throw new IllegalArgumentException("Start place " + startPlace.getId() + " is not a node of the net");
+		start = s;
+
+		ArrayList<ArrayList<Integer>> in = new ArrayList<ArrayList<Integer>>();
+		ArrayList<ArrayList<Double>> inWeights = new ArrayList<ArrayList<Double>>();
+		for (int i = 0; i < nodes.length; i++) {
+			in.add(new ArrayList<Integer>());
+			inWeights.add(new ArrayList<Double>());
+		}
+		for (int i = 0; i < nodes.length; i++) {
+			for (Arc a : nodes[i].getSuccessor()) {
+				Integer t = indices.get(a.getTarget().getId());
+				if (t == null)
+					continue;
+				in.get(t).add(i);
+				inWeights.get(t).add(nodes[i].isAndSplit() ? 1.0 : a.getProbability());
+			}
+		}
+
+		sources = new int[nodes.length][];
+		weights = new double[nodes.length][];
+		ArrayList<ArrayList<Integer>> out = new ArrayList<ArrayList<Integer>>();
+		for (int i = 0; i < nodes.length; i++)
+			out.add(new ArrayList<Integer>());
+		for (int i = 0; i < nodes.length; i++) {
+			int k = in.get(i).size();
+			double factor = (nodes[i].isAndJoin() && k > 0) ? 1.0 / k : 1.0;
+			sources[i] = new int[k];
+			weights[i] = new double[k];
+			for (int j = 0; j < k; j++) {
+				sources[i][j] = in.get(i).get(j);
+				weights[i][j] = inWeights.get(i).get(j) * factor;
+				if (weights[i][j] > 0)
+					out.get(sources[i][j]).add(i);
+			}
+		}
+		targets = new int[nodes.length][];
+		for (int i = 0; i < nodes.length; i++) {
+			targets[i] = new int[out.get(i).size()];
+			for (int j = 0; j < targets[i].length; j++)
+				targets[i][j] = out.get(i).get(j);
+		}
+
+		components = stronglyConnectedComponents();
+	}
+
+	/**
+	 * @param lambda the number of cases entering the start place
+	 * @return the expected number of visits of every node, in the order of
+	 *         the nodes passed to the solver
+	 * @throws IllegalStateException if cases can not leave a loop of the net
+	 */
+	public double[] solve(double lambda) {
+		return solve(lambda, TOLERANCE);
+	}
+
+	/**
+	 * @param lambda the number of cases entering the start place
+	 * @param tolerance the largest error of the visits of a loop relative to
+	 *            the visits of the loop
+	 * @return the expected number of visits of every node, in the order of
+	 *         the nodes passed to the solver
+	 * @throws IllegalStateException if cases can not leave a loop of the net
+	 */
+	public double[] solve(double lambda, double tolerance) {
+		if (!(tolerance > 0))
+			throw new IllegalArgumentException("Tolerance has to be greater than zero");
+		double[] v = new double[nodes.length];
+		iterations = 1;
+		for (int[] component : components) {
+			if (component.length == 1 && !isLoop(component[0])) {
+				v[component[0]] = inflow(component[0], v, lambda);
+			} else {
+				checkExit(component);
+				iterations = Math.max(iterations, solveLoop(component, v, lambda, tolerance));
+			}
+		}
+		return v;
+	}
+
+	/*
+	 * Gauss-Seidel iteration of the nodes of a loop, whose predecessors
+	 * outside of the loop are solved. The error is estimated from the rate at
+	 * which the changes of successive sweeps decrease.
+	 */
+	private int solveLoop(int[] component, double[] v, double lambda, double tolerance) {
+		double lastChange = Double.POSITIVE_INFINITY;
+		for (int sweep = 1; sweep <= MAX_ITERATIONS; sweep++) {
+			double change = 0.0;
+			double max = 0.0;
+			for (int i : component) {
+				double sum = inflow(i, v, lambda);
+				change = Math.max(change, Math.abs(sum - v[i]));
+				max = Math.max(max, Math.abs(sum));
+				v[i] = sum;
+			}
+			if (Double.isNaN(change) || Double.isInfinite(max))
+				break;
+			// the first sweeps only fill the loop, so they tell nothing about the rate
+			double rate = change / lastChange;
+			if (change == 0.0 || (sweep > 2 && rate < 1.0 && change * rate / (1.0 - rate) <= tolerance * Math.max(1.0, max)))
+				return sweep;
+			lastChange = change;
+		}
+		throw new IllegalStateException("Visit counts do not converge in the loop of node " + nodes[component[0]].getId());
+	}
+
+	private double inflow(int i, double[] v, double lambda) {
+		double sum = (i == start) ? lambda : 0.0;
+		for (int j = 0; j < sources[i].length; j++)
+			sum += weights[i][j] * v[sources[i][j]];
+		return sum;
+	}
+
+	private boolean isLoop(int i) {
+		for (int t : targets[i]) {
+			if (t == i)
+				return true;
+		}
+		return false;
+	}
+
+	/*
+	 * Without an arc leaving the loop every case entering it stays forever
+	 */
+	private void checkExit(int[] component) {
+		HashSet<Integer> members = new HashSet<Integer>();
+		for (int i : component)
+			members.add(i);
+		for (int i : component) {
+			for (int t : targets[i]) {
+				if (!members.contains(t))
+					return;
+			}
+		}
+		throw new IllegalStateException("Cases can not leave the loop of node " + nodes[component[0]].getId());
+	}
+
+	/**
+	 * Solves the visits and stores them as the number of runs of the nodes.
+	 */
+	public void setNumOfRuns(double lambda) {
+		setNumOfRuns(lambda, TOLERANCE);
+	}
+
+	/**
+	 * Solves the visits up to the given tolerance and stores them as the
+	 * number of runs of the nodes.
+	 */
+	public void setNumOfRuns(double lambda, double tolerance) {
+		double[] v = solve(lambda, tolerance);
+		for (int i = 0; i < nodes.length; i++)
+			nodes[i].setNumOfRuns(v[i]);
+	}
+
+	/**
+	 * @return the largest number of sweeps over the nodes of a loop needed
+	 *         by the last solution, 1 for a net without loops
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	/*
+	 * Tarjan's algorithm without recursion, as nets may be larger than the
+	 * stack. Components are found in reverse topological order.
+	 */
+	private int[][] stronglyConnectedComponents() {
+		int n = nodes.length;
+		int[] index = new int[n];
+		int[] low = new int[n];
+		boolean[] onStack = new boolean[n];
+		int[] stack = new int[n];
+		int[] callNode = new int[n];
+		int[] callEdge = new int[n];
+		Arrays.fill(index, -1);
+		ArrayList<int[]> result = new ArrayList<int[]>();
+		int counter = 0;
+		int top = 0;
+		int depth = 0;
+
+		index[start] = low[start] = counter++;
+		stack[top++] = start;
+		onStack[start] = true;
+		callNode[depth++] = start;
+		while (depth > 0) {
+			int v = callNode[depth - 1];
+			if (callEdge[depth - 1] < targets[v].length) {
+				int w = targets[v][callEdge[depth - 1]++];
+				if (index[w] < 0) {
+					index[w] = low[w] = counter++;
+					stack[top++] = w;
+					onStack[w] = true;
+					callNode[depth] = w;
+					callEdge[depth] = 0;
+					depth++;
+				} else if (onStack[w]) {
+					low[v] = Math.min(low[v], index[w]);
+				}
+			} else {
+				depth--;
+				if (depth > 0)
+					low[callNode[depth - 1]] = Math.min(low[callNode[depth - 1]], low[v]);
+				if (low[v] == index[v]) {
+					int size = 0;
+					while (stack[top - 1 - size] != v)
+						size++;
+					size++;
+					int[] component = Arrays.copyOfRange(stack, top - size, top);
+					top -= size;
+					for (int i : component)
+						onStack[i] = false;
+					result.add(component);
+				}
+			}
+		}
+		// nodes not reachable from the start place are never visited
+		Collections.reverse(result);
+		return result.toArray(new int[result.size()][]);
+	}
+}
@@ -11,7 +11,6 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Vector;
@@ -31,10 +30,8 @@ import org.woped.core.model.petrinet.TransitionModel;
 import org.woped.core.utilities.LoggerManager;
 import org.woped.gui.translations.Messages;
 import org.woped.quantana.Constants;
-import org.woped.quantana.graph.Arc;
-import org.woped.quantana.graph.Key;
 import org.woped.quantana.graph.Node;
-import org.woped.quantana.graph.NodePair;
+import org.woped.quantana.graph.VisitCountSolver;
 import org.woped.quantana.graph.WorkflowNetGraph;
 import org.woped.quantana.model.ResTableModel;
 import org.woped.quantana.model.TasksTableModel;
@@ -88,7 +85,7 @@ public class CapacityAnalysisDialog extends JDialog {
 
 	private int currUtil = 80;
 	
-	private HashMap<Key, Node> unfoldedNet = new HashMap<Key, Node>();
+	private VisitCountSolver solver = null;
 
 	private String[] colTasks = {
 			Messages.getString("QuantAna.CapacityPlanning.Column.Taskname"),
@@ -761,82 +758,23 @@ public class CapacityAnalysisDialog extends JDialog {
 		return statisticPanel;
 	}
 
-	private void calculateNumOfRuns() {
-
-		LoggerManager.info(Constants.QUANTANA_LOGGER, "Epsilon: " + epsilon);
-		unfoldNet(graph, lambda, epsilon);
-
-		Node[] origNet = graph.getNodeArray();
-		for (Key k : unfoldedNet.keySet()) {
-			String id = k.getId();
-			Node n = origNet[graph.getNodeIdx(id)];
-			n.setNumOfRuns(n.getNumOfRuns() + k.getRuns());
-		}
-	}
-
-	private void unfoldNet(WorkflowNetGraph g, double l, double e) {
-		unfoldedNet.clear();
-		for (Node n : g.getNodeArray()) {
-			if (n.isJoinReached())
-				n.setJoinReached(false);
-
-			n.setNumOfRuns(0);
-		}
-
-		Node s = g.getStartPlace();
-		Node n = new Node(s.getId(), s.getName());
-		n.setTempRuns(lambda);
-		s.incIteration();
-		n.setIteration(s.getIteration());
-		Key start = new Key(n.getId(), lambda);
-		unfoldedNet.put(start, n);
-
-		LinkedList<NodePair> queue = new LinkedList<NodePair>();
-		queue.addLast(new NodePair(s, n));
-		runThroughNet(queue);
-	}
-
-	// rekursive Funktion mit Breitensuche
-	private void runThroughNet(LinkedList<NodePair> q) {
-		if (!(q.isEmpty())) {
-			NodePair np = q.removeFirst();
-			
-			for (Arc a : np.getFirst().getSuccessor()) {
-				Node m = a.getTarget();
-				if (!m.isJoinReached()) {
-					double val = a.getProbability() * np.getSecond().getTempRuns();
-					if (val >= epsilon) {
-						Node y = new Node(m.getId(), m.getName());
-						y.setTempRuns(val);
-						m.incIteration();
-						y.setIteration(m.getIteration());
-						if (m.isAndJoin())
-							m.setJoinReached(true);
-						np.getSecond().getSuccessor().add(new Arc(y, a.getProbability()));
-						Key k = new Key(m.getId(), val);
-						unfoldedNet.put(k, y);
-						
-						if (!(containsElement(q, m)))
-							q.addLast(new NodePair(m, y));
-					}
-				}
-			}
-			
-			runThroughNet(q);
-		}
-	}
-
-	private boolean containsElement(LinkedList<NodePair> q, Node n) {
-		boolean contains = false;
-		Iterator<NodePair> i = q.iterator();
-		while (i.hasNext()) {
-			NodePair p = i.next();
-			if (n.equals(p.getSecond())) {
-				contains = true;
-				break;
-			}
+	/**
+	 * Solves the number of runs of the nodes up to the threshold.
+	 * 
+	 * @return false if the number of runs could not be calculated
+	 */
+	private boolean calculateNumOfRuns() {
+		solver = new VisitCountSolver(graph);
+		try {
+			solver.setNumOfRuns(lambda, epsilon);
+		} catch (IllegalStateException e) {
+			LoggerManager.warn(Constants.QUANTANA_LOGGER, e.getMessage());
+			JOptionPane.showMessageDialog(null, Messages.getString("QuantAna.Message.LoopWithoutExit"));
+			return false;
 		}
-		return contains;
+		LoggerManager.info(Constants.QUANTANA_LOGGER, "Visit counts solved in "
+				+ solver.getIterations() + " iterations");
+		return true;
 	}
 
 	private void initResourceAlloc() {
@@ -995,7 +933,8 @@ public class CapacityAnalysisDialog extends JDialog {
 		double sumPeriod = 0.0;
 
 		updParameters();
-		calculateNumOfRuns();
+		if (!calculateNumOfRuns())
+			return;
 		double[] runs = graph.getRunsGT0();
 		double[] times = graph.getTimesGT0(tm);
 		double val;
@@ -1063,8 +1002,8 @@ public class CapacityAnalysisDialog extends JDialog {
 			tmRes.fireTableCellUpdated(i, 2);
 		}
 
-		lblUnfolding.setText("The unfolded net has " + unfoldedNet.size()
-				+ " nodes.");
+		lblUnfolding.setText("The visit counts of " + graph.getNodeArray().length
+				+ " nodes were solved in " + solver.getIterations() + " iterations.");
 		String dev = String.format("%+6.1f", (1 - graph.getSinkPlace()
 				.getNumOfRuns()
 				/ lambda) * 100);
@@ -1166,7 +1105,7 @@ public class CapacityAnalysisDialog extends JDialog {
 			tf = txtThreshold;
 			tmp = Double.parseDouble(txtThreshold.getText());
 			
-			if (!(tmp < 1)) throw new InvalidThresholdException();
+			if (!(tmp < 1 && tmp > 0)) throw new InvalidThresholdException();
 			
 			errorDetected = false;
 		} catch(InvalidThresholdException ite){
@@ -24,6 +24,8 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.EventObject;
 import java.util.HashMap;
@@ -84,11 +86,13 @@ import org.woped.quantana.model.TimeModel;
 import org.woped.quantana.resourcealloc.Resource;
 import org.woped.quantana.resourcealloc.ResourceAllocation;
 import org.woped.quantana.resourcealloc.ResourceUtilization;
+import org.woped.quantana.sim.BinaryLogSink;
 import org.woped.quantana.sim.SimArc;
 import org.woped.quantana.sim.SimDistribution;
 import org.woped.quantana.sim.SimGraph;
 import org.woped.quantana.sim.SimNode;
 import org.woped.quantana.sim.SimParameters;
+import org.woped.quantana.sim.SimReplicationRunner;
 import org.woped.quantana.sim.SimReportServerStats;
 import org.woped.quantana.sim.SimRunStats;
 import org.woped.quantana.sim.SimRunner;
@@ -131,6 +135,8 @@ public class QuantitativeSimulationDialog extends JDialog implements
 
 	private JTextField txtRuns;
 
+	private JTextField txtSeed;
+
 	private JTextField txtLambda;
 
 	private JTextField txtPeriod;
@@ -259,6 +265,12 @@ public class QuantitativeSimulationDialog extends JDialog implements
 
 	private TmpProtocolDialog logDlg;
 
+	// ! Records the traces of all runs while the simulation is running, null
+	// ! if no log is written
+	private BinaryLogSink logSink = null;
+	// ! The temporary file of the log sink
+	private Path logFile = null;
+
 	JFrame owner;
 
 	/**
@@ -1180,6 +1192,31 @@ public class QuantitativeSimulationDialog extends JDialog implements
 			constraints.gridx = 0;
 			constraints.gridy = 2;
 			termPanel.add(stop2, constraints);
+
+			// the same seed repeats a simulation exactly
+			JLabel lblSeed = new JLabel(
+					Messages.getString("QuantAna.Simulation.Seed"));
+			lblSeed.setPreferredSize(new Dimension(80, 20));
+			lblSeed.setMinimumSize(new Dimension(80, 20));
+			lblSeed.setMaximumSize(new Dimension(80, 20));
+			constraints.gridx = 0;
+			constraints.gridy = 3;
+			constraints.insets = new Insets(5, 15, 5, 5);
+			termPanel.add(lblSeed, constraints);
+
+			txtSeed = new JTextField(String.valueOf(System.nanoTime()));
+			txtSeed.setPreferredSize(new Dimension(160, 20));
+			txtSeed.setMinimumSize(new Dimension(160, 20));
+			txtSeed.setMaximumSize(new Dimension(160, 20));
+			txtSeed.setHorizontalAlignment(SwingConstants.RIGHT);
+			txtSeed.addKeyListener(this);
+			txtSeed.addFocusListener(fa);
+			txtSeed.addMouseListener(ma);
+
+			constraints.gridx = 1;
+			constraints.gridy = 3;
+			constraints.insets = new Insets(5, 10, 5, 20);
+			termPanel.add(txtSeed, constraints);
 		}
 		return termPanel;
 	}
@@ -1460,7 +1497,13 @@ public class QuantitativeSimulationDialog extends JDialog implements
 			rtm.setValueAt(util, i, 1);
 		}
 
-		if (ptk.isSelected()) {
+		if (ptk.isSelected() && logSink != null) {
+			int cases = closeLogSink();
+			logDlg.addLine(Messages.getString("QuantAna.Simulation.Log.Recorded", new Object[] { cases }));
+			logDlg.setLogFile(logFile);
+			logDlg.configTxt();
+			logDlg.setVisible(true);
+		} else if (ptk.isSelected()) {
 			// write the log into the text editor
 			for (int i = 0; i < getSimulator().getLog().size(); i++) {
 				logDlg.addLine(getSimulator().getLog().get(i));
@@ -1474,6 +1517,38 @@ public class QuantitativeSimulationDialog extends JDialog implements
 		}
 	}
 
+	/**
+	 * Records the traces of all runs in a temporary file, from which the log
+	 * dialog exports them, so the log does not have to be kept in memory.
+	 */
+	private void openLogSink() {
+		try {
+			if (logFile == null) {
+				logFile = Files.createTempFile("simulation", ".log");
+				logFile.toFile().deleteOnExit();
+			}
+			logSink = new BinaryLogSink(logFile, true);
+			sim.setLogSink(logSink);
+		} catch (IOException e) {
+			LoggerManager.warn(Constants.QUANTANA_LOGGER, "Simulation log could not be recorded: " + e.getMessage());
+			logSink = null;
+		}
+	}
+
+	/**
+	 * @return the number of recorded traces
+	 */
+	private int closeLogSink() {
+		int cases = logSink.getTraceCount();
+		try {
+			logSink.close();
+		} catch (IOException e) {
+			LoggerManager.warn(Constants.QUANTANA_LOGGER, "Simulation log could not be completed: " + e.getMessage());
+		}
+		logSink = null;
+		return cases;
+	}
+
 	private double getUnfoldedSum(String id) {
 		double res = 0.0;
 		for (SimNode n : unfoldedNet.values()) {
@@ -1598,9 +1673,12 @@ public class QuantitativeSimulationDialog extends JDialog implements
 			sim = new SimRunnerDB(simgraph, new ResourceUtilization(resAlloc),
 					sp, storageengine);
 		} else {
-			sim = new SimRunner(simgraph, new ResourceUtilization(resAlloc), sp);
+			sim = new SimReplicationRunner(simgraph, new ResourceUtilization(resAlloc), sp,
+					Long.parseLong(txtSeed.getText().trim()), Runtime.getRuntime().availableProcessors());
 		}
 		// <--CN
+		if (ptk.isSelected())
+			openLogSink();
 		// the waitdialog starts and observs the simulation
 		new WaitDialog(this, Messages.getString("QuantAna.Simulation.Wait"),
 				sp.getPeriod() / sp.getLambda(), sim);
@@ -1858,6 +1936,10 @@ public class QuantitativeSimulationDialog extends JDialog implements
 			if (i < 1)
 				throw new InvalidRunsException();
 
+			tf = txtSeed;
+			isInteger = true;
+			Long.parseLong(txtSeed.getText().trim());
+
 			tf = txtIATInterval;
 			if (tf.isEnabled()) {
 				isInteger = true;
@@ -2101,6 +2183,7 @@ public class QuantitativeSimulationDialog extends JDialog implements
 
 				p.println("<h2>" + Messages.getString("QuantAna.Simulation.TerminationRule") + "</h2>");
 				p.println("<p>" + Messages.getString("QuantAna.Simulation.NumRuns") + " " + txtRuns.getText() + "</p>");
+				p.println("<p>" + Messages.getString("QuantAna.Simulation.Seed") + " " + txtSeed.getText() + "</p>");
 
 				if (stop1.isSelected()) {
 					p.println("<p>" + Messages.getString("QuantAna.Simulation.CasesCompleted") + "</p>");
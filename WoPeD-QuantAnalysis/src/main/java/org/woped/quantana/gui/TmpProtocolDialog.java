@@ -11,8 +11,9 @@ import java.awt.Toolkit;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.file.Path;
 
 import javax.swing.JButton;
 import javax.swing.JDialog;
@@ -23,7 +24,11 @@ import javax.swing.JTextArea;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
 import org.woped.gui.translations.Messages;
+import org.woped.quantana.sim.BinaryLogSink;
+import org.woped.quantana.sim.CSVLogSink;
 import org.woped.quantana.sim.SimLog;
+import org.woped.quantana.sim.SimLogSink;
+import org.woped.quantana.sim.XESLogSink;
 
 public class TmpProtocolDialog extends JDialog {
 	private static final long serialVersionUID = 1L;
@@ -32,6 +37,8 @@ public class TmpProtocolDialog extends JDialog {
 	private Container contentPane;
 	
 	private SimLog xesLog;
+	// the binary log of all runs, exported instead of the log if set
+	private Path logFile = null;
 	
 	public TmpProtocolDialog(Dialog owner){
 		super(owner, "", true);
@@ -112,6 +119,7 @@ public class TmpProtocolDialog extends JDialog {
 
 	public void clear() {
 		txtArea.setText("");		
+		logFile = null;
 	}
 
 	public void addLine(String line) {
@@ -126,6 +134,22 @@ public class TmpProtocolDialog extends JDialog {
 	public void setXESLog(SimLog xesLog) {
 		this.xesLog = xesLog;
 	}
+
+	/**
+	 * @param logFile a log written by a {@link BinaryLogSink}, which is
+	 *            exported instead of the log of the last run
+	 */
+	public void setLogFile(Path logFile) {
+		this.logFile = logFile;
+	}
+
+	private void copyLog(SimLogSink sink) throws IOException {
+		try {
+			BinaryLogSink.copy(logFile, sink);
+		} finally {
+			sink.close();
+		}
+	}
 	
 	public void writeXES() {
 		JFileChooser chooser = new JFileChooser();
@@ -144,10 +168,14 @@ public class TmpProtocolDialog extends JDialog {
 				}
 			}
 			try {
-				PrintWriter p = new PrintWriter(f);
-				this.xesLog.writeXES(p);
-				p.close();
-			} catch (FileNotFoundException e) {
+				if (logFile != null) {
+					copyLog(new XESLogSink(f.toPath(), false));
+				} else {
+					PrintWriter p = new PrintWriter(f);
+					this.xesLog.writeXES(p);
+					p.close();
+				}
+			} catch (IOException e) {
 				JOptionPane.showMessageDialog(this, Messages.getString("QuantAna.Simulation.Log.xesError"), "", JOptionPane.ERROR_MESSAGE);
 			}					
 		}		
@@ -170,10 +198,14 @@ public class TmpProtocolDialog extends JDialog {
 				}
 			}
 			try {
-				PrintWriter p = new PrintWriter(f);
-				this.xesLog.writeCSV(p);
-				p.close();
-			} catch (FileNotFoundException e) {
+				if (logFile != null) {
+					copyLog(new CSVLogSink(f.toPath(), false));
+				} else {
+					PrintWriter p = new PrintWriter(f);
+					this.xesLog.writeCSV(p);
+					p.close();
+				}
+			} catch (IOException e) {
 				JOptionPane.showMessageDialog(this, Messages.getString("QuantAna.Simulation.Log.csvError"), "", JOptionPane.ERROR_MESSAGE);
 			}
 		}		
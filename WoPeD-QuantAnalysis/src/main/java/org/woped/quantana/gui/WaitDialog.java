@@ -139,6 +139,7 @@ public class WaitDialog extends JDialog{
             			Thread.sleep(500);
             		}catch (InterruptedException e) {}
             	}
+            	sim.join();
             	return 0;
             }
             
@@ -84,6 +84,25 @@ public class ResourceAllocation {
 		}
 	}
 	
+	/**
+	 * Creates a copy with its own resources, so a simulation using the copy
+	 * does not change the resources of the original.
+	 */
+	public ResourceAllocation(ResourceAllocation original){
+		roles = original.roles;
+		groups = original.groups;
+		proc = original.proc;
+		taskAlloc2 = original.taskAlloc2;
+		resClsTskAlloc = original.resClsTskAlloc;
+		for (Resource r : original.resources.values()){
+			Resource copy = new Resource(r.getName());
+			copy.setRoles(new ArrayList<String>(r.getRoles()));
+			copy.setGroups(new ArrayList<String>(r.getGroups()));
+			copy.setColor(r.getColor());
+			resources.put(copy.getName(), copy);
+		}
+	}
+	
 	public ArrayList<String> getGroups() {
 		return groups;
 	}
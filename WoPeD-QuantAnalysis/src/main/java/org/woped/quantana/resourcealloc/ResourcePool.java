@@ -0,0 +1,116 @@
+package org.woped.quantana.resourcealloc;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Free resources indexed by group and role.
+ * <p>
+ * Every combination of a group and a role of a resource has its own bucket,
+ * so the free resources of a group and role are counted and chosen without
+ * looking at other resources. A bucket keeps its resources in an array list
+ * and knows the position of each of them, so resources are added, removed
+ * (by moving the last one into the gap) and chosen at random in constant
+ * time.
+ */
+public class ResourcePool {
+	private final Map<String, Map<String, Bucket>> buckets = new HashMap<String, Map<String, Bucket>>();
+
+	/**
+	 * Marks the resource as free. Adding a free resource again has no effect.
+	 */
+	public void addFree(Resource r) {
+		for (String group : r.getGroups()) {
+			for (String role : r.getRoles()) {
+				getBucket(group, role, true).add(r);
+			}
+		}
+	}
+
+	/**
+	 * Marks the resource as not free. Removing a resource that is not free
+	 * has no effect.
+	 */
+	public void removeFree(Resource r) {
+		for (String group : r.getGroups()) {
+			for (String role : r.getRoles()) {
+				Bucket bucket = getBucket(group, role, false);
+				if (bucket != null)
+					bucket.remove(r);
+			}
+		}
+	}
+
+	public void clear() {
+		buckets.clear();
+	}
+
+	/**
+	 * @return the number of free resources belonging to the group and role
+	 */
+	public int getFreeCount(String group, String role) {
+		Bucket bucket = getBucket(group, role, false);
+		return (bucket == null) ? 0 : bucket.resources.size();
+	}
+
+	/**
+	 * @return a new list of the free resources belonging to the group and role
+	 */
+	public ArrayList<Resource> getFree(String group, String role) {
+		Bucket bucket = getBucket(group, role, false);
+		return (bucket == null) ? new ArrayList<Resource>() : new ArrayList<Resource>(bucket.resources);
+	}
+
+	/**
+	 * @return a free resource belonging to the group and role chosen at
+	 *         random or null if there is none
+	 */
+	public Resource chooseFree(String group, String role, Random choice) {
+		Bucket bucket = getBucket(group, role, false);
+		if (bucket == null || bucket.resources.isEmpty())
+			return null;
+		return bucket.resources.get(choice.nextInt(bucket.resources.size()));
+	}
+
+	private Bucket getBucket(String group, String role, boolean create) {
+		Map<String, Bucket> roles = buckets.get(group);
+		if (roles == null) {
+			if (!create)
+				return null;
+			roles = new HashMap<String, Bucket>();
+			buckets.put(group, roles);
+		}
+		Bucket bucket = roles.get(role);
+		if (bucket == null && create) {
+			bucket = new Bucket();
+			roles.put(role, bucket);
+		}
+		return bucket;
+	}
+
+	private static final class Bucket {
+		private final ArrayList<Resource> resources = new ArrayList<Resource>();
+		private final Map<Resource, Integer> positions = new IdentityHashMap<Resource, Integer>();
+
+		void add(Resource r) {
+			if (positions.containsKey(r))
+				return;
+			positions.put(r, resources.size());
+			resources.add(r);
+		}
+
+		void remove(Resource r) {
+			Integer position = positions.remove(r);
+			if (position == null)
+				return;
+			Resource last = resources.remove(resources.size() - 1);
+			if (last != r) {
+				resources.set(position, last);
+				positions.put(last, position);
+			}
+		}
+	}
+}
@@ -10,20 +10,31 @@ public class ResourceUtilization {
 	private HashMap<String, Resource> freeResources = new HashMap<String, Resource>();
 	private HashMap<String, Resource> usedResources = new HashMap<String, Resource>();
 	private HashMap<String, Resource> reservedResources = new HashMap<String, Resource>();
+	// the free resources indexed by group and role
+	private ResourcePool freePool = new ResourcePool();
 	
 	private ResourceAllocation resAlloc;
 	private Random choice;
 	
 	public ResourceUtilization(ResourceAllocation resAlloc){
+		this(resAlloc, new Random(new Date().getTime()));
+	}
+	
+	/**
+	 * @param choice chooses between free resources, pass a seeded generator
+	 *            for reproducible simulations
+	 */
+	public ResourceUtilization(ResourceAllocation resAlloc, Random choice){
 		this.resAlloc = resAlloc;
 		HashMap<String, Resource> resources = this.resAlloc.getResources();
 		
 		for (Resource r : resources.values()) freeResources.put(r.getName(), r);
+		for (Resource r : freeResources.values()) freePool.addFree(r);
 		
 		for (Resource r: freeResources.values())
 			r.setBusyTime(0.0);
 		
-		choice = new Random(new Date().getTime());
+		this.choice = choice;
 	}
 	
 	public HashMap<String, Resource> getFreeResources() {
@@ -32,6 +43,8 @@ public class ResourceUtilization {
 	
 	public void setFreeResources(HashMap<String, Resource> freeResources) {
 		this.freeResources = freeResources;
+		freePool.clear();
+		for (Resource r : freeResources.values()) freePool.addFree(r);
 	}
 	
 	public HashMap<String, Resource> getUsedResources() {
@@ -63,13 +76,11 @@ public class ResourceUtilization {
 	}
 	
 	public ArrayList<Resource> getFreeResPerGroupRole(String group, String role){
-		ArrayList<Resource> list = new ArrayList<Resource>();
-		
-		for (Resource r : freeResources.values())
-			if (r.getGroups().contains(group) && r.getRoles().contains(role))
-				list.add(r);
-		
-		return list;
+		return freePool.getFree(group, role);
+	}
+	
+	public int getNumFreeResPerGroupRole(String group, String role){
+		return freePool.getFreeCount(group, role);
 	}
 	
 	public Resource chooseResourceFromFreeRoles(String role){
@@ -99,21 +110,13 @@ public class ResourceUtilization {
 	}
 	
 	public Resource chooseResourceFromFreeResources(String group, String role){
-		Resource r = null;
-		ArrayList<Resource> list = getFreeResPerGroupRole(group, role);
-		int resNum = list.size();
-		
-		if (resNum > 0){
-			int rnd = choice.nextInt(resNum);
-			r = list.get(rnd);
-		}
-
-		return r;
+		return freePool.chooseFree(group, role, choice);
 	}
 	
 	public void freeResource(Resource r){
 		if (r != null){
 			freeResources.put(r.getName(), r);
+			freePool.addFree(r);
 			usedResources.remove(r.getName());
 		}
 	}
@@ -128,6 +131,7 @@ public class ResourceUtilization {
 	public void reserveResource(Resource r){
 		if (r != null){
 			freeResources.remove(r.getName());
+			freePool.removeFree(r);
 			reservedResources.put(r.getName(), r);
 		}
 	}
@@ -0,0 +1,262 @@
+package org.woped.quantana.sim;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Writes the traces of finished cases in a compact binary format that can be
+ * read back with {@link #read(Path)} or copied into another sink with
+ * {@link #copy(Path, SimLogSink)}.
+ * <p>
+ * The traces are stored in blocks of up to {@value #BLOCK_SIZE} traces. A
+ * block stores each attribute of its traces and events as one column, and
+ * activities and resources as numbers into a string table that is extended
+ * by every block:
+ *
+ * <pre>
+ * file:  MAGIC VERSION block* 0
+ * block: traceCount newStringCount (length utf8)* replication[traceCount]
+ *        caseID[traceCount] baseDate[traceCount] eventCount[traceCount]
+ *        activity[events] resource[events] startTime[events] duration[events]
+ * </pre>
+ *
+ * All numbers are big endian, strings are numbered in order of their first
+ * appearance and the null string is -1. Version 1 files have no replication
+ * column and are read with replication 0.
+ */
+public class BinaryLogSink extends SimLogSink {
+	public static final int MAGIC = 0x57534C47;
+	public static final int VERSION = 2;
+	public static final int BLOCK_SIZE = 1024;
+
+	private final HashMap<String, Integer> strings = new HashMap<String, Integer>();
+	private final ArrayList<String> newStrings = new ArrayList<String>();
+
+	// columns of the pending block
+	private int traces = 0;
+	private int events = 0;
+	private int[] replications = new int[BLOCK_SIZE];
+	private int[] caseIDs = new int[BLOCK_SIZE];
+	private long[] baseDates = new long[BLOCK_SIZE];
+	private int[] eventCounts = new int[BLOCK_SIZE];
+	private int[] activities = new int[BLOCK_SIZE];
+	private int[] resources = new int[BLOCK_SIZE];
+	private double[] startTimes = new double[BLOCK_SIZE];
+	private double[] durations = new double[BLOCK_SIZE];
+
+	public BinaryLogSink(Path file, boolean gzip) throws IOException {
+		super(file, gzip);
+		reserve(8).putInt(MAGIC).putInt(VERSION);
+	}
+
+	@Override
+	protected void writeTrace(SimLogTrace trace, Date baseDate) throws IOException {
+		replications[traces] = trace.getReplication();
+		caseIDs[traces] = trace.getCaseID();
+		baseDates[traces] = baseDate.getTime();
+		eventCounts[traces] = trace.getEvents().size();
+		traces++;
+		for (SimLogEvent event : trace.getEvents()) {
+			if (events == activities.length) {
+				int size = 2 * events;
+				activities = Arrays.copyOf(activities, size);
+				resources = Arrays.copyOf(resources, size);
+				startTimes = Arrays.copyOf(startTimes, size);
+				durations = Arrays.copyOf(durations, size);
+			}
+			activities[events] = number(event.getActivity());
+			resources[events] = number(event.getResource());
+			startTimes[events] = event.getStartTime();
+			durations[events] = event.getDuration();
+			events++;
+		}
+		if (traces == BLOCK_SIZE)
+			writeBlock();
+	}
+
+	@Override
+	protected void writeFooter() throws IOException {
+		if (traces > 0)
+			writeBlock();
+		reserve(4).putInt(0);
+	}
+
+	private int number(String s) {
+		if (s == null)
+			return -1;
+		Integer n = strings.get(s);
+		if (n == null) {
+			n = strings.size();
+			strings.put(s, n);
+			newStrings.add(s);
+		}
+		return n;
+	}
+
+	private void writeBlock() throws IOException {
+		reserve(8).putInt(traces).putInt(newStrings.size());
+		for (String s : newStrings) {
+			byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+			reserve(4).putInt(bytes.length);
+			put(bytes);
+		}
+		newStrings.clear();
+
+		for (int i = 0; i < traces; i++)
+			reserve(4).putInt(replications[i]);
+		for (int i = 0; i < traces; i++)
+			reserve(4).putInt(caseIDs[i]);
+		for (int i = 0; i < traces; i++)
+			reserve(8).putLong(baseDates[i]);
+		for (int i = 0; i < traces; i++)
+			reserve(4).putInt(eventCounts[i]);
+		for (int i = 0; i < events; i++)
+			reserve(4).putInt(activities[i]);
+		for (int i = 0; i < events; i++)
+			reserve(4).putInt(resources[i]);
+		for (int i = 0; i < events; i++)
+			reserve(8).putDouble(startTimes[i]);
+		for (int i = 0; i < events; i++)
+			reserve(8).putDouble(durations[i]);
+		traces = 0;
+		events = 0;
+	}
+
+	/**
+	 * Reads a binary log. Traces of the same case in the same run are joined,
+	 * and the log starts at the base date of the first trace.
+	 *
+	 * @param file a file written by a binary log sink, with or without gzip
+	 */
+	public static SimLog read(Path file) throws IOException {
+		final SimLog log = new SimLog();
+		readTraces(file, new TraceHandler() {
+			boolean first = true;
+
+			public void handle(SimLogTrace trace, Date baseDate) {
+				if (first) {
+					log.setBaseDate(baseDate);
+					first = false;
+				}
+				for (SimLogEvent event : trace.getEvents())
+					log.addEvent(trace.getReplication(), trace.getCaseID(), event);
+			}
+		});
+		return log;
+	}
+
+	/**
+	 * Writes all traces of a binary log to another sink, for example to turn
+	 * it into an XES log. The target is not closed.
+	 *
+	 * @param file a file written by a binary log sink, with or without gzip
+	 */
+	public static void copy(Path file, final SimLogSink target) throws IOException {
+		readTraces(file, new TraceHandler() {
+			public void handle(SimLogTrace trace, Date baseDate) throws IOException {
+				target.write(trace, baseDate);
+			}
+		});
+	}
+
+	private interface TraceHandler {
+		void handle(SimLogTrace trace, Date baseDate) throws IOException;
+	}
+
+	private static void readTraces(Path file, TraceHandler handler) throws IOException {
+		try (InputStream in = open(file)) {
+			DataInputStream data = new DataInputStream(in);
+			if (data.readInt() != MAGIC)
+				throw new IOException("Not a binary simulation log: " + file);
+			int version = data.readInt();
+			if (version != VERSION && version != 1)
+				throw new IOException("Unsupported binary simulation log version " + version);
+
+			ArrayList<String> strings = new ArrayList<String>();
+			int traces;
+			while ((traces = data.readInt()) > 0) {
+				int newStrings = data.readInt();
+				for (int i = 0; i < newStrings; i++) {
+					byte[] bytes = new byte[data.readInt()];
+					data.readFully(bytes);
+					strings.add(new String(bytes, StandardCharsets.UTF_8));
+				}
+
+				int[] replications = new int[traces];
+				int[] caseIDs = new int[traces];
+				long[] baseDates = new long[traces];
+				int[] eventCounts = new int[traces];
+				int events = 0;
+				if (version > 1) {
+					for (int i = 0; i < traces; i++)
+						replications[i] = data.readInt();
+				}
+				for (int i = 0; i < traces; i++)
+					caseIDs[i] = data.readInt();
+				for (int i = 0; i < traces; i++)
+					baseDates[i] = data.readLong();
+				for (int i = 0; i < traces; i++) {
+					eventCounts[i] = data.readInt();
+					events += eventCounts[i];
+				}
+				int[] activities = readInts(data, events);
+				int[] resources = readInts(data, events);
+				double[] startTimes = readDoubles(data, events);
+				double[] durations = readDoubles(data, events);
+
+				int e = 0;
+				for (int i = 0; i < traces; i++) {
+					SimLogTrace trace = new SimLogTrace(replications[i], caseIDs[i]);
+					for (int j = 0; j < eventCounts[i]; j++, e++) {
+						trace.addEvent(new SimLogEvent(string(strings, activities[e]),
+								string(strings, resources[e]), startTimes[e], durations[e]));
+					}
+					handler.handle(trace, new Date(baseDates[i]));
+				}
+			}
+		}
+	}
+
+	private static InputStream open(Path file) throws IOException {
+		InputStream in = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE);
+		in.mark(2);
+		int magic = (in.read() << 8) | in.read();
+		in.reset();
+		return (magic == 0x1F8B) ? new BufferedInputStream(new GZIPInputStream(in, BUFFER_SIZE), BUFFER_SIZE) : in;
+	}
+
+	private static int[] readInts(DataInputStream data, int count) throws IOException {
+		ByteBuffer bytes = readBytes(data, 4 * count);
+		int[] result = new int[count];
+		bytes.asIntBuffer().get(result);
+		return result;
+	}
+
+	private static double[] readDoubles(DataInputStream data, int count) throws IOException {
+		ByteBuffer bytes = readBytes(data, 8 * count);
+		double[] result = new double[count];
+		bytes.asDoubleBuffer().get(result);
+		return result;
+	}
+
+	private static ByteBuffer readBytes(DataInputStream data, int count) throws IOException {
+		byte[] bytes = new byte[count];
+		data.readFully(bytes);
+		return ByteBuffer.wrap(bytes);
+	}
+
+	private static String string(ArrayList<String> strings, int number) {
+		return (number < 0) ? null : strings.get(number);
+	}
+}
@@ -0,0 +1,32 @@
+package org.woped.quantana.sim;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Writes the traces of finished cases as a CSV log with the same content as
+ * {@link SimLog#writeCSV(java.io.PrintWriter)}.
+ */
+public class CSVLogSink extends SimLogSink {
+	private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss.SSS");
+	private final StringWriter out = new StringWriter(1024);
+	private final PrintWriter p = new PrintWriter(out);
+
+	public CSVLogSink(Path file, boolean gzip) throws IOException {
+		super(file, gzip);
+		put(SimLog.CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Override
+	protected void writeTrace(SimLogTrace trace, Date baseDate) throws IOException {
+		out.getBuffer().setLength(0);
+		trace.writeCSV(p, baseDate, dateFormat);
+		p.flush();
+		put(out.toString().getBytes(StandardCharsets.UTF_8));
+	}
+}
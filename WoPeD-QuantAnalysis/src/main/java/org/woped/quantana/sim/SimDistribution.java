@@ -18,7 +18,11 @@ public class SimDistribution {
 	RandomVariateGen gen = null;	
 	
 	public SimDistribution(int type, double mean, double param) {
-		streamDemand = new MRG32k3a();
+		this(type, mean, param, new MRG32k3a());
+	}
+	
+	public SimDistribution(int type, double mean, double param, RandomStream stream) {
+		streamDemand = stream;
 		this.type = type;
 		this.mean = mean;
 		this.param = param;
@@ -24,5 +24,10 @@ public class SimDistributionLogger{
 	public int[] getValues(){
 		return values;
 	}
+	
+	public void addAll(SimDistributionLogger other){
+		for(int i=0;i<values.length;i++)
+			values[i]+=other.values[i];
+	}
 
 }
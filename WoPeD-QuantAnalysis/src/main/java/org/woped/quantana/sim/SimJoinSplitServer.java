@@ -48,7 +48,7 @@ public class SimJoinSplitServer extends SimServer {
 		c.setsplitTime(time);
 		c.setcurrArrivalTime(time);		
 		while(slist.size()>0){			
-			int idx = (int)(Math.random()*slist.size());
+			int idx = rand.nextInt(0, slist.size() - 1);
 			SimServer s = slist.get(idx);
 			SimCaseCopy cc = new SimCaseCopy(sim.getCaseMaker().getNextId(),c);
 			cc.setcurrArrivalTime(time);	
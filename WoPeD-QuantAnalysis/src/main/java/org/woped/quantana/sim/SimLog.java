@@ -1,67 +1,122 @@
 package org.woped.quantana.sim;
 
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.HashMap;
 
 public class SimLog {
-	private HashMap<Integer, SimLogTrace> traces;
+	public static final String XES_HEADER = "<?xml version=\"1.0\"?>\n" + 
+			"<log xmlns=\"http://www.xes-standard.org/\" xes.version=\"1.0\">\n" + 
+			"	<extension name=\"Lifecycle\" prefix=\"lifecycle\" uri=\"http://www.xes-standard.org/lifecycle.xesext\"/>\n" + 
+			"	<extension name=\"Organizational\" prefix=\"org\" uri=\"http://www.xes-standard.org/org.xesext\"/>\n" + 
+			"	<extension name=\"Time\" prefix=\"time\" uri=\"http://www.xes-standard.org/time.xesext\"/>\n" + 
+			"	<extension name=\"Concept\" prefix=\"concept\" uri=\"http://www.xes-standard.org/concept.xesext\"/>\n" + 
+			"	<global scope=\"trace\">\n" + 
+			"		<string key=\"concept:name\" value=\"UNKNOWN\"/>\n" + 
+			"	</global>\n" + 
+			"	<global scope=\"event\">\n" + 
+			"		<date key=\"time:timestamp\" value=\"1970-01-01T00:00:00.000+00:00\"/>\n" + 
+			"		<string key=\"lifecycle:transition\" value=\"UNKNOWN\"/>\n" + 
+			"		<string key=\"concept:name\" value=\"UNKNOWN\"/>\n" + 
+			"		<string key=\"org:resource\" value=\"UNKNOWN\"/>\n" + 
+			"	</global>\n" + 
+			"	<classifier name=\"Activity classifier\" keys=\"concept:name lifecycle:transition\"/>\n" + 
+			"	<classifier name=\"Resource classifier\" keys=\"org:resource\"/>\n";
+	public static final String CSV_HEADER = "Case ID, Start Timestamp, Complete Timestamp, Activity, Resource\n";
+
+	// traces by run and case id, see getKey
+	private HashMap<Long, SimLogTrace> traces;
+	private int replication = 0;
 	private Date baseDate;
+	// receives the finished traces, null to keep them in memory
+	private SimLogSink sink = null;
 	
 	public SimLog() {
-		this.traces = new HashMap<Integer, SimLogTrace>();
+		this.traces = new HashMap<Long, SimLogTrace>();
 		this.baseDate = new Date();
 	}
 	
-	private SimLogTrace getTrace(int trace) {
-		if (traces.containsKey(trace)) 
-			return traces.get(trace);
-		else 
-			return null;
+	private static Long getKey(int replication, int caseID) {
+		return ((long) replication << 32) | (caseID & 0xFFFFFFFFL);
 	}
 	
-	private void addTrace(SimLogTrace trace) {
-		if (!traces.containsKey(trace.getCaseID()))
-			traces.put(trace.getCaseID(), trace);
+	public void addEvent(int caseID, SimLogEvent event) {
+		addEvent(replication, caseID, event);
 	}
 	
-	public void addEvent(int caseID, SimLogEvent event) {
-		SimLogTrace trace = getTrace(caseID);
+	void addEvent(int replication, int caseID, SimLogEvent event) {
+		Long key = getKey(replication, caseID);
+		SimLogTrace trace = traces.get(key);
 		if (trace == null) {
-			trace = new SimLogTrace(caseID);
-			addTrace(trace);
+			trace = new SimLogTrace(replication, caseID);
+			traces.put(key, trace);
 		}
 		trace.addEvent(event);
 	}
 	
+	/**
+	 * Hands the trace of a finished case to the sink, which frees its memory.
+	 * Without a sink the trace stays in the log.
+	 */
+	public void finishTrace(int caseID) {
+		if (sink == null)
+			return;
+		SimLogTrace trace = traces.remove(getKey(replication, caseID));
+		if (trace == null)
+			return;
+		try {
+			sink.write(trace, baseDate);
+		} catch (IOException e) {
+			throw new IllegalStateException("Writing the log failed", e);
+		}
+	}
+
+	public SimLogSink getSink() {
+		return sink;
+	}
+
+	/**
+	 * @param sink receives the traces of finished cases from now on or null
+	 *            to keep all traces in memory
+	 */
+	public void setSink(SimLogSink sink) {
+		this.sink = sink;
+	}
+
+	public int getReplication() {
+		return replication;
+	}
+
+	/**
+	 * @param replication the number of the run the following cases belong
+	 *            to, so the traces of cases with the same id in different runs
+	 *            can be told apart, or 0 to name the traces by case id only
+	 */
+	public void setReplication(int replication) {
+		this.replication = replication;
+	}
+
+	Date getBaseDate() {
+		return baseDate;
+	}
+
+	void setBaseDate(Date baseDate) {
+		this.baseDate = baseDate;
+	}
+
 	public void clear() {
-		this.traces = new HashMap<Integer, SimLogTrace>();
+		this.traces = new HashMap<Long, SimLogTrace>();
 		this.baseDate = new Date();
 	}
 	
 	public void writeXES(PrintWriter p) {
 		SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
 
-		p.print("<?xml version=\"1.0\"?>\n" + 
-				"<log xmlns=\"http://www.xes-standard.org/\" xes.version=\"1.0\">\n" + 
-				"	<extension name=\"Lifecycle\" prefix=\"lifecycle\" uri=\"http://www.xes-standard.org/lifecycle.xesext\"/>\n" + 
-				"	<extension name=\"Organizational\" prefix=\"org\" uri=\"http://www.xes-standard.org/org.xesext\"/>\n" + 
-				"	<extension name=\"Time\" prefix=\"time\" uri=\"http://www.xes-standard.org/time.xesext\"/>\n" + 
-				"	<extension name=\"Concept\" prefix=\"concept\" uri=\"http://www.xes-standard.org/concept.xesext\"/>\n" + 
-				"	<global scope=\"trace\">\n" + 
-				"		<string key=\"concept:name\" value=\"UNKNOWN\"/>\n" + 
-				"	</global>\n" + 
-				"	<global scope=\"event\">\n" + 
-				"		<date key=\"time:timestamp\" value=\"1970-01-01T00:00:00.000+00:00\"/>\n" + 
-				"		<string key=\"lifecycle:transition\" value=\"UNKNOWN\"/>\n" + 
-				"		<string key=\"concept:name\" value=\"UNKNOWN\"/>\n" + 
-				"		<string key=\"org:resource\" value=\"UNKNOWN\"/>\n" + 
-				"	</global>\n" + 
-				"	<classifier name=\"Activity classifier\" keys=\"concept:name lifecycle:transition\"/>\n" + 
-				"	<classifier name=\"Resource classifier\" keys=\"org:resource\"/>\n");
-		for (Integer traceID : this.traces.keySet()) {
-			traces.get(traceID).writeXES(p, this.baseDate, dateFormat);
+		p.print(XES_HEADER);
+		for (SimLogTrace trace : this.traces.values()) {
+			trace.writeXES(p, this.baseDate, dateFormat);
 		}
 		p.print("</log>\n");
 	}
@@ -69,9 +124,9 @@ public class SimLog {
 	public void writeCSV(PrintWriter p) {
 		SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss.SSS");
 
-		p.print("Case ID, Start Timestamp, Complete Timestamp, Activity, Resource\n");
-		for (Integer traceID : this.traces.keySet()) {
-			traces.get(traceID).writeCSV(p, this.baseDate, dateFormat);
+		p.print(CSV_HEADER);
+		for (SimLogTrace trace : this.traces.values()) {
+			trace.writeCSV(p, this.baseDate, dateFormat);
 		}
 	}
 
@@ -0,0 +1,58 @@
+package org.woped.quantana.sim;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * Formats timestamps like <code>yyyy-MM-dd'T'HH:mm:ss.SSSXXX</code> in the
+ * default time zone.
+ * <p>
+ * The events of a log are close to each other in time, so the date, hour,
+ * minute and time zone of the last formatted minute are kept and only the
+ * seconds and milliseconds are appended for each timestamp.
+ */
+public class SimLogDateFormat {
+	private static final long MINUTE = 60000;
+
+	private final SimpleDateFormat minuteFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:");
+	private final SimpleDateFormat zoneFormat = new SimpleDateFormat("XXX");
+	private final SimpleDateFormat fullFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
+	private final TimeZone timeZone = minuteFormat.getTimeZone();
+
+	private long cachedMinute = Long.MIN_VALUE;
+	private String minutePrefix;
+	private String zoneSuffix;
+	// false if the zone offset is not a whole number of minutes
+	private boolean cacheable;
+
+	public String format(long millis) {
+		StringBuilder sb = new StringBuilder(29);
+		format(millis, sb);
+		return sb.toString();
+	}
+
+	public void format(long millis, StringBuilder sb) {
+		long minute = Math.floorDiv(millis, MINUTE);
+		if (minute != cachedMinute) {
+			Date date = new Date(minute * MINUTE);
+			minutePrefix = minuteFormat.format(date);
+			zoneSuffix = zoneFormat.format(date);
+			cacheable = timeZone.getOffset(minute * MINUTE) % MINUTE == 0;
+			cachedMinute = minute;
+		}
+		if (!cacheable) {
+			sb.append(fullFormat.format(new Date(millis)));
+			return;
+		}
+
+		int rest = (int) Math.floorMod(millis, MINUTE);
+		int seconds = rest / 1000;
+		int ms = rest % 1000;
+		sb.append(minutePrefix);
+		sb.append((char) ('0' + seconds / 10)).append((char) ('0' + seconds % 10));
+		sb.append('.');
+		sb.append((char) ('0' + ms / 100)).append((char) ('0' + ms / 10 % 10)).append((char) ('0' + ms % 10));
+		sb.append(zoneSuffix);
+	}
+}
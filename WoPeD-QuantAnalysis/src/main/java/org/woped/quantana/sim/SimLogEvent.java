@@ -18,6 +18,22 @@ public class SimLogEvent {
 		this.duration = duration;
 	}
 
+	public String getActivity() {
+		return activity;
+	}
+
+	public String getResource() {
+		return resource;
+	}
+
+	public double getStartTime() {
+		return startTime;
+	}
+
+	public double getDuration() {
+		return duration;
+	}
+
 	public void writeXES(PrintWriter p, Date baseDate, SimpleDateFormat dateFormat) {
 		
 		Calendar cal = Calendar.getInstance();
@@ -44,7 +60,7 @@ public class SimLogEvent {
 				"  </event>\n");
 	}
 
-	public void writeCSV(PrintWriter p, Date baseDate, SimpleDateFormat dateFormat, int caseID) {
+	public void writeCSV(PrintWriter p, Date baseDate, SimpleDateFormat dateFormat, String caseName) {
 		
 		Calendar cal = Calendar.getInstance();
 		cal.setTime(baseDate);
@@ -56,7 +72,7 @@ public class SimLogEvent {
 		cal.add(Calendar.SECOND, (int)((startTime+duration)*60));
 		Date completion = cal.getTime();
 
-		p.println(String.join(", ", (new Integer(caseID)).toString(), dateFormat.format(start), dateFormat.format(completion), this.activity, this.resource));
+		p.println(String.join(", ", caseName, dateFormat.format(start), dateFormat.format(completion), this.activity, this.resource));
 	}
 
 }
@@ -0,0 +1,107 @@
+package org.woped.quantana.sim;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the traces of finished cases to a file while the simulation is
+ * running, so a log only holds the traces of the cases in progress.
+ * <p>
+ * The output is collected in a direct buffer and written to a file channel
+ * whenever the buffer is full, optionally compressed with gzip. A sink may be
+ * shared by the replications of a simulation running on different threads.
+ * It has to be closed to complete the file.
+ */
+public abstract class SimLogSink implements Closeable {
+	public static final int BUFFER_SIZE = 1 << 16;
+
+	private final WritableByteChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private int traceCount = 0;
+	private boolean closed = false;
+
+	/**
+	 * @param gzip true to compress the file with gzip
+	 */
+	protected SimLogSink(Path file, boolean gzip) throws IOException {
+		FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		if (gzip)
+			channel = Channels.newChannel(new GZIPOutputStream(Channels.newOutputStream(fileChannel), BUFFER_SIZE));
+		else
+			channel = fileChannel;
+	}
+
+	/**
+	 * @param baseDate the date the simulation time of the trace starts at
+	 */
+	public final synchronized void write(SimLogTrace trace, Date baseDate) throws IOException {
+		if (closed)
+			throw new IOException("Log sink is closed");
+		writeTrace(trace, baseDate);
+		traceCount++;
+	}
+
+	/**
+	 * @return the number of traces written so far
+	 */
+	public synchronized int getTraceCount() {
+		return traceCount;
+	}
+
+	public final synchronized void close() throws IOException {
+		if (closed)
+			return;
+		closed = true;
+		try {
+			writeFooter();
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+
+	protected abstract void writeTrace(SimLogTrace trace, Date baseDate) throws IOException;
+
+	/**
+	 * Writes everything following the last trace.
+	 */
+	protected void writeFooter() throws IOException {
+	}
+
+	/**
+	 * @return the buffer with at least the given number of bytes remaining,
+	 *         which may not exceed the buffer size
+	 */
+	protected ByteBuffer reserve(int bytes) throws IOException {
+		if (buffer.remaining() < bytes)
+			flush();
+		return buffer;
+	}
+
+	protected void put(byte[] bytes) throws IOException {
+		int offset = 0;
+		while (offset < bytes.length) {
+			if (!buffer.hasRemaining())
+				flush();
+			int length = Math.min(buffer.remaining(), bytes.length - offset);
+			buffer.put(bytes, offset, length);
+			offset += length;
+		}
+	}
+
+	private void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+}
@@ -3,14 +3,25 @@ package org.woped.quantana.sim;
 import java.io.PrintWriter;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.List;
 import java.util.Vector;
 
 public class SimLogTrace {
+	private int replication;
 	private int caseID;
 	
 	private Vector<SimLogEvent> events;
 	
 	public SimLogTrace(int caseID) {
+		this(0, caseID);
+	}
+	
+	/**
+	 * @param replication the number of the run the case belongs to, 0 if
+	 *            the log does not tell runs apart
+	 */
+	public SimLogTrace(int replication, int caseID) {
+		this.replication = replication;
 		this.caseID = caseID;
 		events = new Vector<SimLogEvent>();
 	}
@@ -22,10 +33,30 @@ public class SimLogTrace {
 	protected int getCaseID() {
 		return this.caseID;
 	}
+
+	protected int getReplication() {
+		return this.replication;
+	}
+
+	/**
+	 * @return the case id, prefixed with the number of the run, as every run
+	 *         numbers its cases from the start
+	 */
+	public String getName() {
+		return getName(replication, caseID);
+	}
+
+	static String getName(int replication, int caseID) {
+		return (replication == 0) ? Integer.toString(caseID) : replication + "-" + caseID;
+	}
+
+	public List<SimLogEvent> getEvents() {
+		return events;
+	}
 	
 	public void writeXES(PrintWriter p, Date baseDate, SimpleDateFormat dateFormat) {
 		p.print("<trace>\n" +
-				"  <string key=\"concept:name\" value=\"" + this.caseID + "\"/>\n");
+				"  <string key=\"concept:name\" value=\"" + getName() + "\"/>\n");
 		for (SimLogEvent event : events) {
 			event.writeXES(p, baseDate, dateFormat);
 		}
@@ -34,7 +65,7 @@ public class SimLogTrace {
 
 	public void writeCSV(PrintWriter p, Date baseDate, SimpleDateFormat dateFormat) {
 		for (SimLogEvent event : events) {
-			event.writeCSV(p, baseDate, dateFormat, this.caseID);
+			event.writeCSV(p, baseDate, dateFormat, getName());
 		}
 	}
 
@@ -0,0 +1,127 @@
+package org.woped.quantana.sim;
+
+import umontreal.iro.lecuyer.rng.MRG32k3a;
+import umontreal.iro.lecuyer.rng.RandomStream;
+
+/**
+ * Hands out the random streams of one simulation replication.
+ * <p>
+ * Every replication owns one stream of the MRG32k3a generator, and every
+ * random stream used inside the replication is a separate substream of it.
+ * Unlike <code>new MRG32k3a()</code>, which takes the next stream from a
+ * generator wide seed, the streams only depend on the seed of the
+ * replication, so replications running on different threads draw the same
+ * numbers in every run.
+ * <p>
+ * The streams of consecutive replications are obtained by jumping ahead
+ * 2^127 steps, which is the distance between two MRG32k3a streams.
+ */
+public class SimRandomStreams {
+	static final long M1 = 4294967087L;
+	static final long M2 = 4294944443L;
+
+	// transition matrices of the two components for one step
+	static final long[][] A1 = { { 0, 1, 0 }, { 0, 0, 1 }, { M1 - 810728, 1403580, 0 } };
+	static final long[][] A2 = { { 0, 1, 0 }, { 0, 0, 1 }, { M2 - 1370589, 0, 527612 } };
+
+	// transition matrices of the components for 2^127 steps
+	private static final long[][] A1P127 = power(A1, 127, M1);
+	private static final long[][] A2P127 = power(A2, 127, M2);
+
+	// cloned instead of calling new MRG32k3a(), which changes the generator
+	// wide seed and is not thread safe
+	private static final MRG32k3a PROTOTYPE = new MRG32k3a();
+
+	private final MRG32k3a base;
+
+	/**
+	 * @param streamSeed the seed of the replication's stream, as returned by
+	 *            {@link #seedFor(long)} or {@link #nextStream(long[])}
+	 */
+	public SimRandomStreams(long[] streamSeed) {
+		base = PROTOTYPE.clone();
+		base.setSeed(streamSeed);
+	}
+
+	/**
+	 * @return a stream starting at the next unused substream
+	 */
+	public RandomStream next() {
+		RandomStream stream = base.clone();
+		base.resetNextSubstream();
+		return stream;
+	}
+
+	/**
+	 * Expands a seed to a valid MRG32k3a seed.
+	 *
+	 * @param seed any value
+	 * @return the seed of the first stream
+	 */
+	public static long[] seedFor(long seed) {
+		long[] result = new long[6];
+		long state = seed;
+		for (int i = 0; i < 6; i++) {
+			state += 0x9E3779B97F4A7C15L;
+			long z = state;
+			z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+			z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+			z = z ^ (z >>> 31);
+			// never zero, so no component is all zero
+			result[i] = Math.floorMod(z, (i < 3 ? M1 : M2) - 1) + 1;
+		}
+		return result;
+	}
+
+	/**
+	 * @param streamSeed the seed of a stream
+	 * @return the seed of the stream following it
+	 */
+	public static long[] nextStream(long[] streamSeed) {
+		return jump(streamSeed, A1P127, A2P127);
+	}
+
+	/**
+	 * @return the state after applying the transition matrices of the
+	 *         components to the state
+	 */
+	static long[] jump(long[] state, long[][] a1, long[][] a2) {
+		long[] result = new long[6];
+		for (int i = 0; i < 3; i++) {
+			for (int j = 0; j < 3; j++) {
+				result[i] = (result[i] + mulMod(a1[i][j], state[j], M1)) % M1;
+				result[i + 3] = (result[i + 3] + mulMod(a2[i][j], state[j + 3], M2)) % M2;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return the matrix raised to the power 2^e, modulo m
+	 */
+	static long[][] power(long[][] matrix, int e, long m) {
+		long[][] result = matrix;
+		for (int i = 0; i < e; i++) {
+			result = multiply(result, result, m);
+		}
+		return result;
+	}
+
+	private static long[][] multiply(long[][] a, long[][] b, long m) {
+		long[][] result = new long[3][3];
+		for (int i = 0; i < 3; i++) {
+			for (int j = 0; j < 3; j++) {
+				for (int k = 0; k < 3; k++) {
+					result[i][j] = (result[i][j] + mulMod(a[i][k], b[k][j], m)) % m;
+				}
+			}
+		}
+		return result;
+	}
+
+	// a * b mod m for 0 <= a, b < m < 2^32 without overflowing
+	private static long mulMod(long a, long b, long m) {
+		long high = (a * (b >>> 16)) % m;
+		return ((high << 16) + a * (b & 0xFFFF)) % m;
+	}
+}
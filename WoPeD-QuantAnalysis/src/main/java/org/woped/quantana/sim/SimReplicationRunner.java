@@ -0,0 +1,156 @@
+package org.woped.quantana.sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.woped.quantana.resourcealloc.ResourceAllocation;
+import org.woped.quantana.resourcealloc.ResourceUtilization;
+
+/**
+ * Runs the replications of a simulation in parallel.
+ * <p>
+ * Each replication is simulated by its own {@link SimRunner} with its own
+ * servers, event list, resources and random streams, so replications share
+ * nothing but the read only graph and parameters. Replication i uses the i-th
+ * MRG32k3a stream of the seed, so the results only depend on the seed and
+ * not on the number of threads or the order in which the replications finish.
+ * <p>
+ * The statistics of the replications are collected in the order of the
+ * replications and merged into the report statistics like the ones of a
+ * sequential simulation. Log, clock and finished cases are the ones of the
+ * last replication.
+ */
+public class SimReplicationRunner extends SimRunner {
+
+	private final long seed;
+	private final int parallelism;
+	private final AtomicInteger finishedRuns = new AtomicInteger();
+	private final List<SimRunner> replications = new ArrayList<SimRunner>();
+
+	/**
+	 * @param parallelism the number of replications simulated at the same time
+	 */
+	public SimReplicationRunner(SimGraph graph, ResourceUtilization resUtil,
+			SimParameters sp, long seed, int parallelism) {
+		super(graph, resUtil, sp);
+		if (parallelism < 1)
+			throw new IllegalArgumentException("Parallelism has to be at least one");
+		this.seed = seed;
+		this.parallelism = parallelism;
+	}
+
+	@Override
+	public void run() {
+		prepare();
+		ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+		try {
+			List<Future<SimRunner>> results = new ArrayList<Future<SimRunner>>();
+			long[] streamSeed = SimRandomStreams.seedFor(seed);
+			for (int i = 0; i < params.getRuns(); i++) {
+				results.add(pool.submit(new Replication(i + 1, streamSeed, xesLog.getSink())));
+				streamSeed = SimRandomStreams.nextStream(streamSeed);
+			}
+			for (Future<SimRunner> result : results) {
+				SimRunner replication = result.get();
+				if (replication != null)
+					collect(replication);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			setAbort(true);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Replication failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+			// to finish progress
+			aborted = true;
+		}
+		generateReport();
+		caseMaker = null;
+	}
+
+	/**
+	 * Adds the statistics of a finished replication. The distribution loggers
+	 * of the replication are merged into the ones of this runner, which are
+	 * shared by all run statistics as in a sequential simulation.
+	 */
+	private void collect(SimRunner replication) {
+		SimRunStats stats = replication.getRunStats().get(0);
+		for (SimServerStats sst : stats.getServStats().values()) {
+			SimServer server = serverList.get(sst.getId());
+			if (server.getDistLogger() != null) {
+				server.getDistLogger().addAll(sst.getDistributionLogger());
+				sst.setDistributionLogger(server.getDistLogger());
+			}
+		}
+		distLogger.addAll(replication.distLogger);
+		runStats.add(stats);
+
+		runClock = replication.getRunClock();
+		cntFinished = replication.getFinished();
+		log = replication.getLog();
+		xesLog = replication.getXESLog();
+		getActPanelList().clear();
+		getActPanelList().addAll(replication.getActPanelList());
+	}
+
+	@Override
+	public void setAbort(boolean newVal) {
+		super.setAbort(newVal);
+		synchronized (replications) {
+			for (SimRunner replication : replications)
+				replication.setAbort(newVal);
+		}
+	}
+
+	/**
+	 * @return the number of finished replications
+	 */
+	@Override
+	public int getRunNumber() {
+		return finishedRuns.get();
+	}
+
+	/**
+	 * Simulates one replication in its own context.
+	 */
+	private class Replication implements Callable<SimRunner> {
+		private final int numRun;
+		private final long[] streamSeed;
+		private final SimLogSink logSink;
+
+		Replication(int numRun, long[] streamSeed, SimLogSink logSink) {
+			this.numRun = numRun;
+			this.streamSeed = streamSeed;
+			this.logSink = logSink;
+		}
+
+		public SimRunner call() {
+			SimRandomStreams streams = new SimRandomStreams(streamSeed);
+			Random choice = new Random(streams.next().nextInt(0, Integer.MAX_VALUE));
+			ResourceUtilization util = new ResourceUtilization(new ResourceAllocation(resAlloc), choice);
+			SimRunner replication = new SimRunner(graph, util, params, streams);
+			replication.setLogSink(logSink);
+
+			synchronized (replications) {
+				if (aborted)
+					return null;
+				replications.add(replication);
+			}
+			replication.prepare();
+			replication.runReplication(numRun);
+			synchronized (replications) {
+				replications.remove(replication);
+			}
+			finishedRuns.incrementAndGet();
+			return replication.getAbort() ? null : replication;
+		}
+	}
+}
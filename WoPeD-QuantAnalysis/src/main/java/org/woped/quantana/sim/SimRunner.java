@@ -1,6 +1,7 @@
 package org.woped.quantana.sim;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.PriorityQueue;
 
@@ -41,7 +42,11 @@ public class SimRunner implements Runnable{
 	
 	Thread thr = null;
 	
-	RandomStream randStart = new MRG32k3a();
+	// null if the streams are taken from the generator wide MRG32k3a seed
+	SimRandomStreams streams = null;
+	RandomStream randStart;
+	// decides in which order waiting servers are started when a resource is released
+	RandomStream randQueue;
 	PriorityQueue<SimulatorEvent> eventList = new PriorityQueue<SimulatorEvent>();
 	protected HashMap<String, SimServer> serverList = new HashMap<String, SimServer>();
 	SimCaseMaker caseMaker = new SimCaseMaker(this);
@@ -55,6 +60,7 @@ public class SimRunner implements Runnable{
 	private ArrayList<ActivityPanel> actPanelList = new ArrayList<ActivityPanel>();
 
 	SimulatorEvent nextEvent = null;
+	int[] eventCounters = new int[SimulatorEvent.EVT_DEATH + 1];
 	double runClock = 0;
 	int cntFinished = 0;
 	int cntArrival = 0;
@@ -65,10 +71,22 @@ public class SimRunner implements Runnable{
 	double avgRunTime = 0; 
 	
 	
-	boolean aborted = false;
+	volatile boolean aborted = false;
 		
 	public SimRunner(SimGraph graph, ResourceUtilization resUtil,
 			SimParameters sp) {
+		this(graph, resUtil, sp, null);
+	}
+	
+	/**
+	 * @param streams the random streams of this simulation or null to take
+	 *            new streams from the generator wide MRG32k3a seed
+	 */
+	protected SimRunner(SimGraph graph, ResourceUtilization resUtil,
+			SimParameters sp, SimRandomStreams streams) {
+		this.streams = streams;
+		randStart = createStream();
+		randQueue = createStream();
 		this.graph = graph;
 		this.resUtil = resUtil;		
 		resAlloc = this.resUtil.getResAlloc();
@@ -118,25 +136,21 @@ public class SimRunner implements Runnable{
 		thr = new Thread(this);
 		thr.start();		
 	}
+
+	/**
+	 * Waits until the simulation started with {@link #start()} has finished,
+	 * for example to close its log sink after it has been aborted.
+	 */
+	public void join() throws InterruptedException {
+		if (thr != null)
+			thr.join();
+	}
 		
 		
 	public void run() {		
-		createServerList();
-		runStats = new ArrayList<SimRunStats>();
-		distLogger = new SimDistributionLogger(params.getPeriod()/params.getLambda());
-		caseMaker.setDistLogger(distLogger);		
+		prepare();
 		for (cntRun = 0; cntRun < params.getRuns(); cntRun++) {
-			initRun(cntRun + 1);
-			while (!(hasToStop()||aborted)) {
-				if (eventList.isEmpty())
-					break;
-				else {
-					nextEvent = eventList.remove();
-					runClock = nextEvent.getTime();
-					nextEvent.invoke();
-				}
-			}
-			finishRun();
+			runReplication(cntRun + 1);
 			if (aborted)break;			
 		}		
 		generateReport();		
@@ -146,6 +160,59 @@ public class SimRunner implements Runnable{
 		Thread.currentThread().interrupt();		
 	}
 	
+	/**
+	 * Creates the servers and empty statistics before the first replication.
+	 */
+	protected void prepare() {
+		createServerList();
+		runStats = new ArrayList<SimRunStats>();
+		distLogger = new SimDistributionLogger(params.getPeriod()/params.getLambda());
+		caseMaker.setDistLogger(distLogger);		
+	}
+	
+	/**
+	 * Runs a single replication and adds its statistics to the run statistics.
+	 */
+	protected SimRunStats runReplication(int numRun) {
+		initRun(numRun);
+		while (!(hasToStop()||aborted)) {
+			if (eventList.isEmpty())
+				break;
+			else {
+				nextEvent = eventList.remove();
+				runClock = nextEvent.getTime();
+				nextEvent.invoke();
+				eventInvoked();
+			}
+		}
+		return finishRun();
+	}
+
+	/**
+	 * Called after every event of a replication, for example to observe the
+	 * simulation while it is running.
+	 */
+	protected void eventInvoked() {
+	}
+	
+	/**
+	 * @return a new random stream of this simulation
+	 */
+	public RandomStream createStream() {
+		return (streams == null) ? new MRG32k3a() : streams.next();
+	}
+	
+	/**
+	 * @return the stream deciding in which order waiting servers are started
+	 */
+	RandomStream getQueueStream() {
+		return randQueue;
+	}
+	
+	int nextEventNumber(int type) {
+		return ++eventCounters[type];
+	}
+	
 	private boolean hasToStop() {
 		switch (params.getStop()) {
 		case STOP_BOTH:
@@ -171,9 +238,10 @@ public class SimRunner implements Runnable{
 		avgRunTime = 0;
 		log.clear();
 		xesLog.clear();
+		xesLog.setReplication(numRun);
 		
 		eventList = new PriorityQueue<SimulatorEvent>();
-			SimulatorEvent.reset();
+		Arrays.fill(eventCounters, 0);
 		// reset all Servers
 		for (SimServer s : serverList.values())
 			s.reset();
@@ -186,7 +254,7 @@ public class SimRunner implements Runnable{
 			r.reset();
 		caseMaker.reset();
 		SimDistribution dist = new SimDistribution(params.getDistCases(),
-				params.getPeriod() / params.getLambda(), params.getCParam());
+				params.getPeriod() / params.getLambda(), params.getCParam(), createStream());
 		caseMaker.setDistribution(dist);
 		// create the first event
 		eventList.add(new SimBirthEvent(this, runClock));		
@@ -432,7 +500,7 @@ public class SimRunner implements Runnable{
 				SimServer s;
 				SimDistribution sd = null;
 				if (n.gettime()>0) 
-					sd = new SimDistribution(params.getDistServ(),n.gettime(), params.getSParam());
+					sd = new SimDistribution(params.getDistServ(),n.gettime(), params.getSParam(), createStream());
 				if (n.isAndJoin() && !n.isAndSplit()) {
 					s = new SimJoinServer(this, n.getid(), n.getname(), n
 							.getrole(), n.getgroup(), sd);
@@ -456,6 +524,7 @@ public class SimRunner implements Runnable{
 		avgWait+=c.getwaitTime();
 		avgSvc+=c.getsvcTime();
 		avgRunTime+=runClock-c.getsysArrivalTime();		
+		xesLog.finishTrace((c instanceof SimCaseCopy) ? ((SimCaseCopy)c).getorigid() : c.getid());
 	}
 
 	public void addEvent(SimulatorEvent e) {
@@ -565,8 +634,16 @@ public class SimRunner implements Runnable{
 		return params.getRuns();
 	}
 
+	/**
+	 * @return true if the text log is written, which is not the case when the
+	 *         traces are written to a sink, as it would hold every case
+	 */
+	private boolean isTextLogWritten() {
+		return params.getWriteLog() && xesLog.getSink() == null;
+	}
+
 	public void addLog(int id, String name, double time) {
-		if(params.getWriteLog())
+		if(isTextLogWritten())
 // Joerg Evermann, Feb 18 2016
 			log.add(Messages.getString("QuantAna.Simulation.Log.CaseArrival") + " CASE_" + id + " " +
 					Messages.getString("QuantAna.Simulation.Log.At") + " TASK '" + name+ "' " +
@@ -575,7 +652,7 @@ public class SimRunner implements Runnable{
 	}
 	
 	public void addLog(String res, String task, int caseid, double svctime, double wttime, double runtime) {
-		if(params.getWriteLog())
+		if(isTextLogWritten())
 // Joerg Evermann, Feb 18 2016
 			log.add(Messages.getString("QuantAna.Simulation.Log.ResourceBinding") + " RES " + res + " " +
 					Messages.getString("QuantAna.Simulation.Log.To") + " TASK '" + task + "' " + 
@@ -597,5 +674,14 @@ public class SimRunner implements Runnable{
 	public SimLog getXESLog(){
 		return xesLog;
 	}
+
+	/**
+	 * @param sink receives the trace of every case when it is finished, or
+	 *            null to keep the traces of the last run in the log. With a
+	 *            sink the text log stays empty.
+	 */
+	public void setLogSink(SimLogSink sink){
+		xesLog.setSink(sink);
+	}
 	
 }
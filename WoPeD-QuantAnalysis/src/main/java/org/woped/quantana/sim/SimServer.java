@@ -5,7 +5,6 @@ import java.util.LinkedList;
 
 import org.woped.quantana.resourcealloc.Resource;
 
-import umontreal.iro.lecuyer.rng.MRG32k3a;
 import umontreal.iro.lecuyer.rng.RandomStream;
 
 public class SimServer {
@@ -58,7 +57,7 @@ public class SimServer {
 		this.name = name;	
 		if(dist!=null) 
 			distLogger = new SimDistributionLogger(this.dist.getMean());
-		rand = new MRG32k3a();
+		rand = sim.createStream();
 	}
 	
 	public String getid(){
@@ -166,8 +165,7 @@ public class SimServer {
 	public boolean hasFreeCapacity(){		
 		if (sim.isResUsed()){			
 			if (!group.equals("") && !role.equals("")){
-				ArrayList<Resource> rl = sim.getResUtil().getFreeResPerGroupRole(group, role);
-				return (rl.size()>0);				
+				return sim.getResUtil().getNumFreeResPerGroupRole(group, role) > 0;				
 			} else return (tmpNumCaseParallel == 0);		
 		} else return (tmpNumCaseParallel== 0);
 	}
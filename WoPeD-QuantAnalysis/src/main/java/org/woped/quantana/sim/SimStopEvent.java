@@ -30,7 +30,7 @@ public class SimStopEvent extends SimulatorEvent{
 		if(sim.getQueueingServers().size()>0){
 			ArrayList<SimServer> al = (ArrayList<SimServer>)sim.getQueueingServers().clone();
 			while(al.size()>0){				
-				SimServer s=(SimServer)al.get((int)(Math.random()*al.size()));
+				SimServer s=(SimServer)al.get(sim.getQueueStream().nextInt(0, al.size() - 1));
 				s.handleQueue(time);
 				al.remove(s);				
 			}
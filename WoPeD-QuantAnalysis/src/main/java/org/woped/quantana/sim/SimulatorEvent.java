@@ -9,14 +9,8 @@ public abstract class SimulatorEvent implements Comparable<SimulatorEvent>{
 	public static final int EVT_SVC_END 	= 3;
 	public static final int EVT_DEPARTURE 	= 4;
 	public static final int EVT_DEATH 		= 6;
-	
-	private static int cntBIR = 0;
-	private static int cntARR = 0;
-	private static int cntSTA = 0;
-	private static int cntSTO = 0;
-	private static int cntDEP = 0;
-	private static int cntDEA = 0;
-	private static int cntUKN = 0;
+	// only used to number events of unknown type
+	static final int EVT_UNKNOWN 	= 5;
 		
 	double time;
 	SimRunner sim;
@@ -53,28 +47,20 @@ public abstract class SimulatorEvent implements Comparable<SimulatorEvent>{
 		else return 0;
 	}
 	String getNewName(){
+		// the events are numbered per simulation, so replications running
+		// in parallel do not share counters
 		if(this instanceof SimBirthEvent){
-			return "BE"+(++cntBIR);			
+			return "BE"+sim.nextEventNumber(EVT_BIRTH);			
 		}else if(this instanceof SimArriveEvent){
-			return "AE"+(++cntARR);			
+			return "AE"+sim.nextEventNumber(EVT_ARRIVE);			
 		}else if(this instanceof SimStartEvent){
-			return "ST"+(++cntSTA);
+			return "ST"+sim.nextEventNumber(EVT_SVC_START);
 		}else if(this instanceof SimStopEvent){
-			return "SP"+(++cntSTO);
+			return "SP"+sim.nextEventNumber(EVT_SVC_END);
 		}else if(this instanceof SimDepartureEvent){
-			return "DP"+(++cntDEP);
+			return "DP"+sim.nextEventNumber(EVT_DEPARTURE);
 		}else if(this instanceof SimDeathEvent){
-			return "DE"+(++cntDEA);	
-		}else return "evtUnknown"+(++cntUKN);		
+			return "DE"+sim.nextEventNumber(EVT_DEATH);	
+		}else return "evtUnknown"+sim.nextEventNumber(EVT_UNKNOWN);		
 	}
-	
-	public static void reset(){
-		cntBIR = 0;
-		cntARR = 0;
-		cntSTA = 0;
-		cntSTO = 0;
-		cntDEP = 0;
-		cntDEA = 0;
-		cntUKN = 0;
-	}	
 }
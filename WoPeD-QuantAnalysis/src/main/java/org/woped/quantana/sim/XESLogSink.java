@@ -0,0 +1,78 @@
+package org.woped.quantana.sim;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Date;
+
+/**
+ * Writes the traces of finished cases as an XES log. The file has the same
+ * content as {@link SimLog#writeXES(java.io.PrintWriter)}, except that
+ * attribute values are escaped.
+ */
+public class XESLogSink extends SimLogSink {
+	private final SimLogDateFormat dateFormat = new SimLogDateFormat();
+	private final StringBuilder sb = new StringBuilder(1024);
+
+	public XESLogSink(Path file, boolean gzip) throws IOException {
+		super(file, gzip);
+		put(SimLog.XES_HEADER.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Override
+	protected void writeTrace(SimLogTrace trace, Date baseDate) throws IOException {
+		long base = baseDate.getTime();
+		sb.setLength(0);
+		sb.append("<trace>\n  <string key=\"concept:name\" value=\"").append(trace.getName()).append("\"/>\n");
+		for (SimLogEvent event : trace.getEvents()) {
+			long start = base + 1000L * (int) (event.getStartTime() * 60);
+			long completion = base + 1000L * (int) ((event.getStartTime() + event.getDuration()) * 60);
+			appendEvent(event, "START", start);
+			appendEvent(event, "COMPLETE", completion);
+		}
+		sb.append("</trace>\n");
+		put(sb.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Override
+	protected void writeFooter() throws IOException {
+		put("</log>\n".getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void appendEvent(SimLogEvent event, String transition, long timestamp) {
+		sb.append("  <event>\n    <string key=\"lifecycle:transition\" value=\"").append(transition).append("\"/>\n");
+		sb.append("    <string key=\"org:resource\" value=\"");
+		appendEscaped(event.getResource());
+		sb.append("\"/>\n    <string key=\"concept:name\" value=\"");
+		appendEscaped(event.getActivity());
+		sb.append("\"/>\n    <date key=\"time:timestamp\" value=\"");
+		dateFormat.format(timestamp, sb);
+		sb.append("\"/>\n  </event>\n");
+	}
+
+	private void appendEscaped(String value) {
+		if (value == null) {
+			sb.append("null");
+			return;
+		}
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '&':
+				sb.append("&amp;");
+				break;
+			case '<':
+				sb.append("&lt;");
+				break;
+			case '>':
+				sb.append("&gt;");
+				break;
+			case '"':
+				sb.append("&quot;");
+				break;
+			default:
+				sb.append(c);
+			}
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package org.woped.tests.qualanalysis.soundness.algorithms.basedonmarkingnet.nonliveTransitions;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.woped.core.model.petrinet.OperatorTransitionModel;
+import org.woped.qualanalysis.soundness.algorithms.basedonmarkingnet.nonliveTransitions.NonLiveTransitionTest;
+import org.woped.qualanalysis.soundness.algorithms.basedonmarkingnet.nonliveTransitions.NonLiveTransitionTestCondensation;
+import org.woped.qualanalysis.soundness.builder.BuilderFactory;
+import org.woped.qualanalysis.soundness.datamodel.LowLevelPetriNet;
+import org.woped.qualanalysis.soundness.datamodel.PlaceNode;
+import org.woped.qualanalysis.soundness.datamodel.TransitionNode;
+import org.woped.qualanalysis.soundness.marking.IMarkingNet;
+import org.woped.tests.qualanalysis.soundness.algorithms.testing.MNetMock;
+
+public class NonLiveTransitionTestCondensationTest {
+
+	@Test
+	public void testGetNonLiveTransitionsMock() {
+		Set<TransitionNode> actual = new NonLiveTransitionTestCondensation(new MNetMock()).getNonLiveTransitions();
+
+		Assert.assertTrue(actual.isEmpty());
+	}
+
+	@Test
+	public void testGetNonLiveTransitionsCycle() {
+		LowLevelPetriNet net = new LowLevelPetriNet();
+		addPlaces(net, 1, 0, 0);
+		addTransition(net, "t1", "p1", "p2");
+		addTransition(net, "t2", "p2", "p1");
+		addTransition(net, "t3", "p1", "p3");
+		addTransition(net, "t4", "p3", "p1");
+		IMarkingNet mNet = BuilderFactory.createMarkingNet(net);
+
+		Set<TransitionNode> actual = new NonLiveTransitionTestCondensation(mNet).getNonLiveTransitions();
+
+		Assert.assertTrue(actual.isEmpty());
+	}
+
+	@Test
+	public void testGetNonLiveTransitionsDeadlock() {
+		LowLevelPetriNet net = new LowLevelPetriNet();
+		addPlaces(net, 1, 0, 0);
+		addTransition(net, "t1", "p1", "p2");
+		addTransition(net, "t2", "p2", "p1");
+		addTransition(net, "t3", "p1", "p3");
+		IMarkingNet mNet = BuilderFactory.createMarkingNet(net);
+
+		Set<TransitionNode> expected = new NonLiveTransitionTest(mNet).getNonLiveTransitions();
+		Set<TransitionNode> actual = new NonLiveTransitionTestCondensation(mNet).getNonLiveTransitions();
+
+		Assert.assertEquals(3, actual.size());
+		Assert.assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testGetNonLiveTransitionsTwoTerminalComponents() {
+		// p1 either moves into the cycle p2 <-> p3 or into the cycle p4 <-> p5, only t1 and t2 are not live
+		LowLevelPetriNet net = new LowLevelPetriNet();
+		addPlaces(net, 1, 0, 0, 0, 0);
+		addTransition(net, "t1", "p1", "p2");
+		addTransition(net, "t2", "p1", "p4");
+		addTransition(net, "t3", "p2", "p3");
+		addTransition(net, "t4", "p3", "p2");
+		addTransition(net, "t5", "p4", "p5");
+		addTransition(net, "t6", "p5", "p4");
+		IMarkingNet mNet = BuilderFactory.createMarkingNet(net);
+
+		Set<TransitionNode> actual = new NonLiveTransitionTestCondensation(mNet).getNonLiveTransitions();
+
+		Assert.assertEquals(new NonLiveTransitionTest(mNet).getNonLiveTransitions(), actual);
+		Assert.assertEquals(6, actual.size());
+	}
+
+	@Test
+	public void testGetNonLiveTransitionsDeepGraph() {
+		LowLevelPetriNet net = new LowLevelPetriNet();
+		addPlaces(net, 10000, 0);
+		addTransition(net, "t1", "p1", "p2");
+		IMarkingNet mNet = BuilderFactory.createMarkingNet(net);
+
+		Set<TransitionNode> actual = new NonLiveTransitionTestCondensation(mNet).getNonLiveTransitions();
+
+		Set<TransitionNode> expected = new HashSet<TransitionNode>();
+		expected.add(mNet.getTransitions()[0]);
+		Assert.assertEquals(expected, actual);
+	}
+
+	private void addPlaces(LowLevelPetriNet net, int... tokens) {
+		for (int i = 0; i < tokens.length; i++) {
+			String id = "p" + (i + 1);
+			net.addNode(new PlaceNode(tokens[i], tokens[i], id, id, id));
+		}
+	}
+
+	private void addTransition(LowLevelPetriNet net, String id, String pre, String post) {
+		TransitionNode transition = new TransitionNode(id, id, id, OperatorTransitionModel.TRANS_SIMPLE_TYPE);
+		net.addNode(transition);
+		net.getPlaceNode(new PlaceNode(0, 0, pre, "", "")).addSuccessorNode(transition);
+		transition.addSuccessorNode(net.getPlaceNode(new PlaceNode(0, 0, post, "", "")));
+	}
+}
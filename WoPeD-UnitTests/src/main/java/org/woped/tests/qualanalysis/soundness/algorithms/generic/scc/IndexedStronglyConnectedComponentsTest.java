@@ -0,0 +1,73 @@
+package org.woped.tests.qualanalysis.soundness.algorithms.generic.scc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.woped.qualanalysis.soundness.algorithms.generic.scc.IndexedStronglyConnectedComponents;
+
+public class IndexedStronglyConnectedComponentsTest {
+
+	@Test
+	public void testComponents() {
+		// 0 -> 1 -> 2 -> 0, 2 -> 3, 3 -> 4 -> 3
+		int[] offsets = { 0, 1, 2, 4, 5, 6 };
+		int[] targets = { 1, 2, 0, 3, 4, 3 };
+
+		IndexedStronglyConnectedComponents scc = new IndexedStronglyConnectedComponents(5, offsets, targets);
+
+		assertEquals(2, scc.getComponentCount());
+		assertEquals(scc.getComponent(0), scc.getComponent(2));
+		assertEquals(scc.getComponent(3), scc.getComponent(4));
+		assertNotEquals(scc.getComponent(0), scc.getComponent(3));
+		assertTrue(scc.isTerminal(scc.getComponent(3)));
+		assertFalse(scc.isTerminal(scc.getComponent(0)));
+	}
+
+	@Test
+	public void testComponentsReverseTopologicalOrder() {
+		// chain 0 -> 1 -> 2
+		int[] offsets = { 0, 1, 2, 2 };
+		int[] targets = { 1, 2 };
+
+		IndexedStronglyConnectedComponents scc = new IndexedStronglyConnectedComponents(3, offsets, targets);
+
+		assertEquals(3, scc.getComponentCount());
+		assertTrue(scc.getComponent(0) > scc.getComponent(1));
+		assertTrue(scc.getComponent(1) > scc.getComponent(2));
+	}
+
+	@Test
+	public void testDeepChain() {
+		int nodeCount = 200000;
+		int[] offsets = new int[nodeCount + 1];
+		int[] targets = new int[nodeCount];
+		for (int i = 0; i < nodeCount; i++) {
+			offsets[i + 1] = i + 1;
+			targets[i] = (i + 1) % nodeCount;
+		}
+
+		IndexedStronglyConnectedComponents scc = new IndexedStronglyConnectedComponents(nodeCount, offsets, targets);
+
+		assertEquals(1, scc.getComponentCount());
+	}
+
+	@Test
+	public void testNodesByComponent() {
+		int[] offsets = { 0, 1, 2, 4, 5, 6 };
+		int[] targets = { 1, 2, 0, 3, 4, 3 };
+		IndexedStronglyConnectedComponents scc = new IndexedStronglyConnectedComponents(5, offsets, targets);
+
+		int[] componentOffsets = scc.getComponentOffsets();
+		int[] nodes = scc.getNodesByComponent(componentOffsets);
+
+		for (int c = 0; c < scc.getComponentCount(); c++) {
+			for (int i = componentOffsets[c]; i < componentOffsets[c + 1]; i++) {
+				assertEquals(c, scc.getComponent(nodes[i]));
+			}
+		}
+		assertEquals(5, componentOffsets[scc.getComponentCount()]);
+	}
+}
@@ -0,0 +1,58 @@
+package org.woped.tests.qualanalysis.soundness.algorithms.generic.scc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+
+import org.junit.Test;
+import org.woped.core.model.petrinet.OperatorTransitionModel;
+import org.woped.qualanalysis.soundness.algorithms.generic.scc.StronglyConnectedComponentTestGenIterative;
+import org.woped.qualanalysis.soundness.algorithms.generic.scc.StronglyConnectedComponentTestGenTarjan;
+import org.woped.qualanalysis.soundness.builder.BuilderFactory;
+import org.woped.qualanalysis.soundness.datamodel.LowLevelPetriNet;
+import org.woped.qualanalysis.soundness.datamodel.PlaceNode;
+import org.woped.qualanalysis.soundness.datamodel.TransitionNode;
+import org.woped.qualanalysis.soundness.marking.IMarking;
+import org.woped.qualanalysis.soundness.marking.IMarkingNet;
+import org.woped.tests.qualanalysis.soundness.algorithms.testing.MNetMock;
+
+public class StronglyConnectedComponentTestGenIterativeTest {
+
+	@Test
+	public void testGetStronglyConnectedComponents() {
+		MNetMock mNetMock = new MNetMock();
+
+		Set<Set<IMarking>> expected = new StronglyConnectedComponentTestGenTarjan<>(mNetMock)
+				.getStronglyConnectedComponents();
+		Set<Set<IMarking>> actual = new StronglyConnectedComponentTestGenIterative<>(mNetMock)
+				.getStronglyConnectedComponents();
+
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testIsStronglyConnected() {
+		assertTrue(new StronglyConnectedComponentTestGenIterative<>(new MNetMock()).isStronglyConnected());
+	}
+
+	@Test
+	public void testLongMarkingChain() {
+		LowLevelPetriNet net = new LowLevelPetriNet();
+		PlaceNode p1 = new PlaceNode(10000, 10000, "p1", "p1", "p1");
+		PlaceNode p2 = new PlaceNode(0, 0, "p2", "p2", "p2");
+		TransitionNode t1 = new TransitionNode("t1", "t1", "t1", OperatorTransitionModel.TRANS_SIMPLE_TYPE);
+		net.addNode(p1);
+		net.addNode(p2);
+		net.addNode(t1);
+		p1.addSuccessorNode(t1);
+		t1.addSuccessorNode(p2);
+		IMarkingNet mNet = BuilderFactory.createMarkingNet(net);
+
+		StronglyConnectedComponentTestGenIterative<IMarking> scc = new StronglyConnectedComponentTestGenIterative<>(mNet);
+
+		assertEquals(10001, scc.getStronglyConnectedComponents().size());
+		assertFalse(scc.isStronglyConnected());
+	}
+}
@@ -8,6 +8,7 @@ import org.woped.file.AllTestsFile;
 import org.woped.gui.AllTestsGui;
 import org.woped.metrics.AllTestsMetrics;
 import org.woped.qualanalysis.AllTestsQualAnalysis;
+import org.woped.quantana.AllTestsQuantAna;
 import org.woped.tests.soundness.SoundnessTests;
 
 
@@ -18,6 +19,7 @@ import org.woped.tests.soundness.SoundnessTests;
         AllTestsFile.class,
         AllTestsGui.class,
         AllTestsMetrics.class,
-        AllTestsQualAnalysis.class})
+        AllTestsQualAnalysis.class,
+        AllTestsQuantAna.class})
 
 public class AllTests {}
\ No newline at end of file
@@ -6,6 +6,6 @@ import org.woped.core.model.petrinet.AllTestsCoreModelPetrinet;
 
 @RunWith(Suite.class)
 @Suite.SuiteClasses({ArcModelTest.class, ModelElementFactoryTest.class, ModelElementContainerTest.class,
-        PetriNetModelProcessorTest.class, AllTestsCoreModelPetrinet.class})
+        PetriNetModelProcessorTest.class, StructuralHashTest.class, AllTestsCoreModelPetrinet.class})
 public class AllTestsCoreModel {
 }
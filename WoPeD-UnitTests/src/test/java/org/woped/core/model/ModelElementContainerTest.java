@@ -628,4 +628,176 @@ public class ModelElementContainerTest {
 
         assertEquals(expected, actual);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void addElement_withListener_notifiesListener() {
+        ModelElementContainer sut = new ModelElementContainer();
+        IModelElementContainerListener listener = mock(IModelElementContainerListener.class);
+        sut.addModelElementContainerListener(listener);
+
+        PlaceModel place = new PlaceModel(new CreationMap());
+        place.setId("p1");
+        sut.addElement(place);
+
+        verify(listener).elementAdded(place);
+    }
+
+    @Test
+    public void addElement_idAlreadyExists_doesNotNotifyListener() {
+        ModelElementContainer sut = new ModelElementContainer();
+        PlaceModel place = new PlaceModel(new CreationMap());
+        place.setId("p1");
+        sut.addElement(place);
+
+        IModelElementContainerListener listener = mock(IModelElementContainerListener.class);
+        sut.addModelElementContainerListener(listener);
+        PlaceModel duplicate = new PlaceModel(new CreationMap());
+        duplicate.setId("p1");
+        sut.addElement(duplicate);
+
+        verifyZeroInteractions(listener);
+    }
+
+    @Test
+    public void removeElement_elementWithArc_notifiesArcAndElementRemoval() {
+        ModelElementContainer sut = new ModelElementContainer();
+
+        PlaceModel source = new PlaceModel(new CreationMap());
+        source.setId("p1");
+        sut.addElement(source);
+
+        TransitionModel target = new TransitionModel(new CreationMap());
+        target.setId("t1");
+        sut.addElement(target);
+
+        ArcModel arc = mock(ArcModel.class);
+        when(arc.getId()).thenReturn("a1");
+        when(arc.getSourceId()).thenReturn(source.getId());
+        when(arc.getTargetId()).thenReturn(target.getId());
+
+        IModelElementContainerListener listener = mock(IModelElementContainerListener.class);
+        sut.addModelElementContainerListener(listener);
+        sut.addReference(arc);
+        sut.removeElement(source.getId());
+
+        verify(listener).arcAdded(arc);
+        verify(listener).arcRemoved(arc);
+        verify(listener).elementRemoved(source);
+    }
+
+    @Test
+    public void removeModelElementContainerListener_elementAdded_listenerNotNotified() {
+        ModelElementContainer sut = new ModelElementContainer();
+        IModelElementContainerListener listener = mock(IModelElementContainerListener.class);
+        sut.addModelElementContainerListener(listener);
+        sut.removeModelElementContainerListener(listener);
+
+        PlaceModel place = new PlaceModel(new CreationMap());
+        place.setId("p1");
+        sut.addElement(place);
+
+        verifyZeroInteractions(listener);
+    }
+
+    @Test
+    public void getIncomingArcs_arcRemoved_returnsEmptyMap() {
+        ModelElementContainer sut = new ModelElementContainer();
+        ArcModel arc = addArc(sut, "p1", "t1", "a1");
+
+        sut.removeArc(arc);
+
+        assertTrue(sut.getIncomingArcs("t1").isEmpty());
+        assertTrue(sut.getOutgoingArcs("p1").isEmpty());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void getIncomingArcs_modifyResult_throwsException() {
+        ModelElementContainer sut = new ModelElementContainer();
+        addArc(sut, "p1", "t1", "a1");
+
+        sut.getIncomingArcs("t1").clear();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void getOutgoingArcs_modifyResult_throwsException() {
+        ModelElementContainer sut = new ModelElementContainer();
+        addArc(sut, "p1", "t1", "a1");
+
+        sut.getOutgoingArcs("p1").clear();
+    }
+
+    @Test
+    public void findArc_arcExists_returnsArc() {
+        ModelElementContainer sut = new ModelElementContainer();
+        ArcModel arc = addArc(sut, "p1", "t1", "a1");
+
+        assertSame(arc, sut.findArc("p1", "t1"));
+        assertNull(sut.findArc("t1", "p1"));
+    }
+
+    @Test
+    public void removeElement_elementWithIncomingAndOutgoingArcs_allArcsRemoved() {
+        ModelElementContainer sut = new ModelElementContainer();
+        addArc(sut, "p1", "t1", "a1");
+        PlaceModel target = new PlaceModel(new CreationMap());
+        target.setId("p2");
+        sut.addElement(target);
+        ArcModel outgoing = mock(ArcModel.class);
+        when(outgoing.getId()).thenReturn("a2");
+        when(outgoing.getSourceId()).thenReturn("t1");
+        when(outgoing.getTargetId()).thenReturn("p2");
+        sut.addReference(outgoing);
+
+        sut.removeElement("t1");
+
+        assertTrue(sut.getArcMap().isEmpty());
+        assertTrue(sut.getOutgoingArcs("p1").isEmpty());
+        assertTrue(sut.getIncomingArcs("p2").isEmpty());
+    }
+
+    @Test
+    public void clear_containerWithArc_removesElementsAndArcs() {
+        ModelElementContainer sut = new ModelElementContainer();
+        addArc(sut, "p1", "t1", "a1");
+
+        sut.clear();
+
+        assertTrue(sut.getIdMap().isEmpty());
+        assertTrue(sut.getArcMap().isEmpty());
+        assertTrue(sut.getIncomingArcs("t1").isEmpty());
+    }
+
+    @Test
+    public void clear_withListener_notifiesArcAndElementRemoval() {
+        ModelElementContainer sut = new ModelElementContainer();
+        ArcModel arc = addArc(sut, "p1", "t1", "a1");
+        AbstractPetriNetElementModel source = sut.getElementById("p1");
+        AbstractPetriNetElementModel target = sut.getElementById("t1");
+        IModelElementContainerListener listener = mock(IModelElementContainerListener.class);
+        sut.addModelElementContainerListener(listener);
+
+        sut.clear();
+
+        verify(listener).arcRemoved(arc);
+        verify(listener).elementRemoved(source);
+        verify(listener).elementRemoved(target);
+        verifyNoMoreInteractions(listener);
+    }
+
+    private ArcModel addArc(ModelElementContainer container, String sourceId, String targetId, String arcId) {
+        PlaceModel source = new PlaceModel(new CreationMap());
+        source.setId(sourceId);
+        container.addElement(source);
+
+        TransitionModel target = new TransitionModel(new CreationMap());
+        target.setId(targetId);
+        container.addElement(target);
+
+        ArcModel arc = mock(ArcModel.class);
+        when(arc.getId()).thenReturn(arcId);
+        when(arc.getSourceId()).thenReturn(sourceId);
+        when(arc.getTargetId()).thenReturn(targetId);
+        container.addReference(arc);
+        return arc;
+    }
+}
@@ -0,0 +1,117 @@
+package org.woped.core.model;
+
+import org.junit.Test;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+import org.woped.core.model.petrinet.PlaceModel;
+import org.woped.tests.TestNetGenerator;
+
+import static org.junit.Assert.*;
+
+public class StructuralHashTest {
+
+    @Test
+    public void getStructuralHash_sameStructure_returnsEqualHash() {
+        PetriNetModelProcessor net1 = new TestNetGenerator().createSimpleNet();
+        PetriNetModelProcessor net2 = new TestNetGenerator().createSimpleNet();
+
+        assertEquals(net1.getStructuralHash(), net2.getStructuralHash());
+    }
+
+    @Test
+    public void getStructuralHash_differentOrderOfCreation_returnsEqualHash() {
+        PetriNetModelProcessor net1 = new TestNetGenerator().createSimpleNet();
+        PetriNetModelProcessor net2 = new TestNetGenerator().createNetWithoutArcs(2, 1);
+        net2.createArc("t1", "p2");
+        net2.createArc("p1", "t1");
+
+        assertEquals(net1.getStructuralHash(), net2.getStructuralHash());
+    }
+
+    @Test
+    public void getStructuralHash_tokensChanged_returnsDifferentHash() {
+        PetriNetModelProcessor sut = new TestNetGenerator().createSimpleNet();
+        StructuralHash before = sut.getStructuralHash();
+
+        PlaceModel p1 = (PlaceModel) sut.getElementContainer().getElementById("p1");
+        p1.addToken();
+        assertNotEquals(before, sut.getStructuralHash());
+
+        p1.removeToken();
+        assertEquals(before, sut.getStructuralHash());
+    }
+
+    @Test
+    public void getStructuralHash_arcWeightChanged_returnsDifferentHash() {
+        PetriNetModelProcessor sut = new TestNetGenerator().createSimpleNet();
+        StructuralHash before = sut.getStructuralHash();
+
+        sut.getElementContainer().findArc("p1", "t1").setInscriptionValue(2);
+
+        assertNotEquals(before, sut.getStructuralHash());
+    }
+
+    @Test
+    public void getStructuralHash_arcRemovedAndAddedAgain_returnsInitialHash() {
+        PetriNetModelProcessor sut = new TestNetGenerator().createSimpleNet();
+        StructuralHash before = sut.getStructuralHash();
+
+        sut.getElementContainer().removeArc(sut.getElementContainer().findArc("t1", "p2"));
+        assertNotEquals(before, sut.getStructuralHash());
+
+        sut.createArc("t1", "p2");
+        assertEquals(before, sut.getStructuralHash());
+    }
+
+    @Test
+    public void getStructuralHash_elementAdded_equalsHashOfNewNet() {
+        PetriNetModelProcessor sut = new TestNetGenerator().createSimpleNet();
+        sut.getStructuralHash();
+
+        CreationMap map = CreationMap.createMap();
+        map.setType(AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE);
+        map.setId("t2");
+        sut.createElement(map);
+        sut.createArc("p2", "t2");
+
+        PetriNetModelProcessor expected = new TestNetGenerator().createNetWithoutArcs(2, 2);
+        expected.createArc("p1", "t1");
+        expected.createArc("t1", "p2");
+        expected.createArc("p2", "t2");
+        assertEquals(expected.getStructuralHash(), sut.getStructuralHash());
+    }
+
+    @Test
+    public void getStructuralHash_elementRemoved_equalsHashOfNewNet() {
+        PetriNetModelProcessor sut = new TestNetGenerator().createSimpleNet();
+        sut.getStructuralHash();
+
+        sut.getElementContainer().removeElement("p2");
+
+        PetriNetModelProcessor expected = new TestNetGenerator().createNetWithoutArcs(1, 1);
+        expected.createArc("p1", "t1");
+        assertEquals(expected.getStructuralHash(), sut.getStructuralHash());
+    }
+
+    @Test
+    public void getStructuralHash_arcsSwapped_returnsDifferentHash() {
+        PetriNetModelProcessor net1 = new TestNetGenerator().createSimpleNet();
+        PetriNetModelProcessor net2 = new TestNetGenerator().createNetWithoutArcs(2, 1);
+        net2.createArc("p2", "t1");
+        net2.createArc("t1", "p1");
+
+        assertNotEquals(net1.getStructuralHash(), net2.getStructuralHash());
+    }
+
+    @Test
+    public void fromString_ownString_returnsEqualHash() {
+        StructuralHash hash = new TestNetGenerator().createSimpleNet().getStructuralHash();
+
+        assertEquals(32, hash.toString().length());
+        assertEquals(hash, StructuralHash.fromString(hash.toString()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromString_invalidString_throwsException() {
+        StructuralHash.fromString("not a hash");
+    }
+}
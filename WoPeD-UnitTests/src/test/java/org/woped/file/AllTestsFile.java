@@ -5,6 +5,6 @@ import org.junit.runners.Suite;
 import org.woped.file.controller.vep.AllTestsFileControllerVep;
 
 @RunWith(Suite.class)
-@Suite.SuiteClasses({AllTestsFileControllerVep.class, PNMLExportTest.class, PNMLImportTest.class})
+@Suite.SuiteClasses({AllTestsFileControllerVep.class, PNMLExportTest.class, PNMLImportTest.class, PNMLStreamReaderTest.class, PNMLStreamWriterTest.class})
 public class AllTestsFile {
 }
@@ -0,0 +1,214 @@
+package org.woped.file;
+
+import org.jgraph.graph.GraphConstants;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.woped.core.config.ConfigurationManager;
+import org.woped.core.model.ArcModel;
+import org.woped.core.model.ModelElementContainer;
+import org.woped.core.model.PetriNetModelProcessor;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+import org.woped.core.model.petrinet.OperatorTransitionModel;
+import org.woped.core.model.petrinet.PlaceModel;
+import org.woped.core.model.petrinet.SubProcessModel;
+import org.woped.core.model.petrinet.TransitionModel;
+import org.woped.pnml.PlaceToolspecificType;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class PNMLStreamReaderTest {
+
+    private static final String[] SAMPLES = {"Ballgame.pnml", "CapacityPlanning.pnml", "Example-Workflow.pnml",
+            "Example.pnml", "Insurance.pnml", "LoanApplication.pnml", "LoanApplicationResources.pnml", "Mailbox.pnml",
+            "MailboxBounded.pnml", "MailboxUnbounded.pnml", "MinimalCoverabilitySet.pnml", "Subprocesses.pnml",
+            "TwoTrafficLightsSafeFair.pnml", "VendingMachine.pnml"};
+
+    @Before
+    public void setUp() throws Exception {
+        ConfigurationManager.setConfiguration(ConfigurationManager.getStandardConfiguration());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        // The standard configuration is shared by all tests
+        ConfigurationManager.getConfiguration().setImportToolspecific(true);
+    }
+
+    @Test
+    public void importHeadless_samples_equalsImportOfBeans() throws Exception {
+        for (String sample : SAMPLES) {
+            assertEquals(sample, describe(importSample(sample, false)), describe(importSample(sample, true)));
+        }
+    }
+
+    @Test
+    public void importHeadless_samplesWithoutToolspecific_equalsImportOfBeans() throws Exception {
+        ConfigurationManager.getConfiguration().setImportToolspecific(false);
+
+        for (String sample : SAMPLES) {
+            assertEquals(sample, describe(importSample(sample, false)), describe(importSample(sample, true)));
+        }
+    }
+
+    @Test
+    public void importHeadless_subprocess_readsNetOfSubprocess() throws Exception {
+        PetriNetModelProcessor[] nets = importSample("Subprocesses.pnml", true);
+
+        boolean found = false;
+        for (AbstractPetriNetElementModel element : nets[0].getElementContainer().getRootElements()) {
+            if (element instanceof SubProcessModel) {
+                found = true;
+                assertFalse(((SubProcessModel) element).getSimpleTransContainer().getRootElements().isEmpty());
+            }
+        }
+        assertTrue(found);
+    }
+
+    @Test
+    public void importHeadless_standardPnmlWithPage_readsNetOfPage() throws Exception {
+        String pnml = "<pnml xmlns=\"http://www.pnml.org/version-2009/grammar/pnml\">"
+                + "<net id=\"n1\" type=\"http://www.pnml.org/version-2009/grammar/ptnet\"><name><text>net</text></name>"
+                + "<page id=\"page1\">"
+                + "<place id=\"p1\"><initialMarking><text> 2 </text></initialMarking></place>"
+                + "<transition id=\"t1\"/>"
+                + "<arc id=\"a1\" source=\"p1\" target=\"t1\"><inscription><text>1</text></inscription></arc>"
+                + "</page></net></pnml>";
+
+        PetriNetModelProcessor[] expected = importString(pnml, false);
+        PetriNetModelProcessor[] actual = importString(pnml, true);
+
+        assertEquals(describe(expected), describe(actual));
+        ModelElementContainer container = actual[0].getElementContainer();
+        assertEquals("net", actual[0].getName());
+        assertEquals(2, ((PlaceModel) container.getElementById("p1")).getTokenCount());
+        assertNotNull(container.findArc("p1", "t1"));
+    }
+
+    @Test
+    public void importHeadless_toolspecificOfOtherTool_keepsBean() throws Exception {
+        String pnml = "<pnml><net id=\"n1\" type=\"ptNet\">"
+                + "<place id=\"p1\"><toolspecific tool=\"Other\" version=\"1\"><operator id=\"x\" type=\"1\"/></toolspecific></place>"
+                + "</net></pnml>";
+
+        PetriNetModelProcessor[] nets = importString(pnml, true);
+
+        AbstractPetriNetElementModel place = nets[0].getElementContainer().getElementById("p1");
+        assertEquals(1, place.getUnknownToolSpecs().size());
+        PlaceToolspecificType toolspecific = (PlaceToolspecificType) place.getUnknownToolSpecs().get(0);
+        assertEquals("Other", toolspecific.getTool());
+        assertEquals("x", toolspecific.getOperator().getId());
+    }
+
+    @Test
+    public void importHeadless_invalidValues_addsSameWarnings() throws Exception {
+        String pnml = "<pnml><net id=\"n1\" type=\"ptNet\">"
+                + "<place id=\"p1\"><initialMarking><text>many</text></initialMarking></place>"
+                + "<place id=\"p2\"><graphics><dimension x=\"1\" y=\"1\"/></graphics></place>"
+                + "<transition id=\"t1\"><toolspecific tool=\"WoPeD\" version=\"1.0\"><time>soon</time></toolspecific></transition>"
+                + "<arc id=\"a1\" source=\"p1\" target=\"t1\"/>"
+                + "<arc id=\"a2\" source=\"t1\" target=\"p3\"><inscription><text>1</text></inscription></arc>"
+                + "</net></pnml>";
+        PNMLImport beans = new PNMLImport(null);
+        PNMLImport streaming = new PNMLImport(null);
+
+        PetriNetModelProcessor[] expected = beans.importHeadless(new ByteArrayInputStream(pnml.getBytes(StandardCharsets.UTF_8)), false);
+        PetriNetModelProcessor[] actual = streaming.importHeadless(new ByteArrayInputStream(pnml.getBytes(StandardCharsets.UTF_8)), true);
+
+        assertEquals(describe(expected), describe(actual));
+        assertEquals(5, beans.warnings.size());
+        assertEquals(beans.warnings, streaming.warnings);
+    }
+
+    @Test
+    public void importHeadless_severalThreads_importsSameNets() throws Exception {
+        String expected = describe(importSample("LoanApplication.pnml", true));
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> imports = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                imports.add(pool.submit(() -> describe(importSample("LoanApplication.pnml", true))));
+            }
+            for (Future<String> actual : imports) {
+                assertEquals(expected, actual.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = Exception.class)
+    public void importHeadless_noPnmlDocument_throwsException() throws Exception {
+        importString("<net id=\"n1\"/>", true);
+    }
+
+    private PetriNetModelProcessor[] importSample(String name, boolean streaming) throws Exception {
+        try (InputStream is = getClass().getResourceAsStream("/org/woped/file/samples/" + name)) {
+            return new PNMLImport(null).importHeadless(is, streaming);
+        }
+    }
+
+    private PetriNetModelProcessor[] importString(String pnml, boolean streaming) throws Exception {
+        return new PNMLImport(null).importHeadless(new ByteArrayInputStream(pnml.getBytes(StandardCharsets.UTF_8)), streaming);
+    }
+
+    private static String describe(PetriNetModelProcessor[] nets) {
+        StringBuilder sb = new StringBuilder();
+        for (PetriNetModelProcessor net : nets) {
+            sb.append("net ").append(net.getId()).append(' ').append(net.getName()).append('\n');
+            describe(net.getElementContainer(), "", sb);
+        }
+        return sb.toString();
+    }
+
+    /*
+     * Lists elements and arcs sorted by id, as the order of the maps of the container may differ
+     */
+    private static void describe(ModelElementContainer container, String indent, StringBuilder sb) {
+        List<String> lines = new ArrayList<>();
+        for (AbstractPetriNetElementModel element : container.getRootElements()) {
+            StringBuilder line = new StringBuilder(indent);
+            line.append(element.getId()).append(" type=").append(element.getType())
+                    .append(" name=").append(element.getNameValue())
+                    .append(" bounds=").append(GraphConstants.getBounds(element.getAttributes()))
+                    .append(" unknown=").append(element.getUnknownToolSpecs() == null ? 0 : element.getUnknownToolSpecs().size());
+            if (element instanceof PlaceModel) {
+                line.append(" tokens=").append(((PlaceModel) element).getTokenCount());
+            }
+            if (element instanceof TransitionModel) {
+                TransitionModel transition = (TransitionModel) element;
+                line.append(" time=").append(transition.getToolSpecific().getTime())
+                        .append(" trigger=").append(transition.getToolSpecific().getTrigger() != null)
+                        .append(" resource=").append(transition.getToolSpecific().getTransResource() != null);
+            }
+            if (element instanceof OperatorTransitionModel) {
+                line.append(" operator=").append(((OperatorTransitionModel) element).getOperatorType());
+            }
+            lines.add(line.toString());
+            if (element instanceof SubProcessModel) {
+                StringBuilder subprocess = new StringBuilder();
+                describe(((SubProcessModel) element).getSimpleTransContainer(), indent + "  ", subprocess);
+                lines.add(subprocess.toString());
+            }
+        }
+        for (ArcModel arc : container.getArcMap().values()) {
+            lines.add(indent + "arc " + arc.getId() + " " + arc.getSourceId() + "->" + arc.getTargetId()
+                    + " weight=" + arc.getInscriptionValue() + " points=" + arc.getPoints().length
+                    + " probability=" + arc.getProbability());
+        }
+        Collections.sort(lines);
+        for (String line : lines) {
+            sb.append(line).append('\n');
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package org.woped.file;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.woped.core.config.ConfigurationManager;
+import org.woped.core.model.ModelElementContainer;
+import org.woped.core.model.PetriNetModelProcessor;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+import org.woped.core.model.petrinet.PlaceModel;
+import org.woped.core.model.petrinet.ResourceClassModel;
+import org.woped.core.model.petrinet.ResourceModel;
+import org.woped.core.model.petrinet.SimulationModel;
+import org.woped.core.model.petrinet.TransitionModel;
+import org.woped.editor.controller.vc.EditorVC;
+import org.woped.pnml.PlaceToolspecificType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.Vector;
+
+import static org.junit.Assert.*;
+
+public class PNMLStreamWriterTest {
+
+    private static final String[] SAMPLES = {"Ballgame.pnml", "CapacityPlanning.pnml", "Example-Workflow.pnml",
+            "Example.pnml", "Insurance.pnml", "LoanApplication.pnml", "LoanApplicationResources.pnml", "Mailbox.pnml",
+            "MailboxBounded.pnml", "MailboxUnbounded.pnml", "MinimalCoverabilitySet.pnml", "Subprocesses.pnml",
+            "TwoTrafficLightsSafeFair.pnml", "VendingMachine.pnml"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setUp() throws Exception {
+        ConfigurationManager.setConfiguration(ConfigurationManager.getStandardConfiguration());
+        ConfigurationManager.getConfiguration().setExportToolspecific(true);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        // The standard configuration is shared by all tests
+        ConfigurationManager.getConfiguration().setExportToolspecific(true);
+    }
+
+    @Test
+    public void saveToStream_samples_equalsExportOfBeans() throws Exception {
+        for (String sample : SAMPLES) {
+            EditorVC editor = loadSample(sample);
+            assertEquals(sample, export(editor, false), export(editor, true));
+        }
+    }
+
+    @Test
+    public void saveToStream_samplesWithoutToolspecific_equalsExportOfBeans() throws Exception {
+        ConfigurationManager.getConfiguration().setExportToolspecific(false);
+
+        for (String sample : SAMPLES) {
+            EditorVC editor = loadSample(sample);
+            assertEquals(sample, export(editor, false), export(editor, true));
+        }
+    }
+
+    @Test
+    public void saveToStream_namesWithSpecialCharacters_equalsExportOfBeans() throws Exception {
+        String[] names = {"a<b & c>d", "]]>", "  padded  ", "   ", "", "tab\tand\nnew line", "umlaut äöü €",
+                "control \u0001 character", "<<<<<<&&&&&& long enough for a CDATA section",
+                "<a>&<b>&<c>&]]>& long enough for a split CDATA section"};
+        EditorVC editor = loadSample("LoanApplication.pnml");
+        int i = 0;
+        for (AbstractPetriNetElementModel element : editor.getModelProcessor().getElementContainer().getRootElements()) {
+            element.setNameValue(names[i++ % names.length]);
+        }
+        editor.getModelProcessor().setName("net \"<&>\"");
+        editor.getModelProcessor().addResource(new ResourceModel("a>b \"c\" <&> \t\n 😀"));
+        editor.getModelProcessor().addRole(new ResourceClassModel("role > 1", ResourceClassModel.TYPE_ROLE));
+
+        String expected = export(editor, false);
+
+        assertTrue(expected.contains("<![CDATA["));
+        assertTrue(expected.contains("Name=\"a>b"));
+        assertEquals(expected, export(editor, true));
+    }
+
+    @Test
+    public void saveToStream_controlCharacterInAttribute_canBeImportedAgain() throws Exception {
+        EditorVC editor = loadSample("Example.pnml");
+        editor.getModelProcessor().addResource(new ResourceModel("control \u0001 character"));
+
+        String pnml = export(editor, true);
+
+        assertTrue(pnml.contains("Name=\"control ? character\""));
+        // XMLBeans keeps the character, so none of the importers could read the document
+        for (boolean streaming : new boolean[]{false, true}) {
+            PetriNetModelProcessor[] nets = new PNMLImport(null).importHeadless(new ByteArrayInputStream(pnml.getBytes(StandardCharsets.UTF_8)), streaming);
+            assertEquals(1, nets.length);
+        }
+    }
+
+    @Test
+    public void saveToStream_resourcesSimulationsAndToolspecificOfOtherTools_equalsExportOfBeans() throws Exception {
+        EditorVC editor = loadSample("Subprocesses.pnml");
+        PetriNetModelProcessor processor = editor.getModelProcessor();
+        ModelElementContainer container = processor.getElementContainer();
+        processor.addResource(new ResourceModel("r1"));
+        ResourceClassModel role = new ResourceClassModel("role1", ResourceClassModel.TYPE_ROLE);
+        ResourceClassModel subRole = new ResourceClassModel("role2", ResourceClassModel.TYPE_ROLE);
+        subRole.addSuperModel(role);
+        processor.addRole(role);
+        processor.addRole(subRole);
+        processor.addOrgUnit(new ResourceClassModel("unit1", ResourceClassModel.TYPE_ORGUNIT));
+        processor.addResourceMapping("role1", "r1");
+        Vector<TransitionModel> occurred = new Vector<>();
+        for (AbstractPetriNetElementModel element : container.getRootElements()) {
+            if (element instanceof TransitionModel) {
+                occurred.add((TransitionModel) element);
+            }
+            if (element instanceof PlaceModel && element.getUnknownToolSpecs().isEmpty()) {
+                PlaceToolspecificType toolspecific = PlaceToolspecificType.Factory.newInstance();
+                toolspecific.setTool("Other");
+                toolspecific.setVersion("1");
+                Vector<Object> toolspecifics = new Vector<>();
+                toolspecifics.add(toolspecific);
+                element.setUnknownToolSpecs(toolspecifics);
+            }
+        }
+        processor.addSimulation(new SimulationModel("s1", "simulation", occurred, processor.getLogicalFingerprint(), new Date(0)));
+        processor.addSimulation(new SimulationModel("s2", null, new Vector<>(), processor.getLogicalFingerprint(), new Date(0)));
+        container.getPartnerlinkList().addPartnerLink("link", "urn:test", "type", "partner", "my", "http://woped.org/?a=1&b=2");
+        container.getVariableList().addVariable("variable", "string");
+        container.getParaphrasingModel().addElement(" p1 ", " The <first> place ");
+
+        String expected = export(editor, false);
+
+        assertTrue(expected.contains("tool=\"Other\""));
+        assertTrue(expected.contains("<partnerLink "));
+        assertEquals(expected, export(editor, true));
+    }
+
+    @Test
+    public void saveToStream_emptyNet_equalsExportOfBeans() throws Exception {
+        EditorVC editor = new EditorVC();
+        editor.setModelProcessor(new PetriNetModelProcessor());
+
+        assertEquals(export(editor, false), export(editor, true));
+        ConfigurationManager.getConfiguration().setExportToolspecific(false);
+        assertEquals(export(editor, false), export(editor, true));
+    }
+
+    @Test
+    public void saveToFile_streaming_writesSameFile() throws Exception {
+        EditorVC editor = loadSample("Example.pnml");
+        File beans = folder.newFile("beans.pnml");
+        File streaming = folder.newFile("streaming.pnml");
+
+        assertTrue(new PNMLExport(null).saveToFile(editor, beans.getPath(), false));
+        assertTrue(new PNMLExport(null).saveToFile(editor, streaming.getPath(), true));
+
+        assertArrayEquals(Files.readAllBytes(beans.toPath()), Files.readAllBytes(streaming.toPath()));
+    }
+
+    @Test
+    public void saveToFile_streamingFails_keepsExistingFile() throws Exception {
+        File file = folder.newFile("net.pnml");
+        Files.write(file.toPath(), "old".getBytes(StandardCharsets.UTF_8));
+
+        try {
+            // an editor without a net fails before anything has been written
+            new PNMLExport(null).saveToFile(new EditorVC(), file.getPath(), true);
+            fail("The export of an editor without a net should fail");
+        } catch (NullPointerException e) {
+            // expected
+        }
+
+        assertEquals("old", new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+        assertArrayEquals(new String[]{"net.pnml"}, folder.getRoot().list());
+    }
+
+    @Test
+    public void escapeText_textWithEntities_escapesLikeXmlBeans() throws Exception {
+        assertEquals("a &lt; b &amp;&amp; c > d", XmlBeansStyleStreamWriter.escapeText("a < b && c > d"));
+        assertEquals("]]&gt;", XmlBeansStyleStreamWriter.escapeText("]]>"));
+        assertEquals("a?b??", XmlBeansStyleStreamWriter.escapeText("a\u0000b😀"));
+    }
+
+    @Test
+    public void escapeAttribute_valueWithEntities_escapesLikeXmlBeans() throws Exception {
+        assertEquals("a &lt; b &amp; &quot;c&quot; > d\t'", XmlBeansStyleStreamWriter.escapeAttribute("a < b & \"c\" > d\t'"));
+        assertEquals("a?b😀?", XmlBeansStyleStreamWriter.escapeAttribute("a\u0001b😀\uD800"));
+    }
+
+    /*
+     * A headless import creates no editors, but the export needs one, so the net is moved into an editor for testing
+     */
+    private EditorVC loadSample(String name) throws Exception {
+        PetriNetModelProcessor[] nets;
+        try (InputStream is = getClass().getResourceAsStream("/org/woped/file/samples/" + name)) {
+            nets = new PNMLImport(null).importHeadless(is);
+        }
+        EditorVC editor = new EditorVC();
+        editor.setModelProcessor(nets[0]);
+        return editor;
+    }
+
+    private static String export(EditorVC editor, boolean streaming) throws Exception {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        assertTrue(new PNMLExport(null).saveToStream(editor, os, streaming));
+        return os.toString("UTF-8");
+    }
+}
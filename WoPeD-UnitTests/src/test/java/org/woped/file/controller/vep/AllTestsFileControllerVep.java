@@ -4,6 +4,6 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
-@Suite.SuiteClasses({FileEventProcessorTest.class})
+@Suite.SuiteClasses({FileEventProcessorTest.class, BatchAnalysisRunnerTest.class})
 public class AllTestsFileControllerVep {
 }
@@ -0,0 +1,153 @@
+package org.woped.file.controller.vep;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.Assert.*;
+
+public class BatchAnalysisRunnerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void analyse_soundWorkflowNet_returnsSound() throws Exception {
+        BatchAnalysisRunner cut = new BatchAnalysisRunner(1);
+
+        BatchAnalysisResult result = cut.analyse(copySample("Example-Workflow.pnml"));
+
+        assertEquals(result.getError(), BatchAnalysisResult.Status.OK, result.getStatus());
+        assertEquals(1, result.getNetCount());
+        assertTrue(result.getPlaces() > 0);
+        assertTrue(result.getWorkflowNet());
+        assertTrue(result.getSound());
+        assertTrue(result.getTotalMillis() >= result.getParseMillis());
+    }
+
+    @Test
+    public void analyse_invalidFile_returnsError() throws Exception {
+        File file = folder.newFile("broken.pnml");
+        Files.write(file.toPath(), "<pnml><net".getBytes(StandardCharsets.UTF_8));
+        BatchAnalysisRunner cut = new BatchAnalysisRunner(1);
+
+        BatchAnalysisResult result = cut.analyse(file);
+
+        assertEquals(BatchAnalysisResult.Status.ERROR, result.getStatus());
+        assertNotNull(result.getError());
+    }
+
+    @Test
+    public void run_severalFiles_writesOneCsvLinePerFile() throws Exception {
+        File broken = folder.newFile("broken.pnml");
+        List<File> files = new ArrayList<>(Arrays.asList(copySample("Example-Workflow.pnml"),
+                copySample("MailboxUnbounded.pnml"), broken));
+        StringWriter out = new StringWriter();
+        BatchAnalysisRunner cut = new BatchAnalysisRunner(2);
+
+        try (BatchResultWriter writer = new BatchResultWriter(out, BatchResultWriter.Format.CSV,
+                Collections.<String>emptyList())) {
+            cut.run(files, writer);
+        }
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].startsWith("file,status,"));
+        assertEquals(3, cut.getProcessedCount());
+        assertTrue(out.toString().contains("broken.pnml,ERROR,"));
+    }
+
+    @Test
+    public void run_jsonLines_writesOneObjectPerFile() throws Exception {
+        StringWriter out = new StringWriter();
+        BatchAnalysisRunner cut = new BatchAnalysisRunner(1);
+
+        try (BatchResultWriter writer = new BatchResultWriter(out, BatchResultWriter.Format.JSON_LINES,
+                Collections.<String>emptyList())) {
+            cut.run(Collections.singletonList(copySample("Example-Workflow.pnml")), writer);
+        }
+
+        String line = out.toString().trim();
+        assertTrue(line.startsWith("{\"file\":\"Example-Workflow.pnml\",\"status\":\"OK\""));
+        assertTrue(line.contains("\"sound\":true"));
+    }
+
+    @Test
+    public void run_timeouts_boundsAndReleasesExtraWorkers() throws Exception {
+        List<File> files = new ArrayList<>();
+        for (String name : Arrays.asList("hang1", "hang2", "hang3", "ok1", "ok2")) {
+            files.add(folder.newFile(name + ".pnml"));
+        }
+        final AtomicBoolean released = new AtomicBoolean(false);
+        final AtomicInteger maxExtraWorkers = new AtomicInteger();
+        final BatchAnalysisRunner cut = new BatchAnalysisRunner(1) {
+            @Override
+            public BatchAnalysisResult analyse(File file) {
+                // ignores interrupts like the steps of an analysis that do not check for them
+                while (file.getName().startsWith("hang") && !released.get()) {
+                    maxExtraWorkers.set(Math.max(maxExtraWorkers.get(), getExtraWorkers()));
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+                }
+                return new BatchAnalysisResult(file.getName());
+            }
+        };
+        cut.setTimeout(50, TimeUnit.MILLISECONDS);
+        Thread releaser = new Thread(() -> {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(500));
+            released.set(true);
+        });
+        releaser.start();
+
+        try (BatchResultWriter writer = new BatchResultWriter(new StringWriter(), BatchResultWriter.Format.CSV,
+                Collections.<String>emptyList())) {
+            cut.run(files, writer);
+        }
+        releaser.join();
+
+        assertEquals(5, cut.getProcessedCount());
+        assertEquals(1, maxExtraWorkers.get());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cut.getExtraWorkers() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, cut.getExtraWorkers());
+    }
+
+    @Test
+    public void write_metricsCsv_writesFileNameAndMetricsOnly() throws Exception {
+        StringWriter out = new StringWriter();
+        BatchAnalysisResult result = new BatchAnalysisResult("net.pnml");
+        result.getMetrics().put("Places", "3");
+        result.getMetrics().put("Arcs", "1,5");
+
+        try (BatchResultWriter writer = new BatchResultWriter(out, BatchResultWriter.Format.METRICS_CSV,
+                Arrays.asList("Places", "Arcs"))) {
+            writer.write(result);
+        }
+
+        assertEquals("File name,Places,Arcs\r\nnet.pnml,3,\"1,5\"\r\n", out.toString());
+    }
+
+    private File copySample(String name) throws Exception {
+        File file = new File(folder.getRoot(), name);
+        try (InputStream is = getClass().getResourceAsStream("/org/woped/file/samples/" + name)) {
+            Files.copy(is, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return file;
+    }
+}
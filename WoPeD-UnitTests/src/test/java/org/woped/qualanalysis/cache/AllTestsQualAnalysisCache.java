@@ -0,0 +1,9 @@
+package org.woped.qualanalysis.cache;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+
+@RunWith(Suite.class)
+@Suite.SuiteClasses({AnalysisResultCacheTest.class, CachedElementsTest.class})
+public class AllTestsQualAnalysisCache {
+}
@@ -0,0 +1,164 @@
+package org.woped.qualanalysis.cache;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.woped.core.controller.IEditor;
+import org.woped.core.model.StructuralHash;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AnalysisResultCacheTest {
+
+    private static final StructuralHash HASH = new StructuralHash(1, 2);
+    private static final StructuralHash OTHER_HASH = new StructuralHash(1, 3);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void get_valueCached_returnsValue() {
+        AnalysisResultCache sut = new AnalysisResultCache(4);
+        sut.put(HASH, "result", 42.0);
+
+        assertEquals(Double.valueOf(42.0), sut.get(HASH, "result", Double.class));
+        assertNull(sut.get(OTHER_HASH, "result", Double.class));
+        assertNull(sut.get(HASH, "other", Double.class));
+    }
+
+    @Test
+    public void get_otherType_returnsNull() {
+        AnalysisResultCache sut = new AnalysisResultCache(4);
+        sut.put(HASH, "result", 42.0);
+
+        assertNull(sut.get(HASH, "result", String.class));
+    }
+
+    @Test
+    public void put_capacityExceeded_dropsLeastRecentlyUsed() {
+        AnalysisResultCache sut = new AnalysisResultCache(2);
+        sut.put(HASH, "first", 1.0);
+        sut.put(HASH, "second", 2.0);
+        sut.get(HASH, "first", Double.class);
+
+        sut.put(HASH, "third", 3.0);
+
+        assertEquals(2, sut.size());
+        assertNotNull(sut.get(HASH, "first", Double.class));
+        assertNull(sut.get(HASH, "second", Double.class));
+        assertNotNull(sut.get(HASH, "third", Double.class));
+    }
+
+    @Test
+    public void get_diskStore_returnsValueOfOtherCache() throws Exception {
+        File directory = folder.newFolder("cache");
+        AnalysisResultCache writer = new AnalysisResultCache(4);
+        writer.setDiskStore(directory);
+        ArrayList<String> ids = new ArrayList<String>();
+        ids.add("p1");
+        writer.put(HASH, "result", ids);
+
+        AnalysisResultCache sut = new AnalysisResultCache(4);
+        sut.setDiskStore(directory);
+
+        assertEquals(ids, sut.get(HASH, "result", ArrayList.class));
+        assertNull(sut.get(OTHER_HASH, "result", ArrayList.class));
+    }
+
+    @Test
+    public void put_notSerializable_keptInMemoryOnly() throws Exception {
+        File directory = folder.newFolder("cache");
+        AnalysisResultCache sut = new AnalysisResultCache(4);
+        sut.setDiskStore(directory);
+        Object value = new Object();
+
+        sut.put(HASH, "result", value);
+
+        assertSame(value, sut.get(HASH, "result", Object.class));
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    @Test
+    public void get_hitsAndMisses_areCounted() {
+        AnalysisResultCache sut = new AnalysisResultCache(4);
+        sut.put(HASH, "result", 1.0);
+
+        sut.get(HASH, "result", Double.class);
+        sut.get(HASH, "missing", Double.class);
+
+        assertEquals(1, sut.getHits());
+        assertEquals(1, sut.getMisses());
+    }
+
+    @Test
+    public void put_sizeExceedsCapacity_dropsLeastRecentlyUsed() {
+        AnalysisResultCache sut = new AnalysisResultCache(10);
+        sut.put(HASH, "first", new ArrayList<String>(Arrays.asList("p1", "p2", "p3")));
+        sut.put(HASH, "second", 2.0, 5);
+
+        sut.put(HASH, "third", 3.0, 4);
+
+        assertNull(sut.get(HASH, "first", ArrayList.class));
+        assertNotNull(sut.get(HASH, "second", Double.class));
+        assertNotNull(sut.get(HASH, "third", Double.class));
+        assertEquals(9, sut.getWeight());
+    }
+
+    @Test
+    public void put_largerThanCapacity_notKeptInMemory() {
+        AnalysisResultCache sut = new AnalysisResultCache(10);
+        sut.put(HASH, "first", 1.0);
+
+        sut.put(HASH, "large", 2.0, 11);
+
+        assertNull(sut.get(HASH, "large", Double.class));
+        assertNotNull(sut.get(HASH, "first", Double.class));
+        assertEquals(1, sut.getWeight());
+    }
+
+    @Test
+    public void put_sameNameAgain_replacesSize() {
+        AnalysisResultCache sut = new AnalysisResultCache(10);
+        sut.put(HASH, "result", 1.0, 6);
+
+        sut.put(HASH, "result", 2.0, 3);
+
+        assertEquals(1, sut.size());
+        assertEquals(3, sut.getWeight());
+    }
+
+    @Test
+    public void getName_subprocessEditor_differsFromOtherEditors() {
+        IEditor editor = mock(IEditor.class);
+        IEditor subprocessEditor = mock(IEditor.class);
+        when(subprocessEditor.isSubprocessEditor()).thenReturn(true);
+
+        assertEquals("result", AnalysisResultCache.getName("result", editor));
+        assertNotEquals("result", AnalysisResultCache.getName("result", subprocessEditor));
+    }
+
+    @Test
+    public void get_diskStoreWithoutVersion_returnsNull() throws Exception {
+        File directory = folder.newFolder("cache");
+        AnalysisResultCache writer = new AnalysisResultCache(4);
+        writer.setDiskStore(directory);
+        writer.put(HASH, "result", 1.0);
+        File file = directory.listFiles()[0];
+        String oldKey = HASH + "/result";
+        try (java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(new java.io.FileOutputStream(file))) {
+            out.writeUTF(oldKey);
+            out.writeObject(1.0);
+        }
+
+        AnalysisResultCache sut = new AnalysisResultCache(4);
+        sut.setDiskStore(directory);
+
+        assertNull(sut.get(HASH, "result", Double.class));
+    }
+}
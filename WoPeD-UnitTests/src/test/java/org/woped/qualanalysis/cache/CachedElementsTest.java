@@ -0,0 +1,77 @@
+package org.woped.qualanalysis.cache;
+
+import org.junit.Test;
+import org.woped.core.model.ModelElementContainer;
+import org.woped.core.model.PetriNetModelProcessor;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+import org.woped.tests.TestNetGenerator;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class CachedElementsTest {
+
+    @Test
+    public void getSet_cachedForOtherNetWithSameStructure_returnsElementsOfOwnNet() {
+        AnalysisResultCache cache = new AnalysisResultCache(4);
+        ModelElementContainer container1 = new TestNetGenerator().createSimpleNet().getElementContainer();
+        new CachedElements(cache, container1).putSet("places", setOf(container1.getElementById("p1")));
+
+        ModelElementContainer container2 = new TestNetGenerator().createSimpleNet().getElementContainer();
+        Set<AbstractPetriNetElementModel> actual = new CachedElements(cache, container2).getSet("places");
+
+        assertEquals(1, actual.size());
+        assertSame(container2.getElementById("p1"), actual.iterator().next());
+    }
+
+    @Test
+    public void getSet_netChanged_returnsNull() {
+        AnalysisResultCache cache = new AnalysisResultCache(4);
+        PetriNetModelProcessor net = new TestNetGenerator().createSimpleNet();
+        ModelElementContainer container = net.getElementContainer();
+        new CachedElements(cache, container).putSet("places", setOf(container.getElementById("p1")));
+
+        container.removeArc(container.findArc("p1", "t1"));
+
+        assertNull(new CachedElements(cache, container).getSet("places"));
+    }
+
+    @Test
+    public void putSet_elementNotInContainer_isNotCached() {
+        AnalysisResultCache cache = new AnalysisResultCache(4);
+        ModelElementContainer container = new TestNetGenerator().createSimpleNet().getElementContainer();
+        AbstractPetriNetElementModel foreign = new TestNetGenerator().createSimpleNet().getElementContainer()
+                .getElementById("p1");
+
+        new CachedElements(cache, container).putSet("places", setOf(foreign));
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void getSetOfLists_cached_keepsOrder() {
+        AnalysisResultCache cache = new AnalysisResultCache(4);
+        ModelElementContainer container = new TestNetGenerator().createSimpleNet().getElementContainer();
+        List<AbstractPetriNetElementModel> path = new ArrayList<AbstractPetriNetElementModel>();
+        path.add(container.getElementById("p1"));
+        path.add(container.getElementById("t1"));
+        path.add(container.getElementById("p2"));
+        Set<List<AbstractPetriNetElementModel>> components = new HashSet<List<AbstractPetriNetElementModel>>();
+        components.add(path);
+        new CachedElements(cache, container).putGroups("components", components);
+
+        Set<List<AbstractPetriNetElementModel>> actual = new CachedElements(cache, container).getSetOfLists("components");
+
+        assertEquals(components, actual);
+    }
+
+    private static Set<AbstractPetriNetElementModel> setOf(AbstractPetriNetElementModel element) {
+        Set<AbstractPetriNetElementModel> set = new HashSet<AbstractPetriNetElementModel>();
+        set.add(element);
+        return set;
+    }
+}
@@ -0,0 +1,9 @@
+package org.woped.qualanalysis.service;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+
+@RunWith(Suite.class)
+@Suite.SuiteClasses({IncrementalQualanalysisServiceTest.class})
+public class AllTestsQualAnalysisService {
+}
@@ -0,0 +1,170 @@
+package org.woped.qualanalysis.service;
+
+import org.junit.Test;
+import org.woped.core.model.ArcModel;
+import org.woped.core.model.CreationMap;
+import org.woped.core.model.PetriNetModelProcessor;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+import org.woped.core.model.petrinet.PlaceModel;
+import org.woped.core.model.petrinet.SubProcessModel;
+import org.woped.editor.controller.vc.EditorVC;
+import org.woped.tests.TestNetGenerator;
+
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class IncrementalQualanalysisServiceTest {
+
+    @Test
+    public void getSourcePlaces_arcAdded_returnsNewSource() throws Exception {
+        EditorVC editor = new TestNetGenerator().getDemoEditor();
+        IncrementalQualanalysisService cut = new IncrementalQualanalysisService(editor);
+        assertEquals(1, cut.getSourcePlaces().size());
+
+        addPlace(editor.getModelProcessor(), "p3");
+        editor.getModelProcessor().createArc("p3", "t1");
+
+        assertEquals(2, cut.getSourcePlaces().size());
+        assertEquals(3, cut.getPlaces().size());
+    }
+
+    @Test
+    public void getPlaces_tStarAddedByAnalysis_keepsResults() throws Exception {
+        EditorVC editor = new TestNetGenerator().getDemoEditor();
+        IncrementalQualanalysisService cut = new IncrementalQualanalysisService(editor);
+        Set<AbstractPetriNetElementModel> places = cut.getPlaces();
+
+        // the structural analysis temporarily inserts t* into the net
+        cut.getNotStronglyConnectedNodes();
+
+        assertSame(places, cut.getPlaces());
+    }
+
+    @Test
+    public void getWronglyMarkedPlaces_tokensChangedAndRevalidated_returnsUpdatedResult() throws Exception {
+        EditorVC editor = new TestNetGenerator().getDemoEditor();
+        IncrementalQualanalysisService cut = new IncrementalQualanalysisService(editor);
+        assertEquals(1, cut.getWronglyMarkedPlaces().size());
+        Set<AbstractPetriNetElementModel> sourcePlaces = cut.getSourcePlaces();
+
+        PlaceModel source = (PlaceModel) editor.getModelProcessor().getElementContainer().getElementById("p1");
+        source.setTokens(1);
+        cut.revalidate();
+
+        assertTrue(cut.getWronglyMarkedPlaces().isEmpty());
+        assertSame(sourcePlaces, cut.getSourcePlaces());
+    }
+
+    @Test
+    public void getPlaces_afterCleanup_ignoresChanges() throws Exception {
+        EditorVC editor = new TestNetGenerator().getDemoEditor();
+        IncrementalQualanalysisService cut = new IncrementalQualanalysisService(editor);
+        assertEquals(2, cut.getPlaces().size());
+
+        cut.cleanup();
+        addPlace(editor.getModelProcessor(), "p3");
+
+        assertEquals(2, cut.getPlaces().size());
+    }
+
+    @Test
+    public void getResults_editSequence_equalsFreshAnalysis() throws Exception {
+        EditorVC editor = new TestNetGenerator().getDemoEditor();
+        PetriNetModelProcessor processor = editor.getModelProcessor();
+        IncrementalQualanalysisService cut = new IncrementalQualanalysisService(editor);
+        assertEqualResults(editor, cut);
+
+        addPlace(processor, "p3");
+        assertEqualResults(editor, cut);
+        addElement(processor, "t2", AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE);
+        assertEqualResults(editor, cut);
+        ArcModel arc = processor.createArc("p3", "t1");
+        assertEqualResults(editor, cut);
+        processor.createArc("p1", "t2");
+        assertEqualResults(editor, cut);
+        processor.createArc("t2", "p2");
+        assertEqualResults(editor, cut);
+        processor.removeArc(arc.getId());
+        assertEqualResults(editor, cut);
+        processor.removeElement("p3");
+        assertEqualResults(editor, cut);
+        processor.removeElement("t2");
+        assertEqualResults(editor, cut);
+    }
+
+    @Test
+    public void getSourcePlaces_arcAdded_updatesResultInPlace() throws Exception {
+        EditorVC editor = new TestNetGenerator().getDemoEditor();
+        IncrementalQualanalysisService cut = new IncrementalQualanalysisService(editor);
+        addPlace(editor.getModelProcessor(), "p3");
+        Set<AbstractPetriNetElementModel> sourcePlaces = cut.getSourcePlaces();
+        Set<Set<AbstractPetriNetElementModel>> connectedComponents = cut.getConnectedComponents();
+        assertEquals(2, connectedComponents.size());
+
+        editor.getModelProcessor().createArc("p2", "t1");
+        cut.revalidate();
+
+        assertSame(sourcePlaces, cut.getSourcePlaces());
+        assertSame(connectedComponents, cut.getConnectedComponents());
+        assertEquals(2, connectedComponents.size());
+    }
+
+    @Test
+    public void getStronglyConnectedComponents_subprocessNetChanged_returnsNewResult() throws Exception {
+        EditorVC editor = new TestNetGenerator().getDemoEditor();
+        addElement(editor.getModelProcessor(), "sub1", AbstractPetriNetElementModel.SUBP_TYPE);
+        IncrementalQualanalysisService cut = new IncrementalQualanalysisService(editor);
+        Set<AbstractPetriNetElementModel> places = cut.getPlaces();
+        Set<Set<AbstractPetriNetElementModel>> components = cut.getStronglyConnectedComponents();
+
+        SubProcessModel subprocess = (SubProcessModel) editor.getModelProcessor().getElementContainer()
+                .getElementById("sub1");
+        PlaceModel inner = new PlaceModel(CreationMap.createMap());
+        inner.setId("p9");
+        subprocess.getSimpleTransContainer().addElement(inner);
+
+        assertNotSame(components, cut.getStronglyConnectedComponents());
+        assertSame(places, cut.getPlaces());
+    }
+
+    @Test
+    public void getPlaces_containerCleared_returnsEmptyResult() throws Exception {
+        EditorVC editor = new TestNetGenerator().getDemoEditor();
+        IncrementalQualanalysisService cut = new IncrementalQualanalysisService(editor);
+        assertEquals(2, cut.getPlaces().size());
+
+        editor.getModelProcessor().getElementContainer().clear();
+
+        assertTrue(cut.getPlaces().isEmpty());
+        assertTrue(cut.getSourcePlaces().isEmpty());
+        assertEquals(0, cut.getNumArcs());
+    }
+
+    private void assertEqualResults(EditorVC editor, IQualanalysisService actual) {
+        IQualanalysisService expected = new QualanalysisServiceImplement(editor);
+        assertEquals(expected.getPlaces(), actual.getPlaces());
+        assertEquals(expected.getTransitions(), actual.getTransitions());
+        assertEquals(expected.getNumArcs(), actual.getNumArcs());
+        assertEquals(expected.getSourcePlaces(), actual.getSourcePlaces());
+        assertEquals(expected.getSinkPlaces(), actual.getSinkPlaces());
+        assertEquals(expected.getSourceTransitions(), actual.getSourceTransitions());
+        assertEquals(expected.getSinkTransitions(), actual.getSinkTransitions());
+        assertEquals(expected.getConnectedComponents(), actual.getConnectedComponents());
+        assertEquals(expected.getNotConnectedNodes(), actual.getNotConnectedNodes());
+        assertEquals(expected.getFreeChoiceViolations(), actual.getFreeChoiceViolations());
+        assertEquals(expected.getWronglyMarkedPlaces(), actual.getWronglyMarkedPlaces());
+        assertEquals(expected.getNotStronglyConnectedNodes(), actual.getNotStronglyConnectedNodes());
+    }
+
+    private void addPlace(PetriNetModelProcessor processor, String id) {
+        addElement(processor, id, AbstractPetriNetElementModel.PLACE_TYPE);
+    }
+
+    private void addElement(PetriNetModelProcessor processor, String id, int type) {
+        CreationMap map = CreationMap.createMap();
+        map.setType(type);
+        map.setId(id);
+        processor.createElement(map);
+    }
+}
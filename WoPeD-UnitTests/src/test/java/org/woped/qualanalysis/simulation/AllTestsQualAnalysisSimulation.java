@@ -4,6 +4,7 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
-@Suite.SuiteClasses({TokenGameControllerTest.class, TokenGameSessionTest.class})
+@Suite.SuiteClasses({EnabledTransitionsTest.class, TokenGameControllerTest.class, TokenGamePlayoutTest.class,
+        TokenGameSessionTest.class})
 public class AllTestsQualAnalysisSimulation {
 }
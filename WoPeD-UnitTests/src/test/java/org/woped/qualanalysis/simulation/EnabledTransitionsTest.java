@@ -0,0 +1,172 @@
+package org.woped.qualanalysis.simulation;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.woped.core.model.CreationMap;
+import org.woped.core.model.ModelElementContainer;
+import org.woped.core.model.PetriNetModelProcessor;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+import org.woped.core.model.petrinet.OperatorTransitionModel;
+import org.woped.core.model.petrinet.PlaceModel;
+import org.woped.core.model.petrinet.TransitionModel;
+import org.woped.core.model.petrinet.XORJoinSplitOperatorTransitionModel;
+import org.woped.tests.TestNetGenerator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.woped.core.model.petrinet.AbstractPetriNetElementModel.TRANS_OPERATOR_TYPE;
+
+public class EnabledTransitionsTest {
+
+    private TestNetGenerator netGenerator;
+
+    @Before
+    public void setUp() throws Exception {
+        netGenerator = new TestNetGenerator();
+    }
+
+    @Test
+    public void getEnabled_tokenInInputPlace_returnsTransition() throws Exception {
+        PetriNetModelProcessor net = createSequence();
+        place(net, "p1").setTokens(1);
+
+        EnabledTransitions sut = createTestInstance(net);
+
+        assertEquals(Collections.singletonList(transition(net, "t1")), sut.getEnabled());
+    }
+
+    @Test
+    public void update_tokenMoved_checksTransitionsOfChangedPlaces() throws Exception {
+        PetriNetModelProcessor net = createSequence();
+        place(net, "p1").setTokens(1);
+        EnabledTransitions sut = createTestInstance(net);
+
+        place(net, "p1").removeVirtualTokens(1);
+        sut.placeChanged(place(net, "p1"));
+        place(net, "p2").addVirtualTokens(1);
+        sut.placeChanged(place(net, "p2"));
+        sut.update();
+
+        assertEquals(Collections.singletonList(transition(net, "t2")), sut.getEnabled());
+        assertFalse(sut.isActivated(transition(net, "t1")));
+        assertTrue(sut.isActivated(transition(net, "t2")));
+    }
+
+    @Test
+    public void update_placeNotReported_keepsPreviousState() throws Exception {
+        PetriNetModelProcessor net = createSequence();
+        EnabledTransitions sut = createTestInstance(net);
+
+        place(net, "p1").addVirtualTokens(1);
+        sut.update();
+        assertTrue(sut.getEnabled().isEmpty());
+
+        sut.reset();
+        assertEquals(Collections.singletonList(transition(net, "t1")), sut.getEnabled());
+    }
+
+    @Test
+    public void update_notEnoughTokensForArcWeight_transitionNotEnabled() throws Exception {
+        PetriNetModelProcessor net = createSequence();
+        net.getElementContainer().findArc("p1", "t1").setInscriptionValue(2);
+        EnabledTransitions sut = createTestInstance(net);
+
+        place(net, "p1").addVirtualTokens(1);
+        sut.placeChanged(place(net, "p1"));
+        sut.update();
+        assertTrue(sut.getEnabled().isEmpty());
+
+        place(net, "p1").addVirtualTokens(1);
+        sut.placeChanged(place(net, "p1"));
+        sut.update();
+        assertEquals(Collections.singletonList(transition(net, "t1")), sut.getEnabled());
+    }
+
+    @Test
+    public void update_oneInputOfXorJoin_operatorEnabledButNotActivated() throws Exception {
+        PetriNetModelProcessor net = createOperatorNet(OperatorTransitionModel.XOR_JOIN_TYPE);
+        EnabledTransitions sut = createTestInstance(net);
+        TransitionModel t1 = transition(net, "t1");
+
+        place(net, "p2").addVirtualTokens(1);
+        sut.placeChanged(place(net, "p2"));
+        sut.update();
+
+        assertEquals(Collections.singletonList(t1), sut.getEnabled());
+        assertTrue(sut.hasActiveInput(t1));
+        assertFalse(sut.isActivated(t1));
+        assertEquals(t1.isActivated(), sut.isActivated(t1));
+    }
+
+    @Test
+    public void update_tokenInCenterPlace_xorJoinSplitEnabled() throws Exception {
+        PetriNetModelProcessor net = createOperatorNet(OperatorTransitionModel.XORJOIN_XORSPLIT_TYPE);
+        EnabledTransitions sut = createTestInstance(net);
+        XORJoinSplitOperatorTransitionModel t1 = (XORJoinSplitOperatorTransitionModel) transition(net, "t1");
+        assertTrue(sut.getEnabled().isEmpty());
+
+        t1.getCenterPlace().addVirtualTokens(1);
+        sut.update();
+
+        assertEquals(Collections.singletonList((TransitionModel) t1), sut.getEnabled());
+    }
+
+    @Test
+    public void getEnabled_severalEnabled_keepsOrderOfTransitions() throws Exception {
+        PetriNetModelProcessor net = netGenerator.createNetWithoutArcs(3, 3);
+        net.createArc("p1", "t1");
+        net.createArc("p2", "t2");
+        net.createArc("p3", "t3");
+        place(net, "p1").setTokens(1);
+        place(net, "p3").setTokens(1);
+        List<AbstractPetriNetElementModel> transitions = Arrays.<AbstractPetriNetElementModel>asList(transition(net, "t3"), transition(net, "t2"), transition(net, "t1"));
+
+        EnabledTransitions sut = new EnabledTransitions(net.getElementContainer(), transitions);
+
+        assertEquals(Arrays.asList(transition(net, "t3"), transition(net, "t1")), sut.getEnabled());
+    }
+
+    private EnabledTransitions createTestInstance(PetriNetModelProcessor net) {
+        ModelElementContainer container = net.getElementContainer();
+        Map<String, AbstractPetriNetElementModel> transitions = container.getElementsByType(AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE);
+        transitions.putAll(container.getElementsByType(AbstractPetriNetElementModel.TRANS_OPERATOR_TYPE));
+        return new EnabledTransitions(container, transitions.values());
+    }
+
+    private PlaceModel place(PetriNetModelProcessor net, String id) {
+        return (PlaceModel) net.getElementContainer().getElementById(id);
+    }
+
+    private TransitionModel transition(PetriNetModelProcessor net, String id) {
+        return (TransitionModel) net.getElementContainer().getElementById(id);
+    }
+
+    private PetriNetModelProcessor createSequence() {
+        PetriNetModelProcessor processor = netGenerator.createNetWithoutArcs(3, 2);
+        processor.createArc("p1", "t1");
+        processor.createArc("t1", "p2");
+        processor.createArc("p2", "t2");
+        processor.createArc("t2", "p3");
+        return processor;
+    }
+
+    private PetriNetModelProcessor createOperatorNet(int operatorType) {
+        PetriNetModelProcessor processor = netGenerator.createNetWithoutArcs(3, 0);
+
+        CreationMap transitionMap = CreationMap.createMap();
+        transitionMap.setType(TRANS_OPERATOR_TYPE);
+        transitionMap.setOperatorType(operatorType);
+        transitionMap.setId("t1");
+        processor.createElement(transitionMap);
+
+        processor.createArc("p1", "t1");
+        processor.createArc("p2", "t1");
+        processor.createArc("t1", "p3");
+
+        return processor;
+    }
+}
@@ -0,0 +1,370 @@
+package org.woped.qualanalysis.simulation;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.woped.core.controller.HeadlessEditor;
+import org.woped.core.controller.IEditor;
+import org.woped.core.model.ArcModel;
+import org.woped.core.model.CreationMap;
+import org.woped.core.model.ModelElementContainer;
+import org.woped.core.model.PetriNetModelProcessor;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+import org.woped.core.model.petrinet.OperatorTransitionModel;
+import org.woped.core.model.petrinet.PlaceModel;
+import org.woped.core.model.petrinet.TransitionModel;
+import org.woped.file.PNMLImport;
+import org.woped.qualanalysis.soundness.datamodel.LowLevelPetriNet;
+import org.woped.qualanalysis.soundness.datamodel.PlaceNode;
+import org.woped.qualanalysis.soundness.datamodel.TransitionNode;
+import org.woped.tests.TestNetGenerator;
+
+import java.beans.PropertyChangeSupport;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TokenGamePlayoutTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void run_exhaustive_returnsEveryCompleteSequence() throws Exception {
+        TokenGamePlayout sut = new TokenGamePlayout(createChoiceNet().compile());
+        sut.setStrategy(TokenGamePlayout.Strategy.EXHAUSTIVE);
+        sut.setParallelism(2);
+
+        Set<List<String>> traces = new HashSet<>();
+        for ( PlayoutTrace trace : collect(sut) ) {
+            assertTrue(trace.isComplete());
+            traces.add(trace.getLabels());
+        }
+
+        Set<List<String>> expected = new HashSet<>();
+        expected.add(Arrays.asList("a", "c"));
+        expected.add(Arrays.asList("b", "c"));
+        assertEquals(expected, traces);
+    }
+
+    @Test
+    public void run_exhaustiveCycle_dropsSequencesReachingMaxLength() throws Exception {
+        TokenGamePlayout sut = new TokenGamePlayout(createLoopNet().compile());
+        sut.setStrategy(TokenGamePlayout.Strategy.EXHAUSTIVE);
+        sut.setMaxLength(5);
+
+        // loop, exit: one trace per number of loops fitting into the maximum length
+        List<PlayoutTrace> traces = collect(sut);
+
+        assertEquals(5, traces.size());
+    }
+
+    @Test
+    public void run_randomSameSeed_sameTracesForAnyParallelism() throws Exception {
+        TokenGamePlayout sut = new TokenGamePlayout(createLoopNet().compile());
+        sut.setTraceCount(200);
+        sut.setSeed(42);
+
+        sut.setParallelism(1);
+        Map<Long, List<String>> single = byIndex(collect(sut));
+        sut.setParallelism(4);
+        Map<Long, List<String>> parallel = byIndex(collect(sut));
+
+        assertEquals(200, single.size());
+        assertEquals(single, parallel);
+    }
+
+    @Test
+    public void run_randomCycle_cutsTraceAtMaxLength() throws Exception {
+        LowLevelPetriNet net = new LowLevelPetriNet();
+        PlaceNode p1 = place(net, "p1", 1);
+        TransitionNode loop = transition(net, "loop");
+        connect(p1, loop);
+        connect(loop, p1);
+        TokenGamePlayout sut = new TokenGamePlayout(net.compile());
+        sut.setTraceCount(1);
+        sut.setMaxLength(7);
+
+        PlayoutTrace trace = collect(sut).get(0);
+
+        assertEquals(7, trace.size());
+        assertFalse(trace.isComplete());
+    }
+
+    @Test
+    public void run_weightZero_transitionNeverFired() throws Exception {
+        TokenGamePlayout sut = new TokenGamePlayout(createChoiceNet().compile());
+        sut.setStrategy(TokenGamePlayout.Strategy.WEIGHTED);
+        sut.setWeight("b", 0);
+        sut.setTraceCount(100);
+
+        for ( PlayoutTrace trace : collect(sut) ) {
+            assertEquals(Arrays.asList("a", "c"), trace.getLabels());
+        }
+    }
+
+    @Test
+    public void run_exhaustiveTruncated_sameTracesForAnyParallelism() throws Exception {
+        TokenGamePlayout sut = new TokenGamePlayout(createLoopNet().compile());
+        sut.setStrategy(TokenGamePlayout.Strategy.EXHAUSTIVE);
+        sut.setMaxLength(12);
+        sut.setTraceCount(4);
+
+        sut.setParallelism(1);
+        List<List<String>> single = labels(collect(sut));
+        sut.setParallelism(4);
+        List<List<String>> parallel = labels(collect(sut));
+
+        assertEquals(Arrays.asList("exit"), single.get(0));
+        assertEquals(4, single.size());
+        assertEquals(single, parallel);
+    }
+
+    @Test
+    public void toSimulationModel_xorSplitAndJoin_replaysInTokenGame() throws Exception {
+        PetriNetModelProcessor net = new TestNetGenerator().createNetWithoutArcs(4, 0);
+        createOperator(net, "t1", OperatorTransitionModel.XOR_SPLIT_TYPE);
+        createOperator(net, "t2", OperatorTransitionModel.XOR_JOIN_TYPE);
+        net.createArc("p1", "t1");
+        net.createArc("t1", "p2");
+        net.createArc("t1", "p3");
+        net.createArc("p2", "t2");
+        net.createArc("p3", "t2");
+        net.createArc("t2", "p4");
+
+        assertReplays(net, 2);
+    }
+
+    @Test
+    public void toSimulationModel_xorJoinXorSplit_replaysInTokenGame() throws Exception {
+        PetriNetModelProcessor net = new TestNetGenerator().createNetWithoutArcs(4, 0);
+        createOperator(net, "t1", OperatorTransitionModel.XORJOIN_XORSPLIT_TYPE);
+        net.createArc("p1", "t1");
+        net.createArc("p2", "t1");
+        net.createArc("t1", "p3");
+        net.createArc("t1", "p4");
+
+        // the token is moved into the center place and out of it by two clicks on arcs
+        assertReplays(net, 2);
+    }
+
+    @Test
+    public void toSimulationModel_subProcess_followedByTransitionsOfSubProcess() throws Exception {
+        PetriNetModelProcessor net;
+        try (InputStream is = getClass().getResourceAsStream("/org/woped/file/samples/Subprocesses.pnml")) {
+            net = new PNMLImport(null).importHeadless(is, true)[0];
+        }
+        TokenGamePlayout sut = TokenGamePlayout.createPlayout(new HeadlessEditor(net));
+        sut.setStrategy(TokenGamePlayout.Strategy.EXHAUSTIVE);
+
+        Set<List<String>> histories = new HashSet<>();
+        for ( PlayoutTrace trace : collect(sut) ) {
+            assertTrue(trace.isComplete());
+            List<String> history = new ArrayList<>();
+            for ( TransitionModel item : trace.toSimulationModel(net.getElementContainer(), "s", "s").getOccuredTransitions() ) {
+                history.add(item.getId());
+            }
+            histories.add(history);
+        }
+
+        Set<List<String>> expected = new HashSet<>();
+        for ( String choice : Arrays.asList("sub1_t2", "sub1_t3") ) {
+            List<String> subProcess = Arrays.asList("sub1", "sub1_t1", choice, "sub1_sub1", "sub1_sub1_t2", "sub1_sub1_t3");
+            List<String> before = new ArrayList<>(Arrays.asList("t1", "t2"));
+            before.addAll(subProcess);
+            before.add("t3");
+            List<String> after = new ArrayList<>(Collections.singletonList("t1"));
+            after.addAll(subProcess);
+            after.addAll(Arrays.asList("t2", "t3"));
+            expected.add(before);
+            expected.add(after);
+        }
+        assertEquals(expected, histories);
+    }
+
+    @Test
+    public void writeTo_file_writesOneLinePerTrace() throws Exception {
+        TokenGamePlayout sut = new TokenGamePlayout(createChoiceNet().compile());
+        sut.setStrategy(TokenGamePlayout.Strategy.EXHAUSTIVE);
+        Path file = folder.newFile("traces.txt").toPath();
+
+        long count = sut.writeTo(file);
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(2, count);
+        assertEquals(new HashSet<>(Arrays.asList("a\tc", "b\tc")), new HashSet<>(lines));
+    }
+
+    @Test
+    public void iterator_closedEarly_stopsPlayout() throws Exception {
+        TokenGamePlayout sut = new TokenGamePlayout(createLoopNet().compile());
+        sut.setTraceCount(1000000);
+
+        TokenGamePlayout.TraceIterator iterator = sut.iterator();
+        int read = 0;
+        while ( iterator.hasNext() && read < 10 ) {
+            iterator.next();
+            read++;
+        }
+        iterator.close();
+
+        assertEquals(10, read);
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void iterator_readToEnd_returnsAllTraces() throws Exception {
+        TokenGamePlayout sut = new TokenGamePlayout(createLoopNet().compile());
+        sut.setTraceCount(3000);
+
+        TokenGamePlayout.TraceIterator iterator = sut.iterator();
+        int read = 0;
+        while ( iterator.hasNext() ) {
+            iterator.next();
+            read++;
+        }
+
+        assertEquals(3000, read);
+    }
+
+    private List<PlayoutTrace> collect(TokenGamePlayout playout) throws IOException, InterruptedException {
+        final List<PlayoutTrace> traces = new ArrayList<>();
+        playout.run(new PlayoutSink() {
+            @Override
+            public void accept(PlayoutTrace trace) {
+                traces.add(trace);
+            }
+        });
+        return traces;
+    }
+
+    private List<List<String>> labels(List<PlayoutTrace> traces) {
+        List<List<String>> result = new ArrayList<>();
+        for ( PlayoutTrace trace : traces ) {
+            result.add(trace.getLabels());
+        }
+        return result;
+    }
+
+    /*
+     * Plays every trace of the net exhaustively and replays its simulation by clicking the arcs like the token game
+     */
+    private void assertReplays(PetriNetModelProcessor net, int expectedTraces) throws Exception {
+        ((PlaceModel) net.getElementContainer().getElementById("p1")).setTokens(1);
+        IEditor editor = mock(IEditor.class);
+        when(editor.getModelProcessor()).thenReturn(net);
+        TokenGameController controller = new TokenGameController(editor, new PropertyChangeSupport(editor));
+        TokenGamePlayout sut = TokenGamePlayout.createPlayout(new HeadlessEditor(net));
+        sut.setStrategy(TokenGamePlayout.Strategy.EXHAUSTIVE);
+        ModelElementContainer container = net.getElementContainer();
+
+        List<PlayoutTrace> traces = collect(sut);
+        for ( PlayoutTrace trace : traces ) {
+            net.resetVirtualTokens();
+            for ( TransitionModel item : trace.toSimulationModel(container, "s", "s").getOccuredTransitions() ) {
+                // the token game identifies the clicks on arcs by the first character of the id
+                assertEquals('a', item.getId().charAt(0));
+                ArcModel arc = container.getArcById(item.getId());
+                assertNotNull(arc);
+                controller.executeOperators(arc);
+            }
+            int total = 0;
+            for ( AbstractPetriNetElementModel place : container.getElementsByType(AbstractPetriNetElementModel.PLACE_TYPE).values() ) {
+                assertTrue(((PlaceModel) place).getVirtualTokenCount() >= 0);
+                total += ((PlaceModel) place).getVirtualTokenCount();
+            }
+            // a token left in a center place would be missing here
+            assertEquals(1, total);
+            assertEquals(0, ((PlaceModel) container.getElementById("p1")).getVirtualTokenCount());
+        }
+        assertEquals(expectedTraces, traces.size());
+    }
+
+    private void createOperator(PetriNetModelProcessor net, String id, int operatorType) {
+        CreationMap map = CreationMap.createMap();
+        map.setId(id);
+        map.setType(AbstractPetriNetElementModel.TRANS_OPERATOR_TYPE);
+        map.setOperatorType(operatorType);
+        net.createElement(map);
+    }
+
+    private Map<Long, List<String>> byIndex(List<PlayoutTrace> traces) {
+        Map<Long, List<String>> result = new TreeMap<>();
+        for ( PlayoutTrace trace : traces ) {
+            result.put(trace.getIndex(), trace.getLabels());
+        }
+        return result;
+    }
+
+    /*
+     * p1 -> a|b -> p2 -> c -> p3
+     */
+    private LowLevelPetriNet createChoiceNet() {
+        LowLevelPetriNet net = new LowLevelPetriNet();
+        PlaceNode p1 = place(net, "p1", 1);
+        PlaceNode p2 = place(net, "p2", 0);
+        PlaceNode p3 = place(net, "p3", 0);
+        TransitionNode a = transition(net, "a");
+        TransitionNode b = transition(net, "b");
+        TransitionNode c = transition(net, "c");
+        connect(p1, a);
+        connect(p1, b);
+        connect(a, p2);
+        connect(b, p2);
+        connect(p2, c);
+        connect(c, p3);
+        return net;
+    }
+
+    /*
+     * p1 -> loop -> p1, p1 -> exit -> p2
+     */
+    private LowLevelPetriNet createLoopNet() {
+        LowLevelPetriNet net = new LowLevelPetriNet();
+        PlaceNode p1 = place(net, "p1", 1);
+        PlaceNode p2 = place(net, "p2", 0);
+        TransitionNode loop = transition(net, "loop");
+        TransitionNode exit = transition(net, "exit");
+        connect(p1, loop);
+        connect(loop, p1);
+        connect(p1, exit);
+        connect(exit, p2);
+        return net;
+    }
+
+    private PlaceNode place(LowLevelPetriNet net, String id, int tokens) {
+        PlaceNode place = new PlaceNode(tokens, tokens, id, id, id);
+        net.addNode(place);
+        return place;
+    }
+
+    private TransitionNode transition(LowLevelPetriNet net, String id) {
+        TransitionNode transition = new TransitionNode(id, id, id, AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE);
+        net.addNode(transition);
+        return transition;
+    }
+
+    private void connect(PlaceNode place, TransitionNode transition) {
+        place.addSuccessorNode(transition);
+        transition.addPredecessorNode(place);
+    }
+
+    private void connect(TransitionNode transition, PlaceNode place) {
+        transition.addSuccessorNode(place);
+        place.addPredecessorNode(transition);
+    }
+}
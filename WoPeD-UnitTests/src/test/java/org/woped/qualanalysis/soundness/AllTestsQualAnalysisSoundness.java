@@ -2,10 +2,15 @@ package org.woped.qualanalysis.soundness;
 
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
+import org.woped.qualanalysis.soundness.algorithms.basedonlowlevelpetrinet.scomponent.MemoizedSComponentTestTest;
+import org.woped.qualanalysis.soundness.builder.currentmarking.AllTestsQualAnalysisSoundnessBuilderCurrentMarking;
+import org.woped.qualanalysis.soundness.builder.markingnet.AllTestsQualAnalysisSoundnessBuilderMarkingNet;
 import org.woped.qualanalysis.soundness.datamodel.AllTestsQualAnalysisSoundnessDatamodel;
 import org.woped.qualanalysis.soundness.marking.AllTestsQualAnalysisSoundnessMarking;
 
 @RunWith(Suite.class)
-@Suite.SuiteClasses({AllTestsQualAnalysisSoundnessDatamodel.class, AllTestsQualAnalysisSoundnessMarking.class})
+@Suite.SuiteClasses({AllTestsQualAnalysisSoundnessDatamodel.class, AllTestsQualAnalysisSoundnessMarking.class,
+        AllTestsQualAnalysisSoundnessBuilderMarkingNet.class, AllTestsQualAnalysisSoundnessBuilderCurrentMarking.class,
+        MemoizedSComponentTestTest.class})
 public class AllTestsQualAnalysisSoundness {
 }
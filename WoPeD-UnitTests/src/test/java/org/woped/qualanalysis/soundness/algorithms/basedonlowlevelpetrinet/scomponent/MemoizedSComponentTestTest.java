@@ -0,0 +1,107 @@
+package org.woped.qualanalysis.soundness.algorithms.basedonlowlevelpetrinet.scomponent;
+
+import org.junit.Test;
+import org.woped.qualanalysis.soundness.datamodel.AbstractNode;
+import org.woped.qualanalysis.soundness.datamodel.LowLevelPetriNet;
+import org.woped.qualanalysis.soundness.datamodel.PlaceNode;
+import org.woped.qualanalysis.soundness.datamodel.TransitionNode;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class MemoizedSComponentTestTest {
+
+    private final LowLevelPetriNet net = new LowLevelPetriNet();
+
+    @Test
+    public void getSComponents_parallelBranches_returnsOneComponentPerBranch() {
+        // p1 -> t1 -> (p2 -> t2 -> p4 | p3 -> t3 -> p5) -> t4 -> p6 -> t* -> p1
+        connect("p1", "t1", "p2", "p3");
+        connect("p2", "t2", "p4");
+        connect("p3", "t3", "p5");
+        transition("t4");
+        connect("p4", "t4", "p6");
+        connect("p5", "t4", "p6");
+        connect("p6", "t*", "p1");
+
+        MemoizedSComponentTest sut = new MemoizedSComponentTest(net);
+
+        Set<Set<AbstractNode>> expected = new HashSet<>();
+        expected.add(nodes("p1", "t1", "p2", "t2", "p4", "t4", "p6", "t*"));
+        expected.add(nodes("p1", "t1", "p3", "t3", "p5", "t4", "p6", "t*"));
+        assertEquals(expected, sut.getSComponents());
+        assertTrue(sut.getNotSCovered().isEmpty());
+    }
+
+    @Test
+    public void getNotSCovered_deadEndPlace_returnsThatPlace() {
+        // p1 -> t1 -> p2 -> t* -> p1, t1 also marks p3 which has no successor
+        connect("p1", "t1", "p2", "p3");
+        connect("p2", "t*", "p1");
+
+        MemoizedSComponentTest sut = new MemoizedSComponentTest(net);
+
+        assertEquals(new HashSet<>(Arrays.asList(place("p3"))), sut.getNotSCovered());
+        assertEquals(1, sut.getSComponents().size());
+    }
+
+    @Test
+    public void getSComponents_randomNets_sameResultAsSComponentTest() {
+        Random random = new Random(7);
+        for (int run = 0; run < 50; run++) {
+            LowLevelPetriNet randomNet = createRandomNet(random, 6, 5);
+
+            SComponentTest expected = new SComponentTest(randomNet);
+            MemoizedSComponentTest actual = new MemoizedSComponentTest(randomNet);
+
+            assertEquals("run " + run, expected.getSComponents(), actual.getSComponents());
+            assertEquals("run " + run, expected.getNotSCovered(), actual.getNotSCovered());
+        }
+    }
+
+    private LowLevelPetriNet createRandomNet(Random random, int placeCount, int transitionCount) {
+        LowLevelPetriNet result = new LowLevelPetriNet();
+        PlaceNode[] places = new PlaceNode[placeCount];
+        for (int i = 0; i < placeCount; i++) {
+            places[i] = result.getPlaceNode(new PlaceNode(0, 0, "p" + i, "p" + i, "p" + i));
+        }
+        for (int i = 0; i < transitionCount; i++) {
+            TransitionNode transition = result.getTransitionNode(new TransitionNode("t" + i, "t" + i, "t" + i, 0));
+            for (int j = random.nextInt(2); j >= 0; j--) {
+                places[random.nextInt(placeCount)].addSuccessorNode(transition);
+            }
+            for (int j = random.nextInt(3); j >= 0; j--) {
+                transition.addSuccessorNode(places[random.nextInt(placeCount)]);
+            }
+        }
+        return result;
+    }
+
+    private void connect(String in, String transition, String... out) {
+        TransitionNode node = transition(transition);
+        place(in).addSuccessorNode(node);
+        for (String place : out) {
+            node.addSuccessorNode(place(place));
+        }
+    }
+
+    private PlaceNode place(String id) {
+        return net.getPlaceNode(new PlaceNode(0, 0, id, id, id));
+    }
+
+    private TransitionNode transition(String id) {
+        return net.getTransitionNode(new TransitionNode(id, id, id, 0));
+    }
+
+    private Set<AbstractNode> nodes(String... ids) {
+        Set<AbstractNode> result = new HashSet<>();
+        for (String id : ids) {
+            result.add(id.startsWith("p") ? place(id) : transition(id));
+        }
+        return result;
+    }
+}
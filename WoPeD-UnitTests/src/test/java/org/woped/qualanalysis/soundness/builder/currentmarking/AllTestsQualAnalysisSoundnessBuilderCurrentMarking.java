@@ -0,0 +1,9 @@
+package org.woped.qualanalysis.soundness.builder.currentmarking;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+
+@RunWith(Suite.class)
+@Suite.SuiteClasses({CurrentMarkingIndexTest.class})
+public class AllTestsQualAnalysisSoundnessBuilderCurrentMarking {
+}
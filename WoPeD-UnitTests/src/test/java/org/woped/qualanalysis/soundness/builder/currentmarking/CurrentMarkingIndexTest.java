@@ -0,0 +1,109 @@
+package org.woped.qualanalysis.soundness.builder.currentmarking;
+
+import org.junit.Test;
+import org.woped.core.controller.HeadlessEditor;
+import org.woped.core.controller.IEditor;
+import org.woped.core.model.CreationMap;
+import org.woped.core.model.PetriNetModelProcessor;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+import org.woped.core.model.petrinet.OperatorTransitionModel;
+import org.woped.core.model.petrinet.PlaceModel;
+import org.woped.qualanalysis.soundness.builder.BuilderFactory;
+import org.woped.qualanalysis.soundness.datamodel.LowLevelPetriNet;
+import org.woped.qualanalysis.soundness.datamodel.PlaceNode;
+import org.woped.qualanalysis.soundness.marking.IMarking;
+import org.woped.tests.TestNetGenerator;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class CurrentMarkingIndexTest {
+
+    @Test
+    public void getMarking_virtualTokensChanged_returnsCurrentTokens() throws Exception {
+        PetriNetModelProcessor net = new TestNetGenerator().createNetWithoutArcs(2, 0);
+        CurrentMarkingIndex sut = new CurrentMarkingIndex(createLowLevelNet(net), places(net));
+
+        PlaceModel p2 = (PlaceModel) net.getElementContainer().getElementById("p2");
+        p2.addVirtualTokens(3);
+        IMarking marking = sut.getMarking(true);
+
+        assertEquals(Integer.valueOf(0), marking.getMarking().get("p1"));
+        assertEquals(Integer.valueOf(3), marking.getMarking().get("p2"));
+        assertEquals(Integer.valueOf(0), sut.getMarking(false).getMarking().get("p2"));
+    }
+
+    @Test
+    public void getMarking_sameTokensAsCurrentMarking_markingsAreEqual() throws Exception {
+        PetriNetModelProcessor net = new TestNetGenerator().createNetWithoutArcs(2, 0);
+        ((PlaceModel) net.getElementContainer().getElementById("p1")).setTokens(2);
+        LowLevelPetriNet lolNet = createLowLevelNet(net);
+
+        CurrentMarkingIndex sut = new CurrentMarkingIndex(lolNet, places(net));
+
+        assertEquals(new CurrentMarking(lolNet, true).getMarking(), sut.getMarking(true));
+    }
+
+    @Test
+    public void getMarking_tokenMovedIntoXorOperator_returnsTokenOfCenterPlace() throws Exception {
+        PetriNetModelProcessor net = new TestNetGenerator().createNetWithoutArcs(4, 0);
+        CreationMap map = CreationMap.createMap();
+        map.setId("op1");
+        map.setType(AbstractPetriNetElementModel.TRANS_OPERATOR_TYPE);
+        map.setOperatorType(OperatorTransitionModel.XORJOIN_XORSPLIT_TYPE);
+        net.createElement(map);
+        net.createArc("p1", "op1");
+        net.createArc("p2", "op1");
+        net.createArc("op1", "p3");
+        net.createArc("op1", "p4");
+        PlaceModel p1 = (PlaceModel) net.getElementContainer().getElementById("p1");
+        p1.setTokens(1);
+        p1.setVirtualTokens(1);
+        IEditor editor = new HeadlessEditor(net);
+        CurrentMarkingIndex sut = BuilderFactory.createCurrentMarkingIndex(editor);
+
+        // fire the inner transition from p1 to the center place, as the token game does for a click on the arc
+        OperatorTransitionModel operator = (OperatorTransitionModel) net.getElementContainer().getElementById("op1");
+        p1.removeVirtualTokens(1);
+        operator.getCenterPlace().addVirtualTokens(1);
+        IMarking marking = sut.getMarking(true);
+
+        assertEquals(Integer.valueOf(0), marking.getMarking().get("p1"));
+        assertEquals(Integer.valueOf(1), marking.getMarking().get(operator.getCenterPlace().getId()));
+        assertEquals(BuilderFactory.createCurrentMarking(BuilderFactory.createLowLevelPetriNetWithoutTStarBuilder(editor)
+                .getLowLevelPetriNet(), true), marking);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_placeWithoutModel_throwsException() throws Exception {
+        PetriNetModelProcessor net = new TestNetGenerator().createNetWithoutArcs(1, 0);
+        LowLevelPetriNet lolNet = createLowLevelNet(net);
+        lolNet.addNode(new PlaceNode(0, 4, "p1_op_center", "center", "p1"));
+
+        new CurrentMarkingIndex(lolNet, places(net));
+    }
+
+    private Map<String, PlaceModel> places(PetriNetModelProcessor net) {
+        Map<String, PlaceModel> places = new HashMap<>();
+        for (AbstractPetriNetElementModel place : placeModels(net)) {
+            places.put(place.getId(), (PlaceModel) place);
+        }
+        return places;
+    }
+
+    private Collection<AbstractPetriNetElementModel> placeModels(PetriNetModelProcessor net) {
+        return net.getElementContainer().getElementsByType(AbstractPetriNetElementModel.PLACE_TYPE).values();
+    }
+
+    private LowLevelPetriNet createLowLevelNet(PetriNetModelProcessor net) {
+        LowLevelPetriNet lolNet = new LowLevelPetriNet();
+        for (AbstractPetriNetElementModel element : placeModels(net)) {
+            PlaceModel place = (PlaceModel) element;
+            lolNet.addNode(new PlaceNode(place.getTokenCount(), place.getVirtualTokenCount(), place.getId(), place.getNameValue(), place.getId()));
+        }
+        return lolNet;
+    }
+}
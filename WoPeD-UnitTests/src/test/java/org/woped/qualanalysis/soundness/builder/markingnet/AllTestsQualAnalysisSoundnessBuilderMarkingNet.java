@@ -0,0 +1,9 @@
+package org.woped.qualanalysis.soundness.builder.markingnet;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+
+@RunWith(Suite.class)
+@Suite.SuiteClasses({KarpMillerMarkingNetBuilderTest.class, ParallelMarkingNetBuilderTest.class})
+public class AllTestsQualAnalysisSoundnessBuilderMarkingNet {
+}
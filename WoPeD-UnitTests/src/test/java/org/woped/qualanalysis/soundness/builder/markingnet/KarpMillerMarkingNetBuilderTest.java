@@ -0,0 +1,125 @@
+package org.woped.qualanalysis.soundness.builder.markingnet;
+
+import org.junit.Test;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+import org.woped.qualanalysis.soundness.builder.BuilderFactory;
+import org.woped.qualanalysis.soundness.datamodel.LowLevelPetriNet;
+import org.woped.qualanalysis.soundness.datamodel.PlaceNode;
+import org.woped.qualanalysis.soundness.datamodel.TransitionNode;
+import org.woped.qualanalysis.soundness.marking.IMarking;
+import org.woped.qualanalysis.soundness.marking.IMarkingNet;
+import org.woped.qualanalysis.soundness.marking.Marking;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class KarpMillerMarkingNetBuilderTest {
+
+    private static final String W = Marking.UNBOUND_SIGN;
+
+    @Test
+    public void createMarkingNet_boundedNet_containsAllReachableMarkings() throws Exception {
+        LowLevelPetriNet net = createNet(1, 0, 0);
+        connect(net, "t1", new String[]{"p1"}, new int[]{1}, new String[]{"p2"}, new int[]{1});
+        connect(net, "t2", new String[]{"p2"}, new int[]{1}, new String[]{"p3"}, new int[]{1});
+
+        IMarkingNet cut = new KarpMillerMarkingNetBuilder(net).getMarkingNet();
+
+        assertEquals(asSet("( 1 0 0 )", "( 0 1 0 )", "( 0 0 1 )"), vectorsOf(cut));
+    }
+
+    @Test
+    public void createMarkingNet_boundedNet_sameMarkingsAsBookAlgorithm() throws Exception {
+        LowLevelPetriNet net = createNet(2, 0, 0);
+        connect(net, "t1", new String[]{"p1"}, new int[]{1}, new String[]{"p2"}, new int[]{1});
+        connect(net, "t2", new String[]{"p2"}, new int[]{1}, new String[]{"p3"}, new int[]{1});
+        connect(net, "t3", new String[]{"p3"}, new int[]{1}, new String[]{"p1"}, new int[]{1});
+
+        IMarkingNet expected = BuilderFactory.createMarkingNet(net, MarkingNetAlgorithm.BOOK);
+        IMarkingNet actual = BuilderFactory.createMarkingNet(net, MarkingNetAlgorithm.KARP_MILLER);
+
+        assertEquals(vectorsOf(expected), vectorsOf(actual));
+        assertEquals(6, actual.getMarkings().size());
+    }
+
+    @Test
+    public void createMarkingNet_markingCoversAncestor_placeBecomesUnbound() throws Exception {
+        LowLevelPetriNet net = createNet(1, 0, 0);
+        connect(net, "t1", new String[]{"p1"}, new int[]{1}, new String[]{"p2"}, new int[]{1});
+        connect(net, "t2", new String[]{"p2"}, new int[]{1}, new String[]{"p1", "p3"}, new int[]{1, 1});
+
+        IMarkingNet cut = new KarpMillerMarkingNetBuilder(net).getMarkingNet();
+
+        String unboundP3 = String.format("( 1 0 %s )", W);
+        String unboundP3AfterT1 = String.format("( 0 1 %s )", W);
+        assertEquals(asSet("( 1 0 0 )", "( 0 1 0 )", unboundP3, unboundP3AfterT1), vectorsOf(cut));
+    }
+
+    @Test
+    public void createMarkingNet_accelerationEnablesOlderAncestor_allPlacesBecomeUnbound() throws Exception {
+        // ( 1 0 0 ) -t1-> ( 0 5 0 ) -t2-> ( 1 1 1 ): the new marking only covers the initial marking, after
+        // accelerating p2 it also covers ( 0 5 0 ) which makes p1 unbound
+        LowLevelPetriNet net = createNet(1, 0, 0);
+        connect(net, "t1", new String[]{"p1"}, new int[]{1}, new String[]{"p2"}, new int[]{5});
+        connect(net, "t2", new String[]{"p2"}, new int[]{4}, new String[]{"p1", "p3"}, new int[]{1, 1});
+
+        IMarkingNet cut = new KarpMillerMarkingNetBuilder(net).getMarkingNet();
+
+        assertTrue(vectorsOf(cut).contains(String.format("( %s %s %s )", W, W, W)));
+    }
+
+    @Test
+    public void createMarkingNet_unboundedNet_newMarkingsHavePredecessors() throws Exception {
+        LowLevelPetriNet net = createNet(1, 0, 0);
+        connect(net, "t1", new String[]{"p1"}, new int[]{1}, new String[]{"p1", "p2"}, new int[]{1, 1});
+
+        IMarkingNet cut = new KarpMillerMarkingNetBuilder(net).getMarkingNet();
+
+        assertEquals(2, cut.getMarkings().size());
+        for ( IMarking marking : cut.getMarkings() ) {
+            if ( marking.isInitial() ) continue;
+            assertEquals(cut.getInitialMarking(), marking.getPredecessor());
+        }
+    }
+
+    private LowLevelPetriNet createNet(int... tokens) {
+        LowLevelPetriNet net = new LowLevelPetriNet();
+        for ( int i = 0; i < tokens.length; i++ ) {
+            String id = "p" + (i + 1);
+            net.addNode(new PlaceNode(tokens[i], tokens[i], id, id, id));
+        }
+        return net;
+    }
+
+    private void connect(LowLevelPetriNet net, String id, String[] pre, int[] preWeights, String[] post,
+                         int[] postWeights) {
+        TransitionNode transition = new TransitionNode(id, id, id, AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE);
+        net.addNode(transition);
+
+        for ( int i = 0; i < pre.length; i++ ) {
+            net.getPlaceNode(new PlaceNode(0, 0, pre[i], "", "")).addSuccessorNode(transition, preWeights[i]);
+        }
+        for ( int i = 0; i < post.length; i++ ) {
+            transition.addSuccessorNode(net.getPlaceNode(new PlaceNode(0, 0, post[i], "", "")), postWeights[i]);
+        }
+    }
+
+    private Set<String> vectorsOf(IMarkingNet markingNet) {
+        Set<String> result = new HashSet<>();
+        for ( IMarking marking : markingNet.getMarkings() ) {
+            result.add(marking.asTokenVectorString());
+        }
+        return result;
+    }
+
+    private Set<String> asSet(String... values) {
+        Set<String> result = new HashSet<>();
+        for ( String value : values ) {
+            result.add(value);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,114 @@
+package org.woped.qualanalysis.soundness.builder.markingnet;
+
+import org.junit.Test;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+import org.woped.qualanalysis.soundness.builder.BuilderFactory;
+import org.woped.qualanalysis.soundness.datamodel.LowLevelPetriNet;
+import org.woped.qualanalysis.soundness.datamodel.PlaceNode;
+import org.woped.qualanalysis.soundness.datamodel.TransitionNode;
+import org.woped.qualanalysis.soundness.marking.IMarking;
+import org.woped.qualanalysis.soundness.marking.IMarkingNet;
+import org.woped.qualanalysis.soundness.marking.Marking;
+import org.woped.qualanalysis.soundness.marking.MarkingNet;
+import org.woped.qualanalysis.soundness.marking.MarkingStore;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelMarkingNetBuilderTest {
+
+    @Test
+    public void createMarkingNet_independentBranches_containsAllCombinations() throws Exception {
+        LowLevelPetriNet net = createIndependentBranches(10);
+
+        IMarkingNet cut = new ParallelMarkingNetBuilder(net, 4).getMarkingNet();
+
+        assertEquals(1024, cut.getMarkings().size());
+    }
+
+    @Test
+    public void createMarkingNet_boundedNet_sameIdsAsBookAlgorithm() throws Exception {
+        LowLevelPetriNet net = createIndependentBranches(6);
+
+        IMarkingNet expected = BuilderFactory.createMarkingNet(net, MarkingNetAlgorithm.BOOK);
+        IMarkingNet actual = BuilderFactory.createParallelMarkingNet(net, 4);
+
+        assertEquals(vectorsById(expected), vectorsById(actual));
+        assertEquals(arcCount(expected), arcCount(actual));
+    }
+
+    @Test
+    public void createMarkingNet_differentParallelism_sameIds() throws Exception {
+        LowLevelPetriNet net = createIndependentBranches(8);
+
+        IMarkingNet singleThreaded = new ParallelMarkingNetBuilder(net, 1).getMarkingNet();
+        IMarkingNet multiThreaded = new ParallelMarkingNetBuilder(net, 8).getMarkingNet();
+
+        assertEquals(vectorsById(singleThreaded), vectorsById(multiThreaded));
+    }
+
+    @Test
+    public void createMarkingNet_unboundedNet_placeBecomesUnbound() throws Exception {
+        LowLevelPetriNet net = new LowLevelPetriNet();
+        PlaceNode p1 = new PlaceNode(1, 1, "p1", "p1", "p1");
+        PlaceNode p2 = new PlaceNode(0, 0, "p2", "p2", "p2");
+        TransitionNode t1 = new TransitionNode("t1", "t1", "t1", AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE);
+        net.addNode(p1);
+        net.addNode(p2);
+        net.addNode(t1);
+        p1.addSuccessorNode(t1);
+        t1.addSuccessorNode(p1);
+        t1.addSuccessorNode(p2);
+
+        IMarkingNet cut = new ParallelMarkingNetBuilder(net, 2).getMarkingNet();
+
+        assertEquals(2, cut.getMarkings().size());
+        assertTrue(vectorsById(cut).get(1).startsWith(String.format("( 1 %s )", Marking.UNBOUND_SIGN)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_parallelismZero_throwsException() throws Exception {
+        new ParallelMarkingNetBuilder(createIndependentBranches(1), 0);
+    }
+
+    /**
+     * Creates a net with {@code count} places marked with one token, each of them followed by its own transition and
+     * output place.
+     */
+    private LowLevelPetriNet createIndependentBranches(int count) {
+        LowLevelPetriNet net = new LowLevelPetriNet();
+        for ( int i = 0; i < count; i++ ) {
+            PlaceNode in = new PlaceNode(1, 1, "a" + i, "a" + i, "a" + i);
+            PlaceNode out = new PlaceNode(0, 0, "b" + i, "b" + i, "b" + i);
+            TransitionNode transition = new TransitionNode("t" + i, "t" + i, "t" + i,
+                    AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE);
+            net.addNode(in);
+            net.addNode(out);
+            net.addNode(transition);
+            in.addSuccessorNode(transition);
+            transition.addSuccessorNode(out);
+        }
+        return net;
+    }
+
+    private List<String> vectorsById(IMarkingNet markingNet) {
+        MarkingStore store = ((MarkingNet) markingNet).getStore();
+        List<String> result = new ArrayList<>();
+        for ( int i = 0; i < store.size(); i++ ) {
+            IMarking marking = store.view(i);
+            result.add(marking.asTokenVectorString() + " <- " + marking.getPredecessor());
+        }
+        return result;
+    }
+
+    private int arcCount(IMarkingNet markingNet) {
+        int count = 0;
+        for ( IMarking marking : markingNet.getMarkings() ) {
+            count += marking.getSuccessors().size();
+        }
+        return count;
+    }
+}
@@ -4,6 +4,7 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
-@Suite.SuiteClasses({LowLevelPetriNetTest.class, PlaceNodeTest.class, TransitionNodeTest.class, PlaceNodeComparatorTest.class})
+@Suite.SuiteClasses({LowLevelPetriNetTest.class, PlaceNodeTest.class, TransitionNodeTest.class, PlaceNodeComparatorTest.class,
+        CompiledPetriNetTest.class})
 public class AllTestsQualAnalysisSoundnessDatamodel {
 }
@@ -0,0 +1,113 @@
+package org.woped.qualanalysis.soundness.datamodel;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompiledPetriNetTest {
+
+    private LowLevelPetriNet net;
+    private PlaceNode p1;
+    private PlaceNode p2;
+    private TransitionNode t1;
+    private TransitionNode t2;
+
+    @Before
+    public void setUp() throws Exception {
+        net = new LowLevelPetriNet();
+        p1 = new PlaceNode(2, 0, "p1", "p1", "p1");
+        p2 = new PlaceNode(0, 0, "p2", "p2", "p2");
+        t1 = new TransitionNode("t1", "t1", "t1", AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE);
+        t2 = new TransitionNode("t2", "t2", "t2", AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE);
+
+        net.addNode(p1);
+        net.addNode(p2);
+        net.addNode(t1);
+        net.addNode(t2);
+
+        // t1 consumes two tokens from p1 and produces one token on p2, t2 is a self loop on p2
+        p1.addSuccessorNode(t1, 2);
+        t1.addSuccessorNode(p2);
+        p2.addSuccessorNode(t2);
+        t2.addSuccessorNode(p2);
+    }
+
+    @Test
+    public void isEnabled_enoughTokens_returnsTrue() throws Exception {
+        CompiledPetriNet cut = net.compile();
+
+        assertTrue(cut.isEnabled(cut.indexOf(t1), new int[]{2, 0}, 0));
+    }
+
+    @Test
+    public void isEnabled_arcWeightNotCovered_returnsFalse() throws Exception {
+        CompiledPetriNet cut = net.compile();
+
+        assertFalse(cut.isEnabled(cut.indexOf(t1), new int[]{1, 0}, 0));
+    }
+
+    @Test
+    public void isEnabled_unboundPlace_returnsTrue() throws Exception {
+        CompiledPetriNet cut = net.compile();
+
+        assertTrue(cut.isEnabled(cut.indexOf(t2), new int[]{0, CompiledPetriNet.OMEGA}, 0));
+    }
+
+    @Test
+    public void isEnabled_vectorWithOffset_usesVectorAtOffset() throws Exception {
+        CompiledPetriNet cut = net.compile();
+
+        assertTrue(cut.isEnabled(cut.indexOf(t1), new int[]{0, 0, 2, 0}, 2));
+    }
+
+    @Test
+    public void fire_weightedArc_resultUsesWeight() throws Exception {
+        CompiledPetriNet cut = net.compile();
+        int[] result = new int[2];
+
+        cut.fire(cut.indexOf(t1), new int[]{3, 0}, 0, result);
+
+        assertArrayEquals(new int[]{1, 1}, result);
+    }
+
+    @Test
+    public void fire_unboundPlace_placeStaysUnbound() throws Exception {
+        CompiledPetriNet cut = net.compile();
+        int[] result = new int[2];
+
+        cut.fire(cut.indexOf(t1), new int[]{CompiledPetriNet.OMEGA, 0}, 0, result);
+
+        assertArrayEquals(new int[]{CompiledPetriNet.OMEGA, 1}, result);
+    }
+
+    @Test
+    public void compile_selfLoop_hasNoDelta() throws Exception {
+        CompiledPetriNet cut = net.compile();
+        int t = cut.indexOf(t2);
+
+        assertEquals(1, cut.getPreEnd(t) - cut.getPreOffset(t));
+        assertEquals(0, cut.getDeltaEnd(t) - cut.getDeltaOffset(t));
+    }
+
+    @Test
+    public void compile_nodeAddedAfterCompilation_netIsCompiledAgain() throws Exception {
+        CompiledPetriNet first = net.compile();
+
+        net.addNode(new PlaceNode(0, 0, "p3", "p3", "p3"));
+
+        assertEquals(3, net.compile().getPlaceCount());
+        assertEquals(2, first.getPlaceCount());
+    }
+
+    @Test
+    public void getInitialTokens_placesWithTokens_returnsTokenCounts() throws Exception {
+        CompiledPetriNet cut = net.compile();
+
+        assertArrayEquals(new int[]{2, 0}, cut.getInitialTokens());
+    }
+}
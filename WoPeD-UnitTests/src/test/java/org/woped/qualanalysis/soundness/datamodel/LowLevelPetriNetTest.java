@@ -2,9 +2,15 @@ package org.woped.qualanalysis.soundness.datamodel;
 
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.SortedSet;
 
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 @SuppressWarnings("UnnecessaryLocalVariable")
 public class LowLevelPetriNetTest {
@@ -34,4 +40,40 @@ public class LowLevelPetriNetTest {
 
         assertEquals(expected, actual);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getTransitions_transitionAdded_returnsShortLexOrder() throws Exception {
+        LowLevelPetriNet net = new LowLevelPetriNet();
+        TransitionNode t10 = new TransitionNode("t10", "t10", "t10", AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE);
+        TransitionNode t2 = new TransitionNode("t2", "t2", "t2", AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE);
+        TransitionNode t1 = new TransitionNode("t1", "t1", "t1", AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE);
+        net.addNode(t10);
+        net.addNode(t2);
+        net.getTransitions();
+
+        net.addNode(t1);
+
+        assertEquals(Arrays.asList(t1, t2, t10), new ArrayList<>(net.getTransitions()));
+    }
+
+    @Test
+    public void compile_arcAddedAfterCompile_containsArc() throws Exception {
+        LowLevelPetriNet net = new LowLevelPetriNet();
+        PlaceNode p1 = new PlaceNode(1, 0, "p1", "p1", "p1");
+        PlaceNode p2 = new PlaceNode(0, 0, "p2", "p2", "p2");
+        TransitionNode t1 = new TransitionNode("t1", "t1", "t1", AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE);
+        net.addNode(p1);
+        net.addNode(p2);
+        net.addNode(t1);
+        net.compile();
+
+        p1.addSuccessorNode(t1, 1);
+        t1.addSuccessorNode(p2, 1);
+        CompiledPetriNet cut = net.compile();
+        int[] result = new int[2];
+
+        assertTrue(cut.isEnabled(cut.indexOf(t1), new int[]{1, 0}, 0));
+        cut.fire(cut.indexOf(t1), new int[]{1, 0}, 0, result);
+        assertArrayEquals(new int[]{0, 1}, result);
+    }
+}
@@ -5,6 +5,6 @@ import org.junit.runners.Suite;
 import org.woped.core.utilities.ShortLexStringComparatorTest;
 
 @RunWith(Suite.class)
-@Suite.SuiteClasses({MarkingNetTest.class, MarkingTest.class})
+@Suite.SuiteClasses({MarkingNetTest.class, MarkingStoreTest.class, MarkingTest.class})
 public class AllTestsQualAnalysisSoundnessMarking {
 }
@@ -0,0 +1,133 @@
+package org.woped.qualanalysis.soundness.marking;
+
+import org.junit.Test;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+import org.woped.qualanalysis.soundness.datamodel.PlaceNode;
+import org.woped.qualanalysis.soundness.datamodel.TransitionNode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MarkingStoreTest {
+
+    @Test
+    public void find_vectorNotAdded_returnsMinusOne() throws Exception {
+        MarkingStore cut = createDemoStore();
+
+        assertEquals(-1, cut.find(new int[]{1, 0, 0}));
+    }
+
+    @Test
+    public void intern_sameVectorTwice_returnsSameIndex() throws Exception {
+        MarkingStore cut = createDemoStore();
+
+        int first = cut.intern(new int[]{1, 0, 0});
+        int second = cut.intern(new int[]{1, 0, 0});
+
+        assertEquals(first, second);
+        assertEquals(1, cut.size());
+    }
+
+    @Test
+    public void add_manyVectors_allVectorsCanBeFound() throws Exception {
+        MarkingStore cut = createDemoStore();
+
+        for (int i = 0; i < 1000; i++) {
+            cut.add(new int[]{i, i % 7, MarkingStore.OMEGA});
+        }
+
+        assertEquals(1000, cut.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, cut.find(new int[]{i, i % 7, MarkingStore.OMEGA}));
+        }
+    }
+
+    @Test
+    public void setToken_internedMarking_markingIsFoundByNewVector() throws Exception {
+        MarkingStore cut = createDemoStore();
+        int index = cut.add(new int[]{1, 0, 0});
+        cut.add(new int[]{0, 1, 0});
+
+        cut.setToken(index, 2, 3);
+
+        assertEquals(-1, cut.find(new int[]{1, 0, 0}));
+        assertEquals(index, cut.find(new int[]{1, 0, 3}));
+    }
+
+    @Test
+    public void addEdge_edgesOfDifferentMarkings_edgesAreGroupedBySource() throws Exception {
+        MarkingStore cut = createDemoStore();
+        int m0 = cut.add(new int[]{1, 0, 0});
+        int m1 = cut.add(new int[]{0, 1, 0});
+        int m2 = cut.add(new int[]{0, 0, 1});
+
+        cut.addEdge(m1, m2, 1);
+        cut.addEdge(m0, m1, 0);
+        cut.addEdge(m2, m0, 1);
+
+        assertEquals(1, cut.getEndEdge(m0) - cut.getFirstEdge(m0));
+        assertEquals(m1, cut.getEdgeTargets()[cut.getFirstEdge(m0)]);
+        assertEquals(m2, cut.getEdgeTargets()[cut.getFirstEdge(m1)]);
+        assertEquals(1, cut.getEdgeTriggers()[cut.getFirstEdge(m2)]);
+    }
+
+    @Test
+    public void addEdge_afterCompaction_previousEdgesAreKept() throws Exception {
+        MarkingStore cut = createDemoStore();
+        int m0 = cut.add(new int[]{1, 0, 0});
+        int m1 = cut.add(new int[]{0, 1, 0});
+        cut.addEdge(m0, m1, 0);
+        cut.getEdgeTargets();
+
+        int m2 = cut.add(new int[]{0, 0, 1});
+        cut.addEdge(m0, m2, 1);
+
+        assertEquals(2, cut.getEndEdge(m0) - cut.getFirstEdge(m0));
+        assertEquals(0, cut.getEndEdge(m2) - cut.getFirstEdge(m2));
+        assertEquals(m2, cut.getEdgeTargets()[cut.getFirstEdge(m0) + 1]);
+    }
+
+    @Test
+    public void view_storedMarkingWithOmega_placeIsUnbound() throws Exception {
+        MarkingStore cut = createDemoStore();
+        int index = cut.add(new int[]{1, MarkingStore.OMEGA, 0});
+
+        IMarking marking = cut.view(index);
+
+        assertTrue(marking.isPlaceUnbound(cut.getPlaces()[1]));
+        assertFalse(marking.isPlaceUnbound(cut.getPlaces()[0]));
+        assertEquals("( 1 " + Marking.UNBOUND_SIGN + " 0 )", marking.asTokenVectorString());
+    }
+
+    @Test
+    public void view_sameIndexTwice_viewsAreEqual() throws Exception {
+        MarkingStore cut = createDemoStore();
+        int index = cut.add(new int[]{1, 0, 0});
+
+        assertEquals(cut.view(index), cut.view(index));
+        assertEquals(cut.view(index).hashCode(), cut.view(index).hashCode());
+    }
+
+    @Test
+    public void asSet_detachedEqualMarking_isContained() throws Exception {
+        MarkingStore cut = createDemoStore();
+        cut.add(new int[]{1, 0, 0});
+
+        IMarking detached = new Marking(new int[]{1, 0, 0}, cut.getPlaces(), new boolean[]{false, false, false});
+
+        assertTrue(cut.asSet().contains(detached));
+        assertEquals(1, cut.asSet().size());
+    }
+
+    private MarkingStore createDemoStore() {
+        PlaceNode[] places = new PlaceNode[]{
+                new PlaceNode(0, 0, "p1", "p1", "p1"),
+                new PlaceNode(0, 0, "p2", "p2", "p2"),
+                new PlaceNode(0, 0, "p3", "p3", "p3")};
+        TransitionNode[] transitions = new TransitionNode[]{
+                new TransitionNode("t1", "t1", "t1", AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE),
+                new TransitionNode("t2", "t2", "t2", AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE)};
+        return new MarkingStore(places, transitions);
+    }
+}
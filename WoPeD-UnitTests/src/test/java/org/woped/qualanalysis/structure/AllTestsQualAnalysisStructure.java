@@ -2,8 +2,9 @@ package org.woped.qualanalysis.structure;
 
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
+import org.woped.qualanalysis.structure.components.HandleDetectorTest;
 
 @RunWith(Suite.class)
-@Suite.SuiteClasses({StructuralAnalysisTest.class})
+@Suite.SuiteClasses({StructuralAnalysisTest.class, NetConnectivityTest.class, ShortCircuitedNetTest.class, HandleDetectorTest.class})
 public class AllTestsQualAnalysisStructure {
 }
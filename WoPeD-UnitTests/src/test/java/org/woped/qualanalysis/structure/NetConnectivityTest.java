@@ -0,0 +1,100 @@
+package org.woped.qualanalysis.structure;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.woped.core.model.ModelElementContainer;
+import org.woped.core.model.PetriNetModelProcessor;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+import org.woped.tests.TestNetGenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class NetConnectivityTest {
+
+    private ModelElementContainer container;
+    private NetConnectivity sut;
+
+    @Before
+    public void setup() {
+        // p1 -> t1 -> p2 -> t2 -> p3 and the isolated place p4
+        PetriNetModelProcessor processor = new TestNetGenerator().createNetWithoutArcs(4, 2);
+        processor.createArc("p1", "t1");
+        processor.createArc("t1", "p2");
+        processor.createArc("p2", "t2");
+        processor.createArc("t2", "p3");
+        container = processor.getElementContainer();
+
+        sut = new NetConnectivity(container.getRootElements());
+    }
+
+    @Test
+    public void getUnconnectedNodes_isolatedPlace_returnsOnlyThatPlace() {
+        Set<AbstractPetriNetElementModel> expected = elements("p4");
+
+        assertEquals(expected, sut.getUnconnectedNodes(element("p1")));
+    }
+
+    @Test
+    public void getNotStronglyConnectedNodes_sequence_returnsAllOtherNodes() {
+        Set<AbstractPetriNetElementModel> expected = elements("p1", "t1", "t2", "p3", "p4");
+
+        assertEquals(expected, sut.getNotStronglyConnectedNodes(element("p2")));
+    }
+
+    @Test
+    public void getNotStronglyConnectedNodes_unknownNode_returnsEmptySet() {
+        assertTrue(sut.getNotStronglyConnectedNodes(null).isEmpty());
+    }
+
+    @Test
+    public void isConnected_isolatedPlace_returnsFalse() {
+        assertFalse(sut.isConnected(element("p1")));
+    }
+
+    @Test
+    public void isStronglyConnected_cycle_returnsTrue() {
+        PetriNetModelProcessor processor = new TestNetGenerator().createSimpleNet();
+        processor.createArc("p2", "t1");
+        container = processor.getElementContainer();
+        List<AbstractPetriNetElementModel> cycle = new ArrayList<>(elements("t1", "p2"));
+
+        assertTrue(new NetConnectivity(cycle).isStronglyConnected(element("t1")));
+    }
+
+    @Test
+    public void getDistance_directed_returnsNumberOfArcs() {
+        assertEquals(4, sut.getDistance(element("p1"), element("p3"), false));
+        assertEquals(-1, sut.getDistance(element("p3"), element("p1"), false));
+    }
+
+    @Test
+    public void getDistance_ignoreArcDirection_returnsNumberOfArcs() {
+        assertEquals(4, sut.getDistance(element("p3"), element("p1"), true));
+        assertEquals(-1, sut.getDistance(element("p3"), element("p4"), true));
+    }
+
+    @Test
+    public void getShortestRoute_directed_returnsRouteInOrder() {
+        List<AbstractPetriNetElementModel> expected = Arrays.asList(element("t1"), element("p2"), element("t2"));
+
+        assertEquals(expected, sut.getShortestRoute(element("t1"), element("t2"), false));
+    }
+
+    private AbstractPetriNetElementModel element(String id) {
+        return container.getElementById(id);
+    }
+
+    private Set<AbstractPetriNetElementModel> elements(String... ids) {
+        Set<AbstractPetriNetElementModel> result = new HashSet<>();
+        for (String id : ids) {
+            result.add(element(id));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,87 @@
+package org.woped.qualanalysis.structure;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.woped.core.model.ModelElementContainer;
+import org.woped.core.model.PetriNetModelProcessor;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+import org.woped.tests.TestNetGenerator;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class ShortCircuitedNetTest {
+
+    private ModelElementContainer container;
+    private ShortCircuitedNet sut;
+
+    @Before
+    public void setup() {
+        // p1 -> t1 -> p2
+        PetriNetModelProcessor processor = new TestNetGenerator().createSimpleNet();
+        container = processor.getElementContainer();
+
+        sut = new ShortCircuitedNet(new TopLevelNetGraph(container), element("p1"), element("p2"));
+    }
+
+    @Test
+    public void getSuccessors_sink_containsTStar() {
+        Set<AbstractPetriNetElementModel> expected = Collections.<AbstractPetriNetElementModel>singleton(sut.getTStar());
+
+        assertEquals(expected, sut.getSuccessors(element("p2")));
+        assertEquals(Collections.singleton(element("p1")), sut.getSuccessors(sut.getTStar()));
+    }
+
+    @Test
+    public void getPredecessors_source_containsTStar() {
+        Set<AbstractPetriNetElementModel> expected = Collections.<AbstractPetriNetElementModel>singleton(sut.getTStar());
+
+        assertEquals(expected, sut.getPredecessors(element("p1")));
+        assertEquals(Collections.singleton(element("p2")), sut.getPredecessors(sut.getTStar()));
+    }
+
+    @Test
+    public void getArcWeight_tStarArcs_returnsOne() {
+        assertEquals(1, sut.getArcWeight(element("p2"), sut.getTStar()));
+        assertEquals(1, sut.getArcWeight(sut.getTStar(), element("p1")));
+        assertEquals(0, sut.getArcWeight(sut.getTStar(), element("p2")));
+        assertEquals(1, sut.getArcWeight(element("p1"), element("t1")));
+    }
+
+    @Test
+    public void shortCircuit_containerIsNotModified() {
+        int elements = container.getRootElements().size();
+        int arcs = container.getArcMap().size();
+
+        sut.getSuccessors(element("p2"));
+
+        assertNull(container.getElementById(ShortCircuitedNet.TSTAR_ID));
+        assertEquals(elements, container.getRootElements().size());
+        assertEquals(arcs, container.getArcMap().size());
+        assertTrue(container.getOutgoingArcs("p2").isEmpty());
+    }
+
+    @Test
+    public void isShortCircuited_noUniqueSink_tStarNotConnected() {
+        sut = new ShortCircuitedNet(new TopLevelNetGraph(container), element("p1"), null);
+
+        assertFalse(sut.isShortCircuited());
+        assertTrue(sut.getSuccessors(sut.getTStar()).isEmpty());
+        assertFalse(sut.getPredecessors(element("p1")).contains(sut.getTStar()));
+    }
+
+    @Test
+    public void netConnectivity_shortCircuitedNet_isStronglyConnected() {
+        Set<AbstractPetriNetElementModel> nodes = new HashSet<>(container.getRootElements());
+        nodes.add(sut.getTStar());
+
+        assertTrue(new NetConnectivity(nodes, sut).isStronglyConnected(sut.getTStar()));
+    }
+
+    private AbstractPetriNetElementModel element(String id) {
+        return container.getElementById(id);
+    }
+}
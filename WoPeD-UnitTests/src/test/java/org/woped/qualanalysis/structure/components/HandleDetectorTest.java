@@ -0,0 +1,132 @@
+package org.woped.qualanalysis.structure.components;
+
+import org.junit.Test;
+import org.woped.core.model.CreationMap;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+import org.woped.core.model.petrinet.PlaceModel;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class HandleDetectorTest {
+
+    private final List<AbstractPetriNetElementModel> elements = new ArrayList<>();
+    private final LowLevelNet net = new LowLevelNet();
+
+    @Test
+    public void getMaxFlow_twoDisjointPaths_returnsTwo() {
+        createNodes(4);
+        connect(0, 1);
+        connect(0, 2);
+        connect(1, 3);
+        connect(2, 3);
+
+        HandleDetector sut = new HandleDetector(net, 1);
+
+        assertEquals(2, sut.getMaxFlow(source(0), sink(3), Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void getMaxFlow_pathsShareNode_returnsOne() {
+        createNodes(5);
+        connect(0, 1);
+        connect(0, 2);
+        connect(1, 3);
+        connect(2, 3);
+        connect(3, 4);
+
+        HandleDetector sut = new HandleDetector(net, 1);
+
+        assertEquals(1, sut.getMaxFlow(source(0), sink(4), Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void getMaxFlow_limitReached_stopsAtLimit() {
+        createNodes(5);
+        for (int i = 1; i < 4; i++) {
+            connect(0, i);
+            connect(i, 4);
+        }
+
+        HandleDetector sut = new HandleDetector(net, 1);
+
+        assertEquals(3, sut.getMaxFlow(source(0), sink(4), Integer.MAX_VALUE));
+        assertEquals(2, sut.getMaxFlow(source(0), sink(4), 2));
+    }
+
+    @Test
+    public void findHandles_sinkNotReachable_noHandle() {
+        createNodes(4);
+        connect(0, 1);
+        connect(0, 2);
+        connect(3, 1);
+
+        HandleDetector sut = new HandleDetector(net, 1);
+        BitSet[] handles = sut.findHandles(new int[]{source(0)}, new int[]{sink(3)});
+
+        assertTrue(handles[0].isEmpty());
+    }
+
+    @Test
+    public void findHandles_randomNet_matchesLowLevelNetMaxFlow() {
+        int size = 30;
+        createNodes(size);
+        Random random = new Random(42);
+        boolean[][] connected = new boolean[size][size];
+        for (int i = 0; i < size * 3; i++) {
+            int from = random.nextInt(size);
+            int to = random.nextInt(size);
+            if (from != to && !connected[from][to]) {
+                connected[from][to] = true;
+                connect(from, to);
+            }
+        }
+
+        HandleDetector sut = new HandleDetector(net, 4);
+        int[] sources = new int[size];
+        int[] sinks = new int[size];
+        for (int i = 0; i < size; i++) {
+            sources[i] = source(i);
+            sinks[i] = sink(i);
+        }
+        BitSet[] handles = sut.findHandles(sources, sinks);
+
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                int flow = net.getMaxFlow(net.getNodeForElement(elements.get(i), false),
+                        net.getNodeForElement(elements.get(j), true));
+                assertEquals("handle " + i + " -> " + j, flow > 1, handles[i].get(j));
+            }
+        }
+    }
+
+    private void createNodes(int count) {
+        for (int i = 0; i < count; i++) {
+            PlaceModel element = new PlaceModel(new CreationMap());
+            element.setId("n" + i);
+            elements.add(element);
+
+            FlowNode first = new FlowNode(element, true);
+            FlowNode second = new FlowNode(element, false);
+            net.addNode(first);
+            net.addNode(second);
+            net.addArc(first, second);
+        }
+    }
+
+    private void connect(int from, int to) {
+        net.addArc(net.getNodeForElement(elements.get(from), false), net.getNodeForElement(elements.get(to), true));
+    }
+
+    private int source(int element) {
+        return new HandleDetector(net, 1).indexOf(net.getNodeForElement(elements.get(element), false));
+    }
+
+    private int sink(int element) {
+        return new HandleDetector(net, 1).indexOf(net.getNodeForElement(elements.get(element), true));
+    }
+}
@@ -0,0 +1,16 @@
+package org.woped.quantana;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.woped.quantana.dashboard.storage.LiveMetricsBufferTest;
+import org.woped.quantana.dashboard.webserver.ThinServerTest;
+import org.woped.quantana.graph.VisitCountSolverTest;
+import org.woped.quantana.resourcealloc.ResourceUtilizationTest;
+import org.woped.quantana.sim.SimLogSinkTest;
+import org.woped.quantana.sim.SimRandomStreamsTest;
+import org.woped.quantana.sim.SimReplicationRunnerTest;
+
+@RunWith(Suite.class)
+@Suite.SuiteClasses({LiveMetricsBufferTest.class, ThinServerTest.class, VisitCountSolverTest.class, ResourceUtilizationTest.class, SimLogSinkTest.class, SimRandomStreamsTest.class, SimReplicationRunnerTest.class})
+public class AllTestsQuantAna {
+}
@@ -0,0 +1,136 @@
+package org.woped.quantana.dashboard.storage;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class LiveMetricsBufferTest {
+
+    @Test
+    public void constructor_capacityNotPowerOfTwo_roundsUp() {
+        assertEquals(8, new LiveMetricsBuffer(5).getCapacity());
+        assertEquals(8, new LiveMetricsBuffer(8).getCapacity());
+        assertEquals(1, new LiveMetricsBuffer(1).getCapacity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_zeroCapacity_throws() {
+        new LiveMetricsBuffer(0);
+    }
+
+    @Test
+    public void read_publishedMetrics_returnsThemInOrder() {
+        LiveMetricsBuffer sut = new LiveMetricsBuffer(8);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i, sut.publish(metric(i)));
+        }
+
+        List<LiveMetricsBuffer.Entry> entries = sut.read(1, 10);
+
+        assertEquals(2, entries.size());
+        assertEquals(1, entries.get(0).getSequence());
+        assertEquals(1, entries.get(0).getMetric().getRun());
+        assertEquals(2, entries.get(1).getMetric().getRun());
+        assertEquals(3, sut.getNextSequence());
+    }
+
+    @Test
+    public void publish_listenerAdded_runsListenerUntilRemoved() {
+        LiveMetricsBuffer sut = new LiveMetricsBuffer(8);
+        final int[] calls = new int[1];
+        Runnable listener = new Runnable() {
+            @Override
+            public void run() {
+                calls[0]++;
+            }
+        };
+
+        sut.addListener(listener);
+        sut.publish(metric(0));
+        sut.publish(metric(1));
+        sut.removeListener(listener);
+        sut.publish(metric(2));
+
+        assertEquals(2, calls[0]);
+    }
+
+    @Test
+    public void read_max_limitsEntries() {
+        LiveMetricsBuffer sut = new LiveMetricsBuffer(8);
+        for (int i = 0; i < 5; i++) {
+            sut.publish(metric(i));
+        }
+
+        assertEquals(2, sut.read(0, 2).size());
+        assertTrue(sut.read(5, 2).isEmpty());
+    }
+
+    @Test
+    public void read_readerFellBehind_continuesWithOldestAvailable() {
+        LiveMetricsBuffer sut = new LiveMetricsBuffer(4);
+        for (int i = 0; i < 10; i++) {
+            sut.publish(metric(i));
+        }
+
+        List<LiveMetricsBuffer.Entry> entries = sut.read(0, 10);
+
+        assertEquals(4, entries.size());
+        assertEquals(6, entries.get(0).getSequence());
+        assertEquals(9, entries.get(3).getSequence());
+    }
+
+    @Test
+    public void publish_concurrentProducers_keepsEverySequence() throws InterruptedException {
+        final LiveMetricsBuffer sut = new LiveMetricsBuffer(4096);
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] producers = new Thread[4];
+        for (int t = 0; t < producers.length; t++) {
+            final int run = t;
+            producers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < 1000; i++) {
+                        sut.publish(metric(run));
+                    }
+                }
+            });
+            producers[t].start();
+        }
+        start.countDown();
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        List<LiveMetricsBuffer.Entry> entries = sut.read(0, 5000);
+
+        assertEquals(4000, entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            assertEquals(i, entries.get(i).getSequence());
+        }
+    }
+
+    @Test
+    public void toJson_metric_containsServersAndResources() {
+        LiveMetric metric = new LiveMetric(LiveMetric.TYPE_PROGRESS, 1, 12.5, 3, 0.5);
+        metric.addServer("t1", 2, 1);
+        metric.addResource("clerk", 0.75);
+
+        String json = metric.toJson();
+
+        assertTrue(json, json.contains("\"type\":\"progress\""));
+        assertTrue(json, json.contains("\"queueLengths\":{\"t1\":2}"));
+        assertTrue(json, json.contains("\"utilization\":{\"clerk\":0.75}"));
+    }
+
+    private static LiveMetric metric(int run) {
+        return new LiveMetric(LiveMetric.TYPE_RUN, run, 0, 0, 0);
+    }
+}
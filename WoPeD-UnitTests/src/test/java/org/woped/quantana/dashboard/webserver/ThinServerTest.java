@@ -0,0 +1,387 @@
+package org.woped.quantana.dashboard.webserver;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.woped.quantana.dashboard.storage.LiveMetric;
+import org.woped.quantana.dashboard.storage.LiveMetricsBuffer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ThinServerTest {
+
+    private ThinServer sut;
+    private CountDownLatch slowRequestReleased;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setup() {
+        slowRequestReleased = new CountDownLatch(1);
+        sut = ThinServer.createServer(0);
+        sut.addAction(new ThinServerAction() {
+            @Override
+            public String getActionpathListenPattern() {
+                return "^/echo.*";
+            }
+
+            @Override
+            public void doAction(Request request, Response response) {
+                response.addContent("echo " + request.getParameter("text"));
+            }
+        });
+        sut.addAction(new ThinServerAction() {
+            @Override
+            public String getActionpathListenPattern() {
+                return "^/slow.*";
+            }
+
+            @Override
+            public void doAction(Request request, Response response) {
+                try {
+                    slowRequestReleased.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                response.addContent("slow");
+            }
+        });
+        sut.getPort();
+        Thread acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                sut.start();
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    @After
+    public void tearDown() {
+        slowRequestReleased.countDown();
+        sut.shutDown();
+    }
+
+    @Test
+    public void start_keepAlive_answersRequestsOnSameConnection() throws IOException {
+        try (Socket socket = new Socket("localhost", sut.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            InputStream in = socket.getInputStream();
+
+            out.write(get("/echo?text=one", "HTTP/1.1"));
+            out.write(get("/echo?text=two", "HTTP/1.1"));
+            out.flush();
+
+            assertEquals("echo one", readBody(in));
+            assertEquals("echo two", readBody(in));
+        }
+    }
+
+    @Test
+    public void start_http11_sendsChunkedResponse() throws IOException {
+        try (Socket socket = new Socket("localhost", sut.getPort())) {
+            socket.getOutputStream().write(get("/echo?text=chunk", "HTTP/1.1"));
+
+            Map<String, String> headers = readHeaders(socket.getInputStream());
+
+            assertEquals("chunked", headers.get("transfer-encoding"));
+            assertEquals("keep-alive", headers.get("connection"));
+        }
+    }
+
+    @Test
+    public void start_http10_sendsContentLengthAndCloses() throws IOException {
+        try (Socket socket = new Socket("localhost", sut.getPort())) {
+            socket.getOutputStream().write(get("/echo?text=old", "HTTP/1.0"));
+            InputStream in = socket.getInputStream();
+
+            assertEquals("echo old", readBody(in));
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    public void start_slowRequest_answersOtherConnections() throws IOException {
+        try (Socket slow = new Socket("localhost", sut.getPort());
+             Socket fast = new Socket("localhost", sut.getPort())) {
+            slow.getOutputStream().write(get("/slow", "HTTP/1.1"));
+            fast.setSoTimeout(5000);
+            fast.getOutputStream().write(get("/echo?text=fast", "HTTP/1.1"));
+
+            assertEquals("echo fast", readBody(fast.getInputStream()));
+
+            slowRequestReleased.countDown();
+            assertEquals("slow", readBody(slow.getInputStream()));
+        }
+    }
+
+    @Test
+    public void start_moreIdleKeepAliveConnectionsThanWorkers_answersAllConnections() throws IOException {
+        List<Socket> idle = new ArrayList<Socket>();
+        try {
+            for (int i = 0; i <= ThinServer.WORKER_THREADS; i++) {
+                Socket socket = new Socket("localhost", sut.getPort());
+                socket.setSoTimeout(5000);
+                idle.add(socket);
+                socket.getOutputStream().write(get("/echo?text=" + i, "HTTP/1.1"));
+                assertEquals("echo " + i, readBody(socket.getInputStream()));
+            }
+            try (Socket socket = new Socket("localhost", sut.getPort())) {
+                socket.setSoTimeout(5000);
+                socket.getOutputStream().write(get("/echo?text=new", "HTTP/1.1"));
+
+                assertEquals("echo new", readBody(socket.getInputStream()));
+            }
+
+            Socket first = idle.get(0);
+            first.getOutputStream().write(get("/echo?text=again", "HTTP/1.1"));
+            assertEquals("echo again", readBody(first.getInputStream()));
+        } finally {
+            for (Socket socket : idle) {
+                socket.close();
+            }
+        }
+    }
+
+    @Test
+    public void start_fileReaderWithPath_sendsFile() throws IOException {
+        final Path file = folder.newFile("style.css").toPath();
+        Files.write(file, "body {}".getBytes(StandardCharsets.UTF_8));
+        sut.setFileReader(new ThinServerFileReader() {
+            @Override
+            public byte[] getFileContent(String filename) {
+                throw new AssertionError("file has to be sent from its path");
+            }
+
+            @Override
+            public String getContentType(String filename) {
+                return "text/css";
+            }
+
+            @Override
+            public Path getFilePath(String filename) {
+                return file;
+            }
+        });
+
+        try (Socket socket = new Socket("localhost", sut.getPort())) {
+            socket.setSoTimeout(5000);
+            socket.getOutputStream().write(get("/public/style.css", "HTTP/1.1"));
+
+            assertEquals("body {}", readBody(socket.getInputStream()));
+        }
+    }
+
+    @Test
+    public void start_metricsStream_sendsPublishedMetricsAfterLastEventId() throws IOException {
+        LiveMetricsBuffer metrics = new LiveMetricsBuffer(16);
+        metrics.publish(new LiveMetric(LiveMetric.TYPE_RUN, 1, 10, 5, 0.5));
+        metrics.publish(new LiveMetric(LiveMetric.TYPE_RUN, 2, 10, 6, 0.6));
+        sut.setLiveMetrics(metrics);
+
+        try (Socket socket = new Socket("localhost", sut.getPort())) {
+            socket.setSoTimeout(5000);
+            socket.getOutputStream().write(("GET " + ThinServer.METRICS_PATH + " HTTP/1.1\r\nHost: localhost\r\n"
+                    + "Last-Event-ID: 0\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            InputStream in = socket.getInputStream();
+
+            Map<String, String> headers = readHeaders(in);
+            assertTrue(headers.get("content-type").startsWith("text/event-stream"));
+            assertTrue(readLine(in).startsWith("retry:"));
+            assertEquals("", readLine(in));
+
+            assertEquals("id: 1", readLine(in));
+            assertEquals("event: run", readLine(in));
+            assertTrue(readLine(in).contains("\"run\":2"));
+            assertEquals("", readLine(in));
+
+            metrics.publish(new LiveMetric(LiveMetric.TYPE_PROGRESS, 3, 1, 0, 0));
+            assertEquals("id: 2", readLine(in));
+            assertEquals("event: progress", readLine(in));
+        }
+    }
+
+    @Test
+    public void start_lastEventIdAfterHead_sendsMetricsFromStart() throws IOException {
+        LiveMetricsBuffer metrics = new LiveMetricsBuffer(16);
+        metrics.publish(new LiveMetric(LiveMetric.TYPE_RUN, 1, 10, 5, 0.5));
+        sut.setLiveMetrics(metrics);
+
+        try (Socket socket = openMetricsStream(41)) {
+            InputStream in = socket.getInputStream();
+
+            assertEquals("id: 0", readLine(in));
+        }
+    }
+
+    @Test
+    public void start_moreMetricsStreamsThanWorkers_answersOtherRequests() throws IOException {
+        sut.setLiveMetrics(new LiveMetricsBuffer(16));
+        List<Socket> streams = new ArrayList<Socket>();
+        try {
+            for (int i = 0; i <= ThinServer.WORKER_THREADS; i++) {
+                streams.add(openMetricsStream(-1));
+            }
+            try (Socket socket = new Socket("localhost", sut.getPort())) {
+                socket.setSoTimeout(5000);
+                socket.getOutputStream().write(get("/echo?text=free", "HTTP/1.1"));
+
+                assertEquals("echo free", readBody(socket.getInputStream()));
+            }
+        } finally {
+            for (Socket stream : streams) {
+                stream.close();
+            }
+        }
+    }
+
+    @Test
+    public void determineSession_knownCookie_reusesSession() throws IOException {
+        Request first = new Request((Socket) null);
+        Response response = new Response(null);
+        sut.determineSession(first, response);
+
+        Request second = new Request((Socket) null);
+        second.setCookie(response.getCookie("pts_sessionid"));
+        sut.determineSession(second, new Response(null));
+
+        assertSame(first.getSessionData(), second.getSessionData());
+    }
+
+    @Test
+    public void staticFileCache_transferTo_sendsWholeFile() throws IOException {
+        Path file = folder.newFile("style.css").toPath();
+        byte[] content = new byte[100000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        Files.write(file, content);
+        StaticFileCache cache = new StaticFileCache();
+
+        StaticFileCache.CachedFile cached = cache.get(file.toString());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cached.transferTo(Channels.newChannel(out));
+
+        assertSame(cached, cache.get(file.toString()));
+        assertArrayEquals(content, out.toByteArray());
+        assertNull(cache.get(file.toString() + ".missing"));
+        cache.clear();
+    }
+
+    @Test
+    public void staticFileCache_fileChangedWhileSending_keepsOldVersionOpen() throws IOException {
+        Path file = folder.newFile("script.js").toPath();
+        Files.write(file, new byte[]{1, 2, 3});
+        StaticFileCache cache = new StaticFileCache();
+        StaticFileCache.CachedFile sending = cache.get(file.toString());
+
+        Files.write(file, new byte[]{4, 5, 6, 7});
+        StaticFileCache.CachedFile changed = cache.get(file.toString());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        sending.transferTo(Channels.newChannel(out));
+        sending.release();
+        changed.release();
+
+        assertNotSame(sending, changed);
+        assertEquals(3, out.size());
+        assertEquals(4, changed.getSize());
+        cache.clear();
+    }
+
+    @Test
+    public void sessionData_addNull_removesObject() {
+        SessionData data = new SessionData();
+        data.addObject("key", "value");
+        data.addObject("key", null);
+
+        assertNull(data.getObject("key"));
+    }
+
+    /**
+     * @return a connection to the metrics whose header has been read
+     */
+    private Socket openMetricsStream(long lastEventId) throws IOException {
+        Socket socket = new Socket("localhost", sut.getPort());
+        socket.setSoTimeout(5000);
+        socket.getOutputStream().write(("GET " + ThinServer.METRICS_PATH + " HTTP/1.1\r\nHost: localhost\r\n"
+                + (lastEventId < 0 ? "" : "Last-Event-ID: " + lastEventId + "\r\n") + "\r\n")
+                .getBytes(StandardCharsets.US_ASCII));
+        InputStream in = socket.getInputStream();
+        readHeaders(in);
+        assertTrue(readLine(in).startsWith("retry:"));
+        assertEquals("", readLine(in));
+        return socket;
+    }
+
+    private static byte[] get(String path, String version) {
+        return ("GET " + path + " " + version + "\r\nHost: localhost\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        Map<String, String> headers = readHeaders(in);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        if ("chunked".equals(headers.get("transfer-encoding"))) {
+            int size;
+            while ((size = Integer.parseInt(readLine(in), 16)) > 0) {
+                body.write(readBytes(in, size));
+                readLine(in);
+            }
+            readLine(in);
+        } else {
+            body.write(readBytes(in, Integer.parseInt(headers.get("content-length"))));
+        }
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> readHeaders(InputStream in) throws IOException {
+        Map<String, String> headers = new HashMap<String, String>();
+        String line = readLine(in);
+        assertTrue(line, line.startsWith("HTTP/1.1 200"));
+        while (!(line = readLine(in)).isEmpty()) {
+            int colon = line.indexOf(':');
+            headers.put(line.substring(0, colon).trim().toLowerCase(), line.substring(colon + 1).trim());
+        }
+        return headers;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\n') {
+            if (c == -1) throw new IOException("Connection closed");
+            if (c != '\r') sb.append((char) c);
+        }
+        return sb.toString();
+    }
+
+    private static byte[] readBytes(InputStream in, int count) throws IOException {
+        byte[] bytes = new byte[count];
+        int read = 0;
+        while (read < count) {
+            int n = in.read(bytes, read, count - read);
+            if (n == -1) throw new IOException("Connection closed");
+            read += n;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,202 @@
+package org.woped.quantana.graph;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class VisitCountSolverTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void solve_sequence_visitsEveryNodeOncePerCase() {
+        Node p1 = place("p1");
+        Node t1 = transition("t1");
+        Node p2 = place("p2");
+        connect(p1, t1, 1.0);
+        connect(t1, p2, 1.0);
+
+        VisitCountSolver sut = new VisitCountSolver(new Node[]{p1, t1, p2}, p1);
+        double[] visits = sut.solve(50.0);
+
+        assertArrayEquals(new double[]{50.0, 50.0, 50.0}, visits, DELTA);
+        assertEquals(1, sut.getIterations());
+    }
+
+    @Test
+    public void solve_xorSplit_dividesVisitsByProbability() {
+        Node p1 = place("p1");
+        Node split = transition("split");
+        Node p2 = place("p2");
+        Node p3 = place("p3");
+        connect(p1, split, 1.0);
+        connect(split, p2, 0.3);
+        connect(split, p3, 0.7);
+
+        double[] visits = new VisitCountSolver(new Node[]{p1, split, p2, p3}, p1).solve(10.0);
+
+        assertEquals(3.0, visits[2], DELTA);
+        assertEquals(7.0, visits[3], DELTA);
+    }
+
+    @Test
+    public void solve_loop_returnsGeometricVisits() {
+        // p1 -> t1 -> p2, p2 -> back (0.9) -> p1, p2 -> exit (0.1) -> p3
+        Node p1 = place("p1");
+        Node t1 = transition("t1");
+        Node p2 = place("p2");
+        Node back = transition("back");
+        Node exit = transition("exit");
+        Node p3 = place("p3");
+        connect(p1, t1, 1.0);
+        connect(t1, p2, 1.0);
+        connect(p2, back, 0.9);
+        connect(back, p1, 1.0);
+        connect(p2, exit, 0.1);
+        connect(exit, p3, 1.0);
+
+        double[] visits = new VisitCountSolver(new Node[]{p1, t1, p2, back, exit, p3}, p1).solve(1.0);
+
+        assertEquals(10.0, visits[1], 1e-8);
+        assertEquals(9.0, visits[3], 1e-8);
+        assertEquals(1.0, visits[5], 1e-8);
+    }
+
+    @Test
+    public void solve_andSplitAndJoin_visitsBranchesAndJoinOncePerCase() {
+        Node p1 = place("p1");
+        Node split = transition("split");
+        Node a = place("a");
+        Node b = place("b");
+        Node join = transition("join");
+        Node p2 = place("p2");
+        split.setAndSplit(true);
+        join.setAndJoin(true);
+        connect(p1, split, 1.0);
+        connect(split, a, 0.5);
+        connect(split, b, 0.5);
+        connect(a, join, 1.0);
+        connect(b, join, 1.0);
+        connect(join, p2, 1.0);
+
+        double[] visits = new VisitCountSolver(new Node[]{p1, split, a, b, join, p2}, p1).solve(4.0);
+
+        assertArrayEquals(new double[]{4.0, 4.0, 4.0, 4.0, 4.0, 4.0}, visits, DELTA);
+    }
+
+    @Test
+    public void setNumOfRuns_always_storesVisitsInNodes() {
+        Node p1 = place("p1");
+        Node t1 = transition("t1");
+        connect(p1, t1, 1.0);
+
+        new VisitCountSolver(new Node[]{p1, t1}, p1).setNumOfRuns(7.0);
+
+        assertEquals(7.0, t1.getNumOfRuns(), DELTA);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void solve_loopWithoutExit_throwsException() {
+        Node p1 = place("p1");
+        Node t1 = transition("t1");
+        connect(p1, t1, 1.0);
+        connect(t1, p1, 1.0);
+
+        new VisitCountSolver(new Node[]{p1, t1}, p1).solve(1.0);
+    }
+
+    @Test
+    public void solve_tolerance_errorOfLoopBelowTolerance() {
+        // p1 -> t1 -> p2, p2 -> back (0.99) -> p1, p2 -> exit (0.01) -> p3
+        Node p1 = place("p1");
+        Node t1 = transition("t1");
+        Node p2 = place("p2");
+        Node back = transition("back");
+        Node exit = transition("exit");
+        Node p3 = place("p3");
+        connect(p1, t1, 1.0);
+        connect(t1, p2, 1.0);
+        connect(p2, back, 0.99);
+        connect(back, p1, 1.0);
+        connect(p2, exit, 0.01);
+        connect(exit, p3, 1.0);
+
+        VisitCountSolver sut = new VisitCountSolver(new Node[]{p1, t1, p2, back, exit, p3}, p1);
+        double[] visits = sut.solve(1.0, 0.001);
+
+        assertEquals(100.0, visits[1], 100.0 * 0.001);
+        assertEquals(1.0, visits[5], 0.001);
+        assertTrue(sut.getIterations() < VisitCountSolver.MAX_ITERATIONS);
+    }
+
+    @Test
+    public void solve_loopsInSequence_solvesEachLoop() {
+        // p1 -> t1 -> p2 with loop t1 <- b1 (0.5), p2 -> t2 -> p3 with loop t2 <- b2 (0.75)
+        Node p1 = place("p1");
+        Node t1 = transition("t1");
+        Node p2 = place("p2");
+        Node b1 = transition("b1");
+        Node t2 = transition("t2");
+        Node p3 = place("p3");
+        Node b2 = transition("b2");
+        Node e2 = transition("e2");
+        Node p4 = place("p4");
+        connect(p1, t1, 1.0);
+        connect(t1, p2, 1.0);
+        connect(p2, b1, 0.5);
+        connect(b1, p1, 1.0);
+        connect(p2, t2, 0.5);
+        connect(t2, p3, 1.0);
+        connect(p3, b2, 0.75);
+        connect(b2, p2, 1.0);
+        connect(p3, e2, 0.25);
+        connect(e2, p4, 1.0);
+
+        double[] visits = new VisitCountSolver(new Node[]{p4, e2, b2, p3, t2, b1, p2, t1, p1}, p1).solve(1.0);
+
+        // every case leaves through e2 once, so p2 is visited 1 / (0.5 * 0.25) times
+        assertEquals(1.0, visits[0], 1e-8);
+        assertEquals(4.0, visits[4], 1e-8);
+        assertEquals(8.0, visits[6], 1e-8);
+        assertEquals(5.0, visits[7], 1e-8);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void solve_innerLoopWithoutExit_throwsException() {
+        Node p1 = place("p1");
+        Node t1 = transition("t1");
+        Node p2 = place("p2");
+        Node t2 = transition("t2");
+        connect(p1, t1, 1.0);
+        connect(t1, p2, 1.0);
+        connect(p2, t2, 1.0);
+        connect(t2, p2, 1.0);
+
+        new VisitCountSolver(new Node[]{p1, t1, p2, t2}, p1).solve(1.0, 0.001);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void solve_toleranceZero_throwsException() {
+        Node p1 = place("p1");
+
+        new VisitCountSolver(new Node[]{p1}, p1).solve(1.0, 0.0);
+    }
+
+    private static Node place(String id) {
+        Node n = new Node(id, id);
+        n.setType(Node.TYPE_PLACE);
+        return n;
+    }
+
+    private static Node transition(String id) {
+        Node n = new Node(id, id);
+        n.setType(Node.TYPE_TRANS_SIMPLE);
+        return n;
+    }
+
+    private static void connect(Node source, Node target, double probability) {
+        Arc a = new Arc(target, probability);
+        a.setSource(source);
+        source.getSuccessor().add(a);
+    }
+}
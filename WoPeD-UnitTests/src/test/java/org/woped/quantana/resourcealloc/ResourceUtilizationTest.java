@@ -0,0 +1,78 @@
+package org.woped.quantana.resourcealloc;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.woped.core.model.PetriNetModelProcessor;
+import org.woped.core.model.petrinet.TransitionModel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ResourceUtilizationTest {
+
+    private Resource alice;
+    private Resource bob;
+    private Resource carol;
+    private ResourceUtilization sut;
+
+    @Before
+    public void setup() {
+        ResourceAllocation allocation = new ResourceAllocation(new ArrayList<String>(), new ArrayList<String>(),
+                new ArrayList<TransitionModel>().iterator(), new PetriNetModelProcessor());
+        alice = resource(allocation, "alice", "sales", "clerk");
+        bob = resource(allocation, "bob", "sales", "clerk");
+        carol = resource(allocation, "carol", "sales", "manager");
+
+        sut = new ResourceUtilization(allocation, new Random(1));
+    }
+
+    @Test
+    public void getFreeResPerGroupRole_initially_returnsMatchingResources() {
+        assertEquals(new HashSet<>(Arrays.asList(alice, bob)),
+                new HashSet<>(sut.getFreeResPerGroupRole("sales", "clerk")));
+        assertEquals(1, sut.getNumFreeResPerGroupRole("sales", "manager"));
+        assertEquals(0, sut.getNumFreeResPerGroupRole("purchase", "clerk"));
+    }
+
+    @Test
+    public void reserveResource_lastFreeResource_noneLeft() {
+        sut.reserveResource(alice);
+        sut.reserveResource(bob);
+
+        assertEquals(0, sut.getNumFreeResPerGroupRole("sales", "clerk"));
+        assertNull(sut.chooseResourceFromFreeResources("sales", "clerk"));
+    }
+
+    @Test
+    public void freeResource_afterUse_isFreeAgain() {
+        sut.reserveResource(alice);
+        sut.useResource(alice);
+        sut.freeResource(alice);
+        sut.freeResource(alice);
+
+        assertEquals(2, sut.getNumFreeResPerGroupRole("sales", "clerk"));
+        assertTrue(sut.getFreeResources().containsKey("alice"));
+    }
+
+    @Test
+    public void chooseResourceFromFreeResources_someReserved_returnsFreeResource() {
+        sut.reserveResource(alice);
+
+        for (int i = 0; i < 10; i++) {
+            assertSame(bob, sut.chooseResourceFromFreeResources("sales", "clerk"));
+        }
+        assertNull(sut.chooseResourceFromFreeResources("", ""));
+    }
+
+    private static Resource resource(ResourceAllocation allocation, String name, String group, String role) {
+        Resource resource = new Resource(name);
+        resource.getGroups().add(group);
+        resource.getRoles().add(role);
+        allocation.addResource(resource);
+        return resource;
+    }
+}
@@ -0,0 +1,176 @@
+package org.woped.quantana.sim;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+public class SimLogSinkTest {
+
+    private static final Date BASE_DATE = new Date(1500000000123L);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void xesLogSink_traces_writesSameXesAsLog() throws IOException {
+        SimLog log = createLog();
+        Path file = folder.newFile("log.xes").toPath();
+
+        try (XESLogSink sut = new XESLogSink(file, false)) {
+            log.setSink(sut);
+            log.finishTrace(1);
+            log.finishTrace(2);
+        }
+
+        assertEquals(toXES(createLog()), new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void xesLogSink_gzip_writesCompressedXes() throws IOException {
+        SimLog log = createLog();
+        Path file = folder.newFile("log.xes.gz").toPath();
+
+        try (XESLogSink sut = new XESLogSink(file, true)) {
+            log.setSink(sut);
+            log.finishTrace(1);
+            log.finishTrace(2);
+        }
+
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(Files.readAllBytes(file)))) {
+            assertEquals(toXES(createLog()), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void csvLogSink_traces_writesSameCsvAsLog() throws IOException {
+        SimLog log = createLog();
+        Path file = folder.newFile("log.csv").toPath();
+
+        try (CSVLogSink sut = new CSVLogSink(file, false)) {
+            log.setSink(sut);
+            log.finishTrace(1);
+            log.finishTrace(2);
+        }
+
+        StringWriter expected = new StringWriter();
+        PrintWriter p = new PrintWriter(expected);
+        createLog().writeCSV(p);
+        p.flush();
+        assertEquals(expected.toString(), new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void binaryLogSink_sameCaseInTwoRuns_keepsTracesApart() throws IOException {
+        Path file = folder.newFile("log.bin").toPath();
+        SimLog log = new SimLog();
+        log.setBaseDate(BASE_DATE);
+        try (BinaryLogSink sink = new BinaryLogSink(file, false)) {
+            log.setSink(sink);
+            for (int run = 1; run <= 2; run++) {
+                log.setReplication(run);
+                log.addEvent(1, new SimLogEvent("register", "alice", run, 1.0));
+                log.finishTrace(1);
+            }
+        }
+
+        String xes = toXES(BinaryLogSink.read(file));
+        assertTrue(xes.contains("value=\"1-1\""));
+        assertTrue(xes.contains("value=\"2-1\""));
+    }
+
+    @Test
+    public void finishTrace_withSink_removesTraceFromLog() throws IOException {
+        SimLog log = createLog();
+        Path file = folder.newFile("log.bin").toPath();
+
+        try (BinaryLogSink sut = new BinaryLogSink(file, false)) {
+            log.setSink(sut);
+            log.finishTrace(1);
+
+            assertEquals(1, sut.getTraceCount());
+            assertFalse(toXES(log).contains("value=\"1\""));
+            assertTrue(toXES(log).contains("value=\"2\""));
+        }
+    }
+
+    @Test
+    public void binaryLogSink_read_returnsWrittenTraces() throws IOException {
+        for (boolean gzip : new boolean[]{false, true}) {
+            SimLog log = createLog();
+            Path file = folder.newFile("log" + gzip + ".bin").toPath();
+
+            try (BinaryLogSink sut = new BinaryLogSink(file, gzip)) {
+                log.setSink(sut);
+                log.finishTrace(1);
+                log.finishTrace(2);
+            }
+
+            assertEquals(toXES(createLog()), toXES(BinaryLogSink.read(file)));
+        }
+    }
+
+    @Test
+    public void binaryLogSink_moreTracesThanBlock_copiesAllTraces() throws IOException {
+        Path binary = folder.newFile("log.bin").toPath();
+        SimLog log = new SimLog();
+        log.setBaseDate(BASE_DATE);
+        int count = BinaryLogSink.BLOCK_SIZE * 2 + 5;
+        try (BinaryLogSink sink = new BinaryLogSink(binary, true)) {
+            log.setSink(sink);
+            for (int i = 0; i < count; i++) {
+                log.addEvent(i, new SimLogEvent("task" + (i % 7), "res" + (i % 3), i, 1.5));
+                log.finishTrace(i);
+            }
+        }
+
+        Path xes = folder.newFile("log.xes").toPath();
+        try (XESLogSink sut = new XESLogSink(xes, false)) {
+            BinaryLogSink.copy(binary, sut);
+            assertEquals(count, sut.getTraceCount());
+        }
+        String text = new String(Files.readAllBytes(xes), StandardCharsets.UTF_8);
+        assertTrue(text.contains("value=\"" + (count - 1) + "\""));
+        assertTrue(text.endsWith("</log>\n"));
+    }
+
+    @Test
+    public void simLogDateFormat_format_matchesSimpleDateFormat() {
+        SimpleDateFormat expected = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
+        SimLogDateFormat sut = new SimLogDateFormat();
+
+        for (long millis = BASE_DATE.getTime(); millis < BASE_DATE.getTime() + 3 * 3600000L; millis += 7919) {
+            assertEquals(expected.format(new Date(millis)), sut.format(millis));
+        }
+    }
+
+    private static SimLog createLog() {
+        SimLog log = new SimLog();
+        log.setBaseDate(BASE_DATE);
+        log.addEvent(1, new SimLogEvent("register", "alice", 0.5, 2.25));
+        log.addEvent(1, new SimLogEvent("check", "bob", 3.0, 1.0));
+        log.addEvent(2, new SimLogEvent("register", "alice", 10.0, 2.0));
+        return log;
+    }
+
+    private static String toXES(SimLog log) {
+        StringWriter out = new StringWriter();
+        PrintWriter p = new PrintWriter(out);
+        log.writeXES(p);
+        p.flush();
+        return out.toString();
+    }
+}
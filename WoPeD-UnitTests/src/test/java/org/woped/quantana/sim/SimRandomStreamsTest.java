@@ -0,0 +1,52 @@
+package org.woped.quantana.sim;
+
+import org.junit.Test;
+import umontreal.iro.lecuyer.rng.MRG32k3a;
+import umontreal.iro.lecuyer.rng.RandomStream;
+
+import static org.junit.Assert.*;
+
+public class SimRandomStreamsTest {
+
+    @Test
+    public void jump_substreamDistance_matchesMRG32k3a() {
+        long[] seed = SimRandomStreams.seedFor(42);
+        MRG32k3a stream = new MRG32k3a();
+        stream.setSeed(seed);
+        stream.resetNextSubstream();
+
+        long[] expected = stream.getState();
+        long[] actual = SimRandomStreams.jump(seed, SimRandomStreams.power(SimRandomStreams.A1, 76, SimRandomStreams.M1),
+                SimRandomStreams.power(SimRandomStreams.A2, 76, SimRandomStreams.M2));
+
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void seedFor_sameSeed_sameNumbers() {
+        RandomStream first = new SimRandomStreams(SimRandomStreams.seedFor(7)).next();
+        RandomStream second = new SimRandomStreams(SimRandomStreams.seedFor(7)).next();
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(first.nextDouble(), second.nextDouble(), 0);
+        }
+    }
+
+    @Test
+    public void next_consecutiveStreams_differ() {
+        SimRandomStreams sut = new SimRandomStreams(SimRandomStreams.seedFor(7));
+
+        assertNotEquals(sut.next().nextDouble(), sut.next().nextDouble(), 0);
+    }
+
+    @Test
+    public void nextStream_validSeed_staysValid() {
+        long[] seed = SimRandomStreams.seedFor(-1);
+        for (int i = 0; i < 100; i++) {
+            seed = SimRandomStreams.nextStream(seed);
+        }
+
+        // throws if the seed is out of range
+        new MRG32k3a().setSeed(seed);
+    }
+}
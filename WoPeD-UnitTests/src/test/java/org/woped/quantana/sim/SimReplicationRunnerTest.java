@@ -0,0 +1,201 @@
+package org.woped.quantana.sim;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.woped.core.model.CreationMap;
+import org.woped.core.model.PetriNetModelProcessor;
+import org.woped.core.model.petrinet.AbstractPetriNetElementModel;
+import org.woped.core.model.petrinet.OperatorTransitionModel;
+import org.woped.core.model.petrinet.ResourceClassModel;
+import org.woped.core.model.petrinet.ResourceModel;
+import org.woped.core.model.petrinet.TransitionModel;
+import org.woped.editor.controller.vc.EditorVC;
+import org.woped.quantana.resourcealloc.ResourceAllocation;
+import org.woped.quantana.resourcealloc.ResourceUtilization;
+import org.woped.tests.TestNetGenerator;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SimReplicationRunnerTest {
+
+    private SimGraph graph;
+    private ResourceAllocation resourceAllocation;
+    private SimParameters parameters;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setup() {
+        EditorVC editor = new TestNetGenerator().getDemoEditor();
+        ((TransitionModel) editor.getModelProcessor().getElementContainer().getElementById("t1")).getToolSpecific()
+                .setTime(2);
+        graph = new SimGraph(editor);
+        resourceAllocation = new ResourceAllocation(new ArrayList<String>(), new ArrayList<String>(),
+                new ArrayList<TransitionModel>().iterator(), editor.getModelProcessor());
+
+        parameters = new SimParameters(50, 100);
+        parameters.setRuns(12);
+        parameters.setStop(SimRunner.STOP_BOTH);
+        parameters.setDistCases(SimDistribution.EXPOTENTIONAL);
+        parameters.setCParam(0.5);
+        parameters.setDistServ(SimDistribution.EXPOTENTIONAL);
+        parameters.setSParam(0.5);
+        parameters.setQueue(SimRunner.Q_FIFO);
+        parameters.setResUse(SimRunner.RES_NOT_USED);
+    }
+
+    @Test
+    public void run_sameSeed_sameResultsForAnyParallelism() {
+        SimReplicationRunner sequential = run(4711, 1);
+        SimReplicationRunner parallel = run(4711, 4);
+
+        assertEquals(parameters.getRuns() + 1, sequential.getRunStats().size());
+        assertEquals(sequential.getRunStats().size(), parallel.getRunStats().size());
+        for (int i = 0; i < sequential.getRunStats().size(); i++) {
+            assertSameStats(sequential.getRunStats().get(i), parallel.getRunStats().get(i));
+        }
+        assertArrayEquals(sequential.getDistributionValues(), parallel.getDistributionValues());
+    }
+
+    @Test
+    public void run_differentSeeds_differentResults() {
+        SimReportStats first = run(1, 2).getRepStats();
+        SimReportStats second = run(2, 2).getRepStats();
+
+        assertNotEquals(first.getProcWaitTime(), second.getProcWaitTime(), 0);
+    }
+
+    @Test
+    public void run_finished_reportsAllRuns() {
+        SimReplicationRunner sut = run(3, 3);
+
+        assertEquals(parameters.getRuns(), sut.getRunNumber());
+        assertTrue(sut.getAbort());
+        assertTrue(sut.getRepStats().getAvgFinishedCases() > 0);
+    }
+
+    @Test
+    public void run_logSink_recordsCasesOfAllRunsWithoutTextLog() throws Exception {
+        useNetWithSplitsAndResources();
+        parameters.setWriteLog(true);
+        Path file = folder.newFile("log.bin").toPath();
+        SimReplicationRunner sut = new SimReplicationRunner(graph, new ResourceUtilization(resourceAllocation),
+                parameters, 4711, 3);
+        try (BinaryLogSink sink = new BinaryLogSink(file, false)) {
+            sut.setLogSink(sink);
+            sut.run();
+        }
+
+        assertTrue(sut.getLog().isEmpty());
+        StringWriter xes = new StringWriter();
+        PrintWriter p = new PrintWriter(xes);
+        BinaryLogSink.read(file).writeXES(p);
+        p.flush();
+        for (int run = 1; run <= parameters.getRuns(); run++) {
+            assertTrue(xes.toString().contains("<string key=\"concept:name\" value=\"" + run + "-"));
+        }
+    }
+
+    @Test
+    public void run_splitsAndResourcesSameSeed_sameResults() {
+        useNetWithSplitsAndResources();
+
+        SimReplicationRunner first = run(4711, 2);
+        SimReplicationRunner second = run(4711, 2);
+
+        assertTrue(first.getRepStats().getAvgFinishedCases() > 0);
+        for (int i = 0; i < first.getRunStats().size(); i++) {
+            assertSameStats(first.getRunStats().get(i), second.getRunStats().get(i));
+        }
+        assertArrayEquals(first.getDistributionValues(), second.getDistributionValues());
+    }
+
+    private void useNetWithSplitsAndResources() {
+        EditorVC editor = new TestNetGenerator().getDemoEditor();
+        PetriNetModelProcessor processor = createNetWithSplitsAndResources(editor);
+        graph = new SimGraph(editor);
+        List<TransitionModel> tasks = new ArrayList<TransitionModel>();
+        for (String id : new String[] { "t2", "t3", "t4", "t5" }) {
+            tasks.add((TransitionModel) processor.getElementContainer().getElementById(id));
+        }
+        resourceAllocation = new ResourceAllocation(new ArrayList<String>(Arrays.asList("Clerk")),
+                new ArrayList<String>(Arrays.asList("Service")), tasks.iterator(), processor);
+        parameters.setResUse(SimRunner.RES_USED);
+    }
+
+    private SimReplicationRunner run(long seed, int parallelism) {
+        SimReplicationRunner runner = new SimReplicationRunner(graph, new ResourceUtilization(resourceAllocation),
+                parameters, seed, parallelism);
+        runner.run();
+        return runner;
+    }
+
+    /**
+     * p1 -> AND split -> (t2, t3) -> AND join -> XOR split -> (t4, t5) -> p9, all tasks share two resources
+     */
+    private PetriNetModelProcessor createNetWithSplitsAndResources(EditorVC editor) {
+        PetriNetModelProcessor processor = new PetriNetModelProcessor();
+        editor.setModelProcessor(processor);
+        for (int i = 1; i <= 9; i++) {
+            createElement(processor, "p" + i, AbstractPetriNetElementModel.PLACE_TYPE, 0);
+        }
+        createElement(processor, "op1", AbstractPetriNetElementModel.TRANS_OPERATOR_TYPE, OperatorTransitionModel.AND_SPLIT_TYPE);
+        createElement(processor, "op2", AbstractPetriNetElementModel.TRANS_OPERATOR_TYPE, OperatorTransitionModel.AND_JOIN_TYPE);
+        createElement(processor, "op3", AbstractPetriNetElementModel.TRANS_OPERATOR_TYPE, OperatorTransitionModel.XOR_SPLIT_TYPE);
+        for (int i = 2; i <= 5; i++) {
+            createElement(processor, "t" + i, AbstractPetriNetElementModel.TRANS_SIMPLE_TYPE, 0);
+        }
+        String[][] arcs = { { "p1", "op1" }, { "op1", "p2" }, { "op1", "p3" }, { "p2", "t2" }, { "p3", "t3" },
+                { "t2", "p4" }, { "t3", "p5" }, { "p4", "op2" }, { "p5", "op2" }, { "op2", "p6" }, { "p6", "op3" },
+                { "op3", "p7" }, { "op3", "p8" }, { "p7", "t4" }, { "p8", "t5" }, { "t4", "p9" }, { "t5", "p9" } };
+        for (String[] arc : arcs) {
+            processor.createArc(arc[0], arc[1]);
+        }
+
+        processor.addRole(new ResourceClassModel("Clerk", ResourceClassModel.TYPE_ROLE));
+        processor.addOrgUnit(new ResourceClassModel("Service", ResourceClassModel.TYPE_ORGUNIT));
+        for (String resource : new String[] { "r1", "r2" }) {
+            processor.addResource(new ResourceModel(resource));
+            processor.addResourceMapping("Clerk", resource);
+            processor.addResourceMapping("Service", resource);
+        }
+        for (int i = 2; i <= 5; i++) {
+            TransitionModel task = (TransitionModel) processor.getElementContainer().getElementById("t" + i);
+            CreationMap map = CreationMap.createMap();
+            map.setId(task.getId());
+            map.setResourceRole("Clerk");
+            map.setResourceOrgUnit("Service");
+            task.getToolSpecific().setTransResource(map);
+            task.getToolSpecific().setTime(1);
+        }
+        return processor;
+    }
+
+    private static void createElement(PetriNetModelProcessor processor, String id, int type, int operatorType) {
+        CreationMap map = CreationMap.createMap();
+        map.setId(id);
+        map.setType(type);
+        if (operatorType != 0) {
+            map.setOperatorType(operatorType);
+        }
+        processor.createElement(map);
+    }
+
+    private static void assertSameStats(SimRunStats expected, SimRunStats actual) {
+        assertEquals(expected.getDuration(), actual.getDuration(), 0);
+        assertEquals(expected.getFinishedCases(), actual.getFinishedCases());
+        assertEquals(expected.getProcWaitTime(), actual.getProcWaitTime(), 0);
+        assertEquals(expected.getProcServTime(), actual.getProcServTime(), 0);
+        assertEquals(expected.getThroughPut(), actual.getThroughPut(), 0);
+    }
+}